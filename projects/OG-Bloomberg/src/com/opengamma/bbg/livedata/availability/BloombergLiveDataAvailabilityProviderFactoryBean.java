@@ -5,8 +5,11 @@
  */
 package com.opengamma.bbg.livedata.availability;
 
+import org.springframework.beans.factory.DisposableBean;
+
 import com.opengamma.bbg.util.BloombergDataUtils;
 import com.opengamma.core.security.SecuritySource;
+import com.opengamma.engine.marketdata.availability.IndexedMarketDataAvailabilityProvider;
 import com.opengamma.engine.marketdata.availability.MarketDataAvailabilityProvider;
 import com.opengamma.util.ArgumentChecker;
 import com.opengamma.util.SingletonFactoryBean;
@@ -14,7 +17,7 @@ import com.opengamma.util.SingletonFactoryBean;
 /**
  * Constructs a {@link MarketDataAvailabilityProvider} which reflects Bloomberg
  */
-public class BloombergLiveDataAvailabilityProviderFactoryBean extends SingletonFactoryBean<MarketDataAvailabilityProvider> {
+public class BloombergLiveDataAvailabilityProviderFactoryBean extends SingletonFactoryBean<MarketDataAvailabilityProvider> implements DisposableBean {
 
   private SecuritySource _securitySource;
   
@@ -38,4 +41,13 @@ public class BloombergLiveDataAvailabilityProviderFactoryBean extends SingletonF
     ArgumentChecker.notNullInjected(getSecuritySource(), "securitySource");
     return BloombergDataUtils.createAvailabilityProvider(getSecuritySource());
   }
+
+  @Override
+  public void destroy() {
+    MarketDataAvailabilityProvider provider = getObject();
+    if (provider instanceof IndexedMarketDataAvailabilityProvider) {
+      ((IndexedMarketDataAvailabilityProvider) provider).dispose();
+    }
+  }
+
 }
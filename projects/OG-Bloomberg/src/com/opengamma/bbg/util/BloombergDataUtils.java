@@ -74,7 +74,8 @@ import com.opengamma.core.id.ExternalSchemes;
 import com.opengamma.core.security.SecuritySource;
 import com.opengamma.core.value.MarketDataRequirementNames;
 import com.opengamma.core.value.MarketDataRequirementNamesHelper;
-import com.opengamma.engine.marketdata.availability.DomainMarketDataAvailabilityProvider;
+import com.opengamma.engine.marketdata.availability.IndexedMarketDataAvailabilityProvider;
+import com.opengamma.engine.marketdata.availability.MarketDataAvailabilityIndex;
 import com.opengamma.engine.marketdata.availability.MarketDataAvailabilityProvider;
 import com.opengamma.financial.analytics.ircurve.NextMonthlyExpiryAdjuster;
 import com.opengamma.financial.security.option.OptionType;
@@ -294,7 +295,7 @@ public final class BloombergDataUtils {
         ExternalSchemes.BLOOMBERG_TICKER_WEAK,
         ExternalSchemes.BLOOMBERG_TICKER);
     Collection<String> validMarketDataRequirementNames = MarketDataRequirementNamesHelper.constructValidRequirementNames();
-    return new DomainMarketDataAvailabilityProvider(securitySource, acceptableSchemes, validMarketDataRequirementNames);
+    return new IndexedMarketDataAvailabilityProvider(securitySource, MarketDataAvailabilityIndex.of(acceptableSchemes, validMarketDataRequirementNames));
   }
 
   public static FudgeMsg parseElement(Element element) {
@@ -86,6 +86,7 @@ public class ExampleMarketDataClientComponentFactory extends AbstractComponentFa
   private MarketDataProviderFactory initLiveMarketDataProviderFactory(ComponentRepository repo) {
     LiveDataClient bbgLiveDataClient = createLiveDataClient(getBbgSubscriptionTopic(), getBbgEntitlementTopic(), getBbgHeartbeatTopic());
     MarketDataAvailabilityProvider bbgAvailabilityProvider = BloombergDataUtils.createAvailabilityProvider(getSecuritySource());
+    repo.registerLifecycleStop(bbgAvailabilityProvider, "dispose");
     MarketDataProvider bbgProvider = new LiveMarketDataProvider(bbgLiveDataClient, getSecuritySource(), bbgAvailabilityProvider, OpenGammaFudgeContext.getInstance(), 
         new PermissiveMarketDataPermissionProvider());
     
@@ -71,6 +71,11 @@ public class DbPositionMasterComponentFactory extends AbstractComponentFactory {
    */
   @PropertyDefinition
   private Integer _maxRetries;
+  /**
+   * The maximum number of objects held in the result cache of the master, null or zero to disable it.
+   */
+  @PropertyDefinition
+  private Integer _resultCacheSize;
 
   //-------------------------------------------------------------------------
   @Override
@@ -85,6 +90,9 @@ public class DbPositionMasterComponentFactory extends AbstractComponentFactory {
     if (getMaxRetries() != null) {
       master.setMaxRetries(getMaxRetries());
     }
+    if (getResultCacheSize() != null) {
+      master.setResultCacheSize(getResultCacheSize());
+    }
     if (getJmsChangeManagerTopic() != null) {
       JmsChangeManager cm = new JmsChangeManager(getJmsConnector(), getJmsChangeManagerTopic());
       master.setChangeManager(cm);
@@ -100,6 +108,9 @@ public class DbPositionMasterComponentFactory extends AbstractComponentFactory {
     info.addAttribute(ComponentInfoAttributes.REMOTE_CLIENT_JAVA, RemotePositionMaster.class);
     info.addAttribute(ComponentInfoAttributes.UNIQUE_ID_SCHEME, master.getUniqueIdScheme());
     repo.registerComponent(info, master);
+    if (master.getResultCacheSize() > 0) {
+      DocumentDbMasterResultCacheLifecycle.register(repo, info, master);
+    }
     
     // publish
     if (isPublishRest()) {
@@ -142,6 +153,8 @@ public class DbPositionMasterComponentFactory extends AbstractComponentFactory {
         return getUniqueIdScheme();
       case -2022653118:  // maxRetries
         return getMaxRetries();
+      case -1585997050:  // resultCacheSize
+        return getResultCacheSize();
     }
     return super.propertyGet(propertyName, quiet);
   }
@@ -170,6 +183,9 @@ public class DbPositionMasterComponentFactory extends AbstractComponentFactory {
       case -2022653118:  // maxRetries
         setMaxRetries((Integer) newValue);
         return;
+      case -1585997050:  // resultCacheSize
+        setResultCacheSize((Integer) newValue);
+        return;
     }
     super.propertySet(propertyName, newValue, quiet);
   }
@@ -188,6 +204,7 @@ public class DbPositionMasterComponentFactory extends AbstractComponentFactory {
           JodaBeanUtils.equal(getJmsChangeManagerTopic(), other.getJmsChangeManagerTopic()) &&
           JodaBeanUtils.equal(getUniqueIdScheme(), other.getUniqueIdScheme()) &&
           JodaBeanUtils.equal(getMaxRetries(), other.getMaxRetries()) &&
+          JodaBeanUtils.equal(getResultCacheSize(), other.getResultCacheSize()) &&
           super.equals(obj);
     }
     return false;
@@ -203,6 +220,7 @@ public class DbPositionMasterComponentFactory extends AbstractComponentFactory {
     hash += hash * 31 + JodaBeanUtils.hashCode(getJmsChangeManagerTopic());
     hash += hash * 31 + JodaBeanUtils.hashCode(getUniqueIdScheme());
     hash += hash * 31 + JodaBeanUtils.hashCode(getMaxRetries());
+    hash += hash * 31 + JodaBeanUtils.hashCode(getResultCacheSize());
     return hash ^ super.hashCode();
   }
 
@@ -381,6 +399,31 @@ public class DbPositionMasterComponentFactory extends AbstractComponentFactory {
     return metaBean().maxRetries().createProperty(this);
   }
 
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the maximum number of objects held in the result cache of the master, null or zero to disable it.
+   * @return the value of the property
+   */
+  public Integer getResultCacheSize() {
+    return _resultCacheSize;
+  }
+
+  /**
+   * Sets the maximum number of objects held in the result cache of the master, null or zero to disable it.
+   * @param resultCacheSize  the new value of the property
+   */
+  public void setResultCacheSize(Integer resultCacheSize) {
+    this._resultCacheSize = resultCacheSize;
+  }
+
+  /**
+   * Gets the the {@code resultCacheSize} property.
+   * @return the property, not null
+   */
+  public final Property<Integer> resultCacheSize() {
+    return metaBean().resultCacheSize().createProperty(this);
+  }
+
   //-----------------------------------------------------------------------
   /**
    * The meta-bean for {@code DbPositionMasterComponentFactory}.
@@ -426,6 +469,11 @@ public class DbPositionMasterComponentFactory extends AbstractComponentFactory {
      */
     private final MetaProperty<Integer> _maxRetries = DirectMetaProperty.ofReadWrite(
         this, "maxRetries", DbPositionMasterComponentFactory.class, Integer.class);
+    /**
+     * The meta-property for the {@code resultCacheSize} property.
+     */
+    private final MetaProperty<Integer> _resultCacheSize = DirectMetaProperty.ofReadWrite(
+        this, "resultCacheSize", DbPositionMasterComponentFactory.class, Integer.class);
     /**
      * The meta-properties.
      */
@@ -437,7 +485,8 @@ public class DbPositionMasterComponentFactory extends AbstractComponentFactory {
         "jmsConnector",
         "jmsChangeManagerTopic",
         "uniqueIdScheme",
-        "maxRetries");
+        "maxRetries",
+        "resultCacheSize");
 
     /**
      * Restricted constructor.
@@ -462,6 +511,8 @@ public class DbPositionMasterComponentFactory extends AbstractComponentFactory {
           return _uniqueIdScheme;
         case -2022653118:  // maxRetries
           return _maxRetries;
+        case -1585997050:  // resultCacheSize
+          return _resultCacheSize;
       }
       return super.metaPropertyGet(propertyName);
     }
@@ -538,6 +589,14 @@ public class DbPositionMasterComponentFactory extends AbstractComponentFactory {
       return _maxRetries;
     }
 
+    /**
+     * The meta-property for the {@code resultCacheSize} property.
+     * @return the meta-property, not null
+     */
+    public final MetaProperty<Integer> resultCacheSize() {
+      return _resultCacheSize;
+    }
+
   }
 
   ///CLOVER:ON
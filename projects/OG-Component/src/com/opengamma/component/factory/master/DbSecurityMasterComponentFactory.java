@@ -86,6 +86,11 @@ public class DbSecurityMasterComponentFactory extends AbstractComponentFactory {
    */
   @PropertyDefinition
   private Class<? extends SecurityMasterDetailProvider> _detailProvider = HibernateSecurityMasterDetailProvider.class;
+  /**
+   * The maximum number of objects held in the result cache of the master, null or zero to disable it.
+   */
+  @PropertyDefinition
+  private Integer _resultCacheSize;
 
   //-------------------------------------------------------------------------
   @Override
@@ -100,6 +105,9 @@ public class DbSecurityMasterComponentFactory extends AbstractComponentFactory {
     if (getMaxRetries() != null) {
       master.setMaxRetries(getMaxRetries());
     }
+    if (getResultCacheSize() != null) {
+      master.setResultCacheSize(getResultCacheSize());
+    }
     if (getJmsChangeManagerTopic() != null) {
       JmsChangeManager cm = new JmsChangeManager(getJmsConnector(), getJmsChangeManagerTopic());
       master.setChangeManager(cm);
@@ -123,6 +131,9 @@ public class DbSecurityMasterComponentFactory extends AbstractComponentFactory {
     info.addAttribute(ComponentInfoAttributes.REMOTE_CLIENT_JAVA, RemoteSecurityMaster.class);
     info.addAttribute(ComponentInfoAttributes.UNIQUE_ID_SCHEME, master.getUniqueIdScheme());
     repo.registerComponent(info, master);
+    if (master.getResultCacheSize() > 0) {
+      DocumentDbMasterResultCacheLifecycle.register(repo, info, master);
+    }
     
     // publish
     if (isPublishRest()) {
@@ -169,6 +180,8 @@ public class DbSecurityMasterComponentFactory extends AbstractComponentFactory {
         return getMaxRetries();
       case -1015570078:  // detailProvider
         return getDetailProvider();
+      case -1585997050:  // resultCacheSize
+        return getResultCacheSize();
     }
     return super.propertyGet(propertyName, quiet);
   }
@@ -204,6 +217,9 @@ public class DbSecurityMasterComponentFactory extends AbstractComponentFactory {
       case -1015570078:  // detailProvider
         setDetailProvider((Class<? extends SecurityMasterDetailProvider>) newValue);
         return;
+      case -1585997050:  // resultCacheSize
+        setResultCacheSize((Integer) newValue);
+        return;
     }
     super.propertySet(propertyName, newValue, quiet);
   }
@@ -231,6 +247,7 @@ public class DbSecurityMasterComponentFactory extends AbstractComponentFactory {
           JodaBeanUtils.equal(getUniqueIdScheme(), other.getUniqueIdScheme()) &&
           JodaBeanUtils.equal(getMaxRetries(), other.getMaxRetries()) &&
           JodaBeanUtils.equal(getDetailProvider(), other.getDetailProvider()) &&
+          JodaBeanUtils.equal(getResultCacheSize(), other.getResultCacheSize()) &&
           super.equals(obj);
     }
     return false;
@@ -248,6 +265,7 @@ public class DbSecurityMasterComponentFactory extends AbstractComponentFactory {
     hash += hash * 31 + JodaBeanUtils.hashCode(getUniqueIdScheme());
     hash += hash * 31 + JodaBeanUtils.hashCode(getMaxRetries());
     hash += hash * 31 + JodaBeanUtils.hashCode(getDetailProvider());
+    hash += hash * 31 + JodaBeanUtils.hashCode(getResultCacheSize());
     return hash ^ super.hashCode();
   }
 
@@ -478,6 +496,31 @@ public class DbSecurityMasterComponentFactory extends AbstractComponentFactory {
     return metaBean().detailProvider().createProperty(this);
   }
 
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the maximum number of objects held in the result cache of the master, null or zero to disable it.
+   * @return the value of the property
+   */
+  public Integer getResultCacheSize() {
+    return _resultCacheSize;
+  }
+
+  /**
+   * Sets the maximum number of objects held in the result cache of the master, null or zero to disable it.
+   * @param resultCacheSize  the new value of the property
+   */
+  public void setResultCacheSize(Integer resultCacheSize) {
+    this._resultCacheSize = resultCacheSize;
+  }
+
+  /**
+   * Gets the the {@code resultCacheSize} property.
+   * @return the property, not null
+   */
+  public final Property<Integer> resultCacheSize() {
+    return metaBean().resultCacheSize().createProperty(this);
+  }
+
   //-----------------------------------------------------------------------
   /**
    * The meta-bean for {@code DbSecurityMasterComponentFactory}.
@@ -534,6 +577,11 @@ public class DbSecurityMasterComponentFactory extends AbstractComponentFactory {
     @SuppressWarnings({"unchecked", "rawtypes" })
     private final MetaProperty<Class<? extends SecurityMasterDetailProvider>> _detailProvider = DirectMetaProperty.ofReadWrite(
         this, "detailProvider", DbSecurityMasterComponentFactory.class, (Class) Class.class);
+    /**
+     * The meta-property for the {@code resultCacheSize} property.
+     */
+    private final MetaProperty<Integer> _resultCacheSize = DirectMetaProperty.ofReadWrite(
+        this, "resultCacheSize", DbSecurityMasterComponentFactory.class, Integer.class);
     /**
      * The meta-properties.
      */
@@ -547,7 +595,8 @@ public class DbSecurityMasterComponentFactory extends AbstractComponentFactory {
         "jmsChangeManagerTopic",
         "uniqueIdScheme",
         "maxRetries",
-        "detailProvider");
+        "detailProvider",
+        "resultCacheSize");
 
     /**
      * Restricted constructor.
@@ -576,6 +625,8 @@ public class DbSecurityMasterComponentFactory extends AbstractComponentFactory {
           return _maxRetries;
         case -1015570078:  // detailProvider
           return _detailProvider;
+        case -1585997050:  // resultCacheSize
+          return _resultCacheSize;
       }
       return super.metaPropertyGet(propertyName);
     }
@@ -668,6 +719,14 @@ public class DbSecurityMasterComponentFactory extends AbstractComponentFactory {
       return _detailProvider;
     }
 
+    /**
+     * The meta-property for the {@code resultCacheSize} property.
+     * @return the meta-property, not null
+     */
+    public final MetaProperty<Integer> resultCacheSize() {
+      return _resultCacheSize;
+    }
+
   }
 
   ///CLOVER:ON
@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.component.factory.master;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.springframework.context.Lifecycle;
+
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.component.ComponentInfo;
+import com.opengamma.component.ComponentRepository;
+import com.opengamma.masterdb.DocumentDbMasterResultCacheMBean;
+
+/**
+ * Lifecycle publishing the result cache statistics of a database master with JMX while the repository is running.
+ * <p>
+ * The statistics are published under "com.opengamma:type=DocumentDbMasterResultCache,name=&lt;type&gt;::&lt;classifier&gt;".
+ */
+final class DocumentDbMasterResultCacheLifecycle implements Lifecycle {
+
+  private final MBeanServer _server;
+  private final DocumentDbMasterResultCacheMBean _master;
+  private final ObjectName _name;
+  private volatile boolean _registered;
+
+  private DocumentDbMasterResultCacheLifecycle(final MBeanServer server, final DocumentDbMasterResultCacheMBean master, final ObjectName name) {
+    _server = server;
+    _master = master;
+    _name = name;
+  }
+
+  /**
+   * Publishes the result cache statistics of a master with the JMX server of the repository, if there is one.
+   *
+   * @param repo  the component repository, not null
+   * @param info  the component information of the master, not null
+   * @param master  the master, not null
+   */
+  static void register(final ComponentRepository repo, final ComponentInfo info, final DocumentDbMasterResultCacheMBean master) {
+    final MBeanServer server = repo.findInstance(MBeanServer.class);
+    if (server == null) {
+      return;
+    }
+    final ObjectName name;
+    try {
+      name = new ObjectName("com.opengamma:type=DocumentDbMasterResultCache,name=" + ObjectName.quote(info.toComponentKey().toString()));
+    } catch (MalformedObjectNameException ex) {
+      throw new OpenGammaRuntimeException("Invalid component key " + info.toComponentKey(), ex);
+    }
+    repo.registerLifecycle(new DocumentDbMasterResultCacheLifecycle(server, master, name));
+  }
+
+  @Override
+  public void start() {
+    try {
+      _server.registerMBean(new StandardMBean(_master, DocumentDbMasterResultCacheMBean.class), _name);
+      _registered = true;
+    } catch (InstanceAlreadyExistsException ex) {
+      // another repository has published the same master
+    } catch (JMException ex) {
+      throw new OpenGammaRuntimeException("Unable to publish " + _name, ex);
+    }
+  }
+
+  @Override
+  public void stop() {
+    if (!_registered) {
+      return;
+    }
+    _registered = false;
+    try {
+      _server.unregisterMBean(_name);
+    } catch (InstanceNotFoundException ex) {
+      // already gone
+    } catch (JMException ex) {
+      throw new OpenGammaRuntimeException("Unable to unpublish " + _name, ex);
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return _registered;
+  }
+
+}
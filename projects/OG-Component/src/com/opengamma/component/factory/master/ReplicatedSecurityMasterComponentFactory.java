@@ -0,0 +1,379 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.component.factory.master;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.joda.beans.BeanBuilder;
+import org.joda.beans.BeanDefinition;
+import org.joda.beans.JodaBeanUtils;
+import org.joda.beans.MetaProperty;
+import org.joda.beans.Property;
+import org.joda.beans.PropertyDefinition;
+import org.joda.beans.impl.direct.DirectBeanBuilder;
+import org.joda.beans.impl.direct.DirectMetaProperty;
+import org.joda.beans.impl.direct.DirectMetaPropertyMap;
+
+import com.opengamma.component.ComponentInfo;
+import com.opengamma.component.ComponentRepository;
+import com.opengamma.component.factory.AbstractComponentFactory;
+import com.opengamma.component.factory.ComponentInfoAttributes;
+import com.opengamma.master.security.SecurityMaster;
+import com.opengamma.master.security.impl.DataSecurityMasterResource;
+import com.opengamma.master.security.impl.RemoteSecurityMaster;
+import com.opengamma.master.security.impl.ReplicatedSecurityMaster;
+
+/**
+ * Component factory for an in-memory replica of a security master.
+ * <p>
+ * The replica is loaded from the underlying master when the repository starts and is kept
+ * current by the change events of the underlying master.
+ */
+@BeanDefinition
+public class ReplicatedSecurityMasterComponentFactory extends AbstractComponentFactory {
+
+  /**
+   * The classifier that the factory should publish under.
+   */
+  @PropertyDefinition(validate = "notNull")
+  private String _classifier;
+  /**
+   * The flag determining whether the component should be published by REST (default true).
+   */
+  @PropertyDefinition
+  private boolean _publishRest = true;
+  /**
+   * The underlying security master, such as a database or remote master.
+   */
+  @PropertyDefinition(validate = "notNull")
+  private SecurityMaster _underlyingSecurityMaster;
+  /**
+   * The number of documents to read at a time when starting, null for the default.
+   */
+  @PropertyDefinition
+  private Integer _pageSize;
+
+  //-------------------------------------------------------------------------
+  @Override
+  public void init(ComponentRepository repo, LinkedHashMap<String, String> configuration) {
+    ReplicatedSecurityMaster master = new ReplicatedSecurityMaster(getUnderlyingSecurityMaster());
+    if (getPageSize() != null) {
+      master.setPageSize(getPageSize());
+    }
+    repo.registerLifecycle(master);
+    
+    // register
+    ComponentInfo info = new ComponentInfo(SecurityMaster.class, getClassifier());
+    info.addAttribute(ComponentInfoAttributes.LEVEL, 2);
+    info.addAttribute(ComponentInfoAttributes.REMOTE_CLIENT_JAVA, RemoteSecurityMaster.class);
+    repo.registerComponent(info, master);
+    if (isPublishRest()) {
+      repo.getRestComponents().publish(info, new DataSecurityMasterResource(master));
+    }
+  }
+
+  //------------------------- AUTOGENERATED START -------------------------
+  ///CLOVER:OFF
+  /**
+   * The meta-bean for {@code ReplicatedSecurityMasterComponentFactory}.
+   * @return the meta-bean, not null
+   */
+  public static ReplicatedSecurityMasterComponentFactory.Meta meta() {
+    return ReplicatedSecurityMasterComponentFactory.Meta.INSTANCE;
+  }
+  static {
+    JodaBeanUtils.registerMetaBean(ReplicatedSecurityMasterComponentFactory.Meta.INSTANCE);
+  }
+
+  @Override
+  public ReplicatedSecurityMasterComponentFactory.Meta metaBean() {
+    return ReplicatedSecurityMasterComponentFactory.Meta.INSTANCE;
+  }
+
+  @Override
+  protected Object propertyGet(String propertyName, boolean quiet) {
+    switch (propertyName.hashCode()) {
+      case -281470431:  // classifier
+        return getClassifier();
+      case -614707837:  // publishRest
+        return isPublishRest();
+      case 512264831:  // underlyingSecurityMaster
+        return getUnderlyingSecurityMaster();
+      case 859428656:  // pageSize
+        return getPageSize();
+    }
+    return super.propertyGet(propertyName, quiet);
+  }
+
+  @Override
+  protected void propertySet(String propertyName, Object newValue, boolean quiet) {
+    switch (propertyName.hashCode()) {
+      case -281470431:  // classifier
+        setClassifier((String) newValue);
+        return;
+      case -614707837:  // publishRest
+        setPublishRest((Boolean) newValue);
+        return;
+      case 512264831:  // underlyingSecurityMaster
+        setUnderlyingSecurityMaster((SecurityMaster) newValue);
+        return;
+      case 859428656:  // pageSize
+        setPageSize((Integer) newValue);
+        return;
+    }
+    super.propertySet(propertyName, newValue, quiet);
+  }
+
+  @Override
+  protected void validate() {
+    JodaBeanUtils.notNull(_classifier, "classifier");
+    JodaBeanUtils.notNull(_underlyingSecurityMaster, "underlyingSecurityMaster");
+    super.validate();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj != null && obj.getClass() == this.getClass()) {
+      ReplicatedSecurityMasterComponentFactory other = (ReplicatedSecurityMasterComponentFactory) obj;
+      return JodaBeanUtils.equal(getClassifier(), other.getClassifier()) &&
+          JodaBeanUtils.equal(isPublishRest(), other.isPublishRest()) &&
+          JodaBeanUtils.equal(getUnderlyingSecurityMaster(), other.getUnderlyingSecurityMaster()) &&
+          JodaBeanUtils.equal(getPageSize(), other.getPageSize()) &&
+          super.equals(obj);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 7;
+    hash += hash * 31 + JodaBeanUtils.hashCode(getClassifier());
+    hash += hash * 31 + JodaBeanUtils.hashCode(isPublishRest());
+    hash += hash * 31 + JodaBeanUtils.hashCode(getUnderlyingSecurityMaster());
+    hash += hash * 31 + JodaBeanUtils.hashCode(getPageSize());
+    return hash ^ super.hashCode();
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the classifier that the factory should publish under.
+   * @return the value of the property, not null
+   */
+  public String getClassifier() {
+    return _classifier;
+  }
+
+  /**
+   * Sets the classifier that the factory should publish under.
+   * @param classifier  the new value of the property, not null
+   */
+  public void setClassifier(String classifier) {
+    JodaBeanUtils.notNull(classifier, "classifier");
+    this._classifier = classifier;
+  }
+
+  /**
+   * Gets the the {@code classifier} property.
+   * @return the property, not null
+   */
+  public final Property<String> classifier() {
+    return metaBean().classifier().createProperty(this);
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the flag determining whether the component should be published by REST (default true).
+   * @return the value of the property
+   */
+  public boolean isPublishRest() {
+    return _publishRest;
+  }
+
+  /**
+   * Sets the flag determining whether the component should be published by REST (default true).
+   * @param publishRest  the new value of the property
+   */
+  public void setPublishRest(boolean publishRest) {
+    this._publishRest = publishRest;
+  }
+
+  /**
+   * Gets the the {@code publishRest} property.
+   * @return the property, not null
+   */
+  public final Property<Boolean> publishRest() {
+    return metaBean().publishRest().createProperty(this);
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the underlying security master, such as a database or remote master.
+   * @return the value of the property, not null
+   */
+  public SecurityMaster getUnderlyingSecurityMaster() {
+    return _underlyingSecurityMaster;
+  }
+
+  /**
+   * Sets the underlying security master, such as a database or remote master.
+   * @param underlyingSecurityMaster  the new value of the property, not null
+   */
+  public void setUnderlyingSecurityMaster(SecurityMaster underlyingSecurityMaster) {
+    JodaBeanUtils.notNull(underlyingSecurityMaster, "underlyingSecurityMaster");
+    this._underlyingSecurityMaster = underlyingSecurityMaster;
+  }
+
+  /**
+   * Gets the the {@code underlyingSecurityMaster} property.
+   * @return the property, not null
+   */
+  public final Property<SecurityMaster> underlyingSecurityMaster() {
+    return metaBean().underlyingSecurityMaster().createProperty(this);
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the number of documents to read at a time when starting, null for the default.
+   * @return the value of the property
+   */
+  public Integer getPageSize() {
+    return _pageSize;
+  }
+
+  /**
+   * Sets the number of documents to read at a time when starting, null for the default.
+   * @param pageSize  the new value of the property
+   */
+  public void setPageSize(Integer pageSize) {
+    this._pageSize = pageSize;
+  }
+
+  /**
+   * Gets the the {@code pageSize} property.
+   * @return the property, not null
+   */
+  public final Property<Integer> pageSize() {
+    return metaBean().pageSize().createProperty(this);
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * The meta-bean for {@code ReplicatedSecurityMasterComponentFactory}.
+   */
+  public static class Meta extends AbstractComponentFactory.Meta {
+    /**
+     * The singleton instance of the meta-bean.
+     */
+    static final Meta INSTANCE = new Meta();
+
+    /**
+     * The meta-property for the {@code classifier} property.
+     */
+    private final MetaProperty<String> _classifier = DirectMetaProperty.ofReadWrite(
+        this, "classifier", ReplicatedSecurityMasterComponentFactory.class, String.class);
+    /**
+     * The meta-property for the {@code publishRest} property.
+     */
+    private final MetaProperty<Boolean> _publishRest = DirectMetaProperty.ofReadWrite(
+        this, "publishRest", ReplicatedSecurityMasterComponentFactory.class, Boolean.TYPE);
+    /**
+     * The meta-property for the {@code underlyingSecurityMaster} property.
+     */
+    private final MetaProperty<SecurityMaster> _underlyingSecurityMaster = DirectMetaProperty.ofReadWrite(
+        this, "underlyingSecurityMaster", ReplicatedSecurityMasterComponentFactory.class, SecurityMaster.class);
+    /**
+     * The meta-property for the {@code pageSize} property.
+     */
+    private final MetaProperty<Integer> _pageSize = DirectMetaProperty.ofReadWrite(
+        this, "pageSize", ReplicatedSecurityMasterComponentFactory.class, Integer.class);
+    /**
+     * The meta-properties.
+     */
+    private final Map<String, MetaProperty<?>> _metaPropertyMap$ = new DirectMetaPropertyMap(
+      this, (DirectMetaPropertyMap) super.metaPropertyMap(),
+        "classifier",
+        "publishRest",
+        "underlyingSecurityMaster",
+        "pageSize");
+
+    /**
+     * Restricted constructor.
+     */
+    protected Meta() {
+    }
+
+    @Override
+    protected MetaProperty<?> metaPropertyGet(String propertyName) {
+      switch (propertyName.hashCode()) {
+        case -281470431:  // classifier
+          return _classifier;
+        case -614707837:  // publishRest
+          return _publishRest;
+        case 512264831:  // underlyingSecurityMaster
+          return _underlyingSecurityMaster;
+        case 859428656:  // pageSize
+          return _pageSize;
+      }
+      return super.metaPropertyGet(propertyName);
+    }
+
+    @Override
+    public BeanBuilder<? extends ReplicatedSecurityMasterComponentFactory> builder() {
+      return new DirectBeanBuilder<ReplicatedSecurityMasterComponentFactory>(new ReplicatedSecurityMasterComponentFactory());
+    }
+
+    @Override
+    public Class<? extends ReplicatedSecurityMasterComponentFactory> beanType() {
+      return ReplicatedSecurityMasterComponentFactory.class;
+    }
+
+    @Override
+    public Map<String, MetaProperty<?>> metaPropertyMap() {
+      return _metaPropertyMap$;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The meta-property for the {@code classifier} property.
+     * @return the meta-property, not null
+     */
+    public final MetaProperty<String> classifier() {
+      return _classifier;
+    }
+
+    /**
+     * The meta-property for the {@code publishRest} property.
+     * @return the meta-property, not null
+     */
+    public final MetaProperty<Boolean> publishRest() {
+      return _publishRest;
+    }
+
+    /**
+     * The meta-property for the {@code underlyingSecurityMaster} property.
+     * @return the meta-property, not null
+     */
+    public final MetaProperty<SecurityMaster> underlyingSecurityMaster() {
+      return _underlyingSecurityMaster;
+    }
+
+    /**
+     * The meta-property for the {@code pageSize} property.
+     * @return the meta-property, not null
+     */
+    public final MetaProperty<Integer> pageSize() {
+      return _pageSize;
+    }
+
+  }
+
+  ///CLOVER:ON
+  //-------------------------- AUTOGENERATED END --------------------------
+}
@@ -67,7 +67,10 @@ public class ExchangeSourceComponentFactory extends AbstractComponentFactory {
     
     ExchangeSource source = new MasterExchangeSource(getExchangeMaster());
     if (getCacheManager() != null) {
-      source = new EHCachingExchangeSource(source, getCacheManager());
+      EHCachingExchangeSource cachingSource = new EHCachingExchangeSource(source, getCacheManager());
+      getExchangeMaster().changeManager().addChangeListener(cachingSource.getExchangeCache());
+      SourceCacheLifecycle.register(repo, cachingSource.getExchangeCache());
+      source = cachingSource;
     }
     
     repo.registerComponent(info, source);
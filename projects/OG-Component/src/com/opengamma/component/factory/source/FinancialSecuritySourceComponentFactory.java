@@ -68,7 +68,9 @@ public class FinancialSecuritySourceComponentFactory extends AbstractComponentFa
     
     FinancialSecuritySource source = new MasterFinancialSecuritySource(getSecurityMaster());
     if (getCacheManager() != null) {
-      source = new EHCachingFinancialSecuritySource(source, getCacheManager());
+      EHCachingFinancialSecuritySource cachingSource = new EHCachingFinancialSecuritySource(source, getCacheManager());
+      SourceCacheLifecycle.register(repo, cachingSource.getSecurityCache());
+      source = cachingSource;
     }
     repo.registerComponent(info, source);
     
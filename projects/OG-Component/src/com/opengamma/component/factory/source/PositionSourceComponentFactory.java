@@ -7,6 +7,8 @@ package com.opengamma.component.factory.source;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import net.sf.ehcache.CacheManager;
 
@@ -31,6 +33,7 @@ import com.opengamma.core.position.impl.RemotePositionSource;
 import com.opengamma.master.portfolio.PortfolioMaster;
 import com.opengamma.master.position.PositionMaster;
 import com.opengamma.master.position.impl.MasterPositionSource;
+import com.opengamma.util.NamedThreadPoolFactory;
 
 /**
  * Component factory for the position source.
@@ -63,6 +66,16 @@ public class PositionSourceComponentFactory extends AbstractComponentFactory {
    */
   @PropertyDefinition(validate = "notNull")
   private PositionMaster _positionMaster;
+  /**
+   * The maximum number of positions to request from the position master in one search.
+   */
+  @PropertyDefinition
+  private int _positionChunkSize = MasterPositionSource.DEFAULT_POSITION_CHUNK_SIZE;
+  /**
+   * The number of threads used to load chunks of positions in parallel, zero (default) to load them in the calling thread.
+   */
+  @PropertyDefinition
+  private int _positionLoadingThreads;
 
   //-------------------------------------------------------------------------
   @Override
@@ -71,9 +84,19 @@ public class PositionSourceComponentFactory extends AbstractComponentFactory {
     info.addAttribute(ComponentInfoAttributes.LEVEL, 1);
     info.addAttribute(ComponentInfoAttributes.REMOTE_CLIENT_JAVA, RemotePositionSource.class);
     
-    PositionSource source = new MasterPositionSource(getPortfolioMaster(), getPositionMaster());
+    MasterPositionSource masterSource = new MasterPositionSource(getPortfolioMaster(), getPositionMaster());
+    masterSource.setPositionChunkSize(getPositionChunkSize());
+    if (getPositionLoadingThreads() > 0) {
+      ExecutorService executor = Executors.newFixedThreadPool(getPositionLoadingThreads(), new NamedThreadPoolFactory("PositionLoader", true));
+      repo.registerLifecycleStop(executor, "shutdownNow");
+      masterSource.setExecutorService(executor);
+    }
+    PositionSource source = masterSource;
     if (getCacheManager() != null) {
-      source = new EHCachingPositionSource(source, getCacheManager());
+      EHCachingPositionSource cachingSource = new EHCachingPositionSource(source, getCacheManager());
+      SourceCacheLifecycle.register(repo, cachingSource.getPortfolioCache(), cachingSource.getPortfolioNodeCache(),
+          cachingSource.getPositionCache(), cachingSource.getTradeCache());
+      source = cachingSource;
     }
     
     repo.registerComponent(info, source);
@@ -113,6 +136,10 @@ public class PositionSourceComponentFactory extends AbstractComponentFactory {
         return getPortfolioMaster();
       case -1840419605:  // positionMaster
         return getPositionMaster();
+      case -865518363:  // positionChunkSize
+        return getPositionChunkSize();
+      case -1633847210:  // positionLoadingThreads
+        return getPositionLoadingThreads();
     }
     return super.propertyGet(propertyName, quiet);
   }
@@ -135,6 +162,12 @@ public class PositionSourceComponentFactory extends AbstractComponentFactory {
       case -1840419605:  // positionMaster
         setPositionMaster((PositionMaster) newValue);
         return;
+      case -865518363:  // positionChunkSize
+        setPositionChunkSize((Integer) newValue);
+        return;
+      case -1633847210:  // positionLoadingThreads
+        setPositionLoadingThreads((Integer) newValue);
+        return;
     }
     super.propertySet(propertyName, newValue, quiet);
   }
@@ -159,6 +192,8 @@ public class PositionSourceComponentFactory extends AbstractComponentFactory {
           JodaBeanUtils.equal(getCacheManager(), other.getCacheManager()) &&
           JodaBeanUtils.equal(getPortfolioMaster(), other.getPortfolioMaster()) &&
           JodaBeanUtils.equal(getPositionMaster(), other.getPositionMaster()) &&
+          JodaBeanUtils.equal(getPositionChunkSize(), other.getPositionChunkSize()) &&
+          JodaBeanUtils.equal(getPositionLoadingThreads(), other.getPositionLoadingThreads()) &&
           super.equals(obj);
     }
     return false;
@@ -172,6 +207,8 @@ public class PositionSourceComponentFactory extends AbstractComponentFactory {
     hash += hash * 31 + JodaBeanUtils.hashCode(getCacheManager());
     hash += hash * 31 + JodaBeanUtils.hashCode(getPortfolioMaster());
     hash += hash * 31 + JodaBeanUtils.hashCode(getPositionMaster());
+    hash += hash * 31 + JodaBeanUtils.hashCode(getPositionChunkSize());
+    hash += hash * 31 + JodaBeanUtils.hashCode(getPositionLoadingThreads());
     return hash ^ super.hashCode();
   }
 
@@ -303,6 +340,56 @@ public class PositionSourceComponentFactory extends AbstractComponentFactory {
     return metaBean().positionMaster().createProperty(this);
   }
 
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the maximum number of positions to request from the position master in one search.
+   * @return the value of the property
+   */
+  public int getPositionChunkSize() {
+    return _positionChunkSize;
+  }
+
+  /**
+   * Sets the maximum number of positions to request from the position master in one search.
+   * @param positionChunkSize  the new value of the property
+   */
+  public void setPositionChunkSize(int positionChunkSize) {
+    this._positionChunkSize = positionChunkSize;
+  }
+
+  /**
+   * Gets the the {@code positionChunkSize} property.
+   * @return the property, not null
+   */
+  public final Property<Integer> positionChunkSize() {
+    return metaBean().positionChunkSize().createProperty(this);
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the number of threads used to load chunks of positions in parallel, zero (default) to load them in the calling thread.
+   * @return the value of the property
+   */
+  public int getPositionLoadingThreads() {
+    return _positionLoadingThreads;
+  }
+
+  /**
+   * Sets the number of threads used to load chunks of positions in parallel, zero (default) to load them in the calling thread.
+   * @param positionLoadingThreads  the new value of the property
+   */
+  public void setPositionLoadingThreads(int positionLoadingThreads) {
+    this._positionLoadingThreads = positionLoadingThreads;
+  }
+
+  /**
+   * Gets the the {@code positionLoadingThreads} property.
+   * @return the property, not null
+   */
+  public final Property<Integer> positionLoadingThreads() {
+    return metaBean().positionLoadingThreads().createProperty(this);
+  }
+
   //-----------------------------------------------------------------------
   /**
    * The meta-bean for {@code PositionSourceComponentFactory}.
@@ -338,6 +425,16 @@ public class PositionSourceComponentFactory extends AbstractComponentFactory {
      */
     private final MetaProperty<PositionMaster> _positionMaster = DirectMetaProperty.ofReadWrite(
         this, "positionMaster", PositionSourceComponentFactory.class, PositionMaster.class);
+    /**
+     * The meta-property for the {@code positionChunkSize} property.
+     */
+    private final MetaProperty<Integer> _positionChunkSize = DirectMetaProperty.ofReadWrite(
+        this, "positionChunkSize", PositionSourceComponentFactory.class, Integer.TYPE);
+    /**
+     * The meta-property for the {@code positionLoadingThreads} property.
+     */
+    private final MetaProperty<Integer> _positionLoadingThreads = DirectMetaProperty.ofReadWrite(
+        this, "positionLoadingThreads", PositionSourceComponentFactory.class, Integer.TYPE);
     /**
      * The meta-properties.
      */
@@ -347,7 +444,9 @@ public class PositionSourceComponentFactory extends AbstractComponentFactory {
         "publishRest",
         "cacheManager",
         "portfolioMaster",
-        "positionMaster");
+        "positionMaster",
+        "positionChunkSize",
+        "positionLoadingThreads");
 
     /**
      * Restricted constructor.
@@ -368,6 +467,10 @@ public class PositionSourceComponentFactory extends AbstractComponentFactory {
           return _portfolioMaster;
         case -1840419605:  // positionMaster
           return _positionMaster;
+        case -865518363:  // positionChunkSize
+          return _positionChunkSize;
+        case -1633847210:  // positionLoadingThreads
+          return _positionLoadingThreads;
       }
       return super.metaPropertyGet(propertyName);
     }
@@ -428,6 +531,22 @@ public class PositionSourceComponentFactory extends AbstractComponentFactory {
       return _positionMaster;
     }
 
+    /**
+     * The meta-property for the {@code positionChunkSize} property.
+     * @return the meta-property, not null
+     */
+    public final MetaProperty<Integer> positionChunkSize() {
+      return _positionChunkSize;
+    }
+
+    /**
+     * The meta-property for the {@code positionLoadingThreads} property.
+     * @return the meta-property, not null
+     */
+    public final MetaProperty<Integer> positionLoadingThreads() {
+      return _positionLoadingThreads;
+    }
+
   }
 
   ///CLOVER:ON
@@ -67,7 +67,10 @@ public class RegionSourceComponentFactory extends AbstractComponentFactory {
     
     RegionSource source = new MasterRegionSource(getRegionMaster());
     if (getCacheManager() != null) {
-      source = new EHCachingRegionSource(source, getCacheManager());
+      EHCachingRegionSource cachingSource = new EHCachingRegionSource(source, getCacheManager());
+      getRegionMaster().changeManager().addChangeListener(cachingSource.getRegionCache());
+      SourceCacheLifecycle.register(repo, cachingSource.getRegionCache());
+      source = cachingSource;
     }
     
     repo.registerComponent(info, source);
@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.component.factory.source;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+
+import org.springframework.context.Lifecycle;
+
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.component.ComponentRepository;
+import com.opengamma.core.cache.SourceCache;
+
+/**
+ * Lifecycle publishing the statistics of a {@link SourceCache} with JMX while the repository is running.
+ * <p>
+ * Caches that share an EHCache cache by name share a name in JMX, so only the first to start is published.
+ */
+final class SourceCacheLifecycle implements Lifecycle {
+
+  private final MBeanServer _server;
+  private final SourceCache<?> _cache;
+  private volatile boolean _registered;
+
+  private SourceCacheLifecycle(final MBeanServer server, final SourceCache<?> cache) {
+    _server = server;
+    _cache = cache;
+  }
+
+  /**
+   * Publishes the statistics of caches with the JMX server of the repository, if there is one.
+   *
+   * @param repo  the component repository, not null
+   * @param caches  the caches to publish, not null
+   */
+  static void register(final ComponentRepository repo, final SourceCache<?>... caches) {
+    final MBeanServer server = repo.findInstance(MBeanServer.class);
+    if (server == null) {
+      return;
+    }
+    for (SourceCache<?> cache : caches) {
+      repo.registerLifecycle(new SourceCacheLifecycle(server, cache));
+    }
+  }
+
+  @Override
+  public void start() {
+    try {
+      _server.registerMBean(_cache, _cache.getObjectName());
+      _registered = true;
+    } catch (InstanceAlreadyExistsException ex) {
+      // another source is using the same cache
+    } catch (JMException ex) {
+      throw new OpenGammaRuntimeException("Unable to publish " + _cache.getName(), ex);
+    }
+  }
+
+  @Override
+  public void stop() {
+    if (!_registered) {
+      return;
+    }
+    _registered = false;
+    try {
+      _server.unregisterMBean(_cache.getObjectName());
+    } catch (InstanceNotFoundException ex) {
+      // already gone
+    } catch (JMException ex) {
+      throw new OpenGammaRuntimeException("Unable to unpublish " + _cache.getName(), ex);
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return _registered;
+  }
+
+}
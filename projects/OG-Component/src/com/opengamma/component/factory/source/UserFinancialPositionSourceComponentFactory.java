@@ -8,6 +8,8 @@ package com.opengamma.component.factory.source;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import net.sf.ehcache.CacheManager;
 
@@ -33,6 +35,7 @@ import com.opengamma.core.position.impl.RemotePositionSource;
 import com.opengamma.master.portfolio.PortfolioMaster;
 import com.opengamma.master.position.PositionMaster;
 import com.opengamma.master.position.impl.MasterPositionSource;
+import com.opengamma.util.NamedThreadPoolFactory;
 
 /**
  * Component factory for the position source.
@@ -88,6 +91,20 @@ public class UserFinancialPositionSourceComponentFactory extends AbstractCompone
    */
   @PropertyDefinition
   private PositionMaster _userPositionMaster;
+  /**
+   * The maximum number of positions to request from a position master in one search.
+   */
+  @PropertyDefinition
+  private int _positionChunkSize = MasterPositionSource.DEFAULT_POSITION_CHUNK_SIZE;
+  /**
+   * The number of threads used to load chunks of positions in parallel, zero (default) to load them in the calling thread.
+   */
+  @PropertyDefinition
+  private int _positionLoadingThreads;
+  /**
+   * The executor shared by the position sources to load positions, created on first use.
+   */
+  private ExecutorService _positionLoadingExecutor;
 
   //-------------------------------------------------------------------------
   @Override
@@ -114,9 +131,12 @@ public class UserFinancialPositionSourceComponentFactory extends AbstractCompone
   }
 
   protected PositionSource initUnderlying(ComponentRepository repo, LinkedHashMap<String, String> configuration) {
-    PositionSource source = new MasterPositionSource(getUnderlyingPortfolioMaster(), getUnderlyingPositionMaster());
+    PositionSource source = createMasterPositionSource(repo, getUnderlyingPortfolioMaster(), getUnderlyingPositionMaster());
     if (getCacheManager() != null) {
-      source = new EHCachingPositionSource(source, getCacheManager());
+      EHCachingPositionSource cachingSource = new EHCachingPositionSource(source, getCacheManager());
+      SourceCacheLifecycle.register(repo, cachingSource.getPortfolioCache(), cachingSource.getPortfolioNodeCache(),
+          cachingSource.getPositionCache(), cachingSource.getTradeCache());
+      source = cachingSource;
     }
     if (getUnderlyingClassifier() != null) {
       ComponentInfo info = new ComponentInfo(PositionSource.class, getUnderlyingClassifier());
@@ -134,7 +154,7 @@ public class UserFinancialPositionSourceComponentFactory extends AbstractCompone
     if (getUserPortfolioMaster() == null || getUserPositionMaster() == null) {
       return null;
     }
-    PositionSource source = new MasterPositionSource(getUserPortfolioMaster(), getUserPositionMaster());
+    PositionSource source = createMasterPositionSource(repo, getUserPortfolioMaster(), getUserPositionMaster());
     if (getUserClassifier() != null) {
       ComponentInfo info = new ComponentInfo(PositionSource.class, getUserClassifier());
       info.addAttribute(ComponentInfoAttributes.LEVEL, 1);
@@ -147,6 +167,27 @@ public class UserFinancialPositionSourceComponentFactory extends AbstractCompone
     return source;
   }
 
+  /**
+   * Creates a position source for a pair of masters, loading positions as configured by this factory.
+   * 
+   * @param repo  the component repository, not null
+   * @param portfolioMaster  the portfolio master, not null
+   * @param positionMaster  the position master, not null
+   * @return the position source, not null
+   */
+  protected MasterPositionSource createMasterPositionSource(ComponentRepository repo, PortfolioMaster portfolioMaster, PositionMaster positionMaster) {
+    MasterPositionSource source = new MasterPositionSource(portfolioMaster, positionMaster);
+    source.setPositionChunkSize(getPositionChunkSize());
+    if (getPositionLoadingThreads() > 0) {
+      if (_positionLoadingExecutor == null) {
+        _positionLoadingExecutor = Executors.newFixedThreadPool(getPositionLoadingThreads(), new NamedThreadPoolFactory("PositionLoader", true));
+        repo.registerLifecycleStop(_positionLoadingExecutor, "shutdownNow");
+      }
+      source.setExecutorService(_positionLoadingExecutor);
+    }
+    return source;
+  }
+
   //------------------------- AUTOGENERATED START -------------------------
   ///CLOVER:OFF
   /**
@@ -186,6 +227,10 @@ public class UserFinancialPositionSourceComponentFactory extends AbstractCompone
         return getUserPortfolioMaster();
       case 1808868758:  // userPositionMaster
         return getUserPositionMaster();
+      case -865518363:  // positionChunkSize
+        return getPositionChunkSize();
+      case -1633847210:  // positionLoadingThreads
+        return getPositionLoadingThreads();
     }
     return super.propertyGet(propertyName, quiet);
   }
@@ -220,6 +265,12 @@ public class UserFinancialPositionSourceComponentFactory extends AbstractCompone
       case 1808868758:  // userPositionMaster
         setUserPositionMaster((PositionMaster) newValue);
         return;
+      case -865518363:  // positionChunkSize
+        setPositionChunkSize((Integer) newValue);
+        return;
+      case -1633847210:  // positionLoadingThreads
+        setPositionLoadingThreads((Integer) newValue);
+        return;
     }
     super.propertySet(propertyName, newValue, quiet);
   }
@@ -248,6 +299,8 @@ public class UserFinancialPositionSourceComponentFactory extends AbstractCompone
           JodaBeanUtils.equal(getUserClassifier(), other.getUserClassifier()) &&
           JodaBeanUtils.equal(getUserPortfolioMaster(), other.getUserPortfolioMaster()) &&
           JodaBeanUtils.equal(getUserPositionMaster(), other.getUserPositionMaster()) &&
+          JodaBeanUtils.equal(getPositionChunkSize(), other.getPositionChunkSize()) &&
+          JodaBeanUtils.equal(getPositionLoadingThreads(), other.getPositionLoadingThreads()) &&
           super.equals(obj);
     }
     return false;
@@ -265,6 +318,8 @@ public class UserFinancialPositionSourceComponentFactory extends AbstractCompone
     hash += hash * 31 + JodaBeanUtils.hashCode(getUserClassifier());
     hash += hash * 31 + JodaBeanUtils.hashCode(getUserPortfolioMaster());
     hash += hash * 31 + JodaBeanUtils.hashCode(getUserPositionMaster());
+    hash += hash * 31 + JodaBeanUtils.hashCode(getPositionChunkSize());
+    hash += hash * 31 + JodaBeanUtils.hashCode(getPositionLoadingThreads());
     return hash ^ super.hashCode();
   }
 
@@ -496,6 +551,56 @@ public class UserFinancialPositionSourceComponentFactory extends AbstractCompone
     return metaBean().userPositionMaster().createProperty(this);
   }
 
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the maximum number of positions to request from a position master in one search.
+   * @return the value of the property
+   */
+  public int getPositionChunkSize() {
+    return _positionChunkSize;
+  }
+
+  /**
+   * Sets the maximum number of positions to request from a position master in one search.
+   * @param positionChunkSize  the new value of the property
+   */
+  public void setPositionChunkSize(int positionChunkSize) {
+    this._positionChunkSize = positionChunkSize;
+  }
+
+  /**
+   * Gets the the {@code positionChunkSize} property.
+   * @return the property, not null
+   */
+  public final Property<Integer> positionChunkSize() {
+    return metaBean().positionChunkSize().createProperty(this);
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the number of threads used to load chunks of positions in parallel, zero (default) to load them in the calling thread.
+   * @return the value of the property
+   */
+  public int getPositionLoadingThreads() {
+    return _positionLoadingThreads;
+  }
+
+  /**
+   * Sets the number of threads used to load chunks of positions in parallel, zero (default) to load them in the calling thread.
+   * @param positionLoadingThreads  the new value of the property
+   */
+  public void setPositionLoadingThreads(int positionLoadingThreads) {
+    this._positionLoadingThreads = positionLoadingThreads;
+  }
+
+  /**
+   * Gets the the {@code positionLoadingThreads} property.
+   * @return the property, not null
+   */
+  public final Property<Integer> positionLoadingThreads() {
+    return metaBean().positionLoadingThreads().createProperty(this);
+  }
+
   //-----------------------------------------------------------------------
   /**
    * The meta-bean for {@code UserFinancialPositionSourceComponentFactory}.
@@ -551,6 +656,16 @@ public class UserFinancialPositionSourceComponentFactory extends AbstractCompone
      */
     private final MetaProperty<PositionMaster> _userPositionMaster = DirectMetaProperty.ofReadWrite(
         this, "userPositionMaster", UserFinancialPositionSourceComponentFactory.class, PositionMaster.class);
+    /**
+     * The meta-property for the {@code positionChunkSize} property.
+     */
+    private final MetaProperty<Integer> _positionChunkSize = DirectMetaProperty.ofReadWrite(
+        this, "positionChunkSize", UserFinancialPositionSourceComponentFactory.class, Integer.TYPE);
+    /**
+     * The meta-property for the {@code positionLoadingThreads} property.
+     */
+    private final MetaProperty<Integer> _positionLoadingThreads = DirectMetaProperty.ofReadWrite(
+        this, "positionLoadingThreads", UserFinancialPositionSourceComponentFactory.class, Integer.TYPE);
     /**
      * The meta-properties.
      */
@@ -564,7 +679,9 @@ public class UserFinancialPositionSourceComponentFactory extends AbstractCompone
         "underlyingPositionMaster",
         "userClassifier",
         "userPortfolioMaster",
-        "userPositionMaster");
+        "userPositionMaster",
+        "positionChunkSize",
+        "positionLoadingThreads");
 
     /**
      * Restricted constructor.
@@ -593,6 +710,10 @@ public class UserFinancialPositionSourceComponentFactory extends AbstractCompone
           return _userPortfolioMaster;
         case 1808868758:  // userPositionMaster
           return _userPositionMaster;
+        case -865518363:  // positionChunkSize
+          return _positionChunkSize;
+        case -1633847210:  // positionLoadingThreads
+          return _positionLoadingThreads;
       }
       return super.metaPropertyGet(propertyName);
     }
@@ -685,6 +806,22 @@ public class UserFinancialPositionSourceComponentFactory extends AbstractCompone
       return _userPositionMaster;
     }
 
+    /**
+     * The meta-property for the {@code positionChunkSize} property.
+     * @return the meta-property, not null
+     */
+    public final MetaProperty<Integer> positionChunkSize() {
+      return _positionChunkSize;
+    }
+
+    /**
+     * The meta-property for the {@code positionLoadingThreads} property.
+     * @return the meta-property, not null
+     */
+    public final MetaProperty<Integer> positionLoadingThreads() {
+      return _positionLoadingThreads;
+    }
+
   }
 
   ///CLOVER:ON
@@ -106,7 +106,9 @@ public class UserFinancialSecuritySourceComponentFactory extends AbstractCompone
   protected FinancialSecuritySource initUnderlying(ComponentRepository repo, LinkedHashMap<String, String> configuration) {
     FinancialSecuritySource source = new MasterFinancialSecuritySource(getUnderlyingSecurityMaster());
     if (getCacheManager() != null) {
-      source = new EHCachingFinancialSecuritySource(source, getCacheManager());
+      EHCachingFinancialSecuritySource cachingSource = new EHCachingFinancialSecuritySource(source, getCacheManager());
+      SourceCacheLifecycle.register(repo, cachingSource.getSecurityCache());
+      source = cachingSource;
     }
     if (getUnderlyingClassifier() != null) {
       ComponentInfo info = new ComponentInfo(SecuritySource.class, getUnderlyingClassifier());
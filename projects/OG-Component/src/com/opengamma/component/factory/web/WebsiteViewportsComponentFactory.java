@@ -52,6 +52,7 @@ import com.opengamma.web.server.push.MasterChangeManager;
 import com.opengamma.web.server.push.WebPushServletContextUtils;
 import com.opengamma.web.server.push.analytics.AnalyticsColumnsJsonWriter;
 import com.opengamma.web.server.push.analytics.AnalyticsViewManager;
+import com.opengamma.web.server.push.analytics.ViewportResultsJsonWriter;
 import com.opengamma.web.server.push.analytics.formatting.ResultsFormatter;
 import com.opengamma.web.server.push.rest.AggregatorNamesResource;
 import com.opengamma.web.server.push.rest.MarketDataSnapshotListResource;
@@ -180,6 +181,7 @@ public class WebsiteViewportsComponentFactory extends AbstractComponentFactory {
                                                                          getComputationTargetResolver());
     ResultsFormatter resultsFormatter = new ResultsFormatter();
     AnalyticsColumnsJsonWriter columnWriter = new AnalyticsColumnsJsonWriter(resultsFormatter);
+    final ViewportResultsJsonWriter viewportResultsWriter = new ViewportResultsJsonWriter(resultsFormatter);
 
     repo.getRestComponents().publishResource(aggregatorsResource);
     repo.getRestComponents().publishResource(snapshotResource);
@@ -189,7 +191,7 @@ public class WebsiteViewportsComponentFactory extends AbstractComponentFactory {
     repo.getRestComponents().publishHelper(new PortfolioGridStructureMessageBodyWriter(columnWriter));
     repo.getRestComponents().publishHelper(new DependencyGraphGridStructureMessageBodyWriter(columnWriter));
     repo.getRestComponents().publishHelper(new AnalyticsColumnGroupsMessageBodyWriter(columnWriter));
-    repo.getRestComponents().publishHelper(new ViewportResultsMessageBodyWriter(resultsFormatter));
+    repo.getRestComponents().publishHelper(new ViewportResultsMessageBodyWriter(viewportResultsWriter));
 
     // these items need to be available to the servlet, but aren't important enough to be published components
     repo.registerServletContextAware(new ServletContextAware() {
@@ -197,6 +199,7 @@ public class WebsiteViewportsComponentFactory extends AbstractComponentFactory {
       public void setServletContext(ServletContext servletContext) {
         WebPushServletContextUtils.setConnectionManager(servletContext, connectionMgr);
         WebPushServletContextUtils.setLongPollingConnectionManager(servletContext, longPolling);
+        WebPushServletContextUtils.setViewportResultsWriter(servletContext, viewportResultsWriter);
       }
     });
   }
@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.component.factory.source;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import com.opengamma.component.ComponentInfo;
+import com.opengamma.component.ComponentRepository;
+import com.opengamma.core.change.BasicChangeManager;
+import com.opengamma.core.position.Portfolio;
+import com.opengamma.core.position.PositionSource;
+import com.opengamma.core.position.impl.EHCachingPositionSource;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.portfolio.ManageablePortfolio;
+import com.opengamma.master.portfolio.ManageablePortfolioNode;
+import com.opengamma.master.portfolio.PortfolioDocument;
+import com.opengamma.master.portfolio.PortfolioMaster;
+import com.opengamma.master.position.ManageablePosition;
+import com.opengamma.master.position.PositionDocument;
+import com.opengamma.master.position.PositionMaster;
+import com.opengamma.master.position.PositionSearchRequest;
+import com.opengamma.master.position.PositionSearchResult;
+import com.opengamma.master.position.impl.MasterPositionSource;
+import com.opengamma.master.security.ManageableSecurityLink;
+import com.opengamma.util.ehcache.EHCacheUtils;
+
+/**
+ * Test {@link PositionSourceComponentFactory}.
+ */
+@Test
+public class PositionSourceComponentFactoryTest {
+
+  private static final UniqueId PORTFOLIO_ID = UniqueId.of("Prt", "1");
+
+  private static PositionSourceComponentFactory factory(PortfolioMaster portfolioMaster, PositionMaster positionMaster) {
+    PositionSourceComponentFactory factory = new PositionSourceComponentFactory();
+    factory.setClassifier("test");
+    factory.setPublishRest(false);
+    factory.setPortfolioMaster(portfolioMaster);
+    factory.setPositionMaster(positionMaster);
+    return factory;
+  }
+
+  public void test_defaultsLoadInCallingThread() throws Exception {
+    ComponentRepository repo = new ComponentRepository();
+    factory(mock(PortfolioMaster.class), mock(PositionMaster.class)).init(repo, new LinkedHashMap<String, String>());
+    MasterPositionSource source = (MasterPositionSource) repo.getInstance(PositionSource.class, "test");
+    assertNull(source.getExecutorService());
+    assertEquals(MasterPositionSource.DEFAULT_POSITION_CHUNK_SIZE, source.getPositionChunkSize());
+  }
+
+  public void test_positionsLoadedByExecutor() throws Exception {
+    PortfolioMaster portfolioMaster = mock(PortfolioMaster.class);
+    ManageablePortfolioNode root = new ManageablePortfolioNode("Root");
+    root.setUniqueId(UniqueId.of("Node", "1"));
+    for (int i = 0; i < 5; i++) {
+      root.addPosition(UniqueId.of("Pos", Integer.toString(i)));
+    }
+    ManageablePortfolio portfolio = new ManageablePortfolio("Portfolio", root);
+    portfolio.setUniqueId(PORTFOLIO_ID);
+    when(portfolioMaster.get(PORTFOLIO_ID)).thenReturn(new PortfolioDocument(portfolio));
+    when(portfolioMaster.get(any(UniqueId.class), any(VersionCorrection.class))).thenReturn(new PortfolioDocument(portfolio));
+
+    final List<String> searchThreads = new CopyOnWriteArrayList<String>();
+    PositionMaster positionMaster = mock(PositionMaster.class);
+    when(positionMaster.search(any(PositionSearchRequest.class))).thenAnswer(new Answer<PositionSearchResult>() {
+      @Override
+      public PositionSearchResult answer(InvocationOnMock invocation) throws Throwable {
+        searchThreads.add(Thread.currentThread().getName());
+        PositionSearchRequest request = (PositionSearchRequest) invocation.getArguments()[0];
+        PositionSearchResult result = new PositionSearchResult();
+        for (ObjectId objectId : request.getPositionObjectIds()) {
+          ManageablePosition position = new ManageablePosition();
+          position.setUniqueId(objectId.atVersion("1"));
+          position.setQuantity(BigDecimal.valueOf(Long.parseLong(objectId.getValue())));
+          position.setSecurityLink(new ManageableSecurityLink(ExternalId.of("Sec", "A")));
+          result.getDocuments().add(new PositionDocument(position));
+        }
+        return result;
+      }
+    });
+
+    PositionSourceComponentFactory factory = factory(portfolioMaster, positionMaster);
+    factory.setPositionChunkSize(2);
+    factory.setPositionLoadingThreads(2);
+    ComponentRepository repo = new ComponentRepository();
+    factory.init(repo, new LinkedHashMap<String, String>());
+    repo.start();
+    try {
+      MasterPositionSource source = (MasterPositionSource) repo.getInstance(PositionSource.class, "test");
+      assertNotNull(source.getExecutorService());
+      assertEquals(2, source.getPositionChunkSize());
+
+      Portfolio loaded = source.getPortfolio(PORTFOLIO_ID);
+      assertEquals(5, loaded.getRootNode().getPositions().size());
+      for (int i = 0; i < 5; i++) {
+        assertEquals(BigDecimal.valueOf(i), loaded.getRootNode().getPositions().get(i).getQuantity());
+      }
+      // five positions in chunks of two, all requested from the loading threads
+      assertEquals(3, searchThreads.size());
+      for (String thread : searchThreads) {
+        assertTrue(thread, thread.startsWith("PositionLoader-"));
+      }
+    } finally {
+      repo.stop();
+    }
+    assertTrue(((MasterPositionSource) repo.getInstance(PositionSource.class, "test")).getExecutorService().isShutdown());
+  }
+
+  public void test_cacheStatisticsPublished() throws Exception {
+    MBeanServer server = MBeanServerFactory.newMBeanServer();
+    ComponentRepository repo = new ComponentRepository();
+    repo.registerComponent(new ComponentInfo(MBeanServer.class, "jmx"), server);
+    PositionMaster positionMaster = mock(PositionMaster.class);
+    when(positionMaster.changeManager()).thenReturn(new BasicChangeManager());
+    PositionSourceComponentFactory factory = factory(mock(PortfolioMaster.class), positionMaster);
+    factory.setCacheManager(EHCacheUtils.createCacheManager());
+    factory.init(repo, new LinkedHashMap<String, String>());
+    EHCachingPositionSource source = (EHCachingPositionSource) repo.getInstance(PositionSource.class, "test");
+    repo.start();
+    try {
+      assertTrue(server.isRegistered(source.getPositionCache().getObjectName()));
+      assertEquals(0L, server.getAttribute(source.getPortfolioCache().getObjectName(), "HitCount"));
+    } finally {
+      repo.stop();
+    }
+    assertFalse(server.isRegistered(source.getPositionCache().getObjectName()));
+  }
+
+}
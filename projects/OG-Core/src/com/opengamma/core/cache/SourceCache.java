@@ -0,0 +1,694 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.core.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.time.Instant;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.core.change.BatchChangeListener;
+import com.opengamma.core.change.ChangeEvent;
+import com.opengamma.core.change.ChangeListener;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.ehcache.AbstractCacheEventListener;
+import com.opengamma.util.ehcache.EHCacheUtils;
+import com.opengamma.util.tuple.ObjectsPair;
+import com.opengamma.util.tuple.Pair;
+
+/**
+ * A cache of the objects supplied by a source, keyed by unique identifier or by object identifier and version-correction.
+ * <p>
+ * The entries are held in a named EHCache cache, so the number held is bounded by the configuration of that cache.
+ * Objects that have been returned and are still referenced elsewhere are also held in a weak front cache so that
+ * the same instance is returned for repeated requests without going back to EHCache.
+ * <p>
+ * Misses are passed to a {@link Loader}, which may load many objects at once when asked for more than one.
+ * The cache can be registered as a {@link ChangeListener} with the underlying source. A change only removes the
+ * entries for the changed object that could be affected by it: versioned unique identifiers never change, and a
+ * version-correction which is corrected to an instant before the change will still see the same data.
+ * A value loaded while a change to its object was processed is not cached. Change stamps are shared by
+ * a fixed number of groups of objects, so a change only discards the loads in progress for its own group.
+ * Entries that EHCache evicts or expires are forgotten by the change handling as well, so the bookkeeping
+ * never holds more keys than the cache itself.
+ * <p>
+ * The cache counts its hits, misses and loads. It is a {@link SourceCacheMBean} so these can be published with JMX.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @param <V> the type of object cached
+ */
+public class SourceCache<V> implements BatchChangeListener, SourceCacheMBean {
+
+  /** Logger. */
+  private static final Logger s_logger = LoggerFactory.getLogger(SourceCache.class);
+  /**
+   * The number of change stamps shared between the objects.
+   */
+  private static final int CHANGE_STAMPS = 256;
+
+  /**
+   * Marker for a cached null result.
+   */
+  private static enum Null {
+    INSTANCE
+  }
+
+  /**
+   * Loads objects from the underlying source on a cache miss.
+   * <p>
+   * The bulk methods call the single object methods by default and should be overridden
+   * when the underlying source can do better. An identifier left out of the result of a bulk
+   * load is treated as a miss that is not cached, so a later single request will go to the loader.
+   *
+   * @param <V> the type of object loaded
+   */
+  public abstract static class Loader<V> {
+
+    /**
+     * Loads an object by unique identifier.
+     *
+     * @param uniqueId  the unique identifier, not null
+     * @return the object, null if not found
+     */
+    public abstract V load(UniqueId uniqueId);
+
+    /**
+     * Loads an object by object identifier and version-correction.
+     *
+     * @param objectId  the object identifier, not null
+     * @param versionCorrection  the version-correction, not null
+     * @return the object, null if not found
+     */
+    public abstract V load(ObjectId objectId, VersionCorrection versionCorrection);
+
+    /**
+     * Loads a number of objects by unique identifier.
+     *
+     * @param uniqueIds  the unique identifiers, not null
+     * @return the objects, keyed by unique identifier, with any that were not looked up omitted, not null
+     */
+    public Map<UniqueId, V> loadAll(final Collection<UniqueId> uniqueIds) {
+      final Map<UniqueId, V> result = Maps.newHashMapWithExpectedSize(uniqueIds.size());
+      for (UniqueId uniqueId : uniqueIds) {
+        result.put(uniqueId, load(uniqueId));
+      }
+      return result;
+    }
+
+    /**
+     * Loads a number of objects by object identifier at a single version-correction.
+     *
+     * @param objectIds  the object identifiers, not null
+     * @param versionCorrection  the version-correction, not null
+     * @return the objects, keyed by object identifier, with any that were not looked up omitted, not null
+     */
+    public Map<ObjectId, V> loadAll(final Collection<ObjectId> objectIds, final VersionCorrection versionCorrection) {
+      final Map<ObjectId, V> result = Maps.newHashMapWithExpectedSize(objectIds.size());
+      for (ObjectId objectId : objectIds) {
+        result.put(objectId, load(objectId, versionCorrection));
+      }
+      return result;
+    }
+
+  }
+
+  /**
+   * The cache name.
+   */
+  private final String _name;
+  /**
+   * The cache manager.
+   */
+  private final CacheManager _cacheManager;
+  /**
+   * The underlying cache.
+   */
+  private final Cache _cache;
+  /**
+   * The loader.
+   */
+  private final Loader<V> _loader;
+  /**
+   * The weakly held front cache.
+   */
+  private final ConcurrentMap<Object, V> _frontCache = new MapMaker().weakValues().makeMap();
+  /**
+   * The keys that may be invalidated by a change, by object identifier. Each set is guarded by its own monitor.
+   */
+  private final ConcurrentMap<ObjectId, Set<Object>> _keys = new ConcurrentHashMap<ObjectId, Set<Object>>();
+  /**
+   * Forgets the keys of entries that EHCache has evicted or expired.
+   */
+  private final AbstractCacheEventListener _evictionListener = new AbstractCacheEventListener() {
+
+    @Override
+    public void notifyElementEvicted(final Ehcache cache, final Element element) {
+      forget(element.getObjectKey());
+    }
+
+    @Override
+    public void notifyElementExpired(final Ehcache cache, final Element element) {
+      forget(element.getObjectKey());
+    }
+
+  };
+  /**
+   * The change stamps of the objects, indexed by the hash of the object identifier. A stamp is incremented
+   * whenever an object sharing it changes, to avoid caching a value loaded while the change was being processed.
+   */
+  private final AtomicLongArray _changes = new AtomicLongArray(CHANGE_STAMPS);
+  private final AtomicLong _hits = new AtomicLong();
+  private final AtomicLong _misses = new AtomicLong();
+  private final AtomicLong _loads = new AtomicLong();
+  private final AtomicLong _loadNanos = new AtomicLong();
+
+  /**
+   * Creates an instance.
+   *
+   * @param name  the name of the EHCache cache to use, not null
+   * @param cacheManager  the cache manager, not null
+   * @param loader  the loader for cache misses, not null
+   */
+  public SourceCache(final String name, final CacheManager cacheManager, final Loader<V> loader) {
+    ArgumentChecker.notNull(name, "name");
+    ArgumentChecker.notNull(cacheManager, "cacheManager");
+    ArgumentChecker.notNull(loader, "loader");
+    _name = name;
+    _cacheManager = cacheManager;
+    EHCacheUtils.addCache(cacheManager, name);
+    _cache = EHCacheUtils.getCacheFromManager(cacheManager, name);
+    _cache.getCacheEventNotificationService().registerListener(_evictionListener);
+    _loader = loader;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the name of the underlying EHCache cache.
+   *
+   * @return the name, not null
+   */
+  @Override
+  public String getName() {
+    return _name;
+  }
+
+  /**
+   * Gets the underlying EHCache cache.
+   *
+   * @return the cache, not null
+   */
+  public Cache getCache() {
+    return _cache;
+  }
+
+  /**
+   * Gets the name to publish the statistics of this cache under with JMX, using the scheme
+   * "com.opengamma:type=SourceCache,name=&lt;cache name&gt;".
+   *
+   * @return the object name, not null
+   */
+  public ObjectName getObjectName() {
+    try {
+      return new ObjectName("com.opengamma:type=SourceCache,name=" + ObjectName.quote(_name));
+    } catch (MalformedObjectNameException ex) {
+      throw new OpenGammaRuntimeException("Invalid cache name " + _name, ex);
+    }
+  }
+
+  /**
+   * Gets the number of requests satisfied from the cache.
+   *
+   * @return the hit count
+   */
+  @Override
+  public long getHitCount() {
+    return _hits.get();
+  }
+
+  /**
+   * Gets the number of requests not satisfied from the cache.
+   *
+   * @return the miss count
+   */
+  @Override
+  public long getMissCount() {
+    return _misses.get();
+  }
+
+  /**
+   * Gets the number of calls made to the loader. A bulk request makes at most one call for all of its misses.
+   *
+   * @return the load count
+   */
+  @Override
+  public long getLoadCount() {
+    return _loads.get();
+  }
+
+  /**
+   * Gets the total time spent in the loader.
+   *
+   * @return the load time in nanoseconds
+   */
+  @Override
+  public long getLoadTimeNanos() {
+    return _loadNanos.get();
+  }
+
+  /**
+   * Gets the number of entries held by the underlying EHCache cache.
+   *
+   * @return the number of entries
+   */
+  @Override
+  public int getSize() {
+    return _cache.getSize();
+  }
+
+  /**
+   * Gets the number of keys held for invalidation by changes.
+   *
+   * @return the number of keys
+   */
+  /* package for testing */int getTrackedKeyCount() {
+    int count = 0;
+    for (Set<Object> keys : _keys.values()) {
+      synchronized (keys) {
+        count += keys.size();
+      }
+    }
+    return count;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets an object by unique identifier, loading it if it is not cached.
+   *
+   * @param uniqueId  the unique identifier, not null
+   * @return the object, null if not found
+   */
+  public V get(final UniqueId uniqueId) {
+    ArgumentChecker.notNull(uniqueId, "uniqueId");
+    final Object cached = getCached(uniqueId);
+    if (cached != null) {
+      return value(cached);
+    }
+    final long changes = getChangeStamp(uniqueId.getObjectId());
+    final long start = startLoad();
+    final V value;
+    try {
+      value = _loader.load(uniqueId);
+    } finally {
+      endLoad(start);
+    }
+    return put(uniqueId, uniqueId, value, changes);
+  }
+
+  /**
+   * Gets a number of objects by unique identifier, loading any that are not cached with a single call to the loader.
+   *
+   * @param uniqueIds  the unique identifiers, not null
+   * @return the objects found, keyed by unique identifier, not null
+   */
+  public Map<UniqueId, V> getAll(final Collection<UniqueId> uniqueIds) {
+    ArgumentChecker.noNulls(uniqueIds, "uniqueIds");
+    final Map<UniqueId, V> result = Maps.newHashMapWithExpectedSize(uniqueIds.size());
+    final List<UniqueId> misses = new ArrayList<UniqueId>();
+    for (UniqueId uniqueId : uniqueIds) {
+      final Object cached = getCached(uniqueId);
+      if (cached != null) {
+        final V value = value(cached);
+        if (value != null) {
+          result.put(uniqueId, value);
+        }
+      } else {
+        misses.add(uniqueId);
+      }
+    }
+    if (!misses.isEmpty()) {
+      final long[] changes = new long[misses.size()];
+      for (int i = 0; i < changes.length; i++) {
+        changes[i] = getChangeStamp(misses.get(i).getObjectId());
+      }
+      final long start = startLoad();
+      final Map<UniqueId, V> loaded;
+      try {
+        loaded = _loader.loadAll(misses);
+      } finally {
+        endLoad(start);
+      }
+      for (int i = 0; i < changes.length; i++) {
+        final UniqueId uniqueId = misses.get(i);
+        if (!loaded.containsKey(uniqueId)) {
+          continue;
+        }
+        final V value = put(uniqueId, uniqueId, loaded.get(uniqueId), changes[i]);
+        if (value != null) {
+          result.put(uniqueId, value);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Gets an object by object identifier and version-correction, loading it if it is not cached.
+   *
+   * @param objectId  the object identifier, not null
+   * @param versionCorrection  the version-correction, not null
+   * @return the object, null if not found
+   */
+  public V get(final ObjectId objectId, final VersionCorrection versionCorrection) {
+    ArgumentChecker.notNull(objectId, "objectId");
+    ArgumentChecker.notNull(versionCorrection, "versionCorrection");
+    final Pair<ObjectId, VersionCorrection> key = ObjectsPair.of(objectId, versionCorrection);
+    final Object cached = getCached(key);
+    if (cached != null) {
+      return value(cached);
+    }
+    final long changes = getChangeStamp(objectId);
+    final long start = startLoad();
+    final V value;
+    try {
+      value = _loader.load(objectId, versionCorrection);
+    } finally {
+      endLoad(start);
+    }
+    return put(objectId, key, value, changes);
+  }
+
+  /**
+   * Gets a number of objects by object identifier at a single version-correction, loading any that are not cached
+   * with a single call to the loader.
+   *
+   * @param objectIds  the object identifiers, not null
+   * @param versionCorrection  the version-correction, not null
+   * @return the objects found, keyed by object identifier, not null
+   */
+  public Map<ObjectId, V> getAll(final Collection<ObjectId> objectIds, final VersionCorrection versionCorrection) {
+    ArgumentChecker.noNulls(objectIds, "objectIds");
+    ArgumentChecker.notNull(versionCorrection, "versionCorrection");
+    final Map<ObjectId, V> result = Maps.newHashMapWithExpectedSize(objectIds.size());
+    final List<ObjectId> misses = new ArrayList<ObjectId>();
+    for (ObjectId objectId : objectIds) {
+      final Object cached = getCached(ObjectsPair.of(objectId, versionCorrection));
+      if (cached != null) {
+        final V value = value(cached);
+        if (value != null) {
+          result.put(objectId, value);
+        }
+      } else {
+        misses.add(objectId);
+      }
+    }
+    if (!misses.isEmpty()) {
+      final long[] changes = new long[misses.size()];
+      for (int i = 0; i < changes.length; i++) {
+        changes[i] = getChangeStamp(misses.get(i));
+      }
+      final long start = startLoad();
+      final Map<ObjectId, V> loaded;
+      try {
+        loaded = _loader.loadAll(misses, versionCorrection);
+      } finally {
+        endLoad(start);
+      }
+      for (int i = 0; i < changes.length; i++) {
+        final ObjectId objectId = misses.get(i);
+        if (!loaded.containsKey(objectId)) {
+          continue;
+        }
+        final V value = put(objectId, ObjectsPair.of(objectId, versionCorrection), loaded.get(objectId), changes[i]);
+        if (value != null) {
+          result.put(objectId, value);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Adds an object that has been obtained from the underlying source by other means, such as a search,
+   * to the cache by its unique identifier.
+   *
+   * @param uniqueId  the unique identifier, not null
+   * @param value  the object, not null
+   * @return the cached object, which is an instance added earlier if there is one, not null
+   */
+  public V put(final UniqueId uniqueId, final V value) {
+    ArgumentChecker.notNull(uniqueId, "uniqueId");
+    ArgumentChecker.notNull(value, "value");
+    return put(uniqueId, uniqueId, value, getChangeStamp(uniqueId.getObjectId()));
+  }
+
+  //-------------------------------------------------------------------------
+  private Object getCached(final Object key) {
+    Object cached = _frontCache.get(key);
+    if (cached == null) {
+      final Element e = _cache.get(key);
+      if (e != null) {
+        cached = e.getObjectValue();
+      }
+    }
+    if (cached != null) {
+      _hits.incrementAndGet();
+    } else {
+      _misses.incrementAndGet();
+    }
+    return cached;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V value(final Object cached) {
+    return (cached == Null.INSTANCE) ? null : (V) cached;
+  }
+
+  private long startLoad() {
+    _loads.incrementAndGet();
+    return System.nanoTime();
+  }
+
+  private void endLoad(final long start) {
+    _loadNanos.addAndGet(System.nanoTime() - start);
+  }
+
+  private static int getChangeStampIndex(final ObjectId objectId) {
+    return (objectId.hashCode() & Integer.MAX_VALUE) % CHANGE_STAMPS;
+  }
+
+  private long getChangeStamp(final ObjectId objectId) {
+    return _changes.get(getChangeStampIndex(objectId));
+  }
+
+  private V put(final ObjectId objectId, final Object key, final V value, final long changes) {
+    if (!isImmutable(key)) {
+      track(objectId, key);
+    }
+    if (changes != getChangeStamp(objectId)) {
+      // A change was processed while loading the value; it may be out of date so don't cache it
+      s_logger.debug("Not caching {} loaded during a change", key);
+      return value;
+    }
+    final Object cached;
+    if (value == null) {
+      cached = Null.INSTANCE;
+    } else {
+      final V existing = _frontCache.putIfAbsent(key, value);
+      if (existing != null) {
+        return existing;
+      }
+      cached = value;
+    }
+    _cache.put(new Element(key, cached));
+    if (changes != getChangeStamp(objectId)) {
+      // A change was processed while putting the value; its invalidation may have run before the put
+      s_logger.debug("Discarding {} cached during a change", key);
+      if (value != null) {
+        _frontCache.remove(key, value);
+      }
+      _cache.remove(key);
+    }
+    return value;
+  }
+
+  private V put(final UniqueId uniqueId, final Object key, final V value, final long changes) {
+    return put(uniqueId.getObjectId(), key, value, changes);
+  }
+
+  /**
+   * Records a key that a change to an object may invalidate.
+   */
+  private void track(final ObjectId objectId, final Object key) {
+    Set<Object> keys;
+    do {
+      keys = _keys.get(objectId);
+      if (keys == null) {
+        keys = new HashSet<Object>();
+        final Set<Object> existing = _keys.putIfAbsent(objectId, keys);
+        if (existing != null) {
+          keys = existing;
+        }
+      }
+      synchronized (keys) {
+        keys.add(key);
+      }
+      // An empty set may have been removed before the key was added; if so add it to the replacement
+    } while (_keys.get(objectId) != keys);
+  }
+
+  /**
+   * Stops tracking a key, removing the set of keys for the object when it becomes empty.
+   */
+  private void untrack(final ObjectId objectId, final Object key) {
+    final Set<Object> keys = _keys.get(objectId);
+    if (keys == null) {
+      return;
+    }
+    synchronized (keys) {
+      keys.remove(key);
+      if (keys.isEmpty()) {
+        _keys.remove(objectId, keys);
+      }
+    }
+  }
+
+  /**
+   * Forgets an entry that EHCache has discarded.
+   */
+  private void forget(final Object key) {
+    // The front cache must not keep an entry that a change would no longer find
+    _frontCache.remove(key);
+    if (!isImmutable(key)) {
+      untrack(getObjectId(key), key);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ObjectId getObjectId(final Object key) {
+    if (key instanceof UniqueId) {
+      return ((UniqueId) key).getObjectId();
+    }
+    return ((Pair<ObjectId, VersionCorrection>) key).getFirst();
+  }
+
+  private static boolean isImmutable(final Object key) {
+    return (key instanceof UniqueId) && ((UniqueId) key).isVersioned();
+  }
+
+  /**
+   * Tests whether a change at an instant could affect the object cached under a key.
+   *
+   * @param key  the cache key, not null
+   * @param changeInstant  the instant of the change, null if not known
+   * @return true if the entry must be removed
+   */
+  private static boolean isAffected(final Object key, final Instant changeInstant) {
+    if (isImmutable(key)) {
+      return false;
+    }
+    if ((changeInstant == null) || (key instanceof UniqueId)) {
+      return true;
+    }
+    @SuppressWarnings("unchecked")
+    final VersionCorrection versionCorrection = ((Pair<ObjectId, VersionCorrection>) key).getSecond();
+    final Instant correctedTo = versionCorrection.getCorrectedTo();
+    return (correctedTo == null) || !correctedTo.isBefore(changeInstant);
+  }
+
+  private void invalidate(final UniqueId uniqueId, final Instant changeInstant) {
+    if (uniqueId == null) {
+      return;
+    }
+    final ObjectId objectId = uniqueId.getObjectId();
+    _changes.incrementAndGet(getChangeStampIndex(objectId));
+    final Set<Object> keys = _keys.get(objectId);
+    if (keys == null) {
+      return;
+    }
+    final List<Object> affected = new ArrayList<Object>();
+    synchronized (keys) {
+      for (Object key : keys) {
+        if (isAffected(key, changeInstant)) {
+          affected.add(key);
+        }
+      }
+    }
+    for (Object key : affected) {
+      untrack(objectId, key);
+      _frontCache.remove(key);
+      _cache.remove(key);
+    }
+  }
+
+  @Override
+  public void entityChanged(final ChangeEvent event) {
+    invalidate(event.getBeforeId(), event.getVersionInstant());
+    invalidate(event.getAfterId(), event.getVersionInstant());
+  }
+
+  @Override
+  public void entitiesChanged(final List<ChangeEvent> events) {
+    for (ChangeEvent event : events) {
+      invalidate(event.getBeforeId(), event.getVersionInstant());
+      invalidate(event.getAfterId(), event.getVersionInstant());
+    }
+  }
+
+  /**
+   * Removes all entries from the cache.
+   */
+  @Override
+  public void clear() {
+    for (int i = 0; i < CHANGE_STAMPS; i++) {
+      _changes.incrementAndGet(i);
+    }
+    _keys.clear();
+    _frontCache.clear();
+    _cache.removeAll();
+  }
+
+  /**
+   * Removes the underlying EHCache cache from its manager.
+   * Call this at the end of a unit test run to clear the state of EHCache.
+   */
+  public void shutdown() {
+    _cache.getCacheEventNotificationService().unregisterListener(_evictionListener);
+    _cacheManager.removeCache(_name);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[" + _name + ",hits=" + getHitCount() + ",misses=" + getMissCount() + ",loads=" + getLoadCount() + ",loadTime=" +
+        (double) getLoadTimeNanos() / 1e6 + "ms]";
+  }
+
+}
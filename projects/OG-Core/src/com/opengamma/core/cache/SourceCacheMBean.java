@@ -0,0 +1,27 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.core.cache;
+
+/**
+ * JMX MBean interface for the statistics of a {@link SourceCache}.
+ */
+public interface SourceCacheMBean {
+
+  String getName();
+
+  long getHitCount();
+
+  long getMissCount();
+
+  long getLoadCount();
+
+  long getLoadTimeNanos();
+
+  int getSize();
+
+  void clear();
+
+}
@@ -0,0 +1,10 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+
+/**
+ * Caching shared by the implementations of the core sources.
+ */
+package com.opengamma.core.cache;
@@ -16,7 +16,7 @@ import com.opengamma.util.ArgumentChecker;
  * <p>
  * This class is mutable and thread-safe using concurrent collections.
  */
-public class AggregatingChangeManager extends BasicChangeManager implements ChangeListener {
+public class AggregatingChangeManager extends BasicChangeManager implements BatchChangeListener {
 
   /**
    * Creates an instance.
@@ -66,4 +66,10 @@ public class AggregatingChangeManager extends BasicChangeManager implements Chan
     handleEntityChanged(event);
   }
 
+  @Override
+  public void entitiesChanged(List<ChangeEvent> events) {
+    // Forward on the batch intact to the local listeners
+    handleEntitiesChanged(events);
+  }
+
 }
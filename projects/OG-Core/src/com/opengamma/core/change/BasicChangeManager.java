@@ -6,6 +6,7 @@
 package com.opengamma.core.change;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArraySet;
 
@@ -121,6 +122,56 @@ public class BasicChangeManager implements ChangeManager {
     }
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Handles a number of events when entities change.
+   * <p>
+   * This method should only be called by the owner of the change manager.
+   * 
+   * @param events  the events that occurred, in order, not null
+   */
+  @Override
+  public void entitiesChanged(final List<ChangeEvent> events) {
+    ArgumentChecker.noNulls(events, "events");
+    if (events.isEmpty()) {
+      return;
+    }
+    handleEntitiesChanged(Collections.unmodifiableList(new ArrayList<ChangeEvent>(events)));
+  }
+
+  /**
+   * Handles a number of events when entities change.
+   * <p>
+   * This implementation calls {@link #fireEntitiesChanged(List)} directly.
+   * An overriding method may use a more advanced mechanism to handle the events.
+   * 
+   * @param events  the events that occurred, in order, not empty, not null
+   */
+  protected void handleEntitiesChanged(final List<ChangeEvent> events) {
+    fireEntitiesChanged(events);
+  }
+
+  /**
+   * Fires a number of events to the local listeners when entities change.
+   * <p>
+   * This implementation loops around the stored listeners and calls them in
+   * serial on the calling thread. A {@link BatchChangeListener} is called once
+   * with all the events, any other listener is called once per event.
+   * 
+   * @param events  the events that occurred, in order, not empty, not null
+   */
+  protected void fireEntitiesChanged(final List<ChangeEvent> events) {
+    for (ChangeListener listener : _listeners) {
+      if (listener instanceof BatchChangeListener) {
+        ((BatchChangeListener) listener).entitiesChanged(events);
+      } else {
+        for (ChangeEvent event : events) {
+          listener.entityChanged(event);
+        }
+      }
+    }
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Returns a debugging string for the manager.
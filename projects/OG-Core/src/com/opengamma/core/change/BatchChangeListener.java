@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.core.change;
+
+import java.util.List;
+
+import com.opengamma.util.PublicSPI;
+
+/**
+ * Listener interface used to receive entity change events in batches.
+ * <p>
+ * A change manager passes each batch of events it handles to a listener implementing
+ * this interface in a single call, rather than calling {@link #entityChanged} once per event.
+ * A listener that invalidates state can then do so once for the whole batch.
+ * Events that are not part of a batch are still passed to {@link #entityChanged}.
+ */
+@PublicSPI
+public interface BatchChangeListener extends ChangeListener {
+
+  /**
+   * Called when a number of entities have changed.
+   * <p>
+   * The events are in the order in which they occurred.
+   * 
+   * @param events  the event descriptions, not empty, not null
+   */
+  void entitiesChanged(List<ChangeEvent> events);
+
+}
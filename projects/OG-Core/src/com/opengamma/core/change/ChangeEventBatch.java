@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.core.change;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * A batch of entity change events, sent as a single message.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class ChangeEventBatch implements Serializable {
+
+  /** Serialization version. */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The events, in order.
+   */
+  private final List<ChangeEvent> _events;
+
+  /**
+   * Creates a batch.
+   * 
+   * @param events  the events, in order, not null
+   */
+  public ChangeEventBatch(final List<ChangeEvent> events) {
+    ArgumentChecker.noNulls(events, "events");
+    _events = Collections.unmodifiableList(new ArrayList<ChangeEvent>(events));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the events.
+   * 
+   * @return the events, in order, unmodifiable, not null
+   */
+  public List<ChangeEvent> getEvents() {
+    return _events;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj instanceof ChangeEventBatch) {
+      return _events.equals(((ChangeEventBatch) obj)._events);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return _events.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "ChangeEventBatch[" + _events.size() + " events]";
+  }
+
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.core.change;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fudgemsg.FudgeField;
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.MutableFudgeMsg;
+import org.fudgemsg.mapping.FudgeBuilder;
+import org.fudgemsg.mapping.FudgeBuilderFor;
+import org.fudgemsg.mapping.FudgeDeserializer;
+import org.fudgemsg.mapping.FudgeSerializer;
+
+import com.opengamma.util.fudgemsg.AbstractFudgeBuilder;
+
+/**
+ * Fudge builder for {@code ChangeEventBatch}.
+ */
+@FudgeBuilderFor(ChangeEventBatch.class)
+public class ChangeEventBatchFudgeBuilder extends AbstractFudgeBuilder implements FudgeBuilder<ChangeEventBatch> {
+
+  /** Field name, repeated once per event. */
+  public static final String EVENT_FIELD_NAME = "event";
+
+  @Override
+  public MutableFudgeMsg buildMessage(FudgeSerializer serializer, ChangeEventBatch object) {
+    final MutableFudgeMsg msg = serializer.newMessage();
+    for (ChangeEvent event : object.getEvents()) {
+      serializer.addToMessage(msg, EVENT_FIELD_NAME, null, event);
+    }
+    return msg;
+  }
+
+  @Override
+  public ChangeEventBatch buildObject(FudgeDeserializer deserializer, FudgeMsg message) {
+    final List<ChangeEvent> events = new ArrayList<ChangeEvent>();
+    for (FudgeField field : message.getAllByName(EVENT_FIELD_NAME)) {
+      events.add(deserializer.fieldValueToObject(ChangeEvent.class, field));
+    }
+    return new ChangeEventBatch(events);
+  }
+
+}
@@ -5,6 +5,8 @@
  */
 package com.opengamma.core.change;
 
+import java.util.List;
+
 import javax.time.Instant;
 
 import com.opengamma.id.UniqueId;
@@ -51,4 +53,17 @@ public interface ChangeManager {
    */
   void entityChanged(final ChangeType type, final UniqueId beforeId, final UniqueId afterId, final Instant versionInstant);
 
+  /**
+   * Handles a number of entity change events together.
+   * <p>
+   * This method should only be called by the owner of the change manager.
+   * It is invoked when many entities have been changed at once, such as by a bulk load.
+   * The effect is the same as calling {@link #entityChanged} for each event in order,
+   * but the manager may publish the events as one batch and a {@link BatchChangeListener}
+   * receives them in a single call.
+   * 
+   * @param events  the events that occurred, in order, not null
+   */
+  void entitiesChanged(final List<ChangeEvent> events);
+
 }
@@ -5,6 +5,8 @@
  */
 package com.opengamma.core.change;
 
+import java.util.List;
+
 import javax.time.Instant;
 
 import com.opengamma.id.UniqueId;
@@ -40,4 +42,9 @@ public final class DummyChangeManager implements ChangeManager {
     // dummy manager does nothing
   }
 
+  @Override
+  public void entitiesChanged(List<ChangeEvent> events) {
+    // dummy manager does nothing
+  }
+
 }
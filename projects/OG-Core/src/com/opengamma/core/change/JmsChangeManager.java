@@ -5,6 +5,14 @@
  */
 package com.opengamma.core.change;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 import javax.jms.Connection;
 import javax.jms.JMSException;
 import javax.jms.Message;
@@ -21,12 +29,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.Lifecycle;
 
+import com.google.common.collect.Lists;
 import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.transport.ByteArrayFudgeMessageReceiver;
 import com.opengamma.transport.FudgeMessageReceiver;
 import com.opengamma.transport.jms.JmsByteArrayMessageDispatcher;
 import com.opengamma.transport.jms.JmsByteArrayMessageSender;
 import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.NamedThreadPoolFactory;
 import com.opengamma.util.PublicSPI;
 import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
 import com.opengamma.util.jms.JmsConnector;
@@ -36,6 +46,14 @@ import com.opengamma.util.jms.JmsConnector;
  * <p>
  * Events are sent when an entity is added, updated, removed or corrected.
  * <p>
+ * By default each event is sent as its own JMS message, which every version of this class can receive.
+ * If batch messages are enabled, a call to {@link #entitiesChanged} is instead sent as a single
+ * {@link ChangeEventBatch} message of up to the maximum batch size, and receiving managers pass each
+ * batch to a {@link BatchChangeListener} in a single call. Batch messages can only be decoded by
+ * managers which support them, so they must only be enabled once every receiver on the topic does.
+ * If a batch window is set, events are held for up to that time, or until the maximum batch
+ * size is reached, and then sent together.
+ * <p>
  * This class is mutable and thread-safe using concurrent collections.
  */
 @PublicSPI
@@ -43,6 +61,10 @@ public class JmsChangeManager extends BasicChangeManager implements MessageListe
 
   /** Logger. */
   private static final Logger s_logger = LoggerFactory.getLogger(JmsChangeManager.class);
+  /**
+   * The default maximum number of events sent in one message.
+   */
+  public static final int DEFAULT_MAX_BATCH_SIZE = 1000;
 
   /**
    * The JMS connector, not null
@@ -56,6 +78,30 @@ public class JmsChangeManager extends BasicChangeManager implements MessageListe
    * The connection.
    */
   private volatile Connection _connection;
+  /**
+   * The time to hold events for before sending them, zero to send immediately.
+   */
+  private volatile long _batchWindowMillis;
+  /**
+   * Whether a number of events may be sent as one batch message.
+   */
+  private volatile boolean _batchMessages;
+  /**
+   * The maximum number of events sent in one message.
+   */
+  private volatile int _maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+  /**
+   * The events waiting to be sent, guarded by itself.
+   */
+  private final List<ChangeEvent> _pending = new ArrayList<ChangeEvent>();
+  /**
+   * The lock held while sending, so that events are sent in the order they were handled.
+   */
+  private final Object _sendLock = new Object();
+  /**
+   * The executor that sends held events at the end of each window, null if not holding events.
+   */
+  private volatile ScheduledExecutorService _flushExecutor;
 
   /**
    * Creates a change manager.
@@ -99,11 +145,20 @@ public class JmsChangeManager extends BasicChangeManager implements MessageListe
     } catch (JMSException ex) {
       throw new OpenGammaRuntimeException("Failed to create change manager on topic: " + topicName, ex);      
     }
+    if (_batchWindowMillis > 0) {
+      _flushExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadPoolFactory("JmsChangeManager-" + topicName));
+    }
   }
 
   @Override
   public void stop() {
     final String topicName = _jmsConnector.getTopicName();
+    final ScheduledExecutorService flushExecutor = _flushExecutor;
+    if (flushExecutor != null) {
+      _flushExecutor = null;
+      flushExecutor.shutdownNow();
+      flush();
+    }
     try {
       _connection.close();
       _connection = null;
@@ -128,6 +183,71 @@ public class JmsChangeManager extends BasicChangeManager implements MessageListe
     return _jmsConnector;
   }
 
+  /**
+   * Gets the time for which events are held before sending them.
+   * 
+   * @return the batch window in milliseconds, zero if events are sent immediately
+   */
+  public long getBatchWindowMillis() {
+    return _batchWindowMillis;
+  }
+
+  /**
+   * Sets the time for which events are held before sending them.
+   * <p>
+   * All events handled within the window are sent together, in batches of up to the maximum batch size.
+   * This must be set before the manager is started.
+   * 
+   * @param batchWindowMillis  the batch window in milliseconds, zero to send events immediately
+   */
+  public void setBatchWindowMillis(final long batchWindowMillis) {
+    ArgumentChecker.notNegative(batchWindowMillis, "batchWindowMillis");
+    _batchWindowMillis = batchWindowMillis;
+  }
+
+  /**
+   * Gets whether a number of events may be sent as one batch message.
+   * 
+   * @return true if batch messages are sent, false if each event is sent as its own message
+   */
+  public boolean isBatchMessages() {
+    return _batchMessages;
+  }
+
+  /**
+   * Sets whether a number of events may be sent as one batch message.
+   * <p>
+   * Batch messages cannot be decoded by managers that predate them, so this must only
+   * be enabled once every manager receiving from the topic supports them.
+   * The default is false, sending each event as its own message.
+   * 
+   * @param batchMessages  true to send batch messages
+   */
+  public void setBatchMessages(final boolean batchMessages) {
+    _batchMessages = batchMessages;
+  }
+
+  /**
+   * Gets the maximum number of events sent in one message.
+   * 
+   * @return the maximum batch size
+   */
+  public int getMaxBatchSize() {
+    return _maxBatchSize;
+  }
+
+  /**
+   * Sets the maximum number of events sent in one message.
+   * <p>
+   * Held events are sent as soon as this many are waiting, without waiting for the end of the window.
+   * 
+   * @param maxBatchSize  the maximum batch size, greater than zero
+   */
+  public void setMaxBatchSize(final int maxBatchSize) {
+    ArgumentChecker.notNegativeOrZero(maxBatchSize, "maxBatchSize");
+    _maxBatchSize = maxBatchSize;
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Handles an event when an entity changes.
@@ -139,11 +259,105 @@ public class JmsChangeManager extends BasicChangeManager implements MessageListe
    */
   @Override
   protected void handleEntityChanged(final ChangeEvent event) {
-    final FudgeMsgEnvelope msg = OpenGammaFudgeContext.getInstance().toFudgeMsg(event);
-    s_logger.debug("Sending change message {}", msg);
-    final byte[] fudgeMsg = OpenGammaFudgeContext.getInstance().toByteArray(msg.getMessage());
+    publish(Collections.singletonList(event));
+  }
+
+  /**
+   * Handles a number of events when entities change.
+   * <p>
+   * This implementation sends the events by JMS, as one or more batches if batch
+   * messages are enabled, to be received by all change managers, including this one.
+   * 
+   * @param events  the events that occurred, in order, not empty, not null
+   */
+  @Override
+  protected void handleEntitiesChanged(final List<ChangeEvent> events) {
+    publish(events);
+  }
+
+  /**
+   * Sends events immediately, or holds them until the end of the current window.
+   * 
+   * @param events  the events to send, not null
+   */
+  private void publish(final List<ChangeEvent> events) {
+    final ScheduledExecutorService flushExecutor = _flushExecutor;
+    if (flushExecutor == null) {
+      synchronized (_sendLock) {
+        send(events);
+      }
+      return;
+    }
+    final boolean full;
+    final boolean windowStarted;
+    synchronized (_pending) {
+      windowStarted = _pending.isEmpty();
+      _pending.addAll(events);
+      full = _pending.size() >= _maxBatchSize;
+    }
+    if (full) {
+      flush();
+    } else if (windowStarted) {
+      try {
+        flushExecutor.schedule(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              flush();
+            } catch (RuntimeException ex) {
+              s_logger.warn("Failed to send change messages", ex);
+            }
+          }
+        }, _batchWindowMillis, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException ex) {
+        // stopped since the check above
+        flush();
+      }
+    }
+  }
+
+  /**
+   * Sends any events being held.
+   */
+  private void flush() {
+    synchronized (_sendLock) {
+      final List<ChangeEvent> events;
+      synchronized (_pending) {
+        if (_pending.isEmpty()) {
+          return;
+        }
+        events = new ArrayList<ChangeEvent>(_pending);
+        _pending.clear();
+      }
+      send(events);
+    }
+  }
+
+  /**
+   * Sends events by JMS, as single event messages or, if enabled, as batches of up to the maximum size.
+   * 
+   * @param events  the events to send, not null
+   */
+  private void send(final List<ChangeEvent> events) {
     final JmsByteArrayMessageSender messageSender = new JmsByteArrayMessageSender(getJmsConnector().getTopicName(), getJmsConnector().getJmsTemplateTopic());
-    messageSender.send(fudgeMsg);
+    if (!_batchMessages) {
+      for (ChangeEvent event : events) {
+        send(messageSender, OpenGammaFudgeContext.getInstance().toFudgeMsg(event));
+      }
+      return;
+    }
+    for (List<ChangeEvent> batch : Lists.partition(events, _maxBatchSize)) {
+      if (batch.size() == 1) {
+        send(messageSender, OpenGammaFudgeContext.getInstance().toFudgeMsg(batch.get(0)));
+      } else {
+        send(messageSender, OpenGammaFudgeContext.getInstance().toFudgeMsg(new ChangeEventBatch(batch)));
+      }
+    }
+  }
+
+  private void send(final JmsByteArrayMessageSender messageSender, final FudgeMsgEnvelope msg) {
+    s_logger.debug("Sending change message {}", msg);
+    messageSender.send(OpenGammaFudgeContext.getInstance().toByteArray(msg.getMessage()));
   }
 
   @Override
@@ -156,8 +370,13 @@ public class JmsChangeManager extends BasicChangeManager implements MessageListe
     final FudgeMsg msg = msgEnvelope.getMessage();
     s_logger.debug("Received change message {}", msg);
     final FudgeDeserializer deserializer = new FudgeDeserializer(fudgeContext);
-    final ChangeEvent event = deserializer.fudgeMsgToObject(ChangeEvent.class, msg);
-    fireEntityChanged(event);
+    if (msg.hasField(ChangeEventBatchFudgeBuilder.EVENT_FIELD_NAME)) {
+      final ChangeEventBatch batch = deserializer.fudgeMsgToObject(ChangeEventBatch.class, msg);
+      fireEntitiesChanged(batch.getEvents());
+    } else {
+      final ChangeEvent event = deserializer.fudgeMsgToObject(ChangeEvent.class, msg);
+      fireEntityChanged(event);
+    }
   }
 
   //-------------------------------------------------------------------------
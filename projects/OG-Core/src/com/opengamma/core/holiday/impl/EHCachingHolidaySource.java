@@ -17,6 +17,7 @@ import net.sf.ehcache.Cache;
 import net.sf.ehcache.CacheManager;
 import net.sf.ehcache.Element;
 
+import com.opengamma.core.cache.SourceCache;
 import com.opengamma.core.holiday.Holiday;
 import com.opengamma.core.holiday.HolidaySource;
 import com.opengamma.core.holiday.HolidayType;
@@ -35,8 +36,10 @@ import com.opengamma.util.money.Currency;
 public class EHCachingHolidaySource implements HolidaySource {
 
   private static final String CACHE_NAME = "holiday";
+  private static final String HOLIDAY_CACHE_NAME = "holidayById";
   private final HolidaySource _underlying;
   private final Cache _cache;
+  private final SourceCache<Holiday> _holidayCache;
 
   public EHCachingHolidaySource(final HolidaySource underlying, final CacheManager cacheManager) {
     ArgumentChecker.notNull(underlying, "underlying");
@@ -44,6 +47,19 @@ public class EHCachingHolidaySource implements HolidaySource {
     _underlying = underlying;
     EHCacheUtils.addCache(cacheManager, CACHE_NAME);
     _cache = EHCacheUtils.getCacheFromManager(cacheManager, CACHE_NAME);
+    _holidayCache = new SourceCache<Holiday>(HOLIDAY_CACHE_NAME, cacheManager, new SourceCache.Loader<Holiday>() {
+
+      @Override
+      public Holiday load(final UniqueId uniqueId) {
+        return getUnderlying().getHoliday(uniqueId);
+      }
+
+      @Override
+      public Holiday load(final ObjectId objectId, final VersionCorrection versionCorrection) {
+        return getUnderlying().getHoliday(objectId, versionCorrection);
+      }
+
+    });
   }
 
   protected HolidaySource getUnderlying() {
@@ -54,32 +70,18 @@ public class EHCachingHolidaySource implements HolidaySource {
     return _cache;
   }
 
+  protected SourceCache<Holiday> getHolidayCache() {
+    return _holidayCache;
+  }
+
   @Override
   public Holiday getHoliday(final UniqueId uniqueId) {
-    final Element e = getCache().get(uniqueId);
-    if (e != null) {
-      return get(e);
-    }
-    try {
-      return putValue(uniqueId, getUnderlying().getHoliday(uniqueId), getCache());
-    } catch (RuntimeException ex) {
-      return putException(uniqueId, ex, getCache());
-    }
+    return getHolidayCache().get(uniqueId);
   }
 
-  @SuppressWarnings("unchecked")
   @Override
   public Holiday getHoliday(final ObjectId objectId, final VersionCorrection versionCorrection) {
-    final Object key = Arrays.asList(objectId, versionCorrection);
-    final Element e = getCache().get(key);
-    if (e != null) {
-      return get(e);
-    }
-    try {
-      return putValue(key, getUnderlying().getHoliday(objectId, versionCorrection), getCache());
-    } catch (RuntimeException ex) {
-      return putException(key, ex, getCache());
-    }
+    return getHolidayCache().get(objectId, versionCorrection);
   }
 
   @SuppressWarnings("unchecked")
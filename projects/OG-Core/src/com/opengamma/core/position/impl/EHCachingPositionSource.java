@@ -5,14 +5,13 @@
  */
 package com.opengamma.core.position.impl;
 
-import java.util.concurrent.ConcurrentMap;
+import java.util.List;
 
-import net.sf.ehcache.Cache;
 import net.sf.ehcache.CacheManager;
-import net.sf.ehcache.Element;
 
-import com.google.common.collect.MapMaker;
+import com.opengamma.core.cache.SourceCache;
 import com.opengamma.core.change.BasicChangeManager;
+import com.opengamma.core.change.BatchChangeListener;
 import com.opengamma.core.change.ChangeEvent;
 import com.opengamma.core.change.ChangeListener;
 import com.opengamma.core.change.ChangeManager;
@@ -25,12 +24,15 @@ import com.opengamma.id.ObjectId;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
 import com.opengamma.util.ArgumentChecker;
-import com.opengamma.util.ehcache.EHCacheUtils;
 
 /**
  * A cache decorating a {@code PositionSource}.
  * <p>
- * The cache is implemented using {@code EHCache}.
+ * The cache is implemented using {@code EHCache}, with a {@link SourceCache} for each type of object.
+ * Only requests for versioned identifiers are satisfied from the caches. The content of a portfolio,
+ * node, position or trade requested by an unversioned identifier can change without an event for that
+ * identifier, for example when a position in a portfolio is updated, so these requests always go to the
+ * underlying source. The objects they return are cached by their own versioned identifiers.
  */
 public class EHCachingPositionSource implements PositionSource {
 
@@ -62,19 +64,19 @@ public class EHCachingPositionSource implements PositionSource {
   /**
    * The portfolio cache.
    */
-  private final Cache _portfolioCache;
+  private final SourceCache<Portfolio> _portfolioCache;
   /**
    * The node cache.
    */
-  private final Cache _portfolioNodeCache;
+  private final SourceCache<PortfolioNode> _portfolioNodeCache;
   /**
    * The position cache.
    */
-  private final Cache _positionCache;
+  private final SourceCache<Position> _positionCache;
   /**
    * The trade cache.
    */
-  private final Cache _tradeCache;
+  private final SourceCache<Trade> _tradeCache;
   /**
    * Listens for changes in the underlying position source.
    */
@@ -84,8 +86,6 @@ public class EHCachingPositionSource implements PositionSource {
    */
   private final ChangeManager _changeManager;
 
-  private final ConcurrentMap<UniqueId, Object> _frontCache = new MapMaker().weakValues().makeMap();
-
   /**
    * Creates the cache around an underlying position source.
    * 
@@ -97,30 +97,60 @@ public class EHCachingPositionSource implements PositionSource {
     ArgumentChecker.notNull(cacheManager, "cacheManager");
     _underlying = underlying;
     _cacheManager = cacheManager;
-    EHCacheUtils.addCache(cacheManager, PORTFOLIO_CACHE);
-    EHCacheUtils.addCache(cacheManager, PORTFOLIONODE_CACHE);
-    EHCacheUtils.addCache(cacheManager, POSITION_CACHE);
-    EHCacheUtils.addCache(cacheManager, TRADE_CACHE);
-    _portfolioCache = EHCacheUtils.getCacheFromManager(cacheManager, PORTFOLIO_CACHE);
-    _portfolioNodeCache = EHCacheUtils.getCacheFromManager(cacheManager, PORTFOLIONODE_CACHE);
-    _positionCache = EHCacheUtils.getCacheFromManager(cacheManager, POSITION_CACHE);
-    _tradeCache = EHCacheUtils.getCacheFromManager(cacheManager, TRADE_CACHE);
+    _portfolioCache = new SourceCache<Portfolio>(PORTFOLIO_CACHE, cacheManager, new SourceCache.Loader<Portfolio>() {
+      @Override
+      public Portfolio load(final UniqueId uniqueId) {
+        return getUnderlying().getPortfolio(uniqueId);
+      }
+
+      @Override
+      public Portfolio load(final ObjectId objectId, final VersionCorrection versionCorrection) {
+        return getUnderlying().getPortfolio(objectId, versionCorrection);
+      }
+    });
+    _portfolioNodeCache = new SourceCache<PortfolioNode>(PORTFOLIONODE_CACHE, cacheManager, new UniqueIdLoader<PortfolioNode>() {
+      @Override
+      public PortfolioNode load(final UniqueId uniqueId) {
+        return getUnderlying().getPortfolioNode(uniqueId);
+      }
+    });
+    _positionCache = new SourceCache<Position>(POSITION_CACHE, cacheManager, new UniqueIdLoader<Position>() {
+      @Override
+      public Position load(final UniqueId uniqueId) {
+        return getUnderlying().getPosition(uniqueId);
+      }
+    });
+    _tradeCache = new SourceCache<Trade>(TRADE_CACHE, cacheManager, new UniqueIdLoader<Trade>() {
+      @Override
+      public Trade load(final UniqueId uniqueId) {
+        return getUnderlying().getTrade(uniqueId);
+      }
+    });
     _changeManager = new BasicChangeManager();
-    _changeListener = new ChangeListener() {
+    _changeListener = new BatchChangeListener() {
       @Override
       public void entityChanged(ChangeEvent event) {
-        if (event.getBeforeId() != null) {
-          cleanCaches(event.getBeforeId());
-        }
-        if (event.getAfterId() != null) {
-          cleanCaches(event.getAfterId());
-        }
         changeManager().entityChanged(event.getType(), event.getBeforeId(), event.getAfterId(), event.getVersionInstant());
       }
+
+      @Override
+      public void entitiesChanged(List<ChangeEvent> events) {
+        changeManager().entitiesChanged(events);
+      }
     };
     underlying.changeManager().addChangeListener(_changeListener);
   }
 
+  /**
+   * Loader for objects that can only be requested by unique identifier.
+   */
+  private abstract static class UniqueIdLoader<V> extends SourceCache.Loader<V> {
+    @Override
+    public V load(final ObjectId objectId, final VersionCorrection versionCorrection) {
+      throw new UnsupportedOperationException("Only available by unique identifier");
+    }
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Gets the underlying source of positions.
@@ -140,139 +170,80 @@ public class EHCachingPositionSource implements PositionSource {
     return _cacheManager;
   }
 
+  /**
+   * Gets the cache of portfolios by versioned identifier.
+   * 
+   * @return the cache, not null
+   */
+  public SourceCache<Portfolio> getPortfolioCache() {
+    return _portfolioCache;
+  }
+
+  /**
+   * Gets the cache of portfolio nodes by versioned identifier.
+   * 
+   * @return the cache, not null
+   */
+  public SourceCache<PortfolioNode> getPortfolioNodeCache() {
+    return _portfolioNodeCache;
+  }
+
+  /**
+   * Gets the cache of positions by versioned identifier.
+   * 
+   * @return the cache, not null
+   */
+  public SourceCache<Position> getPositionCache() {
+    return _positionCache;
+  }
+
+  /**
+   * Gets the cache of trades by versioned identifier.
+   * 
+   * @return the cache, not null
+   */
+  public SourceCache<Trade> getTradeCache() {
+    return _tradeCache;
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public Portfolio getPortfolio(UniqueId uniqueId) {
-    Object f = _frontCache.get(uniqueId);
-    if (f instanceof Portfolio) {
-      return (Portfolio) f;
-    }
     if (uniqueId.isLatest()) {
-      Portfolio portfolio = getUnderlying().getPortfolio(uniqueId);
-      f = _frontCache.putIfAbsent(portfolio.getUniqueId(), portfolio);
-      if (f instanceof Portfolio) {
-        return (Portfolio) f;
-      } else {
-        _portfolioCache.put(new Element(portfolio.getUniqueId(), portfolio));
-        return portfolio;
-      }
-    }
-    Element e = _portfolioCache.get(uniqueId);
-    if (e != null) {
-      final Portfolio portfolio = (Portfolio) e.getObjectValue();
-      f = _frontCache.putIfAbsent(uniqueId, portfolio);
-      if (f instanceof Portfolio) {
-        return (Portfolio) f;
-      } else {
-        return portfolio;
-      }
-    } else {
-      Portfolio portfolio = getUnderlying().getPortfolio(uniqueId);
-      f = _frontCache.putIfAbsent(uniqueId, portfolio);
-      if (f instanceof Portfolio) {
-        return (Portfolio) f;
-      } else {
-        _portfolioCache.put(new Element(portfolio.getUniqueId(), portfolio));
-        return portfolio;
-      }
+      final Portfolio portfolio = getUnderlying().getPortfolio(uniqueId);
+      return _portfolioCache.put(portfolio.getUniqueId(), portfolio);
     }
+    return _portfolioCache.get(uniqueId);
   }
 
   @Override
   public Portfolio getPortfolio(ObjectId objectId, VersionCorrection versionCorrection) {
-    Portfolio portfolio = getUnderlying().getPortfolio(objectId, versionCorrection);
-    _portfolioCache.put(new Element(portfolio.getUniqueId(), portfolio));
-    return portfolio;
+    final Portfolio portfolio = getUnderlying().getPortfolio(objectId, versionCorrection);
+    return _portfolioCache.put(portfolio.getUniqueId(), portfolio);
   }
 
   @Override
   public PortfolioNode getPortfolioNode(UniqueId uniqueId) {
-    Object f = _frontCache.get(uniqueId);
-    if (f instanceof PortfolioNode) {
-      return (PortfolioNode) f;
-    }
     if (uniqueId.isLatest()) {
       return getUnderlying().getPortfolioNode(uniqueId);
     }
-    Element e = _portfolioNodeCache.get(uniqueId);
-    if (e != null) {
-      final PortfolioNode node = (PortfolioNode) e.getObjectValue();
-      f = _frontCache.putIfAbsent(uniqueId, node);
-      if (f instanceof PortfolioNode) {
-        return (PortfolioNode) f;
-      } else {
-        return (PortfolioNode) e.getObjectValue();
-      }
-    } else {
-      PortfolioNode node = getUnderlying().getPortfolioNode(uniqueId);
-      f = _frontCache.putIfAbsent(uniqueId, node);
-      if (f instanceof PortfolioNode) {
-        return (PortfolioNode) f;
-      } else {
-        _portfolioNodeCache.put(new Element(node.getUniqueId(), node));
-        return node;
-      }
-    }
+    return _portfolioNodeCache.get(uniqueId);
   }
 
   @Override
   public Position getPosition(UniqueId uniqueId) {
-    Object f = _frontCache.get(uniqueId);
-    if (f instanceof Position) {
-      return (Position) f;
-    }
     if (uniqueId.isLatest()) {
       return getUnderlying().getPosition(uniqueId);
     }
-    Element e = _positionCache.get(uniqueId);
-    if (e != null) {
-      final Position position = (Position) e.getObjectValue();
-      f = _frontCache.putIfAbsent(uniqueId, position);
-      if (f instanceof Position) {
-        return (Position) f;
-      } else {
-        return position;
-      }
-    } else {
-      final Position position = getUnderlying().getPosition(uniqueId);
-      f = _frontCache.putIfAbsent(uniqueId, position);
-      if (f instanceof Position) {
-        return (Position) f;
-      } else {
-        _positionCache.put(new Element(position.getUniqueId(), position));
-        return position;
-      }
-    }
+    return _positionCache.get(uniqueId);
   }
 
   @Override
   public Trade getTrade(UniqueId uniqueId) {
-    Object f = _frontCache.get(uniqueId);
-    if (f instanceof Trade) {
-      return (Trade) f;
-    }
     if (uniqueId.isLatest()) {
       return getUnderlying().getTrade(uniqueId);
     }
-    Element e = _tradeCache.get(uniqueId);
-    if (e != null) {
-      final Trade trade = (Trade) e.getObjectValue();
-      f = _frontCache.putIfAbsent(uniqueId, trade);
-      if (f instanceof Trade) {
-        return (Trade) f;
-      } else {
-        return trade;
-      }
-    } else {
-      final Trade trade = getUnderlying().getTrade(uniqueId);
-      f = _frontCache.putIfAbsent(uniqueId, trade);
-      if (f instanceof Trade) {
-        return (Trade) f;
-      } else {
-        _tradeCache.put(new Element(trade.getUniqueId(), trade));
-        return trade;
-      }
-    }
+    return _tradeCache.get(uniqueId);
   }
 
   //-------------------------------------------------------------------------
@@ -287,21 +258,10 @@ public class EHCachingPositionSource implements PositionSource {
    */
   protected void shutdown() {
     _underlying.changeManager().removeChangeListener(_changeListener);
-    _cacheManager.removeCache(PORTFOLIO_CACHE);
-    _cacheManager.removeCache(PORTFOLIONODE_CACHE);
-    _cacheManager.removeCache(POSITION_CACHE);
-    _cacheManager.removeCache(TRADE_CACHE);
-  }
-
-  //-------------------------------------------------------------------------
-  private void cleanCaches(UniqueId id) {
-    // Only care where the unversioned ID has been cached since it now represents something else
-    UniqueId latestId = id.toLatest();
-    _portfolioNodeCache.remove(latestId);
-    _portfolioCache.remove(latestId);
-    _positionCache.remove(latestId);
-    _tradeCache.remove(latestId);
-    _frontCache.remove(latestId);
+    _portfolioCache.shutdown();
+    _portfolioNodeCache.shutdown();
+    _positionCache.shutdown();
+    _tradeCache.shutdown();
   }
 
   //-------------------------------------------------------------------------
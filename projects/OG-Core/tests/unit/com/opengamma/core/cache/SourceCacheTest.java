@@ -0,0 +1,206 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.core.cache;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.time.Instant;
+
+import net.sf.ehcache.Element;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.opengamma.core.change.ChangeEvent;
+import com.opengamma.core.change.ChangeType;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.util.ehcache.EHCacheUtils;
+import com.opengamma.util.tuple.ObjectsPair;
+import com.opengamma.util.tuple.Pair;
+
+/**
+ * Test {@link SourceCache}.
+ */
+@Test
+public class SourceCacheTest {
+
+  private static final ObjectId OID_A = ObjectId.of("Test", "A");
+  private static final ObjectId OID_B = ObjectId.of("Test", "B");
+  private static final Instant NOW = Instant.now();
+  private static final VersionCorrection VC_BEFORE = VersionCorrection.of(NOW.minusSeconds(10), NOW.minusSeconds(10));
+
+  private TestLoader _loader;
+  private SourceCache<String> _cache;
+
+  @BeforeMethod
+  public void setUp() {
+    _loader = new TestLoader();
+    _cache = new SourceCache<String>("SourceCacheTest", EHCacheUtils.createCacheManager(), _loader);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    _cache.shutdown();
+  }
+
+  public void get_uniqueId_cached() {
+    final UniqueId uid = OID_A.atVersion("1");
+    final String first = _cache.get(uid);
+    assertEquals("Test~A~1", first);
+    assertSame(first, _cache.get(uid));
+    assertEquals(1, _loader._singleLoads);
+    assertEquals(1, _cache.getHitCount());
+    assertEquals(1, _cache.getMissCount());
+    assertEquals(1, _cache.getLoadCount());
+  }
+
+  public void get_null_cached() {
+    assertNull(_cache.get(ObjectId.of("Test", "Missing").atLatestVersion()));
+    assertNull(_cache.get(ObjectId.of("Test", "Missing").atLatestVersion()));
+    assertEquals(1, _loader._singleLoads);
+  }
+
+  public void getAll_onlyMissesLoaded() {
+    _cache.get(OID_A, VersionCorrection.LATEST);
+    final Map<ObjectId, String> result = _cache.getAll(Arrays.asList(OID_A, OID_B), VersionCorrection.LATEST);
+    assertEquals(2, result.size());
+    assertEquals("Test~B@" + VersionCorrection.LATEST, result.get(OID_B));
+    assertEquals(1, _loader._singleLoads);
+    assertEquals(1, _loader._bulkLoads);
+    assertEquals(Arrays.asList(OID_B), _loader._lastBulk);
+    _cache.getAll(Arrays.asList(OID_A, OID_B), VersionCorrection.LATEST);
+    assertEquals(1, _loader._bulkLoads);
+  }
+
+  public void change_invalidatesAffectedEntriesOnly() {
+    final UniqueId versioned = OID_A.atVersion("1");
+    _cache.get(versioned);
+    _cache.get(OID_A.atLatestVersion());
+    _cache.get(OID_A, VersionCorrection.LATEST);
+    _cache.get(OID_A, VC_BEFORE);
+    _cache.get(OID_B, VersionCorrection.LATEST);
+    assertEquals(5, _loader._singleLoads);
+    _cache.entityChanged(new ChangeEvent(ChangeType.UPDATED, versioned, OID_A.atVersion("2"), NOW));
+    _cache.get(versioned);
+    _cache.get(OID_A, VC_BEFORE);
+    _cache.get(OID_B, VersionCorrection.LATEST);
+    assertEquals(5, _loader._singleLoads);
+    _cache.get(OID_A.atLatestVersion());
+    _cache.get(OID_A, VersionCorrection.LATEST);
+    assertEquals(7, _loader._singleLoads);
+  }
+
+  public void changeBatch_invalidatesAllChanged() {
+    _cache.get(OID_A, VersionCorrection.LATEST);
+    _cache.get(OID_B, VersionCorrection.LATEST);
+    assertEquals(2, _loader._singleLoads);
+    _cache.entitiesChanged(Arrays.asList(
+        new ChangeEvent(ChangeType.UPDATED, OID_A.atVersion("1"), OID_A.atVersion("2"), NOW),
+        new ChangeEvent(ChangeType.REMOVED, OID_B.atVersion("1"), null, NOW)));
+    _cache.get(OID_A, VersionCorrection.LATEST);
+    _cache.get(OID_B, VersionCorrection.LATEST);
+    assertEquals(4, _loader._singleLoads);
+  }
+
+  public void change_duringLoad_notCached() {
+    _loader._duringLoad = new Runnable() {
+      @Override
+      public void run() {
+        _cache.entityChanged(new ChangeEvent(ChangeType.UPDATED, OID_A.atVersion("1"), OID_A.atVersion("2"), NOW));
+      }
+    };
+    _cache.get(OID_A, VersionCorrection.LATEST);
+    _loader._duringLoad = null;
+    _cache.get(OID_A, VersionCorrection.LATEST);
+    assertEquals(2, _loader._singleLoads);
+  }
+
+  public void change_toOtherObject_duringLoad_cached() {
+    _loader._duringLoad = new Runnable() {
+      @Override
+      public void run() {
+        _cache.entityChanged(new ChangeEvent(ChangeType.UPDATED, OID_B.atVersion("1"), OID_B.atVersion("2"), NOW));
+      }
+    };
+    _cache.get(OID_A, VersionCorrection.LATEST);
+    _loader._duringLoad = null;
+    _cache.get(OID_A, VersionCorrection.LATEST);
+    assertEquals(1, _loader._singleLoads);
+  }
+
+  public void eviction_forgetsKeys() {
+    final String first = _cache.get(OID_A, VersionCorrection.LATEST);
+    _cache.get(OID_B, VersionCorrection.LATEST);
+    assertEquals(2, _cache.getTrackedKeyCount());
+    final Pair<ObjectId, VersionCorrection> key = ObjectsPair.of(OID_A, VersionCorrection.LATEST);
+    _cache.getCache().removeQuiet(key);
+    _cache.getCache().getCacheEventNotificationService().notifyElementEvicted(new Element(key, first), false);
+    assertEquals(1, _cache.getTrackedKeyCount());
+    // The front cache no longer returns the evicted entry either
+    _cache.get(OID_A, VersionCorrection.LATEST);
+    assertEquals(3, _loader._singleLoads);
+    assertEquals(2, _cache.getTrackedKeyCount());
+  }
+
+  public void statistics_publishedUnderCacheName() throws Exception {
+    _cache.get(OID_A, VersionCorrection.LATEST);
+    _cache.get(OID_A, VersionCorrection.LATEST);
+    final MBeanServer server = MBeanServerFactory.newMBeanServer();
+    server.registerMBean(_cache, _cache.getObjectName());
+    assertEquals(1L, server.getAttribute(_cache.getObjectName(), "HitCount"));
+    assertEquals(1L, server.getAttribute(_cache.getObjectName(), "MissCount"));
+    assertEquals(1, server.getAttribute(_cache.getObjectName(), "Size"));
+  }
+
+  //-------------------------------------------------------------------------
+  private static class TestLoader extends SourceCache.Loader<String> {
+
+    private int _singleLoads;
+    private int _bulkLoads;
+    private Collection<ObjectId> _lastBulk;
+    private Runnable _duringLoad;
+
+    @Override
+    public String load(final UniqueId uniqueId) {
+      _singleLoads++;
+      return "Missing".equals(uniqueId.getValue()) ? null : uniqueId.toString();
+    }
+
+    @Override
+    public String load(final ObjectId objectId, final VersionCorrection versionCorrection) {
+      _singleLoads++;
+      if (_duringLoad != null) {
+        _duringLoad.run();
+      }
+      return objectId + "@" + versionCorrection;
+    }
+
+    @Override
+    public Map<ObjectId, String> loadAll(final Collection<ObjectId> objectIds, final VersionCorrection versionCorrection) {
+      _bulkLoads++;
+      _lastBulk = objectIds;
+      final Map<ObjectId, String> result = new HashMap<ObjectId, String>();
+      for (ObjectId objectId : objectIds) {
+        result.put(objectId, objectId + "@" + versionCorrection);
+      }
+      return result;
+    }
+
+  }
+
+}
@@ -8,6 +8,10 @@ package com.opengamma.core.change;
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertSame;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import javax.time.Instant;
 
 import org.testng.annotations.BeforeMethod;
@@ -111,4 +115,78 @@ public class BasicChangeManagerTest {
     _changeManager.entityChanged(ChangeType.CORRECTED, UID_A_B_1, UID_A_B_2, NOW);
   }
 
+  //-------------------------------------------------------------------------
+  public void test_fireBatch_batchListenerOnce() {
+    final List<List<ChangeEvent>> batches = new ArrayList<List<ChangeEvent>>();
+    final List<ChangeEvent> singles = new ArrayList<ChangeEvent>();
+    _changeManager.addChangeListener(new BatchChangeListener() {
+      @Override
+      public void entityChanged(ChangeEvent event) {
+        singles.add(event);
+      }
+      @Override
+      public void entitiesChanged(List<ChangeEvent> events) {
+        batches.add(events);
+      }
+    });
+    final List<ChangeEvent> events = Arrays.asList(
+        new ChangeEvent(ChangeType.ADDED, null, UID_A_B_1, NOW),
+        new ChangeEvent(ChangeType.UPDATED, UID_A_B_1, UID_A_B_2, NOW));
+    _changeManager.entitiesChanged(events);
+    assertEquals(1, batches.size());
+    assertEquals(events, batches.get(0));
+    assertEquals(0, singles.size());
+  }
+
+  public void test_fireBatch_plainListenerPerEvent() {
+    final List<ChangeEvent> singles = new ArrayList<ChangeEvent>();
+    _changeManager.addChangeListener(new ChangeListener() {
+      @Override
+      public void entityChanged(ChangeEvent event) {
+        singles.add(event);
+      }
+    });
+    final List<ChangeEvent> events = Arrays.asList(
+        new ChangeEvent(ChangeType.ADDED, null, UID_A_B_1, NOW),
+        new ChangeEvent(ChangeType.UPDATED, UID_A_B_1, UID_A_B_2, NOW));
+    _changeManager.entitiesChanged(events);
+    assertEquals(events, singles);
+  }
+
+  public void test_fireBatch_empty() {
+    _changeManager.addChangeListener(new BatchChangeListener() {
+      @Override
+      public void entityChanged(ChangeEvent event) {
+        throw new AssertionError();
+      }
+      @Override
+      public void entitiesChanged(List<ChangeEvent> events) {
+        throw new AssertionError();
+      }
+    });
+    _changeManager.entitiesChanged(new ArrayList<ChangeEvent>());
+  }
+
+  public void test_aggregating_forwardsBatch() {
+    final AggregatingChangeManager aggregating = new AggregatingChangeManager();
+    aggregating.addChangeManager(_changeManager);
+    final List<List<ChangeEvent>> batches = new ArrayList<List<ChangeEvent>>();
+    aggregating.addChangeListener(new BatchChangeListener() {
+      @Override
+      public void entityChanged(ChangeEvent event) {
+        throw new AssertionError();
+      }
+      @Override
+      public void entitiesChanged(List<ChangeEvent> events) {
+        batches.add(events);
+      }
+    });
+    final List<ChangeEvent> events = Arrays.asList(
+        new ChangeEvent(ChangeType.REMOVED, UID_A_B_1, null, NOW),
+        new ChangeEvent(ChangeType.REMOVED, UID_A_B_2, null, NOW));
+    _changeManager.entitiesChanged(events);
+    assertEquals(1, batches.size());
+    assertEquals(events, batches.get(0));
+  }
+
 }
@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.core.change;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Arrays;
+
+import javax.time.Instant;
+
+import org.fudgemsg.FudgeContext;
+import org.fudgemsg.FudgeMsgEnvelope;
+import org.testng.annotations.Test;
+
+import com.opengamma.id.UniqueId;
+import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
+
+/**
+ * Test ChangeEventBatch Fudge support.
+ */
+@Test
+public class ChangeEventBatchFudgeEncodingTest {
+
+  private static final Instant NOW = Instant.now();
+  private final FudgeContext _fudgeContext = OpenGammaFudgeContext.getInstance();
+
+  public void test_cycle() {
+    final ChangeEventBatch original = new ChangeEventBatch(Arrays.asList(
+        new ChangeEvent(ChangeType.ADDED, null, UniqueId.of("A", "B", "1"), NOW),
+        new ChangeEvent(ChangeType.UPDATED, UniqueId.of("A", "C", "1"), UniqueId.of("A", "C", "2"), NOW),
+        new ChangeEvent(ChangeType.REMOVED, UniqueId.of("A", "D", "1"), null, NOW)));
+    final FudgeMsgEnvelope msgEnvelope = _fudgeContext.toFudgeMsg(original);
+    assertTrue(msgEnvelope.getMessage().hasField(ChangeEventBatchFudgeBuilder.EVENT_FIELD_NAME));
+    final ChangeEventBatch cycled = _fudgeContext.fromFudgeMsg(ChangeEventBatch.class, msgEnvelope.getMessage());
+    assertEquals(original, cycled);
+  }
+
+  public void test_singleEvent_notBatch() {
+    final ChangeEvent event = new ChangeEvent(ChangeType.ADDED, null, UniqueId.of("A", "B", "1"), NOW);
+    final FudgeMsgEnvelope msgEnvelope = _fudgeContext.toFudgeMsg(event);
+    assertTrue(!msgEnvelope.getMessage().hasField(ChangeEventBatchFudgeBuilder.EVENT_FIELD_NAME));
+  }
+
+}
@@ -71,6 +71,7 @@ public final class DependencyGraphBuilder implements Cancelable {
   private final PendingRequirements _pendingRequirements = new PendingRequirements(this);
   private String _calculationConfigurationName;
   private MarketDataAvailabilityProvider _marketDataAvailabilityProvider;
+  private MarketDataResolutionCache _marketDataResolutionCache = new MarketDataResolutionCache();
   private CompiledFunctionResolver _functionResolver;
   private FunctionCompilationContext _compilationContext;
   private FunctionExclusionGroups _functionExclusionGroups;
@@ -101,6 +102,26 @@ public final class DependencyGraphBuilder implements Cancelable {
    */
   private boolean _disableFailureReporting;
 
+  /**
+   * The {@link System#nanoTime} at which the first target was added, guarded by {@link #_buildCompleteLock}.
+   */
+  private long _buildStartTime;
+
+  /**
+   * The {@link System#nanoTime} at which construction last ran out of work, guarded by {@link #_buildCompleteLock}.
+   */
+  private long _buildCompleteTime;
+
+  /**
+   * Whether a target has been added, guarded by {@link #_buildCompleteLock}.
+   */
+  private boolean _buildStarted;
+
+  /**
+   * Whether construction has run out of work since the last target was added, guarded by {@link #_buildCompleteLock}.
+   */
+  private boolean _buildCompleted;
+
   // TODO: We should use an external execution framework rather than the one here; there are far better (and probably more accurate) implementations of
   // the algorithm in other projects I've worked on.
 
@@ -158,6 +179,23 @@ public final class DependencyGraphBuilder implements Cancelable {
     _marketDataAvailabilityProvider = marketDataAvailabilityProvider;
   }
 
+  /**
+   * @return the cache of market data resolutions
+   */
+  public MarketDataResolutionCache getMarketDataResolutionCache() {
+    return _marketDataResolutionCache;
+  }
+
+  /**
+   * Sets the cache of market data resolutions. Builders for different calculation configurations of the same view may share a cache. By default each builder has its own.
+   * 
+   * @param marketDataResolutionCache the cache to use, not null
+   */
+  public void setMarketDataResolutionCache(final MarketDataResolutionCache marketDataResolutionCache) {
+    ArgumentChecker.notNull(marketDataResolutionCache, "marketDataResolutionCache");
+    _marketDataResolutionCache = marketDataResolutionCache;
+  }
+
   /**
    * @return the functionResolver
    */
@@ -329,6 +367,7 @@ public final class DependencyGraphBuilder implements Cancelable {
     checkInjectedInputs();
     // Hold the build complete lock so that housekeeping thread cannot observe a "built" state within this atomic block of work
     synchronized (_buildCompleteLock) {
+      markBuildStarted();
       addTargetImpl(requirement);
     }
     // If the run-queue was empty, we won't have started a thread, so double check 
@@ -346,6 +385,9 @@ public final class DependencyGraphBuilder implements Cancelable {
     checkInjectedInputs();
     // Hold the build complete lock so that housekeeping thread cannot observe a "built" state within this atomic block of work
     synchronized (_buildCompleteLock) {
+      if (!requirements.isEmpty()) {
+        markBuildStarted();
+      }
       for (ValueRequirement requirement : requirements) {
         addTargetImpl(requirement);
       }
@@ -354,6 +396,17 @@ public final class DependencyGraphBuilder implements Cancelable {
     startBackgroundConstructionJob();
   }
 
+  /**
+   * Notes the start of construction when the first target is added, and that construction is no longer complete. The caller must hold {@link #_buildCompleteLock}.
+   */
+  private void markBuildStarted() {
+    if (!_buildStarted) {
+      _buildStarted = true;
+      _buildStartTime = System.nanoTime();
+    }
+    _buildCompleted = false;
+  }
+
   protected void addToRunQueue(final ContextRunnable runnable) {
     final boolean dontSpawn = _runQueue.isEmpty();
     _scheduledSteps.incrementAndGet();
@@ -474,6 +527,10 @@ public final class DependencyGraphBuilder implements Cancelable {
           abortLoops();
           // If any loops were aborted, new jobs will go onto the run queue, possibly a new active job
           // started. We are officially "dead"; another worker thread may become active
+          if (_runQueue.isEmpty()) {
+            _buildCompleteTime = System.nanoTime();
+            _buildCompleted = true;
+          }
         }
       }
       s_logger.debug("Building job {} stopped after {} operations", _objectId, completed);
@@ -524,6 +581,21 @@ public final class DependencyGraphBuilder implements Cancelable {
     }
   }
 
+  /**
+   * Returns the time taken to build the graph, from the first target being added until construction last ran out of work. This is measured by the builder so
+   * is the same whether the graph was built by background threads or by a caller blocked in {@link #getDependencyGraph}.
+   * 
+   * @return the build time in nanoseconds, or -1 if no targets have been added or construction is still in progress
+   */
+  public long getBuildTime() {
+    synchronized (_buildCompleteLock) {
+      if (!_buildStarted || !_buildCompleted) {
+        return -1;
+      }
+      return _buildCompleteTime - _buildStartTime;
+    }
+  }
+
   /**
    * Returns the top-level value requirements currently being resolved.
    * 
@@ -5,46 +5,43 @@
  */
 package com.opengamma.engine.depgraph;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
-
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.util.ArgumentChecker;
 
 /**
- * Default engine-side implementation of {@link DependencyGraphExplorer}
+ * Default engine-side implementation of {@link DependencyGraphExplorer}. Subgraphs are found using a
+ * {@link DependencyGraphIndex} of the graph.
  */
 public class DependencyGraphExplorerImpl implements DependencyGraphExplorer {
 
-  private final DependencyGraph _graph;
+  private final DependencyGraphIndex _index;
   
   public DependencyGraphExplorerImpl(DependencyGraph graph) {
-    ArgumentChecker.notNull(graph, "graph");
-    _graph = graph;
+    this(new DependencyGraphIndex(graph));
+  }
+
+  public DependencyGraphExplorerImpl(DependencyGraphIndex index) {
+    ArgumentChecker.notNull(index, "index");
+    _index = index;
   }
   
   @Override
   public DependencyGraph getWholeGraph() {
-    return _graph;
+    return _index.getGraph();
   }
   
   @Override
   public DependencyGraph getSubgraphProducing(ValueSpecification output) {
-    DependencyNode terminalNode = _graph.getNodeProducing(output);
-    if (terminalNode == null) {
-      return null;
-    }
-    Set<DependencyNode> subgraphNodes = new HashSet<DependencyNode>();
-    addInputNodes(terminalNode, subgraphNodes);
-    return _graph.subGraph(subgraphNodes);
+    return _index.getSubgraphProducing(output);
   }
-  
-  private void addInputNodes(DependencyNode node, Collection<DependencyNode> nodes) {
-    nodes.add(node);
-    for (DependencyNode inputNode : node.getInputNodes()) {
-      addInputNodes(inputNode, nodes);
-    }
+
+  /**
+   * Gets the index of the graph, for callers wanting to explore it without creating subgraphs.
+   * 
+   * @return the index, not null
+   */
+  public DependencyGraphIndex getIndex() {
+    return _index;
   }
   
 }
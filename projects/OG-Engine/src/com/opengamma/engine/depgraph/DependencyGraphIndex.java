@@ -0,0 +1,237 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.depgraph;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Index of a compiled dependency graph for exploring the values which an output depends on.
+ * <p>
+ * Each node is numbered and its inputs are held as arrays of node numbers. The ancestors of an output can then be
+ * found without walking the input sets of the nodes themselves. The ancestors of each output that is asked for are
+ * remembered in the same compact form, so a value can be opened many times for little more than the first cost.
+ * <p>
+ * The graph must not be modified after the index has been created. This is the case for the graphs held by a compiled
+ * view definition, so a single index can be shared by everything looking at the same compilation.
+ */
+public final class DependencyGraphIndex {
+
+  private final DependencyGraph _graph;
+  private final DependencyNode[] _nodes;
+  private final Map<DependencyNode, Integer> _nodeNumbers;
+  private final int[][] _inputs;
+  private final ConcurrentMap<ValueSpecification, int[]> _ancestors = new ConcurrentHashMap<ValueSpecification, int[]>();
+
+  /**
+   * Creates an index of a graph.
+   *
+   * @param graph  the graph, not null
+   */
+  public DependencyGraphIndex(final DependencyGraph graph) {
+    ArgumentChecker.notNull(graph, "graph");
+    _graph = graph;
+    final Collection<DependencyNode> nodes = graph.getDependencyNodes();
+    _nodes = nodes.toArray(new DependencyNode[nodes.size()]);
+    _nodeNumbers = new HashMap<DependencyNode, Integer>(_nodes.length * 4 / 3 + 1);
+    for (int i = 0; i < _nodes.length; i++) {
+      _nodeNumbers.put(_nodes[i], i);
+    }
+    _inputs = new int[_nodes.length][];
+    for (int i = 0; i < _nodes.length; i++) {
+      final Collection<DependencyNode> inputNodes = _nodes[i].getInputNodes();
+      final int[] inputs = new int[inputNodes.size()];
+      int count = 0;
+      for (DependencyNode inputNode : inputNodes) {
+        final Integer inputNumber = _nodeNumbers.get(inputNode);
+        if (inputNumber != null) {
+          inputs[count++] = inputNumber;
+        }
+      }
+      _inputs[i] = (count == inputs.length) ? inputs : copyOf(inputs, count);
+    }
+  }
+
+  private static int[] copyOf(final int[] array, final int length) {
+    final int[] copy = new int[length];
+    System.arraycopy(array, 0, copy, 0, length);
+    return copy;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the indexed graph.
+   *
+   * @return the graph, not null
+   */
+  public DependencyGraph getGraph() {
+    return _graph;
+  }
+
+  /**
+   * Gets the number of nodes in the graph.
+   *
+   * @return the number of nodes
+   */
+  public int getNodeCount() {
+    return _nodes.length;
+  }
+
+  /**
+   * Gets a node by number.
+   *
+   * @param nodeNumber  the node number, from zero to one less than the node count
+   * @return the node, not null
+   */
+  public DependencyNode getNode(final int nodeNumber) {
+    return _nodes[nodeNumber];
+  }
+
+  /**
+   * Gets the number of the node producing a value.
+   *
+   * @param output  the value, not null
+   * @return the node number, or -1 if the value is not produced by the graph
+   */
+  public int getNodeNumber(final ValueSpecification output) {
+    final DependencyNode node = _graph.getNodeProducing(output);
+    if (node == null) {
+      return -1;
+    }
+    final Integer nodeNumber = _nodeNumbers.get(node);
+    return (nodeNumber != null) ? nodeNumber : -1;
+  }
+
+  /**
+   * Gets the numbers of the nodes a node takes its inputs from.
+   *
+   * @param nodeNumber  the node number, from zero to one less than the node count
+   * @return the input node numbers, not null
+   */
+  public int[] getInputs(final int nodeNumber) {
+    return _inputs[nodeNumber].clone();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the numbers of the nodes which an output depends on, including the node producing it.
+   *
+   * @param output  the output, not null
+   * @return the node numbers in ascending order, or null if the output is not produced by the graph
+   */
+  public int[] getAncestors(final ValueSpecification output) {
+    ArgumentChecker.notNull(output, "output");
+    int[] ancestors = _ancestors.get(output);
+    if (ancestors == null) {
+      final int root = getNodeNumber(output);
+      if (root < 0) {
+        return null;
+      }
+      ancestors = findAncestors(root, Integer.MAX_VALUE);
+      final int[] existing = _ancestors.putIfAbsent(output, ancestors);
+      if (existing != null) {
+        ancestors = existing;
+      }
+    }
+    return ancestors.clone();
+  }
+
+  /**
+   * Gets the numbers of the nodes which an output depends on, no more than a given number of steps away from the node
+   * producing it. This allows a deep graph to be expanded a few levels at a time.
+   *
+   * @param output  the output, not null
+   * @param maxDepth  the number of steps to follow, zero for just the producing node
+   * @return the node numbers in ascending order, or null if the output is not produced by the graph
+   */
+  public int[] getAncestors(final ValueSpecification output, final int maxDepth) {
+    ArgumentChecker.notNull(output, "output");
+    ArgumentChecker.notNegative(maxDepth, "maxDepth");
+    final int root = getNodeNumber(output);
+    if (root < 0) {
+      return null;
+    }
+    return findAncestors(root, maxDepth);
+  }
+
+  private int[] findAncestors(final int root, final int maxDepth) {
+    final BitSet visited = new BitSet(_nodes.length);
+    visited.set(root);
+    int[] current = new int[] {root };
+    int currentCount = 1;
+    for (int depth = 0; (depth < maxDepth) && (currentCount > 0); depth++) {
+      int[] next = new int[Math.max(16, currentCount)];
+      int nextCount = 0;
+      for (int i = 0; i < currentCount; i++) {
+        for (int input : _inputs[current[i]]) {
+          if (!visited.get(input)) {
+            visited.set(input);
+            if (nextCount == next.length) {
+              next = copyOf(next, next.length * 2);
+            }
+            next[nextCount++] = input;
+          }
+        }
+      }
+      current = next;
+      currentCount = nextCount;
+    }
+    final int[] ancestors = new int[visited.cardinality()];
+    int count = 0;
+    for (int i = visited.nextSetBit(0); i >= 0; i = visited.nextSetBit(i + 1)) {
+      ancestors[count++] = i;
+    }
+    return ancestors;
+  }
+
+  /**
+   * Gets the nodes which an output depends on, including the node producing it.
+   *
+   * @param output  the output, not null
+   * @return the nodes, or null if the output is not produced by the graph
+   */
+  public List<DependencyNode> getAncestorNodes(final ValueSpecification output) {
+    final int[] ancestors = getAncestors(output);
+    if (ancestors == null) {
+      return null;
+    }
+    final List<DependencyNode> nodes = new ArrayList<DependencyNode>(ancestors.length);
+    for (int ancestor : ancestors) {
+      nodes.add(_nodes[ancestor]);
+    }
+    return Collections.unmodifiableList(nodes);
+  }
+
+  /**
+   * Creates the subgraph producing an output.
+   *
+   * @param output  the output, not null
+   * @return the subgraph, or null if the output is not produced by the graph
+   */
+  public DependencyGraph getSubgraphProducing(final ValueSpecification output) {
+    final List<DependencyNode> nodes = getAncestorNodes(output);
+    if (nodes == null) {
+      return null;
+    }
+    return _graph.subGraph(nodes);
+  }
+
+  @Override
+  public String toString() {
+    return "DependencyGraphIndex[calcConf=" + _graph.getCalculationConfigurationName() + ",size=" + _nodes.length + "]";
+  }
+
+}
@@ -6,15 +6,12 @@
 package com.opengamma.engine.depgraph;
 
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Iterator;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.opengamma.engine.ComputationTarget;
-import com.opengamma.engine.MemoryUtils;
-import com.opengamma.engine.function.MarketDataSourcingFunction;
 import com.opengamma.engine.function.ParameterizedFunction;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.util.tuple.Triple;
@@ -32,9 +29,8 @@ import com.opengamma.util.tuple.Triple;
     switch (context.getMarketDataAvailabilityProvider().getAvailability(getValueRequirement())) {
       case AVAILABLE:
         s_logger.info("Found live data for {}", getValueRequirement());
-        final MarketDataSourcingFunction function = new MarketDataSourcingFunction(getValueRequirement());
-        final ResolvedValue result = createResult(function.getResult(), new ParameterizedFunction(function, function.getDefaultParameters()), Collections.<ValueSpecification>emptySet(), Collections
-            .singleton(MemoryUtils.instance(function.getResult())));
+        // The resolution doesn't depend on the calculation configuration so may have been made by another builder
+        final ResolvedValue result = context.getMarketDataResolutionCache().resolve(getValueRequirement());
         context.declareProduction(result);
         if (!pushResult(context, result, true)) {
           throw new IllegalStateException(result + " rejected by pushResult");
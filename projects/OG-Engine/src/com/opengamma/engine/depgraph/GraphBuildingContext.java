@@ -51,6 +51,10 @@ import com.opengamma.util.tuple.Pair;
     return getBuilder().getMarketDataAvailabilityProvider();
   }
 
+  public MarketDataResolutionCache getMarketDataResolutionCache() {
+    return getBuilder().getMarketDataResolutionCache();
+  }
+
   public CompiledFunctionResolver getFunctionResolver() {
     return getBuilder().getFunctionResolver();
   }
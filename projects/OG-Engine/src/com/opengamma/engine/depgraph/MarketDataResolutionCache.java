@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.depgraph;
+
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.opengamma.engine.MemoryUtils;
+import com.opengamma.engine.function.MarketDataSourcingFunction;
+import com.opengamma.engine.function.ParameterizedFunction;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.engine.value.ValueSpecification;
+
+/**
+ * Remembers how requirements satisfied directly by market data were resolved.
+ * <p>
+ * A requirement that is available as market data is resolved to a {@link MarketDataSourcingFunction} without reference to the function
+ * repository, resolution rules or calculation configuration. A single cache can therefore be shared by the builders of every calculation
+ * configuration in a view so that each market data requirement is resolved once however many configurations use it.
+ */
+public final class MarketDataResolutionCache {
+
+  private final ConcurrentMap<ValueRequirement, ResolvedValue> _resolved = new ConcurrentHashMap<ValueRequirement, ResolvedValue>();
+  private final AtomicLong _hits = new AtomicLong();
+  private final AtomicLong _misses = new AtomicLong();
+
+  /**
+   * Returns the resolution of a requirement which is available as market data, creating it on first use.
+   *
+   * @param requirement the requirement, not null and known to be available
+   * @return the resolved value, not null
+   */
+  /* package */ResolvedValue resolve(final ValueRequirement requirement) {
+    ResolvedValue resolved = _resolved.get(requirement);
+    if (resolved != null) {
+      _hits.incrementAndGet();
+      return resolved;
+    }
+    _misses.incrementAndGet();
+    final MarketDataSourcingFunction function = new MarketDataSourcingFunction(requirement);
+    resolved = new ResolvedValue(function.getResult(), new ParameterizedFunction(function, function.getDefaultParameters()), Collections.<ValueSpecification>emptySet(),
+        Collections.singleton(MemoryUtils.instance(function.getResult())));
+    final ResolvedValue existing = _resolved.putIfAbsent(requirement, resolved);
+    return (existing != null) ? existing : resolved;
+  }
+
+  /**
+   * Returns the number of resolutions that were found in the cache.
+   *
+   * @return the hit count
+   */
+  public long getHitCount() {
+    return _hits.get();
+  }
+
+  /**
+   * Returns the number of resolutions that had to be created.
+   *
+   * @return the miss count
+   */
+  public long getMissCount() {
+    return _misses.get();
+  }
+
+  /**
+   * Returns the number of requirements held.
+   *
+   * @return the number of resolved requirements
+   */
+  public int size() {
+    return _resolved.size();
+  }
+
+}
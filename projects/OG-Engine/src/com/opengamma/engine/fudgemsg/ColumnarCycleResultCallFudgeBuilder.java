@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.fudgemsg;
+
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.MutableFudgeMsg;
+import org.fudgemsg.mapping.FudgeBuilder;
+import org.fudgemsg.mapping.FudgeBuilderFor;
+import org.fudgemsg.mapping.FudgeDeserializer;
+import org.fudgemsg.mapping.FudgeSerializer;
+
+import com.opengamma.engine.view.listener.ColumnarCycleResultCall;
+
+/**
+ * Fudge message builder for {@link ColumnarCycleResultCall}. The results are already encoded so are carried as they are.
+ */
+@FudgeBuilderFor(ColumnarCycleResultCall.class)
+public class ColumnarCycleResultCallFudgeBuilder implements FudgeBuilder<ColumnarCycleResultCall> {
+
+  private static final String FRAGMENT_FIELD = "fragment";
+  private static final String FULL_RESULT_FIELD = "fullResult";
+  private static final String DELTA_RESULT_FIELD = "deltaResult";
+
+  @Override
+  public MutableFudgeMsg buildMessage(FudgeSerializer serializer, ColumnarCycleResultCall object) {
+    MutableFudgeMsg msg = serializer.newMessage();
+    msg.add(FRAGMENT_FIELD, object.isFragment());
+    if (object.getFullResult() != null) {
+      msg.add(FULL_RESULT_FIELD, object.getFullResult());
+    }
+    if (object.getDeltaResult() != null) {
+      msg.add(DELTA_RESULT_FIELD, object.getDeltaResult());
+    }
+    return msg;
+  }
+
+  @Override
+  public ColumnarCycleResultCall buildObject(FudgeDeserializer deserializer, FudgeMsg msg) {
+    boolean fragment = msg.getBoolean(FRAGMENT_FIELD);
+    FudgeMsg fullResult = msg.getMessage(FULL_RESULT_FIELD);
+    FudgeMsg deltaResult = msg.getMessage(DELTA_RESULT_FIELD);
+    return new ColumnarCycleResultCall(fragment, fullResult, deltaResult);
+  }
+
+}
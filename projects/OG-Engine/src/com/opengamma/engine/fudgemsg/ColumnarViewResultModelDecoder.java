@@ -0,0 +1,187 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.fudgemsg;
+
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_CALCULATION_DURATION;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_CALCULATION_TIME;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_CALC_CONFIG;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_COMPUTED_VALUE;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_DICTIONARY;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_DICTIONARY_START;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_DOUBLE_SPECS;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_DOUBLE_VALUES;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_LIVEDATA;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_OBJECT_SPECS;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_OBJECT_VALUE;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_PREVIOUSTS;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_REQUIREMENT;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_RESET;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_RESULTS;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_SPECIFICATION;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_SPECIFICATION_MAPPING;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_TYPE;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_VALUATION_TIME;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_VERSION_CORRECTION;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_VIEWCYCLEID;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.FIELD_VIEWPROCESSID;
+import static com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder.TYPE_FULL;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import javax.time.Duration;
+import javax.time.Instant;
+
+import org.fudgemsg.FudgeField;
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.mapping.FudgeDeserializer;
+
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.InMemoryViewComputationResultModel;
+import com.opengamma.engine.view.InMemoryViewDeltaResultModel;
+import com.opengamma.engine.view.InMemoryViewResultModel;
+import com.opengamma.engine.view.ViewResultModel;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Decodes the messages produced by a {@link ColumnarViewResultModelEncoder}. The messages must be decoded in the order
+ * they were encoded as each one may extend the specification dictionary used by those that follow.
+ * <p>
+ * If a message is lost the decoder can no longer interpret the stream. It rejects messages until the encoder is
+ * {@link ColumnarViewResultModelEncoder#reset() reset}, which the publisher does when a send fails, and resumes from
+ * the first message carrying the reset flag.
+ */
+public class ColumnarViewResultModelDecoder {
+
+  private final List<ValueSpecification> _dictionary = new ArrayList<ValueSpecification>();
+  private boolean _awaitingReset;
+
+  /**
+   * Decodes a full or delta result model. The result is a {@link InMemoryViewComputationResultModel} or
+   * {@link InMemoryViewDeltaResultModel} depending on the type of model encoded.
+   *
+   * @param deserializer  the Fudge deserializer, not null
+   * @param message  the encoded message, not null
+   * @return the result model, not null
+   * @throws OpenGammaRuntimeException if the message can't be decoded because the stream is out of sequence
+   */
+  public synchronized ViewResultModel decode(final FudgeDeserializer deserializer, final FudgeMsg message) {
+    ArgumentChecker.notNull(deserializer, "deserializer");
+    ArgumentChecker.notNull(message, "message");
+    if (message.hasField(FIELD_RESET)) {
+      _dictionary.clear();
+      _awaitingReset = false;
+    } else if (_awaitingReset) {
+      throw new OpenGammaRuntimeException("Result stream out of sequence - waiting for the dictionary to be reset");
+    }
+    try {
+      return decodeImpl(deserializer, message);
+    } catch (RuntimeException e) {
+      // The dictionary may be incomplete so nothing that follows can be trusted until the encoder starts again
+      _awaitingReset = true;
+      throw e;
+    }
+  }
+
+  /**
+   * Indicates whether the decoder has lost its place in the stream and is rejecting messages until the next reset.
+   *
+   * @return true if waiting for a reset
+   */
+  public synchronized boolean isAwaitingReset() {
+    return _awaitingReset;
+  }
+
+  private ViewResultModel decodeImpl(final FudgeDeserializer deserializer, final FudgeMsg message) {
+    final FudgeField dictionaryField = message.getByName(FIELD_DICTIONARY);
+    if (dictionaryField != null) {
+      final int dictionaryStart = message.getInt(FIELD_DICTIONARY_START);
+      if (dictionaryStart != _dictionary.size()) {
+        throw new OpenGammaRuntimeException("Result stream out of sequence - dictionary extends from " + dictionaryStart + " but " + _dictionary.size() + " entries have been received");
+      }
+      for (FudgeField specificationField : (FudgeMsg) dictionaryField.getValue()) {
+        _dictionary.add(deserializer.fieldValueToObject(ValueSpecification.class, specificationField));
+      }
+    }
+    final InMemoryViewResultModel resultModel;
+    final boolean full = TYPE_FULL.equals(message.getString(FIELD_TYPE));
+    if (full) {
+      final InMemoryViewComputationResultModel fullModel = new InMemoryViewComputationResultModel();
+      for (ComputedValue marketData : decodeValues(deserializer, message.getMessage(FIELD_LIVEDATA))) {
+        fullModel.addMarketData(marketData);
+      }
+      for (FudgeField specMappingField : message.getAllByName(FIELD_SPECIFICATION_MAPPING)) {
+        final FudgeMsg mappingMsg = (FudgeMsg) specMappingField.getValue();
+        final Set<ValueRequirement> requirements = new HashSet<ValueRequirement>();
+        for (FudgeField requirementField : mappingMsg.getAllByName(FIELD_REQUIREMENT)) {
+          requirements.add(deserializer.fieldValueToObject(ValueRequirement.class, requirementField));
+        }
+        fullModel.addRequirements(requirements, getSpecification(mappingMsg.getInt(FIELD_SPECIFICATION)));
+      }
+      resultModel = fullModel;
+    } else {
+      final InMemoryViewDeltaResultModel deltaModel = new InMemoryViewDeltaResultModel();
+      deltaModel.setPreviousCalculationTime(message.getFieldValue(Instant.class, message.getByName(FIELD_PREVIOUSTS)));
+      resultModel = deltaModel;
+    }
+    for (FudgeField resultsField : message.getAllByName(FIELD_RESULTS)) {
+      final FudgeMsg block = (FudgeMsg) resultsField.getValue();
+      final String calcConfigName = block.getString(FIELD_CALC_CONFIG);
+      for (ComputedValue value : decodeValues(deserializer, block)) {
+        resultModel.addValue(calcConfigName, value);
+      }
+    }
+    resultModel.setViewProcessId(message.getValue(UniqueId.class, FIELD_VIEWPROCESSID));
+    resultModel.setViewCycleId(message.getValue(UniqueId.class, FIELD_VIEWCYCLEID));
+    resultModel.setValuationTime(message.getFieldValue(Instant.class, message.getByName(FIELD_VALUATION_TIME)));
+    resultModel.setCalculationTime(message.getFieldValue(Instant.class, message.getByName(FIELD_CALCULATION_TIME)));
+    final FudgeField durationField = message.getByName(FIELD_CALCULATION_DURATION);
+    resultModel.setCalculationDuration(durationField != null ? deserializer.fieldValueToObject(Duration.class, durationField) : null);
+    final FudgeField versionCorrectionField = message.getByName(FIELD_VERSION_CORRECTION);
+    resultModel.setVersionCorrection(versionCorrectionField != null ? deserializer.fieldValueToObject(VersionCorrection.class, versionCorrectionField) : null);
+    return resultModel;
+  }
+
+  private List<ComputedValue> decodeValues(final FudgeDeserializer deserializer, final FudgeMsg block) {
+    final List<ComputedValue> values = new ArrayList<ComputedValue>();
+    final FudgeField doubleSpecsField = block.getByName(FIELD_DOUBLE_SPECS);
+    if (doubleSpecsField != null) {
+      final int[] doubleSpecs = (int[]) doubleSpecsField.getValue();
+      final double[] doubleValues = (double[]) block.getByName(FIELD_DOUBLE_VALUES).getValue();
+      for (int i = 0; i < doubleSpecs.length; i++) {
+        values.add(new ComputedValue(getSpecification(doubleSpecs[i]), doubleValues[i]));
+      }
+    }
+    final FudgeField objectSpecsField = block.getByName(FIELD_OBJECT_SPECS);
+    if (objectSpecsField != null) {
+      final int[] objectSpecs = (int[]) objectSpecsField.getValue();
+      final Iterator<FudgeField> objectValues = block.getAllByName(FIELD_OBJECT_VALUE).iterator();
+      for (int i = 0; i < objectSpecs.length; i++) {
+        values.add(new ComputedValue(getSpecification(objectSpecs[i]), deserializer.fieldValueToObject(objectValues.next())));
+      }
+    }
+    for (FudgeField computedValueField : block.getAllByName(FIELD_COMPUTED_VALUE)) {
+      values.add(deserializer.fieldValueToObject(ComputedValue.class, computedValueField));
+    }
+    return values;
+  }
+
+  private ValueSpecification getSpecification(final int index) {
+    if (index >= _dictionary.size()) {
+      throw new OpenGammaRuntimeException("Specification " + index + " not in dictionary of " + _dictionary.size() + " entries");
+    }
+    return _dictionary.get(index);
+  }
+
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.fudgemsg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.fudgemsg.MutableFudgeMsg;
+import org.fudgemsg.mapping.FudgeSerializer;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.ViewCalculationResultModel;
+import com.opengamma.engine.view.ViewComputationResultModel;
+import com.opengamma.engine.view.ViewDeltaResultModel;
+import com.opengamma.engine.view.ViewResultModel;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Encodes a stream of result models in a columnar form, as an alternative to {@link ViewComputationResultModelFudgeBuilder}
+ * and {@link ViewDeltaResultModelFudgeBuilder} for sending large results to remote clients.
+ * <p>
+ * Each value specification is assigned an index the first time it is encoded and the specification is only sent in that
+ * message. Subsequent results refer to it by index, so a stream of results from the same compiled view carries the
+ * specifications once. Values which are plain doubles are written as parallel arrays of indices and primitive values;
+ * all other values are written as Fudge fields, and values carrying invocation metadata are written as complete
+ * {@link ComputedValue} messages.
+ * <p>
+ * The encoder is stateful and the messages must be decoded in order by a single {@link ColumnarViewResultModelDecoder}.
+ * Call {@link #reset()} whenever the view is recompiled, or the receiving decoder is replaced, to start a new dictionary.
+ */
+public class ColumnarViewResultModelEncoder {
+
+  /* package */ static final String FIELD_TYPE = "type";
+  /* package */ static final String TYPE_FULL = "full";
+  /* package */ static final String TYPE_DELTA = "delta";
+  /* package */ static final String FIELD_RESET = "reset";
+  /* package */ static final String FIELD_DICTIONARY_START = "dictionaryStart";
+  /* package */ static final String FIELD_DICTIONARY = "dictionary";
+  /* package */ static final String FIELD_VIEWPROCESSID = "viewProcessId";
+  /* package */ static final String FIELD_VIEWCYCLEID = "viewCycleId";
+  /* package */ static final String FIELD_VALUATION_TIME = "valuationTime";
+  /* package */ static final String FIELD_CALCULATION_TIME = "calculationTime";
+  /* package */ static final String FIELD_CALCULATION_DURATION = "calculationDuration";
+  /* package */ static final String FIELD_VERSION_CORRECTION = "versionCorrection";
+  /* package */ static final String FIELD_PREVIOUSTS = "previousTS";
+  /* package */ static final String FIELD_RESULTS = "results";
+  /* package */ static final String FIELD_LIVEDATA = "liveData";
+  /* package */ static final String FIELD_SPECIFICATION_MAPPING = "specMapping";
+  /* package */ static final String FIELD_SPECIFICATION = "specification";
+  /* package */ static final String FIELD_REQUIREMENT = "requirement";
+  /* package */ static final String FIELD_CALC_CONFIG = "calcConfig";
+  /* package */ static final String FIELD_DOUBLE_SPECS = "doubleSpecs";
+  /* package */ static final String FIELD_DOUBLE_VALUES = "doubleValues";
+  /* package */ static final String FIELD_OBJECT_SPECS = "objectSpecs";
+  /* package */ static final String FIELD_OBJECT_VALUE = "objectValue";
+  /* package */ static final String FIELD_COMPUTED_VALUE = "computedValue";
+
+  private final Map<ValueSpecification, Integer> _dictionary = new HashMap<ValueSpecification, Integer>();
+  private boolean _reset = true;
+
+  /**
+   * Discards the specification dictionary. The next message encoded will instruct the decoder to do the same.
+   */
+  public synchronized void reset() {
+    _dictionary.clear();
+    _reset = true;
+  }
+
+  /**
+   * Encodes a full or delta result model.
+   *
+   * @param serializer  the Fudge serializer, not null
+   * @param resultModel  the result model, not null
+   * @return the encoded message, not null
+   */
+  public synchronized MutableFudgeMsg encode(final FudgeSerializer serializer, final ViewResultModel resultModel) {
+    ArgumentChecker.notNull(serializer, "serializer");
+    ArgumentChecker.notNull(resultModel, "resultModel");
+    try {
+      return encodeImpl(serializer, resultModel);
+    } catch (RuntimeException e) {
+      // The dictionary may contain entries the decoder will never see
+      reset();
+      throw e;
+    }
+  }
+
+  private MutableFudgeMsg encodeImpl(final FudgeSerializer serializer, final ViewResultModel resultModel) {
+    final int dictionaryStart = _dictionary.size();
+    final List<ValueSpecification> newSpecifications = new ArrayList<ValueSpecification>();
+    final MutableFudgeMsg message = serializer.newMessage();
+    if (_reset) {
+      message.add(FIELD_RESET, Boolean.TRUE);
+      _reset = false;
+    }
+    message.add(FIELD_VIEWPROCESSID, resultModel.getViewProcessId());
+    message.add(FIELD_VIEWCYCLEID, resultModel.getViewCycleId());
+    message.add(FIELD_VALUATION_TIME, resultModel.getValuationTime());
+    message.add(FIELD_CALCULATION_TIME, resultModel.getCalculationTime());
+    serializer.addToMessage(message, FIELD_CALCULATION_DURATION, null, resultModel.getCalculationDuration());
+    serializer.addToMessage(message, FIELD_VERSION_CORRECTION, null, resultModel.getVersionCorrection());
+    for (String calcConfigName : resultModel.getCalculationConfigurationNames()) {
+      final ViewCalculationResultModel calcResults = resultModel.getCalculationResult(calcConfigName);
+      final List<ComputedValue> values = new ArrayList<ComputedValue>();
+      for (ComputationTargetSpecification target : calcResults.getAllTargets()) {
+        values.addAll(calcResults.getAllValues(target));
+      }
+      final MutableFudgeMsg block = encodeValues(serializer, values, newSpecifications);
+      block.add(FIELD_CALC_CONFIG, calcConfigName);
+      message.add(FIELD_RESULTS, block);
+    }
+    if (resultModel instanceof ViewComputationResultModel) {
+      final ViewComputationResultModel fullModel = (ViewComputationResultModel) resultModel;
+      message.add(FIELD_TYPE, TYPE_FULL);
+      message.add(FIELD_LIVEDATA, encodeValues(serializer, fullModel.getAllMarketData(), newSpecifications));
+      for (Map.Entry<ValueSpecification, Set<ValueRequirement>> specMappingEntry : fullModel.getRequirementToSpecificationMapping().entrySet()) {
+        final MutableFudgeMsg mappingMsg = serializer.newMessage();
+        mappingMsg.add(FIELD_SPECIFICATION, getIndex(specMappingEntry.getKey(), newSpecifications));
+        for (ValueRequirement requirement : specMappingEntry.getValue()) {
+          serializer.addToMessage(mappingMsg, FIELD_REQUIREMENT, null, requirement);
+        }
+        message.add(FIELD_SPECIFICATION_MAPPING, mappingMsg);
+      }
+    } else {
+      message.add(FIELD_TYPE, TYPE_DELTA);
+      message.add(FIELD_PREVIOUSTS, ((ViewDeltaResultModel) resultModel).getPreviousResultTimestamp());
+    }
+    if (!newSpecifications.isEmpty()) {
+      final MutableFudgeMsg dictionaryMsg = serializer.newMessage();
+      for (ValueSpecification specification : newSpecifications) {
+        serializer.addToMessage(dictionaryMsg, null, null, specification);
+      }
+      message.add(FIELD_DICTIONARY_START, dictionaryStart);
+      message.add(FIELD_DICTIONARY, dictionaryMsg);
+    }
+    return message;
+  }
+
+  private MutableFudgeMsg encodeValues(final FudgeSerializer serializer, final Collection<ComputedValue> values, final List<ValueSpecification> newSpecifications) {
+    final MutableFudgeMsg block = serializer.newMessage();
+    final int[] doubleSpecs = new int[values.size()];
+    final double[] doubleValues = new double[values.size()];
+    final int[] objectSpecs = new int[values.size()];
+    int doubles = 0;
+    int objects = 0;
+    for (ComputedValue value : values) {
+      if (!isValueOnly(value)) {
+        serializer.addToMessage(block, FIELD_COMPUTED_VALUE, null, value);
+      } else if (value.getValue() instanceof Double) {
+        doubleSpecs[doubles] = getIndex(value.getSpecification(), newSpecifications);
+        doubleValues[doubles++] = (Double) value.getValue();
+      } else {
+        objectSpecs[objects++] = getIndex(value.getSpecification(), newSpecifications);
+        serializer.addToMessageWithClassHeaders(block, FIELD_OBJECT_VALUE, null, value.getValue());
+      }
+    }
+    if (doubles > 0) {
+      block.add(FIELD_DOUBLE_SPECS, Arrays.copyOf(doubleSpecs, doubles));
+      block.add(FIELD_DOUBLE_VALUES, Arrays.copyOf(doubleValues, doubles));
+    }
+    if (objects > 0) {
+      block.add(FIELD_OBJECT_SPECS, Arrays.copyOf(objectSpecs, objects));
+    }
+    return block;
+  }
+
+  private static boolean isValueOnly(final ComputedValue value) {
+    return value.getValue() != null && value.getInvocationResult() == null && value.getExceptionClass() == null && value.getExceptionMsg() == null
+        && value.getStackTrace() == null && value.getMissingInputs() == null && value.getRequirements() == null;
+  }
+
+  private int getIndex(final ValueSpecification specification, final List<ValueSpecification> newSpecifications) {
+    Integer index = _dictionary.get(specification);
+    if (index == null) {
+      index = _dictionary.size();
+      _dictionary.put(specification, index);
+      newSpecifications.add(specification);
+    }
+    return index;
+  }
+
+}
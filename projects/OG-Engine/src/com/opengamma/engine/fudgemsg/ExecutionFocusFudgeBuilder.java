@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.fudgemsg;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.fudgemsg.FudgeField;
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.MutableFudgeMsg;
+import org.fudgemsg.mapping.FudgeBuilder;
+import org.fudgemsg.mapping.FudgeBuilderFor;
+import org.fudgemsg.mapping.FudgeDeserializer;
+import org.fudgemsg.mapping.FudgeSerializer;
+
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.execution.ExecutionFocus;
+
+/**
+ * Fudge message builder for {@link ExecutionFocus}
+ */
+@FudgeBuilderFor(ExecutionFocus.class)
+public class ExecutionFocusFudgeBuilder implements FudgeBuilder<ExecutionFocus> {
+
+  private static final String CALC_CONFIG_FIELD = "calcConfig";
+  private static final String NAME_FIELD = "name";
+  private static final String VALUE_FIELD = "value";
+
+  @Override
+  public MutableFudgeMsg buildMessage(FudgeSerializer serializer, ExecutionFocus object) {
+    MutableFudgeMsg msg = serializer.newMessage();
+    for (String calcConfigName : object.getCalculationConfigurationNames()) {
+      MutableFudgeMsg calcConfigMsg = serializer.newMessage();
+      calcConfigMsg.add(NAME_FIELD, calcConfigName);
+      for (ValueSpecification valueSpec : object.getValueSpecifications(calcConfigName)) {
+        serializer.addToMessage(calcConfigMsg, VALUE_FIELD, null, valueSpec);
+      }
+      msg.add(CALC_CONFIG_FIELD, calcConfigMsg);
+    }
+    return msg;
+  }
+
+  @Override
+  public ExecutionFocus buildObject(FudgeDeserializer deserializer, FudgeMsg msg) {
+    Map<String, List<ValueSpecification>> valueSpecs = new HashMap<String, List<ValueSpecification>>();
+    for (FudgeField calcConfigField : msg.getAllByName(CALC_CONFIG_FIELD)) {
+      FudgeMsg calcConfigMsg = (FudgeMsg) calcConfigField.getValue();
+      List<ValueSpecification> calcConfigValueSpecs = new ArrayList<ValueSpecification>();
+      for (FudgeField valueField : calcConfigMsg.getAllByName(VALUE_FIELD)) {
+        calcConfigValueSpecs.add(deserializer.fieldValueToObject(ValueSpecification.class, valueField));
+      }
+      valueSpecs.put(calcConfigMsg.getString(NAME_FIELD), calcConfigValueSpecs);
+    }
+    return ExecutionFocus.of(valueSpecs);
+  }
+
+}
@@ -5,6 +5,8 @@
  */
 package com.opengamma.engine.management;
 
+import java.util.Collection;
+
 import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
 
@@ -12,6 +14,7 @@ import net.sf.ehcache.CacheException;
 
 import com.opengamma.engine.view.ViewProcessInternal;
 import com.opengamma.engine.view.ViewProcessState;
+import com.opengamma.engine.view.listener.ViewResultListenerMailbox;
 import com.opengamma.id.UniqueId;
 import com.opengamma.util.ArgumentChecker;
 
@@ -74,6 +77,32 @@ public class ViewProcess implements ViewProcessMBean {
     return _viewProcess.getState();
   }
 
+  @Override
+  public int getListenerCount() {
+    return _viewProcess.getListenerMailboxes().size();
+  }
+
+  @Override
+  public long getMaxListenerLagMillis() {
+    long maxLag = 0;
+    for (ViewResultListenerMailbox mailbox : _viewProcess.getListenerMailboxes()) {
+      maxLag = Math.max(maxLag, mailbox.getLagMillis());
+    }
+    return maxLag;
+  }
+
+  @Override
+  public String[] getListenerStatistics() {
+    final Collection<ViewResultListenerMailbox> mailboxes = _viewProcess.getListenerMailboxes();
+    final String[] statistics = new String[mailboxes.size()];
+    int i = 0;
+    for (ViewResultListenerMailbox mailbox : mailboxes) {
+      statistics[i++] = mailbox.getUnderlying() + ": queued=" + mailbox.getQueueSize() + ", lagMillis=" + mailbox.getLagMillis() + ", delivered=" + mailbox.getDeliveredCount()
+          + ", merged=" + mailbox.getMergedCount() + ", dropped=" + mailbox.getDroppedCount() + (mailbox.isDisconnected() ? ", disconnected" : "");
+    }
+    return statistics;
+  }
+
   @Override
   public void shutdown() {
     _viewProcess.shutdown();
@@ -42,6 +42,28 @@ public interface ViewProcessMBean {
    */
   ViewProcessState getState();
   
+  /**
+   * Gets the number of listeners attached to the view process.
+   * 
+   * @return the number of listeners
+   */
+  int getListenerCount();
+
+  /**
+   * Gets how long the oldest call waiting to be delivered to any listener has been waiting.
+   * 
+   * @return the greatest listener lag in milliseconds, zero if every listener is up to date
+   */
+  long getMaxListenerLagMillis();
+
+  /**
+   * Gets a description of the delivery state of each attached listener: the number of calls waiting, how long the
+   * oldest has been waiting, and how many calls have been delivered, merged or dropped.
+   * 
+   * @return a line for each listener, not null
+   */
+  String[] getListenerStatistics();
+
   /**
    * Terminates this view process, detaching any clients from it.
    */
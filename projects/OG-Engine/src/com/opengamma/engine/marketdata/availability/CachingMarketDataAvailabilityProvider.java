@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.marketdata.availability;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Remembers the availability of market data reported by an underlying provider.
+ * <p>
+ * The availability of market data depends only on the requirement, so one instance can be shared by the
+ * dependency graph builders of all calculation configurations in a view compilation. Each requirement is
+ * then only checked with the underlying provider once, however many configurations use it. An instance
+ * should only be used for the duration of a compilation, as the underlying availability may change.
+ */
+public class CachingMarketDataAvailabilityProvider implements MarketDataAvailabilityProvider {
+
+  private final MarketDataAvailabilityProvider _underlying;
+  private final ConcurrentMap<ValueRequirement, MarketDataAvailability> _availability = new ConcurrentHashMap<ValueRequirement, MarketDataAvailability>();
+
+  /**
+   * Creates an instance.
+   *
+   * @param underlying  the underlying provider, not null
+   */
+  public CachingMarketDataAvailabilityProvider(final MarketDataAvailabilityProvider underlying) {
+    ArgumentChecker.notNull(underlying, "underlying");
+    _underlying = underlying;
+  }
+
+  /**
+   * Gets the underlying provider.
+   *
+   * @return the underlying provider, not null
+   */
+  public MarketDataAvailabilityProvider getUnderlying() {
+    return _underlying;
+  }
+
+  @Override
+  public MarketDataAvailability getAvailability(final ValueRequirement requirement) {
+    MarketDataAvailability availability = _availability.get(requirement);
+    if (availability == null) {
+      availability = getUnderlying().getAvailability(requirement);
+      _availability.putIfAbsent(requirement, availability);
+    }
+    return availability;
+  }
+
+}
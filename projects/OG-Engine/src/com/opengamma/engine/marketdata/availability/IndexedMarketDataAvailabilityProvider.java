@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.marketdata.availability;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.opengamma.DataNotFoundException;
+import com.opengamma.core.change.ChangeEvent;
+import com.opengamma.core.change.ChangeListener;
+import com.opengamma.core.security.SecuritySource;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.UniqueId;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Implements {@link MarketDataAvailabilityProvider} by looking requirements up in a {@link MarketDataAvailabilityIndex}.
+ * <p>
+ * The index is built in bulk, for example from the schemes a live data server can resolve or the contents of a
+ * snapshot, and can be replaced at any time with an incrementally updated copy. A single provider instance is
+ * intended to be shared by all view compilations against the same market data source.
+ * <p>
+ * The external identifiers of security targets are cached so that the security source is queried at most once
+ * for each security rather than once for each requirement. The cache is bounded; identifiers for latest version
+ * requests are also discarded when the security source reports a change to the object. The provider listens to
+ * the security source's change manager until it is {@link #dispose() disposed}.
+ */
+public class IndexedMarketDataAvailabilityProvider implements MarketDataAvailabilityProvider, ChangeListener {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(IndexedMarketDataAvailabilityProvider.class);
+
+  /**
+   * The default maximum number of securities whose identifiers are cached.
+   */
+  public static final int DEFAULT_MAX_CACHED_SECURITIES = 100000;
+
+  /**
+   * The security source to resolve against.
+   */
+  private final SecuritySource _securitySource;
+  /**
+   * The identifiers of securities, keyed by versioned unique identifier, or by object identifier for the latest version.
+   */
+  private final Cache<Object, ExternalIdBundle> _identifiers;
+  /**
+   * The current index.
+   */
+  private volatile MarketDataAvailabilityIndex _index;
+
+  /**
+   * Creates a provider.
+   *
+   * @param securitySource the security source, not null
+   * @param index the initial index, not null
+   */
+  public IndexedMarketDataAvailabilityProvider(final SecuritySource securitySource, final MarketDataAvailabilityIndex index) {
+    this(securitySource, index, DEFAULT_MAX_CACHED_SECURITIES);
+  }
+
+  /**
+   * Creates a provider.
+   *
+   * @param securitySource the security source, not null
+   * @param index the initial index, not null
+   * @param maxCachedSecurities the maximum number of securities whose identifiers are cached, not negative
+   */
+  public IndexedMarketDataAvailabilityProvider(final SecuritySource securitySource, final MarketDataAvailabilityIndex index, final int maxCachedSecurities) {
+    ArgumentChecker.notNull(securitySource, "securitySource");
+    ArgumentChecker.notNull(index, "index");
+    ArgumentChecker.notNegative(maxCachedSecurities, "maxCachedSecurities");
+    _securitySource = securitySource;
+    _index = index;
+    _identifiers = CacheBuilder.newBuilder().maximumSize(maxCachedSecurities).build();
+    securitySource.changeManager().addChangeListener(this);
+  }
+
+  /**
+   * Stops listening to changes from the security source, allowing the provider to be garbage collected.
+   */
+  public void dispose() {
+    _securitySource.changeManager().removeChangeListener(this);
+    _identifiers.invalidateAll();
+  }
+
+  //-------------------------------------------------------------------------
+  public SecuritySource getSecuritySource() {
+    return _securitySource;
+  }
+
+  public MarketDataAvailabilityIndex getIndex() {
+    return _index;
+  }
+
+  /**
+   * Replaces the index. Compilations already in progress may see either the old or new index.
+   *
+   * @param index the new index, not null
+   */
+  public void setIndex(final MarketDataAvailabilityIndex index) {
+    ArgumentChecker.notNull(index, "index");
+    _index = index;
+  }
+
+  //-------------------------------------------------------------------------
+  private static Object getCacheKey(final UniqueId uniqueId) {
+    return uniqueId.isVersioned() ? uniqueId : uniqueId.getObjectId();
+  }
+
+  private ExternalIdBundle getIdentifiers(final UniqueId uniqueId) {
+    final Object key = getCacheKey(uniqueId);
+    ExternalIdBundle identifiers = _identifiers.getIfPresent(key);
+    if (identifiers == null) {
+      try {
+        identifiers = getSecuritySource().getSecurity(uniqueId).getExternalIdBundle();
+      } catch (final DataNotFoundException ex) {
+        identifiers = ExternalIdBundle.EMPTY;
+      }
+      s_logger.debug("Caching identifiers {} for {}", identifiers, uniqueId);
+      _identifiers.put(key, identifiers);
+    }
+    return identifiers;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public MarketDataAvailability getAvailability(final ValueRequirement requirement) {
+    final MarketDataAvailabilityIndex index = _index;
+    // the value name check is cheap and avoids resolving the target for values that are never available
+    if (!index.isAvailableValueName(requirement.getValueName())) {
+      return MarketDataAvailability.NOT_AVAILABLE;
+    }
+    final ComputationTargetSpecification target = requirement.getTargetSpecification();
+    switch (target.getType()) {
+      case PRIMITIVE: {
+        if (target.getIdentifier() == null) {
+          return MarketDataAvailability.NOT_AVAILABLE;
+        }
+        return index.getAvailability(target.getIdentifier(), requirement.getValueName());
+      }
+      case SECURITY:
+        return index.getAvailability(getIdentifiers(target.getUniqueId()), requirement.getValueName());
+      default:
+        return MarketDataAvailability.NOT_AVAILABLE;
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public void entityChanged(final ChangeEvent event) {
+    if (event.getBeforeId() != null) {
+      _identifiers.invalidate(event.getBeforeId().getObjectId());
+    }
+    if (event.getAfterId() != null) {
+      _identifiers.invalidate(event.getAfterId().getObjectId());
+    }
+  }
+
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.marketdata.availability;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.ExternalScheme;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * An immutable index of the market data that is available, keyed by external identifier and value name.
+ * <p>
+ * Market data is available for an identifier if either:
+ * <ul>
+ * <li>the identifier's scheme is one the market data source can resolve and the value name is one it can supply; or
+ * <li>the identifier and value name have been explicitly added, for example from the contents of a snapshot.
+ * </ul>
+ * An index is built in bulk and shared; incremental changes produce a new index leaving the original unchanged.
+ */
+public final class MarketDataAvailabilityIndex {
+
+  /**
+   * An index with no available market data.
+   */
+  public static final MarketDataAvailabilityIndex EMPTY = new MarketDataAvailabilityIndex(Collections.<ExternalScheme>emptySet(), Collections.<String>emptySet(),
+      Collections.<ExternalId, Set<String>>emptyMap());
+
+  private final Set<ExternalScheme> _schemes;
+  private final Set<String> _valueNames;
+  private final Map<ExternalId, Set<String>> _available;
+  private final Set<String> _allValueNames;
+
+  private MarketDataAvailabilityIndex(final Set<ExternalScheme> schemes, final Set<String> valueNames, final Map<ExternalId, Set<String>> available) {
+    _schemes = schemes;
+    _valueNames = valueNames;
+    _available = available;
+    final Set<String> allValueNames = new HashSet<String>(valueNames);
+    for (Set<String> explicit : available.values()) {
+      allValueNames.addAll(explicit);
+    }
+    _allValueNames = allValueNames;
+  }
+
+  /**
+   * Creates an index from the identifier schemes a market data source can resolve and the value names it can supply.
+   *
+   * @param schemes the resolvable schemes, not null
+   * @param valueNames the value names, not null
+   * @return the index, not null
+   */
+  public static MarketDataAvailabilityIndex of(final Collection<ExternalScheme> schemes, final Collection<String> valueNames) {
+    ArgumentChecker.notNull(schemes, "schemes");
+    ArgumentChecker.notNull(valueNames, "valueNames");
+    return new MarketDataAvailabilityIndex(ImmutableSet.copyOf(schemes), ImmutableSet.copyOf(valueNames), Collections.<ExternalId, Set<String>>emptyMap());
+  }
+
+  /**
+   * Creates an index from the explicitly available items, for example the contents of a snapshot.
+   *
+   * @param available the value names available for each identifier, not null
+   * @return the index, not null
+   */
+  public static MarketDataAvailabilityIndex of(final Map<ExternalId, ? extends Collection<String>> available) {
+    return EMPTY.withAvailable(available);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Checks whether a value name is available on any identifier. This is cheaper than any of the
+   * {@code getAvailability} methods, so can be used to rule requirements out before resolving their targets.
+   *
+   * @param valueName the value name, not null
+   * @return true if the value may be available on some identifier, false if it is not available on any
+   */
+  public boolean isAvailableValueName(final String valueName) {
+    return _allValueNames.contains(valueName);
+  }
+
+  /**
+   * Gets the availability of a value on a single identifier.
+   *
+   * @param identifier the identifier, not null
+   * @param valueName the value name, not null
+   * @return the availability, not null
+   */
+  public MarketDataAvailability getAvailability(final ExternalId identifier, final String valueName) {
+    return isAvailable(identifier, valueName) ? MarketDataAvailability.AVAILABLE : MarketDataAvailability.NOT_AVAILABLE;
+  }
+
+  /**
+   * Gets the availability of a value on any identifier from a bundle.
+   *
+   * @param identifiers the identifiers, not null
+   * @param valueName the value name, not null
+   * @return the availability, not null
+   */
+  public MarketDataAvailability getAvailability(final ExternalIdBundle identifiers, final String valueName) {
+    for (ExternalId identifier : identifiers) {
+      if (isAvailable(identifier, valueName)) {
+        return MarketDataAvailability.AVAILABLE;
+      }
+    }
+    return MarketDataAvailability.NOT_AVAILABLE;
+  }
+
+  private boolean isAvailable(final ExternalId identifier, final String valueName) {
+    if (_valueNames.contains(valueName) && _schemes.contains(identifier.getScheme())) {
+      return true;
+    }
+    final Set<String> available = _available.get(identifier);
+    return (available != null) && available.contains(valueName);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns an index that also includes the given explicitly available items.
+   *
+   * @param available the value names available for each identifier, not null
+   * @return the new index, not null
+   */
+  public MarketDataAvailabilityIndex withAvailable(final Map<ExternalId, ? extends Collection<String>> available) {
+    ArgumentChecker.notNull(available, "available");
+    if (available.isEmpty()) {
+      return this;
+    }
+    final Map<ExternalId, Set<String>> copy = new HashMap<ExternalId, Set<String>>(_available);
+    for (Map.Entry<ExternalId, ? extends Collection<String>> entry : available.entrySet()) {
+      final Set<String> existing = copy.get(entry.getKey());
+      if (existing == null) {
+        copy.put(entry.getKey(), ImmutableSet.copyOf(entry.getValue()));
+      } else {
+        copy.put(entry.getKey(), ImmutableSet.<String>builder().addAll(existing).addAll(entry.getValue()).build());
+      }
+    }
+    return new MarketDataAvailabilityIndex(_schemes, _valueNames, Collections.unmodifiableMap(copy));
+  }
+
+  /**
+   * Returns an index that also includes an explicitly available item.
+   *
+   * @param identifier the identifier, not null
+   * @param valueName the value name, not null
+   * @return the new index, not null
+   */
+  public MarketDataAvailabilityIndex withAvailable(final ExternalId identifier, final String valueName) {
+    ArgumentChecker.notNull(identifier, "identifier");
+    ArgumentChecker.notNull(valueName, "valueName");
+    return withAvailable(Collections.singletonMap(identifier, Collections.singleton(valueName)));
+  }
+
+  /**
+   * Returns an index without the explicitly available items for the given identifiers.
+   * Items available because of the identifier's scheme remain available.
+   *
+   * @param identifiers the identifiers to remove, not null
+   * @return the new index, not null
+   */
+  public MarketDataAvailabilityIndex withoutAvailable(final Collection<ExternalId> identifiers) {
+    ArgumentChecker.notNull(identifiers, "identifiers");
+    final Map<ExternalId, Set<String>> copy = new HashMap<ExternalId, Set<String>>(_available);
+    copy.keySet().removeAll(identifiers);
+    return new MarketDataAvailabilityIndex(_schemes, _valueNames, Collections.unmodifiableMap(copy));
+  }
+
+  /**
+   * Returns an index that also treats identifiers of the given schemes as available.
+   *
+   * @param schemes the additional resolvable schemes, not null
+   * @param valueNames the additional value names, not null
+   * @return the new index, not null
+   */
+  public MarketDataAvailabilityIndex withSchemes(final Collection<ExternalScheme> schemes, final Collection<String> valueNames) {
+    ArgumentChecker.notNull(schemes, "schemes");
+    ArgumentChecker.notNull(valueNames, "valueNames");
+    final Set<ExternalScheme> newSchemes = new HashSet<ExternalScheme>(_schemes);
+    newSchemes.addAll(schemes);
+    final Set<String> newValueNames = new HashSet<String>(_valueNames);
+    newValueNames.addAll(valueNames);
+    return new MarketDataAvailabilityIndex(ImmutableSet.copyOf(newSchemes), ImmutableSet.copyOf(newValueNames), _available);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "MarketDataAvailabilityIndex[schemes=" + _schemes + ", " + _available.size() + " explicit identifiers]";
+  }
+
+}
@@ -0,0 +1,402 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.time.Duration;
+import javax.time.Instant;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.tuple.Pair;
+
+/**
+ * A compact implementation of {@link ViewComputationResultModel} for the full result of a computation cycle. Values
+ * are held in arrays ordered by a {@link ResultModelLayout} shared by every cycle of a compiled view definition, with
+ * numeric values held unboxed. Unlike {@link InMemoryViewComputationResultModel}, no {@link ComputedValue} or index
+ * entry is held for each value; the by-configuration and by-target views are formed when they are asked for.
+ * <p>
+ * Values are set while the cycle executes, after which the model is only read. It is not safe to read the model from
+ * one thread while another is setting values.
+ */
+public class ColumnarViewComputationResultModel implements ViewComputationResultModel, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private UniqueId _viewProcessId;
+  private UniqueId _viewCycleId;
+  private Instant _valuationTime;
+  private Instant _calculationTime;
+  private Duration _calculationDuration;
+  private VersionCorrection _versionCorrection;
+
+  private final ResultModelLayout _layout;
+  private final Map<String, Column> _columns = new HashMap<String, Column>();
+  private final Map<ValueSpecification, ComputedValue> _allMarketData = new HashMap<ValueSpecification, ComputedValue>();
+  private final Map<ValueSpecification, Set<ValueRequirement>> _specToRequirementsMap = new HashMap<ValueSpecification, Set<ValueRequirement>>();
+
+  private transient volatile List<ViewResultEntry> _allResults;
+  private transient volatile Set<ComputationTargetSpecification> _allTargets;
+
+  /**
+   * Creates an empty result.
+   *
+   * @param layout  the layout of the values, not null
+   */
+  public ColumnarViewComputationResultModel(final ResultModelLayout layout) {
+    ArgumentChecker.notNull(layout, "layout");
+    _layout = layout;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public UniqueId getViewProcessId() {
+    return _viewProcessId;
+  }
+
+  public void setViewProcessId(UniqueId viewProcessId) {
+    _viewProcessId = viewProcessId;
+  }
+
+  @Override
+  public UniqueId getViewCycleId() {
+    return _viewCycleId;
+  }
+
+  public void setViewCycleId(UniqueId viewCycleId) {
+    _viewCycleId = viewCycleId;
+  }
+
+  @Override
+  public Instant getValuationTime() {
+    return _valuationTime;
+  }
+
+  public void setValuationTime(Instant valuationTime) {
+    _valuationTime = valuationTime;
+  }
+
+  @Override
+  public Instant getCalculationTime() {
+    return _calculationTime;
+  }
+
+  public void setCalculationTime(Instant calculationTime) {
+    _calculationTime = calculationTime;
+  }
+
+  @Override
+  public Duration getCalculationDuration() {
+    return _calculationDuration;
+  }
+
+  public void setCalculationDuration(Duration calculationDuration) {
+    _calculationDuration = calculationDuration;
+  }
+
+  @Override
+  public VersionCorrection getVersionCorrection() {
+    return _versionCorrection;
+  }
+
+  public void setVersionCorrection(VersionCorrection versionCorrection) {
+    _versionCorrection = versionCorrection;
+  }
+
+  /**
+   * Gets the layout of the values.
+   *
+   * @return the layout, not null
+   */
+  public ResultModelLayout getLayout() {
+    return _layout;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Sets a value, replacing any previous value for the same specification.
+   *
+   * @param calcConfigurationName  the calculation configuration name, not null
+   * @param specification  the value specification, not null
+   * @param value  the value, not null
+   * @throws IllegalArgumentException if the specification is not part of the layout
+   */
+  public void setValue(final String calcConfigurationName, final ValueSpecification specification, final Object value) {
+    final int index = getLayout().getIndex(calcConfigurationName, specification);
+    if (index < 0) {
+      throw new IllegalArgumentException("Value specification " + specification + " is not a result of calculation configuration " + calcConfigurationName);
+    }
+    setValue(calcConfigurationName, index, value);
+  }
+
+  /**
+   * Sets the value at an index of the layout, replacing any previous value.
+   *
+   * @param calcConfigurationName  the calculation configuration name, not null
+   * @param index  the index of the value specification in the layout
+   * @param value  the value, not null
+   */
+  public void setValue(final String calcConfigurationName, final int index, final Object value) {
+    ArgumentChecker.notNull(value, "value");
+    Column column = _columns.get(calcConfigurationName);
+    if (column == null) {
+      column = new Column(getLayout().getSize(calcConfigurationName));
+      _columns.put(calcConfigurationName, column);
+    }
+    column.set(index, value);
+    _allResults = null;
+    _allTargets = null;
+  }
+
+  /**
+   * Adds a market data value, replacing any previous item with the same value specification.
+   *
+   * @param marketData  the market data value, not null
+   */
+  public void addMarketData(ComputedValue marketData) {
+    _allMarketData.put(marketData.getSpecification(), marketData);
+  }
+
+  public ColumnarViewComputationResultModel addRequirements(Set<ValueRequirement> newRequirements, ValueSpecification specification) {
+    synchronized (_specToRequirementsMap) {
+      Set<ValueRequirement> requirements = _specToRequirementsMap.get(specification);
+      if (requirements == null) {
+        requirements = new HashSet<ValueRequirement>();
+        _specToRequirementsMap.put(specification, requirements);
+      }
+      requirements.addAll(newRequirements);
+    }
+    return this;
+  }
+
+  @Override
+  public Set<ComputedValue> getAllMarketData() {
+    return new HashSet<ComputedValue>(_allMarketData.values());
+  }
+
+  @Override
+  public Map<ValueSpecification, Set<ValueRequirement>> getRequirementToSpecificationMapping() {
+    return Collections.unmodifiableMap(_specToRequirementsMap);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public Set<ComputationTargetSpecification> getAllTargets() {
+    Set<ComputationTargetSpecification> allTargets = _allTargets;
+    if (allTargets == null) {
+      allTargets = new HashSet<ComputationTargetSpecification>();
+      for (String calcConfigurationName : getCalculationConfigurationNames()) {
+        allTargets.addAll(getCalculationResult(calcConfigurationName).getAllTargets());
+      }
+      allTargets = Collections.unmodifiableSet(allTargets);
+      _allTargets = allTargets;
+    }
+    return allTargets;
+  }
+
+  @Override
+  public Collection<String> getCalculationConfigurationNames() {
+    final List<String> names = new ArrayList<String>(_columns.size());
+    for (Map.Entry<String, Column> column : _columns.entrySet()) {
+      if (!column.getValue().isEmpty()) {
+        names.add(column.getKey());
+      }
+    }
+    return Collections.unmodifiableList(names);
+  }
+
+  @Override
+  public ViewCalculationResultModel getCalculationResult(final String calcConfigurationName) {
+    final Column column = _columns.get(calcConfigurationName);
+    if ((column == null) || column.isEmpty()) {
+      return null;
+    }
+    return new CalculationResult(calcConfigurationName, column);
+  }
+
+  @Override
+  public ViewTargetResultModel getTargetResult(final ComputationTargetSpecification targetSpecification) {
+    ViewTargetResultModelImpl targetResult = null;
+    for (Map.Entry<String, Column> column : _columns.entrySet()) {
+      final int[] indices = getLayout().getTargetIndices(column.getKey()).get(targetSpecification);
+      if (indices == null) {
+        continue;
+      }
+      for (int index : indices) {
+        final ComputedValue value = column.getValue().get(getLayout().getSpecification(column.getKey(), index), index);
+        if (value != null) {
+          if (targetResult == null) {
+            targetResult = new ViewTargetResultModelImpl();
+          }
+          targetResult.addValue(column.getKey(), value);
+        }
+      }
+    }
+    return targetResult;
+  }
+
+  @Override
+  public List<ViewResultEntry> getAllResults() {
+    List<ViewResultEntry> allResults = _allResults;
+    if (allResults == null) {
+      allResults = new ArrayList<ViewResultEntry>();
+      for (Map.Entry<String, Column> column : _columns.entrySet()) {
+        final List<ValueSpecification> specifications = getLayout().getSpecifications(column.getKey());
+        for (int i = 0; i < specifications.size(); i++) {
+          final ComputedValue value = column.getValue().get(specifications.get(i), i);
+          if (value != null) {
+            allResults.add(new ViewResultEntry(column.getKey(), value));
+          }
+        }
+      }
+      allResults = Collections.unmodifiableList(allResults);
+      _allResults = allResults;
+    }
+    return allResults;
+  }
+
+  @Override
+  public Set<String> getAllOutputValueNames() {
+    Set<String> outputValueNames = new HashSet<String>();
+    for (ViewResultEntry result : getAllResults()) {
+      outputValueNames.add(result.getComputedValue().getSpecification().getValueName());
+    }
+    return outputValueNames;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The values of one calculation configuration. A numeric value is held in {@code _doubles} with its bit set in
+   * {@code _numeric}; any other value is held in {@code _objects}, which is only allocated if needed.
+   */
+  private static final class Column implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final double[] _doubles;
+    private final BitSet _numeric;
+    private Object[] _objects;
+    private int _count;
+
+    private Column(final int size) {
+      _doubles = new double[size];
+      _numeric = new BitSet(size);
+    }
+
+    public void set(final int index, final Object value) {
+      if (!isPresent(index)) {
+        _count++;
+      }
+      if (value instanceof Double) {
+        _doubles[index] = (Double) value;
+        _numeric.set(index);
+        if (_objects != null) {
+          _objects[index] = null;
+        }
+      } else {
+        if (_objects == null) {
+          _objects = new Object[_doubles.length];
+        }
+        _objects[index] = value;
+        _numeric.clear(index);
+      }
+    }
+
+    public boolean isPresent(final int index) {
+      return _numeric.get(index) || ((_objects != null) && (_objects[index] != null));
+    }
+
+    public boolean isEmpty() {
+      return _count == 0;
+    }
+
+    public ComputedValue get(final ValueSpecification specification, final int index) {
+      if (_numeric.get(index)) {
+        return new ComputedValue(specification, _doubles[index]);
+      }
+      if ((_objects != null) && (_objects[index] != null)) {
+        return new ComputedValue(specification, _objects[index]);
+      }
+      return null;
+    }
+
+  }
+
+  /**
+   * The view of one calculation configuration, formed from its column when asked for.
+   */
+  private final class CalculationResult implements ViewCalculationResultModel {
+
+    private final String _calcConfigurationName;
+    private final Column _column;
+    private final Map<ComputationTargetSpecification, int[]> _targetIndices;
+
+    private CalculationResult(final String calcConfigurationName, final Column column) {
+      _calcConfigurationName = calcConfigurationName;
+      _column = column;
+      _targetIndices = getLayout().getTargetIndices(calcConfigurationName);
+    }
+
+    @Override
+    public Collection<ComputationTargetSpecification> getAllTargets() {
+      final Set<ComputationTargetSpecification> targets = new LinkedHashSet<ComputationTargetSpecification>();
+      for (Map.Entry<ComputationTargetSpecification, int[]> target : _targetIndices.entrySet()) {
+        for (int index : target.getValue()) {
+          if (_column.isPresent(index)) {
+            targets.add(target.getKey());
+            break;
+          }
+        }
+      }
+      return Collections.unmodifiableSet(targets);
+    }
+
+    @Override
+    public Map<Pair<String, ValueProperties>, ComputedValue> getValues(final ComputationTargetSpecification target) {
+      final int[] indices = _targetIndices.get(target);
+      if (indices == null) {
+        return null;
+      }
+      Map<Pair<String, ValueProperties>, ComputedValue> values = null;
+      for (int index : indices) {
+        final ValueSpecification specification = getLayout().getSpecification(_calcConfigurationName, index);
+        final ComputedValue value = _column.get(specification, index);
+        if (value != null) {
+          if (values == null) {
+            values = new HashMap<Pair<String, ValueProperties>, ComputedValue>();
+          }
+          values.put(Pair.of(specification.getValueName(), specification.getProperties()), value);
+        }
+      }
+      return (values != null) ? Collections.unmodifiableMap(values) : null;
+    }
+
+    @Override
+    public Collection<ComputedValue> getAllValues(final ComputationTargetSpecification target) {
+      final Map<Pair<String, ValueProperties>, ComputedValue> values = getValues(target);
+      return (values != null) ? values.values() : null;
+    }
+
+  }
+
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * The fixed ordering of the values which may appear in the results of a compiled view definition, for each calculation
+ * configuration. A {@link ColumnarViewComputationResultModel} stores its values in arrays using this ordering, so the
+ * specifications and the indices into them are held once here rather than in every result.
+ */
+public final class ResultModelLayout implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Map<String, Configuration> _configurations = new HashMap<String, Configuration>();
+
+  /**
+   * Creates an instance.
+   *
+   * @param specificationsByConfiguration  the value specifications which may appear in the results, by calculation
+   *  configuration name, not null
+   */
+  public ResultModelLayout(final Map<String, ? extends Collection<ValueSpecification>> specificationsByConfiguration) {
+    ArgumentChecker.notNull(specificationsByConfiguration, "specificationsByConfiguration");
+    for (Map.Entry<String, ? extends Collection<ValueSpecification>> entry : specificationsByConfiguration.entrySet()) {
+      _configurations.put(entry.getKey(), new Configuration(entry.getValue()));
+    }
+  }
+
+  /**
+   * Gets the calculation configuration names.
+   *
+   * @return the names, not null
+   */
+  public Collection<String> getCalculationConfigurationNames() {
+    return Collections.unmodifiableSet(_configurations.keySet());
+  }
+
+  /**
+   * Gets the number of values which may appear in the results for a calculation configuration.
+   *
+   * @param calcConfigurationName  the calculation configuration name, not null
+   * @return the number of values, zero if the configuration is not known
+   */
+  public int getSize(final String calcConfigurationName) {
+    final Configuration configuration = _configurations.get(calcConfigurationName);
+    return (configuration != null) ? configuration.getSpecifications().length : 0;
+  }
+
+  /**
+   * Gets the value specifications for a calculation configuration, in order.
+   *
+   * @param calcConfigurationName  the calculation configuration name, not null
+   * @return the specifications, not null
+   */
+  public List<ValueSpecification> getSpecifications(final String calcConfigurationName) {
+    final Configuration configuration = _configurations.get(calcConfigurationName);
+    if (configuration == null) {
+      return Collections.emptyList();
+    }
+    return Collections.unmodifiableList(Arrays.asList(configuration.getSpecifications()));
+  }
+
+  /**
+   * Gets the value specification at an index.
+   *
+   * @param calcConfigurationName  the calculation configuration name, not null
+   * @param index  the index
+   * @return the specification, not null
+   */
+  public ValueSpecification getSpecification(final String calcConfigurationName, final int index) {
+    return _configurations.get(calcConfigurationName).getSpecifications()[index];
+  }
+
+  /**
+   * Gets the index of a value specification.
+   *
+   * @param calcConfigurationName  the calculation configuration name, not null
+   * @param specification  the value specification, not null
+   * @return the index, or -1 if the specification is not part of the layout
+   */
+  public int getIndex(final String calcConfigurationName, final ValueSpecification specification) {
+    final Configuration configuration = _configurations.get(calcConfigurationName);
+    if (configuration == null) {
+      return -1;
+    }
+    final Integer index = configuration.getIndices().get(specification);
+    return (index != null) ? index : -1;
+  }
+
+  /**
+   * Gets the indices of the values for each target.
+   *
+   * @param calcConfigurationName  the calculation configuration name, not null
+   * @return the indices by target, not null
+   */
+  public Map<ComputationTargetSpecification, int[]> getTargetIndices(final String calcConfigurationName) {
+    final Configuration configuration = _configurations.get(calcConfigurationName);
+    if (configuration == null) {
+      return Collections.emptyMap();
+    }
+    return configuration.getTargetIndices();
+  }
+
+  //-------------------------------------------------------------------------
+  private static final class Configuration implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ValueSpecification[] _specifications;
+    private final Map<ValueSpecification, Integer> _indices;
+    private final Map<ComputationTargetSpecification, int[]> _targetIndices;
+
+    private Configuration(final Collection<ValueSpecification> specifications) {
+      _specifications = specifications.toArray(new ValueSpecification[specifications.size()]);
+      _indices = new HashMap<ValueSpecification, Integer>(_specifications.length * 4 / 3 + 1);
+      final Map<ComputationTargetSpecification, List<Integer>> targetIndices = new LinkedHashMap<ComputationTargetSpecification, List<Integer>>();
+      for (int i = 0; i < _specifications.length; i++) {
+        _indices.put(_specifications[i], i);
+        final ComputationTargetSpecification target = _specifications[i].getTargetSpecification();
+        List<Integer> indices = targetIndices.get(target);
+        if (indices == null) {
+          indices = new ArrayList<Integer>();
+          targetIndices.put(target, indices);
+        }
+        indices.add(i);
+      }
+      _targetIndices = new LinkedHashMap<ComputationTargetSpecification, int[]>(targetIndices.size() * 4 / 3 + 1);
+      for (Map.Entry<ComputationTargetSpecification, List<Integer>> entry : targetIndices.entrySet()) {
+        final int[] indices = new int[entry.getValue().size()];
+        for (int i = 0; i < indices.length; i++) {
+          indices[i] = entry.getValue().get(i);
+        }
+        _targetIndices.put(entry.getKey(), indices);
+      }
+    }
+
+    public ValueSpecification[] getSpecifications() {
+      return _specifications;
+    }
+
+    public Map<ValueSpecification, Integer> getIndices() {
+      return _indices;
+    }
+
+    public Map<ComputationTargetSpecification, int[]> getTargetIndices() {
+      return Collections.unmodifiableMap(_targetIndices);
+    }
+
+  }
+
+}
@@ -5,8 +5,13 @@
  */
 package com.opengamma.engine.view;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
@@ -24,21 +29,27 @@ import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.engine.marketdata.MarketDataInjector;
 import com.opengamma.engine.marketdata.MarketDataPermissionProvider;
 import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.calc.EngineResourceManagerInternal;
+import com.opengamma.engine.view.calc.MarketDataWaitPolicy;
 import com.opengamma.engine.view.calc.SingleComputationCycle;
 import com.opengamma.engine.view.calc.ViewComputationJob;
 import com.opengamma.engine.view.calc.ViewCycle;
 import com.opengamma.engine.view.calc.ViewCycleMetadata;
 import com.opengamma.engine.view.client.ViewDeltaResultCalculator;
 import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphsImpl;
+import com.opengamma.engine.view.execution.ExecutionFocus;
 import com.opengamma.engine.view.execution.ViewCycleExecutionOptions;
 import com.opengamma.engine.view.execution.ViewExecutionOptions;
+import com.opengamma.engine.view.listener.ListenerOverflowPolicy;
 import com.opengamma.engine.view.listener.ViewResultListener;
+import com.opengamma.engine.view.listener.ViewResultListenerMailbox;
 import com.opengamma.engine.view.permission.ViewPermissionProvider;
 import com.opengamma.id.ObjectId;
 import com.opengamma.id.UniqueId;
 import com.opengamma.livedata.UserPrincipal;
 import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.NamedThreadPoolFactory;
 import com.opengamma.util.tuple.Pair;
 
 
@@ -49,6 +60,11 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
 
   private static final Logger s_logger = LoggerFactory.getLogger(ViewProcess.class);
 
+  /**
+   * The default number of calls queued for a listener before its overflow policy applies.
+   */
+  public static final int DEFAULT_LISTENER_QUEUE_CAPACITY = 8;
+
   private final UniqueId _viewProcessId;
   private final UniqueId _viewDefinitionId;
   private final ViewExecutionOptions _executionOptions;
@@ -65,7 +81,28 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
    */
   private final Semaphore _processLock = new Semaphore(1);
 
-  private final Set<ViewResultListener> _listeners = new HashSet<ViewResultListener>();
+  /**
+   * The attached listeners, each with the mailbox through which calls are delivered to it. Modified only while holding
+   * the semaphore, but may be read without it.
+   */
+  private final Map<ViewResultListener, ViewResultListenerMailbox> _listeners = new ConcurrentHashMap<ViewResultListener, ViewResultListenerMailbox>();
+
+  /**
+   * The values each attached listener is interested in, if it has said. Modified only while holding the semaphore.
+   */
+  private final Map<ViewResultListener, ExecutionFocus> _executionFocuses = new ConcurrentHashMap<ViewResultListener, ExecutionFocus>();
+
+  /**
+   * The listeners which want cycle fragment results. Cycles only produce fragments while at least one attached
+   * listener is in this set. Modified only while holding the semaphore.
+   */
+  private final Set<ViewResultListener> _fragmentListeners = Collections.newSetFromMap(new ConcurrentHashMap<ViewResultListener, Boolean>());
+
+  /**
+   * Provides the threads on which calls are delivered to listeners, so that a slow listener never holds up the
+   * computation job or any other listener.
+   */
+  private final ExecutorService _listenerExecutor;
 
   private volatile ViewProcessState _state = ViewProcessState.STOPPED;
 
@@ -78,6 +115,10 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
 
   private ExecutorService _calcJobResultExecutorService = Executors.newSingleThreadExecutor();
 
+  private volatile MarketDataWaitPolicy _marketDataWaitPolicy = MarketDataWaitPolicy.AWAIT_ALL;
+  private volatile long _marketDataTimeoutMillis = ViewComputationJob.DEFAULT_MARKET_DATA_TIMEOUT_MILLIS;
+  private volatile int _listenerQueueCapacity = DEFAULT_LISTENER_QUEUE_CAPACITY;
+  private volatile ListenerOverflowPolicy _listenerOverflowPolicy = ListenerOverflowPolicy.MERGE;
 
 
   /**
@@ -106,6 +147,7 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
     _viewProcessContext = viewProcessContext;
     _cycleManager = cycleManager;
     _cycleObjectId = cycleObjectId;
+    _listenerExecutor = Executors.newCachedThreadPool(new NamedThreadPoolFactory("Listeners for " + viewProcessId, true));
   }
 
   //-------------------------------------------------------------------------
@@ -124,6 +166,89 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
     return getProcessContext().getViewDefinitionRepository().getDefinition(getDefinitionId());
   }
 
+  /**
+   * Gets the policy for waiting for market data subscriptions before starting a computation cycle.
+   *
+   * @return the policy, not null
+   */
+  public MarketDataWaitPolicy getMarketDataWaitPolicy() {
+    return _marketDataWaitPolicy;
+  }
+
+  /**
+   * Sets the policy for waiting for market data subscriptions before starting a computation cycle.
+   *
+   * @param marketDataWaitPolicy  the policy, not null
+   */
+  public void setMarketDataWaitPolicy(MarketDataWaitPolicy marketDataWaitPolicy) {
+    ArgumentChecker.notNull(marketDataWaitPolicy, "marketDataWaitPolicy");
+    _marketDataWaitPolicy = marketDataWaitPolicy;
+  }
+
+  /**
+   * Gets the maximum time a computation cycle will wait for market data.
+   *
+   * @return the timeout in milliseconds
+   */
+  public long getMarketDataTimeoutMillis() {
+    return _marketDataTimeoutMillis;
+  }
+
+  /**
+   * Sets the maximum time a computation cycle will wait for market data.
+   *
+   * @param marketDataTimeoutMillis  the timeout in milliseconds, not negative
+   */
+  public void setMarketDataTimeoutMillis(long marketDataTimeoutMillis) {
+    ArgumentChecker.isTrue(marketDataTimeoutMillis >= 0, "marketDataTimeoutMillis must not be negative");
+    _marketDataTimeoutMillis = marketDataTimeoutMillis;
+  }
+
+  /**
+   * Gets the number of calls queued for a listener before its overflow policy applies.
+   *
+   * @return the capacity of each listener's queue
+   */
+  public int getListenerQueueCapacity() {
+    return _listenerQueueCapacity;
+  }
+
+  /**
+   * Sets the number of calls queued for a listener before its overflow policy applies. This affects listeners attached
+   * after the change.
+   *
+   * @param listenerQueueCapacity  the capacity of each listener's queue, at least 1
+   */
+  public void setListenerQueueCapacity(int listenerQueueCapacity) {
+    ArgumentChecker.isTrue(listenerQueueCapacity > 0, "listenerQueueCapacity must be positive");
+    _listenerQueueCapacity = listenerQueueCapacity;
+  }
+
+  /**
+   * Gets what happens when a result is produced for a listener whose queue is full.
+   *
+   * @return the overflow policy, not null
+   */
+  public ListenerOverflowPolicy getListenerOverflowPolicy() {
+    return _listenerOverflowPolicy;
+  }
+
+  /**
+   * Sets what happens when a result is produced for a listener whose queue is full. This affects listeners attached
+   * after the change.
+   *
+   * @param listenerOverflowPolicy  the overflow policy, not null
+   */
+  public void setListenerOverflowPolicy(ListenerOverflowPolicy listenerOverflowPolicy) {
+    ArgumentChecker.notNull(listenerOverflowPolicy, "listenerOverflowPolicy");
+    _listenerOverflowPolicy = listenerOverflowPolicy;
+  }
+
+  @Override
+  public Collection<ViewResultListenerMailbox> getListenerMailboxes() {
+    return Collections.unmodifiableCollection(new ArrayList<ViewResultListenerMailbox>(_listeners.values()));
+  }
+
   @Override
   public MarketDataInjector getLiveDataOverrideInjector() {
     return getProcessContext().getLiveDataOverrideInjector();
@@ -222,7 +347,7 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
     try {
       _latestCompiledViewDefinition.set(Pair.of(compiledViewDefinition, permissionProvider));
       final Set<ValueRequirement> marketDataRequirements = compiledViewDefinition.getMarketDataRequirements().keySet();
-      for (ViewResultListener listener : _listeners) {
+      for (ViewResultListener listener : _listeners.values()) {
         try {
           UserPrincipal listenerUser = listener.getUser();
           boolean hasMarketDataPermissions = permissionProvider.canAccessMarketData(listenerUser, marketDataRequirements);
@@ -238,7 +363,7 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
 
   public void viewDefinitionCompilationFailed(Instant valuationTime, Exception exception) {
     s_logger.error("View definition compilation failed for " + valuationTime + ": ", exception);
-    for (ViewResultListener listener : _listeners) {
+    for (ViewResultListener listener : _listeners.values()) {
       try {
         listener.viewDefinitionCompilationFailed(valuationTime, exception);
       } catch (Exception e) {
@@ -270,30 +395,60 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
   }
 
   public void cycleFragmentCompleted(ViewComputationResultModel result, ViewDefinition viewDefinition) {
+    cycleFragmentCompleted(result, viewDefinition, null);
+  }
+
+  /**
+   * Notifies listeners of a result fragment from a cycle.
+   * 
+   * @param result  the result fragment, not null
+   * @param viewDefinition  the view definition, not null
+   * @param cycle  the cycle producing the fragment, or null if not known. When known, only values the cycle may have
+   *  changed are compared against the previous result to form the delta.
+   */
+  public void cycleFragmentCompleted(ViewComputationResultModel result, ViewDefinition viewDefinition, SingleComputationCycle cycle) {
     // Caller MUST NOT hold the semaphore
     s_logger.debug("Result fragment from cycle {} received on view process {}", result.getViewCycleId(), getUniqueId());
     lock();
     try {
-      cycleFragmentCompletedCore(result, viewDefinition);
+      cycleFragmentCompletedCore(result, viewDefinition, cycle);
     } finally {
       unlock();
     }
   }
 
-  private void cycleFragmentCompletedCore(ViewComputationResultModel fullFragment, ViewDefinition viewDefinition) {
+  /**
+   * Computes the delta between a result and the previous one, shared by every listener. If the cycle copied values
+   * unchanged from the cycle which produced the previous result then only the values it may have changed are compared.
+   */
+  private static ViewDeltaResultModel computeDeltaModel(ViewDefinition viewDefinition, ViewComputationResultModel previousResult, ViewComputationResultModel result,
+      ViewCycle cycle) {
+    if ((previousResult != null) && (cycle instanceof SingleComputationCycle)) {
+      final SingleComputationCycle computationCycle = (SingleComputationCycle) cycle;
+      final Map<String, Set<ValueSpecification>> changedOutputs = computationCycle.getChangedOutputs();
+      if ((changedOutputs != null) && previousResult.getViewCycleId().equals(computationCycle.getPreviousCycleId())) {
+        return ViewDeltaResultCalculator.computeDeltaModel(viewDefinition, previousResult, result, changedOutputs);
+      }
+    }
+    return ViewDeltaResultCalculator.computeDeltaModel(viewDefinition, previousResult, result);
+  }
+
+  private void cycleFragmentCompletedCore(ViewComputationResultModel fullFragment, ViewDefinition viewDefinition, SingleComputationCycle cycle) {
     // Caller MUST hold the semaphore
 
     // [PLAT-1158]
-    // REVIEW kirk 2009-09-24 -- We need to consider this method for background execution
-    // of some kind. It holds the lock and blocks the recalc thread, so a slow
-    // callback implementation (or just the cost of computing the delta model) will
-    // be an unnecessary burden.
+    // Listeners are called through their mailboxes, so a slow listener does not hold the lock or block the recalc
+    // thread. The cost of computing the delta model is still borne here, once for all listeners.
 
     // We swap these first so that in the callback the process is consistent.
     ViewComputationResultModel previousResult = _latestResult.get();
 
-    ViewDeltaResultModel deltaFragment = ViewDeltaResultCalculator.computeDeltaModel(viewDefinition, previousResult, fullFragment);
-    for (ViewResultListener listener : _listeners) {
+    ViewDeltaResultModel deltaFragment = computeDeltaModel(viewDefinition, previousResult, fullFragment, cycle);
+    for (ViewResultListener fragmentListener : _fragmentListeners) {
+      final ViewResultListener listener = _listeners.get(fragmentListener);
+      if (listener == null) {
+        continue;
+      }
       try {
         listener.cycleFragmentCompleted(fullFragment, deltaFragment);
       } catch (Exception e) {
@@ -307,18 +462,16 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
     // Caller MUST hold the semaphore
 
     // [PLAT-1158]
-    // REVIEW kirk 2009-09-24 -- We need to consider this method for background execution
-    // of some kind. It holds the lock and blocks the recalc thread, so a slow
-    // callback implementation (or just the cost of computing the delta model) will
-    // be an unnecessary burden.
+    // Listeners are called through their mailboxes, so a slow listener does not hold the lock or block the recalc
+    // thread. The cost of computing the delta model is still borne here, once for all listeners.
 
     // We swap these first so that in the callback the process is consistent.
     ViewComputationResultModel result = cycle.getResultModel();
     ViewComputationResultModel previousResult = _latestResult.get();
     _latestResult.set(result);
 
-    ViewDeltaResultModel deltaResult = ViewDeltaResultCalculator.computeDeltaModel(cycle.getCompiledViewDefinition().getViewDefinition(), previousResult, result);
-    for (ViewResultListener listener : _listeners) {
+    ViewDeltaResultModel deltaResult = computeDeltaModel(cycle.getCompiledViewDefinition().getViewDefinition(), previousResult, result, cycle);
+    for (ViewResultListener listener : _listeners.values()) {
       try {
         listener.cycleCompleted(result, deltaResult);
       } catch (Exception e) {
@@ -331,13 +484,11 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
     // Caller MUST hold the semaphore
 
     // [PLAT-1158]
-    // REVIEW kirk 2009-09-24 -- We need to consider this method for background execution
-    // of some kind. It holds the lock and blocks the recalc thread, so a slow
-    // callback implementation (or just the cost of computing the delta model) will
-    // be an unnecessary burden.
+    // Listeners are called through their mailboxes, so a slow listener does not hold the lock or block the recalc
+    // thread.
 
     // We swap these first so that in the callback the process is consistent.
-    for (ViewResultListener listener : _listeners) {
+    for (ViewResultListener listener : _listeners.values()) {
       try {
         listener.cycleStarted(cycleMetadata);
       } catch (Exception e) {
@@ -348,7 +499,7 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
 
   public void cycleExecutionFailed(ViewCycleExecutionOptions executionOptions, Exception exception) {
     s_logger.error("Cycle execution failed for " + executionOptions + ": ", exception);
-    for (ViewResultListener listener : _listeners) {
+    for (ViewResultListener listener : _listeners.values()) {
       try {
         listener.cycleExecutionFailed(executionOptions, exception);
       } catch (Exception e) {
@@ -367,7 +518,7 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
       unlock();
     }
 
-    for (ViewResultListener listener : _listeners) {
+    for (ViewResultListener listener : _listeners.values()) {
       try {
         listener.processCompleted();
       } catch (Exception e) {
@@ -459,11 +610,28 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
    * @return the permission provider for the process, not null
    */
   public ViewPermissionProvider attachListener(ViewResultListener listener) {
+    return attachListener(listener, getListenerQueueCapacity(), getListenerOverflowPolicy());
+  }
+
+  /**
+   * Attaches a listener to the view process with its own queue settings, for a listener which must not be subject to
+   * the process defaults.
+   * <p>
+   * The method operates with set semantics, so duplicate notifications for the same listener have no effect.
+   *
+   * @param listener  the listener, not null
+   * @param queueCapacity  the number of calls queued for the listener before the overflow policy applies, at least 1
+   * @param overflowPolicy  the overflow policy, not null
+   * @return the permission provider for the process, not null
+   */
+  public ViewPermissionProvider attachListener(ViewResultListener listener, int queueCapacity, ListenerOverflowPolicy overflowPolicy) {
     ArgumentChecker.notNull(listener, "listener");
     // Caller MUST NOT hold the semaphore
     lock();
     try {
-      if (_listeners.add(listener)) {
+      if (!_listeners.containsKey(listener)) {
+        final ViewResultListenerMailbox mailbox = new ViewResultListenerMailbox(listener, _listenerExecutor, queueCapacity, overflowPolicy);
+        _listeners.put(listener, mailbox);
         if (_listeners.size() == 1) {
           try {
             startComputationJob();
@@ -481,10 +649,10 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
               CompiledViewDefinitionWithGraphsImpl compiledViewDefinition = latestCompilation.getFirst();
               MarketDataPermissionProvider permissionProvider = latestCompilation.getSecond();
               boolean hasMarketDataPermissions = permissionProvider.canAccessMarketData(listener.getUser(), compiledViewDefinition.getMarketDataRequirements().keySet());
-              listener.viewDefinitionCompiled(compiledViewDefinition, hasMarketDataPermissions);
+              mailbox.viewDefinitionCompiled(compiledViewDefinition, hasMarketDataPermissions);
               ViewComputationResultModel latestResult = _latestResult.get();
               if (latestResult != null) {
-                listener.cycleCompleted(latestResult, null);
+                mailbox.cycleCompleted(latestResult, null);
               }
             }
           } catch (Exception e) {
@@ -512,8 +680,14 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
     // Caller MUST NOT hold the semaphore
     lock();
     try {
-      if (_listeners.remove(listener) && _listeners.size() == 0) {
-        stopComputationJob();
+      final ViewResultListenerMailbox mailbox = _listeners.remove(listener);
+      _executionFocuses.remove(listener);
+      _fragmentListeners.remove(listener);
+      if (mailbox != null) {
+        mailbox.close();
+        if (_listeners.isEmpty()) {
+          stopComputationJob();
+        }
       }
     } finally {
       unlock();
@@ -524,6 +698,84 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
     return !_listeners.isEmpty();
   }
 
+  /**
+   * Sets the values an attached listener is interested in.
+   *
+   * @param listener  the listener, not null
+   * @param executionFocus  the focus, or null if the listener is interested in the whole view
+   */
+  public void setExecutionFocus(ViewResultListener listener, ExecutionFocus executionFocus) {
+    ArgumentChecker.notNull(listener, "listener");
+    // Caller MUST NOT hold the semaphore
+    lock();
+    try {
+      if (executionFocus == null) {
+        _executionFocuses.remove(listener);
+      } else if (_listeners.containsKey(listener)) {
+        _executionFocuses.put(listener, executionFocus);
+      }
+    } finally {
+      unlock();
+    }
+  }
+
+  /**
+   * Sets whether a listener wants cycle fragment results. This may be set before the listener is attached so that it
+   * receives the fragments from the first cycle.
+   *
+   * @param listener  the listener, not null
+   * @param fragmentResultsRequired  whether the listener wants cycle fragment results
+   */
+  public void setFragmentResultsRequired(ViewResultListener listener, boolean fragmentResultsRequired) {
+    ArgumentChecker.notNull(listener, "listener");
+    // Caller MUST NOT hold the semaphore
+    lock();
+    try {
+      if (fragmentResultsRequired) {
+        _fragmentListeners.add(listener);
+      } else {
+        _fragmentListeners.remove(listener);
+      }
+    } finally {
+      unlock();
+    }
+  }
+
+  /**
+   * Gets whether any attached listener wants cycle fragment results. If none does then cycles need not produce them.
+   *
+   * @return true if cycle fragment results are required
+   */
+  public boolean isFragmentResultsRequired() {
+    for (ViewResultListener listener : _fragmentListeners) {
+      if (_listeners.containsKey(listener)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets the values which the next delta cycle must recalculate. This is the union of the listeners' focuses, so is
+   * only available if every attached listener has set one.
+   *
+   * @return the focus, or null if the whole view must be recalculated
+   */
+  public ExecutionFocus getExecutionFocus() {
+    final List<ExecutionFocus> focuses = new ArrayList<ExecutionFocus>(_listeners.size());
+    for (ViewResultListener listener : _listeners.keySet()) {
+      final ExecutionFocus focus = _executionFocuses.get(listener);
+      if (focus == null) {
+        return null;
+      }
+      focuses.add(focus);
+    }
+    if (focuses.isEmpty()) {
+      return null;
+    }
+    return ExecutionFocus.union(focuses);
+  }
+
   public ViewExecutionOptions getExecutionOptions() {
     return _executionOptions;
   }
@@ -584,14 +836,16 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
   private void shutdownCore() {
     // Caller MUST NOT hold the semaphore
     boolean isInterrupting;
-    final Set<ViewResultListener> listeners;
+    final Collection<ViewResultListenerMailbox> listeners;
     lock();
     try {
       isInterrupting = getState() == ViewProcessState.RUNNING;
       setState(ViewProcessState.TERMINATED);
 
-      listeners = new HashSet<ViewResultListener>(_listeners);
+      listeners = new ArrayList<ViewResultListenerMailbox>(_listeners.values());
       _listeners.clear();
+      _executionFocuses.clear();
+      _fragmentListeners.clear();
       terminateComputationJob();
     } finally {
       unlock();
@@ -604,6 +858,8 @@ public class ViewProcessImpl implements ViewProcessInternal, Lifecycle {
         logListenerError(listener, e);
       }
     }
+    // Queued calls, including the termination, are still delivered
+    _listenerExecutor.shutdown();
   }
 
   private void logListenerError(ViewResultListener listener, Exception e) {
@@ -5,6 +5,10 @@
  */
 package com.opengamma.engine.view;
 
+import java.util.Collection;
+
+import com.opengamma.engine.view.listener.ViewResultListenerMailbox;
+
 /**
  * Exposes engine-level access to a view process.
  */
@@ -20,5 +24,13 @@ public interface ViewProcessInternal extends ViewProcess {
    * Resumes operations on the view process, following a call to {@link #suspend}.
    */
   void resume();
+
+  /**
+   * Gets the mailboxes through which calls are delivered to the listeners currently attached to the view process,
+   * for monitoring how far behind each listener is.
+   * 
+   * @return the listener mailboxes, not null
+   */
+  Collection<ViewResultListenerMailbox> getListenerMailboxes();
   
 }
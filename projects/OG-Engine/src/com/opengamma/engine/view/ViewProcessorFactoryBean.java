@@ -19,11 +19,14 @@ import com.opengamma.engine.marketdata.OverrideOperationCompiler;
 import com.opengamma.engine.marketdata.resolver.MarketDataProviderResolver;
 import com.opengamma.engine.view.cache.ViewComputationCacheSource;
 import com.opengamma.engine.view.calc.DependencyGraphExecutorFactory;
+import com.opengamma.engine.view.calc.MarketDataWaitPolicy;
+import com.opengamma.engine.view.calc.ViewComputationJob;
 import com.opengamma.engine.view.calc.ViewResultListenerFactory;
 import com.opengamma.engine.view.calc.stats.DiscardingGraphStatisticsGathererProvider;
 import com.opengamma.engine.view.calc.stats.GraphExecutorStatisticsGathererProvider;
 import com.opengamma.engine.view.calcnode.JobDispatcher;
 import com.opengamma.engine.view.calcnode.ViewProcessorQueryReceiver;
+import com.opengamma.engine.view.listener.ListenerOverflowPolicy;
 import com.opengamma.engine.view.permission.ViewPermissionProvider;
 import com.opengamma.util.ArgumentChecker;
 import com.opengamma.util.SingletonFactoryBean;
@@ -51,6 +54,10 @@ public class ViewProcessorFactoryBean extends SingletonFactoryBean<ViewProcessor
   private ViewPermissionProvider _viewPermissionProvider;
   private OverrideOperationCompiler _overrideOperationCompiler = new DummyOverrideOperationCompiler();
   private ViewResultListenerFactory _batchViewClientFactory;
+  private MarketDataWaitPolicy _marketDataWaitPolicy = MarketDataWaitPolicy.AWAIT_ALL;
+  private long _marketDataTimeoutMillis = ViewComputationJob.DEFAULT_MARKET_DATA_TIMEOUT_MILLIS;
+  private int _listenerQueueCapacity = ViewProcessImpl.DEFAULT_LISTENER_QUEUE_CAPACITY;
+  private ListenerOverflowPolicy _listenerOverflowPolicy = ListenerOverflowPolicy.MERGE;
 
   //-------------------------------------------------------------------------
   public String getName() {
@@ -190,10 +197,42 @@ public class ViewProcessorFactoryBean extends SingletonFactoryBean<ViewProcessor
     ArgumentChecker.notNullInjected(getViewPermissionProvider(), "viewPermissionProvider");
   }
 
+  public MarketDataWaitPolicy getMarketDataWaitPolicy() {
+    return _marketDataWaitPolicy;
+  }
+
+  public void setMarketDataWaitPolicy(MarketDataWaitPolicy marketDataWaitPolicy) {
+    _marketDataWaitPolicy = marketDataWaitPolicy;
+  }
+
+  public long getMarketDataTimeoutMillis() {
+    return _marketDataTimeoutMillis;
+  }
+
+  public void setMarketDataTimeoutMillis(long marketDataTimeoutMillis) {
+    _marketDataTimeoutMillis = marketDataTimeoutMillis;
+  }
+
+  public int getListenerQueueCapacity() {
+    return _listenerQueueCapacity;
+  }
+
+  public void setListenerQueueCapacity(int listenerQueueCapacity) {
+    _listenerQueueCapacity = listenerQueueCapacity;
+  }
+
+  public ListenerOverflowPolicy getListenerOverflowPolicy() {
+    return _listenerOverflowPolicy;
+  }
+
+  public void setListenerOverflowPolicy(ListenerOverflowPolicy listenerOverflowPolicy) {
+    _listenerOverflowPolicy = listenerOverflowPolicy;
+  }
+
   @Override
   public ViewProcessor createObject() {
     checkInjectedInputs();
-    return new ViewProcessorImpl(
+    final ViewProcessorImpl viewProcessor = new ViewProcessorImpl(
         getName(),
         getViewDefinitionRepository(),
         getNamedMarketDataSpecificationRepository(),
@@ -210,6 +249,11 @@ public class ViewProcessorFactoryBean extends SingletonFactoryBean<ViewProcessor
         getViewPermissionProvider(),
         getOverrideOperationCompiler(),
         getViewResultListenerFactory());
+    viewProcessor.setMarketDataWaitPolicy(getMarketDataWaitPolicy());
+    viewProcessor.setMarketDataTimeoutMillis(getMarketDataTimeoutMillis());
+    viewProcessor.setListenerQueueCapacity(getListenerQueueCapacity());
+    viewProcessor.setListenerOverflowPolicy(getListenerOverflowPolicy());
+    return viewProcessor;
   }
 
   public void setViewResultListenerFactory(ViewResultListenerFactory viewResultListenerFactory) {
@@ -38,16 +38,21 @@ import com.opengamma.engine.view.cache.ViewComputationCacheSource;
 import com.opengamma.engine.view.calc.DependencyGraphExecutorFactory;
 import com.opengamma.engine.view.calc.EngineResourceManagerImpl;
 import com.opengamma.engine.view.calc.EngineResourceManagerInternal;
+import com.opengamma.engine.view.calc.MarketDataWaitPolicy;
 import com.opengamma.engine.view.calc.SingleComputationCycle;
+import com.opengamma.engine.view.calc.ViewComputationJob;
 import com.opengamma.engine.view.calc.ViewResultListenerFactory;
 import com.opengamma.engine.view.calc.stats.GraphExecutorStatisticsGathererProvider;
 import com.opengamma.engine.view.calcnode.JobDispatcher;
 import com.opengamma.engine.view.calcnode.ViewProcessorQueryReceiver;
 import com.opengamma.engine.view.client.ViewClient;
 import com.opengamma.engine.view.client.ViewClientImpl;
+import com.opengamma.engine.view.client.ViewResultMode;
 import com.opengamma.engine.view.event.ViewProcessorEventListenerRegistry;
+import com.opengamma.engine.view.execution.ExecutionFocus;
 import com.opengamma.engine.view.execution.ViewExecutionFlags;
 import com.opengamma.engine.view.execution.ViewExecutionOptions;
+import com.opengamma.engine.view.listener.ListenerOverflowPolicy;
 import com.opengamma.engine.view.listener.ViewResultListener;
 import com.opengamma.engine.view.permission.ViewPermissionProvider;
 import com.opengamma.id.ObjectId;
@@ -112,6 +117,11 @@ public class ViewProcessorImpl implements ViewProcessorInternal {
    */
   private final ViewProcessorEventListenerRegistry _viewProcessorEventListenerRegistry = new ViewProcessorEventListenerRegistry();
 
+  private MarketDataWaitPolicy _marketDataWaitPolicy = MarketDataWaitPolicy.AWAIT_ALL;
+  private long _marketDataTimeoutMillis = ViewComputationJob.DEFAULT_MARKET_DATA_TIMEOUT_MILLIS;
+  private int _listenerQueueCapacity = ViewProcessImpl.DEFAULT_LISTENER_QUEUE_CAPACITY;
+  private ListenerOverflowPolicy _listenerOverflowPolicy = ListenerOverflowPolicy.MERGE;
+
   private boolean _isStarted;
   private boolean _isSuspended;
   
@@ -158,6 +168,82 @@ public class ViewProcessorImpl implements ViewProcessorInternal {
     return _name;
   }
 
+  /**
+   * Gets the policy new view processes use for waiting for market data subscriptions.
+   *
+   * @return the policy, not null
+   */
+  public MarketDataWaitPolicy getMarketDataWaitPolicy() {
+    return _marketDataWaitPolicy;
+  }
+
+  /**
+   * Sets the policy new view processes use for waiting for market data subscriptions.
+   *
+   * @param marketDataWaitPolicy  the policy, not null
+   */
+  public void setMarketDataWaitPolicy(MarketDataWaitPolicy marketDataWaitPolicy) {
+    ArgumentChecker.notNull(marketDataWaitPolicy, "marketDataWaitPolicy");
+    _marketDataWaitPolicy = marketDataWaitPolicy;
+  }
+
+  /**
+   * Gets the maximum time new view processes wait for market data before starting a cycle.
+   *
+   * @return the timeout in milliseconds
+   */
+  public long getMarketDataTimeoutMillis() {
+    return _marketDataTimeoutMillis;
+  }
+
+  /**
+   * Sets the maximum time new view processes wait for market data before starting a cycle.
+   *
+   * @param marketDataTimeoutMillis  the timeout in milliseconds, not negative
+   */
+  public void setMarketDataTimeoutMillis(long marketDataTimeoutMillis) {
+    ArgumentChecker.isTrue(marketDataTimeoutMillis >= 0, "marketDataTimeoutMillis must not be negative");
+    _marketDataTimeoutMillis = marketDataTimeoutMillis;
+  }
+
+  /**
+   * Gets the number of calls new view processes queue for each listener before the overflow policy applies.
+   *
+   * @return the capacity of each listener's queue
+   */
+  public int getListenerQueueCapacity() {
+    return _listenerQueueCapacity;
+  }
+
+  /**
+   * Sets the number of calls new view processes queue for each listener before the overflow policy applies.
+   *
+   * @param listenerQueueCapacity  the capacity of each listener's queue, at least 1
+   */
+  public void setListenerQueueCapacity(int listenerQueueCapacity) {
+    ArgumentChecker.isTrue(listenerQueueCapacity > 0, "listenerQueueCapacity must be positive");
+    _listenerQueueCapacity = listenerQueueCapacity;
+  }
+
+  /**
+   * Gets what new view processes do when a result is produced for a listener whose queue is full.
+   *
+   * @return the overflow policy, not null
+   */
+  public ListenerOverflowPolicy getListenerOverflowPolicy() {
+    return _listenerOverflowPolicy;
+  }
+
+  /**
+   * Sets what new view processes do when a result is produced for a listener whose queue is full.
+   *
+   * @param listenerOverflowPolicy  the overflow policy, not null
+   */
+  public void setListenerOverflowPolicy(ListenerOverflowPolicy listenerOverflowPolicy) {
+    ArgumentChecker.notNull(listenerOverflowPolicy, "listenerOverflowPolicy");
+    _listenerOverflowPolicy = listenerOverflowPolicy;
+  }
+
   @Override
   public ViewDefinitionRepository getViewDefinitionRepository() {
     return _viewDefinitionRepository;
@@ -286,6 +372,10 @@ public class ViewProcessorImpl implements ViewProcessorInternal {
       if (existingAttachment != null) {
         throw new IllegalStateException("View client " + client.getUniqueId() + " is already attached to view process " + existingAttachment.getFirst().getUniqueId());
       }
+      if (!client.getFragmentResultMode().equals(ViewResultMode.NONE)) {
+        // Set before attaching so that the first cycle produces fragments
+        process.setFragmentResultsRequired(listener, true);
+      }
       ViewPermissionProvider permissionProvider = process.attachListener(listener);
       _clientToProcess.put(client.getUniqueId(), processListenerPair);
       return permissionProvider;
@@ -341,13 +431,22 @@ public class ViewProcessorImpl implements ViewProcessorInternal {
       ObjectId cycleObjectId = ObjectId.of(CYCLE_SCHEME, idValue);
       ViewProcessContext viewProcessContext = createViewProcessContext();
       ViewProcessImpl viewProcess = new ViewProcessImpl(viewProcessId, definitionId, executionOptions, viewProcessContext, getViewCycleManager(), cycleObjectId);
+      viewProcess.setMarketDataWaitPolicy(getMarketDataWaitPolicy());
+      viewProcess.setMarketDataTimeoutMillis(getMarketDataTimeoutMillis());
+      viewProcess.setListenerQueueCapacity(getListenerQueueCapacity());
+      viewProcess.setListenerOverflowPolicy(getListenerOverflowPolicy());
 
       // If executing in batch mode then attach a special listener to write incoming results into the batch db
       if (executionOptions.getFlags().contains(ViewExecutionFlags.BATCH)) {
         if (_viewResultListenerFactory == null) {
           throw new IllegalStateException("Batch mode requires a ViewResultListenerFactory");
         }
-        viewProcess.attachListener(_viewResultListenerFactory.createViewResultListener());
+        final ViewResultListener batchListener = _viewResultListenerFactory.createViewResultListener();
+        // The batch writer stores job results as they arrive
+        viewProcess.setFragmentResultsRequired(batchListener, true);
+        // Every cycle must be written so full results are never merged or dropped; once the queue is full, fragments of
+        // the current cycle are merged instead. Blocking would stall the process while holding its lock.
+        viewProcess.attachListener(batchListener, getListenerQueueCapacity(), ListenerOverflowPolicy.MERGE_FRAGMENTS);
       }
       
       // The view must be created in a locked state if this view processor is suspended
@@ -432,6 +531,48 @@ public class ViewProcessorImpl implements ViewProcessorInternal {
     getClientViewProcess(clientId).triggerCycle();
   }
   
+  /**
+   * Sets whether a client wants cycle fragment results.
+   * 
+   * @param clientId  the unique identifier of the client, not null
+   * @param fragmentResultsRequired  whether the client wants cycle fragment results
+   * @throws IllegalStateException if the client is not associated with a view process
+   */
+  public void setFragmentResultsRequired(UniqueId clientId, boolean fragmentResultsRequired) {
+    checkIdScheme(clientId, CLIENT_SCHEME);
+    _processLock.lock();
+    try {
+      Pair<ViewProcessImpl, ViewResultListener> clientAttachment = _clientToProcess.get(clientId);
+      if (clientAttachment == null) {
+        throw new IllegalStateException("Client " + clientId + " is not attached to a view process");
+      }
+      clientAttachment.getFirst().setFragmentResultsRequired(clientAttachment.getSecond(), fragmentResultsRequired);
+    } finally {
+      _processLock.unlock();
+    }
+  }
+  
+  /**
+   * Sets the values of the view process which a client is interested in.
+   * 
+   * @param clientId  the unique identifier of the client, not null
+   * @param executionFocus  the focus, or null if the client is interested in the whole view
+   * @throws IllegalStateException if the client is not associated with a view process
+   */
+  public void setExecutionFocus(UniqueId clientId, ExecutionFocus executionFocus) {
+    checkIdScheme(clientId, CLIENT_SCHEME);
+    _processLock.lock();
+    try {
+      Pair<ViewProcessImpl, ViewResultListener> clientAttachment = _clientToProcess.get(clientId);
+      if (clientAttachment == null) {
+        throw new IllegalStateException("Client " + clientId + " is not attached to a view process");
+      }
+      clientAttachment.getFirst().setExecutionFocus(clientAttachment.getSecond(), executionFocus);
+    } finally {
+      _processLock.unlock();
+    }
+  }
+  
   /**
    * Gets the version-correction for which the view process associated with a client is running.
    * 
@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.calc;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.opengamma.engine.value.ValueRequirement;
+
+/**
+ * Tracks the state of the market data subscriptions made for a view process.
+ * <p>
+ * A subscription is <i>pending</i> from when it is requested until the market data provider confirms or rejects it.
+ * Callers can wait for pending subscriptions to complete; any still outstanding when the wait times out are marked
+ * as <i>late</i> and not waited for again. Requirements which are late or whose subscription failed are reported as
+ * missing until they are confirmed or removed.
+ * <p>
+ * This class is thread-safe; subscription results are typically reported on market data provider threads.
+ */
+public class MarketDataSubscriptionTracker {
+
+  private final Set<ValueRequirement> _pending = new HashSet<ValueRequirement>();
+  private final Set<ValueRequirement> _late = new HashSet<ValueRequirement>();
+  private final Set<ValueRequirement> _failed = new HashSet<ValueRequirement>();
+
+  /**
+   * Records subscriptions as requested. This must be called before the subscription is made to avoid missing an
+   * immediate response from the market data provider.
+   *
+   * @param requirements the requested subscriptions, not null
+   */
+  public synchronized void requested(final Collection<ValueRequirement> requirements) {
+    for (ValueRequirement requirement : requirements) {
+      _failed.remove(requirement);
+      _late.remove(requirement);
+      _pending.add(requirement);
+    }
+  }
+
+  /**
+   * Records a subscription as successful.
+   *
+   * @param requirement the requirement, not null
+   */
+  public synchronized void succeeded(final ValueRequirement requirement) {
+    _late.remove(requirement);
+    _failed.remove(requirement);
+    if (_pending.remove(requirement) && _pending.isEmpty()) {
+      notifyAll();
+    }
+  }
+
+  /**
+   * Records a subscription as failed.
+   *
+   * @param requirement the requirement, not null
+   */
+  public synchronized void failed(final ValueRequirement requirement) {
+    final boolean wasPending = _pending.remove(requirement);
+    if (wasPending || _late.remove(requirement)) {
+      _failed.add(requirement);
+      if (wasPending && _pending.isEmpty()) {
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Stops tracking subscriptions that are no longer required.
+   *
+   * @param requirements the requirements, not null
+   */
+  public synchronized void removed(final Collection<ValueRequirement> requirements) {
+    _pending.removeAll(requirements);
+    _late.removeAll(requirements);
+    _failed.removeAll(requirements);
+    if (_pending.isEmpty()) {
+      notifyAll();
+    }
+  }
+
+  /**
+   * Stops tracking all subscriptions.
+   */
+  public synchronized void clear() {
+    _pending.clear();
+    _late.clear();
+    _failed.clear();
+    notifyAll();
+  }
+
+  /**
+   * Waits for pending subscriptions to complete. Any still pending after the timeout are marked as late.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout, not null
+   * @return true if all pending subscriptions completed, false if the wait timed out
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public synchronized boolean await(final long timeout, final TimeUnit unit) throws InterruptedException {
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    try {
+      while (!_pending.isEmpty()) {
+        final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remaining <= 0) {
+          return false;
+        }
+        wait(remaining);
+      }
+      return true;
+    } finally {
+      expire();
+    }
+  }
+
+  /**
+   * Marks any pending subscriptions as late so that they will not be waited for.
+   */
+  public synchronized void expire() {
+    _late.addAll(_pending);
+    _pending.clear();
+  }
+
+  /**
+   * Gets the number of subscriptions that have been requested and not yet confirmed or rejected.
+   *
+   * @return the number of pending or late subscriptions
+   */
+  public synchronized int getOutstandingCount() {
+    return _pending.size() + _late.size();
+  }
+
+  /**
+   * Gets the number of subscriptions that have been rejected.
+   *
+   * @return the number of failed subscriptions
+   */
+  public synchronized int getFailedCount() {
+    return _failed.size();
+  }
+
+  /**
+   * Gets the number of requirements for which market data is not expected to be available; those outstanding or
+   * failed.
+   *
+   * @return the number of missing requirements
+   */
+  public synchronized int getMissingCount() {
+    return _pending.size() + _late.size() + _failed.size();
+  }
+
+}
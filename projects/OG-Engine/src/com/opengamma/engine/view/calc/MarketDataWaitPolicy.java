@@ -0,0 +1,28 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.calc;
+
+/**
+ * Controls whether a computation cycle waits for outstanding market data subscriptions before it starts.
+ */
+public enum MarketDataWaitPolicy {
+
+  /**
+   * Each cycle waits, up to the market data timeout, for all subscriptions that have been requested but not yet
+   * confirmed. Subscriptions still outstanding after the timeout are not waited for again.
+   */
+  AWAIT_ALL,
+  /**
+   * Only the first cycle of the view process waits for outstanding subscriptions. Later cycles, including those after
+   * a recompilation, start with whatever market data is available.
+   */
+  AWAIT_FIRST_CYCLE,
+  /**
+   * Cycles never wait; they start with whatever market data is available.
+   */
+  START_WITH_PARTIAL
+
+}
@@ -49,6 +49,7 @@ import com.opengamma.engine.marketdata.OverrideOperation;
 import com.opengamma.engine.value.ComputedValue;
 import com.opengamma.engine.value.ValueRequirement;
 import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.ColumnarViewComputationResultModel;
 import com.opengamma.engine.view.InMemoryViewComputationResultModel;
 import com.opengamma.engine.view.ViewCalculationConfiguration;
 import com.opengamma.engine.view.ViewComputationResultModel;
@@ -62,6 +63,7 @@ import com.opengamma.engine.view.calc.stats.GraphExecutorStatisticsGatherer;
 import com.opengamma.engine.view.calcnode.CalculationJobResultItem;
 import com.opengamma.engine.view.calcnode.MissingInput;
 import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphsImpl;
+import com.opengamma.engine.view.execution.ExecutionFocus;
 import com.opengamma.engine.view.execution.ViewCycleExecutionOptions;
 import com.opengamma.engine.view.listener.ComputationResultListener;
 import com.opengamma.id.UniqueId;
@@ -83,6 +85,17 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
    */
   public static final String MARKET_DATA_SHIFT_PROPERTY = "MARKET_DATA_SHIFT";
 
+  /**
+   * The number of terminal output values which will be held back from streaming listeners before a fragment is sent.
+   */
+  private static final int FRAGMENT_BATCH_SIZE = 1000;
+
+  /**
+   * The longest time, in milliseconds, that terminal output values will be held back from streaming listeners before
+   * a fragment is sent. The first values of a cycle are never held back.
+   */
+  private static final long FRAGMENT_BATCH_PERIOD_MILLIS = 500;
+
   private enum NodeStateFlag {
     /**
      * Node was executed successfully.
@@ -95,7 +108,11 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
     /**
      * Node was not executed because of function blacklist suppression.
      */
-    SUPPRESSED;
+    SUPPRESSED,
+    /**
+     * Node was not executed because it is outside the execution focus; its values were copied from the previous cycle.
+     */
+    DEFERRED;
   };
 
   // Injected inputs
@@ -105,6 +122,7 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
   private final CompiledViewDefinitionWithGraphsImpl _compiledViewDefinition;
   private final ViewCycleExecutionOptions _executionOptions;
   private final VersionCorrection _versionCorrection;
+  private final ExecutionFocus _executionFocus;
 
   private final ComputationResultListener _cycleFragmentResultListener;
   private final DependencyGraphExecutor<?> _dependencyGraphExecutor;
@@ -118,16 +136,39 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
   private final Map<DependencyNode, NodeStateFlag> _nodeStates = new ConcurrentHashMap<DependencyNode, NodeStateFlag>();
   private final Map<String, ViewComputationCache> _cachesByCalculationConfiguration = new HashMap<String, ViewComputationCache>();
 
+  // Set by a delta cycle once the values unchanged from the previous cycle have been copied
+  private volatile UniqueId _previousCycleId;
+  private volatile Map<String, Set<ValueSpecification>> _changedOutputs;
+
   // Output
-  private final InMemoryViewComputationResultModel _resultModel;
+  private final ColumnarViewComputationResultModel _resultModel;
+
+  // Fragment streaming - only accessed by the calculation job result consumer, then by the executing thread once the
+  // consumer has finished
+  private InMemoryViewComputationResultModel _pendingFragment;
+  private int _pendingFragmentSize;
+  private long _lastFragmentTime;
 
   public SingleComputationCycle(UniqueId cycleId, UniqueId viewProcessId,
       ComputationResultListener cycleFragmentResultListener, ViewProcessContext viewProcessContext,
       CompiledViewDefinitionWithGraphsImpl compiledViewDefinition, ViewCycleExecutionOptions executionOptions,
       VersionCorrection versionCorrection) {
+    this(cycleId, viewProcessId, cycleFragmentResultListener, viewProcessContext, compiledViewDefinition, executionOptions, versionCorrection, null);
+  }
+
+  /**
+   * Constructs an instance which, if executed as a delta cycle, only recalculates the values in an execution focus.
+   * Any other value whose inputs have changed keeps its value from the previous cycle.
+   * <p>
+   * If no fragment listener is given then result fragments are not produced at all, so a cycle which nobody is
+   * streaming from does none of the work.
+   */
+  public SingleComputationCycle(UniqueId cycleId, UniqueId viewProcessId,
+      ComputationResultListener cycleFragmentResultListener, ViewProcessContext viewProcessContext,
+      CompiledViewDefinitionWithGraphsImpl compiledViewDefinition, ViewCycleExecutionOptions executionOptions,
+      VersionCorrection versionCorrection, ExecutionFocus executionFocus) {
     ArgumentChecker.notNull(cycleId, "cycleId");
     ArgumentChecker.notNull(viewProcessId, "viewProcessId");
-    ArgumentChecker.notNull(cycleFragmentResultListener, "cycleFragmentResultListener");
     ArgumentChecker.notNull(viewProcessContext, "viewProcessContext");
     ArgumentChecker.notNull(compiledViewDefinition, "compiledViewDefinition");
     ArgumentChecker.notNull(executionOptions, "executionOptions");
@@ -139,11 +180,21 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
     _cycleFragmentResultListener = cycleFragmentResultListener;
     _executionOptions = executionOptions;
     _versionCorrection = versionCorrection;
-    _resultModel = constructTemplateResultModel();
+    _executionFocus = executionFocus;
+    _resultModel = constructResultModel();
     _dependencyGraphExecutor = getViewProcessContext().getDependencyGraphExecutorFactory().createExecutor(this);
     _statisticsGatherer = getViewProcessContext().getGraphExecutorStatisticsGathererProvider().getStatisticsGatherer(getViewProcessId());
   }
 
+  private ColumnarViewComputationResultModel constructResultModel() {
+    ColumnarViewComputationResultModel result = new ColumnarViewComputationResultModel(getCompiledViewDefinition().getResultModelLayout());
+    result.setViewCycleId(getCycleId());
+    result.setViewProcessId(getViewProcessId());
+    result.setValuationTime(getExecutionOptions().getValuationTime());
+    result.setVersionCorrection(getVersionCorrection());
+    return result;
+  }
+
   private InMemoryViewComputationResultModel constructTemplateResultModel() {
     InMemoryViewComputationResultModel result = new InMemoryViewComputationResultModel();
     result.setViewCycleId(getCycleId());
@@ -162,6 +213,15 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
     return _executionOptions;
   }
 
+  /**
+   * Gets the values which a delta cycle recalculates.
+   * 
+   * @return the focus, or null if the whole view is recalculated
+   */
+  public ExecutionFocus getExecutionFocus() {
+    return _executionFocus;
+  }
+
   public long getFunctionInitId() {
     return getCompiledViewDefinition().getFunctionInitId();
   }
@@ -211,6 +271,27 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
     return new HashSet<String>(getCompiledViewDefinition().getViewDefinition().getAllCalculationConfigurationNames());
   }
 
+  /**
+   * Gets the identifier of the previous cycle from which this one was executed as a delta, once the values unchanged
+   * from that cycle have been copied.
+   * 
+   * @return the previous cycle identifier, null if this is a full cycle or the delta has not yet been computed
+   */
+  public UniqueId getPreviousCycleId() {
+    return _previousCycleId;
+  }
+
+  /**
+   * Gets the values, by calculation configuration, which may differ from the previous cycle. Any value not included
+   * was copied unchanged from the previous cycle. This is available once the values have been copied, so before any
+   * values are calculated.
+   * 
+   * @return the values which may have changed, null if this is a full cycle or the delta has not yet been computed
+   */
+  public Map<String, Set<ValueSpecification>> getChangedOutputs() {
+    return _changedOutputs;
+  }
+
   //-------------------------------------------------------------------------
   private UniqueId getCycleId() {
     return _cycleId;
@@ -255,7 +336,7 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
   }
 
   @Override
-  public InMemoryViewComputationResultModel getResultModel() {
+  public ColumnarViewComputationResultModel getResultModel() {
     return _resultModel;
   }
 
@@ -356,6 +437,10 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
     } catch (ExecutionException e) {
       Thread.currentThread().interrupt();
     }
+    if (isStreamingFragments()) {
+      // Anything still held back is sent ahead of the full result
+      flushPendingFragment();
+    }
 
     populateResultModel();
     _state = ViewCycleState.EXECUTED;
@@ -395,7 +480,7 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
     Map<ValueRequirement, ValueSpecification> marketDataRequirements = getCompiledViewDefinition().getMarketDataRequirements();
     s_logger.debug("Populating {} market data items using snapshot {}", marketDataRequirements.size(), snapshot);
     Map<ViewComputationCache, OverrideOperation> cacheMarketDataOperation = getCacheMarketDataOperation();
-    InMemoryViewComputationResultModel marketDataResultFragment = constructTemplateResultModel();
+    InMemoryViewComputationResultModel marketDataResultFragment = isStreamingFragments() ? constructTemplateResultModel() : null;
     final Map<ValueRequirement, Object> marketDataValues = snapshot.query(marketDataRequirements.keySet());
     for (Map.Entry<ValueRequirement, ValueSpecification> marketDataRequirement : marketDataRequirements.entrySet()) {
       // REVIEW 2010-10-22 Andrew
@@ -414,14 +499,18 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
 
         // REVIEW jonathan 2011-11-17 -- do we really need to include all market data in the result by default?
         getResultModel().addMarketData(dataAsValue);
-        addMarketDataToResultFragment(marketDataResultFragment, marketDataRequirement.getValue(), dataAsValue);
+        if (marketDataResultFragment != null) {
+          addMarketDataToResultFragment(marketDataResultFragment, marketDataRequirement.getValue(), dataAsValue);
+        }
       }
       addToAllCaches(marketDataRequirement.getKey(), dataAsValue, cacheMarketDataOperation);
     }
     if (!missingMarketData.isEmpty()) {
       s_logger.info("Missing {} market data elements: {}", missingMarketData.size(), formatMissingLiveData(missingMarketData));
     }
-    notifyFragmentCompleted(marketDataResultFragment);
+    if (marketDataResultFragment != null) {
+      notifyFragmentCompleted(marketDataResultFragment);
+    }
   }
 
   private static String formatMissingLiveData(Set<ValueSpecification> missingLiveData) {
@@ -475,6 +564,7 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
    * <ul>
    * <li>Copy over all values that can be demonstrated to be the same from the previous iteration (because no input has changed)
    * <li>Only recompute the values that could have changed based on live data inputs
+   * <li>If there is an execution focus, copy over the previous values for anything outside it rather than recomputing them
    * </ul>
    * 
    * @param previousCycle Previous iteration. It must not have been cleaned yet ({@link #releaseResources()}).
@@ -483,7 +573,8 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
     if (previousCycle.getState() != ViewCycleState.EXECUTED) {
       throw new IllegalArgumentException("State of previous cycle must be " + ViewCycleState.EXECUTED);
     }
-    InMemoryViewComputationResultModel deltaResultFragment = constructTemplateResultModel();
+    InMemoryViewComputationResultModel deltaResultFragment = isStreamingFragments() ? constructTemplateResultModel() : null;
+    final Map<String, Set<ValueSpecification>> changedOutputsByConfig = new HashMap<String, Set<ValueSpecification>>();
     for (String calcConfigurationName : getAllCalculationConfigurationNames()) {
       final DependencyGraph depGraph = getCompiledViewDefinition().getDependencyGraph(calcConfigurationName);
       ViewComputationCache cache = getComputationCache(calcConfigurationName);
@@ -492,25 +583,52 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
       deltaCalculator.computeDelta();
       s_logger.info("Computed delta for calculation configuration '{}'. {} nodes out of {} require recomputation.",
           new Object[] {calcConfigurationName, deltaCalculator.getChangedNodes().size(), depGraph.getSize() });
+      final Set<DependencyNode> liveNodes = getLiveNodes(depGraph, previousCycle, deltaCalculator);
+      final Set<ValueSpecification> changedOutputs = new HashSet<ValueSpecification>();
       Collection<ValueSpecification> specsToCopy = new LinkedList<ValueSpecification>();
       Collection<ComputedValue> errors = new LinkedList<ComputedValue>();
+      int deferred = 0;
+      for (DependencyNode changedNode : deltaCalculator.getChangedNodes()) {
+        if ((liveNodes == null) || liveNodes.contains(changedNode)) {
+          changedOutputs.addAll(changedNode.getOutputValues());
+        } else {
+          // Outside the focus, so keep the previous values until the next full cycle
+          setNodeState(changedNode, NodeStateFlag.DEFERRED);
+          specsToCopy.addAll(changedNode.getOutputValues());
+          deferred++;
+        }
+      }
       for (DependencyNode unchangedNode : deltaCalculator.getUnchangedNodes()) {
         final NodeStateFlag nodeState = previousCycle.getNodeState(unchangedNode);
-        if (nodeState != null) {
+        if ((nodeState == NodeStateFlag.DEFERRED) && ((liveNodes == null) || liveNodes.contains(unchangedNode))) {
+          // Previous values are out of date and are now needed
+          changedOutputs.addAll(unchangedNode.getOutputValues());
+        } else if (nodeState != null) {
           setNodeState(unchangedNode, nodeState);
-          if (nodeState == NodeStateFlag.EXECUTED) {
+          if ((nodeState == NodeStateFlag.EXECUTED) || (nodeState == NodeStateFlag.DEFERRED)) {
             specsToCopy.addAll(unchangedNode.getOutputValues());
           } else {
+            changedOutputs.addAll(unchangedNode.getOutputValues());
             for (ValueSpecification outputValue : unchangedNode.getOutputValues()) {
               errors.add(new ComputedValue(outputValue, NotCalculatedSentinel.SUPPRESSED));
             }
           }
+        } else {
+          // Not executed by the previous cycle so will be executed by this one
+          changedOutputs.addAll(unchangedNode.getOutputValues());
         }
       }
+      if (deferred > 0) {
+        s_logger.info("Deferred {} nodes outside the execution focus for calculation configuration '{}'", deferred, calcConfigurationName);
+      }
+      changedOutputsByConfig.put(calcConfigurationName, Collections.unmodifiableSet(changedOutputs));
       if (!specsToCopy.isEmpty()) {
-        for (ComputedValue value : copyValues(cache, previousCache, specsToCopy)) {
-          if (depGraph.getTerminalOutputSpecifications().contains(value.getSpecification())) {
-            deltaResultFragment.addValue(calcConfigurationName, value);
+        final Collection<ComputedValue> copiedValues = copyValues(cache, previousCache, specsToCopy);
+        if (deltaResultFragment != null) {
+          for (ComputedValue value : copiedValues) {
+            if (depGraph.getTerminalOutputSpecifications().contains(value.getSpecification())) {
+              deltaResultFragment.addValue(calcConfigurationName, value);
+            }
           }
         }
       }
@@ -518,11 +636,56 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
         cache.putSharedValues(errors);
       }
     }
-    if (!deltaResultFragment.getAllResults().isEmpty()) {
+    _changedOutputs = Collections.unmodifiableMap(changedOutputsByConfig);
+    _previousCycleId = previousCycle.getUniqueId();
+    if ((deltaResultFragment != null) && !deltaResultFragment.getAllResults().isEmpty()) {
       notifyFragmentCompleted(deltaResultFragment);
     }
   }
 
+  /**
+   * Determines the nodes which a delta cycle must bring up to date: those producing the values in the execution focus,
+   * plus any which will be executed whatever the focus, together with all of their inputs. Nothing outside this set
+   * can be an input to a node which is executed, so no node is ever executed from a deferred value.
+   * 
+   * @return the nodes to bring up to date, or null if there is no focus and every node must be
+   */
+  private Set<DependencyNode> getLiveNodes(final DependencyGraph depGraph, final SingleComputationCycle previousCycle, final LiveDataDeltaCalculator deltaCalculator) {
+    if (getExecutionFocus() == null) {
+      return null;
+    }
+    final DependencyNodeFilter focusFilter = getExecutionFocus().createNodeFilter(depGraph);
+    final Set<DependencyNode> liveNodes = new HashSet<DependencyNode>();
+    final LinkedList<DependencyNode> pending = new LinkedList<DependencyNode>();
+    for (DependencyNode node : depGraph.getDependencyNodes()) {
+      if (focusFilter.accept(node)) {
+        liveNodes.add(node);
+      }
+    }
+    for (DependencyNode changedNode : deltaCalculator.getChangedNodes()) {
+      final NodeStateFlag nodeState = previousCycle.getNodeState(changedNode);
+      if ((nodeState != NodeStateFlag.EXECUTED) && (nodeState != NodeStateFlag.DEFERRED)) {
+        // No previous value to keep
+        pending.add(changedNode);
+      } else if (changedNode.getFunction().getFunction() instanceof MarketDataSourcingFunction) {
+        // The new market data value is already in the cache
+        liveNodes.add(changedNode);
+      }
+    }
+    for (DependencyNode unchangedNode : deltaCalculator.getUnchangedNodes()) {
+      if (previousCycle.getNodeState(unchangedNode) == null) {
+        pending.add(unchangedNode);
+      }
+    }
+    while (!pending.isEmpty()) {
+      final DependencyNode node = pending.removeFirst();
+      if (liveNodes.add(node)) {
+        pending.addAll(node.getInputNodes());
+      }
+    }
+    return liveNodes;
+  }
+
   private Collection<ComputedValue> copyValues(ViewComputationCache cache, ViewComputationCache previousCache, Collection<ValueSpecification> specsToCopy) {
     Collection<Pair<ValueSpecification, Object>> valuesToCopy = previousCache.getValues(specsToCopy);
     Collection<ComputedValue> newValues = new ArrayList<ComputedValue>(valuesToCopy.size());
@@ -547,29 +710,60 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
   }
 
   private void populateResultModel(DependencyGraph depGraph) {
-    ViewComputationCache computationCache = getComputationCache(depGraph.getCalculationConfigurationName());
-    for (Pair<ValueSpecification, Object> value : computationCache.getValues(getOutputSpecificationsForResultModel(depGraph), CacheSelectHint.allShared())) {
+    final String calcConfigurationName = depGraph.getCalculationConfigurationName();
+    ViewComputationCache computationCache = getComputationCache(calcConfigurationName);
+    final ColumnarViewComputationResultModel resultModel = getResultModel();
+    for (Pair<ValueSpecification, Object> value : computationCache.getValues(resultModel.getLayout().getSpecifications(calcConfigurationName), CacheSelectHint.allShared())) {
       if (value.getValue() == null) {
         continue;
       }
       if (value.getValue() instanceof MissingInput) {
         continue;
       }
-      getResultModel().addValue(depGraph.getCalculationConfigurationName(), new ComputedValue(value.getFirst(), value.getSecond()));
+      resultModel.setValue(calcConfigurationName, value.getFirst(), value.getSecond());
     }
   }
 
+  private boolean isStreamingFragments() {
+    return _cycleFragmentResultListener != null;
+  }
+
+  /**
+   * Adds the terminal outputs from completed calculation jobs to the pending result fragment. The fragment is sent to
+   * the listener once it is large enough, or has been pending for long enough, so that a big view streams a few large
+   * fragments rather than one per job batch.
+   * 
+   * @param results  the completed calculation jobs, not null
+   */
   /*package*/void calculationJobsCompleted(List<ExecutionResult> results) {
+    if (!isStreamingFragments()) {
+      return;
+    }
     try {
-      ViewComputationResultModel fragmentResult = generateCycleFragmentResult(results);
-      if (fragmentResult != null) {
-        notifyFragmentCompleted(fragmentResult);
+      if (_pendingFragment == null) {
+        _pendingFragment = constructTemplateResultModel();
+      }
+      _pendingFragmentSize += addToCycleFragmentResult(_pendingFragment, results);
+      final long now = System.currentTimeMillis();
+      if ((_pendingFragmentSize >= FRAGMENT_BATCH_SIZE) || (now - _lastFragmentTime >= FRAGMENT_BATCH_PERIOD_MILLIS)) {
+        _lastFragmentTime = now;
+        flushPendingFragment();
       }
     } catch (Exception e) {
       s_logger.warn("Error forming cycle fragment result after calculation jobs completed: " + results, e);
     }
   }
 
+  private void flushPendingFragment() {
+    final InMemoryViewComputationResultModel fragmentResult = _pendingFragment;
+    final int fragmentSize = _pendingFragmentSize;
+    _pendingFragment = null;
+    _pendingFragmentSize = 0;
+    if (fragmentSize > 0) {
+      notifyFragmentCompleted(fragmentResult);
+    }
+  }
+
   private void notifyFragmentCompleted(ViewComputationResultModel fragmentResult) {
     try {
       _cycleFragmentResultListener.resultAvailable(fragmentResult);
@@ -578,11 +772,20 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
     }
   }
 
-  private ViewComputationResultModel generateCycleFragmentResult(List<ExecutionResult> calculationJobResults) {
-    InMemoryViewComputationResultModel resultModel = constructTemplateResultModel();
+  /**
+   * Adds the terminal outputs produced by completed calculation jobs to a result fragment. Only the terminal outputs
+   * are fetched from the cache; intermediate values are never touched.
+   * 
+   * @param resultModel  the fragment to add to, not null
+   * @param calculationJobResults  the completed calculation jobs, not null
+   * @return the number of values added
+   */
+  private int addToCycleFragmentResult(final InMemoryViewComputationResultModel resultModel, final List<ExecutionResult> calculationJobResults) {
+    int count = 0;
     for (ExecutionResult calculationJobResult : calculationJobResults) {
       String calcConfigurationName = calculationJobResult.getResult().getSpecification().getCalcConfigName();
       DependencyGraph depGraph = getCompiledViewDefinition().getDependencyGraph(calcConfigurationName);
+      final Map<ValueSpecification, Set<ValueRequirement>> terminalOutputs = depGraph.getTerminalOutputs();
       ViewComputationCache computationCache = getComputationCache(calcConfigurationName);
       final Iterator<CalculationJobResultItem> itrResultItem = calculationJobResult.getResult().getResultItems().iterator();
       final Iterator<DependencyNode> itrNode = calculationJobResult.getNodes().iterator();
@@ -590,17 +793,16 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
         assert itrNode.hasNext();
         final CalculationJobResultItem resultItem = itrResultItem.next();
         final DependencyNode node = itrNode.next();
-        Set<ValueSpecification> specifications = node.getOutputValues();
-        Map<ValueSpecification, Set<ValueRequirement>> requirements = submapByKeySet(depGraph.getTerminalOutputs(), specifications);
+        final Map<ValueSpecification, Set<ValueRequirement>> requirements = submapByKeySet(terminalOutputs, node.getOutputValues());
+        if (requirements.isEmpty()) {
+          // Nothing the client asked for
+          continue;
+        }
         resultModel.addRequirements(requirements);
-        for (Pair<ValueSpecification, Object> value : computationCache.getValues(specifications, CacheSelectHint.allShared())) {
+        for (Pair<ValueSpecification, Object> value : computationCache.getValues(requirements.keySet(), CacheSelectHint.allShared())) {
           final ValueSpecification valueSpec = value.getFirst();
           final Object calculatedValue = value.getSecond();
-          if ((calculatedValue == null) || !requirements.containsKey(valueSpec)) {
-            // Not in cache or not a terminal output
-            continue;
-          }
-          if (calculatedValue instanceof MissingMarketDataSentinel) {
+          if ((calculatedValue == null) || (calculatedValue instanceof MissingMarketDataSentinel)) {
             continue;
           }
           ComputedValue computedValue = new ComputedValue(valueSpec, calculatedValue);
@@ -609,13 +811,14 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
           computedValue.setExceptionClass(resultItem.getExceptionClass());
           computedValue.setExceptionMsg(resultItem.getExceptionMsg());
           computedValue.setStackTrace(resultItem.getStackTrace());
-          computedValue.setRequirements(depGraph.getTerminalOutputs().get(valueSpec));
+          computedValue.setRequirements(requirements.get(valueSpec));
           computedValue.setComputeNodeId(calculationJobResult.getResult().getComputeNodeId());
           resultModel.addValue(calcConfigurationName, computedValue);
+          count++;
         }
       }
     }
-    return !resultModel.getAllResults().isEmpty() ? resultModel : null;
+    return count;
   }
 
   private void addMarketDataToResultFragment(InMemoryViewComputationResultModel result, ValueSpecification marketDataSpecification, ComputedValue marketData) {
@@ -627,16 +830,6 @@ public class SingleComputationCycle implements ViewCycle, EngineResource {
     }
   }
 
-  private Set<ValueSpecification> getOutputSpecificationsForResultModel(DependencyGraph depGraph) {
-    Set<ValueSpecification> outputSpecifications = new HashSet<ValueSpecification>();
-    for (ValueSpecification valueSpecification : depGraph.getOutputSpecifications()) {
-      if (getViewDefinition().getResultModelDefinition().shouldOutputResult(valueSpecification, depGraph)) {
-        outputSpecifications.add(valueSpecification);
-      }
-    }
-    return outputSpecifications;
-  }
-
   /**
    * Returns the dependency graph used by this cycle for the given calculation configuration.
    * 
@@ -14,10 +14,11 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.time.Duration;
 import javax.time.Instant;
@@ -34,6 +35,7 @@ import com.opengamma.engine.depgraph.DependencyGraph;
 import com.opengamma.engine.marketdata.MarketDataListener;
 import com.opengamma.engine.marketdata.MarketDataProvider;
 import com.opengamma.engine.marketdata.MarketDataSnapshot;
+import com.opengamma.engine.marketdata.availability.MarketDataAvailability;
 import com.opengamma.engine.marketdata.availability.MarketDataAvailabilityProvider;
 import com.opengamma.engine.marketdata.spec.MarketDataSpecification;
 import com.opengamma.engine.value.ValueRequirement;
@@ -71,7 +73,14 @@ public class ViewComputationJob extends TerminatableJob implements MarketDataLis
   private static final Logger s_logger = LoggerFactory.getLogger(ViewComputationJob.class);
 
   private static final long NANOS_PER_MILLISECOND = 1000000;
-  private static final long MARKET_DATA_TIMEOUT_MILLIS = 10000;
+  /**
+   * The default time to wait for market data subscriptions before starting a cycle.
+   */
+  public static final long DEFAULT_MARKET_DATA_TIMEOUT_MILLIS = 10000;
+  /**
+   * How often market data discovered while compiling is subscribed to.
+   */
+  private static final long EARLY_SUBSCRIPTION_PERIOD_MILLIS = 100;
 
   private final ViewProcessImpl _viewProcess;
   private final ViewExecutionOptions _executionOptions;
@@ -87,8 +96,9 @@ public class ViewComputationJob extends TerminatableJob implements MarketDataLis
   private ViewDefinition _viewDefinition;
   private CompiledViewDefinitionWithGraphsImpl _latestCompiledViewDefinition;
   private final Set<ValueRequirement> _marketDataSubscriptions = new HashSet<ValueRequirement>();
-  private final Set<ValueRequirement> _pendingSubscriptions = Collections.newSetFromMap(new ConcurrentHashMap<ValueRequirement, Boolean>());
-  private CountDownLatch _pendingSubscriptionLatch;
+  private final MarketDataSubscriptionTracker _subscriptionTracker = new MarketDataSubscriptionTracker();
+  private boolean _awaitedInitialMarketData;
+  private volatile int _missingMarketDataAtCycleStart;
 
   private ChangeListener _viewDefinitionChangeListener;
 
@@ -257,9 +267,11 @@ public class ViewComputationJob extends TerminatableJob implements MarketDataLis
       return;
     }
 
+    awaitMarketDataSubscriptions();
+
     try {
       if (getExecutionOptions().getFlags().contains(ViewExecutionFlags.AWAIT_MARKET_DATA)) {
-        marketDataSnapshot.init(compiledViewDefinition.getMarketDataRequirements().keySet(), MARKET_DATA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        marketDataSnapshot.init(compiledViewDefinition.getMarketDataRequirements().keySet(), getViewProcess().getMarketDataTimeoutMillis(), TimeUnit.MILLISECONDS);
       } else {
         marketDataSnapshot.init();
       }
@@ -351,10 +363,10 @@ public class ViewComputationJob extends TerminatableJob implements MarketDataLis
     }
   }
 
-  private void cycleFragmentCompleted(ViewComputationResultModel result) {
+  private void cycleFragmentCompleted(ViewComputationResultModel result, SingleComputationCycle cycle) {
 
     try {
-      getViewProcess().cycleFragmentCompleted(result, getViewDefinition());
+      getViewProcess().cycleFragmentCompleted(result, getViewDefinition(), cycle);
     } catch (Exception e) {
       s_logger.error("Error notifying view process " + getViewProcess() + " of cycle fragment completion", e);
     }
@@ -552,14 +564,20 @@ public class ViewComputationJob extends TerminatableJob implements MarketDataLis
     }
     UniqueId cycleId = getViewProcess().generateCycleId();
 
-    ComputationResultListener streamingResultListener = new ComputationResultListener() {
-      @Override
-      public void resultAvailable(ViewComputationResultModel result) {
-        cycleFragmentCompleted(result);
-      }
-    };
+    final AtomicReference<SingleComputationCycle> cycleRef = new AtomicReference<SingleComputationCycle>();
+    // Fragments are only produced if a listener will receive them
+    ComputationResultListener streamingResultListener = null;
+    if (getViewProcess().isFragmentResultsRequired()) {
+      streamingResultListener = new ComputationResultListener() {
+        @Override
+        public void resultAvailable(ViewComputationResultModel result) {
+          cycleFragmentCompleted(result, cycleRef.get());
+        }
+      };
+    }
     SingleComputationCycle cycle = new SingleComputationCycle(cycleId, getViewProcess().getUniqueId(),
-        streamingResultListener, getProcessContext(), compiledViewDefinition, executionOptions, versionCorrection);
+        streamingResultListener, getProcessContext(), compiledViewDefinition, executionOptions, versionCorrection, getViewProcess().getExecutionFocus());
+    cycleRef.set(cycle);
     return getCycleManager().manage(cycle);
   }
 
@@ -587,18 +605,19 @@ public class ViewComputationJob extends TerminatableJob implements MarketDataLis
       return compiledViewDefinition;
     }
 
+    final SubscribingAvailabilityProvider availabilityProvider = new SubscribingAvailabilityProvider(getMarketDataProvider().getAvailabilityProvider());
     try {
-      MarketDataAvailabilityProvider availabilityProvider = getMarketDataProvider().getAvailabilityProvider();
       ViewCompilationServices compilationServices = getProcessContext().asCompilationServices(availabilityProvider);
       _compilationTask = ViewDefinitionCompiler.compileTask(_viewDefinition, compilationServices, valuationTime, versionCorrection);
       try {
         if (!isTerminated()) {
-          compiledViewDefinition = _compilationTask.get();
+          compiledViewDefinition = awaitCompilation(_compilationTask, availabilityProvider);
         } else {
           return null;
         }
       } finally {
         _compilationTask = null;
+        availabilityProvider.close();
       }
     } catch (Exception e) {
       String message = MessageFormat.format("Error compiling view definition {0} for time {1}", getViewProcess().getDefinitionId(), valuationTime);
@@ -629,6 +648,27 @@ public class ViewComputationJob extends TerminatableJob implements MarketDataLis
     return compiledViewDefinition;
   }
 
+  /**
+   * Waits for a compilation to complete, subscribing to market data as the graph builder finds it to be available.
+   * Subscriptions to data that the completed graph does not need are removed when the subscriptions are updated to
+   * match the compiled view.
+   */
+  private CompiledViewDefinitionWithGraphsImpl awaitCompilation(final Future<CompiledViewDefinitionWithGraphsImpl> compilationTask,
+      final SubscribingAvailabilityProvider availabilityProvider) throws Exception {
+    while (true) {
+      try {
+        return compilationTask.get(EARLY_SUBSCRIPTION_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        final Set<ValueRequirement> discovered = availabilityProvider.drain();
+        discovered.removeAll(_marketDataSubscriptions);
+        if (!discovered.isEmpty()) {
+          s_logger.debug("Subscribing to {} market data requirements found during compilation", discovered.size());
+          addMarketDataSubscriptions(discovered);
+        }
+      }
+    }
+  }
+
   /**
    * Gets the cached compiled view definition which may be re-used in subsequent computation cycles.
    * <p>
@@ -738,45 +778,66 @@ public class ViewComputationJob extends TerminatableJob implements MarketDataLis
   //-------------------------------------------------------------------------
   private void addMarketDataSubscriptions(final Set<ValueRequirement> requiredSubscriptions) {
     final OperationTimer timer = new OperationTimer(s_logger, "Adding {} market data subscriptions", requiredSubscriptions.size());
-    _pendingSubscriptions.addAll(requiredSubscriptions);
-    _pendingSubscriptionLatch = new CountDownLatch(requiredSubscriptions.size());
+    _subscriptionTracker.requested(requiredSubscriptions);
     getMarketDataProvider().subscribe(getViewDefinition().getMarketDataUser(), requiredSubscriptions);
     _marketDataSubscriptions.addAll(requiredSubscriptions);
-    try {
-      if (!_pendingSubscriptionLatch.await(MARKET_DATA_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
-        long remainingCount = _pendingSubscriptionLatch.getCount();
-        s_logger.warn("Timed out after {} ms waiting for market data subscriptions to be made. The market data " +
-            "snapshot used in the computation cycle could be incomplete. Still waiting for {} out of {} market data " +
-            "subscriptions",
-            new Object[] {MARKET_DATA_TIMEOUT_MILLIS, remainingCount, _marketDataSubscriptions.size() });
-      }
-    } catch (InterruptedException ex) {
-      s_logger.info("Interrupted while waiting for subscription results.");
-    } finally {
-      _pendingSubscriptions.clear();
-      _pendingSubscriptionLatch = null;
-    }
     timer.finished();
   }
 
-  private void removePendingSubscription(ValueRequirement requirement) {
-    CountDownLatch pendingSubscriptionLatch = _pendingSubscriptionLatch;
-    if (_pendingSubscriptions.remove(requirement) && pendingSubscriptionLatch != null) {
-      pendingSubscriptionLatch.countDown();
+  private void awaitMarketDataSubscriptions() {
+    final MarketDataWaitPolicy policy = getViewProcess().getMarketDataWaitPolicy();
+    if ((policy == MarketDataWaitPolicy.AWAIT_ALL) || ((policy == MarketDataWaitPolicy.AWAIT_FIRST_CYCLE) && !_awaitedInitialMarketData)) {
+      final long timeoutMillis = getViewProcess().getMarketDataTimeoutMillis();
+      try {
+        if (!_subscriptionTracker.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+          s_logger.warn("Timed out after {} ms waiting for market data subscriptions to be made. The market data " +
+              "snapshot used in the computation cycle could be incomplete. Still waiting for {} out of {} market data " +
+              "subscriptions",
+              new Object[] {timeoutMillis, _subscriptionTracker.getOutstandingCount(), _marketDataSubscriptions.size() });
+        }
+      } catch (InterruptedException ex) {
+        s_logger.info("Interrupted while waiting for subscription results.");
+      }
+      _awaitedInitialMarketData = true;
+    } else {
+      _subscriptionTracker.expire();
+    }
+    _missingMarketDataAtCycleStart = _subscriptionTracker.getMissingCount();
+    if (_missingMarketDataAtCycleStart > 0) {
+      s_logger.info("Starting cycle with {} of {} market data subscriptions missing", _missingMarketDataAtCycleStart, _marketDataSubscriptions.size());
     }
   }
 
   private void removeMarketDataSubscriptions() {
-    removeMarketDataSubscriptions(_marketDataSubscriptions);
+    removeMarketDataSubscriptions(new ArrayList<ValueRequirement>(_marketDataSubscriptions));
   }
 
   private void removeMarketDataSubscriptions(final Collection<ValueRequirement> unusedSubscriptions) {
     final OperationTimer timer = new OperationTimer(s_logger, "Removing {} market data subscriptions", unusedSubscriptions.size());
-    getMarketDataProvider().unsubscribe(getViewDefinition().getMarketDataUser(), _marketDataSubscriptions);
+    getMarketDataProvider().unsubscribe(getViewDefinition().getMarketDataUser(), new HashSet<ValueRequirement>(unusedSubscriptions));
     _marketDataSubscriptions.removeAll(unusedSubscriptions);
+    _subscriptionTracker.removed(unusedSubscriptions);
     timer.finished();
   }
 
+  /**
+   * Gets the number of market data subscriptions that were outstanding or had failed when the last cycle started.
+   *
+   * @return the number of missing market data subscriptions
+   */
+  public int getMissingMarketDataAtCycleStart() {
+    return _missingMarketDataAtCycleStart;
+  }
+
+  /**
+   * Gets the tracker of the state of this job's market data subscriptions.
+   *
+   * @return the subscription tracker, not null
+   */
+  public MarketDataSubscriptionTracker getMarketDataSubscriptionTracker() {
+    return _subscriptionTracker;
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public void subscriptionSucceeded(ValueRequirement requirement) {
@@ -784,13 +845,13 @@ public class ViewComputationJob extends TerminatableJob implements MarketDataLis
     // Can't tell in general whether this subscription message was relating to a subscription that we made or one that
     // a concurrent user of the MarketDataProvider made.
     s_logger.debug("Subscription succeeded: {}", requirement);
-    removePendingSubscription(requirement);
+    _subscriptionTracker.succeeded(requirement);
   }
 
   @Override
   public void subscriptionFailed(ValueRequirement requirement, String msg) {
     s_logger.debug("Market data subscription to {} failed. This market data may be missing from computation cycles.", requirement);
-    removePendingSubscription(requirement);
+    _subscriptionTracker.failed(requirement);
   }
 
   @Override
@@ -813,4 +874,41 @@ public class ViewComputationJob extends TerminatableJob implements MarketDataLis
     }
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Records the market data that the graph builder finds to be available so that it can be subscribed to before
+   * compilation completes.
+   */
+  private static final class SubscribingAvailabilityProvider implements MarketDataAvailabilityProvider {
+
+    private final MarketDataAvailabilityProvider _underlying;
+    private final Set<ValueRequirement> _discovered = Collections.newSetFromMap(new ConcurrentHashMap<ValueRequirement, Boolean>());
+    private volatile boolean _closed;
+
+    public SubscribingAvailabilityProvider(final MarketDataAvailabilityProvider underlying) {
+      _underlying = underlying;
+    }
+
+    @Override
+    public MarketDataAvailability getAvailability(final ValueRequirement requirement) {
+      final MarketDataAvailability availability = _underlying.getAvailability(requirement);
+      if (availability.isAvailable() && !_closed) {
+        _discovered.add(requirement);
+      }
+      return availability;
+    }
+
+    public Set<ValueRequirement> drain() {
+      final Set<ValueRequirement> discovered = new HashSet<ValueRequirement>(_discovered);
+      _discovered.removeAll(discovered);
+      return discovered;
+    }
+
+    public void close() {
+      _closed = true;
+      _discovered.clear();
+    }
+
+  }
+
 }
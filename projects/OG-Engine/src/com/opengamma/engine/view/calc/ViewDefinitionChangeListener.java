@@ -5,14 +5,18 @@
  */
 package com.opengamma.engine.view.calc;
 
+import java.util.List;
+
+import com.opengamma.core.change.BatchChangeListener;
 import com.opengamma.core.change.ChangeEvent;
-import com.opengamma.core.change.ChangeListener;
 import com.opengamma.id.UniqueId;
 
 /**
  * Change listener for a single view definition which notifies a computation job.
+ * <p>
+ * A batch of changes notifies the job at most once.
  */
-public class ViewDefinitionChangeListener implements ChangeListener {
+public class ViewDefinitionChangeListener implements BatchChangeListener {
 
   private final ViewComputationJob _computationJob;
   private final UniqueId _viewDefinitionId;
@@ -24,22 +28,36 @@ public class ViewDefinitionChangeListener implements ChangeListener {
 
   @Override
   public void entityChanged(ChangeEvent event) { 
+    if (isDefinitionChanged(event)) {
+      getViewComputationJob().dirtyViewDefinition();
+    }
+  }
+
+  @Override
+  public void entitiesChanged(List<ChangeEvent> events) {
+    for (ChangeEvent event : events) {
+      if (isDefinitionChanged(event)) {
+        getViewComputationJob().dirtyViewDefinition();
+        return;
+      }
+    }
+  }
+
+  private boolean isDefinitionChanged(ChangeEvent event) {
     if (getViewDefinitionId().isVersioned()) {
       // TODO: probably still interested in corrections, but would need to update the computation job with the new ID
       // Locked to a specific version
-      return;
+      return false;
     }
     if (event.getBeforeId() == null) {
       // View definition created 
-      return;
+      return false;
     }
     if (event.getAfterId() == null) {
       // View definition could have been deleted - do we want to stop the process?
-      return;
-    }
-    if (event.getBeforeId().getObjectId().equals(getViewDefinitionId().getObjectId())) {
-      getViewComputationJob().dirtyViewDefinition();
+      return false;
     }
+    return event.getBeforeId().getObjectId().equals(getViewDefinitionId().getObjectId());
   }
 
   private UniqueId getViewDefinitionId() {
@@ -12,6 +12,7 @@ import com.opengamma.engine.view.ViewProcessor;
 import com.opengamma.engine.view.calc.EngineResourceReference;
 import com.opengamma.engine.view.calc.ViewCycle;
 import com.opengamma.engine.view.compilation.CompiledViewDefinition;
+import com.opengamma.engine.view.execution.ExecutionFocus;
 import com.opengamma.engine.view.execution.ViewExecutionOptions;
 import com.opengamma.engine.view.listener.ViewResultListener;
 import com.opengamma.id.UniqueId;
@@ -218,6 +219,24 @@ public interface ViewClient extends UniqueIdentifiable {
    */
   void triggerCycle();
   
+  /**
+   * Gets the values this client is currently interested in.
+   * 
+   * @return the focus, or null if the client is interested in the whole view
+   */
+  ExecutionFocus getExecutionFocus();
+  
+  /**
+   * Sets the values this client is currently interested in, for example the cells a user can see. When every client
+   * of a view process has set a focus, delta cycles only recalculate the values in the union of those focuses and
+   * anything they depend on. Other values are left as they were and brought up to date by the next full cycle, so
+   * their refresh rate falls to the view's full calculation period. The focus may be set before or after attaching to
+   * a view process and is kept across attachments.
+   * 
+   * @param executionFocus  the focus, or null if the client is interested in the whole view
+   */
+  void setExecutionFocus(ExecutionFocus executionFocus);
+  
   /**
    * Gets whether the attached view process has completed from the perspective of the client. This is consistent with
    * any data flow restrictions being applied through this view client, so may occur after the process actually
@@ -27,6 +27,7 @@ import com.opengamma.engine.view.calc.EngineResourceRetainer;
 import com.opengamma.engine.view.calc.ViewCycle;
 import com.opengamma.engine.view.client.merging.RateLimitingMergingViewProcessListener;
 import com.opengamma.engine.view.compilation.CompiledViewDefinition;
+import com.opengamma.engine.view.execution.ExecutionFocus;
 import com.opengamma.engine.view.execution.ViewCycleExecutionOptions;
 import com.opengamma.engine.view.execution.ViewExecutionOptions;
 import com.opengamma.engine.view.listener.ViewResultListener;
@@ -73,6 +74,7 @@ public class ViewClientImpl implements ViewClient {
   private final RateLimitingMergingViewProcessListener _mergingViewProcessListener;
 
   private final AtomicReference<ViewResultListener> _userResultListener = new AtomicReference<ViewResultListener>();
+  private volatile ExecutionFocus _executionFocus;
 
   /**
    * Constructs an instance.
@@ -276,6 +278,9 @@ public class ViewClientImpl implements ViewClient {
 
   private void attachToViewProcessCore() {
     _isAttached.set(true);
+    if (_executionFocus != null) {
+      getViewProcessor().setExecutionFocus(getUniqueId(), _executionFocus);
+    }
     boolean isPaused = getState() == ViewClientState.PAUSED;
     _mergingViewProcessListener.setPaused(isPaused);
     _completionLatch = new CountDownLatch(1);
@@ -337,7 +342,16 @@ public class ViewClientImpl implements ViewClient {
 
   @Override
   public void setFragmentResultMode(ViewResultMode fragmentResultMode) {
-    _fragmentResultMode.set(fragmentResultMode);
+    _clientLock.lock();
+    try {
+      _fragmentResultMode.set(fragmentResultMode);
+      if (isAttached()) {
+        // The view process only produces fragments while somebody wants them
+        getViewProcessor().setFragmentResultsRequired(getUniqueId(), !fragmentResultMode.equals(ViewResultMode.NONE));
+      }
+    } finally {
+      _clientLock.unlock();
+    }
   }
 
   //-------------------------------------------------------------------------
@@ -374,6 +388,24 @@ public class ViewClientImpl implements ViewClient {
     getViewProcessor().triggerCycle(getUniqueId());
   }
 
+  @Override
+  public ExecutionFocus getExecutionFocus() {
+    return _executionFocus;
+  }
+
+  @Override
+  public void setExecutionFocus(ExecutionFocus executionFocus) {
+    _clientLock.lock();
+    try {
+      _executionFocus = executionFocus;
+      if (isAttached()) {
+        getViewProcessor().setExecutionFocus(getUniqueId(), executionFocus);
+      }
+    } finally {
+      _clientLock.unlock();
+    }
+  }
+
   @Override
   public boolean isCompleted() {
     // Race condition between checking attachment and operating on the latch is fine; if the client is being attached
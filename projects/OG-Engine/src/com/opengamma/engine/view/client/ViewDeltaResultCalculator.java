@@ -6,10 +6,12 @@
 package com.opengamma.engine.view.client;
 
 import java.util.Map;
+import java.util.Set;
 
 import com.opengamma.engine.ComputationTargetSpecification;
 import com.opengamma.engine.value.ComputedValue;
 import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.DeltaDefinition;
 import com.opengamma.engine.view.InMemoryViewDeltaResultModel;
 import com.opengamma.engine.view.ViewCalculationResultModel;
@@ -33,6 +35,74 @@ public class ViewDeltaResultCalculator {
    * @return  the delta between the two results, not null
    */
   public static ViewDeltaResultModel computeDeltaModel(ViewDefinition viewDefinition, ViewResultModel previousResult, ViewResultModel result) {
+    InMemoryViewDeltaResultModel deltaModel = createDeltaModel(previousResult, result);
+    for (ComputationTargetSpecification targetSpec : result.getAllTargets()) {
+      computeDeltaModel(viewDefinition, deltaModel, targetSpec, previousResult, result);
+    }
+    return deltaModel;
+  }
+
+  /**
+   * Computes the delta between an old and new result where the values which may have changed are already known, for
+   * example because the cycle producing the new result copied every other value from the cycle that produced the old
+   * one. Only the values which may have changed are compared.
+   * 
+   * @param viewDefinition  the view definition to which the results apply
+   * @param previousResult  the previous result, not null
+   * @param result  the new result
+   * @param changedValues  the values, by calculation configuration, which may differ from the previous result. A
+   *  calculation configuration which is not present is compared in full.
+   * @return  the delta between the two results, not null
+   */
+  public static ViewDeltaResultModel computeDeltaModel(ViewDefinition viewDefinition, ViewResultModel previousResult, ViewResultModel result,
+      Map<String, Set<ValueSpecification>> changedValues) {
+    InMemoryViewDeltaResultModel deltaModel = createDeltaModel(previousResult, result);
+    final int resultSize = result.getAllResults().size();
+    for (String calcConfigName : result.getCalculationConfigurationNames()) {
+      final DeltaDefinition deltaDefinition = viewDefinition.getCalculationConfiguration(calcConfigName).getDeltaDefinition();
+      final ViewCalculationResultModel resultCalcModel = result.getCalculationResult(calcConfigName);
+      final ViewCalculationResultModel previousCalcModel = previousResult.getCalculationResult(calcConfigName);
+      final Set<ValueSpecification> changedCalcConfigValues = changedValues.get(calcConfigName);
+      if ((changedCalcConfigValues == null) || (previousCalcModel == null)) {
+        for (ComputationTargetSpecification targetSpec : resultCalcModel.getAllTargets()) {
+          computeDeltaModel(deltaDefinition, deltaModel, targetSpec, calcConfigName, previousCalcModel, resultCalcModel);
+        }
+      } else if (changedCalcConfigValues.size() < resultSize) {
+        // Look up each of the changed values in the result
+        for (ValueSpecification changedValue : changedCalcConfigValues) {
+          final Map<Pair<String, ValueProperties>, ComputedValue> resultValues = resultCalcModel.getValues(changedValue.getTargetSpecification());
+          if (resultValues != null) {
+            final Pair<String, ValueProperties> key = Pair.of(changedValue.getValueName(), changedValue.getProperties());
+            final ComputedValue resultValue = resultValues.get(key);
+            if (resultValue != null) {
+              addIfDelta(deltaDefinition, deltaModel, calcConfigName, previousCalcModel, changedValue.getTargetSpecification(), key, resultValue);
+            }
+          }
+        }
+      } else {
+        // The result is smaller, e.g. a fragment, so check each of its values against the changed values
+        for (ComputationTargetSpecification targetSpec : resultCalcModel.getAllTargets()) {
+          for (Map.Entry<Pair<String, ValueProperties>, ComputedValue> resultEntry : resultCalcModel.getValues(targetSpec).entrySet()) {
+            if (changedCalcConfigValues.contains(resultEntry.getValue().getSpecification())) {
+              addIfDelta(deltaDefinition, deltaModel, calcConfigName, previousCalcModel, targetSpec, resultEntry.getKey(), resultEntry.getValue());
+            }
+          }
+        }
+      }
+    }
+    return deltaModel;
+  }
+
+  private static void addIfDelta(DeltaDefinition deltaDefinition, InMemoryViewDeltaResultModel deltaModel, String calcConfigName, ViewCalculationResultModel previousCalcModel,
+      ComputationTargetSpecification targetSpec, Pair<String, ValueProperties> key, ComputedValue resultValue) {
+    final Map<Pair<String, ValueProperties>, ComputedValue> previousValues = previousCalcModel.getValues(targetSpec);
+    final ComputedValue previousValue = previousValues != null ? previousValues.get(key) : null;
+    if (deltaDefinition.isDelta(previousValue, resultValue)) {
+      deltaModel.addValue(calcConfigName, resultValue);
+    }
+  }
+
+  private static InMemoryViewDeltaResultModel createDeltaModel(ViewResultModel previousResult, ViewResultModel result) {
     InMemoryViewDeltaResultModel deltaModel = new InMemoryViewDeltaResultModel();
     deltaModel.setValuationTime(result.getValuationTime());
     deltaModel.setCalculationTime(result.getCalculationTime());
@@ -44,9 +114,6 @@ public class ViewDeltaResultCalculator {
     if (previousResult != null) {
       deltaModel.setPreviousCalculationTime(previousResult.getCalculationTime());
     }
-    for (ComputationTargetSpecification targetSpec : result.getAllTargets()) {
-      computeDeltaModel(viewDefinition, deltaModel, targetSpec, previousResult, result);
-    }
     return deltaModel;
   }
   
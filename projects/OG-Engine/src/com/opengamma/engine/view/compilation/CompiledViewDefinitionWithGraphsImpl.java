@@ -8,7 +8,11 @@ package com.opengamma.engine.view.compilation;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.time.Instant;
 
@@ -18,6 +22,9 @@ import com.opengamma.engine.depgraph.DependencyGraph;
 import com.opengamma.engine.depgraph.DependencyGraphExplorer;
 import com.opengamma.engine.depgraph.DependencyGraphExplorerImpl;
 import com.opengamma.engine.depgraph.DependencyNode;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.ResultModelDefinition;
+import com.opengamma.engine.view.ResultModelLayout;
 import com.opengamma.engine.view.ViewDefinition;
 import com.opengamma.util.ArgumentChecker;
 import com.opengamma.util.tuple.Pair;
@@ -29,6 +36,9 @@ public class CompiledViewDefinitionWithGraphsImpl extends CompiledViewDefinition
 
   private final Map<String, DependencyGraph> _graphsByConfiguration;
   private final long _functionInitId;
+  private final Map<String, Long> _buildTimesByConfiguration;
+  private volatile ResultModelLayout _resultModelLayout;
+  private final ConcurrentMap<String, DependencyGraphExplorer> _explorersByConfiguration = new ConcurrentHashMap<String, DependencyGraphExplorer>();
 
   /**
    * Constructs an instance.
@@ -41,18 +51,35 @@ public class CompiledViewDefinitionWithGraphsImpl extends CompiledViewDefinition
   public CompiledViewDefinitionWithGraphsImpl(ViewDefinition viewDefinition,
       Map<String, DependencyGraph> graphsByConfiguration,
       Portfolio portfolio, long functionInitId) {
+    this(viewDefinition, graphsByConfiguration, portfolio, functionInitId, Collections.<String, Long>emptyMap());
+  }
+
+  /**
+   * Constructs an instance.
+   * 
+   * @param viewDefinition  the view definition, not null
+   * @param graphsByConfiguration  the dependency graphs by calculation configuration name, not null
+   * @param portfolio  the portfolio, possibly null
+   * @param functionInitId  the function init ID that was used when creating the dependency graphs
+   * @param buildTimesByConfiguration  the time taken to build each dependency graph in nanoseconds, by calculation configuration name, not null
+   */
+  public CompiledViewDefinitionWithGraphsImpl(ViewDefinition viewDefinition,
+      Map<String, DependencyGraph> graphsByConfiguration,
+      Portfolio portfolio, long functionInitId, Map<String, Long> buildTimesByConfiguration) {
     this(viewDefinition, portfolio, processCompiledCalculationConfigurations(graphsByConfiguration),
-        processValidityRange(graphsByConfiguration), graphsByConfiguration, functionInitId);
+        processValidityRange(graphsByConfiguration), graphsByConfiguration, functionInitId, buildTimesByConfiguration);
   }
   
   private CompiledViewDefinitionWithGraphsImpl(ViewDefinition viewDefinition, Portfolio portfolio,
       Collection<CompiledViewCalculationConfiguration> compiledCalculationConfigurations,
       Pair<Instant, Instant> validityRange,
       Map<String, DependencyGraph> graphsByConfiguration,
-      long functionInitId) {
+      long functionInitId, Map<String, Long> buildTimesByConfiguration) {
     super(viewDefinition, portfolio, compiledCalculationConfigurations, validityRange.getFirst(), validityRange.getSecond());
+    ArgumentChecker.notNull(buildTimesByConfiguration, "buildTimesByConfiguration");
     _functionInitId = functionInitId;
     _graphsByConfiguration = Collections.unmodifiableMap(graphsByConfiguration);
+    _buildTimesByConfiguration = Collections.unmodifiableMap(new HashMap<String, Long>(buildTimesByConfiguration));
   }
   
   //--------------------------------------------------------------------------
@@ -86,6 +113,42 @@ public class CompiledViewDefinitionWithGraphsImpl extends CompiledViewDefinition
     return _graphsByConfiguration.get(calcConfigName);
   }
   
+  /**
+   * Gets the layout of the values which the view definition's result model definition includes in the results of a
+   * computation cycle. This is formed on first use and shared by every cycle.
+   * 
+   * @return the result model layout, not null
+   */
+  public ResultModelLayout getResultModelLayout() {
+    ResultModelLayout layout = _resultModelLayout;
+    if (layout == null) {
+      final ResultModelDefinition resultModelDefinition = getViewDefinition().getResultModelDefinition();
+      final Map<String, List<ValueSpecification>> outputs = new HashMap<String, List<ValueSpecification>>();
+      for (DependencyGraph graph : _graphsByConfiguration.values()) {
+        final List<ValueSpecification> graphOutputs = new ArrayList<ValueSpecification>();
+        for (ValueSpecification outputSpecification : graph.getOutputSpecifications()) {
+          if (resultModelDefinition.shouldOutputResult(outputSpecification, graph)) {
+            graphOutputs.add(outputSpecification);
+          }
+        }
+        outputs.put(graph.getCalculationConfigurationName(), graphOutputs);
+      }
+      layout = new ResultModelLayout(outputs);
+      _resultModelLayout = layout;
+    }
+    return layout;
+  }
+
+  /**
+   * Gets the time taken to build the dependency graph of each calculation configuration, as measured by its builder. A configuration
+   * is missing if its build time wasn't recorded, for example because it had no requirements.
+   * 
+   * @return an unmodifiable map of build times in nanoseconds by configuration name, not null
+   */
+  public Map<String, Long> getDependencyGraphBuildTimesByConfiguration() {
+    return _buildTimesByConfiguration;
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Gets the function init ID that was used when creating the dependency graphs 
@@ -98,14 +161,28 @@ public class CompiledViewDefinitionWithGraphsImpl extends CompiledViewDefinition
 
   //-------------------------------------------------------------------------
   
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The explorer, and the index of the graph behind it, is created on first use and shared by everything exploring
+   * this compilation.
+   */
   @Override
   public DependencyGraphExplorer getDependencyGraphExplorer(String calcConfigName) {
     ArgumentChecker.notNull(calcConfigName, "calcConfigName");
-    DependencyGraph dependencyGraph = getDependencyGraph(calcConfigName);
-    if (dependencyGraph == null) {
-      throw new OpenGammaRuntimeException("The calculation configuration name " + calcConfigName + " does not exist in the view definition");
+    DependencyGraphExplorer explorer = _explorersByConfiguration.get(calcConfigName);
+    if (explorer == null) {
+      DependencyGraph dependencyGraph = getDependencyGraph(calcConfigName);
+      if (dependencyGraph == null) {
+        throw new OpenGammaRuntimeException("The calculation configuration name " + calcConfigName + " does not exist in the view definition");
+      }
+      explorer = new DependencyGraphExplorerImpl(dependencyGraph);
+      final DependencyGraphExplorer existing = _explorersByConfiguration.putIfAbsent(calcConfigName, explorer);
+      if (existing != null) {
+        explorer = existing;
+      }
     }
-    return new DependencyGraphExplorerImpl(dependencyGraph);
+    return explorer;
   }
   
   //-------------------------------------------------------------------------- 
@@ -5,8 +5,14 @@
  */
 package com.opengamma.engine.view.compilation;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.opengamma.DataNotFoundException;
 import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.core.position.Portfolio;
@@ -17,6 +23,7 @@ import com.opengamma.core.position.impl.SimplePortfolio;
 import com.opengamma.core.security.Security;
 import com.opengamma.core.security.SecuritySource;
 import com.opengamma.engine.depgraph.DependencyGraphBuilder;
+import com.opengamma.engine.depgraph.MarketDataResolutionCache;
 import com.opengamma.engine.view.ResultModelDefinition;
 import com.opengamma.engine.view.ResultOutputMode;
 import com.opengamma.engine.view.ViewCalculationConfiguration;
@@ -29,6 +36,8 @@ import com.opengamma.id.VersionCorrection;
  */
 public final class PortfolioCompiler {
 
+  private static final Logger s_logger = LoggerFactory.getLogger(PortfolioCompiler.class);
+
   private PortfolioCompiler() {
   }
 
@@ -55,6 +64,9 @@ public final class PortfolioCompiler {
 
     Portfolio portfolio = forcePortfolioResolution ? getPortfolio(compilationContext, versionCorrection) : null;
 
+    // Add the requirements of every configuration before waiting for any of them so that the graph builds run
+    // concurrently, sharing the additional thread allowance of the builder factory
+    final Set<DependencyGraphBuilder> builders = new LinkedHashSet<DependencyGraphBuilder>();
     for (ViewCalculationConfiguration calcConfig : compilationContext.getViewDefinition().getAllCalculationConfigurations()) {
       if (calcConfig.getAllPortfolioRequirements().size() == 0) {
         // No portfolio requirements for this calculation configuration - avoid further processing.
@@ -70,17 +82,32 @@ public final class PortfolioCompiler {
       final DependencyGraphBuilder builder = compilationContext.getBuilder(calcConfig.getName());
       final PortfolioCompilerTraversalCallback traversalCallback = new PortfolioCompilerTraversalCallback(calcConfig, builder);
       PortfolioNodeTraverser.parallel(traversalCallback, compilationContext.getServices().getExecutorService()).traverse(portfolio.getRootNode());
+      builders.add(builder);
+    }
+    waitForDependencyGraphBuilds(builders);
+    final MarketDataResolutionCache marketDataResolutions = compilationContext.getMarketDataResolutionCache();
+    s_logger.debug("Resolved {} market data requirements, {} resolutions shared between configurations", marketDataResolutions.size(), marketDataResolutions.getHitCount());
+    
+    return portfolio;
+  }
 
-      // TODO: Use a heuristic to decide whether to let the graph builds run in parallel, or sequentially. We will force sequential builds for the time being.
+  /**
+   * Waits for the graph builds of a number of configurations to complete, logging the time taken by each.
+   * <p>
+   * The calling thread joins the build of each configuration in turn. The time logged is measured by the builder
+   * from the first requirement added to it, so it is not affected by the order in which the builds are waited for.
+   * 
+   * @param builders  the builders to wait for
+   */
+  private static void waitForDependencyGraphBuilds(final Collection<DependencyGraphBuilder> builders) {
+    for (DependencyGraphBuilder builder : builders) {
       try {
         builder.waitForDependencyGraphBuild();
       } catch (InterruptedException e) {
         throw new OpenGammaRuntimeException("Interrupted", e);
       }
-
+      s_logger.info("Built portfolio requirements for {} after {}ms", builder.getCalculationConfigurationName(), (double) builder.getBuildTime() / 1e6);
     }
-    
-    return portfolio;
   }
 
   /**
@@ -13,10 +13,13 @@ import java.util.Map;
 import javax.time.Instant;
 
 import com.opengamma.engine.depgraph.DependencyGraphBuilder;
+import com.opengamma.engine.depgraph.MarketDataResolutionCache;
 import com.opengamma.engine.function.FunctionCompilationContext;
 import com.opengamma.engine.function.resolver.ComputationTargetResults;
 import com.opengamma.engine.function.resolver.DefaultCompiledFunctionResolver;
 import com.opengamma.engine.function.resolver.ResolutionRule;
+import com.opengamma.engine.marketdata.availability.CachingMarketDataAvailabilityProvider;
+import com.opengamma.engine.marketdata.availability.MarketDataAvailabilityProvider;
 import com.opengamma.engine.view.ViewCalculationConfiguration;
 import com.opengamma.engine.view.ViewDefinition;
 
@@ -29,16 +32,21 @@ public class ViewCompilationContext {
   private final ViewDefinition _viewDefinition;
   private final ViewCompilationServices _services;
   private final Map<String, DependencyGraphBuilder> _configurationGraphs;
+  private final MarketDataResolutionCache _marketDataResolutionCache = new MarketDataResolutionCache();
 
   /* package */ViewCompilationContext(ViewDefinition viewDefinition, ViewCompilationServices compilationServices, Instant valuationTime) {
     _viewDefinition = viewDefinition;
     _services = compilationServices;
     final Map<String, DependencyGraphBuilder> configurationGraphs = new HashMap<String, DependencyGraphBuilder>();
     final Collection<ResolutionRule> rules = compilationServices.getFunctionResolver().compile(valuationTime).getAllResolutionRules();
+    // Market data availability and resolution do not depend on the configuration, so handle each requirement once for all of them
+    final MarketDataAvailabilityProvider marketDataAvailability = (compilationServices.getMarketDataAvailabilityProvider() != null) ?
+        new CachingMarketDataAvailabilityProvider(compilationServices.getMarketDataAvailabilityProvider()) : null;
     for (String configName : viewDefinition.getAllCalculationConfigurationNames()) {
       final DependencyGraphBuilder builder = compilationServices.getDependencyGraphBuilder().newInstance();
       builder.setCalculationConfigurationName(configName);
-      builder.setMarketDataAvailabilityProvider(compilationServices.getMarketDataAvailabilityProvider());
+      builder.setMarketDataAvailabilityProvider(marketDataAvailability);
+      builder.setMarketDataResolutionCache(_marketDataResolutionCache);
       final FunctionCompilationContext compilationContext = compilationServices.getFunctionCompilationContext().clone();
       final ViewCalculationConfiguration calcConfig = viewDefinition.getCalculationConfiguration(configName);
       compilationContext.setViewCalculationConfiguration(calcConfig);
@@ -67,4 +75,13 @@ public class ViewCompilationContext {
     return Collections.unmodifiableCollection(_configurationGraphs.values());
   }
 
+  /**
+   * Gets the market data resolutions shared by the builders of every calculation configuration.
+   * 
+   * @return the shared cache, not null
+   */
+  public MarketDataResolutionCache getMarketDataResolutionCache() {
+    return _marketDataResolutionCache;
+  }
+
 }
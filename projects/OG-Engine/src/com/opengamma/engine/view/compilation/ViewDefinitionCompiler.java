@@ -173,10 +173,12 @@ public final class ViewDefinitionCompiler {
         s_logger.info("Added portfolio requirements after {}ms", (double) t / 1e6);
         t -= System.nanoTime();
         Map<String, DependencyGraph> graphsByConfiguration = processDependencyGraphs(viewCompilationContext);
+        Map<String, Long> buildTimesByConfiguration = getBuildTimes(viewCompilationContext);
         t += System.nanoTime();
         s_logger.info("Processed dependency graphs after {}ms", (double) t / 1e6);
         timer.finished();
-        _result = new CompiledViewDefinitionWithGraphsImpl(viewDefinition, graphsByConfiguration, portfolio, compilationServices.getFunctionCompilationContext().getFunctionInitId());
+        _result = new CompiledViewDefinitionWithGraphsImpl(viewDefinition, graphsByConfiguration, portfolio, compilationServices.getFunctionCompilationContext().getFunctionInitId(),
+            buildTimesByConfiguration);
         if (OUTPUT_DEPENDENCY_GRAPHS) {
           outputDependencyGraphs(graphsByConfiguration);
         }
@@ -219,6 +221,17 @@ public final class ViewDefinitionCompiler {
     return result;
   }
 
+  private static Map<String, Long> getBuildTimes(final ViewCompilationContext context) {
+    final Map<String, Long> result = new HashMap<String, Long>();
+    for (DependencyGraphBuilder builder : context.getBuilders()) {
+      final long buildTime = builder.getBuildTime();
+      if (buildTime >= 0) {
+        result.put(builder.getCalculationConfigurationName(), buildTime);
+      }
+    }
+    return result;
+  }
+
   private static void outputDependencyGraphs(Map<String, DependencyGraph> graphsByConfiguration) {
     StringBuilder sb = new StringBuilder();
     for (Map.Entry<String, DependencyGraph> entry : graphsByConfiguration.entrySet()) {
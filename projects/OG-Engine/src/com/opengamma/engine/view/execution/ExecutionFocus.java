@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.execution;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+
+import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.depgraph.DependencyNode;
+import com.opengamma.engine.depgraph.DependencyNodeFilter;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.PublicAPI;
+
+/**
+ * The values of a view which a client is currently interested in, for example the cells visible in a grid plus any
+ * which have been pinned. When every client of a view process has declared a focus, delta cycles only recalculate the
+ * union of the focuses and the values they depend on; anything else keeps its value from the previous cycle and is
+ * brought up to date by the next full cycle.
+ */
+@PublicAPI
+public final class ExecutionFocus {
+
+  private final Map<String, Set<ValueSpecification>> _valueSpecifications;
+
+  private ExecutionFocus(final Map<String, Set<ValueSpecification>> valueSpecifications) {
+    _valueSpecifications = valueSpecifications;
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param valueSpecifications  the values of interest, by calculation configuration name, not null
+   * @return the focus, not null
+   */
+  public static ExecutionFocus of(final Map<String, ? extends Collection<ValueSpecification>> valueSpecifications) {
+    ArgumentChecker.notNull(valueSpecifications, "valueSpecifications");
+    final Map<String, Set<ValueSpecification>> copy = new HashMap<String, Set<ValueSpecification>>();
+    for (Map.Entry<String, ? extends Collection<ValueSpecification>> entry : valueSpecifications.entrySet()) {
+      if (!entry.getValue().isEmpty()) {
+        copy.put(entry.getKey(), Collections.unmodifiableSet(new HashSet<ValueSpecification>(entry.getValue())));
+      }
+    }
+    return new ExecutionFocus(Collections.unmodifiableMap(copy));
+  }
+
+  /**
+   * Creates the union of a number of focuses.
+   *
+   * @param focuses  the focuses to combine, not null
+   * @return the union, not null
+   */
+  public static ExecutionFocus union(final Collection<ExecutionFocus> focuses) {
+    ArgumentChecker.notNull(focuses, "focuses");
+    if (focuses.size() == 1) {
+      return focuses.iterator().next();
+    }
+    final Map<String, Set<ValueSpecification>> union = new HashMap<String, Set<ValueSpecification>>();
+    for (ExecutionFocus focus : focuses) {
+      for (Map.Entry<String, Set<ValueSpecification>> entry : focus._valueSpecifications.entrySet()) {
+        Set<ValueSpecification> specifications = union.get(entry.getKey());
+        if (specifications == null) {
+          specifications = new HashSet<ValueSpecification>();
+          union.put(entry.getKey(), specifications);
+        }
+        specifications.addAll(entry.getValue());
+      }
+    }
+    return of(union);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the names of the calculation configurations containing values of interest.
+   *
+   * @return the calculation configuration names, not null
+   */
+  public Set<String> getCalculationConfigurationNames() {
+    return _valueSpecifications.keySet();
+  }
+
+  /**
+   * Gets the values of interest for a calculation configuration.
+   *
+   * @param calcConfigurationName  the calculation configuration name, not null
+   * @return the values of interest, empty if there are none, not null
+   */
+  public Set<ValueSpecification> getValueSpecifications(final String calcConfigurationName) {
+    final Set<ValueSpecification> specifications = _valueSpecifications.get(calcConfigurationName);
+    return (specifications != null) ? specifications : Collections.<ValueSpecification>emptySet();
+  }
+
+  /**
+   * Creates a filter accepting the nodes of a dependency graph which produce the values of interest or anything they
+   * depend on.
+   *
+   * @param graph  the dependency graph, not null
+   * @return the filter, not null
+   */
+  public DependencyNodeFilter createNodeFilter(final DependencyGraph graph) {
+    ArgumentChecker.notNull(graph, "graph");
+    final Set<DependencyNode> nodes = new HashSet<DependencyNode>();
+    for (ValueSpecification specification : getValueSpecifications(graph.getCalculationConfigurationName())) {
+      final DependencyNode node = graph.getNodeProducing(specification);
+      if (node != null) {
+        addNodeAndInputs(node, nodes);
+      }
+    }
+    return new DependencyNodeFilter() {
+      @Override
+      public boolean accept(final DependencyNode node) {
+        return nodes.contains(node);
+      }
+    };
+  }
+
+  private static void addNodeAndInputs(final DependencyNode root, final Set<DependencyNode> nodes) {
+    final LinkedList<DependencyNode> pending = new LinkedList<DependencyNode>();
+    pending.add(root);
+    while (!pending.isEmpty()) {
+      final DependencyNode node = pending.removeFirst();
+      if (nodes.add(node)) {
+        pending.addAll(node.getInputNodes());
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public int hashCode() {
+    return _valueSpecifications.hashCode();
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof ExecutionFocus)) {
+      return false;
+    }
+    return _valueSpecifications.equals(((ExecutionFocus) obj)._valueSpecifications);
+  }
+
+  @Override
+  public String toString() {
+    int count = 0;
+    for (Set<ValueSpecification> specifications : _valueSpecifications.values()) {
+      count += specifications.size();
+    }
+    return "ExecutionFocus[calcConfigs=" + _valueSpecifications.keySet() + ", values=" + count + "]";
+  }
+
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.listener;
+
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.mapping.FudgeDeserializer;
+
+import com.google.common.base.Function;
+import com.opengamma.engine.fudgemsg.ColumnarViewResultModelDecoder;
+import com.opengamma.engine.view.ViewComputationResultModel;
+import com.opengamma.engine.view.ViewDeltaResultModel;
+
+/**
+ * Represents a call to {@link ViewResultListener#cycleCompleted} or {@link ViewResultListener#cycleFragmentCompleted}
+ * with results encoded by a {@link com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder}. The call must be
+ * decoded, in the order the calls were made, before it can be applied to a listener.
+ */
+public class ColumnarCycleResultCall implements Function<ViewResultListener, Object> {
+
+  private final boolean _fragment;
+  private final FudgeMsg _fullResult;
+  private final FudgeMsg _deltaResult;
+
+  public ColumnarCycleResultCall(boolean fragment, FudgeMsg fullResult, FudgeMsg deltaResult) {
+    _fragment = fragment;
+    _fullResult = fullResult;
+    _deltaResult = deltaResult;
+  }
+
+  public boolean isFragment() {
+    return _fragment;
+  }
+
+  public FudgeMsg getFullResult() {
+    return _fullResult;
+  }
+
+  public FudgeMsg getDeltaResult() {
+    return _deltaResult;
+  }
+
+  /**
+   * Decodes the results into the equivalent {@link CycleCompletedCall} or {@link CycleFragmentCompletedCall}.
+   *
+   * @param decoder  the decoder for the result stream, not null
+   * @param deserializer  the Fudge deserializer, not null
+   * @return the decoded call, not null
+   */
+  public Function<ViewResultListener, Object> decode(ColumnarViewResultModelDecoder decoder, FudgeDeserializer deserializer) {
+    ViewComputationResultModel fullResult = _fullResult != null ? (ViewComputationResultModel) decoder.decode(deserializer, _fullResult) : null;
+    ViewDeltaResultModel deltaResult = _deltaResult != null ? (ViewDeltaResultModel) decoder.decode(deserializer, _deltaResult) : null;
+    if (_fragment) {
+      return new CycleFragmentCompletedCall(fullResult, deltaResult);
+    } else {
+      return new CycleCompletedCall(fullResult, deltaResult);
+    }
+  }
+
+  @Override
+  public Object apply(ViewResultListener listener) {
+    throw new IllegalStateException("Columnar results must be decoded before being passed to a listener");
+  }
+
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.listener;
+
+/**
+ * Controls what a {@link ViewResultListenerMailbox} does when a result arrives and its queue is already full because
+ * the listener is consuming results more slowly than they are produced.
+ */
+public enum ListenerOverflowPolicy {
+
+  /**
+   * The new result is merged into the queued result of the same type, so the listener eventually receives the latest
+   * full result together with a delta covering every cycle it missed.
+   */
+  MERGE,
+  /**
+   * Queued results which have not yet been delivered are discarded in favour of the new one. The listener receives the
+   * latest full result without a delta, since the delta would not account for the discarded cycles.
+   */
+  DROP_INTERMEDIATE,
+  /**
+   * Everything queued is discarded and the listener is told that the process has terminated, which causes a view
+   * client to detach itself. No further calls are delivered.
+   */
+  DISCONNECT,
+  /**
+   * Every full result is queued, so no cycle is merged or discarded. A result fragment is merged into the fragment at
+   * the end of the queue when there is one, which is always from the same cycle, so the queue grows by a few calls per
+   * cycle rather than by every fragment. Used by listeners that must see every cycle, such as the batch writer.
+   */
+  MERGE_FRAGMENTS
+
+}
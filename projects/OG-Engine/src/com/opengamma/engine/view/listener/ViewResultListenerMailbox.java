@@ -0,0 +1,425 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.listener;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Function;
+import com.opengamma.engine.view.ViewComputationResultModel;
+import com.opengamma.engine.view.ViewDeltaResultModel;
+import com.opengamma.engine.view.calc.ViewCycleMetadata;
+import com.opengamma.engine.view.compilation.CompiledViewDefinition;
+import com.opengamma.engine.view.execution.ViewCycleExecutionOptions;
+import com.opengamma.livedata.UserPrincipal;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Queues calls for an underlying {@link ViewResultListener} and delivers them in order on a thread from an executor,
+ * so that the thread producing the calls never waits for the listener.
+ * <p>
+ * The queue holds at most {@code capacity} calls. When a result arrives and the queue is full, the
+ * {@link ListenerOverflowPolicy} decides what happens. Calls other than results are rare and are always queued.
+ */
+public class ViewResultListenerMailbox implements ViewResultListener {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(ViewResultListenerMailbox.class);
+
+  private final ViewResultListener _underlying;
+  private final Executor _executor;
+  private final int _capacity;
+  private final ListenerOverflowPolicy _overflowPolicy;
+
+  /**
+   * The calls waiting to be delivered, with the time at which each was first queued. Guarded by {@code this}.
+   */
+  private final LinkedList<QueuedCall> _queue = new LinkedList<QueuedCall>();
+  private boolean _isDelivering;
+  private boolean _isClosed;
+  private volatile boolean _isDisconnected;
+
+  private final AtomicLong _deliveredCount = new AtomicLong();
+  private final AtomicLong _mergedCount = new AtomicLong();
+  private final AtomicLong _droppedCount = new AtomicLong();
+  private volatile long _lastDeliveryMillis;
+
+  private final Runnable _deliveryTask = new Runnable() {
+    @Override
+    public void run() {
+      deliver();
+    }
+  };
+
+  /**
+   * Creates an instance.
+   *
+   * @param underlying  the listener to deliver calls to, not null
+   * @param executor  the executor providing delivery threads, not null
+   * @param capacity  the maximum number of calls queued before the overflow policy applies, at least 1
+   * @param overflowPolicy  the overflow policy, not null
+   */
+  public ViewResultListenerMailbox(ViewResultListener underlying, Executor executor, int capacity, ListenerOverflowPolicy overflowPolicy) {
+    ArgumentChecker.notNull(underlying, "underlying");
+    ArgumentChecker.notNull(executor, "executor");
+    ArgumentChecker.isTrue(capacity > 0, "capacity must be positive");
+    ArgumentChecker.notNull(overflowPolicy, "overflowPolicy");
+    _underlying = underlying;
+    _executor = executor;
+    _capacity = capacity;
+    _overflowPolicy = overflowPolicy;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the listener to which calls are delivered.
+   *
+   * @return the listener, not null
+   */
+  public ViewResultListener getUnderlying() {
+    return _underlying;
+  }
+
+  /**
+   * Gets the number of calls waiting to be delivered.
+   *
+   * @return the number of queued calls
+   */
+  public synchronized int getQueueSize() {
+    return _queue.size();
+  }
+
+  /**
+   * Gets how long the oldest undelivered call has been waiting. A merged call counts from when it was first queued.
+   *
+   * @return the lag in milliseconds, zero if nothing is waiting
+   */
+  public synchronized long getLagMillis() {
+    if (_queue.isEmpty()) {
+      return 0;
+    }
+    return System.currentTimeMillis() - _queue.getFirst().getQueuedMillis();
+  }
+
+  /**
+   * Gets the time at which a call was last delivered to the listener.
+   *
+   * @return the time in milliseconds, zero if nothing has been delivered
+   */
+  public long getLastDeliveryMillis() {
+    return _lastDeliveryMillis;
+  }
+
+  /**
+   * Gets the number of calls delivered to the listener.
+   *
+   * @return the number of calls delivered
+   */
+  public long getDeliveredCount() {
+    return _deliveredCount.get();
+  }
+
+  /**
+   * Gets the number of results merged into a queued result because the queue was full.
+   *
+   * @return the number of merged results
+   */
+  public long getMergedCount() {
+    return _mergedCount.get();
+  }
+
+  /**
+   * Gets the number of calls discarded without delivery because the queue was full.
+   *
+   * @return the number of discarded calls
+   */
+  public long getDroppedCount() {
+    return _droppedCount.get();
+  }
+
+  /**
+   * Gets whether the listener has been disconnected because the queue overflowed.
+   *
+   * @return true if disconnected
+   */
+  public boolean isDisconnected() {
+    return _isDisconnected;
+  }
+
+  /**
+   * Discards any queued calls and stops delivering to the listener. A call already being delivered completes.
+   */
+  public synchronized void close() {
+    _isClosed = true;
+    _queue.clear();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public UserPrincipal getUser() {
+    return getUnderlying().getUser();
+  }
+
+  @Override
+  public void viewDefinitionCompiled(CompiledViewDefinition compiledViewDefinition, boolean hasMarketDataPermissions) {
+    queue(new ViewDefinitionCompiledCall(compiledViewDefinition, hasMarketDataPermissions));
+  }
+
+  @Override
+  public void viewDefinitionCompilationFailed(Instant valuationTime, Exception exception) {
+    queue(new ViewDefinitionCompilationFailedCall(valuationTime, exception));
+  }
+
+  @Override
+  public void cycleStarted(ViewCycleMetadata cycleMetadata) {
+    queue(new CycleStartedCall(cycleMetadata));
+  }
+
+  @Override
+  public void cycleCompleted(ViewComputationResultModel fullResult, ViewDeltaResultModel deltaResult) {
+    boolean startDelivery = false;
+    synchronized (this) {
+      if (_isClosed) {
+        return;
+      }
+      if (_queue.size() < _capacity) {
+        startDelivery = add(new CycleCompletedCall(fullResult, deltaResult));
+      } else {
+        switch (_overflowPolicy) {
+          case MERGE:
+            final CycleCompletedCall call = pullToEnd(CycleCompletedCall.class);
+            if (call != null) {
+              call.update(fullResult, deltaResult);
+              _mergedCount.incrementAndGet();
+            } else {
+              startDelivery = add(new CycleCompletedCall(fullResult, deltaResult));
+            }
+            break;
+          case DROP_INTERMEDIATE:
+            startDelivery = add(new CycleCompletedCall(fullResult, dropResults() ? null : deltaResult));
+            break;
+          case DISCONNECT:
+            startDelivery = disconnect();
+            break;
+          case MERGE_FRAGMENTS:
+            startDelivery = add(new CycleCompletedCall(fullResult, deltaResult));
+            break;
+        }
+      }
+    }
+    startDelivery(startDelivery);
+  }
+
+  @Override
+  public void cycleFragmentCompleted(ViewComputationResultModel fullFragment, ViewDeltaResultModel deltaFragment) {
+    boolean startDelivery = false;
+    synchronized (this) {
+      if (_isClosed) {
+        return;
+      }
+      if (_queue.size() < _capacity) {
+        startDelivery = add(new CycleFragmentCompletedCall(fullFragment, deltaFragment));
+      } else {
+        switch (_overflowPolicy) {
+          case MERGE:
+            final CycleFragmentCompletedCall call = pullToEnd(CycleFragmentCompletedCall.class);
+            if (call != null) {
+              call.update(fullFragment, deltaFragment);
+              _mergedCount.incrementAndGet();
+            } else {
+              startDelivery = add(new CycleFragmentCompletedCall(fullFragment, deltaFragment));
+            }
+            break;
+          case DROP_INTERMEDIATE:
+            // The full result at the end of the cycle will contain anything from the discarded fragment
+            _droppedCount.incrementAndGet();
+            break;
+          case DISCONNECT:
+            startDelivery = disconnect();
+            break;
+          case MERGE_FRAGMENTS:
+            final Function<ViewResultListener, ?> last = _queue.isEmpty() ? null : _queue.getLast().getCall();
+            if (last instanceof CycleFragmentCompletedCall) {
+              ((CycleFragmentCompletedCall) last).update(fullFragment, deltaFragment);
+              _mergedCount.incrementAndGet();
+            } else {
+              startDelivery = add(new CycleFragmentCompletedCall(fullFragment, deltaFragment));
+            }
+            break;
+        }
+      }
+    }
+    startDelivery(startDelivery);
+  }
+
+  @Override
+  public void cycleExecutionFailed(ViewCycleExecutionOptions executionOptions, Exception exception) {
+    queue(new CycleExecutionFailedCall(executionOptions, exception));
+  }
+
+  @Override
+  public void processCompleted() {
+    queue(new ProcessCompletedCall());
+  }
+
+  @Override
+  public void processTerminated(boolean executionInterrupted) {
+    queue(new ProcessTerminatedCall(executionInterrupted));
+  }
+
+  @Override
+  public void clientShutdown(Exception e) {
+    queue(new ClientShutdownCall(e));
+  }
+
+  //-------------------------------------------------------------------------
+  private void queue(final Function<ViewResultListener, ?> call) {
+    boolean startDelivery;
+    synchronized (this) {
+      if (_isClosed) {
+        return;
+      }
+      startDelivery = add(call);
+    }
+    startDelivery(startDelivery);
+  }
+
+  /**
+   * Adds a call to the end of the queue. Caller must hold the monitor.
+   *
+   * @return true if a delivery task must be started
+   */
+  private boolean add(final Function<ViewResultListener, ?> call) {
+    _queue.add(new QueuedCall(call, System.currentTimeMillis()));
+    if (_isDelivering) {
+      return false;
+    }
+    _isDelivering = true;
+    return true;
+  }
+
+  /**
+   * Finds the most recently queued call of a type and moves it to the end of the queue so that it is delivered after
+   * anything queued before the result being merged into it. Caller must hold the monitor.
+   */
+  private <T extends Function<ViewResultListener, ?>> T pullToEnd(final Class<T> callType) {
+    final Iterator<QueuedCall> itr = _queue.descendingIterator();
+    while (itr.hasNext()) {
+      final QueuedCall queuedCall = itr.next();
+      if (callType.isInstance(queuedCall.getCall())) {
+        itr.remove();
+        _queue.add(queuedCall);
+        return callType.cast(queuedCall.getCall());
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Discards all queued results, and the notification of the cycles which produced them. Caller must hold the monitor.
+   * <p>
+   * A cycle started notification is only discarded with the full result of its cycle, so the notification for the
+   * cycle whose result is about to be queued is kept.
+   *
+   * @return true if a full result was discarded
+   */
+  private boolean dropResults() {
+    boolean droppedCycle = false;
+    final Iterator<QueuedCall> itr = _queue.descendingIterator();
+    while (itr.hasNext()) {
+      final Function<ViewResultListener, ?> call = itr.next().getCall();
+      if ((call instanceof CycleCompletedCall) || (call instanceof CycleFragmentCompletedCall) || ((call instanceof CycleStartedCall) && droppedCycle)) {
+        droppedCycle |= call instanceof CycleCompletedCall;
+        itr.remove();
+        _droppedCount.incrementAndGet();
+      }
+    }
+    return droppedCycle;
+  }
+
+  /**
+   * Discards all queued calls and tells the listener that the process has terminated. Caller must hold the monitor.
+   *
+   * @return true if a delivery task must be started
+   */
+  private boolean disconnect() {
+    s_logger.warn("Disconnecting listener {} which has fallen {} calls behind", getUnderlying(), _queue.size());
+    _droppedCount.addAndGet(_queue.size() + 1);
+    _queue.clear();
+    _isDisconnected = true;
+    _isClosed = true;
+    return add(new ProcessTerminatedCall(true));
+  }
+
+  private void startDelivery(final boolean startDelivery) {
+    if (!startDelivery) {
+      return;
+    }
+    try {
+      _executor.execute(_deliveryTask);
+    } catch (RejectedExecutionException e) {
+      s_logger.error("Unable to deliver calls to listener " + getUnderlying(), e);
+      synchronized (this) {
+        _queue.clear();
+        _isDelivering = false;
+      }
+    }
+  }
+
+  private void deliver() {
+    while (true) {
+      final Function<ViewResultListener, ?> call;
+      synchronized (this) {
+        if (_queue.isEmpty()) {
+          _isDelivering = false;
+          return;
+        }
+        call = _queue.removeFirst().getCall();
+      }
+      try {
+        call.apply(getUnderlying());
+      } catch (Exception e) {
+        s_logger.error("Error while calling listener " + getUnderlying(), e);
+      }
+      _deliveredCount.incrementAndGet();
+      _lastDeliveryMillis = System.currentTimeMillis();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "ViewResultListenerMailbox[" + getUnderlying() + "]";
+  }
+
+  //-------------------------------------------------------------------------
+  private static final class QueuedCall {
+
+    private final Function<ViewResultListener, ?> _call;
+    private final long _queuedMillis;
+
+    private QueuedCall(final Function<ViewResultListener, ?> call, final long queuedMillis) {
+      _call = call;
+      _queuedMillis = queuedMillis;
+    }
+
+    public Function<ViewResultListener, ?> getCall() {
+      return _call;
+    }
+
+    public long getQueuedMillis() {
+      return _queuedMillis;
+    }
+
+  }
+
+}
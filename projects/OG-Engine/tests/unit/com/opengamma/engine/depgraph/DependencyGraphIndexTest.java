@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.depgraph;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Sets;
+import com.opengamma.engine.ComputationTarget;
+import com.opengamma.engine.ComputationTargetType;
+import com.opengamma.engine.function.MarketDataSourcingFunction;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.id.UniqueId;
+
+/**
+ * Tests the {@link DependencyGraphIndex} class.
+ */
+@Test
+public class DependencyGraphIndexTest {
+
+  private static ValueSpecification spec(final String name) {
+    return new ValueSpecification("Value", new ComputationTarget(ComputationTargetType.PRIMITIVE, UniqueId.of("Test", name)).toSpecification(),
+        ValueProperties.with(ValuePropertyNames.FUNCTION, "Fn").get());
+  }
+
+  private static DependencyNode node(final String name, final DependencyNode... inputs) {
+    final ComputationTarget target = new ComputationTarget(ComputationTargetType.PRIMITIVE, UniqueId.of("Test", name));
+    final DependencyNode node = new DependencyNode(target);
+    node.setFunction(new MarketDataSourcingFunction(new ValueRequirement("Value", target.toSpecification())));
+    node.addInputNodes(Sets.newHashSet(inputs));
+    node.addOutputValue(spec(name));
+    return node;
+  }
+
+  /**
+   * Graph with two roots sharing a diamond of inputs.
+   * <pre>
+   *   root1   root2
+   *     |   /   |
+   *   mid1   mid2
+   *     |  \
+   *   left  right
+   *     |  /
+   *   leaf
+   * </pre>
+   */
+  private static DependencyGraph graph() {
+    final DependencyNode leaf = node("leaf");
+    final DependencyNode left = node("left", leaf);
+    final DependencyNode right = node("right", leaf);
+    final DependencyNode mid1 = node("mid1", left, right);
+    final DependencyNode mid2 = node("mid2");
+    final DependencyNode root1 = node("root1", mid1);
+    final DependencyNode root2 = node("root2", mid1, mid2);
+    final DependencyGraph graph = new DependencyGraph("Default");
+    for (DependencyNode node : Arrays.asList(leaf, left, right, mid1, mid2, root1, root2)) {
+      graph.addDependencyNode(node);
+    }
+    return graph;
+  }
+
+  private static Set<ValueSpecification> outputs(final DependencyGraphIndex index, final int[] nodeNumbers) {
+    final Set<ValueSpecification> outputs = new HashSet<ValueSpecification>();
+    for (int nodeNumber : nodeNumbers) {
+      outputs.addAll(index.getNode(nodeNumber).getOutputValues());
+    }
+    return outputs;
+  }
+
+  public void testAncestors() {
+    final DependencyGraphIndex index = new DependencyGraphIndex(graph());
+    assertEquals(Sets.newHashSet(spec("root1"), spec("mid1"), spec("left"), spec("right"), spec("leaf")), outputs(index, index.getAncestors(spec("root1"))));
+    assertEquals(Sets.newHashSet(spec("mid2")), outputs(index, index.getAncestors(spec("mid2"))));
+    // Shared inputs are only included once
+    assertEquals(6, index.getAncestors(spec("root2")).length);
+    // Remembered
+    assertEquals(5, index.getAncestors(spec("root1")).length);
+  }
+
+  public void testAncestorsToDepth() {
+    final DependencyGraphIndex index = new DependencyGraphIndex(graph());
+    assertEquals(Sets.newHashSet(spec("root1")), outputs(index, index.getAncestors(spec("root1"), 0)));
+    assertEquals(Sets.newHashSet(spec("root1"), spec("mid1")), outputs(index, index.getAncestors(spec("root1"), 1)));
+    assertEquals(Sets.newHashSet(spec("root1"), spec("mid1"), spec("left"), spec("right")), outputs(index, index.getAncestors(spec("root1"), 2)));
+    assertEquals(5, index.getAncestors(spec("root1"), 10).length);
+  }
+
+  public void testUnknownOutput() {
+    final DependencyGraphIndex index = new DependencyGraphIndex(graph());
+    assertNull(index.getAncestors(spec("missing")));
+    assertNull(index.getAncestors(spec("missing"), 1));
+    assertNull(index.getSubgraphProducing(spec("missing")));
+  }
+
+  public void testSubgraph() {
+    final DependencyGraph graph = graph();
+    final DependencyGraph subgraph = new DependencyGraphIndex(graph).getSubgraphProducing(spec("root2"));
+    assertEquals(graph.getSize() - 1, subgraph.getSize());
+    final DependencyGraph midSubgraph = new DependencyGraphExplorerImpl(graph).getSubgraphProducing(spec("mid1"));
+    assertEquals(Sets.newHashSet(spec("mid1"), spec("left"), spec("right"), spec("leaf")), midSubgraph.getOutputSpecifications());
+  }
+
+}
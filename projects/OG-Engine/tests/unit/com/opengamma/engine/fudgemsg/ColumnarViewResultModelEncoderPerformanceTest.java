@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.fudgemsg;
+
+import javax.time.Duration;
+import javax.time.Instant;
+
+import org.fudgemsg.FudgeContext;
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.MutableFudgeMsg;
+import org.fudgemsg.mapping.FudgeDeserializer;
+import org.fudgemsg.mapping.FudgeSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.ComputationTargetType;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.InMemoryViewComputationResultModel;
+import com.opengamma.engine.view.ViewComputationResultModel;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
+
+/**
+ * A round-trip benchmark of a large numeric result model, comparing the message size and encode/decode times of the
+ * columnar encoding against {@link ViewComputationResultModelFudgeBuilder}. The columnar figures are for a stream in
+ * which the specification dictionary has already been sent.
+ */
+@Test(enabled = false)
+public class ColumnarViewResultModelEncoderPerformanceTest {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(ColumnarViewResultModelEncoderPerformanceTest.class);
+
+  private static final String[] CALC_CONFIGS = {"Default", "Bump Up", "Bump Down", "Historical", "Stress", };
+  private static final String[] VALUE_NAMES = {"Present Value", "PV01", "Delta", "Gamma", "Vega", "Theta", "Rho", "Position Value", "Par Rate", "Notional", };
+  private static final int TARGETS = 10000;
+  private static final int ITERATIONS = 5;
+
+  private ViewComputationResultModel createResult(final int cycle) {
+    final InMemoryViewComputationResultModel model = new InMemoryViewComputationResultModel();
+    model.setViewProcessId(UniqueId.of("ViewProcess", "1"));
+    model.setViewCycleId(UniqueId.of("ViewCycle", Integer.toString(cycle)));
+    model.setValuationTime(Instant.now());
+    model.setCalculationTime(Instant.now());
+    model.setCalculationDuration(Duration.ofMillis(1000));
+    model.setVersionCorrection(VersionCorrection.LATEST);
+    for (int target = 0; target < TARGETS; target++) {
+      final ComputationTargetSpecification targetSpec = new ComputationTargetSpecification(ComputationTargetType.POSITION, UniqueId.of("Pos", Integer.toString(target)));
+      for (String calcConfig : CALC_CONFIGS) {
+        for (String valueName : VALUE_NAMES) {
+          final ValueProperties properties = ValueProperties.with(ValuePropertyNames.FUNCTION, "Fn" + valueName).with(ValuePropertyNames.CURRENCY, "USD").get();
+          model.addValue(calcConfig, new ComputedValue(new ValueSpecification(valueName, targetSpec, properties), Math.random()));
+        }
+      }
+    }
+    return model;
+  }
+
+  public void roundTrip() {
+    final FudgeContext context = OpenGammaFudgeContext.getInstance();
+    final ColumnarViewResultModelEncoder encoder = new ColumnarViewResultModelEncoder();
+    final ColumnarViewResultModelDecoder decoder = new ColumnarViewResultModelDecoder();
+    // Send the dictionary
+    decoder.decode(new FudgeDeserializer(context), context.deserialize(context.toByteArray(encoder.encode(new FudgeSerializer(context), createResult(0)))).getMessage());
+    for (int i = 1; i <= ITERATIONS; i++) {
+      final ViewComputationResultModel result = createResult(i);
+      long start = System.nanoTime();
+      final FudgeSerializer serializer = new FudgeSerializer(context);
+      final MutableFudgeMsg builderMsg = serializer.newMessage();
+      serializer.addToMessage(builderMsg, "result", null, result);
+      final byte[] builderBytes = context.toByteArray(builderMsg);
+      final long builderEncode = System.nanoTime() - start;
+      start = System.nanoTime();
+      final FudgeMsg builderMsgIn = context.deserialize(builderBytes).getMessage();
+      new FudgeDeserializer(context).fieldValueToObject(ViewComputationResultModel.class, builderMsgIn.getByName("result"));
+      final long builderDecode = System.nanoTime() - start;
+      start = System.nanoTime();
+      final byte[] columnarBytes = context.toByteArray(encoder.encode(new FudgeSerializer(context), result));
+      final long columnarEncode = System.nanoTime() - start;
+      start = System.nanoTime();
+      decoder.decode(new FudgeDeserializer(context), context.deserialize(columnarBytes).getMessage());
+      final long columnarDecode = System.nanoTime() - start;
+      s_logger.info("Builder: {} bytes, encode {}ms, decode {}ms", new Object[] {builderBytes.length, builderEncode / 1000000, builderDecode / 1000000 });
+      s_logger.info("Columnar: {} bytes, encode {}ms, decode {}ms", new Object[] {columnarBytes.length, columnarEncode / 1000000, columnarDecode / 1000000 });
+    }
+  }
+
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.fudgemsg;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+import java.util.HashSet;
+
+import javax.time.Duration;
+import javax.time.Instant;
+
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.MutableFudgeMsg;
+import org.testng.annotations.Test;
+
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.ComputationTargetType;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.InMemoryViewComputationResultModel;
+import com.opengamma.engine.view.InMemoryViewDeltaResultModel;
+import com.opengamma.engine.view.InMemoryViewResultModel;
+import com.opengamma.engine.view.ViewComputationResultModel;
+import com.opengamma.engine.view.ViewDeltaResultModel;
+import com.opengamma.engine.view.ViewResultModel;
+import com.opengamma.engine.view.calcnode.InvocationResult;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.util.test.AbstractFudgeBuilderTestCase;
+
+/**
+ * Tests the {@link ColumnarViewResultModelEncoder} and {@link ColumnarViewResultModelDecoder}.
+ */
+@Test
+public class ColumnarViewResultModelEncoderTest extends AbstractFudgeBuilderTestCase {
+
+  private static final String CALC_CONFIG = "Default";
+
+  private static ValueSpecification spec(final String valueName, final int target) {
+    return new ValueSpecification(valueName, new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of("Test", Integer.toString(target))),
+        ValueProperties.with(ValuePropertyNames.FUNCTION, "Fn").get());
+  }
+
+  private static void setHeader(final InMemoryViewResultModel model, final int cycle) {
+    model.setViewProcessId(UniqueId.of("ViewProcess", "1"));
+    model.setViewCycleId(UniqueId.of("ViewCycle", Integer.toString(cycle)));
+    model.setValuationTime(Instant.ofEpochMillis(cycle));
+    model.setCalculationTime(Instant.ofEpochMillis(cycle + 1));
+    model.setCalculationDuration(Duration.ofMillis(10));
+    model.setVersionCorrection(VersionCorrection.of(Instant.ofEpochMillis(0), Instant.ofEpochMillis(0)));
+  }
+
+  private static InMemoryViewComputationResultModel fullResult(final int cycle, final int targets) {
+    final InMemoryViewComputationResultModel model = new InMemoryViewComputationResultModel();
+    setHeader(model, cycle);
+    for (int i = 0; i < targets; i++) {
+      model.addValue(CALC_CONFIG, new ComputedValue(spec("Present Value", i), cycle + i / 100d));
+      model.addValue(CALC_CONFIG, new ComputedValue(spec("Label", i), "Target " + i));
+      final ValueSpecification marketDataSpec = spec("Market_Value", i);
+      model.addMarketData(new ComputedValue(marketDataSpec, (double) i));
+      model.addRequirement(new ValueRequirement("Market_Value", marketDataSpec.getTargetSpecification()), marketDataSpec);
+    }
+    final ComputedValue failed = new ComputedValue(spec("Failed", 0), "Error");
+    failed.setInvocationResult(InvocationResult.FUNCTION_THREW_EXCEPTION);
+    failed.setExceptionMsg("Failure");
+    model.addValue(CALC_CONFIG, failed);
+    return model;
+  }
+
+  private static void assertEqualResults(final ViewResultModel expected, final ViewResultModel actual) {
+    assertEquals(expected.getViewProcessId(), actual.getViewProcessId());
+    assertEquals(expected.getViewCycleId(), actual.getViewCycleId());
+    assertEquals(expected.getValuationTime(), actual.getValuationTime());
+    assertEquals(expected.getCalculationTime(), actual.getCalculationTime());
+    assertEquals(expected.getCalculationDuration(), actual.getCalculationDuration());
+    assertEquals(expected.getVersionCorrection(), actual.getVersionCorrection());
+    assertEquals(new HashSet<Object>(expected.getAllResults()), new HashSet<Object>(actual.getAllResults()));
+  }
+
+  public void testFullResultRoundTrip() {
+    final ColumnarViewResultModelEncoder encoder = new ColumnarViewResultModelEncoder();
+    final ColumnarViewResultModelDecoder decoder = new ColumnarViewResultModelDecoder();
+    final InMemoryViewComputationResultModel original = fullResult(1, 10);
+    final FudgeMsg message = cycleMessage(encoder.encode(getFudgeSerializer(), original));
+    final ViewComputationResultModel decoded = (ViewComputationResultModel) decoder.decode(getFudgeDeserializer(), message);
+    assertEqualResults(original, decoded);
+    assertEquals(original.getAllMarketData(), decoded.getAllMarketData());
+    assertEquals(original.getRequirementToSpecificationMapping(), decoded.getRequirementToSpecificationMapping());
+  }
+
+  public void testDeltaResultRoundTrip() {
+    final ColumnarViewResultModelEncoder encoder = new ColumnarViewResultModelEncoder();
+    final ColumnarViewResultModelDecoder decoder = new ColumnarViewResultModelDecoder();
+    final InMemoryViewDeltaResultModel original = new InMemoryViewDeltaResultModel();
+    setHeader(original, 2);
+    original.setPreviousCalculationTime(Instant.ofEpochMillis(1));
+    original.addValue(CALC_CONFIG, new ComputedValue(spec("Present Value", 0), 1d));
+    final FudgeMsg message = cycleMessage(encoder.encode(getFudgeSerializer(), original));
+    final ViewDeltaResultModel decoded = (ViewDeltaResultModel) decoder.decode(getFudgeDeserializer(), message);
+    assertEqualResults(original, decoded);
+    assertEquals(original.getPreviousResultTimestamp(), decoded.getPreviousResultTimestamp());
+  }
+
+  public void testDictionarySentOnce() {
+    final ColumnarViewResultModelEncoder encoder = new ColumnarViewResultModelEncoder();
+    final ColumnarViewResultModelDecoder decoder = new ColumnarViewResultModelDecoder();
+    final MutableFudgeMsg first = encoder.encode(getFudgeSerializer(), fullResult(1, 10));
+    assertTrue(first.hasField(ColumnarViewResultModelEncoder.FIELD_DICTIONARY));
+    decoder.decode(getFudgeDeserializer(), cycleMessage(first));
+    final InMemoryViewComputationResultModel secondResult = fullResult(2, 10);
+    final MutableFudgeMsg second = encoder.encode(getFudgeSerializer(), secondResult);
+    assertFalse(second.hasField(ColumnarViewResultModelEncoder.FIELD_DICTIONARY));
+    assertFalse(second.hasField(ColumnarViewResultModelEncoder.FIELD_RESET));
+    assertEqualResults(secondResult, decoder.decode(getFudgeDeserializer(), cycleMessage(second)));
+    // A new target extends the dictionary
+    final InMemoryViewComputationResultModel thirdResult = fullResult(3, 11);
+    final MutableFudgeMsg third = encoder.encode(getFudgeSerializer(), thirdResult);
+    assertEquals(3, ((FudgeMsg) third.getByName(ColumnarViewResultModelEncoder.FIELD_DICTIONARY).getValue()).getNumFields());
+    assertEqualResults(thirdResult, decoder.decode(getFudgeDeserializer(), cycleMessage(third)));
+    // After a reset the decoder starts a new dictionary
+    encoder.reset();
+    final InMemoryViewComputationResultModel fourthResult = fullResult(4, 1);
+    final MutableFudgeMsg fourth = encoder.encode(getFudgeSerializer(), fourthResult);
+    assertTrue(fourth.hasField(ColumnarViewResultModelEncoder.FIELD_RESET));
+    assertEqualResults(fourthResult, decoder.decode(getFudgeDeserializer(), cycleMessage(fourth)));
+  }
+
+  @Test(expectedExceptions = OpenGammaRuntimeException.class)
+  public void testOutOfSequence() {
+    final ColumnarViewResultModelEncoder encoder = new ColumnarViewResultModelEncoder();
+    encoder.encode(getFudgeSerializer(), fullResult(1, 10));
+    final MutableFudgeMsg second = encoder.encode(getFudgeSerializer(), fullResult(2, 11));
+    new ColumnarViewResultModelDecoder().decode(getFudgeDeserializer(), second);
+  }
+
+  public void testDroppedMessage() {
+    final ColumnarViewResultModelEncoder encoder = new ColumnarViewResultModelEncoder();
+    final ColumnarViewResultModelDecoder decoder = new ColumnarViewResultModelDecoder();
+    decoder.decode(getFudgeDeserializer(), cycleMessage(encoder.encode(getFudgeSerializer(), fullResult(1, 10))));
+    // The second message extends the dictionary but never arrives
+    encoder.encode(getFudgeSerializer(), fullResult(2, 11));
+    final MutableFudgeMsg third = encoder.encode(getFudgeSerializer(), fullResult(3, 11));
+    try {
+      decoder.decode(getFudgeDeserializer(), cycleMessage(third));
+      fail();
+    } catch (OpenGammaRuntimeException e) {
+      assertTrue(decoder.isAwaitingReset());
+    }
+    // Messages encoded before the publisher noticed the failure are rejected
+    final MutableFudgeMsg fourth = encoder.encode(getFudgeSerializer(), fullResult(4, 10));
+    try {
+      decoder.decode(getFudgeDeserializer(), cycleMessage(fourth));
+      fail();
+    } catch (OpenGammaRuntimeException e) {
+      assertTrue(decoder.isAwaitingReset());
+    }
+    // The publisher resets the encoder after the failed send and the stream resumes
+    encoder.reset();
+    final InMemoryViewComputationResultModel fifthResult = fullResult(5, 11);
+    assertEqualResults(fifthResult, decoder.decode(getFudgeDeserializer(), cycleMessage(encoder.encode(getFudgeSerializer(), fifthResult))));
+    assertFalse(decoder.isAwaitingReset());
+    final InMemoryViewComputationResultModel sixthResult = fullResult(6, 11);
+    assertEqualResults(sixthResult, decoder.decode(getFudgeDeserializer(), cycleMessage(encoder.encode(getFudgeSerializer(), sixthResult))));
+  }
+
+  public void testEmptyResult() {
+    final InMemoryViewComputationResultModel original = new InMemoryViewComputationResultModel();
+    setHeader(original, 1);
+    final FudgeMsg message = cycleMessage(new ColumnarViewResultModelEncoder().encode(getFudgeSerializer(), original));
+    assertEqualResults(original, new ColumnarViewResultModelDecoder().decode(getFudgeDeserializer(), message));
+  }
+
+}
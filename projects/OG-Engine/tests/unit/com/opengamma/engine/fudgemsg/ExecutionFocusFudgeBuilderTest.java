@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.fudgemsg;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.execution.ExecutionFocus;
+import com.opengamma.id.UniqueId;
+import com.opengamma.util.test.AbstractFudgeBuilderTestCase;
+
+public class ExecutionFocusFudgeBuilderTest extends AbstractFudgeBuilderTestCase {
+
+  @Test
+  public void testEmpty() {
+    ExecutionFocus focus = ExecutionFocus.of(Collections.<String, List<ValueSpecification>>emptyMap());
+    assertEquals(focus, cycleObject(ExecutionFocus.class, focus));
+  }
+
+  @Test
+  public void testMultipleConfigurations() {
+    ValueSpecification spec = ValueSpecification.of("SomeValue", UniqueId.of("SomeScheme", "SomeValue"), "SomeFunc", "USD", ValueProperties.none());
+    ValueSpecification spec2 = ValueSpecification.of("SomeOtherValue", UniqueId.of("SomeScheme", "SomeOtherValue"), "SomeOtherFunc", "USD", ValueProperties.none());
+    Map<String, List<ValueSpecification>> values = new HashMap<String, List<ValueSpecification>>();
+    values.put("DEFAULT", Lists.newArrayList(spec, spec2));
+    values.put("OTHER", Lists.newArrayList(spec));
+    ExecutionFocus focus = ExecutionFocus.of(values);
+    assertEquals(focus, cycleObject(ExecutionFocus.class, focus));
+  }
+
+}
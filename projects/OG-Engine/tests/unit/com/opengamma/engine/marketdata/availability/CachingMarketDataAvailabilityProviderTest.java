@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.marketdata.availability;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.ComputationTargetType;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.id.UniqueId;
+
+/**
+ * Tests the {@link CachingMarketDataAvailabilityProvider} class.
+ */
+@Test(groups = "unit")
+public class CachingMarketDataAvailabilityProviderTest {
+
+  private static ValueRequirement requirement(final String name) {
+    return new ValueRequirement("Market_Value", new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of("Test", name)));
+  }
+
+  public void testUnderlyingCheckedOnce() {
+    final MarketDataAvailabilityProvider underlying = mock(MarketDataAvailabilityProvider.class);
+    when(underlying.getAvailability(requirement("A"))).thenReturn(MarketDataAvailability.AVAILABLE);
+    when(underlying.getAvailability(requirement("B"))).thenReturn(MarketDataAvailability.NOT_AVAILABLE);
+    final CachingMarketDataAvailabilityProvider provider = new CachingMarketDataAvailabilityProvider(underlying);
+    assertEquals(provider.getAvailability(requirement("A")), MarketDataAvailability.AVAILABLE);
+    assertEquals(provider.getAvailability(requirement("B")), MarketDataAvailability.NOT_AVAILABLE);
+    assertEquals(provider.getAvailability(requirement("A")), MarketDataAvailability.AVAILABLE);
+    assertEquals(provider.getAvailability(requirement("B")), MarketDataAvailability.NOT_AVAILABLE);
+    verify(underlying, times(1)).getAvailability(requirement("A"));
+    verify(underlying, times(1)).getAvailability(requirement("B"));
+  }
+
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.marketdata.availability;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.core.change.BasicChangeManager;
+import com.opengamma.core.change.ChangeEvent;
+import com.opengamma.core.change.ChangeManager;
+import com.opengamma.core.change.ChangeType;
+import com.opengamma.core.security.Security;
+import com.opengamma.core.security.impl.SimpleSecurity;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.ComputationTargetType;
+import com.opengamma.engine.test.MockSecuritySource;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.ExternalScheme;
+import com.opengamma.id.UniqueId;
+
+/**
+ * Test.
+ */
+@Test(groups = "unit")
+public class IndexedMarketDataAvailabilityProviderTest {
+
+  private static final ExternalScheme LIVE = ExternalScheme.of("Live");
+  private static final ExternalScheme OTHER = ExternalScheme.of("Other");
+  private static final String VALUE = "Market_Value";
+
+  private static class CountingSecuritySource extends MockSecuritySource {
+
+    private int _lookups;
+
+    @Override
+    public Security getSecurity(final UniqueId uniqueId) {
+      _lookups++;
+      return super.getSecurity(uniqueId);
+    }
+
+  }
+
+  private static ValueRequirement primitive(final ExternalId identifier, final String valueName) {
+    return new ValueRequirement(valueName, new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of(identifier.getScheme().getName(),
+        identifier.getValue())));
+  }
+
+  private static ValueRequirement security(final UniqueId uniqueId, final String valueName) {
+    return new ValueRequirement(valueName, new ComputationTargetSpecification(ComputationTargetType.SECURITY, uniqueId));
+  }
+
+  public void testIndex() {
+    MarketDataAvailabilityIndex index = MarketDataAvailabilityIndex.of(Collections.singleton(LIVE), Collections.singleton(VALUE));
+    assertEquals(index.getAvailability(ExternalId.of(LIVE, "A"), VALUE), MarketDataAvailability.AVAILABLE);
+    assertEquals(index.getAvailability(ExternalId.of(LIVE, "A"), "Foo"), MarketDataAvailability.NOT_AVAILABLE);
+    assertEquals(index.getAvailability(ExternalId.of(OTHER, "A"), VALUE), MarketDataAvailability.NOT_AVAILABLE);
+    assertEquals(index.getAvailability(ExternalIdBundle.of(ExternalId.of(OTHER, "A"), ExternalId.of(LIVE, "A")), VALUE), MarketDataAvailability.AVAILABLE);
+    final MarketDataAvailabilityIndex updated = index.withAvailable(ExternalId.of(OTHER, "A"), "Foo");
+    assertEquals(updated.getAvailability(ExternalId.of(OTHER, "A"), "Foo"), MarketDataAvailability.AVAILABLE);
+    assertEquals(updated.getAvailability(ExternalId.of(OTHER, "A"), VALUE), MarketDataAvailability.NOT_AVAILABLE);
+    assertEquals(index.getAvailability(ExternalId.of(OTHER, "A"), "Foo"), MarketDataAvailability.NOT_AVAILABLE);
+    index = updated.withoutAvailable(Collections.singleton(ExternalId.of(OTHER, "A")));
+    assertEquals(index.getAvailability(ExternalId.of(OTHER, "A"), "Foo"), MarketDataAvailability.NOT_AVAILABLE);
+  }
+
+  public void testPrimitive() {
+    final IndexedMarketDataAvailabilityProvider provider = new IndexedMarketDataAvailabilityProvider(new MockSecuritySource(),
+        MarketDataAvailabilityIndex.of(Collections.singleton(LIVE), Collections.singleton(VALUE)));
+    assertEquals(provider.getAvailability(primitive(ExternalId.of(LIVE, "A"), VALUE)), MarketDataAvailability.AVAILABLE);
+    assertEquals(provider.getAvailability(primitive(ExternalId.of(OTHER, "A"), VALUE)), MarketDataAvailability.NOT_AVAILABLE);
+    provider.setIndex(provider.getIndex().withAvailable(ExternalId.of(OTHER, "A"), VALUE));
+    assertEquals(provider.getAvailability(primitive(ExternalId.of(OTHER, "A"), VALUE)), MarketDataAvailability.AVAILABLE);
+  }
+
+  public void testSecurityLookupsCached() {
+    final CountingSecuritySource securities = new CountingSecuritySource();
+    final SimpleSecurity security = new SimpleSecurity("EQUITY");
+    security.setExternalIdBundle(ExternalIdBundle.of(ExternalId.of(LIVE, "A")));
+    securities.addSecurity(security);
+    final IndexedMarketDataAvailabilityProvider provider = new IndexedMarketDataAvailabilityProvider(securities,
+        MarketDataAvailabilityIndex.of(Collections.singleton(LIVE), Arrays.asList(VALUE, "Foo")));
+    final UniqueId latest = security.getUniqueId().toLatest();
+    assertEquals(provider.getAvailability(security(latest, VALUE)), MarketDataAvailability.AVAILABLE);
+    assertEquals(provider.getAvailability(security(latest, "Foo")), MarketDataAvailability.AVAILABLE);
+    assertEquals(provider.getAvailability(security(latest, "Bar")), MarketDataAvailability.NOT_AVAILABLE);
+    assertEquals(securities._lookups, 1);
+    // A change to the security discards the cached identifiers
+    provider.entityChanged(new ChangeEvent(ChangeType.UPDATED, latest, latest, null));
+    assertEquals(provider.getAvailability(security(latest, VALUE)), MarketDataAvailability.AVAILABLE);
+    assertEquals(securities._lookups, 2);
+    // Missing securities are remembered as not available
+    final UniqueId missing = UniqueId.of("Mock", "Missing");
+    assertEquals(provider.getAvailability(security(missing, VALUE)), MarketDataAvailability.NOT_AVAILABLE);
+    assertEquals(provider.getAvailability(security(missing, VALUE)), MarketDataAvailability.NOT_AVAILABLE);
+    assertEquals(securities._lookups, 3);
+  }
+
+  public void testValueNameCheckedBeforeTarget() {
+    final CountingSecuritySource securities = new CountingSecuritySource();
+    final IndexedMarketDataAvailabilityProvider provider = new IndexedMarketDataAvailabilityProvider(securities,
+        MarketDataAvailabilityIndex.of(Collections.singleton(LIVE), Collections.singleton(VALUE)));
+    assertEquals(provider.getAvailability(security(UniqueId.of("Mock", "A"), "Foo")), MarketDataAvailability.NOT_AVAILABLE);
+    assertEquals(securities._lookups, 0);
+    provider.setIndex(provider.getIndex().withAvailable(ExternalId.of(OTHER, "A"), "Foo"));
+    assertEquals(provider.getAvailability(security(UniqueId.of("Mock", "A"), "Foo")), MarketDataAvailability.NOT_AVAILABLE);
+    assertEquals(securities._lookups, 1);
+  }
+
+  public void testCacheBounded() {
+    final CountingSecuritySource securities = new CountingSecuritySource();
+    final IndexedMarketDataAvailabilityProvider provider = new IndexedMarketDataAvailabilityProvider(securities,
+        MarketDataAvailabilityIndex.of(Collections.singleton(LIVE), Collections.singleton(VALUE)), 1);
+    provider.getAvailability(security(UniqueId.of("Mock", "A"), VALUE));
+    provider.getAvailability(security(UniqueId.of("Mock", "B"), VALUE));
+    provider.getAvailability(security(UniqueId.of("Mock", "A"), VALUE));
+    assertEquals(securities._lookups, 3);
+  }
+
+  public void testDispose() {
+    final BasicChangeManager changeManager = new BasicChangeManager();
+    final CountingSecuritySource securities = new CountingSecuritySource() {
+      @Override
+      public ChangeManager changeManager() {
+        return changeManager;
+      }
+    };
+    final UniqueId latest = UniqueId.of("Mock", "A");
+    final IndexedMarketDataAvailabilityProvider provider = new IndexedMarketDataAvailabilityProvider(securities,
+        MarketDataAvailabilityIndex.of(Collections.singleton(LIVE), Collections.singleton(VALUE)));
+    provider.getAvailability(security(latest, VALUE));
+    changeManager.entityChanged(ChangeType.UPDATED, latest, latest, null);
+    provider.getAvailability(security(latest, VALUE));
+    assertEquals(securities._lookups, 2);
+    provider.dispose();
+    provider.getAvailability(security(latest, VALUE));
+    changeManager.entityChanged(ChangeType.UPDATED, latest, latest, null);
+    provider.getAvailability(security(latest, VALUE));
+    assertEquals(securities._lookups, 3);
+  }
+
+}
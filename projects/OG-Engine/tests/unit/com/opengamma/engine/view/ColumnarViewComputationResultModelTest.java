@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.ComputationTargetType;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.id.UniqueId;
+
+/**
+ * Tests the {@link ColumnarViewComputationResultModel} against {@link InMemoryViewComputationResultModel}.
+ */
+@Test
+public class ColumnarViewComputationResultModelTest {
+
+  private static final ComputationTargetSpecification TARGET_1 = new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of("Test", "1"));
+  private static final ComputationTargetSpecification TARGET_2 = new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of("Test", "2"));
+  private static final ComputationTargetSpecification TARGET_3 = new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of("Test", "3"));
+
+  private static ValueSpecification spec(final String valueName, final ComputationTargetSpecification target) {
+    return new ValueSpecification(valueName, target, ValueProperties.with(ValuePropertyNames.FUNCTION, "Fn").get());
+  }
+
+  private static ResultModelLayout layout() {
+    final Map<String, List<ValueSpecification>> specifications = new HashMap<String, List<ValueSpecification>>();
+    specifications.put("Default", Arrays.asList(spec("PV", TARGET_1), spec("Label", TARGET_1), spec("PV", TARGET_2), spec("PV", TARGET_3)));
+    specifications.put("Bumped", Arrays.asList(spec("PV", TARGET_1), spec("PV", TARGET_2)));
+    specifications.put("Empty", Arrays.asList(spec("PV", TARGET_1)));
+    return new ResultModelLayout(specifications);
+  }
+
+  private static void setValue(final ColumnarViewComputationResultModel columnar, final InMemoryViewComputationResultModel inMemory, final String calcConfig,
+      final ValueSpecification spec, final Object value) {
+    columnar.setValue(calcConfig, spec, value);
+    inMemory.addValue(calcConfig, new ComputedValue(spec, value));
+  }
+
+  public void testEquivalentToInMemory() {
+    final ColumnarViewComputationResultModel columnar = new ColumnarViewComputationResultModel(layout());
+    final InMemoryViewComputationResultModel inMemory = new InMemoryViewComputationResultModel();
+    setValue(columnar, inMemory, "Default", spec("PV", TARGET_1), 1d);
+    setValue(columnar, inMemory, "Default", spec("Label", TARGET_1), "One");
+    setValue(columnar, inMemory, "Default", spec("PV", TARGET_2), 2d);
+    setValue(columnar, inMemory, "Bumped", spec("PV", TARGET_2), 2.5d);
+    assertEquals(new HashSet<String>(inMemory.getCalculationConfigurationNames()), new HashSet<String>(columnar.getCalculationConfigurationNames()));
+    assertEquals(inMemory.getAllTargets(), columnar.getAllTargets());
+    assertEquals(inMemory.getAllOutputValueNames(), columnar.getAllOutputValueNames());
+    assertEquals(inMemory.getAllResults().size(), columnar.getAllResults().size());
+    for (String calcConfig : inMemory.getCalculationConfigurationNames()) {
+      final ViewCalculationResultModel expected = inMemory.getCalculationResult(calcConfig);
+      final ViewCalculationResultModel actual = columnar.getCalculationResult(calcConfig);
+      assertEquals(new HashSet<ComputationTargetSpecification>(expected.getAllTargets()), new HashSet<ComputationTargetSpecification>(actual.getAllTargets()));
+      for (ComputationTargetSpecification target : expected.getAllTargets()) {
+        assertEquals(expected.getValues(target), actual.getValues(target));
+      }
+    }
+    for (ComputationTargetSpecification target : inMemory.getAllTargets()) {
+      final ViewTargetResultModel expected = inMemory.getTargetResult(target);
+      final ViewTargetResultModel actual = columnar.getTargetResult(target);
+      assertEquals(new HashSet<String>(expected.getCalculationConfigurationNames()), new HashSet<String>(actual.getCalculationConfigurationNames()));
+      for (String calcConfig : expected.getCalculationConfigurationNames()) {
+        assertEquals(new HashSet<ComputedValue>(expected.getAllValues(calcConfig)), new HashSet<ComputedValue>(actual.getAllValues(calcConfig)));
+      }
+    }
+  }
+
+  public void testAbsentValues() {
+    final ColumnarViewComputationResultModel columnar = new ColumnarViewComputationResultModel(layout());
+    columnar.setValue("Default", spec("PV", TARGET_1), 1d);
+    assertNull(columnar.getCalculationResult("Bumped"));
+    assertNull(columnar.getCalculationResult("Default").getValues(TARGET_3));
+    assertNull(columnar.getTargetResult(TARGET_3));
+    assertEquals(1, columnar.getAllResults().size());
+  }
+
+  public void testReplaceValue() {
+    final ColumnarViewComputationResultModel columnar = new ColumnarViewComputationResultModel(layout());
+    columnar.setValue("Default", spec("PV", TARGET_1), 1d);
+    assertEquals(1, columnar.getAllResults().size());
+    columnar.setValue("Default", spec("PV", TARGET_1), "Error");
+    assertEquals(1, columnar.getAllResults().size());
+    assertEquals("Error", columnar.getAllResults().get(0).getComputedValue().getValue());
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testValueNotInLayout() {
+    new ColumnarViewComputationResultModel(layout()).setValue("Bumped", spec("PV", TARGET_3), 1d);
+  }
+
+}
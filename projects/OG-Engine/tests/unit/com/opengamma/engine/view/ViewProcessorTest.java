@@ -14,6 +14,7 @@ import static org.testng.AssertJUnit.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -237,6 +238,53 @@ public class ViewProcessorTest {
     assertEquals(0, vp.getViewCycleManager().getResourceCount());
   }
   
+  public void testSlowBatchListenerReceivesEveryCycle() throws InterruptedException {
+    final int cycleCount = 10;
+    final Set<UniqueId> writtenCycleIds = Collections.synchronizedSet(new HashSet<UniqueId>());
+    final CountDownLatch completed = new CountDownLatch(1);
+    final ViewResultListener batchListener = new AbstractViewResultListener() {
+
+      @Override
+      public void cycleCompleted(ViewComputationResultModel fullResult, ViewDeltaResultModel deltaResult) {
+        try {
+          Thread.sleep(50);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        writtenCycleIds.add(fullResult.getViewCycleId());
+      }
+
+      @Override
+      public void processCompleted() {
+        completed.countDown();
+      }
+
+      @Override
+      public UserPrincipal getUser() {
+        return UserPrincipal.getTestUser();
+      }
+
+    };
+    when(viewResultListenerFactoryStub.createViewResultListener()).thenReturn(batchListener);
+    final ViewProcessorTestEnvironment env = new ViewProcessorTestEnvironment();
+    env.setViewResultListenerFactory(viewResultListenerFactoryStub);
+    env.init();
+    ViewProcessorImpl vp = env.getViewProcessor();
+    // Other listeners would have all but the last result merged away
+    vp.setListenerQueueCapacity(1);
+    vp.start();
+
+    final ViewClient client = vp.createViewClient(ViewProcessorTestEnvironment.TEST_USER);
+    ViewExecutionOptions executionOptions = ExecutionOptions.batch(generateExecutionSequence(cycleCount), new ViewCycleExecutionOptions(MarketData.live()));
+    client.attachToViewProcess(env.getViewDefinition().getUniqueId(), executionOptions);
+    client.waitForCompletion();
+    client.shutdown();
+
+    assertTrue(completed.await(Timeout.standardTimeoutMillis(), TimeUnit.MILLISECONDS));
+    assertEquals(cycleCount, writtenCycleIds.size());
+    vp.stop();
+  }
+
   private ViewCycleExecutionSequence generateExecutionSequence(int cycleCount) {
     Collection<InstantProvider> valuationTimes = new ArrayList<InstantProvider>(cycleCount);
     Instant now = Instant.now();
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.calc;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.ComputationTargetType;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.id.UniqueId;
+
+/**
+ * Test.
+ */
+@Test(groups = "unit")
+public class MarketDataSubscriptionTrackerTest {
+
+  private static final ValueRequirement REQ_A = new ValueRequirement("Market_Value", new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of("Test", "A")));
+  private static final ValueRequirement REQ_B = new ValueRequirement("Market_Value", new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of("Test", "B")));
+  private static final ValueRequirement REQ_C = new ValueRequirement("Market_Value", new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of("Test", "C")));
+
+  public void testAllConfirmed() throws InterruptedException {
+    final MarketDataSubscriptionTracker tracker = new MarketDataSubscriptionTracker();
+    tracker.requested(Arrays.asList(REQ_A, REQ_B));
+    assertEquals(tracker.getOutstandingCount(), 2);
+    tracker.succeeded(REQ_A);
+    tracker.failed(REQ_B);
+    assertTrue(tracker.await(0, TimeUnit.MILLISECONDS));
+    assertEquals(tracker.getOutstandingCount(), 0);
+    assertEquals(tracker.getFailedCount(), 1);
+    assertEquals(tracker.getMissingCount(), 1);
+  }
+
+  public void testTimeoutMarksLate() throws InterruptedException {
+    final MarketDataSubscriptionTracker tracker = new MarketDataSubscriptionTracker();
+    tracker.requested(Arrays.asList(REQ_A, REQ_B));
+    tracker.succeeded(REQ_A);
+    assertFalse(tracker.await(10, TimeUnit.MILLISECONDS));
+    assertEquals(tracker.getMissingCount(), 1);
+    // Late subscriptions are not waited for again
+    assertTrue(tracker.await(10, TimeUnit.MILLISECONDS));
+    tracker.succeeded(REQ_B);
+    assertEquals(tracker.getMissingCount(), 0);
+  }
+
+  public void testWaitsForConcurrentConfirmation() throws InterruptedException {
+    final MarketDataSubscriptionTracker tracker = new MarketDataSubscriptionTracker();
+    tracker.requested(Arrays.asList(REQ_A, REQ_B));
+    final Thread confirm = new Thread() {
+      @Override
+      public void run() {
+        try {
+          Thread.sleep(50);
+        } catch (InterruptedException e) {
+          return;
+        }
+        tracker.succeeded(REQ_A);
+        tracker.succeeded(REQ_B);
+      }
+    };
+    confirm.start();
+    assertTrue(tracker.await(10, TimeUnit.SECONDS));
+    assertEquals(tracker.getMissingCount(), 0);
+    confirm.join();
+  }
+
+  public void testRemoved() throws InterruptedException {
+    final MarketDataSubscriptionTracker tracker = new MarketDataSubscriptionTracker();
+    tracker.requested(Arrays.asList(REQ_A, REQ_B, REQ_C));
+    tracker.failed(REQ_C);
+    tracker.removed(Arrays.asList(REQ_B, REQ_C));
+    assertEquals(tracker.getMissingCount(), 1);
+    tracker.expire();
+    tracker.removed(Collections.singleton(REQ_A));
+    assertEquals(tracker.getMissingCount(), 0);
+    assertTrue(tracker.await(0, TimeUnit.MILLISECONDS));
+  }
+
+}
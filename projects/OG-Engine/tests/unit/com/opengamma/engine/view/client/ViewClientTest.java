@@ -96,7 +96,39 @@ public class ViewClientTest {
     client1.shutdown();
     client2.shutdown();
   }
-  
+
+  @Test
+  public void testFragmentResultsOnlyRequiredWhileWanted() {
+    ViewProcessorTestEnvironment env = new ViewProcessorTestEnvironment();
+    env.init();
+    ViewProcessorImpl vp = env.getViewProcessor();
+    vp.start();
+
+    ViewClient client1 = vp.createViewClient(ViewProcessorTestEnvironment.TEST_USER);
+    client1.attachToViewProcess(env.getViewDefinition().getUniqueId(), ExecutionOptions.infinite(MarketData.live()));
+    ViewProcessImpl viewProcess = env.getViewProcess(vp, client1.getUniqueId());
+    assertFalse(viewProcess.isFragmentResultsRequired());
+
+    client1.setFragmentResultMode(ViewResultMode.FULL_ONLY);
+    assertTrue(viewProcess.isFragmentResultsRequired());
+
+    // Mode set before attaching applies from the start
+    ViewClient client2 = vp.createViewClient(ViewProcessorTestEnvironment.TEST_USER);
+    client2.setFragmentResultMode(ViewResultMode.DELTA_ONLY);
+    client2.attachToViewProcess(env.getViewDefinition().getUniqueId(), ExecutionOptions.infinite(MarketData.live()));
+    assertEquals(viewProcess, env.getViewProcess(vp, client2.getUniqueId()));
+
+    client1.setFragmentResultMode(ViewResultMode.NONE);
+    assertTrue(viewProcess.isFragmentResultsRequired());
+
+    client2.detachFromViewProcess();
+    assertFalse(viewProcess.isFragmentResultsRequired());
+
+    vp.stop();
+    client1.shutdown();
+    client2.shutdown();
+  }
+
   @Test
   public void testCascadingShutdown() {
     ViewProcessorTestEnvironment env = new ViewProcessorTestEnvironment();
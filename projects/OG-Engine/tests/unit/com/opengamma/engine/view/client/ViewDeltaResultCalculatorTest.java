@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.client;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Sets;
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.ComputationTargetType;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.InMemoryViewComputationResultModel;
+import com.opengamma.engine.view.ViewCalculationConfiguration;
+import com.opengamma.engine.view.ViewDefinition;
+import com.opengamma.engine.view.ViewDeltaResultModel;
+import com.opengamma.id.UniqueId;
+import com.opengamma.livedata.UserPrincipal;
+
+/**
+ * Tests the {@link ViewDeltaResultCalculator}.
+ */
+@Test
+public class ViewDeltaResultCalculatorTest {
+
+  private static final String CALC_CONFIG = "Default";
+
+  private static ValueSpecification spec(final int target) {
+    return new ValueSpecification("Value", new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of("Test", Integer.toString(target))),
+        ValueProperties.with(ValuePropertyNames.FUNCTION, "Fn").get());
+  }
+
+  private static ViewDefinition viewDefinition() {
+    final ViewDefinition viewDefinition = new ViewDefinition("Test", UserPrincipal.getTestUser());
+    viewDefinition.addViewCalculationConfiguration(new ViewCalculationConfiguration(viewDefinition, CALC_CONFIG));
+    return viewDefinition;
+  }
+
+  private static InMemoryViewComputationResultModel result(final int cycle, final double... values) {
+    final InMemoryViewComputationResultModel result = new InMemoryViewComputationResultModel();
+    result.setViewCycleId(UniqueId.of("Cycle", Integer.toString(cycle)));
+    for (int i = 0; i < values.length; i++) {
+      result.addValue(CALC_CONFIG, new ComputedValue(spec(i), values[i]));
+    }
+    return result;
+  }
+
+  private static Set<Object> values(final ViewDeltaResultModel delta) {
+    return new HashSet<Object>(delta.getAllResults());
+  }
+
+  public void testFullComparison() {
+    final InMemoryViewComputationResultModel previous = result(1, 1d, 2d, 3d);
+    final InMemoryViewComputationResultModel result = result(2, 1d, 5d, 3d, 4d);
+    final ViewDeltaResultModel delta = ViewDeltaResultCalculator.computeDeltaModel(viewDefinition(), previous, result);
+    assertEquals(2, delta.getAllResults().size());
+  }
+
+  public void testChangedValuesOnly() {
+    final InMemoryViewComputationResultModel previous = result(1, 1d, 2d, 3d, 4d);
+    // Value 0 differs but is not reported as changed so is not compared; value 2 is reported but has not changed
+    final InMemoryViewComputationResultModel result = result(2, 9d, 5d, 3d, 4d);
+    final Map<String, Set<ValueSpecification>> changed = Collections.singletonMap(CALC_CONFIG, (Set<ValueSpecification>) Sets.newHashSet(spec(1), spec(2)));
+    final ViewDeltaResultModel delta = ViewDeltaResultCalculator.computeDeltaModel(viewDefinition(), previous, result, changed);
+    assertEquals(1, delta.getAllResults().size());
+    assertEquals(spec(1), delta.getAllResults().get(0).getComputedValue().getSpecification());
+  }
+
+  public void testChangedValuesFragment() {
+    final InMemoryViewComputationResultModel previous = result(1, 1d, 2d, 3d);
+    // A fragment holding fewer values than were changed
+    final InMemoryViewComputationResultModel fragment = new InMemoryViewComputationResultModel();
+    fragment.addValue(CALC_CONFIG, new ComputedValue(spec(0), 7d));
+    final Map<String, Set<ValueSpecification>> changed = Collections.singletonMap(CALC_CONFIG, (Set<ValueSpecification>) Sets.newHashSet(spec(0), spec(1), spec(2)));
+    final ViewDeltaResultModel delta = ViewDeltaResultCalculator.computeDeltaModel(viewDefinition(), previous, fragment, changed);
+    assertEquals(1, delta.getAllResults().size());
+  }
+
+  public void testMissingCalcConfigComparedInFull() {
+    final InMemoryViewComputationResultModel previous = result(1, 1d, 2d);
+    final InMemoryViewComputationResultModel result = result(2, 3d, 2d);
+    final Map<String, Set<ValueSpecification>> changed = Collections.emptyMap();
+    assertEquals(values(ViewDeltaResultCalculator.computeDeltaModel(viewDefinition(), previous, result)),
+        values(ViewDeltaResultCalculator.computeDeltaModel(viewDefinition(), previous, result, changed)));
+  }
+
+}
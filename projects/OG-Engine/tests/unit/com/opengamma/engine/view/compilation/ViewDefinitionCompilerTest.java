@@ -8,6 +8,7 @@ package com.opengamma.engine.view.compilation;
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertSame;
 import static org.testng.AssertJUnit.assertTrue;
 import static org.testng.AssertJUnit.fail;
 
@@ -37,6 +38,7 @@ import com.opengamma.engine.DefaultCachingComputationTargetResolver;
 import com.opengamma.engine.DefaultComputationTargetResolver;
 import com.opengamma.engine.depgraph.DependencyGraph;
 import com.opengamma.engine.depgraph.DependencyGraphBuilderFactory;
+import com.opengamma.engine.depgraph.DependencyNode;
 import com.opengamma.engine.function.CachingFunctionRepositoryCompiler;
 import com.opengamma.engine.function.CompiledFunctionService;
 import com.opengamma.engine.function.FunctionCompilationContext;
@@ -46,6 +48,7 @@ import com.opengamma.engine.function.resolver.DefaultFunctionResolver;
 import com.opengamma.engine.marketdata.InMemoryLKVMarketDataProvider;
 import com.opengamma.engine.test.MockFunction;
 import com.opengamma.engine.test.MockSecuritySource;
+import com.opengamma.engine.value.ValueRequirement;
 import com.opengamma.engine.view.ResultOutputMode;
 import com.opengamma.engine.view.ViewCalculationConfiguration;
 import com.opengamma.engine.view.ViewDefinition;
@@ -265,6 +268,44 @@ public class ViewDefinitionCompilerTest {
     assertTargets(compiledViewDefinition);
   }
 
+  public void testMarketDataSharedBetweenConfigurations() {
+    ViewDefinition viewDefinition = new ViewDefinition("Test", "jonathan");
+    ViewCalculationConfiguration calcConfig1 = new ViewCalculationConfiguration(viewDefinition, "Config1");
+    viewDefinition.addViewCalculationConfiguration(calcConfig1);
+    ViewCalculationConfiguration calcConfig2 = new ViewCalculationConfiguration(viewDefinition, "Config2");
+    viewDefinition.addViewCalculationConfiguration(calcConfig2);
+    UniqueId t1 = UniqueId.of("TestScheme", "t1");
+    ValueRequirement requirement = new ValueRequirement("Market_Value", ComputationTargetType.PRIMITIVE, t1);
+    InMemoryLKVMarketDataProvider snapshotProvider = new InMemoryLKVMarketDataProvider();
+    snapshotProvider.addValue(requirement, 42d);
+    InMemoryFunctionRepository functionRepo = new InMemoryFunctionRepository();
+    FunctionCompilationContext compilationContext = new FunctionCompilationContext();
+    compilationContext.setFunctionInitId(123);
+    final CompiledFunctionService cfs = new CompiledFunctionService(functionRepo, new CachingFunctionRepositoryCompiler(), compilationContext);
+    cfs.initialize();
+    DefaultFunctionResolver functionResolver = new DefaultFunctionResolver(cfs);
+    DefaultCachingComputationTargetResolver computationTargetResolver = new DefaultCachingComputationTargetResolver(new DefaultComputationTargetResolver(), EHCacheUtils.createCacheManager());
+    compilationContext.setComputationTargetResolver(computationTargetResolver);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    ViewCompilationServices compilationServices = new ViewCompilationServices(snapshotProvider, functionResolver, compilationContext, computationTargetResolver, executorService,
+        new DependencyGraphBuilderFactory());
+    calcConfig1.addSpecificRequirement(requirement);
+    calcConfig2.addSpecificRequirement(requirement);
+    CompiledViewDefinitionWithGraphsImpl compiledViewDefinition = ViewDefinitionCompiler.compile(viewDefinition, compilationServices, Instant.now(), VersionCorrection.LATEST);
+    DependencyGraph graph1 = compiledViewDefinition.getDependencyGraph("Config1");
+    DependencyGraph graph2 = compiledViewDefinition.getDependencyGraph("Config2");
+    assertEquals(1, graph1.getDependencyNodes().size());
+    assertEquals(1, graph2.getDependencyNodes().size());
+    DependencyNode node1 = graph1.getDependencyNodes().iterator().next();
+    DependencyNode node2 = graph2.getDependencyNodes().iterator().next();
+    // The second configuration uses the resolution made by the first rather than resolving the requirement again
+    assertSame(node1.getFunction(), node2.getFunction());
+    // Each builder timed its own configuration
+    assertEquals(2, compiledViewDefinition.getDependencyGraphBuildTimesByConfiguration().size());
+    assertTrue(compiledViewDefinition.getDependencyGraphBuildTimesByConfiguration().get("Config1") >= 0);
+    assertTrue(compiledViewDefinition.getDependencyGraphBuildTimesByConfiguration().get("Config2") >= 0);
+  }
+
   public void testCancel() throws Exception {
     final ViewDefinition viewDefinition = new ViewDefinition("Test", "jonathan");
     ViewCalculationConfiguration calcConfig = new ViewCalculationConfiguration(viewDefinition, "Config1");
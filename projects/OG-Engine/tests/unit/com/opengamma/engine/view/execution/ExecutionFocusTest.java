@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.execution;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Sets;
+import com.opengamma.engine.ComputationTarget;
+import com.opengamma.engine.ComputationTargetType;
+import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.depgraph.DependencyNode;
+import com.opengamma.engine.depgraph.DependencyNodeFilter;
+import com.opengamma.engine.function.MarketDataSourcingFunction;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.id.UniqueId;
+
+/**
+ * Tests the {@link ExecutionFocus} class.
+ */
+@Test
+public class ExecutionFocusTest {
+
+  private static ValueSpecification spec(final String name) {
+    return new ValueSpecification("Value", new ComputationTarget(ComputationTargetType.PRIMITIVE, UniqueId.of("Test", name)).toSpecification(),
+        ValueProperties.with(ValuePropertyNames.FUNCTION, "Fn").get());
+  }
+
+  private static DependencyNode node(final String name, final DependencyNode... inputs) {
+    final ComputationTarget target = new ComputationTarget(ComputationTargetType.PRIMITIVE, UniqueId.of("Test", name));
+    final DependencyNode node = new DependencyNode(target);
+    node.setFunction(new MarketDataSourcingFunction(new ValueRequirement("Value", target.toSpecification())));
+    node.addInputNodes(Sets.newHashSet(inputs));
+    node.addOutputValue(spec(name));
+    return node;
+  }
+
+  private static ExecutionFocus focus(final String calcConfig, final String... names) {
+    final Map<String, List<ValueSpecification>> values = new HashMap<String, List<ValueSpecification>>();
+    final ValueSpecification[] specs = new ValueSpecification[names.length];
+    for (int i = 0; i < names.length; i++) {
+      specs[i] = spec(names[i]);
+    }
+    values.put(calcConfig, Arrays.asList(specs));
+    return ExecutionFocus.of(values);
+  }
+
+  public void testUnion() {
+    final ExecutionFocus union = ExecutionFocus.union(Arrays.asList(focus("A", "1", "2"), focus("A", "2", "3"), focus("B", "4")));
+    assertEquals(Sets.newHashSet("A", "B"), union.getCalculationConfigurationNames());
+    assertEquals(Sets.newHashSet(spec("1"), spec("2"), spec("3")), union.getValueSpecifications("A"));
+    assertEquals(Sets.newHashSet(spec("4")), union.getValueSpecifications("B"));
+    assertTrue(union.getValueSpecifications("C").isEmpty());
+    assertEquals(union, ExecutionFocus.union(Arrays.asList(focus("B", "4"), focus("A", "3", "2", "1"))));
+  }
+
+  public void testEmptyConfigurationsIgnored() {
+    final Map<String, List<ValueSpecification>> values = new HashMap<String, List<ValueSpecification>>();
+    values.put("A", Collections.<ValueSpecification>emptyList());
+    final ExecutionFocus focus = ExecutionFocus.of(values);
+    assertTrue(focus.getCalculationConfigurationNames().isEmpty());
+    assertEquals(ExecutionFocus.of(Collections.<String, List<ValueSpecification>>emptyMap()), focus);
+  }
+
+  /**
+   * Graph with two roots sharing an input.
+   * <pre>
+   *   root1   root2
+   *     |   /   |
+   *   mid1   mid2
+   *     |
+   *   leaf
+   * </pre>
+   */
+  public void testNodeFilter() {
+    final DependencyNode leaf = node("leaf");
+    final DependencyNode mid1 = node("mid1", leaf);
+    final DependencyNode mid2 = node("mid2");
+    final DependencyNode root1 = node("root1", mid1);
+    final DependencyNode root2 = node("root2", mid1, mid2);
+    final DependencyGraph graph = new DependencyGraph("A");
+    for (DependencyNode node : Arrays.asList(leaf, mid1, mid2, root1, root2)) {
+      graph.addDependencyNode(node);
+    }
+    final DependencyNodeFilter filter = focus("A", "root1").createNodeFilter(graph);
+    assertTrue(filter.accept(root1));
+    assertTrue(filter.accept(mid1));
+    assertTrue(filter.accept(leaf));
+    assertFalse(filter.accept(root2));
+    assertFalse(filter.accept(mid2));
+    final DependencyNodeFilter otherConfig = focus("B", "root1").createNodeFilter(graph);
+    assertFalse(otherConfig.accept(root1));
+  }
+
+}
@@ -0,0 +1,192 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.engine.view.listener;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.LinkedList;
+import java.util.concurrent.Executor;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.ComputationTargetType;
+import com.opengamma.engine.test.TestViewResultListener;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.InMemoryViewComputationResultModel;
+import com.opengamma.engine.view.InMemoryViewDeltaResultModel;
+import com.opengamma.engine.view.calc.ViewCycleMetadata;
+import com.opengamma.id.UniqueId;
+
+/**
+ * Tests the {@link ViewResultListenerMailbox}.
+ */
+@Test
+public class ViewResultListenerMailboxTest {
+
+  /**
+   * Runs delivery tasks only when asked, standing in for a slow listener.
+   */
+  private static class ManualExecutor implements Executor {
+
+    private final LinkedList<Runnable> _tasks = new LinkedList<Runnable>();
+
+    @Override
+    public void execute(final Runnable command) {
+      _tasks.add(command);
+    }
+
+    public void runAll() {
+      while (!_tasks.isEmpty()) {
+        _tasks.removeFirst().run();
+      }
+    }
+
+  }
+
+  private static ComputedValue value(final int target, final double value) {
+    return new ComputedValue(new ValueSpecification("Value", new ComputationTargetSpecification(ComputationTargetType.PRIMITIVE, UniqueId.of("Test", Integer.toString(target))),
+        ValueProperties.with(ValuePropertyNames.FUNCTION, "Fn").get()), value);
+  }
+
+  private static InMemoryViewComputationResultModel fullResult(final int cycle) {
+    final InMemoryViewComputationResultModel result = new InMemoryViewComputationResultModel();
+    result.setViewCycleId(UniqueId.of("Cycle", Integer.toString(cycle)));
+    result.addValue("Default", value(0, cycle));
+    return result;
+  }
+
+  private static InMemoryViewDeltaResultModel deltaResult(final int target, final double value) {
+    final InMemoryViewDeltaResultModel result = new InMemoryViewDeltaResultModel();
+    result.addValue("Default", value(target, value));
+    return result;
+  }
+
+  public void testDeliversInOrder() throws InterruptedException {
+    final ManualExecutor executor = new ManualExecutor();
+    final TestViewResultListener listener = new TestViewResultListener();
+    final ViewResultListenerMailbox mailbox = new ViewResultListenerMailbox(listener, executor, 4, ListenerOverflowPolicy.MERGE);
+    mailbox.cycleStarted(null);
+    mailbox.cycleCompleted(fullResult(1), null);
+    mailbox.processCompleted();
+    listener.assertNoCalls();
+    assertEquals(3, mailbox.getQueueSize());
+    executor.runAll();
+    listener.expectNextCall(CycleStartedCall.class, 0);
+    listener.expectNextCall(CycleCompletedCall.class, 0);
+    listener.expectNextCall(ProcessCompletedCall.class, 0);
+    assertEquals(0, mailbox.getQueueSize());
+    assertEquals(0, mailbox.getLagMillis());
+    assertEquals(3, mailbox.getDeliveredCount());
+  }
+
+  public void testMerge() throws InterruptedException {
+    final ManualExecutor executor = new ManualExecutor();
+    final TestViewResultListener listener = new TestViewResultListener();
+    final ViewResultListenerMailbox mailbox = new ViewResultListenerMailbox(listener, executor, 2, ListenerOverflowPolicy.MERGE);
+    mailbox.cycleCompleted(fullResult(1), deltaResult(1, 1));
+    mailbox.processCompleted();
+    mailbox.cycleCompleted(fullResult(2), deltaResult(2, 2));
+    mailbox.cycleCompleted(fullResult(3), deltaResult(3, 3));
+    assertEquals(2, mailbox.getQueueSize());
+    assertEquals(2, mailbox.getMergedCount());
+    executor.runAll();
+    // The merged result is delivered after the call it was queued behind
+    listener.expectNextCall(ProcessCompletedCall.class, 0);
+    final CycleCompletedCall call = listener.getCycleCompleted(0);
+    assertEquals(UniqueId.of("Cycle", "3"), call.getFullResult().getViewCycleId());
+    assertEquals(3, call.getDeltaResult().getAllResults().size());
+    listener.assertNoCalls();
+  }
+
+  public void testDropIntermediate() throws InterruptedException {
+    final ManualExecutor executor = new ManualExecutor();
+    final TestViewResultListener listener = new TestViewResultListener();
+    final ViewResultListenerMailbox mailbox = new ViewResultListenerMailbox(listener, executor, 2, ListenerOverflowPolicy.DROP_INTERMEDIATE);
+    mailbox.cycleStarted(null);
+    mailbox.cycleCompleted(fullResult(1), deltaResult(1, 1));
+    final InMemoryViewComputationResultModel latest = fullResult(2);
+    mailbox.cycleCompleted(latest, deltaResult(2, 2));
+    assertEquals(2, mailbox.getDroppedCount());
+    executor.runAll();
+    final CycleCompletedCall call = listener.getCycleCompleted(0);
+    assertSame(latest, call.getFullResult());
+    assertNull(call.getDeltaResult());
+    listener.assertNoCalls();
+  }
+
+  public void testDropIntermediateKeepsStartOfLatestCycle() throws InterruptedException {
+    final ManualExecutor executor = new ManualExecutor();
+    final TestViewResultListener listener = new TestViewResultListener();
+    final ViewResultListenerMailbox mailbox = new ViewResultListenerMailbox(listener, executor, 3, ListenerOverflowPolicy.DROP_INTERMEDIATE);
+    final ViewCycleMetadata cycle2 = mock(ViewCycleMetadata.class);
+    mailbox.cycleStarted(mock(ViewCycleMetadata.class));
+    mailbox.cycleCompleted(fullResult(1), deltaResult(1, 1));
+    mailbox.cycleStarted(cycle2);
+    final InMemoryViewComputationResultModel latest = fullResult(2);
+    mailbox.cycleCompleted(latest, deltaResult(2, 2));
+    assertEquals(2, mailbox.getDroppedCount());
+    executor.runAll();
+    assertSame(cycle2, listener.getCycleStarted(0).getCycleMetadata());
+    assertSame(latest, listener.getCycleCompleted(0).getFullResult());
+    listener.assertNoCalls();
+  }
+
+  public void testMergeFragmentsKeepsEveryCycle() throws InterruptedException {
+    final ManualExecutor executor = new ManualExecutor();
+    final TestViewResultListener listener = new TestViewResultListener();
+    final ViewResultListenerMailbox mailbox = new ViewResultListenerMailbox(listener, executor, 2, ListenerOverflowPolicy.MERGE_FRAGMENTS);
+    mailbox.cycleStarted(null);
+    mailbox.cycleFragmentCompleted(null, deltaResult(1, 1));
+    mailbox.cycleFragmentCompleted(null, deltaResult(2, 1));
+    mailbox.cycleCompleted(fullResult(1), null);
+    mailbox.cycleStarted(null);
+    mailbox.cycleFragmentCompleted(null, deltaResult(1, 2));
+    mailbox.cycleCompleted(fullResult(2), null);
+    assertEquals(1, mailbox.getMergedCount());
+    assertEquals(0, mailbox.getDroppedCount());
+    executor.runAll();
+    listener.getCycleStarted(0);
+    assertEquals(2, listener.getCycleFragmentCompleted(0).getDeltaFragment().getAllResults().size());
+    assertEquals(UniqueId.of("Cycle", "1"), listener.getCycleCompleted(0).getFullResult().getViewCycleId());
+    listener.getCycleStarted(0);
+    assertEquals(1, listener.getCycleFragmentCompleted(0).getDeltaFragment().getAllResults().size());
+    assertEquals(UniqueId.of("Cycle", "2"), listener.getCycleCompleted(0).getFullResult().getViewCycleId());
+    listener.assertNoCalls();
+  }
+
+  public void testDisconnect() throws InterruptedException {
+    final ManualExecutor executor = new ManualExecutor();
+    final TestViewResultListener listener = new TestViewResultListener();
+    final ViewResultListenerMailbox mailbox = new ViewResultListenerMailbox(listener, executor, 1, ListenerOverflowPolicy.DISCONNECT);
+    mailbox.cycleCompleted(fullResult(1), null);
+    mailbox.cycleCompleted(fullResult(2), null);
+    assertTrue(mailbox.isDisconnected());
+    mailbox.cycleCompleted(fullResult(3), null);
+    executor.runAll();
+    assertTrue(listener.getProcessTerminated(0).isExecutionInterrupted());
+    listener.assertNoCalls();
+  }
+
+  public void testClose() {
+    final ManualExecutor executor = new ManualExecutor();
+    final TestViewResultListener listener = new TestViewResultListener();
+    final ViewResultListenerMailbox mailbox = new ViewResultListenerMailbox(listener, executor, 4, ListenerOverflowPolicy.MERGE);
+    mailbox.cycleCompleted(fullResult(1), null);
+    mailbox.close();
+    mailbox.cycleCompleted(fullResult(2), null);
+    executor.runAll();
+    listener.assertNoCalls();
+  }
+
+}
@@ -63,6 +63,16 @@ public abstract class AbstractJmsResultPublisher {
     _jmsConnector = jmsConnector;
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the Fudge context used to encode results.
+   * 
+   * @return the Fudge context, not null
+   */
+  protected FudgeContext getFudgeContext() {
+    return _fudgeContext;
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Stops listening to results from the underlying provider. 
@@ -75,6 +85,13 @@ public abstract class AbstractJmsResultPublisher {
    */
   protected abstract void startListener();
 
+  /**
+   * Called on the sending thread when a message could not be sent, so a subclass sending a stateful stream can make
+   * the messages that follow self-contained. The default implementation does nothing.
+   */
+  protected void sendFailed() {
+  }
+
   /**
    * Publishes a result over JMS.
    * <p>
@@ -177,6 +194,7 @@ public abstract class AbstractJmsResultPublisher {
       producer.send(msg);
     } catch (Exception e) {
       s_logger.error("Error while sending result over JMS. This result may never reach the client.", e);
+      sendFailed();
     }
   }
 
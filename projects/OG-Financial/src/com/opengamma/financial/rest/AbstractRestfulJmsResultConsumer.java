@@ -99,6 +99,14 @@ public abstract class AbstractRestfulJmsResultConsumer {
   
   protected abstract void dispatchListenerCall(Function<?, ?> listenerCall);
   
+  /**
+   * Adds any options for the result stream to the message which requests it. The default implementation adds none.
+   * 
+   * @param msg  the start message, not null
+   */
+  protected void configureResultStream(MutableFudgeMsg msg) {
+  }
+  
   //-------------------------------------------------------------------------
   protected URI getBaseUri() {
     return _baseUri;
@@ -222,6 +230,7 @@ public abstract class AbstractRestfulJmsResultConsumer {
       String destination = startJms();
       MutableFudgeMsg msg = FudgeContext.GLOBAL_DEFAULT.newMessage();
       msg.add(AbstractRestfulJmsResultPublisher.DESTINATION_FIELD, destination);
+      configureResultStream(msg);
       URI uri = getUri(getBaseUri(), AbstractRestfulJmsResultPublisher.PATH_START_JMS_RESULT_STREAM);
       getClient().accessFudge(uri).post(msg);
       try {
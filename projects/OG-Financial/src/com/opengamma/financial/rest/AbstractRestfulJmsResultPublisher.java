@@ -60,6 +60,15 @@ public abstract class AbstractRestfulJmsResultPublisher extends AbstractDataReso
    */
   protected abstract void expire();
   
+  /**
+   * Called with the message requesting the result stream before publishing starts, allowing the consumer to pass
+   * options for the stream. The default implementation does nothing.
+   * 
+   * @param msg  the start message, not null
+   */
+  protected void configureResultStream(FudgeMsg msg) {
+  }
+  
   //-------------------------------------------------------------------------
   protected void startPublishingResults(String destination) throws Exception {
     getResultPublisher().startPublishingResults(destination);
@@ -92,6 +101,7 @@ public abstract class AbstractRestfulJmsResultPublisher extends AbstractDataReso
   public Response startResultStream(final FudgeMsg msg) {
     updateLastAccessed();
     final String destination = msg.getString(DESTINATION_FIELD);
+    configureResultStream(msg);
     _executor.execute(new Runnable() {
 
       @Override
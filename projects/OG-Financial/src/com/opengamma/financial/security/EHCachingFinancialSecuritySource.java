@@ -9,11 +9,11 @@ import java.io.Serializable;
 import java.math.BigInteger;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Set;
 
 import javax.time.Instant;
 import javax.time.calendar.Period;
@@ -25,9 +25,10 @@ import net.sf.ehcache.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.MapMaker;
 import com.opengamma.DataNotFoundException;
+import com.opengamma.core.cache.SourceCache;
 import com.opengamma.core.change.BasicChangeManager;
+import com.opengamma.core.change.BatchChangeListener;
 import com.opengamma.core.change.ChangeEvent;
 import com.opengamma.core.change.ChangeListener;
 import com.opengamma.core.change.ChangeManager;
@@ -61,12 +62,6 @@ public class EHCachingFinancialSecuritySource extends AbstractSecuritySource imp
   /** The Bundle hint cache key. */
   /* package for testing */static final String BUNDLE_HINT_SECURITIES_CACHE = "multi-securities-hint-cache";
 
-  /**
-   * EHCache doesn't like being hammered repeatedly for the same objects. Also, if the window of objects being requested is bigger than the in memory window then new objects get created as the on-disk
-   * values get deserialized. The solution is to maintain a soft referenced buffer so that all the while the objects we have previously returned are in use we won't requery EHCache for them.
-   */
-  private final ConcurrentMap<UniqueId, Security> _frontCache = new MapMaker().weakValues().makeMap();
-
   /**
    * EHCache doesn't like being hammered repeatedly for the same objects. Also, if the window of objects being requested is bigger than the in memory window then new objects get created as the on-disk
    * values get deserialized. The solution is to maintain a soft referenced buffer so that all the while the objects we have previously returned are in use we won't requery EHCache for them.
@@ -82,9 +77,9 @@ public class EHCachingFinancialSecuritySource extends AbstractSecuritySource imp
    */
   private final CacheManager _manager;
   /**
-   * The single security cache.
+   * The single security cache, by unique identifier or object identifier and version-correction.
    */
-  private final Cache _uidCache;
+  private final SourceCache<Security> _securityCache;
   /**
    * The multiple security cache.
    */
@@ -116,28 +111,39 @@ public class EHCachingFinancialSecuritySource extends AbstractSecuritySource imp
     ArgumentChecker.notNull(underlying, "underlying");
     ArgumentChecker.notNull(cacheManager, "cacheManager");
     _underlying = underlying;
-    EHCacheUtils.addCache(cacheManager, SINGLE_SECURITY_CACHE);
     EHCacheUtils.addCache(cacheManager, MULTI_SECURITIES_CACHE);
     EHCacheUtils.addCache(cacheManager, MULTI_BONDS_CACHE);
     EHCacheUtils.addCache(cacheManager, BUNDLE_HINT_SECURITIES_CACHE);
-    _uidCache = EHCacheUtils.getCacheFromManager(cacheManager, SINGLE_SECURITY_CACHE);
+    _securityCache = new SourceCache<Security>(SINGLE_SECURITY_CACHE, cacheManager, new SourceCache.Loader<Security>() {
+
+      @Override
+      public Security load(final UniqueId uniqueId) {
+        return getUnderlying().getSecurity(uniqueId);
+      }
+
+      @Override
+      public Security load(final ObjectId objectId, final VersionCorrection versionCorrection) {
+        return getUnderlying().getSecurity(objectId, versionCorrection);
+      }
+
+      @Override
+      public Map<UniqueId, Security> loadAll(final Collection<UniqueId> uniqueIds) {
+        return getUnderlying().getSecurities(uniqueIds);
+      }
+
+    });
     _bundleCache = EHCacheUtils.getCacheFromManager(cacheManager, MULTI_SECURITIES_CACHE);
     _bundleHintCache = EHCacheUtils.getCacheFromManager(cacheManager, BUNDLE_HINT_SECURITIES_CACHE);
     _bondCache = EHCacheUtils.getCacheFromManager(cacheManager, MULTI_BONDS_CACHE);
     _manager = cacheManager;
     _changeManager = new BasicChangeManager();
-    _changeListener = new ChangeListener() {
+    _changeListener = new BatchChangeListener() {
 
       @Override
       public void entityChanged(ChangeEvent event) {
+        _securityCache.entityChanged(event);
         final UniqueId beforeId = event.getBeforeId();
-        if (beforeId != null) {
-          cleanCaches(beforeId);
-        }
         final UniqueId afterId = event.getAfterId();
-        if (afterId != null) {
-          cleanCaches(afterId);
-        }
         // Note: this is very inefficient
         final Iterator<Security> itr = _frontCache2.values().iterator();
         while (itr.hasNext()) {
@@ -150,6 +156,24 @@ public class EHCachingFinancialSecuritySource extends AbstractSecuritySource imp
         changeManager().entityChanged(event.getType(), event.getBeforeId(), event.getAfterId(), event.getVersionInstant());
       }
 
+      @Override
+      public void entitiesChanged(List<ChangeEvent> events) {
+        _securityCache.entitiesChanged(events);
+        final Set<UniqueId> changedIds = new HashSet<UniqueId>();
+        for (ChangeEvent event : events) {
+          changedIds.add(event.getBeforeId());
+          changedIds.add(event.getAfterId());
+        }
+        // scan the front cache once for the whole batch
+        final Iterator<Security> itr = _frontCache2.values().iterator();
+        while (itr.hasNext()) {
+          if (changedIds.contains(itr.next().getUniqueId())) {
+            itr.remove();
+          }
+        }
+        changeManager().entitiesChanged(events);
+      }
+
     };
     underlying.changeManager().addChangeListener(_changeListener);
   }
@@ -173,87 +197,32 @@ public class EHCachingFinancialSecuritySource extends AbstractSecuritySource imp
     return _manager;
   }
 
+  /**
+   * Gets the cache of securities by identifier.
+   * 
+   * @return the cache, not null
+   */
+  public SourceCache<Security> getSecurityCache() {
+    return _securityCache;
+  }
+
   @Override
   public Security getSecurity(UniqueId uid) {
     ArgumentChecker.notNull(uid, "uid");
-    Security result = _frontCache.get(uid);
-    if (result != null) {
-      return result;
-    }
-    Element e = _uidCache.get(uid);
-    if (e != null) {
-      if (e.getObjectValue() instanceof Security) {
-        result = (Security) e.getObjectValue();
-        s_logger.debug("retrieved security: {} from single-security-cache", result);
-        final Security existing = _frontCache.putIfAbsent(uid, result);
-        if (existing != null) {
-          return existing;
-        } else {
-          return result;
-        }
-      } else {
-        s_logger.warn("returned object {} from single-security-cache not a Security", e.getObjectValue());
-        return null;
-      }
-    } else {
-      result = getUnderlying().getSecurity(uid);
-      final Security existing = _frontCache.putIfAbsent(uid, result);
-      if (existing != null) {
-        return existing;
-      } else {
-        _uidCache.put(new Element(uid, result));
-        return result;
-      }
-    }
+    return _securityCache.get(uid);
   }
 
-  @SuppressWarnings("unchecked")
-  private Map<VersionCorrection, Security> getObjectIdCacheEntry(final ObjectId objectId) {
-    final Element e = _uidCache.get(objectId);
-    if (e != null) {
-      if (e.getObjectValue() instanceof Map<?, ?>) {
-        return (Map<VersionCorrection, Security>) e.getObjectValue();
-      }
-    }
-    return null;
+  @Override
+  public Map<UniqueId, Security> getSecurities(Collection<UniqueId> uniqueIds) {
+    ArgumentChecker.notNull(uniqueIds, "uniqueIds");
+    return _securityCache.getAll(uniqueIds);
   }
 
   @Override
   public Security getSecurity(final ObjectId objectId, final VersionCorrection versionCorrection) {
-    ArgumentChecker.notNull(objectId, "objectId");
-    ArgumentChecker.notNull(versionCorrection, "versionCorrection");
-    Security result = _frontCache2.get(objectId, versionCorrection);
+    final Security result = _securityCache.get(objectId, versionCorrection);
     if (result != null) {
-      return result;
-    }
-    Map<VersionCorrection, Security> securities = getObjectIdCacheEntry(objectId);
-    if (securities != null) {
-      result = securities.get(versionCorrection);
-      if (result != null) {
-        final Security existing = _frontCache2.putIfAbsent(objectId, versionCorrection, result);
-        if (existing != null) {
-          return existing;
-        }
-      }
-    }
-    if (result == null) {
-      result = getUnderlying().getSecurity(objectId, versionCorrection);
-      if (result != null) {
-        final Security existing = _frontCache2.putIfAbsent(objectId, versionCorrection, result);
-        if (existing != null) {
-          return existing;
-        }
-        _uidCache.put(new Element(result.getUniqueId(), result));
-      }
-      final Map<VersionCorrection, Security> newSecurities = new HashMap<VersionCorrection, Security>();
-      synchronized (this) {
-        securities = getObjectIdCacheEntry(objectId);
-        if (securities != null) {
-          newSecurities.putAll(securities);
-        }
-        newSecurities.put(versionCorrection, result);
-        _uidCache.put(new Element(objectId, newSecurities));
-      }
+      _securityCache.put(result.getUniqueId(), result);
     }
     return result;
   }
@@ -389,25 +358,16 @@ public class EHCachingFinancialSecuritySource extends AbstractSecuritySource imp
    */
   protected void shutdown() {
     _underlying.changeManager().removeChangeListener(_changeListener);
-    _manager.removeCache(SINGLE_SECURITY_CACHE);
+    _securityCache.shutdown();
     _manager.removeCache(MULTI_SECURITIES_CACHE);
     _manager.removeCache(MULTI_BONDS_CACHE);
     _manager.removeCache(BUNDLE_HINT_SECURITIES_CACHE);
   }
 
   //-------------------------------------------------------------------------
-  private void cleanCaches(UniqueId id) {
-    // Only care where the unversioned ID has been cached since it now represents something else
-    UniqueId latestId = id.toLatest();
-    _uidCache.remove(latestId);
-    _frontCache.remove(latestId);
-    // Destroy all version/correction cached values for the object
-    _uidCache.remove(id.getObjectId());
-  }
-
   private void cacheSecurities(Collection<Security> securities) {
     for (Security security : securities) {
-      _uidCache.put(new Element(security.getUniqueId(), security));
+      _securityCache.put(security.getUniqueId(), security);
     }
   }
 
@@ -6,6 +6,7 @@
 package com.opengamma.financial.spring;
 
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import net.sf.ehcache.CacheManager;
 
@@ -47,6 +48,16 @@ public class PositionSourceFactoryBean extends SpringFactoryBean<PositionSource>
    */
   @PropertyDefinition
   private CacheManager _cacheManager;
+  /**
+   * The maximum number of positions to request from the position master in one search.
+   */
+  @PropertyDefinition
+  private int _positionChunkSize = MasterPositionSource.DEFAULT_POSITION_CHUNK_SIZE;
+  /**
+   * The executor service used to load chunks of positions in parallel, null to load them in the calling thread.
+   */
+  @PropertyDefinition
+  private ExecutorService _executorService;
 
   /**
    * Creates an instance.
@@ -58,7 +69,10 @@ public class PositionSourceFactoryBean extends SpringFactoryBean<PositionSource>
   //-------------------------------------------------------------------------
   @Override
   protected PositionSource createObject() {
-    PositionSource source = new MasterPositionSource(getPortfolioMaster(), getPositionMaster());
+    MasterPositionSource masterSource = new MasterPositionSource(getPortfolioMaster(), getPositionMaster());
+    masterSource.setPositionChunkSize(getPositionChunkSize());
+    masterSource.setExecutorService(getExecutorService());
+    PositionSource source = masterSource;
     if (getCacheManager() != null) {
       source = new EHCachingPositionSource(source, getCacheManager());
     }
@@ -93,6 +107,10 @@ public class PositionSourceFactoryBean extends SpringFactoryBean<PositionSource>
         return getPositionMaster();
       case -1452875317:  // cacheManager
         return getCacheManager();
+      case -865518363:  // positionChunkSize
+        return getPositionChunkSize();
+      case -1977130398:  // executorService
+        return getExecutorService();
     }
     return super.propertyGet(propertyName, quiet);
   }
@@ -109,6 +127,12 @@ public class PositionSourceFactoryBean extends SpringFactoryBean<PositionSource>
       case -1452875317:  // cacheManager
         setCacheManager((CacheManager) newValue);
         return;
+      case -865518363:  // positionChunkSize
+        setPositionChunkSize((Integer) newValue);
+        return;
+      case -1977130398:  // executorService
+        setExecutorService((ExecutorService) newValue);
+        return;
     }
     super.propertySet(propertyName, newValue, quiet);
   }
@@ -123,6 +147,8 @@ public class PositionSourceFactoryBean extends SpringFactoryBean<PositionSource>
       return JodaBeanUtils.equal(getPortfolioMaster(), other.getPortfolioMaster()) &&
           JodaBeanUtils.equal(getPositionMaster(), other.getPositionMaster()) &&
           JodaBeanUtils.equal(getCacheManager(), other.getCacheManager()) &&
+          JodaBeanUtils.equal(getPositionChunkSize(), other.getPositionChunkSize()) &&
+          JodaBeanUtils.equal(getExecutorService(), other.getExecutorService()) &&
           super.equals(obj);
     }
     return false;
@@ -134,6 +160,8 @@ public class PositionSourceFactoryBean extends SpringFactoryBean<PositionSource>
     hash += hash * 31 + JodaBeanUtils.hashCode(getPortfolioMaster());
     hash += hash * 31 + JodaBeanUtils.hashCode(getPositionMaster());
     hash += hash * 31 + JodaBeanUtils.hashCode(getCacheManager());
+    hash += hash * 31 + JodaBeanUtils.hashCode(getPositionChunkSize());
+    hash += hash * 31 + JodaBeanUtils.hashCode(getExecutorService());
     return hash ^ super.hashCode();
   }
 
@@ -212,6 +240,56 @@ public class PositionSourceFactoryBean extends SpringFactoryBean<PositionSource>
     return metaBean().cacheManager().createProperty(this);
   }
 
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the maximum number of positions to request from the position master in one search.
+   * @return the value of the property
+   */
+  public int getPositionChunkSize() {
+    return _positionChunkSize;
+  }
+
+  /**
+   * Sets the maximum number of positions to request from the position master in one search.
+   * @param positionChunkSize  the new value of the property
+   */
+  public void setPositionChunkSize(int positionChunkSize) {
+    this._positionChunkSize = positionChunkSize;
+  }
+
+  /**
+   * Gets the the {@code positionChunkSize} property.
+   * @return the property, not null
+   */
+  public final Property<Integer> positionChunkSize() {
+    return metaBean().positionChunkSize().createProperty(this);
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the executor service used to load chunks of positions in parallel, null to load them in the calling thread.
+   * @return the value of the property
+   */
+  public ExecutorService getExecutorService() {
+    return _executorService;
+  }
+
+  /**
+   * Sets the executor service used to load chunks of positions in parallel, null to load them in the calling thread.
+   * @param executorService  the new value of the property
+   */
+  public void setExecutorService(ExecutorService executorService) {
+    this._executorService = executorService;
+  }
+
+  /**
+   * Gets the the {@code executorService} property.
+   * @return the property, not null
+   */
+  public final Property<ExecutorService> executorService() {
+    return metaBean().executorService().createProperty(this);
+  }
+
   //-----------------------------------------------------------------------
   /**
    * The meta-bean for {@code PositionSourceFactoryBean}.
@@ -237,6 +315,16 @@ public class PositionSourceFactoryBean extends SpringFactoryBean<PositionSource>
      */
     private final MetaProperty<CacheManager> _cacheManager = DirectMetaProperty.ofReadWrite(
         this, "cacheManager", PositionSourceFactoryBean.class, CacheManager.class);
+    /**
+     * The meta-property for the {@code positionChunkSize} property.
+     */
+    private final MetaProperty<Integer> _positionChunkSize = DirectMetaProperty.ofReadWrite(
+        this, "positionChunkSize", PositionSourceFactoryBean.class, Integer.TYPE);
+    /**
+     * The meta-property for the {@code executorService} property.
+     */
+    private final MetaProperty<ExecutorService> _executorService = DirectMetaProperty.ofReadWrite(
+        this, "executorService", PositionSourceFactoryBean.class, ExecutorService.class);
     /**
      * The meta-properties.
      */
@@ -244,7 +332,9 @@ public class PositionSourceFactoryBean extends SpringFactoryBean<PositionSource>
       this, (DirectMetaPropertyMap) super.metaPropertyMap(),
         "portfolioMaster",
         "positionMaster",
-        "cacheManager");
+        "cacheManager",
+        "positionChunkSize",
+        "executorService");
 
     /**
      * Restricted constructor.
@@ -261,6 +351,10 @@ public class PositionSourceFactoryBean extends SpringFactoryBean<PositionSource>
           return _positionMaster;
         case -1452875317:  // cacheManager
           return _cacheManager;
+        case -865518363:  // positionChunkSize
+          return _positionChunkSize;
+        case -1977130398:  // executorService
+          return _executorService;
       }
       return super.metaPropertyGet(propertyName);
     }
@@ -305,6 +399,22 @@ public class PositionSourceFactoryBean extends SpringFactoryBean<PositionSource>
       return _cacheManager;
     }
 
+    /**
+     * The meta-property for the {@code positionChunkSize} property.
+     * @return the meta-property, not null
+     */
+    public final MetaProperty<Integer> positionChunkSize() {
+      return _positionChunkSize;
+    }
+
+    /**
+     * The meta-property for the {@code executorService} property.
+     * @return the meta-property, not null
+     */
+    public final MetaProperty<ExecutorService> executorService() {
+      return _executorService;
+    }
+
   }
 
   ///CLOVER:ON
@@ -5,6 +5,8 @@
  */
 package com.opengamma.financial.user;
 
+import java.util.List;
+
 import com.opengamma.core.change.ChangeManager;
 import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
@@ -69,6 +71,22 @@ public class FinancialUserPositionMaster extends AbstractFinancialUserService im
     return _underlying.update(document);
   }
 
+  @Override
+  public List<PositionDocument> addAll(List<PositionDocument> documents) {
+    List<PositionDocument> result = _underlying.addAll(documents);
+    for (PositionDocument document : result) {
+      if (document.getUniqueId() != null) {
+        created(document.getUniqueId());
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public List<PositionDocument> updateAll(List<PositionDocument> documents) {
+    return _underlying.updateAll(documents);
+  }
+
   @Override
   public void remove(UniqueId uniqueId) {
     _underlying.remove(uniqueId);
@@ -5,6 +5,8 @@
  */
 package com.opengamma.financial.user;
 
+import java.util.List;
+
 import com.opengamma.core.change.ChangeManager;
 import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
@@ -75,6 +77,22 @@ public class FinancialUserSecurityMaster extends AbstractFinancialUserService im
     return _underlying.update(document);
   }
 
+  @Override
+  public List<SecurityDocument> addAll(List<SecurityDocument> documents) {
+    List<SecurityDocument> result = _underlying.addAll(documents);
+    for (SecurityDocument document : result) {
+      if (document.getUniqueId() != null) {
+        created(document.getUniqueId());
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public List<SecurityDocument> updateAll(List<SecurityDocument> documents) {
+    return _underlying.updateAll(documents);
+  }
+
   @Override
   public void remove(UniqueId uniqueId) {
     _underlying.remove(uniqueId);
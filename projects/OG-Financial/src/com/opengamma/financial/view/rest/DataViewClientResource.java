@@ -25,6 +25,7 @@ import com.opengamma.engine.view.calc.ViewCycle;
 import com.opengamma.engine.view.client.ViewClient;
 import com.opengamma.engine.view.client.ViewClientState;
 import com.opengamma.engine.view.client.ViewResultMode;
+import com.opengamma.engine.view.execution.ExecutionFocus;
 import com.opengamma.financial.livedata.rest.DataLiveDataInjectorResource;
 import com.opengamma.financial.rest.AbstractRestfulJmsResultPublisher;
 import com.opengamma.id.UniqueId;
@@ -63,19 +64,28 @@ public class DataViewClientResource extends AbstractRestfulJmsResultPublisher {
   public static final String PATH_CREATE_LATEST_CYCLE_REFERENCE = "createLatestCycleReference";
   public static final String PATH_CREATE_CYCLE_REFERENCE = "createCycleReference";
   public static final String PATH_TRIGGER_CYCLE = "triggerCycle";
+  public static final String PATH_EXECUTION_FOCUS = "executionFocus";
 
   public static final String PATH_UPDATE_PERIOD = "updatePeriod";
   
   public static final String UPDATE_PERIOD_FIELD = "updatePeriod";
   public static final String VIEW_CYCLE_ACCESS_SUPPORTED_FIELD = "isViewCycleAccessSupported";
+  public static final String COLUMNAR_RESULTS_FIELD = "columnarResults";
   //CSON: just constants
   
   private final ViewClient _viewClient;
+  private final ViewClientJmsResultPublisher _resultPublisher;
   private final DataEngineResourceManagerResource<ViewCycle> _viewCycleManagerResource;
 
   public DataViewClientResource(ViewClient viewClient, DataEngineResourceManagerResource<ViewCycle> viewCycleManagerResource, JmsConnector jmsConnector, ExecutorService executor) {
-    super(new ViewClientJmsResultPublisher(viewClient, OpenGammaFudgeContext.getInstance(), jmsConnector), executor);
+    this(viewClient, new ViewClientJmsResultPublisher(viewClient, OpenGammaFudgeContext.getInstance(), jmsConnector), viewCycleManagerResource, executor);
+  }
+
+  private DataViewClientResource(ViewClient viewClient, ViewClientJmsResultPublisher resultPublisher, DataEngineResourceManagerResource<ViewCycle> viewCycleManagerResource,
+      ExecutorService executor) {
+    super(resultPublisher, executor);
     _viewClient = viewClient;
+    _resultPublisher = resultPublisher;
     _viewCycleManagerResource = viewCycleManagerResource;
   }
   
@@ -93,6 +103,11 @@ public class DataViewClientResource extends AbstractRestfulJmsResultPublisher {
   protected void expire() {
     shutdown();
   }
+
+  @Override
+  protected void configureResultStream(FudgeMsg msg) {
+    _resultPublisher.setColumnarResults(Boolean.TRUE.equals(msg.getBoolean(COLUMNAR_RESULTS_FIELD)));
+  }
   
   //-------------------------------------------------------------------------
   @GET
@@ -235,6 +250,30 @@ public class DataViewClientResource extends AbstractRestfulJmsResultPublisher {
     return responseOk();
   }
   
+  @GET
+  @Path(PATH_EXECUTION_FOCUS)
+  public Response getExecutionFocus() {
+    updateLastAccessed();
+    return responseOkFudge(getViewClient().getExecutionFocus());
+  }
+  
+  @POST
+  @Path(PATH_EXECUTION_FOCUS)
+  @Consumes(FudgeRest.MEDIA)
+  public Response setExecutionFocus(ExecutionFocus executionFocus) {
+    updateLastAccessed();
+    getViewClient().setExecutionFocus(executionFocus);
+    return responseOk();
+  }
+  
+  @DELETE
+  @Path(PATH_EXECUTION_FOCUS)
+  public Response clearExecutionFocus() {
+    updateLastAccessed();
+    getViewClient().setExecutionFocus(null);
+    return responseOk();
+  }
+  
   @GET
   @Path(PATH_COMPLETED)
   public Response isCompleted() {
@@ -15,11 +15,13 @@ import javax.ws.rs.core.Response.Status;
 
 import org.fudgemsg.FudgeContext;
 import org.fudgemsg.MutableFudgeMsg;
+import org.fudgemsg.mapping.FudgeDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Function;
 import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.engine.fudgemsg.ColumnarViewResultModelDecoder;
 import com.opengamma.engine.marketdata.MarketDataInjector;
 import com.opengamma.engine.view.ViewComputationResultModel;
 import com.opengamma.engine.view.ViewDefinition;
@@ -30,8 +32,10 @@ import com.opengamma.engine.view.client.ViewClient;
 import com.opengamma.engine.view.client.ViewClientState;
 import com.opengamma.engine.view.client.ViewResultMode;
 import com.opengamma.engine.view.compilation.CompiledViewDefinition;
+import com.opengamma.engine.view.execution.ExecutionFocus;
 import com.opengamma.engine.view.execution.ViewExecutionOptions;
 import com.opengamma.engine.view.listener.AbstractViewResultListener;
+import com.opengamma.engine.view.listener.ColumnarCycleResultCall;
 import com.opengamma.engine.view.listener.ViewResultListener;
 import com.opengamma.financial.livedata.rest.RemoteLiveDataInjector;
 import com.opengamma.financial.rest.AbstractRestfulJmsResultConsumer;
@@ -76,6 +80,18 @@ public class RemoteViewClient extends AbstractRestfulJmsResultConsumer implement
    * The scheduler.
    */
   private final ScheduledExecutorService _scheduler;
+  /**
+   * The Fudge context.
+   */
+  private final FudgeContext _fudgeContext;
+  /**
+   * The decoder for columnar results.
+   */
+  private final ColumnarViewResultModelDecoder _columnarDecoder = new ColumnarViewResultModelDecoder();
+  /**
+   * Whether to request columnar results.
+   */
+  private volatile boolean _columnarResults;
 
   /**
    * Creates an instance.
@@ -90,6 +106,7 @@ public class RemoteViewClient extends AbstractRestfulJmsResultConsumer implement
     super(baseUri, fudgeContext, jmsConnector, scheduler, DataViewProcessorResource.VIEW_CLIENT_TIMEOUT_MILLIS / 2);
     _viewProcessor = viewProcessor;
     _scheduler = scheduler;
+    _fudgeContext = fudgeContext;
     _internalResultListener = new AbstractViewResultListener() {
       
       @Override
@@ -285,6 +302,26 @@ public class RemoteViewClient extends AbstractRestfulJmsResultConsumer implement
     getClient().accessFudge(uri).post();
   }
 
+  @Override
+  public ExecutionFocus getExecutionFocus() {
+    URI uri = getUri(getBaseUri(), DataViewClientResource.PATH_EXECUTION_FOCUS);
+    try {
+      return getClient().accessFudge(uri).get(ExecutionFocus.class);
+    } catch (UniformInterfaceException404NotFound ex) {
+      return null;
+    }
+  }
+
+  @Override
+  public void setExecutionFocus(ExecutionFocus executionFocus) {
+    URI uri = getUri(getBaseUri(), DataViewClientResource.PATH_EXECUTION_FOCUS);
+    if (executionFocus != null) {
+      getClient().accessFudge(uri).post(executionFocus);
+    } else {
+      getClient().accessFudge(uri).delete();
+    }
+  }
+
   @Override
   public void waitForCompletion() throws InterruptedException {
     _listenerLock.lock();
@@ -398,9 +435,45 @@ public class RemoteViewClient extends AbstractRestfulJmsResultConsumer implement
   }
 
   //-------------------------------------------------------------------------
+  /**
+   * Sets whether cycle results should be sent in the columnar form produced by
+   * {@link com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder}, which is considerably smaller for large
+   * numeric views. Takes effect when the result stream is next started.
+   * 
+   * @param columnarResults  true to request columnar results
+   */
+  public void setColumnarResults(boolean columnarResults) {
+    _columnarResults = columnarResults;
+  }
+
+  public boolean isColumnarResults() {
+    return _columnarResults;
+  }
+
+  @Override
+  protected void configureResultStream(MutableFudgeMsg msg) {
+    if (isColumnarResults()) {
+      msg.add(DataViewClientResource.COLUMNAR_RESULTS_FIELD, true);
+    }
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   protected void dispatchListenerCall(Function<?, ?> listenerCall) {
+    if (listenerCall instanceof ColumnarCycleResultCall) {
+      boolean awaitingReset = _columnarDecoder.isAwaitingReset();
+      try {
+        listenerCall = ((ColumnarCycleResultCall) listenerCall).decode(_columnarDecoder, new FudgeDeserializer(_fudgeContext));
+      } catch (Exception e) {
+        // The server resets the stream after a failed send, so results resume from its next cycle
+        if (awaitingReset) {
+          s_logger.debug("Discarding columnar results until the result stream is reset");
+        } else {
+          s_logger.warn("Error decoding columnar results, discarding results until the result stream is reset", e);
+        }
+        return;
+      }
+    }
     ViewResultListener listener = _resultListener;
     if (listener != null) {
       try {
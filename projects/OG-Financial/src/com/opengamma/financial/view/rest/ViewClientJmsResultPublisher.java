@@ -8,9 +8,12 @@ package com.opengamma.financial.view.rest;
 import javax.time.Instant;
 
 import org.fudgemsg.FudgeContext;
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.mapping.FudgeSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.opengamma.engine.fudgemsg.ColumnarViewResultModelEncoder;
 import com.opengamma.engine.view.ViewComputationResultModel;
 import com.opengamma.engine.view.ViewDeltaResultModel;
 import com.opengamma.engine.view.calc.ViewCycleMetadata;
@@ -18,6 +21,7 @@ import com.opengamma.engine.view.client.ViewClient;
 import com.opengamma.engine.view.compilation.CompiledViewDefinition;
 import com.opengamma.engine.view.execution.ViewCycleExecutionOptions;
 import com.opengamma.engine.view.listener.ClientShutdownCall;
+import com.opengamma.engine.view.listener.ColumnarCycleResultCall;
 import com.opengamma.engine.view.listener.CycleCompletedCall;
 import com.opengamma.engine.view.listener.CycleExecutionFailedCall;
 import com.opengamma.engine.view.listener.CycleFragmentCompletedCall;
@@ -43,6 +47,18 @@ public class ViewClientJmsResultPublisher extends AbstractJmsResultPublisher imp
    * The view client.
    */
   private final ViewClient _viewClient;
+  /**
+   * The encoder used for columnar results.
+   */
+  private final ColumnarViewResultModelEncoder _columnarEncoder = new ColumnarViewResultModelEncoder();
+  /**
+   * Whether to publish results in columnar form.
+   */
+  private volatile boolean _columnarResults;
+  /**
+   * Whether a message has been lost since the last complete cycle result, so the next must carry a full result.
+   */
+  private volatile boolean _resyncRequired;
 
   /**
    * Creates an instance.
@@ -56,13 +72,37 @@ public class ViewClientJmsResultPublisher extends AbstractJmsResultPublisher imp
     _viewClient = viewClient;
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Sets whether cycle results are published in the columnar form produced by {@link ColumnarViewResultModelEncoder}
+   * rather than as complete result models. Takes effect from the next result published.
+   * 
+   * @param columnarResults  true to publish columnar results
+   */
+  public void setColumnarResults(boolean columnarResults) {
+    _columnarResults = columnarResults;
+  }
+
+  public boolean isColumnarResults() {
+    return _columnarResults;
+  }
+
   //-------------------------------------------------------------------------
   @Override
   protected void startListener() {
+    // The consumer will decode the new stream from scratch
+    _columnarEncoder.reset();
     s_logger.debug("Setting listener {} on view client {}'s results", this, _viewClient);
     _viewClient.setResultListener(this);
   }
 
+  @Override
+  protected void sendFailed() {
+    // The client may have lost dictionary entries or values; start a new dictionary and send a full result next cycle
+    _columnarEncoder.reset();
+    _resyncRequired = true;
+  }
+
   @Override
   protected void stopListener() {
     s_logger.debug("Removing listener {} on view client {}'s results", this, _viewClient);
@@ -77,6 +117,8 @@ public class ViewClientJmsResultPublisher extends AbstractJmsResultPublisher imp
 
   @Override
   public void viewDefinitionCompiled(CompiledViewDefinition compiledViewDefinition, boolean hasMarketDataPermissions) {
+    // Results from the new compilation will refer to a different set of specifications
+    _columnarEncoder.reset();
     send(new ViewDefinitionCompiledCall(compiledViewDefinition, hasMarketDataPermissions));
   }  
 
@@ -92,12 +134,34 @@ public class ViewClientJmsResultPublisher extends AbstractJmsResultPublisher imp
 
   @Override
   public void cycleFragmentCompleted(ViewComputationResultModel fullFragment, ViewDeltaResultModel deltaFragment) {
-    send(new CycleFragmentCompletedCall(fullFragment, deltaFragment));
+    if (isColumnarResults()) {
+      send(createColumnarCall(true, fullFragment, deltaFragment));
+    } else {
+      send(new CycleFragmentCompletedCall(fullFragment, deltaFragment));
+    }
   }
 
   @Override
   public void cycleCompleted(ViewComputationResultModel fullResult, ViewDeltaResultModel deltaResult) {
-    send(new CycleCompletedCall(fullResult, deltaResult));
+    if (_resyncRequired) {
+      _resyncRequired = false;
+      if (fullResult == null) {
+        s_logger.info("Sending full result for view client {} after a lost message", _viewClient);
+        fullResult = _viewClient.getLatestResult();
+      }
+    }
+    if (isColumnarResults()) {
+      send(createColumnarCall(false, fullResult, deltaResult));
+    } else {
+      send(new CycleCompletedCall(fullResult, deltaResult));
+    }
+  }
+
+  private ColumnarCycleResultCall createColumnarCall(boolean fragment, ViewComputationResultModel fullResult, ViewDeltaResultModel deltaResult) {
+    FudgeSerializer serializer = new FudgeSerializer(getFudgeContext());
+    FudgeMsg fullResultMsg = fullResult != null ? _columnarEncoder.encode(serializer, fullResult) : null;
+    FudgeMsg deltaResultMsg = deltaResult != null ? _columnarEncoder.encode(serializer, deltaResult) : null;
+    return new ColumnarCycleResultCall(fragment, fullResultMsg, deltaResultMsg);
   }
 
   @Override
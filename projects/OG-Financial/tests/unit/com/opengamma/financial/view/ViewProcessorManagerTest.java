@@ -12,6 +12,7 @@ import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertTrue;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -198,6 +199,10 @@ public class ViewProcessorManagerTest {
     public void entityChanged(ChangeType type, UniqueId beforeId, UniqueId afterId, Instant versionInstant) {
     }
 
+    @Override
+    public void entitiesChanged(List<ChangeEvent> events) {
+    }
+
     public void notifyListenerUnwatchedIdentifier() {
       _listener.entityChanged(new ChangeEvent(ChangeType.UPDATED, UniqueId.of("Test", "Unwatched"), UniqueId.of("Test", "UnwatchedNew"), Instant.now()));
     }
@@ -5,6 +5,9 @@
  */
 package com.opengamma.language.client;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.opengamma.core.change.ChangeManager;
 import com.opengamma.id.UniqueId;
 import com.opengamma.master.position.ManageableTrade;
@@ -31,6 +34,29 @@ public class CombinedPositionMaster extends CombinedMaster<PositionDocument, Pos
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public List<PositionDocument> addAll(final List<PositionDocument> documents) {
+    if (getSessionMaster() != null) {
+      return getSessionMaster().addAll(documents);
+    } else if (getUserMaster() != null) {
+      return getUserMaster().addAll(documents);
+    } else if (getGlobalMaster() != null) {
+      return getGlobalMaster().addAll(documents);
+    } else {
+      throw new IllegalStateException();
+    }
+  }
+
+  @Override
+  public List<PositionDocument> updateAll(final List<PositionDocument> documents) {
+    // each document may belong to a different master
+    final List<PositionDocument> result = new ArrayList<PositionDocument>(documents.size());
+    for (PositionDocument document : documents) {
+      result.add(update(document));
+    }
+    return result;
+  }
+
   @Override
   public PositionSearchResult search(final PositionSearchRequest request) {
     final PositionSearchResult result = new PositionSearchResult();
@@ -5,6 +5,9 @@
  */
 package com.opengamma.language.client;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.opengamma.core.change.ChangeManager;
 import com.opengamma.master.security.SecurityDocument;
 import com.opengamma.master.security.SecurityHistoryRequest;
@@ -36,6 +39,29 @@ public class CombinedSecurityMaster extends CombinedMaster<SecurityDocument, Sec
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public List<SecurityDocument> addAll(final List<SecurityDocument> documents) {
+    if (getSessionMaster() != null) {
+      return getSessionMaster().addAll(documents);
+    } else if (getUserMaster() != null) {
+      return getUserMaster().addAll(documents);
+    } else if (getGlobalMaster() != null) {
+      return getGlobalMaster().addAll(documents);
+    } else {
+      throw new IllegalStateException();
+    }
+  }
+
+  @Override
+  public List<SecurityDocument> updateAll(final List<SecurityDocument> documents) {
+    // each document may belong to a different master
+    final List<SecurityDocument> result = new ArrayList<SecurityDocument>(documents.size());
+    for (SecurityDocument document : documents) {
+      result.add(update(document));
+    }
+    return result;
+  }
+
   @Override
   public SecuritySearchResult search(final SecuritySearchRequest request) {
     final SecuritySearchResult result = new SecuritySearchResult();
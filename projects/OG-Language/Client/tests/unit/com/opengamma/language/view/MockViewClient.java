@@ -18,6 +18,7 @@ import com.opengamma.engine.view.client.ViewClient;
 import com.opengamma.engine.view.client.ViewClientState;
 import com.opengamma.engine.view.client.ViewResultMode;
 import com.opengamma.engine.view.compilation.CompiledViewDefinition;
+import com.opengamma.engine.view.execution.ExecutionFocus;
 import com.opengamma.engine.view.execution.ViewExecutionOptions;
 import com.opengamma.engine.view.listener.ViewResultListener;
 import com.opengamma.id.UniqueId;
@@ -215,6 +216,16 @@ import com.opengamma.livedata.UserPrincipal;
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public ExecutionFocus getExecutionFocus() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setExecutionFocus(ExecutionFocus executionFocus) {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public void waitForCompletion() throws InterruptedException {
     throw new UnsupportedOperationException();
@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+
+package com.opengamma.livedata.firehose;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import com.opengamma.livedata.LiveDataValueUpdateBean;
+import com.opengamma.livedata.server.distribution.EmptyMarketDataSenderFactory;
+import com.opengamma.livedata.server.distribution.MarketDataDistributor;
+import com.opengamma.livedata.server.distribution.MarketDataSender;
+import com.opengamma.livedata.server.distribution.MarketDataSenderFactory;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Captures the normalized messages distributed by a live data server to a {@link TickLogWriter}.
+ * <p>
+ * The factory decorates another so that capture can run alongside the normal distribution to clients.
+ * Messages are logged against the security unique identifier of the distributor's subscription. As they
+ * are already normalized, a replay of the log should be subscribed to with the
+ * {@link com.opengamma.livedata.normalization.StandardRules#getNoNormalization no-normalization} rules.
+ */
+public class TickCaptureSenderFactory implements MarketDataSenderFactory {
+
+  private final TickLogWriter _writer;
+  private final MarketDataSenderFactory _underlying;
+
+  public TickCaptureSenderFactory(final TickLogWriter writer) {
+    this(writer, new EmptyMarketDataSenderFactory());
+  }
+
+  public TickCaptureSenderFactory(final TickLogWriter writer, final MarketDataSenderFactory underlying) {
+    ArgumentChecker.notNull(writer, "writer");
+    ArgumentChecker.notNull(underlying, "underlying");
+    _writer = writer;
+    _underlying = underlying;
+  }
+
+  public TickLogWriter getWriter() {
+    return _writer;
+  }
+
+  public MarketDataSenderFactory getUnderlying() {
+    return _underlying;
+  }
+
+  @Override
+  public Collection<MarketDataSender> create(final MarketDataDistributor distributor) {
+    final Collection<MarketDataSender> underlying = getUnderlying().create(distributor);
+    final Collection<MarketDataSender> senders = new ArrayList<MarketDataSender>(underlying.size() + 1);
+    senders.add(new MarketDataSender() {
+
+      @Override
+      public void sendMarketData(final LiveDataValueUpdateBean data) {
+        getWriter().write(System.currentTimeMillis(), distributor.getSubscription().getSecurityUniqueId(), data.getFields());
+      }
+
+      @Override
+      public MarketDataDistributor getDistributor() {
+        return distributor;
+      }
+
+    });
+    senders.addAll(underlying);
+    return senders;
+  }
+
+}
@@ -0,0 +1,247 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+
+package com.opengamma.livedata.firehose;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import org.fudgemsg.FudgeContext;
+import org.fudgemsg.FudgeMsg;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Reads a tick log written by {@link TickLogWriter}.
+ * <p>
+ * The log is memory-mapped in regions and records decoded sequentially. If the companion index file is
+ * present it is used by {@link #seek} to position the reader without scanning the whole log.
+ */
+public class TickLogReader implements Closeable {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(TickLogReader.class);
+
+  private static final long DEFAULT_REGION_SIZE = 64L * 1024L * 1024L;
+
+  /**
+   * A message read from the log.
+   */
+  public static final class Tick {
+
+    private final long _timestamp;
+    private final String _uniqueId;
+    private final FudgeMsg _message;
+
+    public Tick(final long timestamp, final String uniqueId, final FudgeMsg message) {
+      _timestamp = timestamp;
+      _uniqueId = uniqueId;
+      _message = message;
+    }
+
+    public long getTimestamp() {
+      return _timestamp;
+    }
+
+    public String getUniqueId() {
+      return _uniqueId;
+    }
+
+    public FudgeMsg getMessage() {
+      return _message;
+    }
+
+    @Override
+    public String toString() {
+      return "Tick[" + _timestamp + ", " + _uniqueId + ", " + _message + "]";
+    }
+
+  }
+
+  private final FudgeContext _fudgeContext;
+  private final RandomAccessFile _file;
+  private final FileChannel _channel;
+  private final long _length;
+  private final long _regionSize;
+  private final long[] _indexTimestamps;
+  private final long[] _indexOffsets;
+  private MappedByteBuffer _buffer;
+  private long _bufferOffset;
+
+  public TickLogReader(final FudgeContext fudgeContext, final String filename) {
+    this(fudgeContext, filename, DEFAULT_REGION_SIZE);
+  }
+
+  public TickLogReader(final FudgeContext fudgeContext, final String filename, final long regionSize) {
+    ArgumentChecker.notNull(fudgeContext, "fudgeContext");
+    ArgumentChecker.notNull(filename, "filename");
+    ArgumentChecker.isTrue(regionSize > TickLogWriter.HEADER_SIZE, "regionSize must be larger than the file header");
+    _fudgeContext = fudgeContext;
+    _regionSize = regionSize;
+    try {
+      _file = new RandomAccessFile(filename, "r");
+      _channel = _file.getChannel();
+      _length = _channel.size();
+      if (_length < TickLogWriter.HEADER_SIZE) {
+        throw new OpenGammaRuntimeException("File " + filename + " is not a tick log");
+      }
+      map(0);
+      if (_buffer.getInt() != TickLogWriter.MAGIC) {
+        throw new OpenGammaRuntimeException("File " + filename + " is not a tick log");
+      }
+      final int version = _buffer.getInt();
+      if (version != TickLogWriter.VERSION) {
+        throw new OpenGammaRuntimeException("Unsupported tick log version " + version + " in " + filename);
+      }
+    } catch (IOException e) {
+      throw new OpenGammaRuntimeException("Couldn't open tick log " + filename, e);
+    }
+    final File indexFile = new File(filename + TickLogWriter.INDEX_SUFFIX);
+    if (indexFile.exists()) {
+      final int entries = (int) (indexFile.length() / 16);
+      _indexTimestamps = new long[entries];
+      _indexOffsets = new long[entries];
+      try {
+        final DataInputStream index = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+        try {
+          for (int i = 0; i < entries; i++) {
+            _indexTimestamps[i] = index.readLong();
+            _indexOffsets[i] = index.readLong();
+          }
+        } finally {
+          index.close();
+        }
+      } catch (IOException e) {
+        throw new OpenGammaRuntimeException("Couldn't read tick log index " + indexFile, e);
+      }
+    } else {
+      s_logger.warn("No index found for tick log {}", filename);
+      _indexTimestamps = null;
+      _indexOffsets = null;
+    }
+  }
+
+  private void map(final long offset) throws IOException {
+    _bufferOffset = offset;
+    _buffer = _channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(_regionSize, _length - offset));
+  }
+
+  private boolean ensureAvailable(final int bytes) throws IOException {
+    if (_buffer.remaining() >= bytes) {
+      return true;
+    }
+    final long position = _bufferOffset + _buffer.position();
+    if (position + bytes > _length) {
+      return false;
+    }
+    _bufferOffset = position;
+    _buffer = _channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Math.max(_regionSize, bytes), _length - position));
+    return true;
+  }
+
+  /**
+   * Returns the file offset of the next record to be read.
+   *
+   * @return the file offset
+   */
+  public long getPosition() {
+    return _bufferOffset + _buffer.position();
+  }
+
+  /**
+   * Reads the next message from the log.
+   *
+   * @return the message, or null at the end of the log
+   */
+  public Tick readTick() {
+    try {
+      if (!ensureAvailable(4)) {
+        return null;
+      }
+      final int recordLength = _buffer.getInt();
+      if (recordLength == 0) {
+        // Unwritten region; step back so that repeated calls keep returning null
+        _buffer.position(_buffer.position() - 4);
+        return null;
+      }
+      if (!ensureAvailable(recordLength)) {
+        throw new EOFException("Truncated record at offset " + (getPosition() - 4));
+      }
+      final long timestamp = _buffer.getLong();
+      final byte[] id = new byte[_buffer.getShort() & 0xFFFF];
+      _buffer.get(id);
+      final byte[] data = new byte[recordLength - 8 - 2 - id.length];
+      _buffer.get(data);
+      return new Tick(timestamp, new String(id, TickLogWriter.UTF8), _fudgeContext.deserialize(data).getMessage());
+    } catch (IOException e) {
+      throw new OpenGammaRuntimeException("Couldn't read from tick log", e);
+    }
+  }
+
+  /**
+   * Positions the reader so that the next message returned is the first one with a timestamp at or after
+   * the one given.
+   *
+   * @param timestamp the timestamp to seek to, in milliseconds
+   */
+  public void seek(final long timestamp) {
+    long offset = TickLogWriter.HEADER_SIZE;
+    if (_indexTimestamps != null && _indexTimestamps.length > 0) {
+      int i = Arrays.binarySearch(_indexTimestamps, timestamp);
+      if (i < 0) {
+        i = -(i + 1) - 1;
+      } else {
+        // Multiple index entries may share a timestamp if the interval is zero; use the first
+        while ((i > 0) && (_indexTimestamps[i - 1] == timestamp)) {
+          i--;
+        }
+      }
+      if (i >= 0) {
+        offset = _indexOffsets[i];
+      }
+    }
+    try {
+      map(offset);
+      // Scan forward from the index entry reading only the record headers
+      while (ensureAvailable(12)) {
+        final long position = getPosition();
+        final int recordLength = _buffer.getInt();
+        if ((recordLength == 0) || (_buffer.getLong() >= timestamp)) {
+          map(position);
+          return;
+        }
+        if (!ensureAvailable(recordLength - 8)) {
+          throw new EOFException("Truncated record at offset " + position);
+        }
+        _buffer.position(_buffer.position() + recordLength - 8);
+      }
+    } catch (IOException e) {
+      throw new OpenGammaRuntimeException("Couldn't seek tick log", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    _buffer = null;
+    try {
+      _file.close();
+    } catch (IOException e) {
+      throw new OpenGammaRuntimeException("Couldn't close tick log", e);
+    }
+  }
+
+}
@@ -0,0 +1,235 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+
+package com.opengamma.livedata.firehose;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import org.fudgemsg.FudgeContext;
+import org.fudgemsg.FudgeMsg;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Writes an append-only, memory-mapped log of timestamped market data messages.
+ * <p>
+ * The file starts with a header of a magic number and format version. Each record is then written as:
+ * <ul>
+ * <li>the length of the remainder of the record (int)
+ * <li>the capture timestamp in milliseconds (long)
+ * <li>the length of the unique identifier (unsigned short) followed by its UTF-8 bytes
+ * <li>the Fudge encoded message
+ * </ul>
+ * A record length of zero marks the end of the data; the file is mapped in regions that are zero-filled
+ * by the operating system so a log from a process that did not close it cleanly can still be read.
+ * <p>
+ * A companion index file (the log file name with {@link #INDEX_SUFFIX} appended) holds pairs of timestamp
+ * and file offset, written at most once per index interval, allowing a reader to seek to a point in time
+ * without scanning the log.
+ */
+public class TickLogWriter implements Closeable {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(TickLogWriter.class);
+
+  /**
+   * The magic number at the start of a tick log.
+   */
+  public static final int MAGIC = 0x4F47544C;
+  /**
+   * The current file format version.
+   */
+  public static final int VERSION = 1;
+  /**
+   * The suffix appended to the log file name to give the index file name.
+   */
+  public static final String INDEX_SUFFIX = ".idx";
+  /**
+   * The maximum length of a unique identifier in UTF-8 bytes.
+   */
+  public static final int MAX_UNIQUE_ID_LENGTH = 0xFFFF;
+
+  /* package */static final int HEADER_SIZE = 8;
+  /* package */static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private static final long DEFAULT_REGION_SIZE = 64L * 1024L * 1024L;
+  private static final long DEFAULT_INDEX_INTERVAL = 1000L;
+
+  private final FudgeContext _fudgeContext;
+  private final RandomAccessFile _file;
+  private final FileChannel _channel;
+  private final DataOutputStream _index;
+  private final long _regionSize;
+  private final long _indexInterval;
+  private MappedByteBuffer _buffer;
+  private long _bufferOffset;
+  private long _lastIndexTimestamp = Long.MIN_VALUE;
+  private long _lastTimestamp = Long.MIN_VALUE;
+  private long _tickCount;
+  private boolean _closed;
+
+  /**
+   * Creates a new tick log, replacing any existing file of the same name.
+   *
+   * @param fudgeContext the Fudge context to encode messages with, not null
+   * @param filename the name of the log file to create, not null
+   */
+  public TickLogWriter(final FudgeContext fudgeContext, final String filename) {
+    this(fudgeContext, filename, DEFAULT_REGION_SIZE, DEFAULT_INDEX_INTERVAL);
+  }
+
+  /**
+   * Creates a new tick log, replacing any existing file of the same name.
+   *
+   * @param fudgeContext the Fudge context to encode messages with, not null
+   * @param filename the name of the log file to create, not null
+   * @param regionSize the size of each memory-mapped region of the file in bytes
+   * @param indexInterval the minimum interval, in milliseconds, between index entries
+   */
+  public TickLogWriter(final FudgeContext fudgeContext, final String filename, final long regionSize, final long indexInterval) {
+    ArgumentChecker.notNull(fudgeContext, "fudgeContext");
+    ArgumentChecker.notNull(filename, "filename");
+    ArgumentChecker.isTrue(regionSize > HEADER_SIZE, "regionSize must be larger than the file header");
+    ArgumentChecker.notNegative(indexInterval, "indexInterval");
+    _fudgeContext = fudgeContext;
+    _regionSize = regionSize;
+    _indexInterval = indexInterval;
+    try {
+      final File file = new File(filename);
+      if (file.exists() && !file.delete()) {
+        throw new OpenGammaRuntimeException("Couldn't replace existing tick log " + filename);
+      }
+      _file = new RandomAccessFile(file, "rw");
+      _channel = _file.getChannel();
+      _index = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename + INDEX_SUFFIX)));
+      map(0, HEADER_SIZE);
+      _buffer.putInt(MAGIC);
+      _buffer.putInt(VERSION);
+    } catch (IOException e) {
+      throw new OpenGammaRuntimeException("Couldn't create tick log " + filename, e);
+    }
+  }
+
+  private void map(final long offset, final int required) throws IOException {
+    _bufferOffset = offset;
+    _buffer = _channel.map(FileChannel.MapMode.READ_WRITE, offset, Math.max(_regionSize, required));
+  }
+
+  /**
+   * Appends a message to the log.
+   * <p>
+   * Timestamps are expected to be non-decreasing. A timestamp earlier than the previous one, for example
+   * from messages delivered concurrently on different threads, is clamped to the previous one so that
+   * the log remains in time order for replay.
+   *
+   * @param timestamp the capture time in milliseconds
+   * @param uniqueId the identifier of the market data line, not null, at most {@link #MAX_UNIQUE_ID_LENGTH} bytes
+   * when encoded as UTF-8
+   * @param msg the message, not null
+   * @throws IllegalArgumentException if the identifier is too long
+   */
+  public synchronized void write(long timestamp, final String uniqueId, final FudgeMsg msg) {
+    ArgumentChecker.notNull(uniqueId, "uniqueId");
+    ArgumentChecker.notNull(msg, "msg");
+    if (_closed) {
+      throw new IllegalStateException("Tick log closed");
+    }
+    if (timestamp < _lastTimestamp) {
+      timestamp = _lastTimestamp;
+    }
+    final byte[] id = uniqueId.getBytes(UTF8);
+    if (id.length > MAX_UNIQUE_ID_LENGTH) {
+      throw new IllegalArgumentException("Unique identifier of " + id.length + " bytes is longer than " + MAX_UNIQUE_ID_LENGTH + " bytes");
+    }
+    final byte[] data = _fudgeContext.toByteArray(msg);
+    final int recordLength = 8 + 2 + id.length + data.length;
+    // Always leave space for the zero terminator after the record
+    final int required = 4 + recordLength + 4;
+    try {
+      if (_buffer.remaining() < required) {
+        map(_bufferOffset + _buffer.position(), required);
+      }
+      final long offset = _bufferOffset + _buffer.position();
+      if (timestamp >= _lastIndexTimestamp + _indexInterval) {
+        _index.writeLong(timestamp);
+        _index.writeLong(offset);
+        _lastIndexTimestamp = timestamp;
+      }
+      _buffer.putInt(recordLength);
+      _buffer.putLong(timestamp);
+      _buffer.putShort((short) id.length);
+      _buffer.put(id);
+      _buffer.put(data);
+    } catch (IOException e) {
+      throw new OpenGammaRuntimeException("Couldn't write to tick log", e);
+    }
+    _lastTimestamp = timestamp;
+    _tickCount++;
+  }
+
+  /**
+   * Returns the number of messages written to the log.
+   *
+   * @return the message count
+   */
+  public synchronized long getTickCount() {
+    return _tickCount;
+  }
+
+  /**
+   * Flushes the mapped regions and index to disk.
+   */
+  public synchronized void flush() {
+    if (_closed) {
+      return;
+    }
+    _buffer.force();
+    try {
+      _index.flush();
+    } catch (IOException e) {
+      throw new OpenGammaRuntimeException("Couldn't flush tick log index", e);
+    }
+  }
+
+  /**
+   * Closes the log, truncating the file to the end of the data written.
+   */
+  @Override
+  public synchronized void close() {
+    if (_closed) {
+      return;
+    }
+    _closed = true;
+    final long length = _bufferOffset + _buffer.position();
+    _buffer.force();
+    _buffer = null;
+    try {
+      _index.close();
+      try {
+        _channel.truncate(length);
+      } catch (IOException e) {
+        // Some platforms won't truncate a file with a live mapping; the zero terminator marks the end anyway
+        s_logger.warn("Couldn't truncate tick log - {}", e.toString());
+      }
+      _file.close();
+    } catch (IOException e) {
+      throw new OpenGammaRuntimeException("Couldn't close tick log", e);
+    }
+    s_logger.info("Closed tick log after {} messages, {} bytes", _tickCount, length);
+  }
+
+}
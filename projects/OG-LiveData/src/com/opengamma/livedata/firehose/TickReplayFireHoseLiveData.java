@@ -0,0 +1,226 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+
+package com.opengamma.livedata.firehose;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.fudgemsg.FudgeContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Implementation of {@link AbstractFireHoseLiveData} that replays a tick log written by {@link TickLogWriter}.
+ * <p>
+ * Messages are replayed with their original inter-arrival timing scaled by a speed factor; a speed of 1 replays
+ * in real time, N replays N times faster and zero (or less) replays as fast as possible. The market data is
+ * flagged as complete once the whole log has been replayed. Wrap an instance in a {@link FireHoseLiveDataServer}
+ * to drive view processes from captured data.
+ */
+public class TickReplayFireHoseLiveData extends AbstractFireHoseLiveData {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(TickReplayFireHoseLiveData.class);
+
+  /**
+   * Don't bother sleeping for less than this; the tick is dispatched late rather than early.
+   */
+  private static final long MIN_SLEEP_NANOS = 50000L;
+
+  private final String _filename;
+  private FudgeContext _fudgeContext = FudgeContext.GLOBAL_DEFAULT;
+  private ExecutorService _executorService;
+  private double _speed = 1d;
+  private Long _startTimestamp;
+  private volatile ReplayJob _job;
+
+  private volatile long _ticksReplayed;
+  private volatile long _replayNanos;
+  private volatile long _maxLagNanos;
+
+  private final class ReplayJob implements Runnable {
+
+    private volatile boolean _poisoned;
+
+    @Override
+    public void run() {
+      try {
+        s_logger.info("Replaying tick log {} at speed {}", getFilename(), getSpeed());
+        final TickLogReader reader = new TickLogReader(getFudgeContext(), getFilename());
+        try {
+          if (getStartTimestamp() != null) {
+            reader.seek(getStartTimestamp());
+          }
+          final double speed = getSpeed();
+          final long startNanos = System.nanoTime();
+          long firstTimestamp = 0;
+          long ticks = 0;
+          long maxLag = 0;
+          TickLogReader.Tick tick = reader.readTick();
+          while ((tick != null) && !_poisoned) {
+            if (ticks == 0) {
+              firstTimestamp = tick.getTimestamp();
+            } else if (speed > 0) {
+              final long due = startNanos + (long) (TimeUnit.MILLISECONDS.toNanos(tick.getTimestamp() - firstTimestamp) / speed);
+              final long wait = due - System.nanoTime();
+              if (wait > MIN_SLEEP_NANOS) {
+                LockSupport.parkNanos(wait);
+              } else if (-wait > maxLag) {
+                maxLag = -wait;
+                _maxLagNanos = maxLag;
+              }
+            }
+            storeValue(tick.getUniqueId(), tick.getMessage());
+            _ticksReplayed = ++ticks;
+            tick = reader.readTick();
+          }
+          _replayNanos = System.nanoTime() - startNanos;
+          s_logger.info("Replayed {} ticks in {}ms", ticks, (double) _replayNanos / 1e6);
+        } finally {
+          reader.close();
+        }
+        if (!_poisoned) {
+          setMarketDataComplete(true);
+        }
+      } finally {
+        finished(this);
+      }
+    }
+
+  }
+
+  public TickReplayFireHoseLiveData(final String filename) {
+    ArgumentChecker.notNull(filename, "filename");
+    _filename = filename;
+  }
+
+  public String getFilename() {
+    return _filename;
+  }
+
+  public void setFudgeContext(final FudgeContext fudgeContext) {
+    ArgumentChecker.notNull(fudgeContext, "fudgeContext");
+    _fudgeContext = fudgeContext;
+  }
+
+  public FudgeContext getFudgeContext() {
+    return _fudgeContext;
+  }
+
+  public void setExecutorService(final ExecutorService executorService) {
+    _executorService = executorService;
+  }
+
+  public ExecutorService getExecutorService() {
+    return _executorService;
+  }
+
+  /**
+   * Sets the replay speed relative to the captured timing.
+   *
+   * @param speed the speed multiplier, zero or less to replay as fast as possible
+   */
+  public void setSpeed(final double speed) {
+    _speed = speed;
+  }
+
+  public double getSpeed() {
+    return _speed;
+  }
+
+  /**
+   * Sets the capture timestamp to start the replay from.
+   *
+   * @param startTimestamp the timestamp in milliseconds, null to replay from the start of the log
+   */
+  public void setStartTimestamp(final Long startTimestamp) {
+    _startTimestamp = startTimestamp;
+  }
+
+  public Long getStartTimestamp() {
+    return _startTimestamp;
+  }
+
+  /**
+   * Returns the number of ticks replayed so far.
+   *
+   * @return the tick count
+   */
+  public long getTicksReplayed() {
+    return _ticksReplayed;
+  }
+
+  /**
+   * Returns the rate at which the last complete replay dispatched ticks.
+   *
+   * @return the ticks per second, or zero if no replay has completed
+   */
+  public double getTicksPerSecond() {
+    final long nanos = _replayNanos;
+    return (nanos > 0) ? (double) _ticksReplayed * 1e9 / (double) nanos : 0d;
+  }
+
+  /**
+   * Returns the largest delay between a tick's scheduled and actual dispatch time. A consistently large value
+   * means the consumer cannot keep up with the requested speed.
+   *
+   * @return the maximum lag in milliseconds
+   */
+  public double getMaxLagMillis() {
+    return (double) _maxLagNanos / 1e6;
+  }
+
+  @Override
+  public synchronized void start() {
+    if (_job != null) {
+      throw new IllegalStateException("Replay job already active");
+    }
+    _ticksReplayed = 0;
+    _replayNanos = 0;
+    _maxLagNanos = 0;
+    setMarketDataComplete(false);
+    _job = new ReplayJob();
+    if (getExecutorService() != null) {
+      getExecutorService().submit(_job);
+    } else {
+      final Thread thread = new Thread(_job, "TickReplay-" + getFilename());
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  /**
+   * Stops the replay. Does nothing if the replay has already finished.
+   */
+  @Override
+  public synchronized void stop() {
+    final ReplayJob job = _job;
+    if (job == null) {
+      s_logger.debug("Replay job not active");
+      return;
+    }
+    _job = null;
+    job._poisoned = true;
+  }
+
+  /**
+   * Clears the job when it finishes so that the replay can be started again.
+   */
+  private synchronized void finished(final ReplayJob job) {
+    if (_job == job) {
+      _job = null;
+    }
+  }
+
+  @Override
+  public synchronized boolean isStarted() {
+    return _job != null;
+  }
+
+}
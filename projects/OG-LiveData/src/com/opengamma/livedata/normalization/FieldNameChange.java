@@ -5,6 +5,9 @@
  */
 package com.opengamma.livedata.normalization;
 
+import java.util.Collections;
+import java.util.Set;
+
 import org.fudgemsg.FudgeField;
 import org.fudgemsg.MutableFudgeMsg;
 
@@ -14,7 +17,7 @@ import com.opengamma.util.ArgumentChecker;
 /**
  * Changes the name of a field, leaving its value and all other fields unaffected.
  */
-public class FieldNameChange implements NormalizationRule {
+public class FieldNameChange implements FieldNormalizationRule {
   
   private final String _from;
   private final String _to;
@@ -37,4 +40,14 @@ public class FieldNameChange implements NormalizationRule {
     return msg;
   }
 
+  @Override
+  public Set<String> getInputFieldNames() {
+    return Collections.singleton(_from);
+  }
+
+  @Override
+  public Set<String> getOutputFieldNames() {
+    return Collections.singleton(_to);
+  }
+
 }
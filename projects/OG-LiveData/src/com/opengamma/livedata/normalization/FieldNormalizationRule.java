@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.livedata.normalization;
+
+import java.util.Set;
+
+/**
+ * A normalization rule that only acts on a known set of fields.
+ * <p>
+ * The rule must return the message unchanged if it contains none of the input fields. A {@link NormalizationRuleSet}
+ * uses this to skip the rule for messages that can't be affected by it.
+ */
+public interface FieldNormalizationRule extends NormalizationRule {
+
+  /**
+   * Gets the names of the fields the rule reads.
+   *
+   * @return the input field names, not null
+   */
+  Set<String> getInputFieldNames();
+
+  /**
+   * Gets the names of the fields the rule may add to the message.
+   *
+   * @return the output field names, not null
+   */
+  Set<String> getOutputFieldNames();
+
+}
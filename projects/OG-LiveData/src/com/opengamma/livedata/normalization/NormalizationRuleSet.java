@@ -7,14 +7,20 @@ package com.opengamma.livedata.normalization;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
+import org.fudgemsg.FudgeField;
 import org.fudgemsg.FudgeMsg;
 import org.fudgemsg.MutableFudgeMsg;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
 import com.opengamma.livedata.resolver.JmsTopicNameResolver;
 import com.opengamma.livedata.server.FieldHistoryStore;
 import com.opengamma.util.ArgumentChecker;
@@ -31,6 +37,13 @@ public class NormalizationRuleSet {
   private final String _jmsTopicSuffix;
   private final List<NormalizationRule> _rules;
   
+  // The rule chain compiled for application to each message; see compile()
+  private NormalizationRule[] _compiledRules;
+  private boolean[] _unconditional;
+  private Map<String, int[]> _rulesByInputField;
+  private int[][] _rulesTriggeredByOutputs;
+  private int _lastConditional;
+  
   /* Useful for tests */
   public NormalizationRuleSet(String id) {
     this(id, id, Collections.<NormalizationRule>emptyList()); 
@@ -56,6 +69,77 @@ public class NormalizationRuleSet {
     }
     
     _rules = new ArrayList<NormalizationRule>(rules);    
+    compile();
+  }
+  
+  /**
+   * Compiles the rule chain so that rules implementing {@link FieldNormalizationRule} are only applied
+   * to messages containing (or having gained from an earlier rule) one of their input fields. Other rules
+   * are always applied. A map from field name to the rules it triggers is built once so that each message
+   * needs at most one pass over its fields to select the rules to apply.
+   * <p>
+   * Only {@link FieldNameChange} and {@link UnitChange} are field rules. The other standard rules can't be
+   * skipped: the filters act on fields that are absent, the calculators fall back to the field history when
+   * their inputs are missing and {@link FieldHistoryUpdater} records every message.
+   */
+  private void compile() {
+    final int count = _rules.size();
+    _compiledRules = _rules.toArray(new NormalizationRule[count]);
+    _unconditional = new boolean[count];
+    _lastConditional = -1;
+    final Map<String, List<Integer>> rulesByInputField = new HashMap<String, List<Integer>>();
+    for (int i = 0; i < count; i++) {
+      if (_compiledRules[i] instanceof FieldNormalizationRule) {
+        for (String field : ((FieldNormalizationRule) _compiledRules[i]).getInputFieldNames()) {
+          List<Integer> indices = rulesByInputField.get(field);
+          if (indices == null) {
+            indices = new ArrayList<Integer>();
+            rulesByInputField.put(field, indices);
+          }
+          indices.add(i);
+        }
+        _lastConditional = i;
+      } else {
+        _unconditional[i] = true;
+      }
+    }
+    _rulesByInputField = new HashMap<String, int[]>();
+    for (Map.Entry<String, List<Integer>> entry : rulesByInputField.entrySet()) {
+      _rulesByInputField.put(entry.getKey(), Ints.toArray(entry.getValue()));
+    }
+    _rulesTriggeredByOutputs = new int[count][];
+    for (int i = 0; i < count; i++) {
+      if (!_unconditional[i]) {
+        final Set<Integer> triggered = new TreeSet<Integer>();
+        for (String field : ((FieldNormalizationRule) _compiledRules[i]).getOutputFieldNames()) {
+          final int[] indices = _rulesByInputField.get(field);
+          if (indices != null) {
+            for (int index : indices) {
+              if (index > i) {
+                triggered.add(index);
+              }
+            }
+          }
+        }
+        _rulesTriggeredByOutputs[i] = Ints.toArray(triggered);
+      }
+    }
+  }
+  
+  private void markTriggeredRules(FudgeMsg msg, boolean[] triggered, int fromIndex) {
+    for (FudgeField field : msg) {
+      final String name = field.getName();
+      if (name != null) {
+        final int[] indices = _rulesByInputField.get(name);
+        if (indices != null) {
+          for (int index : indices) {
+            if (index >= fromIndex) {
+              triggered[index] = true;
+            }
+          }
+        }
+      }
+    }
   }
   
   /**
@@ -71,13 +155,33 @@ public class NormalizationRuleSet {
    */
   public FudgeMsg getNormalizedMessage(FudgeMsg msg, String securityUniqueId, FieldHistoryStore fieldHistory) {
     MutableFudgeMsg normalizedMsg = OpenGammaFudgeContext.getInstance().newMessage(msg);
-    for (NormalizationRule rule : _rules) {
+    final NormalizationRule[] rules = _compiledRules;
+    final boolean[] triggered = new boolean[rules.length];
+    if (_lastConditional >= 0) {
+      markTriggeredRules(normalizedMsg, triggered, 0);
+    }
+    for (int i = 0; i < rules.length; i++) {
+      if (!_unconditional[i] && !triggered[i]) {
+        // None of the rule's input fields are present
+        continue;
+      }
+      final NormalizationRule rule = rules[i];
       normalizedMsg = rule.apply(normalizedMsg, securityUniqueId, fieldHistory);
       if (normalizedMsg == null) {
         // One of the rules rejected the message entirely.
-        s_logger.debug("Rule {} in rule set {} rejected message {}", new Object[] {rule, getId(), normalizedMsg});
+        s_logger.debug("Rule {} in rule set {} rejected message {}", new Object[] {rule, getId(), msg});
         break;
       }
+      if (_unconditional[i]) {
+        if (i < _lastConditional) {
+          // The rule may have added any field, so look again for the later rules it might trigger
+          markTriggeredRules(normalizedMsg, triggered, i + 1);
+        }
+      } else {
+        for (int index : _rulesTriggeredByOutputs[i]) {
+          triggered[index] = true;
+        }
+      }
     }
     s_logger.debug("Applying rule set {} to message {} produced normalized message {}", new Object[] {getId(), msg, normalizedMsg});
     return normalizedMsg;
@@ -5,6 +5,9 @@
  */
 package com.opengamma.livedata.normalization;
 
+import java.util.Collections;
+import java.util.Set;
+
 import org.fudgemsg.MutableFudgeMsg;
 
 import com.opengamma.livedata.server.FieldHistoryStore;
@@ -13,7 +16,7 @@ import com.opengamma.util.ArgumentChecker;
 /**
  * Multiplies the value of a {@code Double} field by a constant.
  */
-public class UnitChange implements NormalizationRule {
+public class UnitChange implements FieldNormalizationRule {
   
   private final String _field;
   private final double _multiplier;
@@ -29,6 +32,16 @@ public class UnitChange implements NormalizationRule {
     return multiplyField(msg, _field, _multiplier);
   }
 
+  @Override
+  public Set<String> getInputFieldNames() {
+    return Collections.singleton(_field);
+  }
+
+  @Override
+  public Set<String> getOutputFieldNames() {
+    return Collections.singleton(_field);
+  }
+
   /*package*/ static MutableFudgeMsg multiplyField(MutableFudgeMsg msg, String field, double multiplier) {
     Double value = msg.getDouble(field);
     if (value != null) {
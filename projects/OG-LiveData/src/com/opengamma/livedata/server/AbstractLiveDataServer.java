@@ -10,11 +10,17 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -24,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.Lifecycle;
 
+import com.google.common.collect.Lists;
 import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.id.ExternalId;
 import com.opengamma.id.ExternalScheme;
@@ -56,6 +63,25 @@ public abstract class AbstractLiveDataServer implements Lifecycle {
   private static final Logger s_logger = LoggerFactory
       .getLogger(AbstractLiveDataServer.class);
   
+  /**
+   * Default maximum number of specifications set up under a single acquisition of the subscription lock.
+   */
+  public static final int DEFAULT_SUBSCRIPTION_BATCH_SIZE = 1000;
+  
+  /**
+   * Receives the responses to a subscription request as each batch is completed.
+   */
+  public interface SubscriptionResponseListener {
+
+    /**
+     * Called when a batch of subscriptions has been set up.
+     * 
+     * @param responses the responses for the batch, not null
+     */
+    void responsesReady(Collection<LiveDataSubscriptionResponse> responses);
+
+  }
+  
   private volatile MarketDataSenderFactory _marketDataSenderFactory = new EmptyMarketDataSenderFactory();
   private final Collection<SubscriptionListener> _subscriptionListeners = new CopyOnWriteArrayList<SubscriptionListener>();
   
@@ -78,6 +104,9 @@ public abstract class AbstractLiveDataServer implements Lifecycle {
   
   private volatile ConnectionStatus _connectionStatus = ConnectionStatus.NOT_CONNECTED;
 
+  private volatile int _subscriptionBatchSize = DEFAULT_SUBSCRIPTION_BATCH_SIZE;
+  private volatile ExecutorService _subscriptionExecutor;
+
   
   protected AbstractLiveDataServer() {
     this(true);
@@ -144,6 +173,38 @@ public abstract class AbstractLiveDataServer implements Lifecycle {
     _entitlementChecker = entitlementChecker;
   }
   
+  /**
+   * @return the maximum number of specifications set up under a single acquisition of the subscription lock
+   */
+  public int getSubscriptionBatchSize() {
+    return _subscriptionBatchSize;
+  }
+
+  /**
+   * @param subscriptionBatchSize
+   *          the maximum number of specifications set up under a single acquisition of the subscription lock
+   */
+  public void setSubscriptionBatchSize(int subscriptionBatchSize) {
+    ArgumentChecker.notNegativeOrZero(subscriptionBatchSize, "subscriptionBatchSize");
+    _subscriptionBatchSize = subscriptionBatchSize;
+  }
+
+  /**
+   * @return the executor used to prepare the next batch while the current batch is being subscribed, or null
+   */
+  public ExecutorService getSubscriptionExecutor() {
+    return _subscriptionExecutor;
+  }
+
+  /**
+   * @param subscriptionExecutor
+   *          the executor used to prepare the next batch while the current batch is being subscribed,
+   *          null to prepare each batch on the calling thread
+   */
+  public void setSubscriptionExecutor(ExecutorService subscriptionExecutor) {
+    _subscriptionExecutor = subscriptionExecutor;
+  }
+  
   public String getDefaultNormalizationRuleSetId() {
     return StandardRules.getOpenGammaRuleSetId();
   }
@@ -369,20 +430,126 @@ public abstract class AbstractLiveDataServer implements Lifecycle {
   
   public Collection<LiveDataSubscriptionResponse> subscribe(
       Collection<LiveDataSpecification> liveDataSpecificationsFromClient, boolean persistent) {
+    final Collection<LiveDataSubscriptionResponse> responses = new ArrayList<LiveDataSubscriptionResponse>();
+    subscribe(liveDataSpecificationsFromClient, persistent, new SubscriptionResponseListener() {
+      @Override
+      public void responsesReady(Collection<LiveDataSubscriptionResponse> batch) {
+        responses.addAll(batch);
+      }
+    });
+    return responses;
+  }
+
+  /**
+   * Subscribes to the market data, delivering the responses in batches as each is completed.
+   * <p>
+   * The specifications are processed in batches of at most {@link #getSubscriptionBatchSize()}. The subscription
+   * lock is only held while each batch is being registered, so other subscribers are not blocked for the duration of
+   * a large request. Preparing a batch, which resolves its distribution specifications and creates the subscriptions
+   * and distributors for securities not yet subscribed to, is done without the lock. If a
+   * {@link #setSubscriptionExecutor subscription executor} is set, the next batch is prepared on it while the
+   * current batch is being subscribed to.
+   * <p>
+   * If a batch fails, the batches before it remain subscribed and have already been delivered to the listener.
+   * 
+   * @param liveDataSpecificationsFromClient the specifications to subscribe to, not null
+   * @param persistent See {@link MarketDataDistributor#isPersistent()}
+   * @param listener the listener to receive the responses, not null
+   * @throws RuntimeException if the subscription of a batch fails
+   */
+  public void subscribe(Collection<LiveDataSpecification> liveDataSpecificationsFromClient, boolean persistent,
+      SubscriptionResponseListener listener) {
     ArgumentChecker.notNull(liveDataSpecificationsFromClient, "Subscriptions to be created");
+    ArgumentChecker.notNull(listener, "listener");
     
     s_logger.info("Subscribe requested for {}, persistent = {}", liveDataSpecificationsFromClient, persistent);
     
     verifyConnectionOk();
     
+    if (liveDataSpecificationsFromClient.isEmpty()) {
+      listener.responsesReady(Collections.<LiveDataSubscriptionResponse>emptyList());
+      return;
+    }
+    List<List<LiveDataSpecification>> batches = Lists.partition(new ArrayList<LiveDataSpecification>(liveDataSpecificationsFromClient), getSubscriptionBatchSize());
+    Future<PreparedBatch> nextPreparation = prepareBatch(batches.get(0), persistent);
+    for (int i = 0; i < batches.size(); i++) {
+      PreparedBatch prepared;
+      try {
+        prepared = nextPreparation.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new OpenGammaRuntimeException("Interrupted", e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new OpenGammaRuntimeException("Couldn't prepare subscriptions", e.getCause());
+      }
+      if (i + 1 < batches.size()) {
+        nextPreparation = prepareBatch(batches.get(i + 1), persistent);
+      }
+      listener.responsesReady(subscribe(batches.get(i), prepared, persistent));
+    }
+  }
+
+  /**
+   * A batch of specifications prepared for subscription without holding the subscription lock.
+   */
+  private static final class PreparedBatch {
+    private final Map<LiveDataSpecification, DistributionSpecification> _distributionSpecs;
+    private final Map<String, Subscription> _newSubscriptions = new HashMap<String, Subscription>();
+
+    private PreparedBatch(Map<LiveDataSpecification, DistributionSpecification> distributionSpecs) {
+      _distributionSpecs = distributionSpecs;
+    }
+  }
+
+  private Future<PreparedBatch> prepareBatch(final Collection<LiveDataSpecification> liveDataSpecificationsFromClient, final boolean persistent) {
+    Callable<PreparedBatch> preparation = new Callable<PreparedBatch>() {
+      @Override
+      public PreparedBatch call() {
+        PreparedBatch prepared = new PreparedBatch(getDistributionSpecificationResolver().resolve(liveDataSpecificationsFromClient));
+        // Creating the distributors creates their senders, so do it here rather than under the lock.
+        // Subscriptions made by others in the meantime are picked up when the batch is registered.
+        for (DistributionSpecification distributionSpec : prepared._distributionSpecs.values()) {
+          if (distributionSpec == null) {
+            continue;
+          }
+          String securityUniqueId = distributionSpec.getFullyQualifiedLiveDataSpecification().getIdentifier(getUniqueIdDomain());
+          if (securityUniqueId == null || getSubscription(securityUniqueId) != null) {
+            continue;
+          }
+          Subscription subscription = prepared._newSubscriptions.get(securityUniqueId);
+          if (subscription == null) {
+            subscription = new Subscription(securityUniqueId, getMarketDataSenderFactory());
+            prepared._newSubscriptions.put(securityUniqueId, subscription);
+          }
+          subscription.createDistributor(distributionSpec, persistent);
+        }
+        return prepared;
+      }
+    };
+    ExecutorService executor = getSubscriptionExecutor();
+    if (executor != null) {
+      return executor.submit(preparation);
+    }
+    FutureTask<PreparedBatch> task = new FutureTask<PreparedBatch>(preparation);
+    task.run();
+    return task;
+  }
+
+  private Collection<LiveDataSubscriptionResponse> subscribe(Collection<LiveDataSpecification> liveDataSpecificationsFromClient,
+      PreparedBatch prepared, boolean persistent) {
+    
+    Map<LiveDataSpecification, DistributionSpecification> distrSpecs = prepared._distributionSpecs;
     Collection<LiveDataSubscriptionResponse> responses = new ArrayList<LiveDataSubscriptionResponse>();
     Map<String, Subscription> securityUniqueId2NewSubscription = new HashMap<String, Subscription>();
     Map<String, LiveDataSpecification> securityUniqueId2SpecFromClient = new HashMap<String, LiveDataSpecification>();
+    Collection<Subscription> createdSubscriptions = new ArrayList<Subscription>();
     
     _subscriptionLock.lock();
     try {
     
-      Map<LiveDataSpecification, DistributionSpecification> distrSpecs = getDistributionSpecificationResolver().resolve(liveDataSpecificationsFromClient);
       for (LiveDataSpecification specFromClient : liveDataSpecificationsFromClient) {
         
         // this is the only place where subscribe() can 'partially' fail
@@ -398,7 +565,7 @@ public abstract class AbstractLiveDataServer implements Lifecycle {
       
         Subscription subscription = getSubscription(fullyQualifiedSpec);
         if (subscription != null) {
-          s_logger.info("Already subscribed to {}", fullyQualifiedSpec);
+          s_logger.debug("Already subscribed to {}", fullyQualifiedSpec);
           
           subscription.createDistributor(distributionSpec, persistent);
     
@@ -413,7 +580,13 @@ public abstract class AbstractLiveDataServer implements Lifecycle {
             continue;
           }
           
-          subscription = new Subscription(securityUniqueId, getMarketDataSenderFactory());
+          subscription = securityUniqueId2NewSubscription.get(securityUniqueId);
+          if (subscription == null) {
+            subscription = prepared._newSubscriptions.get(securityUniqueId);
+            if (subscription == null) {
+              subscription = new Subscription(securityUniqueId, getMarketDataSenderFactory());
+            }
+          }
           subscription.createDistributor(distributionSpec, persistent);
           securityUniqueId2NewSubscription.put(subscription.getSecurityUniqueId(), subscription);
           securityUniqueId2SpecFromClient.put(subscription.getSecurityUniqueId(), specFromClient);
@@ -432,7 +605,7 @@ public abstract class AbstractLiveDataServer implements Lifecycle {
         }
       }
       
-      s_logger.info("Subscription snapshot required for {}", newSubscriptionsForWhichSnapshotIsRequired);
+      s_logger.info("Subscription snapshot required for {} securities", newSubscriptionsForWhichSnapshotIsRequired.size());
       Map<String, FudgeMsg> snapshots = doSnapshot(newSubscriptionsForWhichSnapshotIsRequired);
       for (Map.Entry<String, FudgeMsg> snapshot : snapshots.entrySet()) {
         Subscription subscription = securityUniqueId2NewSubscription.get(snapshot.getKey());
@@ -446,7 +619,7 @@ public abstract class AbstractLiveDataServer implements Lifecycle {
         _securityUniqueId2Subscription.put(subscription.getSecurityUniqueId(), subscription); 
       }
 
-      s_logger.info("Creating underlying market data API subscription to {}", securityUniqueId2NewSubscription.keySet());
+      s_logger.info("Creating underlying market data API subscription to {} securities", securityUniqueId2NewSubscription.size());
       Map<String, Object> subscriptionHandles = doSubscribe(securityUniqueId2NewSubscription.keySet());
     
       // Set up data structures
@@ -472,9 +645,9 @@ public abstract class AbstractLiveDataServer implements Lifecycle {
           responses.add(getSubscriptionResponse(specFromClient, distributor.getDistributionSpec()));
         }
         
-        s_logger.info("Created {}", subscription);
+        s_logger.debug("Created {}", subscription);
         
-        notifySubscriptionListeners(subscription);
+        createdSubscriptions.add(subscription);
         
       }
 
@@ -497,6 +670,11 @@ public abstract class AbstractLiveDataServer implements Lifecycle {
       _subscriptionLock.unlock();
     }
     
+    // Listeners are told outside of the lock so that they can't hold up other subscribers
+    for (Subscription subscription : createdSubscriptions) {
+      notifySubscriptionListeners(subscription);
+    }
+    
     //notify that subscription data structure is completely built
     subscriptionDone(securityUniqueId2NewSubscription.keySet());
 
@@ -9,7 +9,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -21,9 +20,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.Lifecycle;
 
-import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
-import com.google.common.collect.Sets.SetView;
 import com.opengamma.livedata.LiveDataSpecification;
 import com.opengamma.livedata.msg.LiveDataSubscriptionResponse;
 import com.opengamma.livedata.msg.LiveDataSubscriptionResult;
@@ -169,34 +165,27 @@ public abstract class AbstractPersistentSubscriptionManager implements Lifecycle
   /**
    * Creates a persistent subscription on the server for any persistent
    * subscriptions which are not yet there.
+   * <p>
+   * The whole set is passed to the server's bulk subscription path, which sets it up in batches
+   * of {@link AbstractLiveDataServer#getSubscriptionBatchSize()} and reports each batch as it completes.
    */
   private synchronized void updateServer(boolean catchExceptions) {
     Collection<LiveDataSpecification> specs = getSpecs(_persistentSubscriptions);
-    Set<LiveDataSpecification> persistentSubscriptionsToMake = new HashSet<LiveDataSpecification>(specs);
     
-    OperationTimer operationTimer = new OperationTimer(s_logger, "Updating server's persistent subscriptions {}", persistentSubscriptionsToMake.size());
+    OperationTimer operationTimer = new OperationTimer(s_logger, "Updating server's persistent subscriptions {}", specs.size());
     
-    int partitionSize = 50; //Aim is to make sure we can convert subscriptions quickly enough that nothing expires, and to leave the server responsive, and make retrys not take too long
-
-    List<List<LiveDataSpecification>> partitions = Lists.partition(Lists.newArrayList(persistentSubscriptionsToMake), partitionSize);
-    for (List<LiveDataSpecification> partition : partitions) {
-      
-      Map<LiveDataSpecification, MarketDataDistributor> marketDataDistributors = _server.getMarketDataDistributors(persistentSubscriptionsToMake);
-      for (Entry<LiveDataSpecification, MarketDataDistributor> distrEntry : marketDataDistributors.entrySet()) {
-        if (distrEntry.getValue() != null) {
-          //Upgrade or no/op should be fast, lets do it to avoid expiry
-          createPersistentSubscription(catchExceptions, distrEntry.getKey());
-          persistentSubscriptionsToMake.remove(distrEntry.getKey());
-        }
-      }
-      
-      
-      SetView<LiveDataSpecification> toMake = Sets.intersection(new HashSet<LiveDataSpecification>(partition), persistentSubscriptionsToMake);
-      if (!toMake.isEmpty()) {
-        createPersistentSubscription(catchExceptions, toMake); //PLAT-1632 
-        persistentSubscriptionsToMake.removeAll(toMake);
+    Map<LiveDataSpecification, MarketDataDistributor> marketDataDistributors = _server.getMarketDataDistributors(specs);
+    Set<LiveDataSpecification> toUpgrade = new HashSet<LiveDataSpecification>();
+    for (Entry<LiveDataSpecification, MarketDataDistributor> distrEntry : marketDataDistributors.entrySet()) {
+      if (distrEntry.getValue() != null) {
+        toUpgrade.add(distrEntry.getKey());
       }
     }
+    Set<LiveDataSpecification> toMake = new HashSet<LiveDataSpecification>(specs);
+    toMake.removeAll(toUpgrade);
+    //Upgrade or no/op should be fast, lets do it first to avoid expiry
+    createPersistentSubscription(catchExceptions, toUpgrade);
+    createPersistentSubscription(catchExceptions, toMake); //PLAT-1632
     operationTimer.finished();
     s_logger.info("Server updated");
   }
@@ -209,23 +198,31 @@ public abstract class AbstractPersistentSubscriptionManager implements Lifecycle
     if (specs.isEmpty()) {
       return;
     }
-    s_logger.info("Creating {}", specs);
+    s_logger.info("Creating {} persistent subscriptions", specs.size());
+    // the server reports each batch on this thread as it completes
+    final Set<LiveDataSpecification> reported = new HashSet<LiveDataSpecification>();
     try {
-      Collection<LiveDataSubscriptionResponse> results = _server.subscribe(specs, true);
-      for (LiveDataSubscriptionResponse liveDataSubscriptionResponse : results) {
-        if (liveDataSubscriptionResponse.getSubscriptionResult() != LiveDataSubscriptionResult.SUCCESS)
-        {
-          s_logger.warn("Failed to create persistent subscription {}", liveDataSubscriptionResponse);
+      _server.subscribe(specs, true, new AbstractLiveDataServer.SubscriptionResponseListener() {
+        @Override
+        public void responsesReady(Collection<LiveDataSubscriptionResponse> responses) {
+          for (LiveDataSubscriptionResponse liveDataSubscriptionResponse : responses) {
+            reported.add(liveDataSubscriptionResponse.getRequestedSpecification());
+            if (liveDataSubscriptionResponse.getSubscriptionResult() != LiveDataSubscriptionResult.SUCCESS) {
+              s_logger.warn("Failed to create persistent subscription {}", liveDataSubscriptionResponse);
+            }
+          }
         }
-      }
+      });
     } catch (RuntimeException e) {
       if (catchExceptions) {
         //This should be rare
         s_logger.error("Creating a persistent subscription failed for " + specs, e);
         if (specs.size() > 1) {
-          //  NOTE: have to retry here since _all_ of the subs will have failed
+          //  NOTE: have to retry here since the failed batch, and those after it, will not have been made
           for (LiveDataSpecification spec : specs) {
-            createPersistentSubscription(catchExceptions, spec);
+            if (!reported.contains(spec)) {
+              createPersistentSubscription(catchExceptions, spec);
+            }
           }
         }
       } else {
@@ -284,6 +281,21 @@ public abstract class AbstractPersistentSubscriptionManager implements Lifecycle
     updateServer(false);
   }
 
+  /**
+   * Adds several persistent subscriptions, creating them on the server in batches and then saving the new
+   * state to storage with a single write.
+   * 
+   * @param securityUniqueIds the security unique IDs to subscribe to, not null
+   */
+  public synchronized void addPersistentSubscriptions(Collection<String> securityUniqueIds) {
+    ArgumentChecker.notNull(securityUniqueIds, "securityUniqueIds");
+    for (String securityUniqueId : securityUniqueIds) {
+      addPersistentSubscription(new PersistentSubscription(getFullyQualifiedLiveDataSpec(securityUniqueId)));
+    }
+    updateServer(false);
+    save();
+  }
+
   public synchronized boolean removePersistentSubscription(
       String securityUniqueId) {
     Subscription sub = _server.getSubscription(securityUniqueId);
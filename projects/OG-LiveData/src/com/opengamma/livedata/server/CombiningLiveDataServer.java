@@ -74,6 +74,12 @@ public abstract class CombiningLiveDataServer extends AbstractLiveDataServer {
         });
   }
 
+  @Override
+  public void subscribe(Collection<LiveDataSpecification> liveDataSpecificationsFromClient, boolean persistent, SubscriptionResponseListener listener) {
+    // The underlying servers batch their own subscriptions; the combined responses are delivered together
+    listener.responsesReady(subscribe(liveDataSpecificationsFromClient, persistent));
+  }
+
   @Override
   public LiveDataSubscriptionResponseMsg subscriptionRequestMadeImpl(final LiveDataSubscriptionRequest subscriptionRequest) {
     //Need to override here as well in order to catch the resolution/entitlement checking
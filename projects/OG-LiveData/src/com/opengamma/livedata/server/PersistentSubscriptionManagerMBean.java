@@ -5,6 +5,7 @@
  */
 package com.opengamma.livedata.server;
 
+import java.util.Arrays;
 import java.util.Set;
 
 import org.slf4j.Logger;
@@ -98,6 +99,19 @@ public class PersistentSubscriptionManagerMBean {
     }
   }
 
+  @ManagedOperation(description = "Adds several persistent subscriptions in bulk, saving them with a single write."
+      + " Existing subscriptions are made persistent.")
+  @ManagedOperationParameters({
+      @ManagedOperationParameter(name = "securityUniqueIds", description = "Security unique IDs. Server type dependent.)") })
+  public void addPersistentSubscriptions(String[] securityUniqueIds) {
+    try {
+      _manager.addPersistentSubscriptions(Arrays.asList(securityUniqueIds));
+    } catch (RuntimeException e) {
+      s_logger.error("addPersistentSubscriptions(" + Arrays.toString(securityUniqueIds) + ")  failed", e);
+      throw new RuntimeException(e.getMessage());
+    }
+  }
+
   @ManagedOperation(description = "Removes a persistent subscription by making the subscription non-persistent."
       + " Returns true if a subscription was actually made non-persistent, false otherwise.")
   @ManagedOperationParameters({
@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+
+package com.opengamma.livedata.firehose;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.fudgemsg.FudgeContext;
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.MutableFudgeMsg;
+import org.testng.annotations.Test;
+
+/**
+ * Test.
+ */
+@Test(groups = "unit")
+public class TickLogTest {
+
+  private static final FudgeContext s_fudgeContext = FudgeContext.GLOBAL_DEFAULT;
+
+  private File writeLog(final int ticks) throws IOException {
+    final File file = File.createTempFile("ticks", ".bin");
+    // Small regions and a short index interval so that remapping and index lookup are both exercised
+    final TickLogWriter writer = new TickLogWriter(s_fudgeContext, file.getPath(), 1024, 10);
+    for (int i = 0; i < ticks; i++) {
+      final MutableFudgeMsg msg = s_fudgeContext.newMessage();
+      msg.add("BID", (double) i);
+      msg.add("ASK", (double) i + 0.5);
+      writer.write(1000L + i, "Foo" + (i % 7), msg);
+    }
+    assertEquals(writer.getTickCount(), ticks);
+    writer.close();
+    return file;
+  }
+
+  private void delete(final File file) {
+    file.delete();
+    new File(file.getPath() + TickLogWriter.INDEX_SUFFIX).delete();
+  }
+
+  public void testRoundTrip() throws IOException {
+    final File file = writeLog(500);
+    try {
+      final TickLogReader reader = new TickLogReader(s_fudgeContext, file.getPath(), 1024);
+      try {
+        for (int i = 0; i < 500; i++) {
+          final TickLogReader.Tick tick = reader.readTick();
+          assertEquals(tick.getTimestamp(), 1000L + i);
+          assertEquals(tick.getUniqueId(), "Foo" + (i % 7));
+          assertEquals(tick.getMessage().getDouble("BID"), (double) i);
+          assertEquals(tick.getMessage().getDouble("ASK"), (double) i + 0.5);
+        }
+        assertNull(reader.readTick());
+        assertNull(reader.readTick());
+      } finally {
+        reader.close();
+      }
+    } finally {
+      delete(file);
+    }
+  }
+
+  public void testSeek() throws IOException {
+    final File file = writeLog(500);
+    try {
+      final TickLogReader reader = new TickLogReader(s_fudgeContext, file.getPath(), 1024);
+      try {
+        reader.seek(1255L);
+        assertEquals(reader.readTick().getTimestamp(), 1255L);
+        reader.seek(0L);
+        assertEquals(reader.readTick().getTimestamp(), 1000L);
+        reader.seek(1499L);
+        assertEquals(reader.readTick().getTimestamp(), 1499L);
+        assertNull(reader.readTick());
+        reader.seek(2000L);
+        assertNull(reader.readTick());
+      } finally {
+        reader.close();
+      }
+    } finally {
+      delete(file);
+    }
+  }
+
+  public void testOutOfOrderTimestampsClamped() throws IOException {
+    final File file = File.createTempFile("ticks", ".bin");
+    try {
+      final TickLogWriter writer = new TickLogWriter(s_fudgeContext, file.getPath());
+      writer.write(2000L, "Foo", s_fudgeContext.newMessage());
+      writer.write(1000L, "Bar", s_fudgeContext.newMessage());
+      writer.close();
+      final TickLogReader reader = new TickLogReader(s_fudgeContext, file.getPath());
+      try {
+        assertEquals(reader.readTick().getTimestamp(), 2000L);
+        assertEquals(reader.readTick().getTimestamp(), 2000L);
+      } finally {
+        reader.close();
+      }
+    } finally {
+      delete(file);
+    }
+  }
+
+  public void testLongUniqueId() throws IOException {
+    final File file = File.createTempFile("ticks", ".bin");
+    try {
+      final StringBuilder uniqueId = new StringBuilder();
+      for (int i = 0; i < TickLogWriter.MAX_UNIQUE_ID_LENGTH; i++) {
+        uniqueId.append('X');
+      }
+      final TickLogWriter writer = new TickLogWriter(s_fudgeContext, file.getPath());
+      writer.write(1000L, uniqueId.toString(), s_fudgeContext.newMessage());
+      try {
+        writer.write(1001L, uniqueId.toString() + "X", s_fudgeContext.newMessage());
+        fail();
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+      writer.close();
+      final TickLogReader reader = new TickLogReader(s_fudgeContext, file.getPath());
+      try {
+        assertEquals(reader.readTick().getUniqueId(), uniqueId.toString());
+        assertNull(reader.readTick());
+      } finally {
+        reader.close();
+      }
+    } finally {
+      delete(file);
+    }
+  }
+
+  public void testReplay() throws Exception {
+    final File file = writeLog(500);
+    try {
+      final TickReplayFireHoseLiveData replay = new TickReplayFireHoseLiveData(file.getPath());
+      replay.setSpeed(0);
+      final AtomicInteger updates = new AtomicInteger();
+      replay.setValueUpdateListener(new FireHoseLiveData.ValueUpdateListener() {
+        @Override
+        public void updatedValue(final String uniqueId, final FudgeMsg msg) {
+          updates.incrementAndGet();
+        }
+      });
+      replay.start();
+      for (int i = 0; i < 100 && replay.isStarted(); i++) {
+        Thread.sleep(100);
+      }
+      assertFalse(replay.isStarted());
+      assertTrue(replay.isMarketDataComplete());
+      assertEquals(updates.get(), 500);
+      assertEquals(replay.getTicksReplayed(), 500L);
+      assertEquals(replay.getLatestValue("Foo0").getDouble("BID"), 497d);
+      // A finished replay can be started again
+      replay.start();
+      for (int i = 0; i < 100 && replay.isStarted(); i++) {
+        Thread.sleep(100);
+      }
+      assertFalse(replay.isStarted());
+      assertTrue(replay.isMarketDataComplete());
+      assertEquals(updates.get(), 1000);
+      assertEquals(replay.getTicksReplayed(), 500L);
+      replay.stop();
+    } finally {
+      delete(file);
+    }
+  }
+
+}
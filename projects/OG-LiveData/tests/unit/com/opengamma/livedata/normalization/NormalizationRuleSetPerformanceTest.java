@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.livedata.normalization;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fudgemsg.FudgeMsg;
+import org.fudgemsg.MutableFudgeMsg;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+import com.opengamma.core.value.MarketDataRequirementNames;
+import com.opengamma.livedata.server.FieldHistoryStore;
+import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
+
+/**
+ * A micro-benchmark of normalization rule set application using Bloomberg style field sets, comparing the
+ * compiled rule chain against applying every rule in turn.
+ */
+@Test(enabled = false)
+public class NormalizationRuleSetPerformanceTest {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(NormalizationRuleSetPerformanceTest.class);
+
+  private static final String[][] FIELD_NAME_CHANGES = {
+    {"BID", MarketDataRequirementNames.BID},
+    {"ASK", MarketDataRequirementNames.ASK},
+    {"LAST_PRICE", MarketDataRequirementNames.LAST},
+    {"PX_SETTLE", MarketDataRequirementNames.SETTLE_PRICE},
+    {"VOLUME", MarketDataRequirementNames.VOLUME},
+    {"OPT_IMPLIED_VOLATILITY_BID_RT", MarketDataRequirementNames.BID_IMPLIED_VOLATILITY},
+    {"OPT_IMPLIED_VOLATILITY_ASK_RT", MarketDataRequirementNames.ASK_IMPLIED_VOLATILITY},
+    {"OPT_IMPLIED_VOLATILITY_LAST_RT", MarketDataRequirementNames.LAST_IMPLIED_VOLATILITY},
+    {"OPT_IMPLIED_VOLATILITY_MID_RT", MarketDataRequirementNames.MID_IMPLIED_VOLATILITY},
+    {"YLD_CNV_MID", MarketDataRequirementNames.YIELD_CONVENTION_MID},
+    {"YLD_YTM_MID", MarketDataRequirementNames.YIELD_YIELD_TO_MATURITY_MID},
+    {"PX_DIRTY_MID", MarketDataRequirementNames.DIRTY_PRICE_MID},
+  };
+
+  private static final int IMAGE_FIELDS = 150;
+  private static final int ITERATIONS = 200000;
+
+  private List<NormalizationRule> createRules() {
+    final List<NormalizationRule> rules = new ArrayList<NormalizationRule>();
+    for (String[] change : FIELD_NAME_CHANGES) {
+      rules.add(new FieldNameChange(change[0], change[1]));
+    }
+    rules.add(new UnitChange(MarketDataRequirementNames.YIELD_YIELD_TO_MATURITY_MID, 0.01));
+    rules.add(new MarketValueCalculator());
+    rules.add(new ImpliedVolatilityCalculator());
+    rules.add(new FieldHistoryUpdater());
+    rules.add(new FieldFilter(
+        MarketDataRequirementNames.MARKET_VALUE,
+        MarketDataRequirementNames.SETTLE_PRICE,
+        MarketDataRequirementNames.VOLUME,
+        MarketDataRequirementNames.IMPLIED_VOLATILITY,
+        MarketDataRequirementNames.YIELD_CONVENTION_MID,
+        MarketDataRequirementNames.YIELD_YIELD_TO_MATURITY_MID,
+        MarketDataRequirementNames.DIRTY_PRICE_MID));
+    rules.add(new RequiredFieldFilter(MarketDataRequirementNames.MARKET_VALUE));
+    return rules;
+  }
+
+  private FudgeMsg createImage() {
+    final MutableFudgeMsg msg = OpenGammaFudgeContext.getInstance().newMessage();
+    for (String[] change : FIELD_NAME_CHANGES) {
+      msg.add(change[0], 100.0);
+    }
+    for (int i = msg.getNumFields(); i < IMAGE_FIELDS; i++) {
+      msg.add("RT_FIELD_" + i, (double) i);
+    }
+    return msg;
+  }
+
+  private FudgeMsg createTick() {
+    final MutableFudgeMsg msg = OpenGammaFudgeContext.getInstance().newMessage();
+    msg.add("BID", 99.5);
+    msg.add("ASK", 100.5);
+    msg.add("RT_PX_CHG_PCT_1D", 0.25);
+    msg.add("TIME", "12:00:00");
+    return msg;
+  }
+
+  private static FudgeMsg applyInTurn(final List<NormalizationRule> rules, final FudgeMsg msg, final FieldHistoryStore history) {
+    MutableFudgeMsg normalizedMsg = OpenGammaFudgeContext.getInstance().newMessage(msg);
+    for (NormalizationRule rule : rules) {
+      normalizedMsg = rule.apply(normalizedMsg, "123", history);
+      if (normalizedMsg == null) {
+        break;
+      }
+    }
+    return normalizedMsg;
+  }
+
+  private void run(final String description, final FudgeMsg msg) {
+    final List<NormalizationRule> rules = createRules();
+    final NormalizationRuleSet ruleSet = new NormalizationRuleSet("Test", "Test", rules);
+    final FieldHistoryStore history = new FieldHistoryStore();
+    // Warm up both paths
+    for (int i = 0; i < ITERATIONS / 10; i++) {
+      applyInTurn(rules, msg, history);
+      ruleSet.getNormalizedMessage(msg, "123", history);
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      applyInTurn(rules, msg, history);
+    }
+    final long inTurn = System.nanoTime() - start;
+    start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      ruleSet.getNormalizedMessage(msg, "123", history);
+    }
+    final long compiled = System.nanoTime() - start;
+    s_logger.info("{}: rules in turn {}ns/msg, compiled {}ns/msg", new Object[] {description, inTurn / ITERATIONS, compiled / ITERATIONS });
+  }
+
+  public void fullImage() {
+    run("Full image", createImage());
+  }
+
+  public void smallTick() {
+    run("Small tick", createTick());
+  }
+
+}
@@ -5,12 +5,19 @@
  */
 package com.opengamma.livedata.normalization;
 
+import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertNull;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.fudgemsg.FudgeField;
 import org.fudgemsg.FudgeMsg;
 import org.fudgemsg.MutableFudgeMsg;
 import org.testng.annotations.Test;
 
+import com.opengamma.core.value.MarketDataRequirementNames;
 import com.opengamma.livedata.server.FieldHistoryStore;
 import com.opengamma.util.fudgemsg.OpenGammaFudgeContext;
 
@@ -39,4 +46,99 @@ public class NormalizationRuleSetTest {
     assertNull(normalizedMsg);
   }
 
+  /**
+   * Rules that only act on absent fields are skipped, but fields added by earlier
+   * rules still trigger the later ones.
+   */
+  public void fieldRulesChained() {
+    NormalizationRuleSet ruleSet = new NormalizationRuleSet(
+        "Testing",
+        new FieldNameChange("PX_BID", "Bid"),
+        new FieldNameChange("PX_ASK", "Ask"),
+        new UnitChange("Bid", 0.01),
+        new FieldNameChange("Bid", "Foo"),
+        new FieldFilter("Foo", "Ask", "Bar"),
+        new UnitChange("Foo", 10.0));
+    
+    MutableFudgeMsg msg = OpenGammaFudgeContext.getInstance().newMessage();
+    msg.add("PX_BID", 200.0);
+    msg.add("VOLUME", 500);
+    
+    FudgeMsg normalizedMsg = ruleSet.getNormalizedMessage(msg, "123", new FieldHistoryStore());
+    assertEquals(1, normalizedMsg.getNumFields());
+    assertEquals(20.0, normalizedMsg.getDouble("Foo"), 0.0001);
+    
+    msg = OpenGammaFudgeContext.getInstance().newMessage();
+    msg.add("PX_ASK", 3.0);
+    msg.add("Bar", 4.0);
+    
+    normalizedMsg = ruleSet.getNormalizedMessage(msg, "123", new FieldHistoryStore());
+    assertEquals(2, normalizedMsg.getNumFields());
+    assertEquals(3.0, normalizedMsg.getDouble("Ask"), 0.0001);
+    assertEquals(4.0, normalizedMsg.getDouble("Bar"), 0.0001);
+  }
+
+  /**
+   * Skipping the field rules must give the same result as applying every rule in order, including
+   * for rules that use the field history and messages the rules extinguish.
+   */
+  public void sameResultAsApplyingEveryRule() {
+    NormalizationRule[] rules = {
+        new FieldNameChange("PX_BID", MarketDataRequirementNames.BID),
+        new FieldNameChange("PX_ASK", MarketDataRequirementNames.ASK),
+        new UnitChange(MarketDataRequirementNames.BID, 0.01),
+        new UnitChange(MarketDataRequirementNames.ASK, 0.01),
+        new FieldNameChange("PX_LAST", MarketDataRequirementNames.LAST),
+        new MarketValueCalculator(),
+        new ImpliedVolatilityCalculator(),
+        new FieldFilter(MarketDataRequirementNames.BID, MarketDataRequirementNames.ASK, MarketDataRequirementNames.LAST,
+            MarketDataRequirementNames.MARKET_VALUE, MarketDataRequirementNames.IMPLIED_VOLATILITY, "VOLUME"),
+        new UnitChange("VOLUME", 1000.0),
+        new FieldHistoryUpdater()};
+    NormalizationRuleSet ruleSet = new NormalizationRuleSet("Testing", rules);
+    FieldHistoryStore ruleSetHistory = new FieldHistoryStore();
+    FieldHistoryStore everyRuleHistory = new FieldHistoryStore();
+    
+    List<MutableFudgeMsg> msgs = new ArrayList<MutableFudgeMsg>();
+    msgs.add(message("PX_BID", 200.0, "PX_ASK", 202.0));
+    msgs.add(message("PX_BID", 201.0));
+    msgs.add(message("VOLUME", 500.0));
+    msgs.add(message("PX_LAST", 150.0, "PX_BID", 100.0, "PX_ASK", 300.0));
+    msgs.add(message(MarketDataRequirementNames.BEST_IMPLIED_VOLATILITY, 0.2));
+    msgs.add(message("Unknown", 1.0));
+    msgs.add(message());
+    for (MutableFudgeMsg msg : msgs) {
+      MutableFudgeMsg expected = OpenGammaFudgeContext.getInstance().newMessage(msg);
+      for (NormalizationRule rule : rules) {
+        expected = rule.apply(expected, "123", everyRuleHistory);
+        if (expected == null) {
+          break;
+        }
+      }
+      FudgeMsg normalizedMsg = ruleSet.getNormalizedMessage(msg, "123", ruleSetHistory);
+      assertEquals(fields(expected), fields(normalizedMsg));
+    }
+    assertEquals(new HashSet<String>(fields(everyRuleHistory.getLastKnownValues())),
+        new HashSet<String>(fields(ruleSetHistory.getLastKnownValues())));
+  }
+
+  private static MutableFudgeMsg message(Object... namesAndValues) {
+    MutableFudgeMsg msg = OpenGammaFudgeContext.getInstance().newMessage();
+    for (int i = 0; i < namesAndValues.length; i += 2) {
+      msg.add((String) namesAndValues[i], namesAndValues[i + 1]);
+    }
+    return msg;
+  }
+
+  private static List<String> fields(FudgeMsg msg) {
+    if (msg == null) {
+      return null;
+    }
+    List<String> fields = new ArrayList<String>();
+    for (FudgeField field : msg) {
+      fields.add(field.getName() + "=" + field.getValue());
+    }
+    return fields;
+  }
+
 }
@@ -1,8 +1,14 @@
 package com.opengamma.livedata.server;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -12,7 +18,9 @@ import org.testng.annotations.Test;
 import com.google.common.collect.Sets;
 import com.opengamma.id.ExternalId;
 import com.opengamma.id.ExternalScheme;
+import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.livedata.LiveDataSpecification;
+import com.opengamma.livedata.msg.LiveDataSubscriptionResponse;
 import com.opengamma.livedata.normalization.StandardRules;
 import com.opengamma.livedata.server.distribution.MarketDataDistributor;
 
@@ -62,6 +70,57 @@ public class AbstractPersistentSubscriptionManagerTest {
     server.stop();
   }
   
+  @Test
+  public void testBulkAdd() {
+    MockLiveDataServer server = new MockLiveDataServer(_scheme);
+    server.setSubscriptionBatchSize(2);
+    TestPersistentSubscriptionManager subManager = new TestPersistentSubscriptionManager(server);
+    server.start();
+    server.subscribe("X", false);
+    
+    subManager.addPersistentSubscriptions(Arrays.asList("X", "Y", "Z"));
+    assertEquals(Sets.newHashSet("X", "Y", "Z"), server.getActiveSubscriptionIds());
+    assertEquals(Sets.newHashSet("X", "Y", "Z"), new HashSet<String>(server.getActualSubscriptions()));
+    assertEquals(true, server.getMarketDataDistributor("X").isPersistent());
+    assertEquals(true, server.getMarketDataDistributor("Y").isPersistent());
+    assertEquals(1, subManager.getPendingWrites().size());
+    assertEquals(3, subManager.getPendingWrites().remove().size());
+    server.stop();
+  }
+
+  @Test
+  public void testSingleAddDoesNotSave() {
+    MockLiveDataServer server = new MockLiveDataServer(_scheme);
+    TestPersistentSubscriptionManager subManager = new TestPersistentSubscriptionManager(server);
+    server.start();
+    
+    subManager.addPersistentSubscription("X");
+    assertEquals(Sets.newHashSet("X"), server.getActiveSubscriptionIds());
+    assertEquals(true, server.getMarketDataDistributor("X").isPersistent());
+    assertEquals(0, subManager.getPendingWrites().size());
+    server.stop();
+  }
+
+  @Test
+  public void testRetryAfterFailedBatchSkipsReportedSpecs() {
+    FailingLiveDataServer server = new FailingLiveDataServer(_scheme);
+    server.setSubscriptionBatchSize(2);
+    TestPersistentSubscriptionManager subManager = new TestPersistentSubscriptionManager(server);
+    subManager.getPendingReads().add(Sets.newHashSet(getSubscription("A"), getSubscription("B"), getSubscription("C"), getSubscription("D")));
+    server.start();
+    
+    subManager.refresh();
+    assertEquals(Sets.newHashSet("A", "B", "C", "D"), server.getActiveSubscriptionIds());
+    assertEquals(2, server.getReported().size());
+    // the whole set, then one request for each spec of the failed batch
+    assertEquals(3, server.getRequests().size());
+    for (Collection<LiveDataSpecification> retry : server.getRequests().subList(1, 3)) {
+      assertEquals(1, retry.size());
+      assertFalse(server.getReported().contains(retry.iterator().next()));
+    }
+    server.stop();
+  }
+
   private PersistentSubscription getSubscription(String ticker) {
     return new PersistentSubscription(getSpec(ticker));
   }
@@ -70,6 +129,51 @@ public class AbstractPersistentSubscriptionManagerTest {
     return new LiveDataSpecification(_normalizationRulesetId, ExternalId.of(_scheme, ticker));
   }
   
+  /**
+   * Fails the second batch it subscribes to and records the requests made and the specs reported.
+   */
+  class FailingLiveDataServer extends MockLiveDataServer {
+
+    private final List<Collection<LiveDataSpecification>> _requests = new ArrayList<Collection<LiveDataSpecification>>();
+    private final Set<LiveDataSpecification> _reported = new HashSet<LiveDataSpecification>();
+    private int _batches;
+
+    public FailingLiveDataServer(ExternalScheme domain) {
+      super(domain);
+    }
+
+    @Override
+    protected Map<String, Object> doSubscribe(Collection<String> uniqueIds) {
+      if (++_batches == 2) {
+        throw new OpenGammaRuntimeException("Failed to subscribe to " + uniqueIds);
+      }
+      return super.doSubscribe(uniqueIds);
+    }
+
+    @Override
+    public void subscribe(Collection<LiveDataSpecification> liveDataSpecificationsFromClient, boolean persistent,
+        final SubscriptionResponseListener listener) {
+      _requests.add(new ArrayList<LiveDataSpecification>(liveDataSpecificationsFromClient));
+      super.subscribe(liveDataSpecificationsFromClient, persistent, new SubscriptionResponseListener() {
+        @Override
+        public void responsesReady(Collection<LiveDataSubscriptionResponse> responses) {
+          for (LiveDataSubscriptionResponse response : responses) {
+            _reported.add(response.getRequestedSpecification());
+          }
+          listener.responsesReady(responses);
+        }
+      });
+    }
+
+    public List<Collection<LiveDataSpecification>> getRequests() {
+      return _requests;
+    }
+
+    public Set<LiveDataSpecification> getReported() {
+      return _reported;
+    }
+  }
+
   class TestPersistentSubscriptionManager extends AbstractPersistentSubscriptionManager  {
 
     public TestPersistentSubscriptionManager(AbstractLiveDataServer server) {
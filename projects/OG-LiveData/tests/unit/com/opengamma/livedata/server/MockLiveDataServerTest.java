@@ -12,7 +12,12 @@ import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertSame;
 import static org.testng.AssertJUnit.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
 
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -106,6 +111,36 @@ public class MockLiveDataServerTest {
     assertNull(distributor.getExpiry());
   }
 
+  public void batchedSubscription() {
+    _server.setSubscriptionBatchSize(2);
+    _server.setSubscriptionExecutor(Executors.newSingleThreadExecutor());
+    try {
+      List<LiveDataSpecification> specs = new ArrayList<LiveDataSpecification>();
+      for (int i = 0; i < 5; i++) {
+        specs.add(getSpec("batch" + i));
+      }
+      final List<Integer> batchSizes = new ArrayList<Integer>();
+      _server.subscribe(specs, false, new AbstractLiveDataServer.SubscriptionResponseListener() {
+        @Override
+        public void responsesReady(Collection<LiveDataSubscriptionResponse> responses) {
+          batchSizes.add(responses.size());
+          for (LiveDataSubscriptionResponse response : responses) {
+            assertEquals(LiveDataSubscriptionResult.SUCCESS, response.getSubscriptionResult());
+          }
+        }
+      });
+      assertEquals(Arrays.asList(2, 2, 1), batchSizes);
+      assertEquals(5, _server.getNumActiveSubscriptions());
+      for (LiveDataSpecification spec : specs) {
+        assertTrue(_server.isSubscribedTo(spec));
+      }
+      assertEquals(5, _server.subscribe(specs, false).size());
+      assertEquals(5, _server.getNumActiveSubscriptions());
+    } finally {
+      _server.getSubscriptionExecutor().shutdown();
+    }
+  }
+
   public void subscribeUnsubscribeA() {
     _server.subscribe("nonpersistent", false);
     _server.subscribe("persistent", true);
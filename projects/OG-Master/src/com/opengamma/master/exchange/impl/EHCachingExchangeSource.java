@@ -11,6 +11,7 @@ import net.sf.ehcache.Cache;
 import net.sf.ehcache.CacheManager;
 import net.sf.ehcache.Element;
 
+import com.opengamma.core.cache.SourceCache;
 import com.opengamma.core.exchange.Exchange;
 import com.opengamma.core.exchange.ExchangeSource;
 import com.opengamma.id.ExternalId;
@@ -30,6 +31,10 @@ public class EHCachingExchangeSource implements ExchangeSource {
    * Cache key for exhanges.
    */
   private static final String EXCHANGE_EXTERNAL_ID_CACHE = "exchange.externalId";
+  /**
+   * The name of the cache of exchanges by identifier.
+   */
+  private static final String EXCHANGE_CACHE = "exchange.id";
 
   /**
    * The cache manager.
@@ -39,6 +44,10 @@ public class EHCachingExchangeSource implements ExchangeSource {
    * The result cache.
    */
   private final Cache _exchangeExternalIdCache;
+  /**
+   * The cache of exchanges by identifier.
+   */
+  private final SourceCache<Exchange> _exchangeCache;
 
   private final ExchangeSource _underlying;
 
@@ -56,6 +65,19 @@ public class EHCachingExchangeSource implements ExchangeSource {
     _cacheManager = cacheManager;
     EHCacheUtils.addCache(cacheManager, EXCHANGE_EXTERNAL_ID_CACHE);
     _exchangeExternalIdCache = EHCacheUtils.getCacheFromManager(cacheManager, EXCHANGE_EXTERNAL_ID_CACHE);
+    _exchangeCache = new SourceCache<Exchange>(EXCHANGE_CACHE, cacheManager, new SourceCache.Loader<Exchange>() {
+
+      @Override
+      public Exchange load(final UniqueId uniqueId) {
+        return _underlying.getExchange(uniqueId);
+      }
+
+      @Override
+      public Exchange load(final ObjectId objectId, final VersionCorrection versionCorrection) {
+        return _underlying.getExchange(objectId, versionCorrection);
+      }
+
+    });
   }
 
   public void setTTL(final Integer ttl) {
@@ -65,15 +87,24 @@ public class EHCachingExchangeSource implements ExchangeSource {
   public CacheManager getCacheManager() {
     return _cacheManager;
   }
+
+  /**
+   * Gets the cache of exchanges by identifier.
+   * 
+   * @return the cache, not null
+   */
+  public SourceCache<Exchange> getExchangeCache() {
+    return _exchangeCache;
+  }
   
   @Override
   public Exchange getExchange(UniqueId uniqueId) {
-    return _underlying.getExchange(uniqueId);
+    return _exchangeCache.get(uniqueId);
   }
 
   @Override
   public Exchange getExchange(ObjectId objectId, VersionCorrection versionCorrection) {
-    return _underlying.getExchange(objectId, versionCorrection);
+    return _exchangeCache.get(objectId, versionCorrection);
   }
 
   @Override
@@ -102,6 +133,15 @@ public class EHCachingExchangeSource implements ExchangeSource {
     return _underlying.getSingleExchange(identifierBundle);
   }
 
+  /**
+   * Call this at the end of a unit test run to clear the state of EHCache.
+   * It should not be part of a generic lifecycle method.
+   */
+  protected void shutdown() {
+    _cacheManager.removeCache(EXCHANGE_EXTERNAL_ID_CACHE);
+    _exchangeCache.shutdown();
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public String toString() {
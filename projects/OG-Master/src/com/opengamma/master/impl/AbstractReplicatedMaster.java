@@ -0,0 +1,586 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.master.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.Lifecycle;
+
+import com.opengamma.DataNotFoundException;
+import com.opengamma.core.change.BasicChangeManager;
+import com.opengamma.core.change.BatchChangeListener;
+import com.opengamma.core.change.ChangeEvent;
+import com.opengamma.core.change.ChangeListener;
+import com.opengamma.core.change.ChangeManager;
+import com.opengamma.core.change.ChangeProvider;
+import com.opengamma.core.change.ChangeType;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ExternalIdSearch;
+import com.opengamma.id.ExternalIdSearchType;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.ObjectIdentifiable;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.AbstractDocument;
+import com.opengamma.master.AbstractMaster;
+import com.opengamma.master.AbstractSearchRequest;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.paging.PagingRequest;
+
+/**
+ * Abstract base class for an in-memory replica of another master.
+ * <p>
+ * The replica holds the latest version of every document in the underlying master, indexed by object
+ * identifier and by external identifier. When started it registers for changes with the underlying master
+ * and then reads every document in pages at a fixed version-correction, so that documents changed or removed
+ * while loading cannot shift the pages. Documents changed since that snapshot are left to their change events.
+ * Each change event, or batch of events, then reloads the changed documents, so that a replica fed by a
+ * {@code JmsChangeManager} stays current with the database without a round-trip for each lookup.
+ * <p>
+ * A request is answered locally when the latest version of a document satisfies it, which covers the
+ * latest version-correction and any version-correction at or after the instants the document was last changed.
+ * Requests for earlier versions, history and anything not yet replicated go to the underlying master,
+ * as do all writes. The documents returned are shared and must not be modified by the caller.
+ *
+ * @param <D> the type of the document
+ * @param <M> the type of the underlying master
+ */
+public abstract class AbstractReplicatedMaster<D extends AbstractDocument, M extends AbstractMaster<D> & ChangeProvider> implements AbstractMaster<D>, ChangeProvider, Lifecycle {
+
+  /** Logger. */
+  private static final Logger s_logger = LoggerFactory.getLogger(AbstractReplicatedMaster.class);
+  /**
+   * The default number of documents to read from the underlying master at a time.
+   */
+  public static final int DEFAULT_PAGE_SIZE = 1000;
+
+  /**
+   * The underlying master.
+   */
+  private final M _underlying;
+  /**
+   * The latest document for each object.
+   */
+  private final ConcurrentMap<ObjectId, D> _documents = new ConcurrentHashMap<ObjectId, D>();
+  /**
+   * The objects referenced by each external identifier.
+   */
+  private final ConcurrentMap<ExternalId, Set<ObjectId>> _externalIdIndex = new ConcurrentHashMap<ExternalId, Set<ObjectId>>();
+  /**
+   * The change manager.
+   */
+  private final ChangeManager _changeManager;
+  /**
+   * Listens for changes in the underlying master.
+   */
+  private final ChangeListener _changeListener = new BatchChangeListener() {
+    @Override
+    public void entityChanged(final ChangeEvent event) {
+      applyChange(event);
+      changeManager().entityChanged(event.getType(), event.getBeforeId(), event.getAfterId(), event.getVersionInstant());
+    }
+
+    @Override
+    public void entitiesChanged(final List<ChangeEvent> events) {
+      applyChanges(events);
+      changeManager().entitiesChanged(events);
+    }
+  };
+  /**
+   * The number of documents to read at a time when starting.
+   */
+  private int _pageSize = DEFAULT_PAGE_SIZE;
+  /**
+   * Whether the replica is populated and answering requests.
+   */
+  private volatile boolean _running;
+  /**
+   * The objects removed while the replica is loading, null when not loading.
+   */
+  private volatile Set<ObjectId> _removedWhileLoading;
+
+  /**
+   * Creates an instance.
+   *
+   * @param underlying  the underlying master, not null
+   */
+  protected AbstractReplicatedMaster(final M underlying) {
+    this(underlying, new BasicChangeManager());
+  }
+
+  /**
+   * Creates an instance specifying the change manager.
+   *
+   * @param underlying  the underlying master, not null
+   * @param changeManager  the change manager, not null
+   */
+  protected AbstractReplicatedMaster(final M underlying, final ChangeManager changeManager) {
+    ArgumentChecker.notNull(underlying, "underlying");
+    ArgumentChecker.notNull(changeManager, "changeManager");
+    _underlying = underlying;
+    _changeManager = changeManager;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the underlying master.
+   *
+   * @return the underlying master, not null
+   */
+  public M getUnderlying() {
+    return _underlying;
+  }
+
+  /**
+   * Gets the number of documents read at a time when starting.
+   *
+   * @return the page size
+   */
+  public int getPageSize() {
+    return _pageSize;
+  }
+
+  /**
+   * Sets the number of documents read at a time when starting.
+   *
+   * @param pageSize  the page size, greater than zero
+   */
+  public void setPageSize(final int pageSize) {
+    ArgumentChecker.isTrue(pageSize > 0, "pageSize must be greater than zero");
+    _pageSize = pageSize;
+  }
+
+  /**
+   * Gets the number of documents held.
+   *
+   * @return the number of documents
+   */
+  public int size() {
+    return _documents.size();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Reads a page of the documents from the underlying master.
+   * <p>
+   * The documents must be ordered consistently between pages, such as by object identifier.
+   *
+   * @param pagingRequest  the page to read, not null
+   * @param versionCorrection  the version-correction of the snapshot being read, not null
+   * @return the documents, not null
+   */
+  protected abstract List<D> loadPage(PagingRequest pagingRequest, VersionCorrection versionCorrection);
+
+  /**
+   * Reads the latest documents with the given object identifiers from the underlying master in one request.
+   * <p>
+   * Objects that do not exist, or have been removed, are omitted from the result.
+   *
+   * @param objectIds  the object identifiers, not null and not empty
+   * @return the documents, not null
+   */
+  protected abstract List<D> loadAll(Collection<ObjectId> objectIds);
+
+  /**
+   * Gets the external identifiers a document is indexed by.
+   *
+   * @param document  the document, not null
+   * @return the external identifiers, not null
+   */
+  protected abstract Iterable<ExternalId> getExternalIds(D document);
+
+  //-------------------------------------------------------------------------
+  @Override
+  public void start() {
+    if (_running) {
+      return;
+    }
+    // register first so that nothing changed while loading is missed
+    _removedWhileLoading = Collections.newSetFromMap(new ConcurrentHashMap<ObjectId, Boolean>());
+    getUnderlying().changeManager().addChangeListener(_changeListener);
+    final long startTime = System.nanoTime();
+    final Instant now = Instant.now();
+    final VersionCorrection snapshot = VersionCorrection.of(now, now);
+    int page = 1;
+    List<D> documents;
+    do {
+      documents = loadPage(PagingRequest.ofPage(page++, getPageSize()), snapshot);
+      for (D document : documents) {
+        storeLoaded(document);
+      }
+    } while (documents.size() == getPageSize());
+    _removedWhileLoading = null;
+    _running = true;
+    s_logger.info("Replicated {} documents from {} in {}ms", new Object[] {size(), getUnderlying(), (System.nanoTime() - startTime) / 1000000 });
+  }
+
+  @Override
+  public void stop() {
+    _running = false;
+    getUnderlying().changeManager().removeChangeListener(_changeListener);
+    synchronized (this) {
+      _documents.clear();
+      _externalIdIndex.clear();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return _running;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the replicated document that answers a request at a version-correction.
+   *
+   * @param objectId  the object identifier, not null
+   * @param versionCorrection  the version-correction, not null
+   * @return the document, null if the request must go to the underlying master
+   */
+  protected D getReplicated(final ObjectId objectId, final VersionCorrection versionCorrection) {
+    if (!_running) {
+      return null;
+    }
+    final D document = _documents.get(objectId);
+    if (document == null || !isVisible(document, versionCorrection)) {
+      return null;
+    }
+    return document;
+  }
+
+  /**
+   * Gets the replicated documents referenced by any of a set of external identifiers.
+   *
+   * @param externalIds  the external identifiers, not null
+   * @return the documents, not null
+   */
+  protected Collection<D> getReplicatedByExternalId(final Iterable<ExternalId> externalIds) {
+    final Set<ObjectId> objectIds = new HashSet<ObjectId>();
+    for (ExternalId externalId : externalIds) {
+      final Set<ObjectId> indexed = _externalIdIndex.get(externalId);
+      if (indexed != null) {
+        objectIds.addAll(indexed);
+      }
+    }
+    return getReplicated(objectIds);
+  }
+
+  /**
+   * Gets the latest documents with the given object identifiers.
+   * <p>
+   * Any not held by the replica, such as those added but not yet replicated, are read from the
+   * underlying master in one request. Objects that do not exist are omitted.
+   *
+   * @param objectIds  the object identifiers, not null
+   * @return the documents, not null
+   */
+  protected Collection<D> getReplicated(final Collection<ObjectId> objectIds) {
+    final List<D> result = new ArrayList<D>(objectIds.size());
+    List<ObjectId> missing = null;
+    for (ObjectId objectId : objectIds) {
+      final D document = _documents.get(objectId);
+      if (document != null) {
+        result.add(document);
+      } else {
+        if (missing == null) {
+          missing = new ArrayList<ObjectId>();
+        }
+        missing.add(objectId);
+      }
+    }
+    if (missing != null) {
+      result.addAll(loadAll(missing));
+    }
+    return result;
+  }
+
+  /**
+   * Checks if the latest version of a document is the one seen at a version-correction.
+   *
+   * @param document  the latest document, not null
+   * @param versionCorrection  the version-correction, not null
+   * @return true if the document is the one seen
+   */
+  protected static boolean isVisible(final AbstractDocument document, final VersionCorrection versionCorrection) {
+    final Instant versionAsOf = versionCorrection.getVersionAsOf();
+    if (versionAsOf != null && (document.getVersionFromInstant() == null || document.getVersionFromInstant().isAfter(versionAsOf))) {
+      return false;
+    }
+    final Instant correctedTo = versionCorrection.getCorrectedTo();
+    if (correctedTo != null && (document.getCorrectionFromInstant() == null || document.getCorrectionFromInstant().isAfter(correctedTo))) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Searches the replicated documents, if the search can be answered from the indexes.
+   * <p>
+   * Only searches at the latest version-correction that are restricted by object identifier or
+   * external identifier can be answered locally. The candidate documents found from the indexes
+   * are filtered using {@link AbstractSearchRequest#matches} and sorted.
+   *
+   * @param request  the search request, not null
+   * @param objectIds  the object identifiers requested, null if not restricted
+   * @param externalIdSearch  the external identifiers requested, null if not restricted
+   * @param order  the sort order, null to sort by object identifier
+   * @return the matching documents, null if the search must go to the underlying master
+   */
+  protected List<D> searchReplicated(final AbstractSearchRequest request, final Collection<ObjectId> objectIds,
+      final ExternalIdSearch externalIdSearch, final Comparator<? super D> order) {
+    if (!_running) {
+      return null;
+    }
+    final VersionCorrection versionCorrection = request.getVersionCorrection();
+    if (versionCorrection.getVersionAsOf() != null || versionCorrection.getCorrectedTo() != null) {
+      return null;
+    }
+    final Collection<D> candidates;
+    if (objectIds != null) {
+      candidates = getReplicated(objectIds);
+    } else if (externalIdSearch != null && externalIdSearch.getSearchType() != ExternalIdSearchType.NONE) {
+      candidates = getReplicatedByExternalId(externalIdSearch);
+    } else {
+      return null;
+    }
+    final List<D> result = new ArrayList<D>(candidates.size());
+    for (D document : candidates) {
+      if (request.matches(document)) {
+        result.add(document);
+      }
+    }
+    if (order != null) {
+      Collections.sort(result, order);
+    } else {
+      Collections.sort(result, new Comparator<D>() {
+        @Override
+        public int compare(final D document1, final D document2) {
+          return document1.getObjectId().compareTo(document2.getObjectId());
+        }
+      });
+    }
+    return result;
+  }
+
+  //-------------------------------------------------------------------------
+  private synchronized void store(final D document) {
+    final ObjectId objectId = document.getObjectId();
+    final D previous = _documents.get(objectId);
+    if (previous != null) {
+      if (isOlder(document, previous)) {
+        return;
+      }
+      unindex(previous);
+    }
+    _documents.put(objectId, document);
+    for (ExternalId externalId : getExternalIds(document)) {
+      Set<ObjectId> objectIds = _externalIdIndex.get(externalId);
+      if (objectIds == null) {
+        objectIds = Collections.newSetFromMap(new ConcurrentHashMap<ObjectId, Boolean>());
+        _externalIdIndex.put(externalId, objectIds);
+      }
+      objectIds.add(objectId);
+    }
+  }
+
+  private synchronized void storeLoaded(final D document) {
+    // a document changed or removed since the snapshot is replaced by its change event
+    if (document.isLatest() && !_removedWhileLoading.contains(document.getObjectId())) {
+      store(document);
+    }
+  }
+
+  private synchronized void discard(final ObjectId objectId) {
+    final Set<ObjectId> removedWhileLoading = _removedWhileLoading;
+    if (removedWhileLoading != null) {
+      removedWhileLoading.add(objectId);
+    }
+    final D previous = _documents.remove(objectId);
+    if (previous != null) {
+      unindex(previous);
+    }
+  }
+
+  private void unindex(final D document) {
+    for (ExternalId externalId : getExternalIds(document)) {
+      final Set<ObjectId> objectIds = _externalIdIndex.get(externalId);
+      if (objectIds != null) {
+        objectIds.remove(document.getObjectId());
+        if (objectIds.isEmpty()) {
+          _externalIdIndex.remove(externalId);
+        }
+      }
+    }
+  }
+
+  private static boolean isOlder(final AbstractDocument document, final AbstractDocument other) {
+    if (document.getVersionFromInstant() == null || other.getVersionFromInstant() == null) {
+      return false;
+    }
+    final int cmp = document.getVersionFromInstant().compareTo(other.getVersionFromInstant());
+    if (cmp != 0) {
+      return cmp < 0;
+    }
+    if (document.getCorrectionFromInstant() == null || other.getCorrectionFromInstant() == null) {
+      return false;
+    }
+    return document.getCorrectionFromInstant().isBefore(other.getCorrectionFromInstant());
+  }
+
+  /**
+   * Applies a change in the underlying master to the replica.
+   * <p>
+   * The change is passed on to listeners of the replica once it, or the batch containing it, has been applied.
+   *
+   * @param event  the change event, not null
+   */
+  protected void applyChange(final ChangeEvent event) {
+    if (event.getType() == ChangeType.REMOVED) {
+      if (event.getBeforeId() != null) {
+        discard(event.getBeforeId().getObjectId());
+      }
+    } else if (event.getAfterId() != null) {
+      final ObjectId objectId = event.getAfterId().getObjectId();
+      try {
+        store(getUnderlying().get(objectId, VersionCorrection.LATEST));
+      } catch (DataNotFoundException ex) {
+        s_logger.debug("Changed document {} no longer exists", objectId);
+        discard(objectId);
+      }
+    }
+  }
+
+  /**
+   * Applies a batch of changes in the underlying master to the replica.
+   * <p>
+   * The changed documents are reloaded from the underlying master in one request rather than one per event.
+   *
+   * @param events  the change events, not null
+   */
+  protected void applyChanges(final List<ChangeEvent> events) {
+    if (events.size() == 1) {
+      applyChange(events.get(0));
+      return;
+    }
+    final Set<ObjectId> changed = new LinkedHashSet<ObjectId>();
+    for (ChangeEvent event : events) {
+      if (event.getType() == ChangeType.REMOVED) {
+        if (event.getBeforeId() != null) {
+          changed.remove(event.getBeforeId().getObjectId());
+          discard(event.getBeforeId().getObjectId());
+        }
+      } else if (event.getAfterId() != null) {
+        changed.add(event.getAfterId().getObjectId());
+      }
+    }
+    if (changed.isEmpty()) {
+      return;
+    }
+    for (D document : loadAll(changed)) {
+      changed.remove(document.getObjectId());
+      store(document);
+    }
+    for (ObjectId objectId : changed) {
+      s_logger.debug("Changed document {} no longer exists", objectId);
+      discard(objectId);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public D get(final UniqueId uniqueId) {
+    ArgumentChecker.notNull(uniqueId, "uniqueId");
+    final D document = getReplicated(uniqueId.getObjectId(), VersionCorrection.LATEST);
+    if (document != null && (uniqueId.isLatest() || uniqueId.equals(document.getUniqueId()))) {
+      return document;
+    }
+    return getUnderlying().get(uniqueId);
+  }
+
+  @Override
+  public D get(final ObjectIdentifiable objectId, final VersionCorrection versionCorrection) {
+    ArgumentChecker.notNull(objectId, "objectId");
+    ArgumentChecker.notNull(versionCorrection, "versionCorrection");
+    final D document = getReplicated(objectId.getObjectId(), versionCorrection);
+    if (document != null) {
+      return document;
+    }
+    return getUnderlying().get(objectId, versionCorrection);
+  }
+
+  @Override
+  public D add(final D document) {
+    final D result = getUnderlying().add(document);
+    if (_running) {
+      store(result);
+    }
+    return result;
+  }
+
+  @Override
+  public D update(final D document) {
+    final D result = getUnderlying().update(document);
+    if (_running) {
+      store(result);
+    }
+    return result;
+  }
+
+  /**
+   * Stores documents written to the underlying master by a bulk operation.
+   * 
+   * @param documents  the documents returned by the underlying master, not null
+   * @return the documents, not null
+   */
+  protected List<D> storeAll(final List<D> documents) {
+    if (_running) {
+      for (D document : documents) {
+        store(document);
+      }
+    }
+    return documents;
+  }
+
+  @Override
+  public void remove(final UniqueId uniqueId) {
+    getUnderlying().remove(uniqueId);
+    discard(uniqueId.getObjectId());
+  }
+
+  @Override
+  public D correct(final D document) {
+    final D result = getUnderlying().correct(document);
+    if (_running && result.isLatest()) {
+      store(result);
+    }
+    return result;
+  }
+
+  @Override
+  public ChangeManager changeManager() {
+    return _changeManager;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[" + getUnderlying() + "]";
+  }
+
+}
@@ -5,6 +5,8 @@
  */
 package com.opengamma.master.position;
 
+import java.util.List;
+
 import com.opengamma.DataNotFoundException;
 import com.opengamma.core.change.ChangeProvider;
 import com.opengamma.id.UniqueId;
@@ -40,6 +42,32 @@ public interface PositionMaster extends AbstractMaster<PositionDocument>, Change
    */
   PositionHistoryResult history(PositionHistoryRequest request);
 
+  /**
+   * Adds a list of positions to the data store.
+   * <p>
+   * This is equivalent to calling {@link #add} for each document in turn,
+   * but allows the implementation to store them together.
+   * 
+   * @param documents  the documents to add, not null
+   * @return the added documents, in the order of the input, not null
+   * @throws IllegalArgumentException if a document is invalid
+   */
+  List<PositionDocument> addAll(List<PositionDocument> documents);
+
+  /**
+   * Updates a list of positions in the data store.
+   * <p>
+   * This is equivalent to calling {@link #update} for each document in turn,
+   * but allows the implementation to store them together.
+   * Each document must refer to a different position.
+   * 
+   * @param documents  the documents to update, not null
+   * @return the updated documents, in the order of the input, not null
+   * @throws IllegalArgumentException if a document is invalid
+   * @throws DataNotFoundException if a position is not found
+   */
+  List<PositionDocument> updateAll(List<PositionDocument> documents);
+
   /**
    * Gets a trade by unique identifier.
    * <p>
@@ -5,6 +5,9 @@
  */
 package com.opengamma.master.position.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -110,6 +113,40 @@ public class DelegatingPositionMaster extends UniqueIdSchemeDelegator<PositionMa
     return chooseDelegate(document.getObjectId().getScheme()).update(document);
   }
 
+  @Override
+  public List<PositionDocument> addAll(List<PositionDocument> documents) {
+    ArgumentChecker.noNulls(documents, "documents");
+    return getDefaultDelegate().addAll(documents);
+  }
+
+  @Override
+  public List<PositionDocument> updateAll(List<PositionDocument> documents) {
+    ArgumentChecker.noNulls(documents, "documents");
+    // group by delegate, keeping the index of each document to restore the order
+    final Map<PositionMaster, List<Integer>> indicesByDelegate = new LinkedHashMap<PositionMaster, List<Integer>>();
+    for (int i = 0; i < documents.size(); i++) {
+      final PositionMaster delegate = chooseDelegate(documents.get(i).getObjectId().getScheme());
+      List<Integer> indices = indicesByDelegate.get(delegate);
+      if (indices == null) {
+        indices = new ArrayList<Integer>();
+        indicesByDelegate.put(delegate, indices);
+      }
+      indices.add(i);
+    }
+    final PositionDocument[] result = new PositionDocument[documents.size()];
+    for (Map.Entry<PositionMaster, List<Integer>> entry : indicesByDelegate.entrySet()) {
+      final List<PositionDocument> batch = new ArrayList<PositionDocument>(entry.getValue().size());
+      for (int index : entry.getValue()) {
+        batch.add(documents.get(index));
+      }
+      final List<PositionDocument> updated = entry.getKey().updateAll(batch);
+      for (int i = 0; i < updated.size(); i++) {
+        result[entry.getValue().get(i)] = updated.get(i);
+      }
+    }
+    return Arrays.asList(result);
+  }
+
   @Override
   public void remove(UniqueId uniqueId) {
     ArgumentChecker.notNull(uniqueId, "uniqueId");
@@ -187,6 +187,27 @@ public class InMemoryPositionMaster implements PositionMaster {
     return document;
   }
 
+  //-------------------------------------------------------------------------
+  @Override
+  public List<PositionDocument> addAll(final List<PositionDocument> documents) {
+    ArgumentChecker.noNulls(documents, "documents");
+    final List<PositionDocument> result = new ArrayList<PositionDocument>(documents.size());
+    for (PositionDocument document : documents) {
+      result.add(add(document));
+    }
+    return result;
+  }
+
+  @Override
+  public List<PositionDocument> updateAll(final List<PositionDocument> documents) {
+    ArgumentChecker.noNulls(documents, "documents");
+    final List<PositionDocument> result = new ArrayList<PositionDocument>(documents.size());
+    for (PositionDocument document : documents) {
+      result.add(update(document));
+    }
+    return result;
+  }
+
   private void setVersionTimes(PositionDocument document, final PositionDocument clonedDoc, 
       final Instant versionFromInstant, final Instant versionToInstant, final Instant correctionFromInstant, final Instant correctionToInstant) {
     
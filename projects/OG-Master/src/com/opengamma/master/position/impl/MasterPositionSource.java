@@ -5,8 +5,16 @@
  */
 package com.opengamma.master.position.impl;
 
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -15,6 +23,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Objects;
 import com.google.common.collect.Maps;
 import com.opengamma.DataNotFoundException;
+import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.core.change.ChangeManager;
 import com.opengamma.core.position.Portfolio;
 import com.opengamma.core.position.PortfolioNode;
@@ -53,6 +62,14 @@ public class MasterPositionSource implements PositionSource, VersionedSource {
   // TODO: This still needs work re versioning, as it crosses the boundary between two masters
 
   private static final Logger s_logger = LoggerFactory.getLogger(MasterPositionSource.class);
+  /**
+   * The default maximum number of positions to request from the position master in one search.
+   */
+  public static final int DEFAULT_POSITION_CHUNK_SIZE = 1000;
+  /**
+   * The number of position searches that may be outstanding at once when loading in parallel.
+   */
+  private static final int MAX_PENDING_CHUNKS = 4;
 
   /**
    * The portfolio master.
@@ -66,6 +83,14 @@ public class MasterPositionSource implements PositionSource, VersionedSource {
    * The version-correction locator to search at, null to not override versions.
    */
   private volatile VersionCorrection _versionCorrection;
+  /**
+   * The executor service used to load chunks of positions in parallel, null to load them in the calling thread.
+   */
+  private volatile ExecutorService _executorService;
+  /**
+   * The maximum number of positions to request from the position master in one search.
+   */
+  private volatile int _positionChunkSize = DEFAULT_POSITION_CHUNK_SIZE;
 
   /**
    * Creates an instance with underlying masters which does not override versions.
@@ -130,6 +155,43 @@ public class MasterPositionSource implements PositionSource, VersionedSource {
     _versionCorrection = versionCorrection;
   }
 
+  /**
+   * Gets the executor service used to load chunks of positions in parallel.
+   * 
+   * @return the executor service, null if positions are loaded in the calling thread
+   */
+  public ExecutorService getExecutorService() {
+    return _executorService;
+  }
+
+  /**
+   * Sets the executor service used to load chunks of positions in parallel.
+   * 
+   * @param executorService  the executor service, null to load positions in the calling thread
+   */
+  public void setExecutorService(final ExecutorService executorService) {
+    _executorService = executorService;
+  }
+
+  /**
+   * Gets the maximum number of positions to request from the position master in one search.
+   * 
+   * @return the chunk size, greater than zero
+   */
+  public int getPositionChunkSize() {
+    return _positionChunkSize;
+  }
+
+  /**
+   * Sets the maximum number of positions to request from the position master in one search.
+   * 
+   * @param positionChunkSize  the chunk size, greater than zero
+   */
+  public void setPositionChunkSize(final int positionChunkSize) {
+    ArgumentChecker.notNegativeOrZero(positionChunkSize, "positionChunkSize");
+    _positionChunkSize = positionChunkSize;
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public Portfolio getPortfolio(final UniqueId uniqueId) {
@@ -253,69 +315,169 @@ public class MasterPositionSource implements PositionSource, VersionedSource {
     return manTrade;
   }
 
-  private static int populatePositionSearchRequest(final PositionSearchRequest positionSearch, final ManageablePortfolioNode node) {
-    int count = 0;
-    for (ObjectId positionId : node.getPositionIds()) {
-      positionSearch.addPositionObjectId(positionId);
-      count++;
-    }
-    for (ManageablePortfolioNode child : node.getChildNodes()) {
-      count += populatePositionSearchRequest(positionSearch, child);
-    }
-    return count;
-  }
-
   /**
    * Converts a manageable node to a source node.
+   * <p>
+   * The node structure is created first and the positions are then requested from the position master in
+   * chunks of the {@link #getPositionChunkSize() chunk size}. Each chunk is added to the source nodes as soon
+   * as it has been received and then released, so only a bounded number of positions is held in memory at once.
+   * If an {@link #getExecutorService() executor service} has been set, several chunks are requested in parallel.
    * 
-   * @param versionCorrection the version correction, not null
    * @param manNode the manageable node, not null
    * @param sourceNode the source node, not null
+   * @param versionCorrection the version correction, null to not override versions
    */
-  protected void convertNode(final ManageablePortfolioNode manNode, final SimplePortfolioNode sourceNode, VersionCorrection versionCorrection) {
-    PositionSearchRequest positionSearch = new PositionSearchRequest();
-    final Map<ObjectId, ManageablePosition> positionCache;
-    final int positionCount = populatePositionSearchRequest(positionSearch, manNode);
-    if (positionCount > 0) {
-      positionCache = Maps.newHashMapWithExpectedSize(positionCount);
-      positionSearch.setVersionCorrection(versionCorrection);
-      final PositionSearchResult positions = getPositionMaster().search(positionSearch);
-      for (PositionDocument position : positions.getDocuments()) {
-        positionCache.put(position.getObjectId(), position.getPosition());
+  protected void convertNode(final ManageablePortfolioNode manNode, final SimplePortfolioNode sourceNode, final VersionCorrection versionCorrection) {
+    final PositionLoader loader = new PositionLoader(versionCorrection, getExecutorService(), getPositionChunkSize());
+    boolean completed = false;
+    try {
+      convertNode(manNode, sourceNode, loader);
+      loader.finish();
+      completed = true;
+    } finally {
+      if (!completed) {
+        loader.cancel();
       }
-    } else {
-      positionCache = null;
     }
-    convertNode(manNode, sourceNode, positionCache);
   }
 
-  /**
-   * Converts a manageable node to a source node.
-   * 
-   * @param manNode the manageable node, not null
-   * @param sourceNode the source node, not null
-   * @param positionCache the positions, not null
-   */
-  protected void convertNode(final ManageablePortfolioNode manNode, final SimplePortfolioNode sourceNode, final Map<ObjectId, ManageablePosition> positionCache) {
+  private void convertNode(final ManageablePortfolioNode manNode, final SimplePortfolioNode sourceNode, final PositionLoader loader) {
     final UniqueId nodeId = manNode.getUniqueId();
     sourceNode.setUniqueId(nodeId);
     sourceNode.setName(manNode.getName());
     sourceNode.setParentNodeId(manNode.getParentNodeId());
-    if (manNode.getPositionIds().size() > 0) {
-      for (ObjectId positionId : manNode.getPositionIds()) {
-        final ManageablePosition foundPosition = positionCache.get(positionId);
+    for (ObjectId positionId : manNode.getPositionIds()) {
+      loader.add(positionId, nodeId, sourceNode);
+    }
+    for (ManageablePortfolioNode child : manNode.getChildNodes()) {
+      SimplePortfolioNode childNode = new SimplePortfolioNode();
+      convertNode(child, childNode, loader);
+      sourceNode.addChildNode(childNode);
+    }
+  }
+
+  /**
+   * A chunk of positions to be loaded and the nodes they belong to.
+   */
+  private final class PositionChunk implements Callable<PositionSearchResult> {
+
+    private final PositionSearchRequest _search = new PositionSearchRequest();
+    private final List<ObjectId> _positionIds;
+    private final List<UniqueId> _nodeIds;
+    private final List<SimplePortfolioNode> _nodes;
+    private Future<PositionSearchResult> _future;
+
+    private PositionChunk(final int chunkSize, final VersionCorrection versionCorrection) {
+      _positionIds = new ArrayList<ObjectId>(chunkSize);
+      _nodeIds = new ArrayList<UniqueId>(chunkSize);
+      _nodes = new ArrayList<SimplePortfolioNode>(chunkSize);
+      _search.setVersionCorrection(versionCorrection);
+    }
+
+    private int add(final ObjectId positionId, final UniqueId nodeId, final SimplePortfolioNode node) {
+      _search.addPositionObjectId(positionId);
+      _positionIds.add(positionId);
+      _nodeIds.add(nodeId);
+      _nodes.add(node);
+      return _positionIds.size();
+    }
+
+    @Override
+    public PositionSearchResult call() {
+      return getPositionMaster().search(_search);
+    }
+
+    private void apply(final PositionSearchResult positions) {
+      final Map<ObjectId, ManageablePosition> positionCache = Maps.newHashMapWithExpectedSize(positions.getDocuments().size());
+      for (PositionDocument position : positions.getDocuments()) {
+        positionCache.put(position.getObjectId(), position.getPosition());
+      }
+      for (int i = 0; i < _positionIds.size(); i++) {
+        final ManageablePosition foundPosition = positionCache.get(_positionIds.get(i));
         if (foundPosition != null) {
-          sourceNode.addPosition(convertPosition(nodeId, foundPosition));
+          _nodes.get(i).addPosition(convertPosition(_nodeIds.get(i), foundPosition));
         } else {
-          s_logger.warn("Position {} not found for portfolio node {}", positionId, nodeId);
+          s_logger.warn("Position {} not found for portfolio node {}", _positionIds.get(i), _nodeIds.get(i));
         }
       }
     }
-    for (ManageablePortfolioNode child : manNode.getChildNodes()) {
-      SimplePortfolioNode childNode = new SimplePortfolioNode();
-      convertNode(child, childNode, positionCache);
-      sourceNode.addChildNode(childNode);
+
+  }
+
+  /**
+   * Loads the positions of a portfolio in chunks.
+   * <p>
+   * Chunks are applied to the nodes in the order they were created so that each node receives its positions
+   * in the same order as the manageable node lists them.
+   */
+  private final class PositionLoader {
+
+    private final VersionCorrection _versionCorrection;
+    private final ExecutorService _executor;
+    private final int _chunkSize;
+    private final Queue<PositionChunk> _pending = new LinkedList<PositionChunk>();
+    private PositionChunk _current;
+
+    private PositionLoader(final VersionCorrection versionCorrection, final ExecutorService executor, final int chunkSize) {
+      _versionCorrection = versionCorrection;
+      _executor = executor;
+      _chunkSize = chunkSize;
+    }
+
+    private void add(final ObjectId positionId, final UniqueId nodeId, final SimplePortfolioNode node) {
+      if (_current == null) {
+        _current = new PositionChunk(_chunkSize, _versionCorrection);
+      }
+      if (_current.add(positionId, nodeId, node) >= _chunkSize) {
+        submit();
+      }
+    }
+
+    private void submit() {
+      final PositionChunk chunk = _current;
+      _current = null;
+      if (_executor == null) {
+        chunk.apply(chunk.call());
+        return;
+      }
+      chunk._future = _executor.submit(chunk);
+      _pending.add(chunk);
+      if (_pending.size() > MAX_PENDING_CHUNKS) {
+        applyNext();
+      }
+    }
+
+    private void applyNext() {
+      final PositionChunk chunk = _pending.remove();
+      try {
+        chunk.apply(chunk._future.get());
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new OpenGammaRuntimeException("Interrupted while loading positions", ex);
+      } catch (ExecutionException ex) {
+        if (ex.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) ex.getCause();
+        }
+        throw new OpenGammaRuntimeException("Unable to load positions", ex.getCause());
+      }
     }
+
+    private void finish() {
+      if (_current != null) {
+        submit();
+      }
+      while (!_pending.isEmpty()) {
+        applyNext();
+      }
+    }
+
+    private void cancel() {
+      for (PositionChunk chunk : _pending) {
+        chunk._future.cancel(true);
+      }
+      _pending.clear();
+    }
+
   }
 
   /**
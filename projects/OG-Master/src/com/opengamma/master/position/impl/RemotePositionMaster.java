@@ -6,6 +6,7 @@
 package com.opengamma.master.position.impl;
 
 import java.net.URI;
+import java.util.List;
 
 import com.opengamma.core.change.ChangeManager;
 import com.opengamma.id.ObjectIdentifiable;
@@ -21,6 +22,7 @@ import com.opengamma.master.position.PositionMaster;
 import com.opengamma.master.position.PositionSearchRequest;
 import com.opengamma.master.position.PositionSearchResult;
 import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.fudgemsg.FudgeListWrapper;
 
 /**
  * Provides access to a remote {@link PortfolioMaster}.
@@ -98,6 +100,25 @@ public class RemotePositionMaster extends AbstractRemoteMaster implements Positi
     return accessRemote(uri).post(PositionDocument.class, document);
   }
 
+  //-------------------------------------------------------------------------
+  @SuppressWarnings("unchecked")
+  @Override
+  public List<PositionDocument> addAll(final List<PositionDocument> documents) {
+    ArgumentChecker.noNulls(documents, "documents");
+    
+    URI uri = DataPositionMasterResource.uriAddAll(getBaseUri());
+    return accessRemote(uri).post(FudgeListWrapper.class, FudgeListWrapper.of(documents)).getList();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public List<PositionDocument> updateAll(final List<PositionDocument> documents) {
+    ArgumentChecker.noNulls(documents, "documents");
+    
+    URI uri = DataPositionMasterResource.uriUpdateAll(getBaseUri());
+    return accessRemote(uri).post(FudgeListWrapper.class, FudgeListWrapper.of(documents)).getList();
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public void remove(final UniqueId uniqueId) {
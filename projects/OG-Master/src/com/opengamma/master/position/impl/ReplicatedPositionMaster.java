@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.master.position.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.opengamma.core.change.ChangeManager;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.impl.AbstractReplicatedMaster;
+import com.opengamma.master.position.ManageablePosition;
+import com.opengamma.master.position.ManageableTrade;
+import com.opengamma.master.position.PositionDocument;
+import com.opengamma.master.position.PositionHistoryRequest;
+import com.opengamma.master.position.PositionHistoryResult;
+import com.opengamma.master.position.PositionMaster;
+import com.opengamma.master.position.PositionSearchRequest;
+import com.opengamma.master.position.PositionSearchResult;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.paging.Paging;
+import com.opengamma.util.paging.PagingRequest;
+
+/**
+ * An in-memory replica of a {@code PositionMaster}, such as a database master.
+ * <p>
+ * The latest version of each position is held locally and indexed by the external identifiers of its security.
+ * Searches by position object identifier or security identifier at the latest version-correction are
+ * answered locally, other searches go to the underlying master.
+ */
+public class ReplicatedPositionMaster extends AbstractReplicatedMaster<PositionDocument, PositionMaster> implements PositionMaster {
+
+  /**
+   * Creates an instance.
+   *
+   * @param underlying  the underlying master, not null
+   */
+  public ReplicatedPositionMaster(final PositionMaster underlying) {
+    super(underlying);
+  }
+
+  /**
+   * Creates an instance specifying the change manager.
+   *
+   * @param underlying  the underlying master, not null
+   * @param changeManager  the change manager, not null
+   */
+  public ReplicatedPositionMaster(final PositionMaster underlying, final ChangeManager changeManager) {
+    super(underlying, changeManager);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  protected List<PositionDocument> loadPage(final PagingRequest pagingRequest, final VersionCorrection versionCorrection) {
+    final PositionSearchRequest request = new PositionSearchRequest();
+    request.setPagingRequest(pagingRequest);
+    request.setVersionCorrection(versionCorrection);
+    return getUnderlying().search(request).getDocuments();
+  }
+
+  @Override
+  protected List<PositionDocument> loadAll(final Collection<ObjectId> objectIds) {
+    final PositionSearchRequest request = new PositionSearchRequest();
+    request.setPositionObjectIds(objectIds);
+    return getUnderlying().search(request).getDocuments();
+  }
+
+  @Override
+  protected Iterable<ExternalId> getExternalIds(final PositionDocument document) {
+    final ManageablePosition position = document.getPosition();
+    if (position == null || position.getSecurityLink() == null) {
+      return Collections.emptySet();
+    }
+    return position.getSecurityLink().getAllExternalIds();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public PositionSearchResult search(final PositionSearchRequest request) {
+    ArgumentChecker.notNull(request, "request");
+    if (request.getSecurityIdValue() == null) {
+      final List<PositionDocument> documents = searchReplicated(request, request.getPositionObjectIds(), request.getSecurityIdSearch(), null);
+      if (documents != null) {
+        final PositionSearchResult result = new PositionSearchResult();
+        result.setPaging(Paging.of(request.getPagingRequest(), documents));
+        result.getDocuments().addAll(request.getPagingRequest().select(documents));
+        return result;
+      }
+    }
+    return getUnderlying().search(request);
+  }
+
+  @Override
+  public List<PositionDocument> addAll(final List<PositionDocument> documents) {
+    return storeAll(getUnderlying().addAll(documents));
+  }
+
+  @Override
+  public List<PositionDocument> updateAll(final List<PositionDocument> documents) {
+    return storeAll(getUnderlying().updateAll(documents));
+  }
+
+  @Override
+  public PositionHistoryResult history(final PositionHistoryRequest request) {
+    return getUnderlying().history(request);
+  }
+
+  @Override
+  public ManageableTrade getTrade(final UniqueId tradeId) {
+    return getUnderlying().getTrade(tradeId);
+  }
+
+}
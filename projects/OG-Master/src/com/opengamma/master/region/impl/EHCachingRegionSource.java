@@ -14,6 +14,7 @@ import net.sf.ehcache.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.opengamma.core.cache.SourceCache;
 import com.opengamma.core.region.Region;
 import com.opengamma.core.region.RegionSource;
 import com.opengamma.id.ExternalId;
@@ -38,6 +39,10 @@ public class EHCachingRegionSource implements RegionSource {
    * The cache name.
    */
   private static final String CACHE_NAME = "RegionCache";
+  /**
+   * The name of the cache of regions by identifier.
+   */
+  private static final String REGION_CACHE_NAME = "RegionByIdCache";
   /**
    * The cache manager.
    */
@@ -51,6 +56,10 @@ public class EHCachingRegionSource implements RegionSource {
    * The cache.
    */
   private final Cache _cache;
+  /**
+   * The cache of regions by identifier.
+   */
+  private final SourceCache<Region> _regionCache;
   
   /**
    * The time to live.
@@ -70,6 +79,19 @@ public class EHCachingRegionSource implements RegionSource {
     EHCacheUtils.addCache(cacheManager, CACHE_NAME);
     _cache = EHCacheUtils.getCacheFromManager(cacheManager, CACHE_NAME);
     _cacheManager = cacheManager;
+    _regionCache = new SourceCache<Region>(REGION_CACHE_NAME, cacheManager, new SourceCache.Loader<Region>() {
+
+      @Override
+      public Region load(final UniqueId uniqueId) {
+        return getUnderlying().getRegion(uniqueId);
+      }
+
+      @Override
+      public Region load(final ObjectId objectId, final VersionCorrection versionCorrection) {
+        return getUnderlying().getRegion(objectId, versionCorrection);
+      }
+
+    });
   }
 
   //-------------------------------------------------------------------------
@@ -107,54 +129,40 @@ public class EHCachingRegionSource implements RegionSource {
     _ttl = ttl;
   }
 
+  /**
+   * Gets the cache of regions by identifier.
+   * 
+   * @return the cache, not null
+   */
+  public SourceCache<Region> getRegionCache() {
+    return _regionCache;
+  }
+
   @Override
   public Region getRegion(UniqueId uniqueId) {
     ArgumentChecker.notNull(uniqueId, "uniqueId");
-    Region result = null;
     if (uniqueId.isLatest()) {
-      result = _underlying.getRegion(uniqueId);
+      final Region result = _underlying.getRegion(uniqueId);
       s_logger.debug("Caching region {}", result);
-      _cache.put(new Element(uniqueId, result));
-    } else {
-      Element element = _cache.get(uniqueId); 
-      if (element != null) {
-        s_logger.debug("Cache hit on {}", uniqueId);
-        if (element.getObjectValue() instanceof Region) {
-          result = (Region) element.getObjectValue();
-        }
-      } else {
-        s_logger.debug("Cache miss on {}", uniqueId);
-        result = _underlying.getRegion(uniqueId);
-        s_logger.debug("Caching region {}", result);
-        _cache.put(new Element(uniqueId, result));
-      }
+      cacheRegion(result);
+      return result;
     }
-    return result;
+    return _regionCache.get(uniqueId);
   }
 
   @Override
   public Region getRegion(ObjectId objectId, VersionCorrection versionCorrection) {
-    RegionSearchRequest request = new RegionSearchRequest();
-    request.setVersionCorrection(versionCorrection);
-    request.addObjectId(objectId);
-    
-    Region result = null;
-    Element element = _cache.get(request);
-    if (element != null) {
-      s_logger.debug("Cache hit on {}", request);
-      result = (Region) element.getObjectValue();
-    } else {
-      s_logger.debug("Cache miss on {}", request);
-      result = _underlying.getRegion(objectId, versionCorrection);
-      s_logger.debug("Caching regions {}", result);
-      _cache.put(new Element(request, result));
-      if (result != null) {
-        _cache.put(new Element(result.getUniqueId(), result));
-      }
-    }
+    final Region result = _regionCache.get(objectId, versionCorrection);
+    cacheRegion(result);
     return result;
   }
 
+  private void cacheRegion(final Region region) {
+    if (region != null && region.getUniqueId() != null) {
+      _regionCache.put(region.getUniqueId(), region);
+    }
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public Collection<? extends Region> getRegions(ExternalIdBundle bundle, VersionCorrection versionCorrection) {
@@ -177,7 +185,7 @@ public class EHCachingRegionSource implements RegionSource {
       _cache.put(element);
       if (result != null) {
         for (Region region : result) {
-          _cache.put(new Element(region.getUniqueId(), region));
+          cacheRegion(region);
         }
       }
     }
@@ -205,9 +213,7 @@ public class EHCachingRegionSource implements RegionSource {
         element.setTimeToLive(_ttl);
       }
       _cache.put(element);
-      if (result != null) {
-        _cache.put(new Element(result.getUniqueId(), result));
-      }
+      cacheRegion(result);
     }
     return result;
   }
@@ -218,6 +224,7 @@ public class EHCachingRegionSource implements RegionSource {
    */
   protected void shutdown() {
     _cacheManager.removeCache(CACHE_NAME);
+    _regionCache.shutdown();
   }
 
   //-------------------------------------------------------------------------
@@ -5,6 +5,9 @@
  */
 package com.opengamma.master.security;
 
+import java.util.List;
+
+import com.opengamma.DataNotFoundException;
 import com.opengamma.core.change.ChangeProvider;
 import com.opengamma.master.AbstractMaster;
 import com.opengamma.util.PublicSPI;
@@ -48,4 +51,30 @@ public interface SecurityMaster extends AbstractMaster<SecurityDocument>, Change
    */
   SecurityHistoryResult history(SecurityHistoryRequest request);
 
+  /**
+   * Adds a list of securities to the data store.
+   * <p>
+   * This is equivalent to calling {@link #add} for each document in turn,
+   * but allows the implementation to store them together.
+   * 
+   * @param documents  the documents to add, not null
+   * @return the added documents, in the order of the input, not null
+   * @throws IllegalArgumentException if a document is invalid
+   */
+  List<SecurityDocument> addAll(List<SecurityDocument> documents);
+
+  /**
+   * Updates a list of securities in the data store.
+   * <p>
+   * This is equivalent to calling {@link #update} for each document in turn,
+   * but allows the implementation to store them together.
+   * Each document must refer to a different security.
+   * 
+   * @param documents  the documents to update, not null
+   * @return the updated documents, in the order of the input, not null
+   * @throws IllegalArgumentException if a document is invalid
+   * @throws DataNotFoundException if a security is not found
+   */
+  List<SecurityDocument> updateAll(List<SecurityDocument> documents);
+
 }
@@ -193,6 +193,27 @@ public class InMemorySecurityMaster implements SecurityMaster {
     return document;
   }
 
+  //-------------------------------------------------------------------------
+  @Override
+  public List<SecurityDocument> addAll(final List<SecurityDocument> documents) {
+    ArgumentChecker.noNulls(documents, "documents");
+    final List<SecurityDocument> result = new ArrayList<SecurityDocument>(documents.size());
+    for (SecurityDocument document : documents) {
+      result.add(add(document));
+    }
+    return result;
+  }
+
+  @Override
+  public List<SecurityDocument> updateAll(final List<SecurityDocument> documents) {
+    ArgumentChecker.noNulls(documents, "documents");
+    final List<SecurityDocument> result = new ArrayList<SecurityDocument>(documents.size());
+    for (SecurityDocument document : documents) {
+      result.add(update(document));
+    }
+    return result;
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public void remove(final UniqueId uniqueId) {
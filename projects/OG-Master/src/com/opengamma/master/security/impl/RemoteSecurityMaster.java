@@ -6,6 +6,7 @@
 package com.opengamma.master.security.impl;
 
 import java.net.URI;
+import java.util.List;
 
 import com.opengamma.core.change.ChangeManager;
 import com.opengamma.id.ObjectIdentifiable;
@@ -21,6 +22,7 @@ import com.opengamma.master.security.SecurityMetaDataResult;
 import com.opengamma.master.security.SecuritySearchRequest;
 import com.opengamma.master.security.SecuritySearchResult;
 import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.fudgemsg.FudgeListWrapper;
 
 /**
  * Provides access to a remote {@link SecurityMaster}.
@@ -107,6 +109,25 @@ public class RemoteSecurityMaster extends AbstractRemoteMaster implements Securi
     return accessRemote(uri).post(SecurityDocument.class, document);
   }
 
+  //-------------------------------------------------------------------------
+  @SuppressWarnings("unchecked")
+  @Override
+  public List<SecurityDocument> addAll(final List<SecurityDocument> documents) {
+    ArgumentChecker.noNulls(documents, "documents");
+    
+    URI uri = DataSecurityMasterResource.uriAddAll(getBaseUri());
+    return accessRemote(uri).post(FudgeListWrapper.class, FudgeListWrapper.of(documents)).getList();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public List<SecurityDocument> updateAll(final List<SecurityDocument> documents) {
+    ArgumentChecker.noNulls(documents, "documents");
+    
+    URI uri = DataSecurityMasterResource.uriUpdateAll(getBaseUri());
+    return accessRemote(uri).post(FudgeListWrapper.class, FudgeListWrapper.of(documents)).getList();
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public void remove(final UniqueId uniqueId) {
@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.master.security.impl;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.opengamma.core.change.ChangeManager;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.impl.AbstractReplicatedMaster;
+import com.opengamma.master.security.SecurityDocument;
+import com.opengamma.master.security.SecurityHistoryRequest;
+import com.opengamma.master.security.SecurityHistoryResult;
+import com.opengamma.master.security.SecurityMaster;
+import com.opengamma.master.security.SecurityMetaDataRequest;
+import com.opengamma.master.security.SecurityMetaDataResult;
+import com.opengamma.master.security.SecuritySearchRequest;
+import com.opengamma.master.security.SecuritySearchResult;
+import com.opengamma.master.security.SecuritySearchSortOrder;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.paging.Paging;
+import com.opengamma.util.paging.PagingRequest;
+
+/**
+ * An in-memory replica of a {@code SecurityMaster}, such as a database master.
+ * <p>
+ * The latest version of each security is held locally and indexed by external identifier.
+ * Searches by object identifier or external identifier at the latest version-correction are
+ * answered locally, other searches go to the underlying master.
+ */
+public class ReplicatedSecurityMaster extends AbstractReplicatedMaster<SecurityDocument, SecurityMaster> implements SecurityMaster {
+
+  /**
+   * Creates an instance.
+   *
+   * @param underlying  the underlying master, not null
+   */
+  public ReplicatedSecurityMaster(final SecurityMaster underlying) {
+    super(underlying);
+  }
+
+  /**
+   * Creates an instance specifying the change manager.
+   *
+   * @param underlying  the underlying master, not null
+   * @param changeManager  the change manager, not null
+   */
+  public ReplicatedSecurityMaster(final SecurityMaster underlying, final ChangeManager changeManager) {
+    super(underlying, changeManager);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  protected List<SecurityDocument> loadPage(final PagingRequest pagingRequest, final VersionCorrection versionCorrection) {
+    final SecuritySearchRequest request = new SecuritySearchRequest();
+    request.setPagingRequest(pagingRequest);
+    request.setVersionCorrection(versionCorrection);
+    request.setSortOrder(SecuritySearchSortOrder.OBJECT_ID_ASC);
+    request.setFullDetail(true);
+    return getUnderlying().search(request).getDocuments();
+  }
+
+  @Override
+  protected List<SecurityDocument> loadAll(final Collection<ObjectId> objectIds) {
+    final SecuritySearchRequest request = new SecuritySearchRequest();
+    request.setObjectIds(objectIds);
+    request.setFullDetail(true);
+    return getUnderlying().search(request).getDocuments();
+  }
+
+  @Override
+  protected Iterable<ExternalId> getExternalIds(final SecurityDocument document) {
+    return document.getSecurity().getExternalIdBundle();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public SecurityMetaDataResult metaData(final SecurityMetaDataRequest request) {
+    return getUnderlying().metaData(request);
+  }
+
+  @Override
+  public SecuritySearchResult search(final SecuritySearchRequest request) {
+    ArgumentChecker.notNull(request, "request");
+    if (request.getExternalIdScheme() == null) {
+      final List<SecurityDocument> documents = searchReplicated(request, request.getObjectIds(), request.getExternalIdSearch(), request.getSortOrder());
+      if (documents != null) {
+        final SecuritySearchResult result = new SecuritySearchResult();
+        result.setPaging(Paging.of(request.getPagingRequest(), documents));
+        result.getDocuments().addAll(request.getPagingRequest().select(documents));
+        return result;
+      }
+    }
+    return getUnderlying().search(request);
+  }
+
+  @Override
+  public List<SecurityDocument> addAll(final List<SecurityDocument> documents) {
+    return storeAll(getUnderlying().addAll(documents));
+  }
+
+  @Override
+  public List<SecurityDocument> updateAll(final List<SecurityDocument> documents) {
+    return storeAll(getUnderlying().updateAll(documents));
+  }
+
+  @Override
+  public SecurityHistoryResult history(final SecurityHistoryRequest request) {
+    return getUnderlying().history(request);
+  }
+
+}
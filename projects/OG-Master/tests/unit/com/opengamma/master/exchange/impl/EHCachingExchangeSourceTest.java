@@ -1,13 +1,22 @@
 package com.opengamma.master.exchange.impl;
 
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertSame;
 import static org.testng.AssertJUnit.assertTrue;
 
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicLong;
 
+import javax.time.Instant;
+
 import org.testng.annotations.Test;
 
+import com.opengamma.core.change.ChangeEvent;
+import com.opengamma.core.change.ChangeType;
 import com.opengamma.core.exchange.Exchange;
 import com.opengamma.core.exchange.ExchangeSource;
 import com.opengamma.core.exchange.impl.SimpleExchange;
@@ -77,4 +86,25 @@ public class EHCachingExchangeSourceTest {
     assertEquals(2, getCount.get());
     assertTrue(get3 != get2);
   }
+
+  @Test
+  public void getByUniqueId_cachedUntilChanged() {
+    ExchangeSource underlying = mock(ExchangeSource.class);
+    UniqueId latest = UniqueId.of("Test", "1");
+    SimpleExchange exchange = new SimpleExchange();
+    exchange.setUniqueId(latest.withVersion("1"));
+    when(underlying.getExchange(latest)).thenReturn(exchange);
+    EHCachingExchangeSource source = new EHCachingExchangeSource(underlying, EHCacheUtils.createCacheManager());
+    try {
+      assertSame(exchange, source.getExchange(latest));
+      assertSame(exchange, source.getExchange(latest));
+      verify(underlying, times(1)).getExchange(latest);
+      source.getExchangeCache().entityChanged(new ChangeEvent(ChangeType.UPDATED, latest.withVersion("1"), latest.withVersion("2"), Instant.now()));
+      source.getExchange(latest);
+      verify(underlying, times(2)).getExchange(latest);
+    } finally {
+      source.shutdown();
+    }
+  }
+
 }
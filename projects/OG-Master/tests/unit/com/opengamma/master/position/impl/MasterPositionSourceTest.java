@@ -13,6 +13,8 @@ import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertNotNull;
 
 import java.math.BigDecimal;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.time.Instant;
 
@@ -49,6 +51,7 @@ public class MasterPositionSourceTest {
   private static final UniqueId UID3 = UniqueId.of("E", "F");
   private static final UniqueId UID4 = UniqueId.of("G", "H");
   private static final UniqueId UID5 = UniqueId.of("I", "J");
+  private static final UniqueId UID6 = UniqueId.of("K", "L");
   private static final Instant NOW = Instant.now();
   private static final VersionCorrection VC = VersionCorrection.of(NOW.minusSeconds(2), NOW.minusSeconds(1));
 
@@ -158,6 +161,54 @@ public class MasterPositionSourceTest {
     assertEquals(ExternalIdBundle.of("CC", "DD"), trade.getSecurityLink().getExternalId());
   }
 
+  public void test_getPortfolio_UniqueId_chunked() throws Exception {
+    PortfolioMaster mockPortfolio = mock(PortfolioMaster.class);
+    PositionMaster mockPosition = mock(PositionMaster.class);
+    
+    ManageablePortfolioNode manNode = example(true);
+    manNode.addPosition(UID5);
+    manNode.getChildNodes().get(0).addPosition(UID6);
+    ManageablePortfolio manPrt = new ManageablePortfolio("Hello", manNode);
+    manPrt.setUniqueId(UID);
+    PortfolioDocument prtDoc = new PortfolioDocument(manPrt);
+    
+    // root node positions are requested before those of the child
+    PositionSearchRequest posRequest1 = new PositionSearchRequest();
+    posRequest1.addPositionObjectId(UID5);
+    posRequest1.addPositionObjectId(UID4);
+    posRequest1.setVersionCorrection(VC);
+    PositionSearchResult posResult1 = new PositionSearchResult();
+    posResult1.getDocuments().add(new PositionDocument(position(UID5, 1)));
+    posResult1.getDocuments().add(new PositionDocument(position(UID4, 2)));
+    PositionSearchRequest posRequest2 = new PositionSearchRequest();
+    posRequest2.addPositionObjectId(UID6);
+    posRequest2.setVersionCorrection(VC);
+    PositionSearchResult posResult2 = new PositionSearchResult();
+    posResult2.getDocuments().add(new PositionDocument(position(UID6, 3)));
+    
+    when(mockPortfolio.get(UID, VC)).thenReturn(prtDoc);
+    when(mockPosition.search(posRequest1)).thenReturn(posResult1);
+    when(mockPosition.search(posRequest2)).thenReturn(posResult2);
+    MasterPositionSource test = new MasterPositionSource(mockPortfolio, mockPosition, VC);
+    test.setPositionChunkSize(2);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      test.setExecutorService(executor);
+      Portfolio testResult = test.getPortfolio(UID);
+      verify(mockPosition, times(1)).search(posRequest1);
+      verify(mockPosition, times(1)).search(posRequest2);
+      
+      assertEquals(1, testResult.getRootNode().getPositions().size());
+      assertEquals(BigDecimal.valueOf(1), testResult.getRootNode().getPositions().get(0).getQuantity());
+      PortfolioNode child = testResult.getRootNode().getChildNodes().get(0);
+      assertEquals(2, child.getPositions().size());
+      assertEquals(BigDecimal.valueOf(2), child.getPositions().get(0).getQuantity());
+      assertEquals(BigDecimal.valueOf(3), child.getPositions().get(1).getQuantity());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   //-------------------------------------------------------------------------
   public void test_getPortfolioNode_UniqueId() throws Exception {
     PortfolioMaster mockPortfolio = mock(PortfolioMaster.class);
@@ -238,6 +289,14 @@ public class MasterPositionSourceTest {
 //  }
 
   //-------------------------------------------------------------------------
+  protected ManageablePosition position(UniqueId uniqueId, int quantity) {
+    ManageablePosition manPos = new ManageablePosition();
+    manPos.setQuantity(BigDecimal.valueOf(quantity));
+    manPos.setSecurityLink(new ManageableSecurityLink(ExternalId.of("AA", "BB")));
+    manPos.setUniqueId(uniqueId);
+    return manPos;
+  }
+
   protected ManageablePortfolioNode example(boolean withPosition) {
     ManageablePortfolioNode manNode = new ManageablePortfolioNode("Node");
     manNode.setUniqueId(UID2);
@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.master.position.impl;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import javax.time.Instant;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.opengamma.DataNotFoundException;
+import com.opengamma.core.change.BasicChangeManager;
+import com.opengamma.core.change.ChangeEvent;
+import com.opengamma.core.change.ChangeType;
+import com.opengamma.core.change.DummyChangeManager;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ObjectIdSupplier;
+import com.opengamma.id.ObjectIdentifiable;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.position.ManageablePosition;
+import com.opengamma.master.position.PositionDocument;
+import com.opengamma.master.position.PositionSearchRequest;
+import com.opengamma.master.position.PositionSearchResult;
+import com.opengamma.master.security.ManageableSecurityLink;
+
+/**
+ * Test {@link ReplicatedPositionMaster}.
+ */
+@Test
+public class ReplicatedPositionMasterTest {
+
+  private static final ExternalId SEC1 = ExternalId.of("A", "B");
+  private static final ExternalId SEC2 = ExternalId.of("A", "C");
+
+  private BasicChangeManager _changeManager;
+  private InMemoryPositionMaster _underlying;
+  private ReplicatedPositionMaster _replica;
+  private PositionDocument _doc1;
+  private PositionDocument _doc2;
+
+  @BeforeMethod
+  public void setUp() {
+    _changeManager = new BasicChangeManager();
+    _underlying = spy(new InMemoryPositionMaster(new ObjectIdSupplier("Test"), _changeManager));
+    _doc1 = _underlying.add(new PositionDocument(new ManageablePosition(BigDecimal.ONE, SEC1)));
+    _doc2 = _underlying.add(new PositionDocument(new ManageablePosition(BigDecimal.TEN, SEC2)));
+    _replica = new ReplicatedPositionMaster(_underlying);
+    _replica.setPageSize(1);
+    _replica.start();
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    _replica.stop();
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_start_loadsAll() {
+    assertEquals(2, _replica.size());
+    verify(_underlying, times(3)).search(any(PositionSearchRequest.class));
+  }
+
+  public void test_get_local() {
+    assertEquals(_doc1.getPosition().getQuantity(), _replica.get(_doc1.getUniqueId()).getPosition().getQuantity());
+    assertEquals(_doc2.getPosition().getQuantity(), _replica.get(_doc2.getObjectId(), VersionCorrection.LATEST).getPosition().getQuantity());
+    verify(_underlying, never()).get(any(UniqueId.class));
+    verify(_underlying, never()).get(any(ObjectIdentifiable.class), any(VersionCorrection.class));
+  }
+
+  public void test_search_securityId_local() {
+    final PositionSearchRequest request = new PositionSearchRequest();
+    request.addSecurityExternalId(SEC2);
+    final PositionSearchResult result = _replica.search(request);
+    assertEquals(1, result.getDocuments().size());
+    assertEquals(_doc2.getObjectId(), result.getFirstDocument().getObjectId());
+    verify(_underlying, times(3)).search(any(PositionSearchRequest.class));
+  }
+
+  public void test_search_objectId_notReplicated_underlying() {
+    final InMemoryPositionMaster underlying = new InMemoryPositionMaster(new ObjectIdSupplier("Other"), DummyChangeManager.INSTANCE);
+    final ReplicatedPositionMaster replica = new ReplicatedPositionMaster(underlying);
+    replica.start();
+    try {
+      final PositionDocument added = underlying.add(new PositionDocument(new ManageablePosition(BigDecimal.ONE, SEC1)));
+      assertEquals(0, replica.size());
+      final PositionSearchRequest request = new PositionSearchRequest();
+      request.addPositionObjectId(added.getObjectId());
+      final PositionSearchResult result = replica.search(request);
+      assertEquals(1, result.getDocuments().size());
+      assertEquals(added.getObjectId(), result.getFirstDocument().getObjectId());
+    } finally {
+      replica.stop();
+    }
+  }
+
+  public void test_batchChange_reloadedTogether() {
+    _changeManager.entitiesChanged(Arrays.asList(
+        new ChangeEvent(ChangeType.UPDATED, _doc1.getUniqueId(), _doc1.getUniqueId(), Instant.now()),
+        new ChangeEvent(ChangeType.UPDATED, _doc2.getUniqueId(), _doc2.getUniqueId(), Instant.now())));
+    assertEquals(2, _replica.size());
+    verify(_underlying, times(4)).search(any(PositionSearchRequest.class));
+    verify(_underlying, never()).get(any(ObjectIdentifiable.class), any(VersionCorrection.class));
+  }
+
+  public void test_update_replicated() {
+    final ManageablePosition position = new ManageablePosition(_doc1.getPosition());
+    position.setQuantity(BigDecimal.valueOf(5));
+    position.setSecurityLink(new ManageableSecurityLink(SEC2));
+    _underlying.update(new PositionDocument(position));
+    assertEquals(BigDecimal.valueOf(5), _replica.get(_doc1.getObjectId(), VersionCorrection.LATEST).getPosition().getQuantity());
+    final PositionSearchRequest request1 = new PositionSearchRequest();
+    request1.addSecurityExternalId(SEC1);
+    assertEquals(0, _replica.search(request1).getDocuments().size());
+    final PositionSearchRequest request2 = new PositionSearchRequest();
+    request2.addSecurityExternalId(SEC2);
+    assertEquals(2, _replica.search(request2).getDocuments().size());
+  }
+
+  @Test(expectedExceptions = DataNotFoundException.class)
+  public void test_remove_replicated() {
+    _underlying.remove(_doc1.getUniqueId());
+    assertEquals(1, _replica.size());
+    _replica.get(_doc1.getObjectId(), VersionCorrection.LATEST);
+  }
+
+}
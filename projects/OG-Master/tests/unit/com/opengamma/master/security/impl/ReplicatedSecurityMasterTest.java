@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.master.security.impl;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertSame;
+
+import java.util.Arrays;
+
+import javax.time.Instant;
+
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.opengamma.DataNotFoundException;
+import com.opengamma.core.change.BasicChangeManager;
+import com.opengamma.core.change.ChangeEvent;
+import com.opengamma.core.change.ChangeType;
+import com.opengamma.core.change.DummyChangeManager;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.ObjectIdSupplier;
+import com.opengamma.id.ObjectIdentifiable;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.security.ManageableSecurity;
+import com.opengamma.master.security.SecurityDocument;
+import com.opengamma.master.security.SecurityMaster;
+import com.opengamma.master.security.SecuritySearchRequest;
+import com.opengamma.master.security.SecuritySearchResult;
+
+/**
+ * Test {@link ReplicatedSecurityMaster}.
+ */
+@Test
+public class ReplicatedSecurityMasterTest {
+
+  private static final ExternalId ID1 = ExternalId.of("A", "B");
+  private static final ExternalId ID2 = ExternalId.of("A", "C");
+
+  private BasicChangeManager _changeManager;
+  private InMemorySecurityMaster _underlying;
+  private ReplicatedSecurityMaster _replica;
+  private SecurityDocument _doc1;
+  private SecurityDocument _doc2;
+
+  @BeforeMethod
+  public void setUp() {
+    _changeManager = new BasicChangeManager();
+    _underlying = spy(new InMemorySecurityMaster(new ObjectIdSupplier("Test"), _changeManager));
+    _doc1 = _underlying.add(new SecurityDocument(new ManageableSecurity(null, "Test 1", "TYPE1", ExternalIdBundle.of(ID1))));
+    _doc2 = _underlying.add(new SecurityDocument(new ManageableSecurity(null, "Test 2", "TYPE2", ExternalIdBundle.of(ID2))));
+    _replica = new ReplicatedSecurityMaster(_underlying);
+    _replica.setPageSize(1);
+    _replica.start();
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    _replica.stop();
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_start_loadsAll() {
+    assertEquals(2, _replica.size());
+    verify(_underlying, times(3)).search(any(SecuritySearchRequest.class));
+  }
+
+  public void test_get_local() {
+    assertSame(_doc1, _replica.get(_doc1.getUniqueId()));
+    assertSame(_doc2, _replica.get(_doc2.getObjectId(), VersionCorrection.LATEST));
+    assertSame(_doc2, _replica.get(_doc2.getObjectId(), VersionCorrection.of(Instant.now(), Instant.now())));
+    verify(_underlying, never()).get(any(UniqueId.class));
+    verify(_underlying, never()).get(any(ObjectIdentifiable.class), any(VersionCorrection.class));
+  }
+
+  public void test_start_readsSnapshot() {
+    final ArgumentCaptor<SecuritySearchRequest> request = ArgumentCaptor.forClass(SecuritySearchRequest.class);
+    verify(_underlying, times(3)).search(request.capture());
+    final VersionCorrection snapshot = request.getAllValues().get(0).getVersionCorrection();
+    assertNotNull(snapshot.getVersionAsOf());
+    assertNotNull(snapshot.getCorrectedTo());
+    for (SecuritySearchRequest page : request.getAllValues()) {
+      assertEquals(snapshot, page.getVersionCorrection());
+    }
+  }
+
+  public void test_start_skipsDocumentsChangedSinceSnapshot() {
+    final SecurityDocument current = new SecurityDocument(new ManageableSecurity(UniqueId.of("Test", "1", "1"), "Current", "TYPE1", ExternalIdBundle.of(ID1)));
+    final SecurityDocument superseded = new SecurityDocument(new ManageableSecurity(UniqueId.of("Test", "2", "1"), "Superseded", "TYPE1", ExternalIdBundle.of(ID2)));
+    superseded.setVersionToInstant(Instant.now());
+    final SecuritySearchResult result = new SecuritySearchResult();
+    result.getDocuments().addAll(Arrays.asList(current, superseded));
+    final SecurityMaster underlying = mock(SecurityMaster.class);
+    when(underlying.changeManager()).thenReturn(new BasicChangeManager());
+    when(underlying.search(any(SecuritySearchRequest.class))).thenReturn(result);
+    final ReplicatedSecurityMaster replica = new ReplicatedSecurityMaster(underlying);
+    replica.start();
+    assertEquals(1, replica.size());
+    assertSame(current, replica.get(current.getObjectId(), VersionCorrection.LATEST));
+  }
+
+  public void test_get_earlierVersion_underlying() {
+    final Instant before = _doc1.getVersionFromInstant().minusSeconds(1);
+    // the in-memory master has no history so answers with the latest version
+    assertSame(_doc1, _replica.get(_doc1.getObjectId(), VersionCorrection.of(before, before)));
+    verify(_underlying, times(1)).get(_doc1.getObjectId(), VersionCorrection.of(before, before));
+  }
+
+  public void test_search_externalId_local() {
+    final SecuritySearchResult result = _replica.search(new SecuritySearchRequest(ID2));
+    assertEquals(1, result.getDocuments().size());
+    assertSame(_doc2, result.getFirstDocument());
+    verify(_underlying, times(3)).search(any(SecuritySearchRequest.class));
+  }
+
+  public void test_search_objectId_notReplicated_underlying() {
+    final InMemorySecurityMaster underlying = new InMemorySecurityMaster(new ObjectIdSupplier("Other"), DummyChangeManager.INSTANCE);
+    final ReplicatedSecurityMaster replica = new ReplicatedSecurityMaster(underlying);
+    replica.start();
+    try {
+      final SecurityDocument added = underlying.add(new SecurityDocument(new ManageableSecurity(null, "Test 3", "TYPE1", ExternalIdBundle.of(ID1))));
+      assertEquals(0, replica.size());
+      final SecuritySearchRequest request = new SecuritySearchRequest();
+      request.addObjectId(added.getObjectId());
+      final SecuritySearchResult result = replica.search(request);
+      assertEquals(1, result.getDocuments().size());
+      assertSame(added, result.getFirstDocument());
+    } finally {
+      replica.stop();
+    }
+  }
+
+  public void test_batchChange_reloadedTogether() {
+    _changeManager.entitiesChanged(Arrays.asList(
+        new ChangeEvent(ChangeType.UPDATED, _doc1.getUniqueId(), _doc1.getUniqueId(), Instant.now()),
+        new ChangeEvent(ChangeType.UPDATED, _doc2.getUniqueId(), _doc2.getUniqueId(), Instant.now())));
+    assertEquals(2, _replica.size());
+    verify(_underlying, times(4)).search(any(SecuritySearchRequest.class));
+    verify(_underlying, never()).get(any(ObjectIdentifiable.class), any(VersionCorrection.class));
+  }
+
+  public void test_update_replicated() {
+    final SecurityDocument updated = new SecurityDocument(new ManageableSecurity(_doc1.getUniqueId(), "Updated", "TYPE1", ExternalIdBundle.of(ID2)));
+    _underlying.update(updated);
+    assertEquals("Updated", _replica.get(_doc1.getObjectId(), VersionCorrection.LATEST).getSecurity().getName());
+    assertEquals(0, _replica.search(new SecuritySearchRequest(ID1)).getDocuments().size());
+    assertEquals(2, _replica.search(new SecuritySearchRequest(ID2)).getDocuments().size());
+  }
+
+  @Test(expectedExceptions = DataNotFoundException.class)
+  public void test_remove_replicated() {
+    _underlying.remove(_doc1.getUniqueId());
+    assertEquals(1, _replica.size());
+    _replica.get(_doc1.getObjectId(), VersionCorrection.LATEST);
+  }
+
+}
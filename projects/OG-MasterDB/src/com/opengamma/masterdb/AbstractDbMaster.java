@@ -8,6 +8,7 @@ package com.opengamma.masterdb;
 import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 
 import javax.time.Instant;
 import javax.time.TimeSource;
@@ -161,6 +162,35 @@ public abstract class AbstractDbMaster {
     return getJdbcTemplate().queryForLong(getDialect().sqlNextSequenceValueSelect(sequenceName));
   }
 
+  /**
+   * Gets a number of database ids from a sequence.
+   * <p>
+   * The ids are queried in one statement if the database dialect supports it.
+   * 
+   * @param sequenceName  the name of the sequence to query, not null
+   * @param count  the number of ids to get, zero or greater
+   * @return the ids, not null
+   */
+  protected long[] nextIds(String sequenceName, int count) {
+    ArgumentChecker.notNegative(count, "count");
+    final long[] ids = new long[count];
+    final String sql = (count > 1 ? getDialect().sqlNextSequenceValuesSelect(sequenceName, count) : null);
+    if (sql != null) {
+      final List<Long> values = getJdbcTemplate().getJdbcOperations().queryForList(sql, Long.class);
+      if (values.size() != count) {
+        throw new IllegalStateException("Sequence " + sequenceName + " returned " + values.size() + " ids, expected " + count);
+      }
+      for (int i = 0; i < count; i++) {
+        ids[i] = values.get(i);
+      }
+    } else {
+      for (int i = 0; i < count; i++) {
+        ids[i] = nextId(sequenceName);
+      }
+    }
+    return ids;
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Gets the time-source that determines the current time.
@@ -5,10 +5,19 @@
  */
 package com.opengamma.masterdb;
 
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import javax.time.Instant;
 
+import org.joda.beans.JodaBeanUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
@@ -17,10 +26,16 @@ import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionCallback;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
 import com.opengamma.DataNotFoundException;
 import com.opengamma.core.change.BasicChangeManager;
+import com.opengamma.core.change.BatchChangeListener;
+import com.opengamma.core.change.ChangeEvent;
 import com.opengamma.core.change.ChangeManager;
 import com.opengamma.core.change.ChangeType;
+import com.opengamma.id.ObjectId;
 import com.opengamma.id.ObjectIdentifiable;
 import com.opengamma.id.UniqueId;
 import com.opengamma.id.VersionCorrection;
@@ -46,15 +61,73 @@ import com.opengamma.util.paging.PagingRequest;
  * 
  * @param <D>  the type of the document
  */
-public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> extends AbstractDbMaster implements AbstractMaster<D> {
+public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> extends AbstractDbMaster
+    implements AbstractMaster<D>, DocumentDbMasterResultCacheMBean {
 
   /** Logger. */
   private static final Logger s_logger = LoggerFactory.getLogger(AbstractDocumentDbMaster.class);
+  /**
+   * The default number of documents stored in one transaction by the bulk operations.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 500;
+  /**
+   * The number of change stamps shared between the objects in the result cache.
+   */
+  private static final int RESULT_CACHE_STAMPS = 256;
   
   /**
    * The change manager.
    */
   private ChangeManager _changeManager = new BasicChangeManager();
+  /**
+   * The number of documents stored in one transaction by the bulk operations.
+   */
+  private int _batchSize = DEFAULT_BATCH_SIZE;
+  /**
+   * The maximum number of objects held in the result cache, zero if disabled.
+   */
+  private volatile int _resultCacheSize;
+  /**
+   * The result cache, keyed by object identifier then by versioned unique identifier
+   * or version-correction, null if disabled.
+   */
+  private volatile Cache<ObjectId, ConcurrentMap<Object, D>> _resultCache;
+  /**
+   * The number of result cache hits.
+   */
+  private final AtomicLong _resultCacheHits = new AtomicLong();
+  /**
+   * The number of result cache misses.
+   */
+  private final AtomicLong _resultCacheMisses = new AtomicLong();
+  /**
+   * The change stamps of the objects in the result cache, indexed by the hash of the object identifier.
+   * A stamp is incremented whenever an object sharing it changes, so that a document read
+   * before the change is not put into the cache after the change has invalidated it.
+   */
+  private final AtomicLongArray _resultCacheStamps = new AtomicLongArray(RESULT_CACHE_STAMPS);
+  /**
+   * Set while a write reads the current version of a document, which must come from the database.
+   */
+  private final ThreadLocal<Boolean> _resultCacheBypassed = new ThreadLocal<Boolean>();
+  /**
+   * The listener invalidating the result cache on changes made through the change manager,
+   * including those made by other masters sharing the database.
+   */
+  private final BatchChangeListener _resultCacheListener = new BatchChangeListener() {
+    @Override
+    public void entityChanged(final ChangeEvent event) {
+      invalidateCachedResults(event.getBeforeId());
+      invalidateCachedResults(event.getAfterId());
+    }
+
+    @Override
+    public void entitiesChanged(final List<ChangeEvent> events) {
+      for (ChangeEvent event : events) {
+        entityChanged(event);
+      }
+    }
+  };
 
   /**
    * Creates an instance.
@@ -82,11 +155,115 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
    * 
    * @param changeManager  the change manager, not null
    */
-  public void setChangeManager(final ChangeManager changeManager) {
+  public synchronized void setChangeManager(final ChangeManager changeManager) {
     ArgumentChecker.notNull(changeManager, "changeManager");
+    if (_resultCache != null) {
+      _changeManager.removeChangeListener(_resultCacheListener);
+      changeManager.addChangeListener(_resultCacheListener);
+    }
     _changeManager = changeManager;
   }
 
+  /**
+   * Gets the number of documents stored in one transaction by the bulk operations.
+   * 
+   * @return the batch size, greater than zero
+   */
+  public int getBatchSize() {
+    return _batchSize;
+  }
+
+  /**
+   * Sets the number of documents stored in one transaction by the bulk operations.
+   * 
+   * @param batchSize  the batch size, greater than zero
+   */
+  public void setBatchSize(final int batchSize) {
+    ArgumentChecker.notNegativeOrZero(batchSize, "batchSize");
+    _batchSize = batchSize;
+  }
+
+  /**
+   * Gets the maximum number of objects whose documents are held in the result cache.
+   * 
+   * @return the result cache size, zero if the cache is disabled
+   */
+  @Override
+  public int getResultCacheSize() {
+    return _resultCacheSize;
+  }
+
+  /**
+   * Sets the maximum number of objects whose documents are held in the result cache.
+   * <p>
+   * The result cache holds the documents found by versioned unique identifier and
+   * by version-correction where both instants are fixed and in the past.
+   * Those documents can only change when the object is written, so the cached
+   * documents for an object are discarded when it is written by this master or when
+   * the change manager reports a change to it. Writes by other masters sharing the
+   * database must be reported through a shared change manager, such as a JMS one.
+   * Setting the size discards the current contents of the cache.
+   * 
+   * @param resultCacheSize  the result cache size, zero to disable the cache
+   */
+  public synchronized void setResultCacheSize(final int resultCacheSize) {
+    ArgumentChecker.notNegative(resultCacheSize, "resultCacheSize");
+    if (resultCacheSize > 0 && _resultCache == null) {
+      _changeManager.addChangeListener(_resultCacheListener);
+    } else if (resultCacheSize == 0 && _resultCache != null) {
+      _changeManager.removeChangeListener(_resultCacheListener);
+    }
+    _resultCacheSize = resultCacheSize;
+    if (resultCacheSize > 0) {
+      final Cache<ObjectId, ConcurrentMap<Object, D>> cache = CacheBuilder.newBuilder().maximumSize(resultCacheSize).build();
+      _resultCache = cache;
+    } else {
+      _resultCache = null;
+    }
+  }
+
+  /**
+   * Gets the number of gets answered from the result cache.
+   * 
+   * @return the hit count
+   */
+  @Override
+  public long getResultCacheHitCount() {
+    return _resultCacheHits.get();
+  }
+
+  /**
+   * Gets the number of cacheable gets that were not in the result cache.
+   * 
+   * @return the miss count
+   */
+  @Override
+  public long getResultCacheMissCount() {
+    return _resultCacheMisses.get();
+  }
+
+  /**
+   * Gets the number of objects currently in the result cache.
+   * 
+   * @return the number of objects, zero if the cache is disabled
+   */
+  @Override
+  public long getResultCacheObjectCount() {
+    final Cache<ObjectId, ConcurrentMap<Object, D>> cache = _resultCache;
+    return (cache != null ? cache.size() : 0);
+  }
+
+  /**
+   * Discards the contents of the result cache.
+   */
+  @Override
+  public void clearResultCache() {
+    final Cache<ObjectId, ConcurrentMap<Object, D>> cache = _resultCache;
+    if (cache != null) {
+      cache.invalidateAll();
+    }
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Gets the change manager that handles events.
@@ -134,7 +311,16 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
     ArgumentChecker.notNull(extractor, "extractor");
     s_logger.debug("getByOidInstants {}", objectId);
     
-    final VersionCorrection vc = (versionCorrection.containsLatest() ? versionCorrection.withLatestFixed(now()) : versionCorrection);
+    final Instant now = now();
+    final boolean cacheable = isResultCacheable(versionCorrection, now);
+    if (cacheable) {
+      final D cached = getCachedResult(objectId.getObjectId(), versionCorrection);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    final long stamp = getResultCacheStamp(objectId.getObjectId());
+    final VersionCorrection vc = (versionCorrection.containsLatest() ? versionCorrection.withLatestFixed(now) : versionCorrection);
     final DbMapSqlParameterSource args = argsGetByOidInstants(objectId, vc);
     final NamedParameterJdbcOperations namedJdbc = getJdbcTemplate().getNamedParameterJdbcOperations();
     final String sql = getElSqlBundle().getSql("GetByOidInstants", args);
@@ -142,6 +328,10 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
     if (docs.isEmpty()) {
       throw new DataNotFoundException(masterName + " not found: " + objectId);
     }
+    loadGetDetail(docs.get(0));
+    if (cacheable) {
+      putCachedResult(objectId.getObjectId(), versionCorrection, docs.get(0), stamp);
+    }
     return docs.get(0);
   }
 
@@ -174,6 +364,11 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
     ArgumentChecker.notNull(extractor, "extractor");
     s_logger.debug("getById {}", uniqueId);
     
+    final D cached = getCachedResult(uniqueId.getObjectId(), uniqueId);
+    if (cached != null) {
+      return cached;
+    }
+    final long stamp = getResultCacheStamp(uniqueId.getObjectId());
     final DbMapSqlParameterSource args = argsGetById(uniqueId);
     final NamedParameterJdbcOperations namedJdbc = getJdbcTemplate().getNamedParameterJdbcOperations();
     final String sql = getElSqlBundle().getSql("GetById", args);
@@ -181,6 +376,8 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
     if (docs.isEmpty()) {
       throw new DataNotFoundException(masterName + " not found: " + uniqueId);
     }
+    loadGetDetail(docs.get(0));
+    putCachedResult(uniqueId.getObjectId(), uniqueId, docs.get(0), stamp);
     return docs.get(0);
   }
 
@@ -197,6 +394,139 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
     return args;
   }
 
+  /**
+   * Loads any detail of a document found by a standard get that is not held in the main tables.
+   * <p>
+   * This is called before the document is put in the result cache, so that a cached
+   * document is returned complete. The default implementation does nothing.
+   * 
+   * @param document  the document, not null
+   */
+  protected void loadGetDetail(final D document) {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Checks whether the result of a get by version-correction can be cached.
+   * <p>
+   * The result cannot change once both instants are fixed and in the past,
+   * except by a write to the object, which invalidates the cache.
+   * 
+   * @param versionCorrection  the version-correction locator, not null
+   * @param now  the current instant, not null
+   * @return true if the result can be cached
+   */
+  private boolean isResultCacheable(final VersionCorrection versionCorrection, final Instant now) {
+    return getResultCache() != null && versionCorrection.containsLatest() == false &&
+        versionCorrection.getVersionAsOf().isBefore(now) && versionCorrection.getCorrectedTo().isBefore(now);
+  }
+
+  /**
+   * Gets the result cache to use for the current thread.
+   * 
+   * @return the result cache, null if disabled or bypassed by a write in progress
+   */
+  private Cache<ObjectId, ConcurrentMap<Object, D>> getResultCache() {
+    return (_resultCacheBypassed.get() != null ? null : _resultCache);
+  }
+
+  /**
+   * Gets a document from the result cache, recording the hit or miss.
+   * 
+   * @param objectId  the object identifier, not null
+   * @param key  the versioned unique identifier or version-correction, not null
+   * @return a copy of the cached document, null if not cached or the cache is disabled
+   */
+  private D getCachedResult(final ObjectId objectId, final Object key) {
+    final Cache<ObjectId, ConcurrentMap<Object, D>> cache = getResultCache();
+    if (cache == null) {
+      return null;
+    }
+    final ConcurrentMap<Object, D> results = cache.getIfPresent(objectId);
+    final D cached = (results != null ? results.get(key) : null);
+    if (cached == null) {
+      _resultCacheMisses.incrementAndGet();
+      return null;
+    }
+    _resultCacheHits.incrementAndGet();
+    return JodaBeanUtils.clone(cached);
+  }
+
+  /**
+   * Gets the change stamp of an object, to be read before the database is queried.
+   * 
+   * @param objectId  the object identifier, not null
+   * @return the change stamp
+   */
+  private long getResultCacheStamp(final ObjectId objectId) {
+    return _resultCacheStamps.get(getResultCacheStampIndex(objectId));
+  }
+
+  /**
+   * Gets the index of the change stamp shared by an object.
+   * 
+   * @param objectId  the object identifier, not null
+   * @return the index of the change stamp
+   */
+  private static int getResultCacheStampIndex(final ObjectId objectId) {
+    return (objectId.hashCode() & Integer.MAX_VALUE) % RESULT_CACHE_STAMPS;
+  }
+
+  /**
+   * Puts a copy of a document into the result cache, if enabled and the object
+   * has not changed since the document was read.
+   * 
+   * @param objectId  the object identifier, not null
+   * @param key  the versioned unique identifier or version-correction, not null
+   * @param document  the document, not null
+   * @param stamp  the change stamp of the object read before the document was queried
+   */
+  private void putCachedResult(final ObjectId objectId, final Object key, final D document, final long stamp) {
+    final Cache<ObjectId, ConcurrentMap<Object, D>> cache = getResultCache();
+    if (cache == null) {
+      return;
+    }
+    if (stamp != getResultCacheStamp(objectId)) {
+      s_logger.debug("Not caching {} read during a change", key);
+      return;
+    }
+    ConcurrentMap<Object, D> results = cache.getIfPresent(objectId);
+    if (results == null) {
+      results = new ConcurrentHashMap<Object, D>();
+      final ConcurrentMap<Object, D> existing = cache.asMap().putIfAbsent(objectId, results);
+      if (existing != null) {
+        results = existing;
+      }
+    }
+    results.put(key, JodaBeanUtils.clone(document));
+    if (stamp != getResultCacheStamp(objectId)) {
+      // the object changed while the document was being put, the invalidation may have missed it
+      results.remove(key);
+    }
+  }
+
+  /**
+   * Discards the cached results for an object that has been written.
+   * <p>
+   * A write ends the version or correction of the previous row, which changes
+   * the instants held on documents already returned for the object.
+   * The change stamp of the object is incremented first, so that a document read
+   * before the write cannot be put into the cache afterwards.
+   * 
+   * @param uniqueId  the unique identifier of the object, null ignored
+   */
+  protected void invalidateCachedResults(final UniqueId uniqueId) {
+    if (uniqueId == null) {
+      return;
+    }
+    final ObjectId objectId = uniqueId.getObjectId();
+    _resultCacheStamps.incrementAndGet(getResultCacheStampIndex(objectId));
+    final Cache<ObjectId, ConcurrentMap<Object, D>> cache = _resultCache;
+    if (cache != null) {
+      cache.invalidate(objectId);
+    }
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Performs a standard history search.
@@ -251,9 +581,37 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
     return args;
   }
 
+  /**
+   * Adds the paging arguments for a search that supports keyset paging.
+   * <p>
+   * The search SQL must order by object identifier and restrict the rows to those
+   * after {@code paging_after_oid} when it is present.
+   * The key of a keyset request is the object identifier of the last document of the previous page.
+   * 
+   * @param args  the query arguments to add to, not null
+   * @param pagingRequest  the paging request, not null
+   */
+  protected void addKeysetPagingArgs(final DbMapSqlParameterSource args, final PagingRequest pagingRequest) {
+    args.addValue("paging_offset", pagingRequest.getFirstItem());
+    args.addValue("paging_fetch", pagingRequest.getPagingSize());
+    if (pagingRequest.isKeyset()) {
+      args.addValue("paging_keyset", Boolean.TRUE);
+      if (pagingRequest.getAfterKey() != null) {
+        try {
+          args.addValue("paging_after_oid", Long.parseLong(pagingRequest.getAfterKey()));
+        } catch (NumberFormatException ex) {
+          throw new IllegalArgumentException("Paging key is not from this master: " + pagingRequest.getAfterKey(), ex);
+        }
+      }
+    }
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Searches for documents with paging.
+   * <p>
+   * A keyset paging request is only accepted if the arguments were set up using
+   * {@link #addKeysetPagingArgs}. The count is of the complete result set.
    * 
    * @param pagingRequest  the paging request, not null
    * @param sql  the array of SQL, query and count, not null
@@ -267,7 +625,27 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
     
     s_logger.debug("with args {}", args);
     final NamedParameterJdbcOperations namedJdbc = getDbConnector().getJdbcTemplate().getNamedParameterJdbcOperations();
-    if (pagingRequest.equals(PagingRequest.ALL)) {
+    if (pagingRequest.isKeyset()) {
+      if (args.hasValue("paging_keyset") == false) {
+        throw new IllegalArgumentException("Keyset paging is not supported by this search");
+      }
+      s_logger.debug("executing sql {}", sql[1]);
+      final int count = namedJdbc.queryForInt(sql[1], args);
+      String nextKey = null;
+      if (count > 0 && pagingRequest.getPagingSize() > 0) {
+        s_logger.debug("executing sql {}", sql[0]);
+        final List<D> documents = namedJdbc.query(sql[0], args, extractor);
+        result.getDocuments().addAll(documents);
+        if (documents.size() == pagingRequest.getPagingSize()) {
+          long lastOid = Long.MIN_VALUE;
+          for (D document : documents) {
+            lastOid = Math.max(lastOid, extractOid(document.getUniqueId()));
+          }
+          nextKey = Long.toString(lastOid);
+        }
+      }
+      result.setPaging(Paging.ofKeyset(pagingRequest, count, nextKey));
+    } else if (pagingRequest.equals(PagingRequest.ALL)) {
       result.getDocuments().addAll(namedJdbc.query(sql[0], args, extractor));
       result.setPaging(Paging.of(pagingRequest, result.getDocuments()));
     } else {
@@ -314,6 +692,58 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
     return document;
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Adds a list of documents to the data store.
+   * <p>
+   * The documents are stored in batches of {@link #getBatchSize()}, each in its own transaction.
+   * If a batch fails, the batches before it remain stored.
+   * The change events of a batch are published together, as one batch, once it has been stored.
+   * 
+   * @param documents  the documents to add, not null
+   * @return the added documents, in the order of the input, not null
+   */
+  public List<D> addAll(final List<D> documents) {
+    ArgumentChecker.noNulls(documents, "documents");
+    s_logger.debug("addAll {} documents", documents.size());
+    final List<D> result = new ArrayList<D>(documents.size());
+    for (final List<D> batch : Lists.partition(documents, getBatchSize())) {
+      final List<D> added = getTransactionTemplateRetrying(getMaxRetries()).execute(new TransactionCallback<List<D>>() {
+        @Override
+        public List<D> doInTransaction(final TransactionStatus status) {
+          return doAddAllInTransaction(batch);
+        }
+      });
+      final List<ChangeEvent> events = new ArrayList<ChangeEvent>(added.size());
+      for (D document : added) {
+        events.add(new ChangeEvent(ChangeType.ADDED, null, document.getUniqueId(), document.getVersionFromInstant()));
+      }
+      changeManager().entitiesChanged(events);
+      result.addAll(added);
+    }
+    return result;
+  }
+
+  /**
+   * Processes a batch of document adds, within a retrying transaction.
+   * 
+   * @param documents  the documents to add, not null
+   * @return the added documents, not null
+   */
+  protected List<D> doAddAllInTransaction(final List<D> documents) {
+    // insert new rows
+    final Instant now = now();
+    for (D document : documents) {
+      document.setVersionFromInstant(now);
+      document.setVersionToInstant(null);
+      document.setCorrectionFromInstant(now);
+      document.setCorrectionToInstant(null);
+      document.setUniqueId(null);
+    }
+    insertAll(documents);
+    return documents;
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public D update(final D document) {
@@ -330,6 +760,7 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
         return doUpdateInTransaction(document);
       }
     });
+    invalidateCachedResults(beforeId);
     changeManager().entityChanged(ChangeType.UPDATED, beforeId, updated.getUniqueId(), updated.getVersionFromInstant());
     return updated;
   }
@@ -358,6 +789,85 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
     return document;
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Updates a list of documents in the data store.
+   * <p>
+   * Each document must refer to the latest version of a different object.
+   * The documents are stored in batches of {@link #getBatchSize()}, each in its own transaction.
+   * If a batch fails, the batches before it remain stored.
+   * The change events of a batch are published together, as one batch, once it has been stored.
+   * 
+   * @param documents  the documents to update, not null
+   * @return the updated documents, in the order of the input, not null
+   */
+  public List<D> updateAll(final List<D> documents) {
+    ArgumentChecker.noNulls(documents, "documents");
+    final Set<ObjectId> objectIds = new HashSet<ObjectId>();
+    for (D document : documents) {
+      ArgumentChecker.notNull(document.getUniqueId(), "document.uniqueId");
+      checkScheme(document.getUniqueId());
+      ArgumentChecker.isTrue(document.getUniqueId().isVersioned(), "UniqueId must be versioned");
+      ArgumentChecker.isTrue(objectIds.add(document.getObjectId()), "ObjectId must only be updated once: " + document.getObjectId());
+    }
+    s_logger.debug("updateAll {} documents", documents.size());
+    final List<D> result = new ArrayList<D>(documents.size());
+    for (final List<D> batch : Lists.partition(documents, getBatchSize())) {
+      final List<UniqueId> beforeIds = new ArrayList<UniqueId>(batch.size());
+      for (D document : batch) {
+        beforeIds.add(document.getUniqueId());
+      }
+      final List<D> updated = getTransactionTemplateRetrying(getMaxRetries()).execute(new TransactionCallback<List<D>>() {
+        @Override
+        public List<D> doInTransaction(final TransactionStatus status) {
+          return doUpdateAllInTransaction(batch);
+        }
+      });
+      final List<ChangeEvent> events = new ArrayList<ChangeEvent>(updated.size());
+      for (int i = 0; i < updated.size(); i++) {
+        final D document = updated.get(i);
+        invalidateCachedResults(beforeIds.get(i));
+        events.add(new ChangeEvent(ChangeType.UPDATED, beforeIds.get(i), document.getUniqueId(), document.getVersionFromInstant()));
+      }
+      changeManager().entitiesChanged(events);
+      result.addAll(updated);
+    }
+    return result;
+  }
+
+  /**
+   * Processes a batch of document updates, within a retrying transaction.
+   * 
+   * @param documents  the documents to update, not null
+   * @return the updated documents, not null
+   */
+  protected List<D> doUpdateAllInTransaction(final List<D> documents) {
+    // load old rows
+    final List<D> oldDocs = new ArrayList<D>(documents.size());
+    for (D document : documents) {
+      oldDocs.add(getCheckLatestVersion(document.getUniqueId()));
+    }
+    // update old rows
+    final Instant now = now();
+    for (D oldDoc : oldDocs) {
+      oldDoc.setVersionToInstant(now);
+    }
+    updateVersionToInstants(oldDocs);
+    // insert new rows
+    for (int i = 0; i < documents.size(); i++) {
+      final D document = documents.get(i);
+      final D oldDoc = oldDocs.get(i);
+      document.setVersionFromInstant(now);
+      document.setVersionToInstant(null);
+      document.setCorrectionFromInstant(now);
+      document.setCorrectionToInstant(null);
+      document.setUniqueId(oldDoc.getUniqueId().toLatest());
+      mergeNonUpdatedFields(document, oldDoc);
+    }
+    insertAll(documents);
+    return documents;
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public void remove(final UniqueId uniqueId) {
@@ -370,6 +880,7 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
         return doRemoveInTransaction(uniqueId);
       }
     });
+    invalidateCachedResults(removed.getUniqueId());
     changeManager().entityChanged(ChangeType.REMOVED, removed.getUniqueId(), null, removed.getVersionToInstant());
   }
 
@@ -404,6 +915,7 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
         return doCorrectInTransaction(document);
       }
     });
+    invalidateCachedResults(beforeId);
     changeManager().entityChanged(ChangeType.CORRECTED, beforeId, corrected.getUniqueId(), corrected.getVersionFromInstant());
     return corrected;
   }
@@ -459,15 +971,40 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
    */
   protected abstract D insert(D document);
 
+  /**
+   * Inserts a list of new documents.
+   * <p>
+   * This implementation inserts each document in turn.
+   * Subclasses should override this to batch the statements.
+   * 
+   * @param documents  the documents to insert, not null
+   * @return the new documents, not null
+   */
+  protected List<D> insertAll(final List<D> documents) {
+    for (D document : documents) {
+      insert(document);
+    }
+    return documents;
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Gets the document ensuring that it is the latest version.
+   * <p>
+   * The document is always read from the database, bypassing the result cache,
+   * as a cached copy may predate a write by another master whose change event has not arrived.
    * 
    * @param uniqueId  the unique identifier to load, not null
    * @return the loaded document, not null
    */
   protected D getCheckLatestVersion(final UniqueId uniqueId) {
-    final D oldDoc = get(uniqueId);  // checks uniqueId exists
+    final D oldDoc;
+    _resultCacheBypassed.set(Boolean.TRUE);
+    try {
+      oldDoc = get(uniqueId);  // checks uniqueId exists
+    } finally {
+      _resultCacheBypassed.remove();
+    }
     if (oldDoc.getVersionToInstant() != null) {
       throw new IllegalArgumentException("UniqueId is not latest version: " + uniqueId);
     }
@@ -491,6 +1028,33 @@ public abstract class AbstractDocumentDbMaster<D extends AbstractDocument> exten
     }
   }
 
+  /**
+   * Updates the document rows to mark the versions as ended, as a single batch.
+   * 
+   * @param documents  the documents to update, not null
+   */
+  protected void updateVersionToInstants(final List<D> documents) {
+    final DbMapSqlParameterSource[] argsList = new DbMapSqlParameterSource[documents.size()];
+    for (int i = 0; i < argsList.length; i++) {
+      final D document = documents.get(i);
+      argsList[i] = new DbMapSqlParameterSource()
+        .addValue("doc_id", extractRowId(document.getUniqueId()))
+        .addTimestamp("ver_to_instant", document.getVersionToInstant())
+        .addValue("max_instant", DbDateUtils.MAX_SQL_TIMESTAMP);
+    }
+    if (argsList.length == 0) {
+      return;
+    }
+    final String sql = getElSqlBundle().getSql("UpdateVersionToInstant", argsList[0]);
+    final int[] rowsUpdated = getJdbcTemplate().batchUpdate(sql, argsList);
+    for (int i = 0; i < rowsUpdated.length; i++) {
+      // some drivers only report that the statement succeeded
+      if (rowsUpdated[i] != 1 && rowsUpdated[i] != Statement.SUCCESS_NO_INFO) {
+        throw new IncorrectUpdateSemanticsDataAccessException("Update end version instant failed, rows updated: " + rowsUpdated[i]);
+      }
+    }
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Gets the document ensuring that it is the latest version.
@@ -0,0 +1,23 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb;
+
+/**
+ * JMX MBean interface for the statistics of the result cache of an {@link AbstractDocumentDbMaster}.
+ */
+public interface DocumentDbMasterResultCacheMBean {
+
+  int getResultCacheSize();
+
+  long getResultCacheHitCount();
+
+  long getResultCacheMissCount();
+
+  long getResultCacheObjectCount();
+
+  void clearResultCache();
+
+}
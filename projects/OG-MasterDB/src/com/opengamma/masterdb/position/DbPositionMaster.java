@@ -11,6 +11,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -154,8 +155,7 @@ public class DbPositionMaster extends AbstractDocumentDbMaster<PositionDocument>
       buf.setLength(buf.length() - 2);
       args.addValue("sql_search_trade_ids", buf.toString());
     }
-    args.addValue("paging_offset", request.getPagingRequest().getFirstItem());
-    args.addValue("paging_fetch", request.getPagingRequest().getPagingSize());
+    addKeysetPagingArgs(args, request.getPagingRequest());
     
     String[] sql = {getElSqlBundle().getSql("Search", args), getElSqlBundle().getSql("SearchCount", args)};
     searchWithPaging(request.getPagingRequest(), sql, args, new PositionDocumentExtractor(), result);
@@ -205,106 +205,132 @@ public class DbPositionMaster extends AbstractDocumentDbMaster<PositionDocument>
    */
   @Override
   protected PositionDocument insert(final PositionDocument document) {
-    ArgumentChecker.notNull(document.getPosition(), "document.position");
-
-    final long positionId = nextId("pos_master_seq");
-    final long positionOid = (document.getUniqueId() != null ? extractOid(document.getUniqueId()) : positionId);
-    final UniqueId positionUid = createUniqueId(positionOid, positionId);
-    final ManageablePosition position = document.getPosition();
+    return insertAll(Collections.singletonList(document)).get(0);
+  }
 
-    // the arguments for inserting into the position table
-    final DbMapSqlParameterSource docArgs = new DbMapSqlParameterSource()
-        .addValue("position_id", positionId)
-        .addValue("position_oid", positionOid)
-        .addTimestamp("ver_from_instant", document.getVersionFromInstant())
-        .addTimestampNullFuture("ver_to_instant", document.getVersionToInstant())
-        .addTimestamp("corr_from_instant", document.getCorrectionFromInstant())
-        .addTimestampNullFuture("corr_to_instant", document.getCorrectionToInstant())
-        .addValue("quantity", position.getQuantity())
-        .addValue("provider_scheme", (position.getProviderId() != null ? position.getProviderId().getScheme().getName() : null))
-        .addValue("provider_value", (position.getProviderId() != null ? position.getProviderId().getValue() : null));
+  /**
+   * Inserts new documents, batching the statements for each table.
+   * 
+   * @param documents  the documents, not null
+   * @return the new documents, not null
+   */
+  @Override
+  protected List<PositionDocument> insertAll(final List<PositionDocument> documents) {
+    if (documents.isEmpty()) {
+      return documents;
+    }
+    int tradeCount = 0;
+    for (PositionDocument document : documents) {
+      ArgumentChecker.notNull(document.getPosition(), "document.position");
+      tradeCount += document.getPosition().getTrades().size();
+    }
+    final long[] positionIds = nextIds("pos_master_seq", documents.size());
+    final long[] tradeIds = nextIds("pos_master_seq", tradeCount);
+    int tradeIndex = 0;
     
-    // the arguments for inserting into the pos_attribute table
+    final List<DbMapSqlParameterSource> docList = Lists.newArrayList();
     final List<DbMapSqlParameterSource> posAttrList = Lists.newArrayList();
-    for (Entry<String, String> entry : position.getAttributes().entrySet()) {
-      final long posAttrId = nextId("pos_trade_attr_seq");
-      final DbMapSqlParameterSource posAttrArgs = new DbMapSqlParameterSource()
-          .addValue("attr_id", posAttrId)
-          .addValue("pos_id", positionId)
-          .addValue("pos_oid", positionOid)
-          .addValue("key", entry.getKey())
-          .addValue("value", entry.getValue());
-      posAttrList.add(posAttrArgs);
-    }
-
-    // the arguments for inserting into the idkey tables
     final List<DbMapSqlParameterSource> posAssocList = new ArrayList<DbMapSqlParameterSource>();
     final Set<Pair<String, String>> schemeValueSet = Sets.newHashSet();
-    for (ExternalId id : position.getSecurityLink().getAllExternalIds()) {
-      final DbMapSqlParameterSource assocArgs = new DbMapSqlParameterSource()
-          .addValue("position_id", positionId)
-          .addValue("key_scheme", id.getScheme().getName())
-          .addValue("key_value", id.getValue());
-      posAssocList.add(assocArgs);
-      schemeValueSet.add(Pair.of(id.getScheme().getName(), id.getValue()));
-    }
-
-    // the arguments for inserting into the trade table
     final List<DbMapSqlParameterSource> tradeList = Lists.newArrayList();
     final List<DbMapSqlParameterSource> tradeAssocList = Lists.newArrayList();
     final List<DbMapSqlParameterSource> tradeAttributeList = Lists.newArrayList();
-    for (ManageableTrade trade : position.getTrades()) {
-      final long tradeId = nextId("pos_master_seq");
-      final long tradeOid = (trade.getUniqueId() != null ? extractOid(trade.getUniqueId()) : tradeId);
-      final ExternalId counterpartyId = trade.getCounterpartyExternalId();
-
-      final DbMapSqlParameterSource tradeArgs = new DbMapSqlParameterSource()
-          .addValue("trade_id", tradeId)
-          .addValue("trade_oid", tradeOid)
+    for (int i = 0; i < documents.size(); i++) {
+      final PositionDocument document = documents.get(i);
+      final long positionId = positionIds[i];
+      final long positionOid = (document.getUniqueId() != null ? extractOid(document.getUniqueId()) : positionId);
+      final UniqueId positionUid = createUniqueId(positionOid, positionId);
+      final ManageablePosition position = document.getPosition();
+      
+      // the arguments for inserting into the position table
+      final DbMapSqlParameterSource docArgs = new DbMapSqlParameterSource()
           .addValue("position_id", positionId)
           .addValue("position_oid", positionOid)
-          .addValue("quantity", trade.getQuantity())
-          .addDate("trade_date", trade.getTradeDate())
-          .addTimeAllowNull("trade_time", trade.getTradeTime() != null ? trade.getTradeTime().toLocalTime() : null)
-          .addValue("zone_offset", (trade.getTradeTime() != null ? trade.getTradeTime().getOffset().getAmountSeconds() : null))
-          .addValue("cparty_scheme", counterpartyId.getScheme().getName())
-          .addValue("cparty_value", counterpartyId.getValue())
+          .addTimestamp("ver_from_instant", document.getVersionFromInstant())
+          .addTimestampNullFuture("ver_to_instant", document.getVersionToInstant())
+          .addTimestamp("corr_from_instant", document.getCorrectionFromInstant())
+          .addTimestampNullFuture("corr_to_instant", document.getCorrectionToInstant())
+          .addValue("quantity", position.getQuantity())
           .addValue("provider_scheme", (position.getProviderId() != null ? position.getProviderId().getScheme().getName() : null))
-          .addValue("provider_value", (position.getProviderId() != null ? position.getProviderId().getValue() : null))
-          .addValue("premium_value", (trade.getPremium() != null ? trade.getPremium() : null))
-          .addValue("premium_currency", (trade.getPremiumCurrency() != null ? trade.getPremiumCurrency().getCode() : null))
-          .addDateAllowNull("premium_date", trade.getPremiumDate())
-          .addTimeAllowNull("premium_time", (trade.getPremiumTime() != null ? trade.getPremiumTime().toLocalTime() : null))
-          .addValue("premium_zone_offset", (trade.getPremiumTime() != null ? trade.getPremiumTime().getOffset().getAmountSeconds() : null));
-      tradeList.add(tradeArgs);
+          .addValue("provider_value", (position.getProviderId() != null ? position.getProviderId().getValue() : null));
+      docList.add(docArgs);
       
-      // trade attributes
-      Map<String, String> attributes = new HashMap<String, String>(trade.getAttributes());
-      for (Entry<String, String> entry : attributes.entrySet()) {
-        final long tradeAttrId = nextId("pos_trade_attr_seq");
-        final DbMapSqlParameterSource tradeAttributeArgs = new DbMapSqlParameterSource()
-            .addValue("attr_id", tradeAttrId)
-            .addValue("trade_id", tradeId)
-            .addValue("trade_oid", tradeOid)
+      // the arguments for inserting into the pos_attribute table
+      for (Entry<String, String> entry : position.getAttributes().entrySet()) {
+        final DbMapSqlParameterSource posAttrArgs = new DbMapSqlParameterSource()
+            .addValue("pos_id", positionId)
+            .addValue("pos_oid", positionOid)
             .addValue("key", entry.getKey())
             .addValue("value", entry.getValue());
-        tradeAttributeList.add(tradeAttributeArgs);
+        posAttrList.add(posAttrArgs);
       }
       
-      // set the trade uniqueId
-      final UniqueId tradeUid = createUniqueId(tradeOid, tradeId);
-      IdUtils.setInto(trade, tradeUid);
-      trade.setParentPositionId(positionUid);
-      for (ExternalId id : trade.getSecurityLink().getAllExternalIds()) {
+      // the arguments for inserting into the idkey tables
+      for (ExternalId id : position.getSecurityLink().getAllExternalIds()) {
         final DbMapSqlParameterSource assocArgs = new DbMapSqlParameterSource()
-            .addValue("trade_id", tradeId)
+            .addValue("position_id", positionId)
             .addValue("key_scheme", id.getScheme().getName())
             .addValue("key_value", id.getValue());
-        tradeAssocList.add(assocArgs);
+        posAssocList.add(assocArgs);
         schemeValueSet.add(Pair.of(id.getScheme().getName(), id.getValue()));
       }
+      
+      // the arguments for inserting into the trade table
+      for (ManageableTrade trade : position.getTrades()) {
+        final long tradeId = tradeIds[tradeIndex++];
+        final long tradeOid = (trade.getUniqueId() != null ? extractOid(trade.getUniqueId()) : tradeId);
+        final ExternalId counterpartyId = trade.getCounterpartyExternalId();
+        
+        final DbMapSqlParameterSource tradeArgs = new DbMapSqlParameterSource()
+            .addValue("trade_id", tradeId)
+            .addValue("trade_oid", tradeOid)
+            .addValue("position_id", positionId)
+            .addValue("position_oid", positionOid)
+            .addValue("quantity", trade.getQuantity())
+            .addDate("trade_date", trade.getTradeDate())
+            .addTimeAllowNull("trade_time", trade.getTradeTime() != null ? trade.getTradeTime().toLocalTime() : null)
+            .addValue("zone_offset", (trade.getTradeTime() != null ? trade.getTradeTime().getOffset().getAmountSeconds() : null))
+            .addValue("cparty_scheme", counterpartyId.getScheme().getName())
+            .addValue("cparty_value", counterpartyId.getValue())
+            .addValue("provider_scheme", (position.getProviderId() != null ? position.getProviderId().getScheme().getName() : null))
+            .addValue("provider_value", (position.getProviderId() != null ? position.getProviderId().getValue() : null))
+            .addValue("premium_value", (trade.getPremium() != null ? trade.getPremium() : null))
+            .addValue("premium_currency", (trade.getPremiumCurrency() != null ? trade.getPremiumCurrency().getCode() : null))
+            .addDateAllowNull("premium_date", trade.getPremiumDate())
+            .addTimeAllowNull("premium_time", (trade.getPremiumTime() != null ? trade.getPremiumTime().toLocalTime() : null))
+            .addValue("premium_zone_offset", (trade.getPremiumTime() != null ? trade.getPremiumTime().getOffset().getAmountSeconds() : null));
+        tradeList.add(tradeArgs);
+        
+        // trade attributes
+        Map<String, String> attributes = new HashMap<String, String>(trade.getAttributes());
+        for (Entry<String, String> entry : attributes.entrySet()) {
+          final DbMapSqlParameterSource tradeAttributeArgs = new DbMapSqlParameterSource()
+              .addValue("trade_id", tradeId)
+              .addValue("trade_oid", tradeOid)
+              .addValue("key", entry.getKey())
+              .addValue("value", entry.getValue());
+          tradeAttributeList.add(tradeAttributeArgs);
+        }
+        
+        // set the trade uniqueId
+        final UniqueId tradeUid = createUniqueId(tradeOid, tradeId);
+        IdUtils.setInto(trade, tradeUid);
+        trade.setParentPositionId(positionUid);
+        for (ExternalId id : trade.getSecurityLink().getAllExternalIds()) {
+          final DbMapSqlParameterSource assocArgs = new DbMapSqlParameterSource()
+              .addValue("trade_id", tradeId)
+              .addValue("key_scheme", id.getScheme().getName())
+              .addValue("key_value", id.getValue());
+          tradeAssocList.add(assocArgs);
+          schemeValueSet.add(Pair.of(id.getScheme().getName(), id.getValue()));
+        }
+      }
+      
+      // set the uniqueId
+      position.setUniqueId(positionUid);
+      document.setUniqueId(positionUid);
     }
-
+    
     final List<DbMapSqlParameterSource> idKeyList = new ArrayList<DbMapSqlParameterSource>();
     final String sqlSelectIdKey = getElSqlBundle().getSql("SelectIdKey");
     for (Pair<String, String> pair : schemeValueSet) {
@@ -313,31 +339,36 @@ public class DbPositionMaster extends AbstractDocumentDbMaster<PositionDocument>
           .addValue("key_value", pair.getSecond());
       if (getJdbcTemplate().queryForList(sqlSelectIdKey, idkeyArgs).isEmpty()) {
         // select avoids creating unecessary id, but id may still not be used
-        final long idKeyId = nextId("pos_idkey_seq");
-        idkeyArgs.addValue("idkey_id", idKeyId);
         idKeyList.add(idkeyArgs);
       }
     }
+    final long[] idKeyIds = nextIds("pos_idkey_seq", idKeyList.size());
+    for (int i = 0; i < idKeyIds.length; i++) {
+      idKeyList.get(i).addValue("idkey_id", idKeyIds[i]);
+    }
+    final long[] attrIds = nextIds("pos_trade_attr_seq", posAttrList.size() + tradeAttributeList.size());
+    for (int i = 0; i < posAttrList.size(); i++) {
+      posAttrList.get(i).addValue("attr_id", attrIds[i]);
+    }
+    for (int i = 0; i < tradeAttributeList.size(); i++) {
+      tradeAttributeList.get(i).addValue("attr_id", attrIds[posAttrList.size() + i]);
+    }
     
-    final String sqlDoc = getElSqlBundle().getSql("Insert", docArgs);
+    final String sqlDoc = getElSqlBundle().getSql("Insert", docList.get(0));
     final String sqlIdKey = getElSqlBundle().getSql("InsertIdKey");
     final String sqlPosition2IdKey = getElSqlBundle().getSql("InsertPosition2IdKey");
     final String sqlTrade = getElSqlBundle().getSql("InsertTrade");
     final String sqlTrade2IdKey = getElSqlBundle().getSql("InsertTrade2IdKey");
     final String sqlPositionAttributes = getElSqlBundle().getSql("InsertPositionAttributes");
     final String sqlTradeAttributes = getElSqlBundle().getSql("InsertTradeAttributes");
-    getJdbcTemplate().update(sqlDoc, docArgs);
+    getJdbcTemplate().batchUpdate(sqlDoc, docList.toArray(new DbMapSqlParameterSource[docList.size()]));
     getJdbcTemplate().batchUpdate(sqlIdKey, idKeyList.toArray(new DbMapSqlParameterSource[idKeyList.size()]));
     getJdbcTemplate().batchUpdate(sqlPosition2IdKey, posAssocList.toArray(new DbMapSqlParameterSource[posAssocList.size()]));
     getJdbcTemplate().batchUpdate(sqlTrade, tradeList.toArray(new DbMapSqlParameterSource[tradeList.size()]));
     getJdbcTemplate().batchUpdate(sqlTrade2IdKey, tradeAssocList.toArray(new DbMapSqlParameterSource[tradeAssocList.size()]));
     getJdbcTemplate().batchUpdate(sqlPositionAttributes, posAttrList.toArray(new DbMapSqlParameterSource[posAttrList.size()]));
     getJdbcTemplate().batchUpdate(sqlTradeAttributes, tradeAttributeList.toArray(new DbMapSqlParameterSource[tradeAttributeList.size()]));
-    
-    // set the uniqueId
-    position.setUniqueId(positionUid);
-    document.setUniqueId(positionUid);
-    return document;
+    return documents;
   }
 
   //-------------------------------------------------------------------------
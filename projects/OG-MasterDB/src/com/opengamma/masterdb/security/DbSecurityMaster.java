@@ -13,8 +13,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -182,8 +184,10 @@ public class DbSecurityMaster extends AbstractDocumentDbMaster<SecurityDocument>
       args.addValue("sql_search_object_ids", buf.toString());
     }
     args.addValue("sort_order", ORDER_BY_MAP.get(request.getSortOrder()));
-    args.addValue("paging_offset", request.getPagingRequest().getFirstItem());
-    args.addValue("paging_fetch", request.getPagingRequest().getPagingSize());
+    if (request.getPagingRequest().isKeyset() && request.getSortOrder() != SecuritySearchSortOrder.OBJECT_ID_ASC) {
+      throw new IllegalArgumentException("Keyset paging requires sort order OBJECT_ID_ASC: " + request.getSortOrder());
+    }
+    addKeysetPagingArgs(args, request.getPagingRequest());
     
     final SecurityMasterDetailProvider detailProvider = getDetailProvider();  // lock against change
     if (detailProvider != null) {
@@ -217,17 +221,23 @@ public class DbSecurityMaster extends AbstractDocumentDbMaster<SecurityDocument>
   //-------------------------------------------------------------------------
   @Override
   public SecurityDocument get(final UniqueId uniqueId) {
-    final SecurityDocument doc = doGet(uniqueId, new SecurityDocumentExtractor(), "Security");
-    loadDetail(getDetailProvider(), Collections.singletonList(doc));
-    return doc;
+    return doGet(uniqueId, new SecurityDocumentExtractor(), "Security");
   }
 
   //-------------------------------------------------------------------------
   @Override
   public SecurityDocument get(final ObjectIdentifiable objectId, final VersionCorrection versionCorrection) {
-    final SecurityDocument doc = doGetByOidInstants(objectId, versionCorrection, new SecurityDocumentExtractor(), "Security");
-    loadDetail(getDetailProvider(), Collections.singletonList(doc));
-    return doc;
+    return doGetByOidInstants(objectId, versionCorrection, new SecurityDocumentExtractor(), "Security");
+  }
+
+  /**
+   * Loads the detail of a security found by get, so that it is held in the result cache.
+   * 
+   * @param document  the document, not null
+   */
+  @Override
+  protected void loadGetDetail(final SecurityDocument document) {
+    loadDetail(getDetailProvider(), Collections.singletonList(document));
   }
 
   //-------------------------------------------------------------------------
@@ -243,17 +253,29 @@ public class DbSecurityMaster extends AbstractDocumentDbMaster<SecurityDocument>
   //-------------------------------------------------------------------------
   /**
    * Loads the detail of the security for the document.
+   * <p>
+   * The detail for all the documents is requested from the provider in one call so that it can be loaded in bulk.
    * 
    * @param detailProvider  the detail provider, null ignored
    * @param docs  the documents to load detail for, not null
    */
   protected void loadDetail(final SecurityMasterDetailProvider detailProvider, final List<SecurityDocument> docs) {
     if (detailProvider != null) {
+      final List<SecurityDocument> detailDocs = new ArrayList<SecurityDocument>(docs.size());
+      final List<ManageableSecurity> bases = new ArrayList<ManageableSecurity>(docs.size());
       for (SecurityDocument doc : docs) {
         if (!(doc.getSecurity() instanceof RawSecurity)) {
-          doc.setSecurity(detailProvider.loadSecurityDetail(doc.getSecurity()));
+          detailDocs.add(doc);
+          bases.add(doc.getSecurity());
         }
       }
+      if (bases.isEmpty()) {
+        return;
+      }
+      final List<ManageableSecurity> securities = detailProvider.loadSecurityDetails(bases);
+      for (int i = 0; i < detailDocs.size(); i++) {
+        detailDocs.get(i).setSecurity(securities.get(i));
+      }
     }
   }
 
@@ -266,84 +288,111 @@ public class DbSecurityMaster extends AbstractDocumentDbMaster<SecurityDocument>
    */
   @Override
   protected SecurityDocument insert(final SecurityDocument document) {
-    ArgumentChecker.notNull(document.getSecurity(), "document.security");
-    
-    final long docId = nextId("sec_security_seq");
-    final long docOid = (document.getUniqueId() != null ? extractOid(document.getUniqueId()) : docId);
-    // the arguments for inserting into the security table
-    final DbMapSqlParameterSource docArgs = new DbMapSqlParameterSource()
-      .addValue("doc_id", docId)
-      .addValue("doc_oid", docOid)
-      .addTimestamp("ver_from_instant", document.getVersionFromInstant())
-      .addTimestampNullFuture("ver_to_instant", document.getVersionToInstant())
-      .addTimestamp("corr_from_instant", document.getCorrectionFromInstant())
-      .addTimestampNullFuture("corr_to_instant", document.getCorrectionToInstant())
-      .addValue("name", document.getSecurity().getName())
-      .addValue("sec_type", document.getSecurity().getSecurityType());
-    if (document.getSecurity() instanceof RawSecurity) {
-      docArgs.addValue("detail_type", "R");
-    } else if (document.getSecurity().getClass() == ManageableSecurity.class) {
-      docArgs.addValue("detail_type", "M");
-    } else {
-      docArgs.addValue("detail_type", "D");
+    return insertAll(Collections.singletonList(document)).get(0);
+  }
+
+  /**
+   * Inserts new documents, batching the statements for each table.
+   * 
+   * @param documents  the documents, not null
+   * @return the new documents, not null
+   */
+  @Override
+  protected List<SecurityDocument> insertAll(final List<SecurityDocument> documents) {
+    if (documents.isEmpty()) {
+      return documents;
     }
-    // the arguments for inserting into the idkey tables
+    for (SecurityDocument document : documents) {
+      ArgumentChecker.notNull(document.getSecurity(), "document.security");
+    }
+    final long[] docIds = nextIds("sec_security_seq", documents.size());
+    final List<DbMapSqlParameterSource> docList = new ArrayList<DbMapSqlParameterSource>();
     final List<DbMapSqlParameterSource> assocList = new ArrayList<DbMapSqlParameterSource>();
     final List<DbMapSqlParameterSource> idKeyList = new ArrayList<DbMapSqlParameterSource>();
+    final List<DbMapSqlParameterSource> securityAttributeList = Lists.newArrayList();
+    final Set<ExternalId> checkedIds = new HashSet<ExternalId>();
     final String sqlSelectIdKey = getElSqlBundle().getSql("SelectIdKey");
-    for (ExternalId id : document.getSecurity().getExternalIdBundle()) {
-      final DbMapSqlParameterSource assocArgs = new DbMapSqlParameterSource()
+    for (int i = 0; i < documents.size(); i++) {
+      final SecurityDocument document = documents.get(i);
+      final long docId = docIds[i];
+      final long docOid = (document.getUniqueId() != null ? extractOid(document.getUniqueId()) : docId);
+      // the arguments for inserting into the security table
+      final DbMapSqlParameterSource docArgs = new DbMapSqlParameterSource()
         .addValue("doc_id", docId)
-        .addValue("key_scheme", id.getScheme().getName())
-        .addValue("key_value", id.getValue());
-      assocList.add(assocArgs);
-      if (getJdbcTemplate().queryForList(sqlSelectIdKey, assocArgs).isEmpty()) {
-        // select avoids creating unnecessary id, but id may still not be used
-        final long idKeyId = nextId("sec_idkey_seq");
-        final DbMapSqlParameterSource idkeyArgs = new DbMapSqlParameterSource()
-          .addValue("idkey_id", idKeyId)
+        .addValue("doc_oid", docOid)
+        .addTimestamp("ver_from_instant", document.getVersionFromInstant())
+        .addTimestampNullFuture("ver_to_instant", document.getVersionToInstant())
+        .addTimestamp("corr_from_instant", document.getCorrectionFromInstant())
+        .addTimestampNullFuture("corr_to_instant", document.getCorrectionToInstant())
+        .addValue("name", document.getSecurity().getName())
+        .addValue("sec_type", document.getSecurity().getSecurityType());
+      if (document.getSecurity() instanceof RawSecurity) {
+        docArgs.addValue("detail_type", "R");
+      } else if (document.getSecurity().getClass() == ManageableSecurity.class) {
+        docArgs.addValue("detail_type", "M");
+      } else {
+        docArgs.addValue("detail_type", "D");
+      }
+      docList.add(docArgs);
+      // the arguments for inserting into the idkey tables
+      for (ExternalId id : document.getSecurity().getExternalIdBundle()) {
+        final DbMapSqlParameterSource assocArgs = new DbMapSqlParameterSource()
+          .addValue("doc_id", docId)
           .addValue("key_scheme", id.getScheme().getName())
           .addValue("key_value", id.getValue());
-        idKeyList.add(idkeyArgs);
+        assocList.add(assocArgs);
+        if (checkedIds.add(id) && getJdbcTemplate().queryForList(sqlSelectIdKey, assocArgs).isEmpty()) {
+          // select avoids creating unnecessary id, but id may still not be used
+          final DbMapSqlParameterSource idkeyArgs = new DbMapSqlParameterSource()
+            .addValue("key_scheme", id.getScheme().getName())
+            .addValue("key_value", id.getValue());
+          idKeyList.add(idkeyArgs);
+        }
       }
+      // the arguments for inserting into the attribute table
+      Map<String, String> attributes = new HashMap<String, String>(document.getSecurity().getAttributes());
+      for (Map.Entry<String, String> entry : attributes.entrySet()) {
+        final DbMapSqlParameterSource attributeArgs = new DbMapSqlParameterSource()
+                .addValue("security_id", docId)
+                .addValue("security_oid", docOid)
+                .addValue("key", entry.getKey())
+                .addValue("value", entry.getValue());
+        securityAttributeList.add(attributeArgs);
+      }
+      // set the uniqueId
+      final UniqueId uniqueId = createUniqueId(docOid, docId);
+      document.getSecurity().setUniqueId(uniqueId);
+      document.setUniqueId(uniqueId);
+    }
+    final long[] idKeyIds = nextIds("sec_idkey_seq", idKeyList.size());
+    for (int i = 0; i < idKeyIds.length; i++) {
+      idKeyList.get(i).addValue("idkey_id", idKeyIds[i]);
     }
-    final String sqlDoc = getElSqlBundle().getSql("Insert", docArgs);
+    final long[] securityAttrIds = nextIds("sec_security_attr_seq", securityAttributeList.size());
+    for (int i = 0; i < securityAttrIds.length; i++) {
+      securityAttributeList.get(i).addValue("attr_id", securityAttrIds[i]);
+    }
+    final String sqlDoc = getElSqlBundle().getSql("Insert", docList.get(0));
     final String sqlIdKey = getElSqlBundle().getSql("InsertIdKey");
     final String sqlDoc2IdKey = getElSqlBundle().getSql("InsertDoc2IdKey");
-    getJdbcTemplate().update(sqlDoc, docArgs);
+    getJdbcTemplate().batchUpdate(sqlDoc, docList.toArray(new DbMapSqlParameterSource[docList.size()]));
     getJdbcTemplate().batchUpdate(sqlIdKey, idKeyList.toArray(new DbMapSqlParameterSource[idKeyList.size()]));
     getJdbcTemplate().batchUpdate(sqlDoc2IdKey, assocList.toArray(new DbMapSqlParameterSource[assocList.size()]));
-    // set the uniqueId
-    final UniqueId uniqueId = createUniqueId(docOid, docId);
-    document.getSecurity().setUniqueId(uniqueId);
-    document.setUniqueId(uniqueId);
     
     // store the detail
-    if (document.getSecurity() instanceof RawSecurity) {
-      storeRawSecurityDetail((RawSecurity) document.getSecurity());
-    } else {
-      final SecurityMasterDetailProvider detailProvider = getDetailProvider();
-      if (detailProvider != null) {
+    final SecurityMasterDetailProvider detailProvider = getDetailProvider();
+    for (SecurityDocument document : documents) {
+      if (document.getSecurity() instanceof RawSecurity) {
+        storeRawSecurityDetail((RawSecurity) document.getSecurity());
+      } else if (detailProvider != null) {
         detailProvider.storeSecurityDetail(document.getSecurity());
       }
     }
     
     // store attributes
-    Map<String, String> attributes = new HashMap<String, String>(document.getSecurity().getAttributes());
-    final List<DbMapSqlParameterSource> securityAttributeList = Lists.newArrayList();
-    for (Map.Entry<String, String> entry : attributes.entrySet()) {
-      final long securityAttrId = nextId("sec_security_attr_seq");
-      final DbMapSqlParameterSource attributeArgs = new DbMapSqlParameterSource()
-              .addValue("attr_id", securityAttrId)
-              .addValue("security_id", docId)
-              .addValue("security_oid", docOid)
-              .addValue("key", entry.getKey())
-              .addValue("value", entry.getValue());
-      securityAttributeList.add(attributeArgs);
-    }
     final String sqlAttributes = getElSqlBundle().getSql("InsertAttributes");
     getJdbcTemplate().batchUpdate(sqlAttributes, securityAttributeList.toArray(new DbMapSqlParameterSource[securityAttributeList.size()]));
-    return document;
+    return documents;
   }
 
   private void storeRawSecurityDetail(RawSecurity security) {
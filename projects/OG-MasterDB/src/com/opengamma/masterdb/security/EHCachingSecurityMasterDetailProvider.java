@@ -5,6 +5,9 @@
  */
 package com.opengamma.masterdb.security;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import net.sf.ehcache.Cache;
 import net.sf.ehcache.CacheManager;
 import net.sf.ehcache.Element;
@@ -69,6 +72,32 @@ public class EHCachingSecurityMasterDetailProvider implements SecurityMasterDeta
     return JodaBeanUtils.clone(cached);
   }
 
+  @Override
+  public List<ManageableSecurity> loadSecurityDetails(List<ManageableSecurity> bases) {
+    final List<ManageableSecurity> result = new ArrayList<ManageableSecurity>(bases.size());
+    final List<ManageableSecurity> misses = new ArrayList<ManageableSecurity>();
+    final List<Integer> missIndices = new ArrayList<Integer>();
+    for (ManageableSecurity base : bases) {
+      Element e = _detailsCache.get(base.getUniqueId());
+      if (e != null) {
+        result.add(JodaBeanUtils.clone((ManageableSecurity) e.getObjectValue()));
+      } else {
+        missIndices.add(result.size());
+        misses.add(base);
+        result.add(null);
+      }
+    }
+    if (!misses.isEmpty()) {
+      final List<ManageableSecurity> loaded = _underlying.loadSecurityDetails(misses);
+      for (int i = 0; i < misses.size(); i++) {
+        final ManageableSecurity security = loaded.get(i);
+        _detailsCache.put(new Element(misses.get(i).getUniqueId(), security));
+        result.set(missIndices.get(i), JodaBeanUtils.clone(security));
+      }
+    }
+    return result;
+  }
+
 
   @Override
   public void storeSecurityDetail(ManageableSecurity security) {
@@ -5,6 +5,8 @@
  */
 package com.opengamma.masterdb.security;
 
+import java.util.List;
+
 import com.opengamma.master.security.ManageableSecurity;
 import com.opengamma.master.security.SecuritySearchRequest;
 import com.opengamma.util.db.DbMapSqlParameterSource;
@@ -38,6 +40,18 @@ public interface SecurityMasterDetailProvider {
    */
   ManageableSecurity loadSecurityDetail(ManageableSecurity base);
 
+  /**
+   * Loads a number of securities based on the supplied bases.
+   * <p>
+   * This is equivalent to calling {@link #loadSecurityDetail} for each base, but
+   * allows the implementation to load the detail of many securities at once,
+   * such as with a single query for each type of security.
+   * 
+   * @param bases  the base securities, not null
+   * @return the loaded securities, in the same order as the bases, not null
+   */
+  List<ManageableSecurity> loadSecurityDetails(List<ManageableSecurity> bases);
+
   /**
    * Stores the specified security.
    * <p>
@@ -70,16 +70,7 @@ public final class Converters {
       return null;
     }
     ZonedDateTimeBean zonedDateTimeBean = bean.getExpiry();
-
-    final long epochSeconds = zonedDateTimeBean.getDate().getTime() / 1000;
-    ZonedDateTime zdt = null;
-    if (zonedDateTimeBean.getZone() == null) {
-      zdt = ZonedDateTime.ofEpochSeconds(epochSeconds, TimeZone.UTC);
-    } else {
-      zdt = ZonedDateTime.ofEpochSeconds(epochSeconds, TimeZone.of(zonedDateTimeBean.getZone()));
-    }
-
-    return new Expiry(zdt, bean.getAccuracy());
+    return new Expiry(dateToDateTimeWithZone(zonedDateTimeBean.getDate(), zonedDateTimeBean.getZone()), bean.getAccuracy());
   }
 
   public static ExpiryBean expiryToExpiryBean(final Expiry expiry) {
@@ -100,11 +91,25 @@ public final class Converters {
     if ((date == null) || (date.getDate() == null)) {
       return null;
     }
-    final long epochSeconds = date.getDate().getTime() / 1000;
-    if (date.getZone() == null) {
+    return dateToDateTimeWithZone(date.getDate(), date.getZone());
+  }
+
+  /**
+   * Converts a stored date and zone, as held in a {@code ZonedDateTimeBean}, to a date-time.
+   * 
+   * @param date  the date, null returns null
+   * @param zone  the zone identifier, null for UTC
+   * @return the date-time, null if the date is null
+   */
+  public static ZonedDateTime dateToDateTimeWithZone(final Date date, final String zone) {
+    if (date == null) {
+      return null;
+    }
+    final long epochSeconds = date.getTime() / 1000;
+    if (zone == null) {
       return ZonedDateTime.ofEpochSeconds(epochSeconds, TimeZone.UTC);
     } else {
-      return ZonedDateTime.ofEpochSeconds(epochSeconds, TimeZone.of(date.getZone()));
+      return ZonedDateTime.ofEpochSeconds(epochSeconds, TimeZone.of(zone));
     }
   }
 
@@ -122,8 +127,12 @@ public final class Converters {
     if (frequencyBean == null) {
       return null;
     }
-    validateFrequency(frequencyBean.getName());
-    return SimpleFrequencyFactory.INSTANCE.getFrequency(frequencyBean.getName());
+    return frequencyNameToFrequency(frequencyBean.getName());
+  }
+
+  public static Frequency frequencyNameToFrequency(final String name) {
+    validateFrequency(name);
+    return SimpleFrequencyFactory.INSTANCE.getFrequency(name);
   }
 
   public static void validateFrequency(final String name) {
@@ -137,8 +146,12 @@ public final class Converters {
     if (dayCountBean == null) {
       return null;
     }
-    validateDayCount(dayCountBean.getName());
-    return DayCountFactory.INSTANCE.getDayCount(dayCountBean.getName());
+    return dayCountNameToDayCount(dayCountBean.getName());
+  }
+
+  public static DayCount dayCountNameToDayCount(final String name) {
+    validateDayCount(name);
+    return DayCountFactory.INSTANCE.getDayCount(name);
   }
   
   public static void validateDayCount(final String name) {
@@ -152,8 +165,12 @@ public final class Converters {
     if (businessDayConventionBean == null) {
       return null;
     }
-    validateBusinessDayConvention(businessDayConventionBean.getName());
-    return BusinessDayConventionFactory.INSTANCE.getBusinessDayConvention(businessDayConventionBean.getName());
+    return businessDayConventionNameToBusinessDayConvention(businessDayConventionBean.getName());
+  }
+
+  public static BusinessDayConvention businessDayConventionNameToBusinessDayConvention(final String name) {
+    validateBusinessDayConvention(name);
+    return BusinessDayConventionFactory.INSTANCE.getBusinessDayConvention(name);
   }
   
   public static void validateBusinessDayConvention(final String name) {
@@ -167,9 +184,13 @@ public final class Converters {
     if (yieldConventionBean == null) {
       return null;
     }
-    final YieldConvention yc = YieldConventionFactory.INSTANCE.getYieldConvention(yieldConventionBean.getName());
+    return yieldConventionNameToYieldConvention(yieldConventionBean.getName());
+  }
+
+  public static YieldConvention yieldConventionNameToYieldConvention(final String name) {
+    final YieldConvention yc = YieldConventionFactory.INSTANCE.getYieldConvention(name);
     if (yc == null) {
-      throw new OpenGammaRuntimeException("Bad value for yieldConventionBean (" + yieldConventionBean.getName() + ")");
+      throw new OpenGammaRuntimeException("Bad value for yieldConventionBean (" + name + ")");
     }
     return yc;
   }
@@ -5,10 +5,13 @@
  */
 package com.opengamma.masterdb.security.hibernate;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import com.opengamma.id.ExternalId;
+import com.opengamma.id.UniqueId;
 import com.opengamma.master.security.ManageableSecurity;
 import com.opengamma.masterdb.security.hibernate.bond.*;
 import com.opengamma.masterdb.security.hibernate.equity.GICSCodeBean;
@@ -22,6 +25,8 @@ public interface HibernateSecurityMasterDao {
   // Main security load/save
   SecurityBean getSecurityBean(ManageableSecurity base, SecurityBeanOperation<?, ?> beanOperation);
 
+  Map<UniqueId, SecurityBean> getSecurityBeans(Collection<? extends ManageableSecurity> bases, SecurityBeanOperation<?, ?> beanOperation);
+
   <S extends ManageableSecurity, SBean extends SecurityBean> SBean createSecurityBean(
       OperationContext context, SecurityBeanOperation<S, SBean> beanOperation, Date effectiveDateTime, S security);
 
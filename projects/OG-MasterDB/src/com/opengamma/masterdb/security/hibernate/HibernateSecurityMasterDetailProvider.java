@@ -6,8 +6,12 @@
 package com.opengamma.masterdb.security.hibernate;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -22,6 +26,7 @@ import com.google.common.base.Objects;
 import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.core.security.Security;
 import com.opengamma.financial.security.bond.BondSecuritySearchRequest;
+import com.opengamma.id.UniqueId;
 import com.opengamma.master.security.ManageableSecurity;
 import com.opengamma.master.security.SecuritySearchRequest;
 import com.opengamma.masterdb.security.DbSecurityMaster;
@@ -219,33 +224,84 @@ public class HibernateSecurityMasterDetailProvider implements SecurityMasterDeta
   public ManageableSecurity loadSecurityDetail(final ManageableSecurity base) {
     s_logger.debug("loading detail for security {}", base.getUniqueId());
     return getHibernateTemplate().execute(new HibernateCallback<ManageableSecurity>() {
-      @SuppressWarnings({"unchecked", "rawtypes" })
+      @SuppressWarnings("rawtypes")
       @Override
       public ManageableSecurity doInHibernate(Session session) throws HibernateException, SQLException {
         final SecurityBeanOperation beanOperation = getBeanOperation(base.getSecurityType());
         HibernateSecurityMasterDao secMasterSession = getHibernateSecurityMasterSession(session);
         SecurityBean security = secMasterSession.getSecurityBean(base, beanOperation);
-        if (security == null) {
-          s_logger.warn("no detail found for security {}", base.getUniqueId());
-          return base;
+        return createSecurity(secMasterSession, beanOperation, base, security);
+      }
+    });
+  }
+
+  @Override
+  public List<ManageableSecurity> loadSecurityDetails(final List<ManageableSecurity> bases) {
+    s_logger.debug("loading detail for {} securities", bases.size());
+    return getHibernateTemplate().execute(new HibernateCallback<List<ManageableSecurity>>() {
+      @SuppressWarnings("rawtypes")
+      @Override
+      public List<ManageableSecurity> doInHibernate(Session session) throws HibernateException, SQLException {
+        final HibernateSecurityMasterDao secMasterSession = getHibernateSecurityMasterSession(session);
+        // group by type so that each type of bean is loaded with a single query
+        final Map<String, List<ManageableSecurity>> basesByType = new HashMap<String, List<ManageableSecurity>>();
+        for (ManageableSecurity base : bases) {
+          List<ManageableSecurity> typeBases = basesByType.get(base.getSecurityType());
+          if (typeBases == null) {
+            typeBases = new ArrayList<ManageableSecurity>();
+            basesByType.put(base.getSecurityType(), typeBases);
+          }
+          typeBases.add(base);
         }
-        security = beanOperation.resolve(getOperationContext(), secMasterSession, null, security);
-        final ManageableSecurity result = (ManageableSecurity) beanOperation.createSecurity(getOperationContext(), security);
-        if (result == null) {
-          throw new IllegalStateException("Unable to convert security from database: " + base.getUniqueId() + " " + base.getSecurityType());
+        final Map<UniqueId, ManageableSecurity> securities = new HashMap<UniqueId, ManageableSecurity>();
+        for (Map.Entry<String, List<ManageableSecurity>> entry : basesByType.entrySet()) {
+          final SecurityBeanOperation beanOperation = getBeanOperation(entry.getKey());
+          final Map<UniqueId, SecurityBean> beans = secMasterSession.getSecurityBeans(entry.getValue(), beanOperation);
+          for (ManageableSecurity base : entry.getValue()) {
+            final SecurityBean security = beans.get(base.getUniqueId());
+            securities.put(base.getUniqueId(), createSecurity(secMasterSession, beanOperation, base, security));
+          }
         }
-        if (Objects.equal(base.getSecurityType(), result.getSecurityType()) == false) {
-          throw new IllegalStateException("Security type returned by Hibernate load does not match");
+        final List<ManageableSecurity> result = new ArrayList<ManageableSecurity>(bases.size());
+        for (ManageableSecurity base : bases) {
+          result.add(securities.get(base.getUniqueId()));
         }
-        result.setUniqueId(base.getUniqueId());
-        result.setName(base.getName());
-        result.setExternalIdBundle(base.getExternalIdBundle());
-        result.setAttributes(base.getAttributes());
         return result;
       }
     });
   }
 
+  /**
+   * Creates the full security from the bean loaded for a base security.
+   * 
+   * @param secMasterSession  the session DAO, not null
+   * @param beanOperation  the bean operation for the security type, not null
+   * @param base  the base security, not null
+   * @param security  the loaded bean, null if no detail was found
+   * @return the loaded security, the base security if no detail was found, not null
+   */
+  @SuppressWarnings({"unchecked", "rawtypes" })
+  private ManageableSecurity createSecurity(final HibernateSecurityMasterDao secMasterSession, final SecurityBeanOperation beanOperation,
+      final ManageableSecurity base, SecurityBean security) {
+    if (security == null) {
+      s_logger.warn("no detail found for security {}", base.getUniqueId());
+      return base;
+    }
+    security = beanOperation.resolve(getOperationContext(), secMasterSession, null, security);
+    final ManageableSecurity result = (ManageableSecurity) beanOperation.createSecurity(getOperationContext(), security);
+    if (result == null) {
+      throw new IllegalStateException("Unable to convert security from database: " + base.getUniqueId() + " " + base.getSecurityType());
+    }
+    if (Objects.equal(base.getSecurityType(), result.getSecurityType()) == false) {
+      throw new IllegalStateException("Security type returned by Hibernate load does not match");
+    }
+    result.setUniqueId(base.getUniqueId());
+    result.setName(base.getName());
+    result.setExternalIdBundle(base.getExternalIdBundle());
+    result.setAttributes(base.getAttributes());
+    return result;
+  }
+
   @Override
   public void storeSecurityDetail(final ManageableSecurity security) {
     s_logger.debug("storing detail for security {}", security.getUniqueId());
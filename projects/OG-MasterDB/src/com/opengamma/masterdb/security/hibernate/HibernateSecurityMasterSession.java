@@ -5,8 +5,11 @@
  */
 package com.opengamma.masterdb.security.hibernate;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.hibernate.Query;
@@ -35,6 +38,10 @@ public class HibernateSecurityMasterSession implements HibernateSecurityMasterDa
 
   /** Logger. */
   private static final Logger s_logger = LoggerFactory.getLogger(HibernateSecurityMasterSession.class);
+  /**
+   * The maximum number of security identifiers to put into a single IN clause, as some databases limit the list size.
+   */
+  private static final int MAX_IN_LIST_SIZE = 1000;
 
   /**
    * The Hibernate session.
@@ -386,6 +393,33 @@ public class HibernateSecurityMasterSession implements HibernateSecurityMasterDa
     return (SecurityBean) query.uniqueResult();
   }
 
+  @Override
+  public Map<UniqueId, SecurityBean> getSecurityBeans(final Collection<? extends ManageableSecurity> bases, SecurityBeanOperation<?, ?> beanOperation) {
+    String beanType = beanOperation.getBeanClass().getSimpleName();
+    Map<Long, UniqueId> uniqueIds = new HashMap<Long, UniqueId>();
+    Map<UniqueId, SecurityBean> beans = new HashMap<UniqueId, SecurityBean>();
+    for (ManageableSecurity base : bases) {
+      uniqueIds.put(extractRowId(base.getUniqueId()), base.getUniqueId());
+      if (uniqueIds.size() == MAX_IN_LIST_SIZE) {
+        getSecurityBeans(beanType, uniqueIds, beans);
+        uniqueIds.clear();
+      }
+    }
+    if (uniqueIds.isEmpty() == false) {
+      getSecurityBeans(beanType, uniqueIds, beans);
+    }
+    return beans;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void getSecurityBeans(final String beanType, final Map<Long, UniqueId> uniqueIds, final Map<UniqueId, SecurityBean> beans) {
+    Query query = getSession().getNamedQuery(beanType + ".many.bySecurityIds");
+    query.setParameterList("securityIds", uniqueIds.keySet());
+    for (SecurityBean bean : (List<SecurityBean>) query.list()) {
+      beans.put(uniqueIds.get(bean.getSecurityId()), bean);
+    }
+  }
+
   // Specific securities through BeanOperation
   @Override
   public <S extends ManageableSecurity, SBean extends SecurityBean> SBean createSecurityBean(
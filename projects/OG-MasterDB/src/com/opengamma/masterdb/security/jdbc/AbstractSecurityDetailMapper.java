@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.security.jdbc;
+
+import static com.opengamma.masterdb.security.hibernate.Converters.dateToDateTimeWithZone;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+import javax.time.calendar.ZonedDateTime;
+
+import com.opengamma.id.ExternalId;
+import com.opengamma.master.security.ManageableSecurity;
+import com.opengamma.masterdb.security.hibernate.ExpiryAccuracyUserType;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.money.Currency;
+import com.opengamma.util.time.Expiry;
+import com.opengamma.util.time.ExpiryAccuracy;
+
+/**
+ * Maps the rows loaded by a named query directly to securities of one type.
+ * <p>
+ * Each query selects the detail of the securities of one type, joined to the lookup tables,
+ * with the row identifier of the base security in a column named {@code security_id}.
+ * The values are converted using the same conversions as the Hibernate bean operations,
+ * so that the securities loaded are equal to those loaded through Hibernate.
+ * 
+ * @param <S> the type of security
+ */
+public abstract class AbstractSecurityDetailMapper<S extends ManageableSecurity> {
+
+  /**
+   * Decodes stored expiry accuracies.
+   */
+  private static final ExpiryAccuracyUserType EXPIRY_ACCURACY_TYPE = new ExpiryAccuracyUserType();
+
+  /**
+   * The security type.
+   */
+  private final String _securityType;
+  /**
+   * The name of the query in the ElSql bundle.
+   */
+  private final String _sqlName;
+
+  /**
+   * Creates an instance.
+   * 
+   * @param securityType  the security type, not null
+   * @param sqlName  the name of the query in the ElSql bundle, not null
+   */
+  protected AbstractSecurityDetailMapper(final String securityType, final String sqlName) {
+    ArgumentChecker.notNull(securityType, "securityType");
+    ArgumentChecker.notNull(sqlName, "sqlName");
+    _securityType = securityType;
+    _sqlName = sqlName;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the security type.
+   * 
+   * @return the security type, not null
+   */
+  public String getSecurityType() {
+    return _securityType;
+  }
+
+  /**
+   * Gets the name of the query in the ElSql bundle.
+   * 
+   * @return the query name, not null
+   */
+  public String getSqlName() {
+    return _sqlName;
+  }
+
+  /**
+   * Creates the security from the current row.
+   * <p>
+   * Only the detail is set, the caller copies the base fields such as the name and identifiers.
+   * 
+   * @param rs  the result set positioned at the row, not null
+   * @return the security, not null
+   * @throws SQLException if an error occurs
+   */
+  public abstract S mapRow(ResultSet rs) throws SQLException;
+
+  /**
+   * Gets the name of the query in the ElSql bundle that loads rows associated with the securities,
+   * such as the deliverable basket of a bond future.
+   * <p>
+   * The query takes the same {@code security_ids} argument as the main query.
+   * 
+   * @return the query name, null if the securities have no associated rows
+   */
+  public String getAssociationSqlName() {
+    return null;
+  }
+
+  /**
+   * Adds the rows loaded by the association query to the securities created by {@link #mapRow}.
+   * <p>
+   * This implementation does nothing.
+   * 
+   * @param rs  the result set of the association query, positioned before the first row, not null
+   * @param securities  the securities created so far, keyed by the row identifier of the base security, not null
+   * @throws SQLException if an error occurs
+   */
+  public void mapAssociations(final ResultSet rs, final Map<Long, ManageableSecurity> securities) throws SQLException {
+  }
+
+  //-------------------------------------------------------------------------
+  protected static Currency getCurrency(final ResultSet rs, final String column) throws SQLException {
+    final String code = rs.getString(column);
+    return (code != null ? Currency.of(code) : null);
+  }
+
+  protected static ExternalId getExternalId(final ResultSet rs, final String schemeColumn, final String valueColumn) throws SQLException {
+    return ExternalId.of(rs.getString(schemeColumn), rs.getString(valueColumn));
+  }
+
+  protected static ExternalId getNullableExternalId(final ResultSet rs, final String schemeColumn, final String valueColumn) throws SQLException {
+    final String scheme = rs.getString(schemeColumn);
+    return (scheme != null ? ExternalId.of(scheme, rs.getString(valueColumn)) : null);
+  }
+
+  protected static ZonedDateTime getZonedDateTime(final ResultSet rs, final String dateColumn, final String zoneColumn) throws SQLException {
+    return dateToDateTimeWithZone(rs.getTimestamp(dateColumn), rs.getString(zoneColumn));
+  }
+
+  protected static Expiry getExpiry(final ResultSet rs, final String dateColumn, final String zoneColumn, final String accuracyColumn) throws SQLException {
+    final ExpiryAccuracy accuracy = (ExpiryAccuracy) EXPIRY_ACCURACY_TYPE.nullSafeGet(rs, new String[] {accuracyColumn}, null);
+    return new Expiry(getZonedDateTime(rs, dateColumn, zoneColumn), accuracy);
+  }
+
+  protected static Double getNullableDouble(final ResultSet rs, final String column) throws SQLException {
+    final double value = rs.getDouble(column);
+    return (rs.wasNull() ? null : value);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[" + _securityType + "]";
+  }
+
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.security.jdbc;
+
+import static com.opengamma.masterdb.security.hibernate.Converters.businessDayConventionNameToBusinessDayConvention;
+import static com.opengamma.masterdb.security.hibernate.Converters.dayCountNameToDayCount;
+import static com.opengamma.masterdb.security.hibernate.Converters.frequencyNameToFrequency;
+import static com.opengamma.masterdb.security.hibernate.Converters.yieldConventionNameToYieldConvention;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.time.calendar.ZonedDateTime;
+
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.financial.convention.daycount.DayCount;
+import com.opengamma.financial.convention.frequency.Frequency;
+import com.opengamma.financial.convention.yield.YieldConvention;
+import com.opengamma.financial.security.bond.BondSecurity;
+import com.opengamma.financial.security.bond.CorporateBondSecurity;
+import com.opengamma.financial.security.bond.GovernmentBondSecurity;
+import com.opengamma.financial.security.bond.MunicipalBondSecurity;
+import com.opengamma.masterdb.security.hibernate.bond.BondType;
+import com.opengamma.masterdb.security.hibernate.bond.BondTypeUserType;
+import com.opengamma.util.money.Currency;
+import com.opengamma.util.time.Expiry;
+
+/**
+ * Maps rows of {@code sec_bond} to corporate, government and municipal bond securities.
+ */
+public final class BondSecurityDetailMapper extends AbstractSecurityDetailMapper<BondSecurity> {
+
+  /**
+   * Singleton instance.
+   */
+  public static final BondSecurityDetailMapper INSTANCE = new BondSecurityDetailMapper();
+  /**
+   * Decodes stored bond types.
+   */
+  private static final BondTypeUserType BOND_TYPE = new BondTypeUserType();
+
+  private BondSecurityDetailMapper() {
+    super(BondSecurity.SECURITY_TYPE, "LoadBond");
+  }
+
+  @Override
+  public BondSecurity mapRow(final ResultSet rs) throws SQLException {
+    final BondType bondType = (BondType) BOND_TYPE.nullSafeGet(rs, new String[] {"BOND_TYPE"}, null);
+    final String issuerName = rs.getString("ISSUER_NAME");
+    final String issuerType = rs.getString("ISSUER_TYPE");
+    final String issuerDomicile = rs.getString("ISSUER_DOMICILE");
+    final String market = rs.getString("MARKET");
+    final Currency currency = getCurrency(rs, "CURRENCY");
+    final YieldConvention yieldConvention = yieldConventionNameToYieldConvention(rs.getString("YIELD_CONVENTION"));
+    final Expiry lastTradeDate = getExpiry(rs, "MATURITY_DATE", "MATURITY_ZONE", "MATURITY_ACCURACY");
+    final String couponType = rs.getString("COUPON_TYPE");
+    final double couponRate = rs.getDouble("COUPON_RATE");
+    final Frequency couponFrequency = frequencyNameToFrequency(rs.getString("COUPON_FREQUENCY"));
+    final DayCount dayCount = dayCountNameToDayCount(rs.getString("DAYCOUNT"));
+    final ZonedDateTime interestAccrualDate = getZonedDateTime(rs, "INTEREST_ACCRUAL_DATE", "INTEREST_ACCRUAL_ZONE");
+    final ZonedDateTime settlementDate = getZonedDateTime(rs, "SETTLEMENT_DATE", "SETTLEMENT_ZONE");
+    final ZonedDateTime firstCouponDate = getZonedDateTime(rs, "FIRST_COUPON_DATE", "FIRST_COUPON_ZONE");
+    final Double issuancePrice = getNullableDouble(rs, "ISSUANCE_PRICE");
+    final double totalAmountIssued = rs.getDouble("TOTAL_AMOUNT_ISSUED");
+    final double minimumAmount = rs.getDouble("MINIMUM_AMOUNT");
+    final double minimumIncrement = rs.getDouble("MINIMUM_INCREMENT");
+    final double parAmount = rs.getDouble("PAR_AMOUNT");
+    final double redemptionValue = rs.getDouble("REDEMPTION_VALUE");
+    final BondSecurity security;
+    switch (bondType) {
+      case CORPORATE:
+        security = new CorporateBondSecurity(issuerName, issuerType, issuerDomicile, market, currency, yieldConvention, lastTradeDate,
+            couponType, couponRate, couponFrequency, dayCount, interestAccrualDate, settlementDate, firstCouponDate,
+            issuancePrice, totalAmountIssued, minimumAmount, minimumIncrement, parAmount, redemptionValue);
+        break;
+      case GOVERNMENT:
+        security = new GovernmentBondSecurity(issuerName, issuerType, issuerDomicile, market, currency, yieldConvention, lastTradeDate,
+            couponType, couponRate, couponFrequency, dayCount, interestAccrualDate, settlementDate, firstCouponDate,
+            issuancePrice, totalAmountIssued, minimumAmount, minimumIncrement, parAmount, redemptionValue);
+        break;
+      case MUNICIPAL:
+        security = new MunicipalBondSecurity(issuerName, issuerType, issuerDomicile, market, currency, yieldConvention, lastTradeDate,
+            couponType, couponRate, couponFrequency, dayCount, interestAccrualDate, settlementDate, firstCouponDate,
+            issuancePrice, totalAmountIssued, minimumAmount, minimumIncrement, parAmount, redemptionValue);
+        break;
+      default:
+        throw new OpenGammaRuntimeException("Unexpected bond type: " + bondType);
+    }
+    final String businessDayConvention = rs.getString("BUSINESS_DAY_CONVENTION");
+    security.setBusinessDayConvention(businessDayConvention != null ? businessDayConventionNameToBusinessDayConvention(businessDayConvention) : null);
+    security.setAnnouncementDate(getZonedDateTime(rs, "ANNOUNCEMENT_DATE", "ANNOUNCEMENT_ZONE"));
+    security.setGuaranteeType(rs.getString("GUARANTEE_TYPE"));
+    return security;
+  }
+
+}
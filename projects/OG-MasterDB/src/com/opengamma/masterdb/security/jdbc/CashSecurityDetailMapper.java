@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.security.jdbc;
+
+import static com.opengamma.masterdb.security.hibernate.Converters.dayCountNameToDayCount;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.opengamma.financial.security.cash.CashSecurity;
+
+/**
+ * Maps rows of {@code sec_cash} to cash securities.
+ */
+public final class CashSecurityDetailMapper extends AbstractSecurityDetailMapper<CashSecurity> {
+
+  /**
+   * Singleton instance.
+   */
+  public static final CashSecurityDetailMapper INSTANCE = new CashSecurityDetailMapper();
+
+  private CashSecurityDetailMapper() {
+    super(CashSecurity.SECURITY_TYPE, "LoadCash");
+  }
+
+  @Override
+  public CashSecurity mapRow(final ResultSet rs) throws SQLException {
+    return new CashSecurity(getCurrency(rs, "CURRENCY"), getExternalId(rs, "REGION_SCHEME", "REGION_IDENTIFIER"),
+        getZonedDateTime(rs, "START_DATE", "START_ZONE"), getZonedDateTime(rs, "MATURITY_DATE", "MATURITY_ZONE"),
+        dayCountNameToDayCount(rs.getString("DAYCOUNT")), rs.getDouble("RATE"), rs.getDouble("AMOUNT"));
+  }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.security.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.opengamma.financial.security.option.BarrierDirection;
+import com.opengamma.financial.security.option.BarrierType;
+import com.opengamma.financial.security.option.EquityBarrierOptionSecurity;
+import com.opengamma.financial.security.option.ExerciseType;
+import com.opengamma.financial.security.option.ExerciseTypeVisitorImpl;
+import com.opengamma.financial.security.option.MonitoringType;
+import com.opengamma.financial.security.option.OptionType;
+import com.opengamma.financial.security.option.SamplingFrequency;
+import com.opengamma.masterdb.security.hibernate.option.BarrierDirectionUserType;
+import com.opengamma.masterdb.security.hibernate.option.BarrierTypeUserType;
+import com.opengamma.masterdb.security.hibernate.option.MonitoringTypeUserType;
+import com.opengamma.masterdb.security.hibernate.option.OptionExerciseType;
+import com.opengamma.masterdb.security.hibernate.option.OptionExerciseTypeUserType;
+import com.opengamma.masterdb.security.hibernate.option.OptionTypeUserType;
+import com.opengamma.masterdb.security.hibernate.option.SamplingFrequencyUserType;
+
+/**
+ * Maps rows of {@code sec_equitybarrieroption} to equity barrier option securities.
+ */
+public final class EquityBarrierOptionSecurityDetailMapper extends AbstractSecurityDetailMapper<EquityBarrierOptionSecurity> {
+
+  /**
+   * Singleton instance.
+   */
+  public static final EquityBarrierOptionSecurityDetailMapper INSTANCE = new EquityBarrierOptionSecurityDetailMapper();
+  /**
+   * Decodes stored exercise types.
+   */
+  private static final OptionExerciseTypeUserType EXERCISE_TYPE = new OptionExerciseTypeUserType();
+  /**
+   * Decodes stored option types.
+   */
+  private static final OptionTypeUserType OPTION_TYPE = new OptionTypeUserType();
+  /**
+   * Decodes stored barrier types.
+   */
+  private static final BarrierTypeUserType BARRIER_TYPE = new BarrierTypeUserType();
+  /**
+   * Decodes stored barrier directions.
+   */
+  private static final BarrierDirectionUserType BARRIER_DIRECTION = new BarrierDirectionUserType();
+  /**
+   * Decodes stored monitoring types.
+   */
+  private static final MonitoringTypeUserType MONITORING_TYPE = new MonitoringTypeUserType();
+  /**
+   * Decodes stored sampling frequencies.
+   */
+  private static final SamplingFrequencyUserType SAMPLING_FREQUENCY = new SamplingFrequencyUserType();
+
+  private EquityBarrierOptionSecurityDetailMapper() {
+    super(EquityBarrierOptionSecurity.SECURITY_TYPE, "LoadEquityBarrierOption");
+  }
+
+  @Override
+  public EquityBarrierOptionSecurity mapRow(final ResultSet rs) throws SQLException {
+    final OptionExerciseType optionExerciseType = (OptionExerciseType) EXERCISE_TYPE.nullSafeGet(rs, new String[] {"OPTION_EXERCISE_TYPE"}, null);
+    final ExerciseType exerciseType = optionExerciseType.accept(new ExerciseTypeVisitorImpl());
+    return new EquityBarrierOptionSecurity(
+        (OptionType) OPTION_TYPE.nullSafeGet(rs, new String[] {"OPTION_TYPE"}, null),
+        rs.getDouble("STRIKE"),
+        getCurrency(rs, "CURRENCY"),
+        getExternalId(rs, "UNDERLYING_SCHEME", "UNDERLYING_IDENTIFIER"),
+        exerciseType,
+        getExpiry(rs, "EXPIRY_DATE", "EXPIRY_ZONE", "EXPIRY_ACCURACY"),
+        rs.getDouble("POINT_VALUE"),
+        rs.getString("EXCHANGE"),
+        (BarrierType) BARRIER_TYPE.nullSafeGet(rs, new String[] {"BARRIER_TYPE"}, null),
+        (BarrierDirection) BARRIER_DIRECTION.nullSafeGet(rs, new String[] {"BARRIER_DIRECTION"}, null),
+        (MonitoringType) MONITORING_TYPE.nullSafeGet(rs, new String[] {"MONITORING_TYPE"}, null),
+        (SamplingFrequency) SAMPLING_FREQUENCY.nullSafeGet(rs, new String[] {"SAMPLING_FREQUENCY"}, null),
+        rs.getDouble("BARRIER_LEVEL"));
+  }
+
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.security.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.opengamma.financial.security.equity.EquitySecurity;
+import com.opengamma.financial.security.equity.GICSCode;
+
+/**
+ * Maps rows of {@code sec_equity} to equity securities.
+ */
+public final class EquitySecurityDetailMapper extends AbstractSecurityDetailMapper<EquitySecurity> {
+
+  /**
+   * Singleton instance.
+   */
+  public static final EquitySecurityDetailMapper INSTANCE = new EquitySecurityDetailMapper();
+
+  private EquitySecurityDetailMapper() {
+    super(EquitySecurity.SECURITY_TYPE, "LoadEquity");
+  }
+
+  @Override
+  public EquitySecurity mapRow(final ResultSet rs) throws SQLException {
+    final EquitySecurity security = new EquitySecurity(rs.getString("EXCHANGE"), rs.getString("EXCHANGE_CODE"), rs.getString("COMPANY_NAME"), getCurrency(rs, "CURRENCY"));
+    security.setShortName(rs.getString("SHORT_NAME"));
+    final String gicsCode = rs.getString("GICS_CODE");
+    security.setGicsCode(gicsCode != null ? GICSCode.of(gicsCode) : null);
+    return security;
+  }
+
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.security.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.opengamma.financial.security.fra.FRASecurity;
+
+/**
+ * Maps rows of {@code sec_fra} to FRA securities.
+ */
+public final class FRASecurityDetailMapper extends AbstractSecurityDetailMapper<FRASecurity> {
+
+  /**
+   * Singleton instance.
+   */
+  public static final FRASecurityDetailMapper INSTANCE = new FRASecurityDetailMapper();
+
+  private FRASecurityDetailMapper() {
+    super(FRASecurity.SECURITY_TYPE, "LoadFRA");
+  }
+
+  @Override
+  public FRASecurity mapRow(final ResultSet rs) throws SQLException {
+    return new FRASecurity(getCurrency(rs, "CURRENCY"), getExternalId(rs, "REGION_SCHEME", "REGION_IDENTIFIER"),
+        getZonedDateTime(rs, "START_DATE", "START_ZONE"), getZonedDateTime(rs, "END_DATE", "END_ZONE"),
+        rs.getDouble("RATE"), rs.getDouble("AMOUNT"), getExternalId(rs, "UNDERLYING_SCHEME", "UNDERLYING_IDENTIFIER"),
+        getZonedDateTime(rs, "FIXING_DATE", "FIXING_ZONE"));
+  }
+
+}
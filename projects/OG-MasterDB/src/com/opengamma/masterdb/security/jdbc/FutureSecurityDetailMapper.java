@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.security.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.financial.security.future.AgricultureFutureSecurity;
+import com.opengamma.financial.security.future.BondFutureDeliverable;
+import com.opengamma.financial.security.future.BondFutureSecurity;
+import com.opengamma.financial.security.future.CommodityFutureSecurity;
+import com.opengamma.financial.security.future.EnergyFutureSecurity;
+import com.opengamma.financial.security.future.EquityFutureSecurity;
+import com.opengamma.financial.security.future.EquityIndexDividendFutureSecurity;
+import com.opengamma.financial.security.future.FXFutureSecurity;
+import com.opengamma.financial.security.future.FutureSecurity;
+import com.opengamma.financial.security.future.IndexFutureSecurity;
+import com.opengamma.financial.security.future.InterestRateFutureSecurity;
+import com.opengamma.financial.security.future.MetalFutureSecurity;
+import com.opengamma.financial.security.future.StockFutureSecurity;
+import com.opengamma.id.ExternalId;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.master.security.ManageableSecurity;
+import com.opengamma.util.money.Currency;
+import com.opengamma.util.time.Expiry;
+
+/**
+ * Maps rows of {@code sec_future} to future securities of every kind.
+ * <p>
+ * The kind of future is held in the {@code future_type} discriminator column. The deliverable
+ * baskets of bond futures are loaded by a second query over {@code sec_futurebundle}.
+ */
+public final class FutureSecurityDetailMapper extends AbstractSecurityDetailMapper<FutureSecurity> {
+
+  /**
+   * Singleton instance.
+   */
+  public static final FutureSecurityDetailMapper INSTANCE = new FutureSecurityDetailMapper();
+
+  private FutureSecurityDetailMapper() {
+    super(FutureSecurity.SECURITY_TYPE, "LoadFuture");
+  }
+
+  @Override
+  public FutureSecurity mapRow(final ResultSet rs) throws SQLException {
+    final String futureType = rs.getString("FUTURE_TYPE");
+    final Expiry expiry = getExpiry(rs, "EXPIRY_DATE", "EXPIRY_ZONE", "EXPIRY_ACCURACY");
+    final String tradingExchange = rs.getString("TRADING_EXCHANGE");
+    final String settlementExchange = rs.getString("SETTLEMENT_EXCHANGE");
+    final Currency currency = getCurrency(rs, "CURRENCY");
+    final double unitAmount = rs.getDouble("UNIT_AMOUNT");
+    final String category = rs.getString("CATEGORY");
+    final ExternalId underlying = getNullableExternalId(rs, "UNDERLYING_SCHEME", "UNDERLYING_IDENTIFIER");
+    if ("Bond".equals(futureType)) {
+      // the basket is added by mapAssociations
+      return new BondFutureSecurity(expiry, tradingExchange, settlementExchange, currency, unitAmount, Collections.<BondFutureDeliverable>emptySet(),
+          getZonedDateTime(rs, "FIRST_DELIVERY_DATE", "FIRST_DELIVERY_ZONE"), getZonedDateTime(rs, "LAST_DELIVERY_DATE", "LAST_DELIVERY_ZONE"), category);
+    } else if ("FX".equals(futureType)) {
+      final FXFutureSecurity security = new FXFutureSecurity(expiry, tradingExchange, settlementExchange, currency, unitAmount,
+          getCurrency(rs, "NUMERATOR"), getCurrency(rs, "DENOMINATOR"), category);
+      final Double unitNumber = getNullableDouble(rs, "UNIT_NUMBER");
+      if (unitNumber != null) {
+        security.setMultiplicationFactor(unitNumber);
+      }
+      return security;
+    } else if ("Interest Rate".equals(futureType)) {
+      return new InterestRateFutureSecurity(expiry, tradingExchange, settlementExchange, currency, unitAmount, underlying, category);
+    } else if ("Agriculture".equals(futureType)) {
+      return mapCommodity(rs, new AgricultureFutureSecurity(expiry, tradingExchange, settlementExchange, currency, unitAmount, category));
+    } else if ("Energy".equals(futureType)) {
+      final EnergyFutureSecurity security = mapCommodity(rs, new EnergyFutureSecurity(expiry, tradingExchange, settlementExchange, currency, unitAmount, category));
+      security.setUnderlyingId(underlying);
+      return security;
+    } else if ("Metal".equals(futureType)) {
+      final MetalFutureSecurity security = mapCommodity(rs, new MetalFutureSecurity(expiry, tradingExchange, settlementExchange, currency, unitAmount, category));
+      security.setUnderlyingId(underlying);
+      return security;
+    } else if ("Index".equals(futureType)) {
+      final IndexFutureSecurity security = new IndexFutureSecurity(expiry, tradingExchange, settlementExchange, currency, unitAmount, category);
+      security.setUnderlyingId(underlying);
+      return security;
+    } else if ("Stock".equals(futureType)) {
+      final StockFutureSecurity security = new StockFutureSecurity(expiry, tradingExchange, settlementExchange, currency, unitAmount, category);
+      security.setUnderlyingId(underlying);
+      return security;
+    } else if ("Equity".equals(futureType)) {
+      // the settlement date is not stored, the expiry is used as for the Hibernate load
+      return new EquityFutureSecurity(expiry, tradingExchange, settlementExchange, currency, unitAmount, expiry.getExpiry(), underlying, category);
+    } else if ("Equity Index Dividend".equals(futureType)) {
+      return new EquityIndexDividendFutureSecurity(expiry, tradingExchange, settlementExchange, currency, unitAmount, expiry.getExpiry(), underlying, category);
+    }
+    throw new OpenGammaRuntimeException("Unexpected future type: " + futureType);
+  }
+
+  private static <F extends CommodityFutureSecurity> F mapCommodity(final ResultSet rs, final F security) throws SQLException {
+    security.setUnitNumber(getNullableDouble(rs, "UNIT_NUMBER"));
+    final String unitName = rs.getString("UNIT_NAME");
+    if (unitName != null) {
+      security.setUnitName(unitName);
+    }
+    return security;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String getAssociationSqlName() {
+    return "LoadFutureBundle";
+  }
+
+  @Override
+  public void mapAssociations(final ResultSet rs, final Map<Long, ManageableSecurity> securities) throws SQLException {
+    // each row is one identifier of one deliverable, grouped by security and then by deliverable
+    final Map<Long, Map<Long, Double>> conversionFactors = new LinkedHashMap<Long, Map<Long, Double>>();
+    final Map<Long, Set<ExternalId>> identifiers = new HashMap<Long, Set<ExternalId>>();
+    while (rs.next()) {
+      final long securityId = rs.getLong("SECURITY_ID");
+      final long bundleId = rs.getLong("BUNDLE_ID");
+      Map<Long, Double> bundles = conversionFactors.get(securityId);
+      if (bundles == null) {
+        bundles = new LinkedHashMap<Long, Double>();
+        conversionFactors.put(securityId, bundles);
+      }
+      bundles.put(bundleId, rs.getDouble("CONVERSION_FACTOR"));
+      Set<ExternalId> bundleIdentifiers = identifiers.get(bundleId);
+      if (bundleIdentifiers == null) {
+        bundleIdentifiers = new HashSet<ExternalId>();
+        identifiers.put(bundleId, bundleIdentifiers);
+      }
+      final ExternalId identifier = getNullableExternalId(rs, "SCHEME", "IDENTIFIER");
+      if (identifier != null) {
+        bundleIdentifiers.add(identifier);
+      }
+    }
+    for (Map.Entry<Long, Map<Long, Double>> entry : conversionFactors.entrySet()) {
+      final ManageableSecurity security = securities.get(entry.getKey());
+      if (security instanceof BondFutureSecurity == false) {
+        continue;
+      }
+      // a set as for the Hibernate load, so that both loads give the same basket order
+      final Set<BondFutureDeliverable> basket = new HashSet<BondFutureDeliverable>(entry.getValue().size());
+      for (Map.Entry<Long, Double> bundle : entry.getValue().entrySet()) {
+        basket.add(new BondFutureDeliverable(ExternalIdBundle.of(identifiers.get(bundle.getKey())), bundle.getValue()));
+      }
+      ((BondFutureSecurity) security).setBasket(ImmutableList.copyOf(basket));
+    }
+  }
+
+}
@@ -0,0 +1,267 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.security.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+import com.opengamma.elsql.ElSqlBundle;
+import com.opengamma.id.UniqueId;
+import com.opengamma.master.security.ManageableSecurity;
+import com.opengamma.master.security.SecuritySearchRequest;
+import com.opengamma.masterdb.security.DbSecurityMaster;
+import com.opengamma.masterdb.security.SecurityMasterDetailProvider;
+import com.opengamma.masterdb.security.hibernate.HibernateSecurityMasterDetailProvider;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.util.db.DbConnector;
+import com.opengamma.util.db.DbMapSqlParameterSource;
+
+/**
+ * Provides the detail of securities by reading the detail tables directly with JDBC.
+ * <p>
+ * The common types of security, currently equities, bonds, cash, FRAs, futures and equity barrier
+ * options, are loaded with one query per type that maps the rows straight to securities, avoiding
+ * the Hibernate session, proxies and intermediate beans. Types with associated rows, such as the
+ * baskets of bond futures, load them with one further query per type.
+ * All other types, and all stores and search extensions, are passed to an underlying provider,
+ * by default the {@link HibernateSecurityMasterDetailProvider}.
+ */
+public class JdbcSecurityMasterDetailProvider implements SecurityMasterDetailProvider {
+
+  /** Logger. */
+  private static final Logger s_logger = LoggerFactory.getLogger(JdbcSecurityMasterDetailProvider.class);
+  /**
+   * The maximum number of identifiers in a single query.
+   */
+  private static final int MAX_IN_LIST_SIZE = 1000;
+  /**
+   * The mappers, keyed by security type.
+   */
+  private static final ConcurrentMap<String, AbstractSecurityDetailMapper<?>> MAPPERS_BY_TYPE = new ConcurrentHashMap<String, AbstractSecurityDetailMapper<?>>();
+
+  static {
+    loadMapper(EquitySecurityDetailMapper.INSTANCE);
+    loadMapper(BondSecurityDetailMapper.INSTANCE);
+    loadMapper(CashSecurityDetailMapper.INSTANCE);
+    loadMapper(FRASecurityDetailMapper.INSTANCE);
+    loadMapper(FutureSecurityDetailMapper.INSTANCE);
+    loadMapper(EquityBarrierOptionSecurityDetailMapper.INSTANCE);
+  }
+
+  /**
+   * The underlying provider.
+   */
+  private final SecurityMasterDetailProvider _underlying;
+  /**
+   * The database connector.
+   */
+  private DbConnector _dbConnector;
+  /**
+   * The SQL bundle.
+   */
+  private ElSqlBundle _elSqlBundle;
+
+  private static void loadMapper(final AbstractSecurityDetailMapper<?> mapper) {
+    MAPPERS_BY_TYPE.put(mapper.getSecurityType(), mapper);
+  }
+
+  /**
+   * Gets the mapper for a security type.
+   * 
+   * @param securityType  the security type, not null
+   * @return the mapper, null if the type is not loaded by JDBC
+   */
+  private static AbstractSecurityDetailMapper<?> getMapper(final String securityType) {
+    return MAPPERS_BY_TYPE.get(securityType.toUpperCase(Locale.ENGLISH));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Creates an instance using Hibernate for the types not loaded by JDBC.
+   */
+  public JdbcSecurityMasterDetailProvider() {
+    this(new HibernateSecurityMasterDetailProvider());
+  }
+
+  /**
+   * Creates an instance.
+   * 
+   * @param underlying  the provider for stores and for the types not loaded by JDBC, not null
+   */
+  public JdbcSecurityMasterDetailProvider(final SecurityMasterDetailProvider underlying) {
+    ArgumentChecker.notNull(underlying, "underlying");
+    _underlying = underlying;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public void init(final DbSecurityMaster master) {
+    _underlying.init(master);
+    _dbConnector = master.getDbConnector();
+    _elSqlBundle = ElSqlBundle.of(_dbConnector.getDialect().getElSqlConfig(), JdbcSecurityMasterDetailProvider.class);
+  }
+
+  /**
+   * Gets the underlying provider.
+   * 
+   * @return the underlying provider, not null
+   */
+  public SecurityMasterDetailProvider getUnderlying() {
+    return _underlying;
+  }
+
+  /**
+   * Checks whether securities of a type are loaded by JDBC rather than by the underlying provider.
+   * 
+   * @param securityType  the security type, not null
+   * @return true if loaded by JDBC
+   */
+  public boolean isLoadedByJdbc(final String securityType) {
+    return getMapper(securityType) != null;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public ManageableSecurity loadSecurityDetail(final ManageableSecurity base) {
+    return loadSecurityDetails(Collections.singletonList(base)).get(0);
+  }
+
+  @Override
+  public List<ManageableSecurity> loadSecurityDetails(final List<ManageableSecurity> bases) {
+    s_logger.debug("loading detail for {} securities", bases.size());
+    // group by mapper so that each type is loaded with a single query
+    final Map<AbstractSecurityDetailMapper<?>, List<ManageableSecurity>> basesByMapper = new LinkedHashMap<AbstractSecurityDetailMapper<?>, List<ManageableSecurity>>();
+    final List<ManageableSecurity> otherBases = new ArrayList<ManageableSecurity>();
+    for (ManageableSecurity base : bases) {
+      final AbstractSecurityDetailMapper<?> mapper = getMapper(base.getSecurityType());
+      if (mapper == null) {
+        otherBases.add(base);
+        continue;
+      }
+      List<ManageableSecurity> mapperBases = basesByMapper.get(mapper);
+      if (mapperBases == null) {
+        mapperBases = new ArrayList<ManageableSecurity>();
+        basesByMapper.put(mapper, mapperBases);
+      }
+      mapperBases.add(base);
+    }
+    final Map<UniqueId, ManageableSecurity> securities = new HashMap<UniqueId, ManageableSecurity>();
+    for (Map.Entry<AbstractSecurityDetailMapper<?>, List<ManageableSecurity>> entry : basesByMapper.entrySet()) {
+      loadSecurityDetails(entry.getKey(), entry.getValue(), securities);
+    }
+    if (otherBases.isEmpty() == false) {
+      final List<ManageableSecurity> others = _underlying.loadSecurityDetails(otherBases);
+      for (int i = 0; i < otherBases.size(); i++) {
+        securities.put(otherBases.get(i).getUniqueId(), others.get(i));
+      }
+    }
+    final List<ManageableSecurity> result = new ArrayList<ManageableSecurity>(bases.size());
+    for (ManageableSecurity base : bases) {
+      result.add(securities.get(base.getUniqueId()));
+    }
+    return result;
+  }
+
+  /**
+   * Loads the detail of securities of one type.
+   * 
+   * @param mapper  the mapper for the type, not null
+   * @param bases  the base securities, not null
+   * @param securities  the map to add the loaded securities to, keyed by unique identifier, not null
+   */
+  private void loadSecurityDetails(final AbstractSecurityDetailMapper<?> mapper, final List<ManageableSecurity> bases,
+      final Map<UniqueId, ManageableSecurity> securities) {
+    final NamedParameterJdbcOperations namedJdbc = _dbConnector.getJdbcTemplate().getNamedParameterJdbcOperations();
+    final String sql = _elSqlBundle.getSql(mapper.getSqlName());
+    final String associationSql = (mapper.getAssociationSqlName() != null ? _elSqlBundle.getSql(mapper.getAssociationSqlName()) : null);
+    final Map<Long, ManageableSecurity> loaded = new HashMap<Long, ManageableSecurity>();
+    for (List<ManageableSecurity> batch : Lists.partition(bases, MAX_IN_LIST_SIZE)) {
+      final List<Long> rowIds = new ArrayList<Long>(batch.size());
+      for (ManageableSecurity base : batch) {
+        rowIds.add(extractRowId(base.getUniqueId()));
+      }
+      final DbMapSqlParameterSource args = new DbMapSqlParameterSource().addValue("security_ids", rowIds);
+      namedJdbc.query(sql, args, new RowCallbackHandler() {
+        @Override
+        public void processRow(final ResultSet rs) throws SQLException {
+          loaded.put(rs.getLong("SECURITY_ID"), mapper.mapRow(rs));
+        }
+      });
+      if (associationSql != null) {
+        namedJdbc.query(associationSql, args, new ResultSetExtractor<Object>() {
+          @Override
+          public Object extractData(final ResultSet rs) throws SQLException, DataAccessException {
+            mapper.mapAssociations(rs, loaded);
+            return null;
+          }
+        });
+      }
+    }
+    for (ManageableSecurity base : bases) {
+      securities.put(base.getUniqueId(), createSecurity(base, loaded.get(extractRowId(base.getUniqueId()))));
+    }
+  }
+
+  /**
+   * Creates the full security from the detail loaded for a base security.
+   * 
+   * @param base  the base security, not null
+   * @param security  the loaded detail, null if no detail was found
+   * @return the loaded security, the base security if no detail was found, not null
+   */
+  private ManageableSecurity createSecurity(final ManageableSecurity base, final ManageableSecurity security) {
+    if (security == null) {
+      s_logger.warn("no detail found for security {}", base.getUniqueId());
+      return base;
+    }
+    if (Objects.equal(base.getSecurityType(), security.getSecurityType()) == false) {
+      throw new IllegalStateException("Security type returned by JDBC load does not match");
+    }
+    security.setUniqueId(base.getUniqueId());
+    security.setName(base.getName());
+    security.setExternalIdBundle(base.getExternalIdBundle());
+    security.setAttributes(base.getAttributes());
+    return security;
+  }
+
+  private static long extractRowId(final UniqueId id) {
+    try {
+      return Long.parseLong(id.getValue()) + Long.parseLong(id.getVersion());
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("UniqueId is not from this security master: " + id, ex);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public void storeSecurityDetail(final ManageableSecurity security) {
+    _underlying.storeSecurityDetail(security);
+  }
+
+  @Override
+  public void extendSearch(final SecuritySearchRequest request, final DbMapSqlParameterSource args) {
+    _underlying.extendSearch(request, args);
+  }
+
+}
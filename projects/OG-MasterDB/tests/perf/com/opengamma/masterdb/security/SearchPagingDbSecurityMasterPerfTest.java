@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.security;
+
+import static com.opengamma.util.db.DbDateUtils.MAX_SQL_TIMESTAMP;
+import static com.opengamma.util.db.DbDateUtils.toSqlTimestamp;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.time.Instant;
+import javax.time.TimeSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.Factory;
+import org.testng.annotations.Test;
+
+import com.opengamma.master.security.SecuritySearchRequest;
+import com.opengamma.master.security.SecuritySearchResult;
+import com.opengamma.masterdb.DbMasterTestUtils;
+import com.opengamma.util.paging.PagingRequest;
+import com.opengamma.util.test.DbTest;
+
+/**
+ * Compares the latency of offset and keyset paging through a large security master.
+ * <p>
+ * The number of securities defaults to 100,000 and can be set with the system property
+ * {@code test.paging.securities}. The page latency is logged for increasing page numbers;
+ * offset paging slows as the page number grows whereas keyset paging should not.
+ */
+public class SearchPagingDbSecurityMasterPerfTest extends DbTest {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(SearchPagingDbSecurityMasterPerfTest.class);
+  private static final int PAGE_SIZE = 100;
+  private static final int REPEATS = 5;
+
+  private final int _totalSecurities = Integer.getInteger("test.paging.securities", 100000);
+
+  @Factory(dataProvider = "databases", dataProviderClass = DbTest.class)
+  public SearchPagingDbSecurityMasterPerfTest(String databaseType, String databaseVersion) {
+    super(databaseType, databaseVersion, databaseVersion);
+    s_logger.info("running testcases for {}", databaseType);
+  }
+
+  @AfterSuite
+  public static void closeAfterSuite() {
+    DbMasterTestUtils.closeAfterSuite();
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_pageLatency() {
+    ConfigurableApplicationContext context = DbMasterTestUtils.getContext(getDatabaseType());
+    DbSecurityMaster secMaster = (DbSecurityMaster) context.getBean(getDatabaseType() + "DbSecurityMaster");
+    Instant now = Instant.now();
+    secMaster.setTimeSource(TimeSource.fixed(now));
+    populate(secMaster, now.minusSeconds(100));
+
+    int lastPage = _totalSecurities / PAGE_SIZE;
+    for (int page = 1; page <= lastPage; page *= 4) {
+      long offsetNanos = timeOffsetPage(secMaster, page);
+      long keysetNanos = timeKeysetPage(secMaster, page);
+      s_logger.warn("{} page {} of {}: offset {}us, keyset {}us",
+          new Object[] {getDatabaseType(), page, lastPage, offsetNanos / 1000, keysetNanos / 1000});
+    }
+  }
+
+  private void populate(final DbSecurityMaster secMaster, final Instant instant) {
+    List<Object[]> rows = new ArrayList<Object[]>(_totalSecurities);
+    for (int i = 1; i <= _totalSecurities; i++) {
+      long id = 1000L + i;
+      rows.add(new Object[] {id, id, toSqlTimestamp(instant), MAX_SQL_TIMESTAMP, toSqlTimestamp(instant), MAX_SQL_TIMESTAMP,
+        "TestSecurity" + id, "EQUITY", "D"});
+    }
+    secMaster.getDbConnector().getJdbcTemplate().batchUpdate("INSERT INTO sec_security VALUES (?,?,?,?,?, ?,?,?,?)", rows);
+  }
+
+  private long timeOffsetPage(final DbSecurityMaster secMaster, final int page) {
+    SecuritySearchRequest request = new SecuritySearchRequest();
+    request.setPagingRequest(PagingRequest.ofPage(page, PAGE_SIZE));
+    return timeSearch(secMaster, request);
+  }
+
+  private long timeKeysetPage(final DbSecurityMaster secMaster, final int page) {
+    // the key of a page is the object identifier of the last security on the previous page
+    String afterKey = (page == 1 ? null : Long.toString(1000L + (page - 1) * PAGE_SIZE));
+    SecuritySearchRequest request = new SecuritySearchRequest();
+    request.setPagingRequest(PagingRequest.ofKeyset(afterKey, PAGE_SIZE));
+    return timeSearch(secMaster, request);
+  }
+
+  private long timeSearch(final DbSecurityMaster secMaster, final SecuritySearchRequest request) {
+    SecuritySearchResult result = secMaster.search(request);  // warm up
+    assertEquals(PAGE_SIZE, result.getDocuments().size());
+    long start = System.nanoTime();
+    for (int i = 0; i < REPEATS; i++) {
+      secMaster.search(request);
+    }
+    return (System.nanoTime() - start) / REPEATS;
+  }
+
+}
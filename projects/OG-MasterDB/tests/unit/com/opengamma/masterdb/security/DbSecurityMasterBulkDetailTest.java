@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.security;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Factory;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.opengamma.financial.security.equity.EquitySecurity;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.master.security.SecurityDocument;
+import com.opengamma.master.security.SecuritySearchRequest;
+import com.opengamma.master.security.SecuritySearchResult;
+import com.opengamma.masterdb.DbMasterTestUtils;
+import com.opengamma.util.money.Currency;
+import com.opengamma.util.test.DbTest;
+
+/**
+ * Tests the number of statements used to load the detail of many securities.
+ * <p>
+ * The detail is loaded with one query per security type, and the currencies and exchanges referenced by the
+ * securities are batch fetched, so the number of statements doesn't grow with the number of securities.
+ */
+public class DbSecurityMasterBulkDetailTest extends DbTest {
+
+  /** Logger. */
+  private static final Logger s_logger = LoggerFactory.getLogger(DbSecurityMasterBulkDetailTest.class);
+
+  private static final String[] CURRENCIES = {"USD", "GBP", "EUR", "JPY", "CHF", "AUD", "CAD", "SEK", "NOK", "DKK" };
+
+  private DbSecurityMaster _secMaster;
+  private Statistics _statistics;
+
+  @Factory(dataProvider = "databases", dataProviderClass = DbTest.class)
+  public DbSecurityMasterBulkDetailTest(String databaseType, String databaseVersion) {
+    super(databaseType, databaseVersion, databaseVersion);
+    s_logger.info("running test for database={}", databaseType);
+  }
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    super.setUp();
+    ConfigurableApplicationContext context = DbMasterTestUtils.getContext(getDatabaseType());
+    _secMaster = (DbSecurityMaster) context.getBean(getDatabaseType() + "DbSecurityMaster");
+    _statistics = _secMaster.getDbConnector().getHibernateSessionFactory().getStatistics();
+    _statistics.setStatisticsEnabled(true);
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    _statistics.setStatisticsEnabled(false);
+    super.tearDown();
+  }
+
+  @AfterSuite
+  public static void closeAfterSuite() {
+    DbMasterTestUtils.closeAfterSuite();
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_search_statementCountIndependentOfSecurityCount() {
+    Map<UniqueId, EquitySecurity> added = Maps.newHashMap();
+    List<ObjectId> objectIds = Lists.newArrayList();
+    for (int i = 0; i < CURRENCIES.length; i++) {
+      EquitySecurity security = new EquitySecurity("Exchange " + i, "EX" + i, "Company " + i, Currency.of(CURRENCIES[i]));
+      security.setName("Equity " + i);
+      security.setExternalIdBundle(ExternalIdBundle.of("Test", "E" + i));
+      SecurityDocument doc = _secMaster.add(new SecurityDocument(security));
+      added.put(doc.getUniqueId(), security);
+      objectIds.add(doc.getUniqueId().getObjectId());
+    }
+    SecuritySearchRequest request = new SecuritySearchRequest();
+    request.setObjectIds(objectIds);
+    request.setFullDetail(true);
+
+    _statistics.clear();
+    SecuritySearchResult result = _secMaster.search(request);
+    long statements = _statistics.getPrepareStatementCount();
+
+    assertEquals(CURRENCIES.length, result.getDocuments().size());
+    for (SecurityDocument doc : result.getDocuments()) {
+      EquitySecurity expected = added.get(doc.getUniqueId());
+      EquitySecurity loaded = (EquitySecurity) doc.getSecurity();
+      assertEquals(expected.getCurrency(), loaded.getCurrency());
+      assertEquals(expected.getExchange(), loaded.getExchange());
+      assertEquals(expected.getCompanyName(), loaded.getCompanyName());
+    }
+    // one query for the equities and one batch each for their currencies and exchanges, loading each security
+    // separately would need a statement for every security and every reference it holds
+    s_logger.debug("loaded {} securities with {} statements", CURRENCIES.length, statements);
+    assertTrue("Expected fewer than " + CURRENCIES.length + " statements, was " + statements, statements < CURRENCIES.length);
+  }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.security;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import net.sf.ehcache.CacheManager;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.UniqueId;
+import com.opengamma.master.security.ManageableSecurity;
+import com.opengamma.util.ehcache.EHCacheUtils;
+
+/**
+ * Test {@link EHCachingSecurityMasterDetailProvider}.
+ */
+@Test
+public class EHCachingSecurityMasterDetailProviderTest {
+
+  private static final ManageableSecurity BASE_1 = new ManageableSecurity(UniqueId.of("DbSec", "1", "0"), "One", "EQUITY", ExternalIdBundle.EMPTY);
+  private static final ManageableSecurity BASE_2 = new ManageableSecurity(UniqueId.of("DbSec", "2", "0"), "Two", "EQUITY", ExternalIdBundle.EMPTY);
+  private static final ManageableSecurity DETAIL_1 = new ManageableSecurity(UniqueId.of("DbSec", "1", "0"), "One", "EQUITY", ExternalIdBundle.EMPTY);
+  private static final ManageableSecurity DETAIL_2 = new ManageableSecurity(UniqueId.of("DbSec", "2", "0"), "Two", "EQUITY", ExternalIdBundle.EMPTY);
+
+  private SecurityMasterDetailProvider _underlying;
+  private EHCachingSecurityMasterDetailProvider _cachingProvider;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    EHCacheUtils.clearAll();
+    _underlying = mock(SecurityMasterDetailProvider.class);
+    CacheManager cm = EHCacheUtils.createCacheManager();
+    _cachingProvider = new EHCachingSecurityMasterDetailProvider(_underlying, cm);
+  }
+
+  public void loadSecurityDetails_onlyMissesLoaded() {
+    when(_underlying.loadSecurityDetail(BASE_1)).thenReturn(DETAIL_1);
+    when(_underlying.loadSecurityDetails(Collections.singletonList(BASE_2))).thenReturn(Collections.singletonList(DETAIL_2));
+    assertEquals(DETAIL_1, _cachingProvider.loadSecurityDetail(BASE_1));
+    final List<ManageableSecurity> result = _cachingProvider.loadSecurityDetails(Arrays.asList(BASE_1, BASE_2));
+    assertEquals(Arrays.asList(DETAIL_1, DETAIL_2), result);
+    assertNotSame(DETAIL_2, result.get(1));
+    verify(_underlying, times(1)).loadSecurityDetails(Collections.singletonList(BASE_2));
+  }
+
+  public void loadSecurityDetails_cached() {
+    when(_underlying.loadSecurityDetails(Arrays.asList(BASE_1, BASE_2))).thenReturn(Arrays.asList(DETAIL_1, DETAIL_2));
+    assertEquals(Arrays.asList(DETAIL_1, DETAIL_2), _cachingProvider.loadSecurityDetails(Arrays.asList(BASE_1, BASE_2)));
+    assertEquals(Arrays.asList(DETAIL_1, DETAIL_2), _cachingProvider.loadSecurityDetails(Arrays.asList(BASE_1, BASE_2)));
+    assertEquals(DETAIL_2, _cachingProvider.loadSecurityDetail(BASE_2));
+    verify(_underlying, times(1)).loadSecurityDetails(Arrays.asList(BASE_1, BASE_2));
+    verify(_underlying, times(0)).loadSecurityDetail(BASE_2);
+  }
+
+}
@@ -9,6 +9,9 @@ import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.time.Instant;
 
 import org.slf4j.Logger;
@@ -90,4 +93,21 @@ public class ModifySecurityDbSecurityMasterWorkerAddTest extends AbstractDbSecur
     assertEquals(added, test);
   }
 
+  @Test
+  public void test_addAll_batchedThenGet() {
+    _secMaster.setBatchSize(2);
+    List<SecurityDocument> docs = new ArrayList<SecurityDocument>();
+    for (int i = 0; i < 3; i++) {
+      docs.add(new SecurityDocument(new ManageableSecurity(null, "TestSecurity" + i, "EQUITY", ExternalIdBundle.of("A", "B" + i))));
+    }
+    List<SecurityDocument> added = _secMaster.addAll(docs);
+    
+    assertEquals(3, added.size());
+    for (int i = 0; i < 3; i++) {
+      SecurityDocument test = _secMaster.get(added.get(i).getUniqueId());
+      assertEquals(added.get(i), test);
+      assertEquals("TestSecurity" + i, test.getSecurity().getName());
+    }
+  }
+
 }
@@ -7,6 +7,9 @@ package com.opengamma.masterdb.security;
 
 import static org.testng.AssertJUnit.assertEquals;
 
+import java.util.Arrays;
+import java.util.List;
+
 import javax.time.Instant;
 
 import org.slf4j.Logger;
@@ -110,6 +113,33 @@ public class ModifySecurityDbSecurityMasterWorkerUpdateTest extends AbstractDbSe
     assertEquals(2, searchResult.getDocuments().size());
   }
 
+  @Test
+  public void test_updateAll_getUpdateGet() {
+    Instant now = Instant.now(_secMaster.getTimeSource());
+    
+    UniqueId uniqueId1 = UniqueId.of("DbSec", "101", "0");
+    UniqueId uniqueId2 = UniqueId.of("DbSec", "102", "0");
+    SecurityDocument input1 = new SecurityDocument(new ManageableSecurity(uniqueId1, "Name1", "Type", ExternalIdBundle.of("A", "B")));
+    SecurityDocument input2 = new SecurityDocument(new ManageableSecurity(uniqueId2, "Name2", "Type", ExternalIdBundle.of("A", "C")));
+    
+    List<SecurityDocument> updated = _secMaster.updateAll(Arrays.asList(input1, input2));
+    assertEquals(2, updated.size());
+    assertEquals("Name1", updated.get(0).getSecurity().getName());
+    assertEquals("Name2", updated.get(1).getSecurity().getName());
+    assertEquals(now, updated.get(1).getVersionFromInstant());
+    assertEquals(now, _secMaster.get(uniqueId1).getVersionToInstant());  // old version ended
+    assertEquals(now, _secMaster.get(uniqueId2).getVersionToInstant());
+    assertEquals(updated.get(0), _secMaster.get(updated.get(0).getUniqueId()));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void test_updateAll_sameObjectTwice() {
+    UniqueId uniqueId = UniqueId.of("DbSec", "101", "0");
+    SecurityDocument input1 = new SecurityDocument(new ManageableSecurity(uniqueId, "Name1", "Type", ExternalIdBundle.of("A", "B")));
+    SecurityDocument input2 = new SecurityDocument(new ManageableSecurity(uniqueId, "Name2", "Type", ExternalIdBundle.of("A", "B")));
+    _secMaster.updateAll(Arrays.asList(input1, input2));
+  }
+
   @Test
   public void test_update_rollback() {
     DbSecurityMaster w = new DbSecurityMaster(_secMaster.getDbConnector());
@@ -24,6 +24,7 @@ import com.opengamma.id.VersionCorrection;
 import com.opengamma.master.security.SecurityDocument;
 import com.opengamma.master.security.SecuritySearchRequest;
 import com.opengamma.master.security.SecuritySearchResult;
+import com.opengamma.master.security.SecuritySearchSortOrder;
 import com.opengamma.util.paging.PagingRequest;
 import com.opengamma.util.test.DbTest;
 
@@ -85,6 +86,34 @@ public class QuerySecurityDbSecurityMasterWorkerSearchTest extends AbstractDbSec
     assertEquals(1, test.getDocuments().size());
     assert202(test.getDocuments().get(0));
   }
+
+  @Test
+  public void test_search_keysetPages() {
+    SecuritySearchRequest request = new SecuritySearchRequest();
+    request.setPagingRequest(PagingRequest.ofKeyset(null, 2));
+    SecuritySearchResult test = _secMaster.search(request);
+    
+    assertEquals(_totalSecurities, test.getPaging().getTotalItems());
+    assertEquals(2, test.getDocuments().size());
+    assert101(test.getDocuments().get(0));
+    assert102(test.getDocuments().get(1));
+    assertEquals("102", test.getPaging().getNextKey());
+    
+    request.setPagingRequest(test.getPaging().nextPagingRequest());
+    test = _secMaster.search(request);
+    assertEquals(_totalSecurities, test.getPaging().getTotalItems());
+    assertEquals(1, test.getDocuments().size());
+    assert202(test.getDocuments().get(0));
+    assertEquals(true, test.getPaging().isLastPage());
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void test_search_keyset_unsupportedSortOrder() {
+    SecuritySearchRequest request = new SecuritySearchRequest();
+    request.setPagingRequest(PagingRequest.ofKeyset(null, 2));
+    request.setSortOrder(SecuritySearchSortOrder.NAME_ASC);
+    _secMaster.search(request);
+  }
   
   @Test
   public void test_search_identifier() {
@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.security;
+
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotSame;
+
+import javax.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Factory;
+import org.testng.annotations.Test;
+
+import com.opengamma.core.change.BasicChangeManager;
+import com.opengamma.core.change.ChangeManager;
+import com.opengamma.core.change.ChangeType;
+import com.opengamma.id.ExternalIdBundle;
+import com.opengamma.id.ObjectId;
+import com.opengamma.id.UniqueId;
+import com.opengamma.id.VersionCorrection;
+import com.opengamma.master.security.ManageableSecurity;
+import com.opengamma.master.security.SecurityDocument;
+import com.opengamma.util.test.DbTest;
+
+/**
+ * Tests the result cache of DbSecurityMaster.
+ */
+public class ResultCacheDbSecurityMasterWorkerTest extends AbstractDbSecurityMasterWorkerTest {
+  // superclass sets up dummy database
+
+  private static final Logger s_logger = LoggerFactory.getLogger(ResultCacheDbSecurityMasterWorkerTest.class);
+
+  @Factory(dataProvider = "databases", dataProviderClass = DbTest.class)
+  public ResultCacheDbSecurityMasterWorkerTest(String databaseType, String databaseVersion) {
+    super(databaseType, databaseVersion, false);
+    s_logger.info("running testcases for {}", databaseType);
+  }
+
+  @BeforeMethod
+  public void setUpCache() {
+    _secMaster.setResultCacheSize(100);
+  }
+
+  @AfterMethod
+  public void tearDownCache() {
+    if (_secMaster != null) {
+      _secMaster.setResultCacheSize(0);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_get_versioned_cached() {
+    UniqueId uniqueId = UniqueId.of("DbSec", "101", "0");
+    long hits = _secMaster.getResultCacheHitCount();
+    SecurityDocument first = _secMaster.get(uniqueId);
+    SecurityDocument second = _secMaster.get(uniqueId);
+    assertEquals(first, second);
+    assertNotSame(first, second);
+    assertEquals(hits + 1, _secMaster.getResultCacheHitCount());
+    assertEquals(1, _secMaster.getResultCacheObjectCount());
+  }
+
+  @Test
+  public void test_get_versioned_detailCached() {
+    SecurityMasterDetailProvider original = _secMaster.getDetailProvider();
+    SecurityMasterDetailProvider detailProvider = spy(original);
+    _secMaster.setDetailProvider(detailProvider);
+    try {
+      UniqueId uniqueId = UniqueId.of("DbSec", "101", "0");
+      SecurityDocument first = _secMaster.get(uniqueId);
+      SecurityDocument second = _secMaster.get(uniqueId);
+      assertEquals(first.getSecurity(), second.getSecurity());
+      assertNotSame(first.getSecurity(), second.getSecurity());
+      verify(detailProvider, times(1)).loadSecurityDetails(anyListOf(ManageableSecurity.class));
+    } finally {
+      _secMaster.setDetailProvider(original);
+    }
+  }
+
+  @Test
+  public void test_get_pastVersionCorrection_cached() {
+    ObjectId oid = ObjectId.of("DbSec", "201");
+    VersionCorrection vc = VersionCorrection.of(_version1Instant.plusSeconds(5), _version2Instant.plusSeconds(5));
+    long hits = _secMaster.getResultCacheHitCount();
+    SecurityDocument first = _secMaster.get(oid, vc);
+    SecurityDocument second = _secMaster.get(oid, vc);
+    assertEquals(UniqueId.of("DbSec", "201", "0"), second.getUniqueId());
+    assertEquals(first, second);
+    assertEquals(hits + 1, _secMaster.getResultCacheHitCount());
+  }
+
+  @Test
+  public void test_get_latest_notCached() {
+    ObjectId oid = ObjectId.of("DbSec", "201");
+    long hits = _secMaster.getResultCacheHitCount();
+    long misses = _secMaster.getResultCacheMissCount();
+    _secMaster.get(oid, VersionCorrection.LATEST);
+    _secMaster.get(oid, VersionCorrection.ofVersionAsOf(_version1Instant.plusSeconds(5)));
+    assertEquals(hits, _secMaster.getResultCacheHitCount());
+    assertEquals(misses, _secMaster.getResultCacheMissCount());
+    assertEquals(0, _secMaster.getResultCacheObjectCount());
+  }
+
+  @Test
+  public void test_correct_invalidates() {
+    Instant now = Instant.now(_secMaster.getTimeSource());
+    UniqueId uniqueId = UniqueId.of("DbSec", "101", "0");
+    SecurityDocument base = _secMaster.get(uniqueId);
+    assertEquals(null, base.getCorrectionToInstant());
+    
+    ManageableSecurity security = new ManageableSecurity(uniqueId, "Name", "Type", ExternalIdBundle.of("A", "B"));
+    _secMaster.correct(new SecurityDocument(security));
+    assertEquals(0, _secMaster.getResultCacheObjectCount());
+    
+    SecurityDocument old = _secMaster.get(uniqueId);
+    assertEquals(now, old.getCorrectionToInstant());  // not the cached document
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void test_update_checksLatestVersionInDatabase() {
+    UniqueId uniqueId = UniqueId.of("DbSec", "101", "0");
+    _secMaster.get(uniqueId);
+    
+    // another master writing to the same database, whose change event is not received
+    DbSecurityMaster other = new DbSecurityMaster(_secMaster.getDbConnector());
+    other.setDetailProvider(_secMaster.getDetailProvider());
+    other.update(new SecurityDocument(new ManageableSecurity(uniqueId, "Other", "Type", ExternalIdBundle.of("A", "B"))));
+    assertEquals(1, _secMaster.getResultCacheObjectCount());
+    
+    _secMaster.update(new SecurityDocument(new ManageableSecurity(uniqueId, "Name", "Type", ExternalIdBundle.of("A", "B"))));
+  }
+
+  @Test
+  public void test_changeEvent_invalidates() {
+    UniqueId uniqueId = UniqueId.of("DbSec", "101", "0");
+    _secMaster.get(uniqueId);
+    assertEquals(1, _secMaster.getResultCacheObjectCount());
+    
+    // as sent by another master writing to the same database
+    _secMaster.changeManager().entityChanged(ChangeType.CORRECTED, uniqueId, UniqueId.of("DbSec", "101", "1"), Instant.now());
+    assertEquals(0, _secMaster.getResultCacheObjectCount());
+  }
+
+  @Test
+  public void test_changeEvent_invalidates_afterChangeManagerReplaced() {
+    ChangeManager original = _secMaster.getChangeManager();
+    ChangeManager replacement = new BasicChangeManager();
+    _secMaster.setChangeManager(replacement);
+    try {
+      UniqueId uniqueId = UniqueId.of("DbSec", "101", "0");
+      _secMaster.get(uniqueId);
+      original.entityChanged(ChangeType.CORRECTED, uniqueId, UniqueId.of("DbSec", "101", "1"), Instant.now());
+      assertEquals(1, _secMaster.getResultCacheObjectCount());
+      replacement.entityChanged(ChangeType.CORRECTED, uniqueId, UniqueId.of("DbSec", "101", "1"), Instant.now());
+      assertEquals(0, _secMaster.getResultCacheObjectCount());
+    } finally {
+      _secMaster.setChangeManager(original);
+    }
+  }
+
+  @Test
+  public void test_clearResultCache() {
+    _secMaster.get(UniqueId.of("DbSec", "101", "0"));
+    assertEquals(1, _secMaster.getResultCacheObjectCount());
+    _secMaster.clearResultCache();
+    assertEquals(0, _secMaster.getResultCacheObjectCount());
+  }
+
+}
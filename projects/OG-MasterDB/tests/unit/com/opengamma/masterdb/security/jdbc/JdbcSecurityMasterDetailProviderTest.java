@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.masterdb.security.jdbc;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Factory;
+import org.testng.annotations.Test;
+
+import com.opengamma.masterdb.DbMasterTestUtils;
+import com.opengamma.masterdb.security.DbSecurityMaster;
+import com.opengamma.masterdb.security.SecurityMasterDetailProvider;
+import com.opengamma.masterdb.security.SecurityMasterTestCase;
+import com.opengamma.masterdb.security.hibernate.HibernateSecurityMasterDetailProvider;
+import com.opengamma.util.test.DbTest;
+
+/**
+ * Test {@link JdbcSecurityMasterDetailProvider}.
+ * <p>
+ * Securities are stored through Hibernate and read back through JDBC, checking the round trip
+ * gives back the original security.
+ */
+public class JdbcSecurityMasterDetailProviderTest extends DbTest {
+
+  /** Logger. */
+  private static final Logger s_logger = LoggerFactory.getLogger(JdbcSecurityMasterDetailProviderTest.class);
+
+  private DbSecurityMaster _secMaster;
+  private SecurityMasterDetailProvider _original;
+  private JdbcSecurityMasterDetailProvider _provider;
+  private SecurityMasterTestCase _testCase;
+
+  @Factory(dataProvider = "databases", dataProviderClass = DbTest.class)
+  public JdbcSecurityMasterDetailProviderTest(String databaseType, String databaseVersion) {
+    super(databaseType, databaseVersion, databaseVersion);
+    s_logger.info("running test for database={}", databaseType);
+  }
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    super.setUp();
+    ConfigurableApplicationContext context = DbMasterTestUtils.getContext(getDatabaseType());
+    _secMaster = (DbSecurityMaster) context.getBean(getDatabaseType() + "DbSecurityMaster");
+    _original = _secMaster.getDetailProvider();
+    _provider = new JdbcSecurityMasterDetailProvider();
+    _secMaster.setDetailProvider(_provider);
+    _testCase = new SecurityMasterTestCase(_secMaster);
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    _secMaster.setDetailProvider(_original);
+    super.tearDown();
+  }
+
+  @AfterSuite
+  public static void closeAfterSuite() {
+    DbMasterTestUtils.closeAfterSuite();
+  }
+
+  //-------------------------------------------------------------------------
+  @Test
+  public void test_loadedByJdbc() {
+    assertTrue(_provider.isLoadedByJdbc("EQUITY"));
+    assertTrue(_provider.isLoadedByJdbc("Bond"));
+    assertTrue(_provider.isLoadedByJdbc("CASH"));
+    assertTrue(_provider.isLoadedByJdbc("FRA"));
+    assertTrue(_provider.isLoadedByJdbc("FUTURE"));
+    assertTrue(_provider.isLoadedByJdbc("EQUITY_BARRIER_OPTION"));
+    assertFalse(_provider.isLoadedByJdbc("SWAP"));
+  }
+
+  @Test
+  public void test_equity() {
+    _testCase.testEquitySecurity();
+  }
+
+  @Test
+  public void test_cash() {
+    _testCase.testCashSecurity();
+  }
+
+  @Test
+  public void test_fra() {
+    _testCase.testFRASecurity();
+  }
+
+  @Test
+  public void test_corporateBond() {
+    _testCase.testCorporateBondSecurity();
+  }
+
+  @Test
+  public void test_governmentBond() {
+    _testCase.testGovernmentBondSecurity();
+  }
+
+  @Test
+  public void test_municipalBond() {
+    _testCase.testMunicipalBondSecurity();
+  }
+
+  @Test
+  public void test_equityBarrierOption() {
+    _testCase.testEquityBarrierOptionSecurity();
+  }
+
+  @Test
+  public void test_agricultureFuture() {
+    _testCase.testAgricultureFutureSecurity();
+  }
+
+  @Test
+  public void test_bondFuture() {
+    _testCase.testBondFutureSecurity();
+  }
+
+  @Test
+  public void test_energyFuture() {
+    _testCase.testEnergyFutureSecurity();
+  }
+
+  @Test
+  public void test_fxFuture() {
+    _testCase.testFXFutureSecurity();
+  }
+
+  @Test
+  public void test_indexFuture() {
+    _testCase.testIndexFutureSecurity();
+  }
+
+  @Test
+  public void test_interestRateFuture() {
+    _testCase.testInterestRateFutureSecurity();
+  }
+
+  @Test
+  public void test_metalFuture() {
+    _testCase.testMetalFutureSecurity();
+  }
+
+  @Test
+  public void test_stockFuture() {
+    _testCase.testStockFutureSecurity();
+  }
+
+  @Test
+  public void test_fallback() {
+    _testCase.testSwapSecurity();
+    assertEquals(HibernateSecurityMasterDetailProvider.class, _provider.getUnderlying().getClass());
+  }
+
+}
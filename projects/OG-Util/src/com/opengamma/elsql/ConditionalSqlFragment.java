@@ -72,6 +72,16 @@ abstract class ConditionalSqlFragment extends ContainerSqlFragment {
     return true;
   }
 
+  @Override
+  protected void appendShape(StringBuilder shape, ElSqlBundle bundle, SqlParameterSource paramSource) {
+    if (isMatch(paramSource)) {
+      shape.append('1');
+      super.appendShape(shape, bundle, paramSource);
+    } else {
+      shape.append('0');
+    }
+  }
+
   protected boolean endsWith(StringBuilder buf, String match) {
     String str = (buf.length() >= match.length() ? buf.substring(buf.length() - match.length()) : "");
     return str.equals(match);
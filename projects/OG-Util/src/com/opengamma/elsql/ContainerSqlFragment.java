@@ -54,6 +54,13 @@ class ContainerSqlFragment extends SqlFragment {
     }
   }
 
+  @Override
+  protected void appendShape(StringBuilder shape, ElSqlBundle bundle, SqlParameterSource paramSource) {
+    for (SqlFragment fragment : _fragments) {
+      fragment.appendShape(shape, bundle, paramSource);
+    }
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public String toString() {
@@ -11,6 +11,8 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.io.IOUtils;
 import org.springframework.core.io.ClassPathResource;
@@ -26,10 +28,19 @@ import com.opengamma.util.ArgumentChecker;
  * The bundle encapsulates the SQL needed for a particular feature.
  * This will typically correspond to a data access object, or set of related tables.
  * <p>
+ * The SQL generated for each combination of name and parameter shape is cached.
+ * The shape is the part of the parameters that affects the generated SQL, such as whether
+ * an {@code @IF} matches, rather than the values bound into the statement.
+ * <p>
  * This class is immutable and thread-safe.
  */
 public final class ElSqlBundle {
 
+  /**
+   * The maximum number of generated SQL statements to cache.
+   */
+  private static final int MAX_CACHED_SQL = 1000;
+
   /**
    * The map of known elsql.
    */
@@ -38,6 +49,10 @@ public final class ElSqlBundle {
    * The config.
    */
   private final ElSqlConfig _config;
+  /**
+   * The generated SQL, keyed by name and parameter shape.
+   */
+  private final ConcurrentMap<String, String> _sqlCache = new ConcurrentHashMap<String, String>();
 
   /**
    * Loads external SQL based for the specified type.
@@ -177,9 +192,21 @@ public final class ElSqlBundle {
    */
   public String getSql(String name, SqlParameterSource paramSource) {
     NameSqlFragment fragment = getFragment(name);
-    StringBuilder buf = new StringBuilder(1024);
-    fragment.toSQL(buf, this, paramSource);
-    return buf.toString();
+    StringBuilder shape = new StringBuilder(64).append(name.length()).append(':').append(name);
+    fragment.appendShape(shape, this, paramSource);
+    String key = shape.toString();
+    String sql = _sqlCache.get(key);
+    if (sql == null) {
+      StringBuilder buf = new StringBuilder(1024);
+      fragment.toSQL(buf, this, paramSource);
+      sql = buf.toString();
+      if (_sqlCache.size() >= MAX_CACHED_SQL) {
+        // shapes that include values, such as inlined identifier lists, can be unbounded
+        _sqlCache.clear();
+      }
+      _sqlCache.put(key, sql);
+    }
+    return sql;
   }
 
   //-------------------------------------------------------------------------
@@ -53,6 +53,16 @@ final class IncludeSqlFragment extends SqlFragment {
     }
   }
 
+  @Override
+  protected void appendShape(StringBuilder shape, ElSqlBundle bundle, SqlParameterSource paramSource) {
+    if (_includeKey.startsWith(":")) {
+      String value = String.valueOf(paramSource.getValue(_includeKey.substring(1)));
+      shape.append(value.length()).append(':').append(value);
+    } else {
+      bundle.getFragment(_includeKey).appendShape(shape, bundle, paramSource);
+    }
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public String toString() {
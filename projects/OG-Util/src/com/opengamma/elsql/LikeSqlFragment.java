@@ -59,6 +59,13 @@ final class LikeSqlFragment extends ContainerSqlFragment {
     }
   }
 
+  @Override
+  protected void appendShape(StringBuilder shape, ElSqlBundle bundle, SqlParameterSource paramSource) {
+    String value = ObjectUtils.toString(paramSource.getValue(_variable));
+    shape.append(bundle.getConfig().isLikeWildcard(value) ? 'L' : '=');
+    super.appendShape(shape, bundle, paramSource);
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public String toString() {
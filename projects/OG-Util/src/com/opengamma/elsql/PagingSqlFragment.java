@@ -54,17 +54,31 @@ final class PagingSqlFragment extends ContainerSqlFragment {
    * @param paramSource  the SQL parameters, not null
    */
   protected String applyPaging(String selectToPage, ElSqlBundle bundle, SqlParameterSource paramSource) {
-    int offset = 0;
-    int fetchLimit = 0;
+    int offset = getOffset(paramSource);
+    int fetchLimit = getFetchLimit(paramSource);
+    return bundle.getConfig().addPaging(selectToPage, offset, fetchLimit == Integer.MAX_VALUE ? 0 : fetchLimit);
+  }
+
+  @Override
+  protected void appendShape(StringBuilder shape, ElSqlBundle bundle, SqlParameterSource paramSource) {
+    shape.append('[').append(getOffset(paramSource)).append(',').append(getFetchLimit(paramSource)).append(']');
+    super.appendShape(shape, bundle, paramSource);
+  }
+
+  private int getOffset(SqlParameterSource paramSource) {
     if (_offsetVariable != null && paramSource.hasValue(_offsetVariable)) {
-      offset = ((Number) paramSource.getValue(_offsetVariable)).intValue();
+      return ((Number) paramSource.getValue(_offsetVariable)).intValue();
     }
+    return 0;
+  }
+
+  private int getFetchLimit(SqlParameterSource paramSource) {
     if (paramSource.hasValue(_fetchVariable)) {
-      fetchLimit = ((Number) paramSource.getValue(_fetchVariable)).intValue();
+      return ((Number) paramSource.getValue(_fetchVariable)).intValue();
     } else if (StringUtils.containsOnly(_fetchVariable, "0123456789")) {
-      fetchLimit = Integer.parseInt(_fetchVariable);
+      return Integer.parseInt(_fetchVariable);
     }
-    return bundle.getConfig().addPaging(selectToPage, offset, fetchLimit == Integer.MAX_VALUE ? 0 : fetchLimit);
+    return 0;
   }
 
   //-------------------------------------------------------------------------
@@ -21,4 +21,17 @@ abstract class SqlFragment {
    */
   protected abstract void toSQL(StringBuilder buf, ElSqlBundle bundle, SqlParameterSource paramSource);
 
+  /**
+   * Appends the parts of the parameters that affect the SQL generated by this fragment.
+   * <p>
+   * Two sets of parameters that append the same shape generate the same SQL, allowing the
+   * SQL to be cached. Plain text does not depend on the parameters so appends nothing.
+   * 
+   * @param shape  the buffer to append to, not null
+   * @param bundle  the elsql bundle for context, not null
+   * @param paramSource  the SQL parameters, not null
+   */
+  protected void appendShape(StringBuilder shape, ElSqlBundle bundle, SqlParameterSource paramSource) {
+  }
+
 }
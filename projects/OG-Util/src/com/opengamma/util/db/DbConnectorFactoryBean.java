@@ -73,6 +73,12 @@ public class DbConnectorFactoryBean extends SingletonFactoryBean<DbConnector> {
    * The Hibernate configuration to show the SQL.
    */
   private boolean _hibernateShowSql;
+  /**
+   * The Hibernate configuration for the default number of lazy associations and collections to fetch in one query.
+   * This applies to every mapping in the session factory so is off by default, mappings which need batch fetching
+   * should declare their own batch size.
+   */
+  private int _hibernateBatchFetchSize;
   /**
    * Set to true if you want to use Hibernate thread-bound auto-create sessions 
    */
@@ -188,6 +194,14 @@ public class DbConnectorFactoryBean extends SingletonFactoryBean<DbConnector> {
     _hibernateShowSql = hibernateShowSql;
   }
 
+  public int getHibernateBatchFetchSize() {
+    return _hibernateBatchFetchSize;
+  }
+
+  public void setHibernateBatchFetchSize(int hibernateBatchFetchSize) {
+    _hibernateBatchFetchSize = hibernateBatchFetchSize;
+  }
+
   public boolean isAllowHibernateThreadBoundSession() {
     return _allowHibernateThreadBoundSession;
   }
@@ -305,6 +319,9 @@ public class DbConnectorFactoryBean extends SingletonFactoryBean<DbConnector> {
       props.setProperty("hibernate.dialect", dialect.getHibernateDialect().getClass().getName());
       props.setProperty("hibernate.show_sql", String.valueOf(isHibernateShowSql()));
       props.setProperty("hibernate.connection.release_mode", "on_close");
+      if (getHibernateBatchFetchSize() > 1) {
+        props.setProperty(Environment.DEFAULT_BATCH_FETCH_SIZE, String.valueOf(getHibernateBatchFetchSize()));
+      }
       if (isAllowHibernateThreadBoundSession()) {
         props.setProperty(Environment.CURRENT_SESSION_CONTEXT_CLASS, "thread");
         props.setProperty(Environment.TRANSACTION_STRATEGY, "org.hibernate.transaction.JDBCTransactionFactory");
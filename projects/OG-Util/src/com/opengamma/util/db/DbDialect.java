@@ -203,6 +203,20 @@ public abstract class DbDialect {
     return "SELECT NEXT VALUE FOR " + sequenceName;
   }
 
+  /**
+   * Builds SQL to query a number of values from a sequence in one statement.
+   * <p>
+   * The query returns one row for each value.
+   * Dialects that cannot do this return null and the sequence is queried once per value.
+   * 
+   * @param sequenceName  the sequence name, not null
+   * @param count  the number of values to query, one or greater
+   * @return the SQL, not space terminated, null if not supported
+   */
+  public String sqlNextSequenceValuesSelect(final String sequenceName, final int count) {
+    return null;
+  }
+
   /**
    * Builds SQL to query a sequence (typically created with CREATE SEQUENCE).
    * 
@@ -8,6 +8,8 @@ package com.opengamma.util.paging;
 import java.util.Collection;
 import java.util.NoSuchElementException;
 
+import org.apache.commons.lang.ObjectUtils;
+
 import com.opengamma.util.ArgumentChecker;
 
 /**
@@ -16,6 +18,9 @@ import com.opengamma.util.ArgumentChecker;
  * This class is the result of using {@link PagingRequest} to obtain an indexed subset of results.
  * This may represent traditional fixed paging or arbitrary paging starting from an index.
  * <p>
+ * When the request paged by key, the result holds the key to request the next page with instead
+ * of an index, see {@link #ofKeyset(PagingRequest, int, String)}.
+ * <p>
  * This class is immutable and thread-safe.
  */
 public final class Paging {
@@ -28,6 +33,10 @@ public final class Paging {
    * The total number of items.
    */
   private final int _totalItems;
+  /**
+   * The key to request the next page with, null if not paging by key or if this is the last page.
+   */
+  private final String _nextKey;
 
   /**
    * Creates an instance from a paging request and total number of items.
@@ -71,6 +80,22 @@ public final class Paging {
     return new Paging(pagingRequest, coll.size());
   }
 
+  /**
+   * Creates an instance from a keyset paging request.
+   * <p>
+   * The total number of items is that of the complete result set, not only of those after the key.
+   * 
+   * @param pagingRequest  the keyset paging request to base the result on, not null
+   * @param totalItems  the total number of items
+   * @param nextKey  the key of the last item returned, null if this is the last page
+   * @return the created paging, not null
+   */
+  public static Paging ofKeyset(final PagingRequest pagingRequest, final int totalItems, final String nextKey) {
+    ArgumentChecker.notNull(pagingRequest, "pagingRequest");
+    ArgumentChecker.isTrue(pagingRequest.isKeyset(), "pagingRequest must be a keyset request");
+    return new Paging(pagingRequest, totalItems, nextKey);
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Creates an instance.
@@ -79,10 +104,22 @@ public final class Paging {
    * @param totalItems  the total number of items, zero or greater
    */
   private Paging(final PagingRequest pagingRequest, final int totalItems) {
+    this(pagingRequest, totalItems, null);
+  }
+
+  /**
+   * Creates an instance.
+   * 
+   * @param pagingRequest  the request, not null
+   * @param totalItems  the total number of items, zero or greater
+   * @param nextKey  the key of the next page, null if none
+   */
+  private Paging(final PagingRequest pagingRequest, final int totalItems, final String nextKey) {
     ArgumentChecker.notNull(pagingRequest, "pagingRequest");
     ArgumentChecker.notNegative(totalItems, "totalItems");
     _request = pagingRequest;
     _totalItems = totalItems;
+    _nextKey = nextKey;
   }
 
   //-------------------------------------------------------------------------
@@ -109,6 +146,26 @@ public final class Paging {
     return _totalItems;
   }
 
+  /**
+   * Gets the key to request the next page with when paging by key.
+   * 
+   * @return the key, null if not paging by key or if this is the last page
+   */
+  public String getNextKey() {
+    return _nextKey;
+  }
+
+  /**
+   * Checks whether the request paged by key rather than by index.
+   * <p>
+   * The first item and page number of a keyset result are not known and are reported as the first page.
+   * 
+   * @return true if paging by key
+   */
+  public boolean isKeyset() {
+    return getRequest().isKeyset();
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Gets the first item, using a zero-based index.
@@ -199,6 +256,9 @@ public final class Paging {
    */
   public boolean isNextPage() {
     checkPaging();
+    if (isKeyset()) {
+      return _nextKey != null;
+    }
     return getPageNumber() < getTotalPages();
   }
 
@@ -211,6 +271,9 @@ public final class Paging {
    */
   public boolean isLastPage() {
     checkPaging();
+    if (isKeyset()) {
+      return _nextKey == null;
+    }
     return getPageNumber() == getTotalPages();
   }
 
@@ -223,6 +286,9 @@ public final class Paging {
    */
   public boolean isPreviousPage() {
     checkPaging();
+    if (isKeyset()) {
+      return getRequest().getAfterKey() != null;
+    }
     return getPageNumber() > 1;
   }
 
@@ -235,6 +301,9 @@ public final class Paging {
    */
   public boolean isFirstPage() {
     checkPaging();
+    if (isKeyset()) {
+      return getRequest().getAfterKey() == null;
+    }
     return getPageNumber() == 1;
   }
 
@@ -243,6 +312,7 @@ public final class Paging {
    * Converts this object to a {@code PagingRequest} for the same page.
    * <p>
    * This can convert an index-based original request into a page-based one.
+   * A keyset request is returned unchanged.
    * 
    * @return the request for the same page, not null
    */
@@ -250,6 +320,9 @@ public final class Paging {
     if (isSizeOnly()) {
       return PagingRequest.NONE;
     }
+    if (isKeyset()) {
+      return getRequest();
+    }
     return PagingRequest.ofPage(getPageNumber(), getPagingSize());
   }
 
@@ -265,6 +338,9 @@ public final class Paging {
     if (isLastPage()) {
       throw new NoSuchElementException("Unable to return next page as this is the last page");
     }
+    if (isKeyset()) {
+      return PagingRequest.ofKeyset(_nextKey, getPagingSize());
+    }
     return PagingRequest.ofPage(getPageNumber() + 1, getPagingSize());
   }
 
@@ -274,9 +350,13 @@ public final class Paging {
    * @return the request for the previous page, not null
    * @throws IllegalStateException if insufficient information was requested - PagingRequest.NONE
    * @throws NoSuchElementException if there are no more pages
+   * @throws UnsupportedOperationException if paging by key
    */
   public PagingRequest previousPagingRequest() {
     checkPaging();
+    if (isKeyset()) {
+      throw new UnsupportedOperationException("Unable to return previous page when paging by key");
+    }
     if (isFirstPage()) {
       throw new NoSuchElementException("Unable to return previous page as this is the first page");
     }
@@ -299,18 +379,23 @@ public final class Paging {
   public boolean equals(Object obj) {
     if (obj instanceof Paging) {
       Paging other = (Paging) obj;
-      return _request.equals(other._request) && _totalItems == other._totalItems;
+      return _request.equals(other._request) && _totalItems == other._totalItems &&
+          ObjectUtils.equals(_nextKey, other._nextKey);
     }
     return false;
   }
 
   @Override
   public int hashCode() {
-    return _request.hashCode() ^ _totalItems;
+    return _request.hashCode() ^ _totalItems ^ ObjectUtils.hashCode(_nextKey);
   }
 
   @Override
   public String toString() {
+    if (isKeyset()) {
+      return getClass().getSimpleName() + "[after=" + getRequest().getAfterKey() + ", size=" + getPagingSize() +
+          ", totalItems=" + _totalItems + ", next=" + _nextKey + "]";
+    }
     return getClass().getSimpleName() + "[first=" + getFirstItem() + ", size=" + getPagingSize() + ", totalItems=" + _totalItems + "]";
   }
 
@@ -26,6 +26,12 @@ public final class PagingFudgeBuilder extends AbstractFudgeBuilder implements Fu
   public static final String SIZE_FIELD_NAME = "size";
   /** Field name. */
   public static final String TOTAL_FIELD_NAME = "total";
+  /** Field name. */
+  public static final String KEYSET_FIELD_NAME = "keyset";
+  /** Field name. */
+  public static final String AFTER_FIELD_NAME = "after";
+  /** Field name. */
+  public static final String NEXT_FIELD_NAME = "next";
 
   //-------------------------------------------------------------------------
   @Override
@@ -48,6 +54,11 @@ public final class PagingFudgeBuilder extends AbstractFudgeBuilder implements Fu
     addToMessage(msg, FIRST_FIELD_NAME, object.getRequest().getFirstItem());
     addToMessage(msg, SIZE_FIELD_NAME, object.getRequest().getPagingSize());
     addToMessage(msg, TOTAL_FIELD_NAME, object.getTotalItems());
+    if (object.isKeyset()) {
+      addToMessage(msg, KEYSET_FIELD_NAME, Boolean.TRUE);
+      addToMessage(msg, AFTER_FIELD_NAME, object.getRequest().getAfterKey());
+      addToMessage(msg, NEXT_FIELD_NAME, object.getNextKey());
+    }
   }
 
   //-------------------------------------------------------------------------
@@ -63,6 +74,11 @@ public final class PagingFudgeBuilder extends AbstractFudgeBuilder implements Fu
     final int first = msg.getInt(FIRST_FIELD_NAME);
     final int size = msg.getInt(SIZE_FIELD_NAME);
     final int total = msg.getInt(TOTAL_FIELD_NAME);
+    if (Boolean.TRUE.equals(msg.getBoolean(KEYSET_FIELD_NAME))) {
+      final String after = msg.getString(AFTER_FIELD_NAME);
+      final String next = msg.getString(NEXT_FIELD_NAME);
+      return Paging.ofKeyset(PagingRequest.ofKeyset(after, size), total, next);
+    }
     return Paging.of(PagingRequest.ofIndex(first, size), total);
   }
 
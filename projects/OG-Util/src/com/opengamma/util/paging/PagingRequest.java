@@ -8,6 +8,8 @@ package com.opengamma.util.paging;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.commons.lang.ObjectUtils;
+
 import com.opengamma.util.ArgumentChecker;
 import com.opengamma.util.PublicAPI;
 
@@ -17,6 +19,8 @@ import com.opengamma.util.PublicAPI;
  * This class is follows the design of SQL OFFSET and FETCH/LIMIT, exposed as a first-item/size data model.
  * This can be used to implement traditional fixed paging or arbitrary paging starting from an index.
  * <p>
+ * Alternatively, a request can page by key, see {@link #ofKeyset(String, int)}.
+ * <p>
  * This class is immutable and thread-safe.
  */
 @PublicAPI
@@ -51,6 +55,14 @@ public final class PagingRequest {
    * The requested number of items.
    */
   private final int _size;
+  /**
+   * Whether the request pages by key.
+   */
+  private final boolean _keyset;
+  /**
+   * The key of the last item of the previous page, null for the first page or when not paging by key.
+   */
+  private final String _afterKey;
 
   /**
    * Obtains an instance based on a zero-based index and requested size.
@@ -85,6 +97,23 @@ public final class PagingRequest {
     return new PagingRequest(index, pagingSize);
   }
 
+  /**
+   * Obtains an instance that pages by key rather than by index.
+   * <p>
+   * Keyset paging selects the items that sort after the last item of the previous page, rather than
+   * skipping a number of items, so that a late page of a large result is as quick to fetch as the first.
+   * The key is opaque to the caller and is obtained from {@link Paging#getNextKey()} of the previous page.
+   * Only searches ordered by a unique key, such as the object identifier, support keyset paging.
+   * 
+   * @param afterKey  the key of the last item of the previous page, null for the first page
+   * @param pagingSize  the paging size, zero or greater
+   * @return the paging request, not null
+   * @throws IllegalArgumentException if the size is invalid
+   */
+  public static PagingRequest ofKeyset(String afterKey, int pagingSize) {
+    return new PagingRequest(0, pagingSize, true, afterKey);
+  }
+
   /**
    * Obtains an instance based on a page and paging size, applying default values.
    * <p>
@@ -114,10 +143,25 @@ public final class PagingRequest {
    * @throws IllegalArgumentException if either input is invalid
    */
   private PagingRequest(final int index, final int size) {
+    this(index, size, false, null);
+  }
+
+  /**
+   * Creates an instance without using defaults.
+   * 
+   * @param index  the zero-based start index, zero or greater
+   * @param size  the number of items to request, zero or greater
+   * @param keyset  whether to page by key
+   * @param afterKey  the key of the last item of the previous page, null for the first page
+   * @throws IllegalArgumentException if either input is invalid
+   */
+  private PagingRequest(final int index, final int size, final boolean keyset, final String afterKey) {
     ArgumentChecker.notNegative(index, "index");
     ArgumentChecker.notNegative(size, "size");
     _index = (size != 0 ? index : 0);
     _size = size;
+    _keyset = keyset;
+    _afterKey = afterKey;
   }
 
   //-------------------------------------------------------------------------
@@ -143,6 +187,26 @@ public final class PagingRequest {
     return _size;
   }
 
+  /**
+   * Checks whether this request pages by key rather than by index.
+   * <p>
+   * The first item index of a keyset request is always zero.
+   * 
+   * @return true if paging by key
+   */
+  public boolean isKeyset() {
+    return _keyset;
+  }
+
+  /**
+   * Gets the key of the last item of the previous page when paging by key.
+   * 
+   * @return the key, null for the first page or when not paging by key
+   */
+  public String getAfterKey() {
+    return _afterKey;
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Gets the first item, using a one-based index.
@@ -199,18 +263,22 @@ public final class PagingRequest {
   public boolean equals(Object obj) {
     if (obj instanceof PagingRequest) {
       PagingRequest other = (PagingRequest) obj;
-      return _index == other._index && _size == other._size;
+      return _index == other._index && _size == other._size &&
+          _keyset == other._keyset && ObjectUtils.equals(_afterKey, other._afterKey);
     }
     return false;
   }
 
   @Override
   public int hashCode() {
-    return _index << 16 + _size;
+    return (_index << 16 + _size) ^ ObjectUtils.hashCode(_afterKey);
   }
 
   @Override
   public String toString() {
+    if (_keyset) {
+      return getClass().getSimpleName() + "[after=" + _afterKey + ", size=" + _size + "]";
+    }
     return getClass().getSimpleName() + "[first=" + _index + ", size=" + _size + "]";
   }
 
@@ -24,6 +24,10 @@ public final class PagingRequestFudgeBuilder extends AbstractFudgeBuilder implem
   public static final String FIRST_FIELD_NAME = "first";
   /** Field name. */
   public static final String SIZE_FIELD_NAME = "size";
+  /** Field name. */
+  public static final String KEYSET_FIELD_NAME = "keyset";
+  /** Field name. */
+  public static final String AFTER_FIELD_NAME = "after";
 
   //-------------------------------------------------------------------------
   @Override
@@ -45,6 +49,10 @@ public final class PagingRequestFudgeBuilder extends AbstractFudgeBuilder implem
   public static void toFudgeMsg(final FudgeSerializer serializer, final PagingRequest object, final MutableFudgeMsg msg) {
     addToMessage(msg, FIRST_FIELD_NAME, object.getFirstItem());
     addToMessage(msg, SIZE_FIELD_NAME, object.getPagingSize());
+    if (object.isKeyset()) {
+      addToMessage(msg, KEYSET_FIELD_NAME, Boolean.TRUE);
+      addToMessage(msg, AFTER_FIELD_NAME, object.getAfterKey());
+    }
   }
 
   //-------------------------------------------------------------------------
@@ -59,6 +67,9 @@ public final class PagingRequestFudgeBuilder extends AbstractFudgeBuilder implem
     }
     final int first = msg.getInt(FIRST_FIELD_NAME);
     final int size = msg.getInt(SIZE_FIELD_NAME);
+    if (Boolean.TRUE.equals(msg.getBoolean(KEYSET_FIELD_NAME))) {
+      return PagingRequest.ofKeyset(msg.getString(AFTER_FIELD_NAME), size);
+    }
     return PagingRequest.ofIndex(first, size);
   }
 
@@ -628,6 +628,28 @@ public class ElSqlBundleTest {
     assertEquals("SELECT * FROM foo WHERE var = :var OR vax = :vax ", sql1);
   }
 
+  //-------------------------------------------------------------------------
+  public void test_cachedByShape() {
+    List<String> lines = Arrays.asList(
+        "@NAME(Test1)",
+        "  SELECT * FROM @INCLUDE(:table)",
+        "  WHERE TRUE",
+        "    @AND(:var)",
+        "      var @LIKE :var",
+        "  @OFFSETFETCH(:offset, :fetch)"
+    );
+    ElSqlBundle bundle = ElSqlBundle.parse(lines);
+    MapSqlParameterSource params = new MapSqlParameterSource("table", "foo").addValue("var", "val").addValue("offset", 0).addValue("fetch", 10);
+    assertEquals("SELECT * FROM foo WHERE TRUE AND var = :var FETCH FIRST 10 ROWS ONLY ", bundle.getSql("Test1", params));
+    params.addValue("var", "va%");
+    assertEquals("SELECT * FROM foo WHERE TRUE AND var LIKE :var FETCH FIRST 10 ROWS ONLY ", bundle.getSql("Test1", params));
+    params.addValue("var", "other");
+    assertEquals("SELECT * FROM foo WHERE TRUE AND var = :var FETCH FIRST 10 ROWS ONLY ", bundle.getSql("Test1", params));
+    params.addValue("table", "bar").addValue("offset", 20);
+    assertEquals("SELECT * FROM bar WHERE TRUE AND var = :var OFFSET 20 ROWS FETCH NEXT 10 ROWS ONLY ", bundle.getSql("Test1", params));
+    assertEquals("SELECT * FROM foo WHERE TRUE ", bundle.getSql("Test1", new MapSqlParameterSource("table", "foo").addValue("fetch", 0)));
+  }
+
   //-------------------------------------------------------------------------
   @Test(expectedExceptions = IllegalArgumentException.class)
   public void test_topLevelNotName1() {
@@ -36,6 +36,10 @@ public class HSQLDbDialectTest extends DbDialectTest {
   public void test_sqlNextSequenceValueSelect() {
     assertEquals("CALL NEXT VALUE FOR MySeq", _dialect.sqlNextSequenceValueSelect("MySeq"));
   }
+
+  public void test_sqlNextSequenceValuesSelect() {
+    assertEquals(null, _dialect.sqlNextSequenceValuesSelect("MySeq", 5));
+  }
   
   //-------------------------------------------------------------------------
   public void test_sqlWildcardQuery() {
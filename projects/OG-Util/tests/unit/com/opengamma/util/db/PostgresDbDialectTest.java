@@ -37,6 +37,10 @@ public class PostgresDbDialectTest extends DbDialectTest {
     assertEquals("SELECT nextval('MySeq')", _dialect.sqlNextSequenceValueSelect("MySeq"));
   }
 
+  public void test_sqlNextSequenceValuesSelect() {
+    assertEquals("SELECT nextval('MySeq') FROM generate_series(1, 5)", _dialect.sqlNextSequenceValuesSelect("MySeq", 5));
+  }
+
   public void test_sqlNextSequenceValueInline() {
     assertEquals("nextval('MySeq')", _dialect.sqlNextSequenceValueInline("MySeq"));
   }
@@ -20,4 +20,9 @@ public class PagingFudgeEncodingTest extends AbstractFudgeBuilderTestCase {
     assertEncodeDecodeCycle(Paging.class, object);
   }
 
+  public void test_keyset() {
+    Paging object = Paging.ofKeyset(PagingRequest.ofKeyset("100", 20), 210, "120");
+    assertEncodeDecodeCycle(Paging.class, object);
+  }
+
 }
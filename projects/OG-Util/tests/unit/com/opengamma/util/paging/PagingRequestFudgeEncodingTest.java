@@ -20,4 +20,9 @@ public class PagingRequestFudgeEncodingTest extends AbstractFudgeBuilderTestCase
     assertEncodeDecodeCycle(PagingRequest.class, object);
   }
 
+  public void test_keyset() {
+    PagingRequest object = PagingRequest.ofKeyset("100", 20);
+    assertEncodeDecodeCycle(PagingRequest.class, object);
+  }
+
 }
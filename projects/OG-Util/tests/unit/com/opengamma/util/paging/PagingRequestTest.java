@@ -74,6 +74,19 @@ public final class PagingRequestTest {
     assertEquals(0, PagingRequest.ofPage(2, 0).getPagingSize());
   }
 
+  public void test_ofKeyset() {
+    PagingRequest test = PagingRequest.ofKeyset("123", 10);
+    assertEquals(true, test.isKeyset());
+    assertEquals("123", test.getAfterKey());
+    assertEquals(0, test.getFirstItem());
+    assertEquals(10, test.getPagingSize());
+    assertEquals(false, PagingRequest.ofPage(1, 10).isKeyset());
+    assertEquals(false, test.equals(PagingRequest.ofPage(1, 10)));
+    assertEquals(false, test.equals(PagingRequest.ofKeyset("124", 10)));
+    assertEquals(test, PagingRequest.ofKeyset("123", 10));
+    assertEquals("PagingRequest[after=123, size=10]", test.toString());
+  }
+
   @Test(expectedExceptions = IllegalArgumentException.class)
   public void test_ofPage_2ints_page0() {
     PagingRequest.ofPage(0, 1);
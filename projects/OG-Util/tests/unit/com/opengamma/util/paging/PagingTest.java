@@ -203,6 +203,39 @@ public final class PagingTest {
     assertEquals(false, test2.equals(test1));
   }
 
+  //-------------------------------------------------------------------------
+  public void test_ofKeyset() {
+    Paging test = Paging.ofKeyset(PagingRequest.ofKeyset(null, 20), 52, "20");
+    assertEquals("20", test.getNextKey());
+    assertTrue(test.isKeyset());
+    assertTrue(test.isFirstPage());
+    assertFalse(test.isPreviousPage());
+    assertTrue(test.isNextPage());
+    assertEquals(PagingRequest.ofKeyset("20", 20), test.nextPagingRequest());
+  }
+
+  public void test_ofKeyset_lastPage() {
+    Paging test = Paging.ofKeyset(PagingRequest.ofKeyset("40", 20), 52, null);
+    assertTrue(test.isLastPage());
+    assertFalse(test.isFirstPage());
+    assertTrue(test.isPreviousPage());
+  }
+
+  @Test(expectedExceptions = NoSuchElementException.class)
+  public void test_ofKeyset_nextPagingRequest_lastPage() {
+    Paging.ofKeyset(PagingRequest.ofKeyset("40", 20), 52, null).nextPagingRequest();
+  }
+
+  @Test(expectedExceptions = UnsupportedOperationException.class)
+  public void test_ofKeyset_previousPagingRequest() {
+    Paging.ofKeyset(PagingRequest.ofKeyset("40", 20), 52, null).previousPagingRequest();
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void test_ofKeyset_notKeysetRequest() {
+    Paging.ofKeyset(PagingRequest.ofPage(1, 20), 52, null);
+  }
+
   //-------------------------------------------------------------------------
   public void test_hashCode_equal() {
     Paging test1 = Paging.of(PagingRequest.ofPage(1, 20), 52);
@@ -33,8 +33,8 @@ import org.slf4j.LoggerFactory;
 
 import com.opengamma.DataNotFoundException;
 import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.core.change.BatchChangeListener;
 import com.opengamma.core.change.ChangeEvent;
-import com.opengamma.core.change.ChangeListener;
 import com.opengamma.core.marketdatasnapshot.impl.ManageableMarketDataSnapshot;
 import com.opengamma.core.position.PositionSource;
 import com.opengamma.core.security.SecuritySource;
@@ -121,12 +121,17 @@ public class LiveResultsService extends BayeuxService implements ClientBayeuxLis
         viewProcessor.getViewDefinitionRepository(), userViewDefinitionRepository, userPortfolioMaster, userPositionMaster,
         portfolioAggregators.getMappedFunctions());
     _computationTargetResolver = computationTargetResolver;
-    viewProcessor.getViewDefinitionRepository().changeManager().addChangeListener(new ChangeListener() {
+    viewProcessor.getViewDefinitionRepository().changeManager().addChangeListener(new BatchChangeListener() {
 
       @Override
       public void entityChanged(ChangeEvent event) {
         sendInitData(false);
       }
+
+      @Override
+      public void entitiesChanged(List<ChangeEvent> events) {
+        sendInitData(false);
+      }
       
     });
     
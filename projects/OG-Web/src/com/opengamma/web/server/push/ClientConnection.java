@@ -25,6 +25,7 @@ import com.opengamma.id.ObjectId;
 import com.opengamma.id.UniqueId;
 import com.opengamma.util.ArgumentChecker;
 import com.opengamma.web.server.push.analytics.AnalyticsViewListener;
+import com.opengamma.web.server.push.analytics.ViewportResults;
 import com.opengamma.web.server.push.rest.MasterType;
 
 /**
@@ -32,7 +33,9 @@ import com.opengamma.web.server.push.rest.MasterType;
  * to be set up so the client is notified if an entity or the contents of a master changes.
  * The published notifications contain the REST URL of the thing that has changed.
  * All subscriptions for a URL are automatically cancelled the first time a notification is published for the URL
- * and| must be re-established every time the client accesses the URL.  This class is thread safe.
+ * and| must be re-established every time the client accesses the URL.  If the client has opened a WebSocket
+ * the notifications are sent over that and viewport data is pushed directly, otherwise the long-polling connection
+ * is used.  This class is thread safe.
  * TODO should this be package-private and everything moved into the same package?
  */
 public class ClientConnection implements ChangeListener, MasterChangeListener, AnalyticsViewListener {
@@ -49,6 +52,9 @@ public class ClientConnection implements ChangeListener, MasterChangeListener, A
   private final RestUpdateListener _listener;
   private final Object _lock = new Object();
 
+  /** Listener that pushes updates over the client's WebSocket, null if the client hasn't opened one */
+  private volatile WebSocketUpdateListener _webSocketListener;
+
   /** URLs which should be published when a master changes, keyed by the type of the master */
   private final Multimap<MasterType, String> _masterUrls = HashMultimap.create();
   /** URLs which should be published when an entity changes, keyed on the entity's ID */
@@ -91,10 +97,77 @@ public class ClientConnection implements ChangeListener, MasterChangeListener, A
     s_logger.debug("Disconnecting client connection, userId: {}, clientId: {}", _userId, _clientId);
     synchronized (_lock) {
       _timeoutTask.reset();
+      WebSocketUpdateListener webSocketListener = _webSocketListener;
+      _webSocketListener = null;
+      if (webSocketListener != null) {
+        webSocketListener.disconnect();
+      }
       // TODO need to close any views for this clientId
     }
   }
 
+  /**
+   * Invoked when the client opens a WebSocket. All subsequent updates are pushed over it until it's closed.
+   * @param listener Listener that pushes updates over the WebSocket
+   */
+  /* package */ void webSocketConnected(WebSocketUpdateListener listener) {
+    ArgumentChecker.notNull(listener, "listener");
+    s_logger.debug("WebSocket connected for client ID {}", _clientId);
+    synchronized (_lock) {
+      _timeoutTask.reset();
+      WebSocketUpdateListener previousListener = _webSocketListener;
+      _webSocketListener = listener;
+      if (previousListener != null) {
+        previousListener.disconnect();
+      }
+    }
+  }
+
+  /**
+   * Invoked when the client's WebSocket is closed. Updates are sent over the long-polling connection again.
+   * @param listener The listener for the WebSocket that was closed
+   */
+  /* package */ void webSocketDisconnected(WebSocketUpdateListener listener) {
+    s_logger.debug("WebSocket disconnected for client ID {}", _clientId);
+    synchronized (_lock) {
+      if (_webSocketListener == listener) {
+        _webSocketListener = null;
+      }
+    }
+  }
+
+  /**
+   * Invoked when the client sends a heartbeat over its WebSocket to show it's still there. Clients with a WebSocket
+   * don't make long-polling requests so they need some other way to stop the connection timing out.
+   */
+  /* package */ void heartbeat() {
+    _timeoutTask.reset();
+  }
+
+  /**
+   * @return The WebSocket listener if the client has an open WebSocket, otherwise null
+   */
+  private WebSocketUpdateListener getWebSocketListener() {
+    WebSocketUpdateListener webSocketListener = _webSocketListener;
+    if (webSocketListener != null && webSocketListener.isOpen()) {
+      return webSocketListener;
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * @return The listener that should be used to send updates to the client
+   */
+  private RestUpdateListener getListener() {
+    WebSocketUpdateListener webSocketListener = getWebSocketListener();
+    if (webSocketListener != null) {
+      return webSocketListener;
+    } else {
+      return _listener;
+    }
+  }
+
   /**
    * Sets up a subscription that publishes an update to the client when an entity changes.
    * The subscription is automatically cancelled after the first time the entity changes.
@@ -126,7 +199,7 @@ public class ClientConnection implements ChangeListener, MasterChangeListener, A
       Collection<String> urls = _entityUrls.removeAll(objectId);
       removeSubscriptions(urls);
       if (!urls.isEmpty()) {
-        _listener.itemsUpdated(urls);
+        getListener().itemsUpdated(urls);
       }
     }
   }
@@ -156,7 +229,7 @@ public class ClientConnection implements ChangeListener, MasterChangeListener, A
       Collection<String> urls = _masterUrls.removeAll(masterType);
       removeSubscriptions(urls);
       if (!urls.isEmpty()) {
-        _listener.itemsUpdated(urls);
+        getListener().itemsUpdated(urls);
       }
     }
   }
@@ -182,22 +255,59 @@ public class ClientConnection implements ChangeListener, MasterChangeListener, A
 
   @Override
   public void gridStructureChanged(String gridId) {
-    _listener.itemUpdated(gridId);
+    getListener().itemUpdated(gridId);
   }
 
   @Override
   public void gridStructureChanged(List<String> gridIds) {
-    _listener.itemsUpdated(gridIds);
+    getListener().itemsUpdated(gridIds);
   }
 
   @Override
   public void gridDataChanged(String dataId) {
-    _listener.itemUpdated(dataId);
+    getListener().itemUpdated(dataId);
   }
 
   @Override
   public void gridDataChanged(List<String> dataIds) {
-    _listener.itemsUpdated(dataIds);
+    getListener().itemsUpdated(dataIds);
+  }
+
+  /**
+   * @return true if the client has an open WebSocket that viewport data can be pushed over
+   */
+  @Override
+  public boolean isPushingViewportData() {
+    return getWebSocketListener() != null;
+  }
+
+  /**
+   * Pushes the changed data to the client if it has a WebSocket, otherwise notifies it which viewports have new data.
+   * @param data The new data of the viewports whose data has changed, keyed by data ID
+   */
+  @Override
+  public void viewportDataChanged(Map<String, ViewportResults> data) {
+    if (data.isEmpty()) {
+      return;
+    }
+    WebSocketUpdateListener webSocketListener = getWebSocketListener();
+    if (webSocketListener != null) {
+      webSocketListener.viewportsUpdated(data);
+    } else {
+      _listener.itemsUpdated(data.keySet());
+    }
+  }
+
+  /**
+   * Tells the client's WebSocket listener to discard the data it sent for viewports that have been closed.
+   * @param dataIds The data IDs of the closed viewports
+   */
+  @Override
+  public void viewportsClosed(List<String> dataIds) {
+    WebSocketUpdateListener webSocketListener = getWebSocketListener();
+    if (webSocketListener != null) {
+      webSocketListener.viewportsClosed(dataIds);
+    }
   }
 
   /**
@@ -5,6 +5,7 @@
  */
 package com.opengamma.web.server.push;
 
+import com.opengamma.DataNotFoundException;
 import com.opengamma.OpenGammaRuntimeException;
 import com.opengamma.id.UniqueId;
 import com.opengamma.web.server.push.rest.MasterType;
@@ -55,4 +56,13 @@ public interface ConnectionManager {
    * @param masterType The type of master which should trigger the update
    */
   void subscribe(String userId, String clientId, MasterType masterType, String url);
+
+  /**
+   * Returns the connection for a client.
+   * @param userId The ID of the user who owns the connection
+   * @param clientId The client ID
+   * @return The connection
+   * @throws DataNotFoundException If there is no connection for the specified ID or it isn't owned by {@code userId}
+   */
+  ClientConnection getConnectionByClientId(String userId, String clientId);
 }
@@ -125,8 +125,8 @@ public class ConnectionManagerImpl implements ConnectionManager {
    * @return The connection
    * @throws DataNotFoundException If there is no connection for the specified ID, the user ID is invalid or if
    * the client and user IDs don't correspond
-   * TODO not sure this should be public
    */
+  @Override
   public ClientConnection getConnectionByClientId(String userId, String clientId) {
     // TODO user logins
     //ArgumentChecker.notEmpty(userId, "userId");
@@ -5,12 +5,13 @@
  */
 package com.opengamma.web.server.push;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 
+import com.opengamma.core.change.BatchChangeListener;
 import com.opengamma.core.change.ChangeEvent;
-import com.opengamma.core.change.ChangeListener;
 import com.opengamma.core.change.ChangeProvider;
 import com.opengamma.util.ArgumentChecker;
 import com.opengamma.web.server.push.rest.MasterType;
@@ -33,11 +34,17 @@ public class MasterChangeManager {
     for (Map.Entry<MasterType, ChangeProvider> entry : changeProviders.entrySet()) {
       final MasterType masterType = entry.getKey();
       ChangeProvider changeProvider = entry.getValue();
-      changeProvider.changeManager().addChangeListener(new ChangeListener() {
+      changeProvider.changeManager().addChangeListener(new BatchChangeListener() {
         @Override
         public void entityChanged(ChangeEvent event) {
           MasterChangeManager.this.entityChanged(masterType);
         }
+
+        @Override
+        public void entitiesChanged(List<ChangeEvent> events) {
+          // listeners are only told which master changed so one notification covers the batch
+          MasterChangeManager.this.entityChanged(masterType);
+        }
       });
     }
   }
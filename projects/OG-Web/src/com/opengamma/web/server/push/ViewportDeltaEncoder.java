@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.web.server.push;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.opengamma.OpenGammaRuntimeException;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.web.server.push.analytics.ViewportResults;
+import com.opengamma.web.server.push.analytics.ViewportResultsJsonWriter;
+
+/**
+ * <p>Encodes viewport data as binary frames containing only the cells that have changed since the previous frame
+ * for the same viewport. The first frame for a viewport, or for a new version of a viewport, contains every cell.
+ * Cells showing the same results cache item as in the previous frame are known to be unchanged and aren't
+ * converted to JSON again. This class isn't thread safe.</p>
+ * <p>All numbers are big-endian. A frame contains:</p>
+ * <ul>
+ *   <li>1 byte - {@link #FULL} or {@link #DELTA}</li>
+ *   <li>the viewport's data ID in the format of {@link DataOutputStream#writeUTF(String)}</li>
+ *   <li>8 bytes - the viewport version</li>
+ *   <li>4 bytes - the number of cells</li>
+ *   <li>for each cell: 4 bytes row index, 4 bytes column index (both in terms of the grid, not the viewport),
+ *   4 bytes length followed by the cell's value as UTF-8 encoded JSON. The value is the same as the value for the cell
+ *   returned by the REST interface</li>
+ * </ul>
+ */
+/* package */ class ViewportDeltaEncoder {
+
+  /** Frame type of a frame containing all cells in the viewport */
+  /* package */ static final byte FULL = 1;
+  /** Frame type of a frame containing the cells that have changed since the previous frame */
+  /* package */ static final byte DELTA = 0;
+
+  private static final String ENCODING = "UTF-8";
+
+  private final ViewportResultsJsonWriter _writer;
+  /** The values most recently sent for each viewport, keyed by data ID */
+  private final Map<String, SentValues> _sentValues = Maps.newHashMap();
+
+  /* package */ ViewportDeltaEncoder(ViewportResultsJsonWriter writer) {
+    ArgumentChecker.notNull(writer, "writer");
+    _writer = writer;
+  }
+
+  /**
+   * Encodes the cells of a viewport that have changed since the viewport's previous frame.
+   * @param dataId The viewport's data ID
+   * @param results The viewport's latest data
+   * @return The frame or null if no cells have changed
+   */
+  /* package */ byte[] encode(String dataId, ViewportResults results) {
+    ArgumentChecker.notNull(dataId, "dataId");
+    ArgumentChecker.notNull(results, "results");
+    List<List<ViewportResults.Cell>> rows = results.getResults();
+    SentValues previous = _sentValues.get(dataId);
+    boolean full = previous == null || !previous.matches(results);
+    SentValues current = new SentValues(results);
+    List<int[]> changedCells = Lists.newArrayList();
+    for (int rowIndex = 0; rowIndex < rows.size(); rowIndex++) {
+      List<ViewportResults.Cell> row = rows.get(rowIndex);
+      Object[] rowValues = new Object[row.size()];
+      ViewportResults.Cell[] rowCells = row.toArray(new ViewportResults.Cell[row.size()]);
+      for (int colIndex = 0; colIndex < rowCells.length; colIndex++) {
+        ViewportResults.Cell cell = rowCells[colIndex];
+        if (!full && cell.isSameCachedValue(previous._cells[rowIndex][colIndex])) {
+          rowValues[colIndex] = previous._values[rowIndex][colIndex];
+          continue;
+        }
+        rowValues[colIndex] = _writer.getCellValue(results, cell, colIndex);
+        if (full || !Objects.equal(rowValues[colIndex], previous._values[rowIndex][colIndex])) {
+          changedCells.add(new int[]{rowIndex, colIndex});
+        }
+      }
+      current._values[rowIndex] = rowValues;
+      current._cells[rowIndex] = rowCells;
+    }
+    _sentValues.put(dataId, current);
+    if (!full && changedCells.isEmpty()) {
+      return null;
+    }
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream output = new DataOutputStream(bytes);
+      output.writeByte(full ? FULL : DELTA);
+      output.writeUTF(dataId);
+      output.writeLong(results.getVersion());
+      output.writeInt(changedCells.size());
+      for (int[] cell : changedCells) {
+        byte[] value = toJson(current._values[cell[0]][cell[1]]).getBytes(ENCODING);
+        output.writeInt(results.getGridRowIndex(cell[0]));
+        output.writeInt(results.getGridColumnIndex(cell[1]));
+        output.writeInt(value.length);
+        output.write(value);
+      }
+      output.flush();
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new OpenGammaRuntimeException("Failed to encode data for viewport " + dataId, e);
+    } catch (JSONException e) {
+      throw new OpenGammaRuntimeException("Failed to encode data for viewport " + dataId, e);
+    }
+  }
+
+  /**
+   * Discards the values sent for a viewport after it has been closed. If a viewport with the same data ID is
+   * opened later its first frame will contain every cell.
+   * @param dataId The viewport's data ID
+   */
+  /* package */ void viewportClosed(String dataId) {
+    ArgumentChecker.notNull(dataId, "dataId");
+    _sentValues.remove(dataId);
+  }
+
+  private static String toJson(Object value) throws JSONException {
+    if (value instanceof Map) {
+      return new JSONObject((Map<?, ?>) value).toString();
+    } else if (value instanceof Collection) {
+      return new JSONArray((Collection<?>) value).toString();
+    } else {
+      return JSONObject.valueToString(value);
+    }
+  }
+
+  /**
+   * The cell values most recently sent for a viewport.
+   */
+  private static final class SentValues {
+
+    private final long _version;
+    private final Object[][] _values;
+    /** The cells the values came from */
+    private final ViewportResults.Cell[][] _cells;
+
+    private SentValues(ViewportResults results) {
+      _version = results.getVersion();
+      _values = new Object[results.getResults().size()][];
+      _cells = new ViewportResults.Cell[results.getResults().size()][];
+    }
+
+    /**
+     * @return true if the values were sent for the same version and shape of viewport as {@code results}
+     */
+    private boolean matches(ViewportResults results) {
+      List<List<ViewportResults.Cell>> rows = results.getResults();
+      if (_version != results.getVersion() || _values.length != rows.size()) {
+        return false;
+      }
+      for (int i = 0; i < _values.length; i++) {
+        if (_values[i].length != rows.get(i).size()) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -8,6 +8,7 @@ package com.opengamma.web.server.push;
 import javax.servlet.ServletContext;
 
 import com.opengamma.util.ArgumentChecker;
+import com.opengamma.web.server.push.analytics.ViewportResultsJsonWriter;
 
 /**
  * Keys for use in {@code ServletContext} attributes.
@@ -22,6 +23,10 @@ public final class WebPushServletContextUtils {
    * The key for {@link LongPollingConnectionManager}.
    */
   private static final String LONG_POLLING_CONNECTION_MANAGER_KEY = WebPushServletContextUtils.class.getName() + ".LongPollingConnectionManager";
+  /**
+   * The key for {@link ViewportResultsJsonWriter}.
+   */
+  private static final String VIEWPORT_RESULTS_WRITER_KEY = WebPushServletContextUtils.class.getName() + ".ViewportResultsWriter";
 
   /**
    * Restricted constructor.
@@ -81,4 +86,30 @@ public final class WebPushServletContextUtils {
     servletContext.setAttribute(LONG_POLLING_CONNECTION_MANAGER_KEY, mgr);
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the viewport results writer from the context.
+   * 
+   * @param servletContext  the context, not null
+   * @return the writer, not null
+   */
+  public static ViewportResultsJsonWriter getViewportResultsWriter(ServletContext servletContext) {
+    ArgumentChecker.notNull(servletContext, "servletContext");
+    ViewportResultsJsonWriter writer = (ViewportResultsJsonWriter) servletContext.getAttribute(VIEWPORT_RESULTS_WRITER_KEY);
+    ArgumentChecker.notNull(writer, "ViewportResultsJsonWriter");
+    return writer;
+  }
+
+  /**
+   * Sets the viewport results writer into the context.
+   * 
+   * @param servletContext  the context, not null
+   * @param writer  the writer, not null
+   */
+  public static void setViewportResultsWriter(ServletContext servletContext, ViewportResultsJsonWriter writer) {
+    ArgumentChecker.notNull(servletContext, "servletContext");
+    ArgumentChecker.notNull(writer, "ViewportResultsJsonWriter");
+    servletContext.setAttribute(VIEWPORT_RESULTS_WRITER_KEY, writer);
+  }
+
 }
@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.web.server.push;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+
+import org.eclipse.jetty.websocket.WebSocket;
+import org.eclipse.jetty.websocket.WebSocketServlet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.opengamma.DataNotFoundException;
+import com.opengamma.web.server.push.analytics.ViewportResultsJsonWriter;
+
+/**
+ * <p>Accepts WebSocket connections from clients that have completed the handshake. The URL is assumed to be
+ * {@code <servlet path>/{clientId}}. While the WebSocket is open all updates for the client are pushed over it
+ * instead of the long-polling connection, and the data of viewports is pushed as it changes so the client doesn't
+ * need to request it. The REST interface and long-polling connection remain available for clients that can't use
+ * WebSockets.</p>
+ * <p>The server doesn't expect any messages from the client but any text message it sends is treated as a
+ * heartbeat that keeps the connection from timing out.</p>
+ */
+public class WebSocketPushServlet extends WebSocketServlet {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(WebSocketPushServlet.class);
+
+  /** Serialization version. */
+  private static final long serialVersionUID = 1L;
+
+  private transient ConnectionManager _connectionManager;
+  private transient ViewportResultsJsonWriter _viewportResultsWriter;
+
+  @Override
+  public void init(ServletConfig config) throws ServletException {
+    super.init(config);
+    _connectionManager = WebPushServletContextUtils.getConnectionManager(config.getServletContext());
+    _viewportResultsWriter = WebPushServletContextUtils.getViewportResultsWriter(config.getServletContext());
+  }
+
+  /**
+   * @return A WebSocket for the client identified by the URL, null (which rejects the connection) if the client
+   * ID is missing or unknown
+   */
+  @Override
+  public WebSocket doWebSocketConnect(HttpServletRequest request, String protocol) {
+    // the same user ID HandshakeServlet used when it created the connection, null if security isn't enabled
+    String userId = request.getRemoteUser();
+    String clientId = LongPollingServlet.getClientId(request);
+    if (clientId == null) {
+      s_logger.debug("Rejecting WebSocket connection with no client ID, URI {}", request.getRequestURI());
+      return null;
+    }
+    try {
+      return new ClientWebSocket(_connectionManager.getConnectionByClientId(userId, clientId));
+    } catch (DataNotFoundException e) {
+      s_logger.debug("Rejecting WebSocket connection for unknown client ID {}", clientId);
+      return null;
+    }
+  }
+
+  /**
+   * WebSocket connected to a single client.
+   */
+  private class ClientWebSocket implements WebSocket.OnTextMessage {
+
+    private final ClientConnection _clientConnection;
+
+    private WebSocketUpdateListener _listener;
+
+    private ClientWebSocket(ClientConnection clientConnection) {
+      _clientConnection = clientConnection;
+    }
+
+    @Override
+    public void onOpen(Connection connection) {
+      _listener = new WebSocketUpdateListener(connection, new ViewportDeltaEncoder(_viewportResultsWriter));
+      _clientConnection.webSocketConnected(_listener);
+    }
+
+    @Override
+    public void onMessage(String data) {
+      _clientConnection.heartbeat();
+    }
+
+    @Override
+    public void onClose(int closeCode, String message) {
+      if (_listener != null) {
+        _clientConnection.webSocketDisconnected(_listener);
+      }
+    }
+  }
+}
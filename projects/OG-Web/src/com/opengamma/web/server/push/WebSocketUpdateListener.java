@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.web.server.push;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import org.eclipse.jetty.websocket.WebSocket;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.web.server.push.analytics.ViewportResults;
+
+/**
+ * {@link RestUpdateListener} that pushes updates to the client over a WebSocket. Notifications of updated REST URLs
+ * are sent as text frames in the same JSON format used by {@link LongPollingUpdateListener}. Viewport data is pushed
+ * in binary frames containing the cells that have changed, encoded by {@link ViewportDeltaEncoder}, so the client
+ * doesn't need to request the data. This class is thread safe.
+ */
+/* package */ class WebSocketUpdateListener implements RestUpdateListener {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(WebSocketUpdateListener.class);
+
+  private final Object _lock = new Object();
+  private final WebSocket.Connection _connection;
+  private final ViewportDeltaEncoder _encoder;
+
+  /**
+   * @param connection The WebSocket connection to the client
+   * @param encoder Encodes the viewport data sent to the client
+   */
+  /* package */ WebSocketUpdateListener(WebSocket.Connection connection, ViewportDeltaEncoder encoder) {
+    ArgumentChecker.notNull(connection, "connection");
+    ArgumentChecker.notNull(encoder, "encoder");
+    _connection = connection;
+    _encoder = encoder;
+  }
+
+  @Override
+  public void itemUpdated(String url) {
+    ArgumentChecker.notNull(url, "url");
+    itemsUpdated(Collections.singleton(url));
+  }
+
+  @Override
+  public void itemsUpdated(Collection<String> urls) {
+    ArgumentChecker.notNull(urls, "urls");
+    if (urls.isEmpty()) {
+      return;
+    }
+    String json;
+    try {
+      json = new JSONObject().put(LongPollingUpdateListener.UPDATES, urls).toString();
+    } catch (JSONException e) {
+      // this shouldn't ever happen, the updates are all URLs
+      s_logger.warn("Unable to format URLs as JSON. URLs: " + urls, e);
+      return;
+    }
+    synchronized (_lock) {
+      try {
+        _connection.sendMessage(json);
+      } catch (IOException e) {
+        s_logger.warn("Failed to send updates over WebSocket, closing connection", e);
+        _connection.close();
+      }
+    }
+  }
+
+  /**
+   * Pushes the cells that have changed in a set of viewports.
+   * @param data The latest data of the viewports, keyed by data ID
+   */
+  /* package */ void viewportsUpdated(Map<String, ViewportResults> data) {
+    ArgumentChecker.notNull(data, "data");
+    synchronized (_lock) {
+      for (Map.Entry<String, ViewportResults> entry : data.entrySet()) {
+        byte[] frame = _encoder.encode(entry.getKey(), entry.getValue());
+        if (frame == null) {
+          continue;
+        }
+        try {
+          _connection.sendMessage(frame, 0, frame.length);
+        } catch (IOException e) {
+          s_logger.warn("Failed to send viewport data over WebSocket, closing connection", e);
+          _connection.close();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Discards the values sent for viewports that have been closed.
+   * @param dataIds The data IDs of the closed viewports
+   */
+  /* package */ void viewportsClosed(Collection<String> dataIds) {
+    ArgumentChecker.notNull(dataIds, "dataIds");
+    synchronized (_lock) {
+      for (String dataId : dataIds) {
+        _encoder.viewportClosed(dataId);
+      }
+    }
+  }
+
+  /**
+   * @return true if the WebSocket connection is open
+   */
+  /* package */ boolean isOpen() {
+    return _connection.isOpen();
+  }
+
+  /**
+   * Closes the WebSocket connection.
+   */
+  /* package */ void disconnect() {
+    _connection.close();
+  }
+}
@@ -5,7 +5,9 @@
  */
 package com.opengamma.web.server.push.analytics;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.opengamma.DataNotFoundException;
@@ -47,11 +49,28 @@ import com.opengamma.util.ArgumentChecker;
 
   protected abstract V createViewport(ViewportSpecification viewportSpecification, String dataId);
 
-  /* package */ void deleteViewport(String viewportId) {
+  /**
+   * Deletes a viewport.
+   * @param viewportId ID of the viewport
+   * @return The data ID of the deleted viewport
+   */
+  /* package */ String deleteViewport(String viewportId) {
     AnalyticsViewport viewport = _viewports.remove(viewportId);
     if (viewport == null) {
       throw new DataNotFoundException("No viewport found with ID " + viewportId);
     }
+    return viewport.getDataId();
+  }
+
+  /**
+   * @return The data IDs of all the grid's viewports
+   */
+  /* package */ List<String> getViewportDataIds() {
+    List<String> dataIds = new ArrayList<String>(_viewports.size());
+    for (V viewport : _viewports.values()) {
+      dataIds.add(viewport.getDataId());
+    }
+    return dataIds;
   }
 
   /* package */ ViewportResults getData(String viewportId) {
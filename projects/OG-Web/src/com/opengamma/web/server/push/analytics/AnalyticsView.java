@@ -5,7 +5,6 @@
  */
 package com.opengamma.web.server.push.analytics;
 
-import com.opengamma.engine.view.ViewResultModel;
 import com.opengamma.engine.view.calc.ViewCycle;
 import com.opengamma.engine.view.compilation.CompiledViewDefinition;
 
@@ -32,10 +31,16 @@ public interface AnalyticsView {
 
   /**
    * Updates the data in the grids when a cycle completes in the calculation engine.
-   * @param results The results of the calculation cycle.
+   * @param results The view process's results including those from the calculation cycle. This is shared with
+   * other clients of the same view process and mustn't be modified.
    * @param viewCycle Data associated with the calculation cycle.
    */
-  void updateResults(ViewResultModel results, ViewCycle viewCycle);
+  void updateResults(ResultsCache results, ViewCycle viewCycle);
+
+  /**
+   * Closes the view and its viewports when the client deletes it or the connection to the engine is closed.
+   */
+  void close();
 
 // -------- main grid --------
 
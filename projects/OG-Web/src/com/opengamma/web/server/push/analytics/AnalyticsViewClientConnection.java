@@ -34,21 +34,27 @@ import com.opengamma.web.server.AggregatedViewDefinitionManager;
   private final ViewClient _viewClient;
   private final AggregatedViewDefinition _aggregatedViewDef;
   private final ViewExecutionOptions _executionOptions;
+  private final SharedResultsCaches _resultsCaches;
 
   private EngineResourceReference<? extends ViewCycle> _cycleReference = EmptyViewCycle.REFERENCE;
+  private UniqueId _viewProcessId;
+  private SharedResultsCache _resultsCache;
 
   public AnalyticsViewClientConnection(ViewRequest viewRequest,
                                        ViewClient viewClient,
                                        AnalyticsView view,
                                        NamedMarketDataSpecificationRepository namedMarketDataSpecRepo,
                                        AggregatedViewDefinitionManager aggregatedViewDefManager,
-                                       MarketDataSnapshotMaster snapshotMaster) {
+                                       MarketDataSnapshotMaster snapshotMaster,
+                                       SharedResultsCaches resultsCaches) {
     ArgumentChecker.notNull(viewRequest, "viewRequest");
     ArgumentChecker.notNull(viewClient, "viewClient");
     ArgumentChecker.notNull(view, "view");
     ArgumentChecker.notNull(namedMarketDataSpecRepo, "namedMarketDataSpecRepo");
     ArgumentChecker.notNull(aggregatedViewDefManager, "aggregatedViewDefManager");
     ArgumentChecker.notNull(snapshotMaster, "snapshotMaster");
+    ArgumentChecker.notNull(resultsCaches, "resultsCaches");
+    _resultsCaches = resultsCaches;
     _view = view;
     _viewClient = viewClient;
     _aggregatedViewDef = new AggregatedViewDefinition(aggregatedViewDefManager, viewRequest);
@@ -78,7 +84,28 @@ import com.opengamma.web.server.AggregatedViewDefinitionManager;
     } else {
       _cycleReference = cycleReference;
     }
-    _view.updateResults(fullResult, _cycleReference.get());
+    _view.updateResults(getResults(fullResult, deltaResult), _cycleReference.get());
+  }
+
+  /**
+   * Clients of the same view process share a results cache so each cycle's results are only cached once.
+   */
+  private synchronized ResultsCache getResults(ViewComputationResultModel fullResult, ViewDeltaResultModel deltaResult) {
+    UniqueId viewProcessId = fullResult.getViewProcessId();
+    if (!viewProcessId.equals(_viewProcessId)) {
+      releaseResultsCache();
+      _resultsCache = _resultsCaches.acquire(viewProcessId);
+      _viewProcessId = viewProcessId;
+    }
+    return _resultsCache.getResults(fullResult, deltaResult);
+  }
+
+  private synchronized void releaseResultsCache() {
+    if (_viewProcessId != null) {
+      _resultsCaches.release(_viewProcessId);
+      _viewProcessId = null;
+      _resultsCache = null;
+    }
   }
 
   /**
@@ -87,6 +114,8 @@ import com.opengamma.web.server.AggregatedViewDefinitionManager;
   /* package */ void start() {
     _viewClient.setResultListener(this);
     _viewClient.setViewCycleAccessSupported(true);
+    // the deltas let the shared results cache add only the values that changed in each cycle
+    _viewClient.setResultMode(ViewResultMode.BOTH);
     _viewClient.setFragmentResultMode(ViewResultMode.FULL_THEN_DELTA);
     try {
       _viewClient.attachToViewProcess(_aggregatedViewDef.getUniqueId(), _executionOptions);
@@ -104,7 +133,9 @@ import com.opengamma.web.server.AggregatedViewDefinitionManager;
       _viewClient.detachFromViewProcess();
     } finally {
       _cycleReference.release();
+      releaseResultsCache();
       _aggregatedViewDef.close();
+      _view.close();
     }
   }
 
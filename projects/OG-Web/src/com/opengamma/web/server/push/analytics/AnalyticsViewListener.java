@@ -6,6 +6,7 @@
 package com.opengamma.web.server.push.analytics;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  *
@@ -21,4 +22,25 @@ public interface AnalyticsViewListener {
   void gridDataChanged(String dataId);
 
   void gridDataChanged(List<String> dataIds);
+
+  /**
+   * @return true if the listener pushes viewport data to the client and needs the data passed to
+   * {@link #viewportDataChanged}, false if it only notifies the client of the IDs of the changed data
+   */
+  boolean isPushingViewportData();
+
+  /**
+   * Invoked when the data in viewports changes after a calculation cycle if {@link #isPushingViewportData()} is true.
+   * Otherwise the view calls {@link #gridDataChanged(List)}. Listeners that can push data to the client
+   * can send it directly, others can notify the client using the data IDs and let it request the data.
+   * @param data The new data of the viewports whose data has changed, keyed by data ID
+   */
+  void viewportDataChanged(Map<String, ViewportResults> data);
+
+  /**
+   * Invoked when viewports are deleted, either explicitly or because their grid or view was closed or replaced.
+   * Listeners can discard any state they hold for the viewports.
+   * @param dataIds The data IDs of the closed viewports
+   */
+  void viewportsClosed(List<String> dataIds);
 }
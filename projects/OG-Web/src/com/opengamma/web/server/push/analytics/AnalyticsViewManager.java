@@ -37,6 +37,7 @@ public class AnalyticsViewManager {
   private final MarketDataSnapshotMaster _snapshotMaster;
   private final Map<String, AnalyticsViewClientConnection> _viewConnections = new ConcurrentHashMap<String, AnalyticsViewClientConnection>();
   private final ComputationTargetResolver _targetResolver;
+  private final SharedResultsCaches _resultsCaches = new SharedResultsCaches();
 
   public AnalyticsViewManager(ViewProcessor viewProcessor,
                               AggregatedViewDefinitionManager aggregatedViewDefManager,
@@ -62,7 +63,7 @@ public class AnalyticsViewManager {
       throw new IllegalArgumentException("View ID " + viewId + " is already in use");
     }
     ViewClient viewClient = _viewProcessor.createViewClient(user);
-    SimpleAnalyticsView view = new SimpleAnalyticsView(listener, portfolioGridId, primitivesGridId, _targetResolver);
+    SimpleAnalyticsView view = new SimpleAnalyticsView(listener, portfolioGridId, primitivesGridId, _targetResolver, viewClient);
     LockingAnalyticsView lockingView = new LockingAnalyticsView(view);
     NamedMarketDataSpecificationRepository marketDataSpecRepo = _viewProcessor.getNamedMarketDataSpecificationRepository();
     AnalyticsViewClientConnection connection = new AnalyticsViewClientConnection(request,
@@ -70,7 +71,8 @@ public class AnalyticsViewManager {
                                                                                  lockingView,
                                                                                  marketDataSpecRepo,
                                                                                  _aggregatedViewDefManager,
-                                                                                 _snapshotMaster);
+                                                                                 _snapshotMaster,
+                                                                                 _resultsCaches);
     _viewConnections.put(viewId, connection);
     connection.start();
     s_logger.debug("Created new view with ID {}", viewId);
@@ -5,11 +5,9 @@
  */
 package com.opengamma.web.server.push.analytics;
 
-import java.util.List;
+import java.util.Map;
 
-import org.apache.commons.collections.CollectionUtils;
-
-import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.opengamma.engine.ComputationTargetResolver;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.calc.ViewCycle;
@@ -69,14 +67,23 @@ public class DependencyGraphGrid extends AnalyticsGrid<DependencyGraphViewport>
     return new DependencyGraphViewport(viewportSpec, _calcConfigName, _gridStructure, _latestCycle, _cache, dataId);
   }
 
-  public List<String> updateResults(ViewCycle cycle, ResultsCache cache) {
+  /**
+   * Updates the data in the viewports of this grid.
+   * @param cycle The calculation cycle
+   * @param cache The latest results
+   * @return The new data of the viewports whose data changed, keyed by data ID
+   */
+  public Map<String, ViewportResults> updateResults(ViewCycle cycle, ResultsCache cache) {
     _latestCycle = cycle;
     _cache = cache;
-    List<String> updatedIds = Lists.newArrayList();
+    Map<String, ViewportResults> updatedData = Maps.newLinkedHashMap();
     for (DependencyGraphViewport viewport : _viewports.values()) {
-      CollectionUtils.addIgnoreNull(updatedIds, viewport.updateResults(cycle, cache));
+      String updatedId = viewport.updateResults(cycle, cache);
+      if (updatedId != null) {
+        updatedData.put(updatedId, viewport.getData());
+      }
     }
-    return updatedIds;
+    return updatedData;
   }
 
   public long updateViewport(String viewportId,
@@ -67,7 +67,11 @@ public class DependencyGraphGridStructure implements GridStructure {
   }
 
   private ValueSpecification getTargetForRow(Integer rowIndex) {
-    return _rows.get(rowIndex).getValueSpec();
+    return getRow(rowIndex).getValueSpec();
+  }
+
+  /* package */ Row getRow(int rowIndex) {
+    return _rows.get(rowIndex);
   }
 
   /* package */ List<List<ViewportResults.Cell>> createResultsForViewport(ViewportSpecification viewportSpec,
@@ -87,7 +91,7 @@ public class DependencyGraphGridStructure implements GridStructure {
                                                          ResultsCache cache,
                                                          String calcConfigName) {
     Object value = results.get(getTargetForRow(rowIndex));
-    Row row = _rows.get(rowIndex);
+    Row row = getRow(rowIndex);
     List<ViewportResults.Cell> rowResults = Lists.newArrayListWithCapacity(cols.size());
     for (Integer colIndex : cols) {
       rowResults.add(getValueForColumn(colIndex, row, value, cache, calcConfigName));
@@ -112,7 +116,7 @@ public class DependencyGraphGridStructure implements GridStructure {
         Collection<Object> cellHistory = cache.getHistory(calcConfigName, valueSpec);
         return ViewportResults.valueCell(value, valueSpec, cellHistory);
       case 4: // function name
-        return ViewportResults.stringCell(row.getFunctionName());
+        return ViewportResults.stringCell(row.getFunctionNameForDisplay());
       case 5: // properties
         return ViewportResults.stringCell(getValuePropertiesForDisplay(valueSpec.getProperties()));
       default: // never happen
@@ -215,12 +219,25 @@ public class DependencyGraphGridStructure implements GridStructure {
 
     private final ValueSpecification _valueSpec;
     private final String _functionName;
+    private final int _hiddenValueCount;
 
     Row(ValueSpecification valueSpec, String functionName) {
+      this(valueSpec, functionName, 0);
+    }
+
+    /**
+     * @param valueSpec The value shown in the row
+     * @param functionName The name of the function producing the value
+     * @param hiddenValueCount The number of values the row's value depends on which aren't shown because the tree
+     * was truncated at this row, zero if its inputs are shown
+     */
+    Row(ValueSpecification valueSpec, String functionName, int hiddenValueCount) {
       ArgumentChecker.notNull(valueSpec, "valueSpec");
       ArgumentChecker.notNull(functionName, "functionName");
+      ArgumentChecker.notNegative(hiddenValueCount, "hiddenValueCount");
       _valueSpec = valueSpec;
       _functionName = functionName;
+      _hiddenValueCount = hiddenValueCount;
     }
 
     /* package */ ValueSpecification getValueSpec() {
@@ -230,5 +247,20 @@ public class DependencyGraphGridStructure implements GridStructure {
     /* package */ String getFunctionName() {
       return _functionName;
     }
+
+    /* package */ int getHiddenValueCount() {
+      return _hiddenValueCount;
+    }
+
+    /**
+     * @return The function name, followed by a marker if the inputs of the row's value aren't shown
+     */
+    /* package */ String getFunctionNameForDisplay() {
+      if (_hiddenValueCount == 0) {
+        return _functionName;
+      }
+      return _functionName + " (" + _hiddenValueCount + " more " + (_hiddenValueCount == 1 ? "value" : "values") +
+          " not shown)";
+    }
   }
 }
@@ -6,9 +6,9 @@
 package com.opengamma.web.server.push.analytics;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,68 +17,183 @@ import com.google.common.collect.Lists;
 import com.opengamma.engine.ComputationTargetResolver;
 import com.opengamma.engine.depgraph.DependencyGraph;
 import com.opengamma.engine.depgraph.DependencyGraphExplorer;
+import com.opengamma.engine.depgraph.DependencyGraphExplorerImpl;
+import com.opengamma.engine.depgraph.DependencyGraphIndex;
 import com.opengamma.engine.depgraph.DependencyNode;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.compilation.CompiledViewDefinition;
 import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphs;
+import com.opengamma.util.ArgumentChecker;
 
 /**
- *
+ * Builds the structure of a grid showing the dependency graph of a value. The graph is shown as a tree, expanded to a
+ * limited depth so a value with deep dependencies can't create an enormous grid. A row whose inputs aren't shown
+ * because of the limit says how many values are hidden below it.
+ * <p>
+ * The tree is built from the {@link DependencyGraphIndex} of the graph rather than by walking its nodes. Values
+ * used by more than one node appear in the tree more than once but each node is only resolved once.
  */
 public class DependencyGraphStructureBuilder {
 
   private static final Logger s_logger = LoggerFactory.getLogger(DependencyGraphStructureBuilder.class);
 
+  /** The default number of levels of inputs shown below the root value. */
+  public static final int DEFAULT_MAX_DEPTH = 20;
+
   // TODO could this be used for both grid types?
   private final List<DependencyGraphGridStructure.Row> _rows = Lists.newArrayList();
   private final DependencyGraphGridStructure _structure;
 
   /* Keeps track of the index of the last row */
   private int _lastRow = 0;
+  private final int _maxDepth;
+
+  /* The index of the graph containing the root value */
+  private DependencyGraphIndex _index;
+  /* Numbers of the nodes which can appear in the tree, in ascending order */
+  private int[] _nodeNumbers;
+  /* Details of the nodes in _nodeNumbers, resolved the first time each node appears in the tree */
+  private NodeDetails[] _nodeDetails;
+  /* Number of rows whose inputs were hidden by the depth limit */
+  private int _truncatedRows;
 
   public DependencyGraphStructureBuilder(CompiledViewDefinition compiledViewDef,
                                          ValueSpecification root,
                                          String calcConfigName,
                                          ComputationTargetResolver targetResolver) {
+    this(compiledViewDef, root, calcConfigName, targetResolver, DEFAULT_MAX_DEPTH);
+  }
+
+  /**
+   * @param compiledViewDef The compiled view definition containing the dependency graph
+   * @param root The value whose dependency graph is shown
+   * @param calcConfigName The calculation configuration containing the value
+   * @param targetResolver For looking up the targets of the values
+   * @param maxDepth The number of levels of inputs shown below the root value. The inputs of values at this depth
+   * aren't shown, their rows are marked with the number of values hidden below them instead.
+   */
+  public DependencyGraphStructureBuilder(CompiledViewDefinition compiledViewDef,
+                                         ValueSpecification root,
+                                         String calcConfigName,
+                                         ComputationTargetResolver targetResolver,
+                                         int maxDepth) {
+    ArgumentChecker.notNegative(maxDepth, "maxDepth");
+    _maxDepth = maxDepth;
     // TODO see [PLAT-2478] this is a bit nasty but will work as long as the engine and web are running in the same VM
     if (!(compiledViewDef instanceof CompiledViewDefinitionWithGraphs)) {
       s_logger.warn("Compiled view definition is not an instance of CompiledViewDefinitionWithGraphs, class={}." +
                         " Dependency graphs not supported");
-      _structure = new DependencyGraphGridStructure(AnalyticsNode.emptyRoot(),
-                                                    Collections.<DependencyGraphGridStructure.Row>emptyList(),
-                                                    targetResolver);
+      _structure = emptyStructure(targetResolver);
+      return;
+    }
+    CompiledViewDefinitionWithGraphs viewDef = (CompiledViewDefinitionWithGraphs) compiledViewDef;
+    DependencyGraphExplorer depGraphExplorer = viewDef.getDependencyGraphExplorer(calcConfigName);
+    if (depGraphExplorer instanceof DependencyGraphExplorerImpl) {
+      // the index is shared by everyone looking at the compiled view so there's no need to create a subgraph
+      _index = ((DependencyGraphExplorerImpl) depGraphExplorer).getIndex();
     } else {
-      CompiledViewDefinitionWithGraphs viewDef = (CompiledViewDefinitionWithGraphs) compiledViewDef;
-      DependencyGraphExplorer depGraphExplorer = viewDef.getDependencyGraphExplorer(calcConfigName);
-      DependencyGraph depGraph = depGraphExplorer.getSubgraphProducing(root);
-      AnalyticsNode node = createNode(root, depGraph);
-      _structure = new DependencyGraphGridStructure(node, _rows, targetResolver);
+      DependencyGraph subgraph = depGraphExplorer.getSubgraphProducing(root);
+      _index = (subgraph != null) ? new DependencyGraphIndex(subgraph) : null;
     }
+    int rootNumber = (_index != null) ? _index.getNodeNumber(root) : -1;
+    if (rootNumber < 0) {
+      s_logger.warn("No node produces {} in calculation configuration {}", root, calcConfigName);
+      _structure = emptyStructure(targetResolver);
+      return;
+    }
+    // every node on a path of at most maxDepth steps from the root is within maxDepth steps of it
+    _nodeNumbers = _index.getAncestors(root, _maxDepth);
+    _nodeDetails = new NodeDetails[_nodeNumbers.length];
+    AnalyticsNode node = createNode(root, rootNumber, 0);
+    if (node == null) {
+      // the root has no inputs (or none are shown) so the grid is a single row
+      node = AnalyticsNode.emptyRoot();
+    }
+    if (_truncatedRows > 0) {
+      s_logger.debug("Dependency graph of {} truncated at depth {}, inputs of {} rows not shown",
+                     new Object[] {root, _maxDepth, _truncatedRows});
+    }
+    _structure = new DependencyGraphGridStructure(node, _rows, targetResolver);
   }
 
-  private AnalyticsNode createNode(ValueSpecification valueSpec, DependencyGraph depGraph) {
-    DependencyNode targetNode = depGraph.getNodeProducing(valueSpec);
-    String fnName = targetNode.getFunction().getFunction().getFunctionDefinition().getShortName();
-    _rows.add(new DependencyGraphGridStructure.Row(valueSpec, fnName));
-    int nodeStart = _lastRow;
-    List<AnalyticsNode> nodes = new ArrayList<AnalyticsNode>();
-    Set<ValueSpecification> inputValues = targetNode.getInputValues();
-    if (inputValues.isEmpty()) {
+  private static DependencyGraphGridStructure emptyStructure(ComputationTargetResolver targetResolver) {
+    return new DependencyGraphGridStructure(AnalyticsNode.emptyRoot(),
+                                            Collections.<DependencyGraphGridStructure.Row>emptyList(),
+                                            targetResolver);
+  }
+
+  private AnalyticsNode createNode(ValueSpecification valueSpec, int nodeNumber, int depth) {
+    NodeDetails details = getNodeDetails(nodeNumber);
+    if (details._inputValues.length == 0) {
       // don't create a node unless it has children
+      _rows.add(new DependencyGraphGridStructure.Row(valueSpec, details._functionName));
       return null;
-    } else {
-      for (ValueSpecification input : inputValues) {
-        ++_lastRow;
-        AnalyticsNode newNode = createNode(input, depGraph);
-        if (newNode != null) {
-          nodes.add(newNode);
-        }
+    }
+    if (depth >= _maxDepth) {
+      // the values below this one are counted for the marker but not shown
+      _rows.add(new DependencyGraphGridStructure.Row(valueSpec, details._functionName, getHiddenValueCount(valueSpec)));
+      _truncatedRows++;
+      return null;
+    }
+    _rows.add(new DependencyGraphGridStructure.Row(valueSpec, details._functionName));
+    int nodeStart = _lastRow;
+    List<AnalyticsNode> nodes = new ArrayList<AnalyticsNode>();
+    for (int i = 0; i < details._inputValues.length; i++) {
+      ++_lastRow;
+      AnalyticsNode newNode = createNode(details._inputValues[i], details._inputNodes[i], depth + 1);
+      if (newNode != null) {
+        nodes.add(newNode);
       }
-      return new AnalyticsNode(nodeStart, _lastRow, Collections.unmodifiableList(nodes));
     }
+    return new AnalyticsNode(nodeStart, _lastRow, Collections.unmodifiableList(nodes));
+  }
+
+  /**
+   * Returns the number of values a value depends on, not including itself. The ancestors are remembered by the index
+   * so this also makes it cheap to open the hidden value in its own dependency graph grid.
+   */
+  private int getHiddenValueCount(ValueSpecification valueSpec) {
+    int[] ancestors = _index.getAncestors(valueSpec);
+    return (ancestors != null) ? ancestors.length - 1 : 0;
+  }
+
+  private NodeDetails getNodeDetails(int nodeNumber) {
+    int slot = Arrays.binarySearch(_nodeNumbers, nodeNumber);
+    NodeDetails details = _nodeDetails[slot];
+    if (details == null) {
+      details = new NodeDetails(_index, nodeNumber);
+      _nodeDetails[slot] = details;
+    }
+    return details;
   }
 
   public DependencyGraphGridStructure getStructure() {
     return _structure;
   }
+
+  /**
+   * The function name and inputs of a node, looked up once however many times the node appears in the tree.
+   */
+  private static final class NodeDetails {
+
+    private final String _functionName;
+    private final ValueSpecification[] _inputValues;
+    private final int[] _inputNodes;
+
+    private NodeDetails(DependencyGraphIndex index, int nodeNumber) {
+      DependencyNode node = index.getNode(nodeNumber);
+      _functionName = node.getFunction().getFunction().getFunctionDefinition().getShortName();
+      List<ValueSpecification> inputValues = Lists.newArrayListWithCapacity(node.getInputValues().size());
+      int[] inputNodes = new int[node.getInputValues().size()];
+      for (ValueSpecification inputValue : node.getInputValues()) {
+        int inputNode = index.getNodeNumber(inputValue);
+        if (inputNode >= 0) {
+          inputNodes[inputValues.size()] = inputNode;
+          inputValues.add(inputValue);
+        }
+      }
+      _inputValues = inputValues.toArray(new ValueSpecification[inputValues.size()]);
+      _inputNodes = Arrays.copyOf(inputNodes, _inputValues.length);
+    }
+  }
 }
@@ -8,7 +8,6 @@ package com.opengamma.web.server.push.analytics;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-import com.opengamma.engine.view.ViewResultModel;
 import com.opengamma.engine.view.calc.ViewCycle;
 import com.opengamma.engine.view.compilation.CompiledViewDefinition;
 import com.opengamma.util.ArgumentChecker;
@@ -37,7 +36,7 @@ import com.opengamma.util.ArgumentChecker;
   }
 
   @Override
-  public void updateResults(ViewResultModel results, ViewCycle viewCycle) {
+  public void updateResults(ResultsCache results, ViewCycle viewCycle) {
     try {
       _lock.writeLock().lock();
       _delegate.updateResults(results, viewCycle);
@@ -46,6 +45,16 @@ import com.opengamma.util.ArgumentChecker;
     }
   }
 
+  @Override
+  public void close() {
+    try {
+      _lock.writeLock().lock();
+      _delegate.close();
+    } finally {
+      _lock.writeLock().unlock();
+    }
+  }
+
   @Override
   public GridStructure getGridStructure(GridType gridType) {
     try {
@@ -9,10 +9,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import org.apache.commons.collections.CollectionUtils;
-
-import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.opengamma.DataNotFoundException;
 import com.opengamma.engine.ComputationTargetResolver;
 import com.opengamma.engine.value.ValueSpecification;
@@ -28,10 +27,12 @@ import com.opengamma.util.tuple.Pair;
 
   private final AnalyticsView.GridType _gridType;
   private final Map<String, DependencyGraphGrid> _depGraphs = new HashMap<String, DependencyGraphGrid>();
+  /** The calculation configuration and value whose dependency graph is shown by each dependency graph grid */
+  private final Map<String, Pair<String, ValueSpecification>> _depGraphTargets = new HashMap<String, Pair<String, ValueSpecification>>();
   private final MainGridStructure _gridStructure;
   private final ComputationTargetResolver _targetResolver;
 
-  private ResultsCache _cache = new ResultsCache();
+  private ResultsCache _cache = ResultsCache.EMPTY;
   private ViewCycle _cycle = EmptyViewCycle.INSTANCE;
 
   /* package */ MainAnalyticsGrid(AnalyticsView.GridType gridType,
@@ -97,30 +98,47 @@ import com.opengamma.util.tuple.Pair;
     DependencyGraphGrid grid =
         DependencyGraphGrid.create(compiledViewDef, valueSpec, calcConfigName, _cycle, _cache, gridId, _targetResolver);
     _depGraphs.put(graphId, grid);
+    _depGraphTargets.put(graphId, targetForCell);
   }
 
   /* package */ long updateViewport(String viewportId, ViewportSpecification viewportSpecification) {
     return getViewport(viewportId).update(viewportSpecification, _cache);
   }
 
-  /* package */ List<String> updateResults(ResultsCache cache, ViewCycle cycle) {
+  /**
+   * Updates the data in the viewports of this grid and its dependency graphs.
+   * @param cache The latest results
+   * @param cycle The calculation cycle that produced the results
+   * @return The new data of the viewports whose data changed, keyed by data ID
+   */
+  /* package */ Map<String, ViewportResults> updateResults(ResultsCache cache, ViewCycle cycle) {
     _cache = cache;
     _cycle = cycle;
-    List<String> updatedIds = Lists.newArrayList();
+    Map<String, ViewportResults> updatedData = Maps.newLinkedHashMap();
     for (MainGridViewport viewport : _viewports.values()) {
-      CollectionUtils.addIgnoreNull(updatedIds, viewport.updateResults(cache));
+      String updatedId = viewport.updateResults(cache);
+      if (updatedId != null) {
+        updatedData.put(updatedId, viewport.getData());
+      }
     }
     for (DependencyGraphGrid grid : _depGraphs.values()) {
-      updatedIds.addAll(grid.updateResults(cycle, cache));
+      updatedData.putAll(grid.updateResults(cycle, cache));
     }
-    return updatedIds;
+    return updatedData;
   }
 
-  /* package */ void closeDependencyGraph(String graphId) {
-    AnalyticsGrid grid = _depGraphs.remove(graphId);
+  /**
+   * Closes a dependency graph and all of its viewports.
+   * @param graphId ID of the dependency graph
+   * @return The data IDs of the graph's viewports
+   */
+  /* package */ List<String> closeDependencyGraph(String graphId) {
+    DependencyGraphGrid grid = _depGraphs.remove(graphId);
+    _depGraphTargets.remove(graphId);
     if (grid == null) {
       throw new DataNotFoundException("No dependency graph found with ID " + graphId + " for " + _gridType + " grid");
     }
+    return grid.getViewportDataIds();
   }
 
   /* package */ DependencyGraphGridStructure getGridStructure(String graphId) {
@@ -140,14 +158,29 @@ import com.opengamma.util.tuple.Pair;
     return getDependencyGraph(graphId).updateViewport(viewportId, viewportSpec, _cycle, _cache);
   }
 
-  /* package */ void deleteViewport(String graphId, String viewportId) {
-    getDependencyGraph(graphId).deleteViewport(viewportId);
+  /* package */ String deleteViewport(String graphId, String viewportId) {
+    return getDependencyGraph(graphId).deleteViewport(viewportId);
   }
 
   /* package */ ViewportResults getData(String graphId, String viewportId) {
     return getDependencyGraph(graphId).getData(viewportId);
   }
 
+  /**
+   * Adds the values the user is looking at to a map of values keyed by calculation configuration name. These are the
+   * values in the grid's viewports and the values whose dependency graphs are open. Every value in an open dependency
+   * graph is an input to the value at its root so it doesn't need adding separately.
+   * @param values The values to add to
+   */
+  /* package */ void addVisibleValues(Map<String, Set<ValueSpecification>> values) {
+    for (MainGridViewport viewport : _viewports.values()) {
+      viewport.addVisibleValues(values);
+    }
+    for (Pair<String, ValueSpecification> depGraphTarget : _depGraphTargets.values()) {
+      MainGridViewport.addValue(values, depGraphTarget);
+    }
+  }
+
   /* package */ List<String> getDependencyGraphGridIds() {
     List<String> gridIds = new ArrayList<String>();
     for (AnalyticsGrid grid : _depGraphs.values()) {
@@ -156,6 +189,17 @@ import com.opengamma.util.tuple.Pair;
     return gridIds;
   }
 
+  /**
+   * @return The data IDs of the viewports of this grid and all of its dependency graphs
+   */
+  /* package */ List<String> getAllViewportDataIds() {
+    List<String> dataIds = getViewportDataIds();
+    for (DependencyGraphGrid grid : _depGraphs.values()) {
+      dataIds.addAll(grid.getViewportDataIds());
+    }
+    return dataIds;
+  }
+
   @Override
   public GridStructure getGridStructure() {
     return _gridStructure;
@@ -7,8 +7,11 @@ package com.opengamma.web.server.push.analytics;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.util.ArgumentChecker;
 import com.opengamma.util.tuple.Pair;
@@ -20,6 +23,9 @@ public class MainGridViewport extends AnalyticsViewport {
 
   private final MainGridStructure _gridStructure;
 
+  /** ID of the results used to create the latest viewport data, used for detecting changes since the previous data */
+  private long _lastUpdateId = -1;
+
   MainGridViewport(ViewportSpecification viewportSpec, MainGridStructure gridStructure, String dataId, ResultsCache cache) {
     super(dataId);
     ArgumentChecker.notNull(gridStructure, "gridStructure");
@@ -47,9 +53,9 @@ public class MainGridViewport extends AnalyticsViewport {
             Class<?> columnType = _gridStructure.getColumnType(colIndex);
             String calcConfigName = cellTarget.getFirst();
             ValueSpecification valueSpec = cellTarget.getSecond();
-            ResultsCache.Result cacheResult = cache.getResult(calcConfigName, valueSpec, columnType);
+            ResultsCache.Result cacheResult = cache.getResult(calcConfigName, valueSpec, columnType, _lastUpdateId);
             updated = updated || cacheResult.isUpdated();
-            rowResults.add(ViewportResults.valueCell(cacheResult.getValue(), valueSpec, cacheResult.getHistory()));
+            rowResults.add(ViewportResults.cachedValueCell(cacheResult, valueSpec));
           } else {
             rowResults.add(ViewportResults.emptyCell());
           }
@@ -58,6 +64,7 @@ public class MainGridViewport extends AnalyticsViewport {
       allResults.add(rowResults);
     }
     _latestResults = new ViewportResults(allResults, _viewportSpec, _gridStructure.getColumnStructure(), _version);
+    _lastUpdateId = cache.getUpdateId();
     if (updated) {
       return _dataId;
     } else {
@@ -65,6 +72,33 @@ public class MainGridViewport extends AnalyticsViewport {
     }
   }
 
+  /**
+   * Adds the values displayed in this viewport to a map of values keyed by calculation configuration name.
+   * @param values The values to add to
+   */
+  /* package */ void addVisibleValues(Map<String, Set<ValueSpecification>> values) {
+    for (int rowIndex : _viewportSpec.getRows()) {
+      for (int colIndex : _viewportSpec.getColumns()) {
+        if (colIndex == MainGridStructure.LABEL_COLUMN || colIndex == MainGridStructure.QUANTITY_COLUMN) {
+          continue;
+        }
+        Pair<String, ValueSpecification> cellTarget = _gridStructure.getTargetForCell(rowIndex, colIndex);
+        if (cellTarget != null) {
+          addValue(values, cellTarget);
+        }
+      }
+    }
+  }
+
+  /* package */ static void addValue(Map<String, Set<ValueSpecification>> values, Pair<String, ValueSpecification> value) {
+    Set<ValueSpecification> calcConfigValues = values.get(value.getFirst());
+    if (calcConfigValues == null) {
+      calcConfigValues = Sets.newHashSet();
+      values.put(value.getFirst(), calcConfigValues);
+    }
+    calcConfigValues.add(value.getSecond());
+  }
+
   public long update(ViewportSpecification viewportSpec, ResultsCache cache) {
     ArgumentChecker.notNull(viewportSpec, "viewportSpec");
     ArgumentChecker.notNull(cache, "cache");
@@ -6,73 +6,144 @@
 package com.opengamma.web.server.push.analytics;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import org.apache.commons.collections.buffer.CircularFifoBuffer;
-
+import com.google.common.base.Objects;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Maps;
 import com.opengamma.engine.value.ComputedValue;
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.ViewResultEntry;
 import com.opengamma.engine.view.ViewResultModel;
 import com.opengamma.util.ArgumentChecker;
 import com.opengamma.util.money.CurrencyAmount;
+import com.opengamma.web.server.push.analytics.formatting.ResultsFormatter;
 
 /**
- *
+ * Immutable snapshot of the results of a view process as of a calculation cycle. Each cycle's results produce a new
+ * version derived from the previous one so a version can be shared by every client looking at the view process
+ * without any copying or locking. The results are held in segments and a new version only copies the segments
+ * containing values that changed in the new cycle, sharing the rest with the previous version. A value equal to the
+ * one already cached keeps its cache item, so the history of a value records its changes. Formatted values are
+ * memoized on the cache items so each value is only formatted once however many clients display it.
  */
 /* package */ class ResultsCache {
 
   private static final int MAX_HISTORY_SIZE = 20;
 
+  /** Number of segments the results are split into, must be a power of two. */
+  private static final int SEGMENT_COUNT = 64;
+
+  /** Cache containing no results. */
+  /* package */ static final ResultsCache EMPTY = new ResultsCache(emptySegments(), 0);
+
   // is this likely to change? will it ever by dynamic? i.e. client specifies what types it wants history for?
   private static final Set<Class<?>> s_historyTypes =
       ImmutableSet.<Class<?>>of(Double.class, BigDecimal.class, CurrencyAmount.class);
   private static final Result s_emptyResult = Result.empty();
   private static final Result s_emptyResultWithHistory = Result.emptyWithHistory();
 
-  private final Map<ResultKey, CacheItem> _results = Maps.newHashMap();
+  /** The results, split into segments by key hash. Segments are never modified once the version is created. */
+  private final Map<ResultKey, CacheItem>[] _segments;
 
   /** ID that's incremented each time results are received, used for keeping track of which items were updated. */
-  private long _lastUpdateId = 0;
+  private final long _updateId;
 
-  /* package */ void put(ViewResultModel results) {
-    _lastUpdateId++;
+  private ResultsCache(Map<ResultKey, CacheItem>[] segments, long updateId) {
+    _segments = segments;
+    _updateId = updateId;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<ResultKey, CacheItem>[] emptySegments() {
+    Map<ResultKey, CacheItem>[] segments = new Map[SEGMENT_COUNT];
+    for (int i = 0; i < SEGMENT_COUNT; i++) {
+      segments[i] = Collections.emptyMap();
+    }
+    return segments;
+  }
+
+  private static int segmentIndex(ResultKey key) {
+    int hash = key.hashCode();
+    return (hash ^ (hash >>> 16)) & (SEGMENT_COUNT - 1);
+  }
+
+  /**
+   * Returns a new version of the cache containing the results from a calculation cycle. This instance isn't changed.
+   * @param results The results of the cycle, either all of them or those that changed since this version
+   * @return A new cache containing the new results and the results from this cache that weren't replaced
+   */
+  /* package */ ResultsCache withResults(ViewResultModel results) {
+    long updateId = _updateId + 1;
+    Map<ResultKey, CacheItem>[] newSegments = _segments.clone();
+    boolean[] copied = new boolean[SEGMENT_COUNT];
     List<ViewResultEntry> allResults = results.getAllResults();
     for (ViewResultEntry result : allResults) {
       ComputedValue computedValue = result.getComputedValue();
       Object value = computedValue.getValue();
       ResultKey key = new ResultKey(result.getCalculationConfiguration(), computedValue.getSpecification());
-      CacheItem cacheResult = _results.get(key);
+      int index = segmentIndex(key);
+      CacheItem cacheResult = newSegments[index].get(key);
+      if (cacheResult != null && Objects.equal(cacheResult.getValue(), value)) {
+        // unchanged, keep the item so its formatted values are reused and it isn't flagged as updated
+        continue;
+      }
+      if (!copied[index]) {
+        newSegments[index] = new HashMap<ResultKey, CacheItem>(newSegments[index]);
+        copied[index] = true;
+      }
+      Map<ResultKey, CacheItem> segment = newSegments[index];
       if (cacheResult == null) {
-        CacheItem newResult = CacheItem.forValue(value, _lastUpdateId);
-        _results.put(key, newResult);
+        segment.put(key, CacheItem.forValue(value, updateId));
       } else {
-        cacheResult.setLatestValue(value, _lastUpdateId);
+        segment.put(key, cacheResult.withValue(value, updateId));
       }
     }
+    return new ResultsCache(newSegments, updateId);
   }
 
-    /* package */ Collection<Object> getHistory(String calcConfigName, ValueSpecification valueSpec) {
-      return getHistory(calcConfigName, valueSpec, null);
-    }
+  /**
+   * @return ID of the set of results that produced this version of the cache, increases with each version
+   */
+  /* package */ long getUpdateId() {
+    return _updateId;
+  }
 
-    /* package */ Collection<Object> getHistory(String calcConfigName, ValueSpecification valueSpec, Class<?> columnType) {
+  /* package */ Collection<Object> getHistory(String calcConfigName, ValueSpecification valueSpec) {
+    return getHistory(calcConfigName, valueSpec, null);
+  }
+
+  /* package */ Collection<Object> getHistory(String calcConfigName, ValueSpecification valueSpec, Class<?> columnType) {
     Result result = getResult(calcConfigName, valueSpec, columnType);
     return result.getHistory();
   }
 
+  /**
+   * Returns a result, flagged as updated if it changed in the set of results that created this version of the cache.
+   */
   /* package */ Result getResult(String calcConfigName, ValueSpecification valueSpec, Class<?> columnType) {
-    CacheItem item = _results.get(new ResultKey(calcConfigName, valueSpec));
+    return getResult(calcConfigName, valueSpec, columnType, _updateId - 1);
+  }
+
+  /**
+   * Returns a result, flagged as updated if it changed in any version after the one a client last saw. A client that
+   * skips versions still sees the values that changed in the versions it skipped as updated.
+   * @param calcConfigName The calculation configuration name
+   * @param valueSpec The value's specification
+   * @param columnType The type of the column displaying the value, used to decide whether an empty result has history
+   * @param lastSeenUpdateId The {@link #getUpdateId() update ID} of the version the client last saw
+   * @return The result
+   */
+  /* package */ Result getResult(String calcConfigName, ValueSpecification valueSpec, Class<?> columnType, long lastSeenUpdateId) {
+    ResultKey key = new ResultKey(calcConfigName, valueSpec);
+    CacheItem item = _segments[segmentIndex(key)].get(key);
     if (item != null) {
-      // flag whether this result was updated by the last set of results that were put into the cache
-      boolean updatedByLastResults = (item.getLastUpdateId() == _lastUpdateId);
-      return new Result(item.getValue(), item.getHistory(), updatedByLastResults);
+      return new Result(item, item.getLastUpdateId() > lastSeenUpdateId);
     } else {
       if (s_historyTypes.contains(columnType)) {
         return s_emptyResultWithHistory;
@@ -84,18 +155,24 @@ import com.opengamma.util.money.CurrencyAmount;
 
   /* package */ static class Result {
 
-    private final Object _value;
+    private final CacheItem _item;
     private final Collection<Object> _history;
     private final boolean _updated;
 
-    private Result(Object value, Collection<Object> history, boolean updated) {
-      _value = value;
-      _history = history;
+    private Result(CacheItem item, boolean updated) {
+      _item = item;
+      _history = item.getHistory();
       _updated = updated;
     }
 
+    private Result(Collection<Object> history) {
+      _item = null;
+      _history = history;
+      _updated = false;
+    }
+
     public Object getValue() {
-      return _value;
+      return _item != null ? _item.getValue() : null;
     }
 
     public Collection<Object> getHistory() {
@@ -106,65 +183,135 @@ import com.opengamma.util.money.CurrencyAmount;
       return _updated;
     }
 
+    /**
+     * @return ID of the results that last updated the value, -1 if there is no value
+     */
+    public long getLastUpdateId() {
+      return _item != null ? _item.getLastUpdateId() : -1;
+    }
+
+    /* package */ CacheItem getItem() {
+      return _item;
+    }
+
     public static Result empty() {
-      return new Result(null, null, false);
+      return new Result(null);
     }
 
     public static Result emptyWithHistory() {
-      return new Result(null, Collections.emptyList(), false);
+      return new Result(Collections.emptyList());
     }
   }
 
-  private static class CacheItem {
+  /**
+   * Immutable value and history for a single result. The formatted versions of the value are computed on demand and
+   * retained for as long as the item is, i.e. until the value is replaced by a later cycle.
+   */
+  /* package */ static final class CacheItem {
 
-    private final Collection<Object> _history;
+    private final Object _value;
+    private final List<Object> _history;
+    private final long _lastUpdateId;
 
-    private Object _latestValue;
-    private long _lastUpdateId = -1;
+    private volatile FormattedValues _formattedValues;
 
-    @SuppressWarnings("unchecked")
-    private CacheItem(Collection<Object> history) {
+    private CacheItem(Object value, List<Object> history, long lastUpdateId) {
+      _value = value;
       _history = history;
+      _lastUpdateId = lastUpdateId;
     }
 
-    @SuppressWarnings("unchecked")
     private static CacheItem forValue(Object value, long lastUpdateId) {
       ArgumentChecker.notNull(value, "latestValue");
-      CircularFifoBuffer history;
+      List<Object> history;
       if (s_historyTypes.contains(value.getClass())) {
-        history = new CircularFifoBuffer(MAX_HISTORY_SIZE);
+        history = Collections.singletonList(value);
       } else {
         history = null;
       }
-      CacheItem result = new CacheItem(history);
-      result.setLatestValue(value, lastUpdateId);
-      return result;
+      return new CacheItem(value, history, lastUpdateId);
+    }
+
+    private CacheItem withValue(Object value, long lastUpdateId) {
+      if (_history == null) {
+        return new CacheItem(value, null, lastUpdateId);
+      }
+      int start = Math.max(0, _history.size() + 1 - MAX_HISTORY_SIZE);
+      List<Object> history = new ArrayList<Object>(_history.size() + 1 - start);
+      history.addAll(_history.subList(start, _history.size()));
+      history.add(value);
+      return new CacheItem(value, Collections.unmodifiableList(history), lastUpdateId);
     }
 
     private Object getValue() {
-      return _latestValue;
+      return _value;
     }
 
-    private void setLatestValue(Object latestValue, long lastUpdateId) {
-      _latestValue = latestValue;
-      _lastUpdateId = lastUpdateId;
-      if (_history != null) {
-        _history.add(latestValue);
-      }
+    private Collection<Object> getHistory() {
+      return _history;
     }
 
-    /* package */
-    @SuppressWarnings("unchecked")
-    Collection<Object> getHistory() {
-      if (_history != null) {
-        return Collections.unmodifiableCollection(_history);
+    private long getLastUpdateId() {
+      return _lastUpdateId;
+    }
+
+    /* package */ Object getFormattedValue(ResultsFormatter formatter, ValueSpecification valueSpec, boolean expanded) {
+      FormattedValues formattedValues = getFormattedValues(formatter);
+      if (expanded) {
+        Object formatted = formattedValues._expandedValue;
+        if (formatted == null) {
+          formatted = formatter.formatForExpandedDisplay(_value, valueSpec);
+          formattedValues._expandedValue = formatted;
+        }
+        return formatted;
       } else {
+        Object formatted = formattedValues._value;
+        if (formatted == null) {
+          formatted = formatter.formatForDisplay(_value, valueSpec);
+          formattedValues._value = formatted;
+        }
+        return formatted;
+      }
+    }
+
+    /* package */ List<Object> getFormattedHistory(ResultsFormatter formatter, ValueSpecification valueSpec) {
+      if (_history == null) {
         return null;
       }
+      FormattedValues formattedValues = getFormattedValues(formatter);
+      List<Object> formatted = formattedValues._history;
+      if (formatted == null) {
+        formatted = new ArrayList<Object>(_history.size());
+        for (Object historyValue : _history) {
+          formatted.add(formatter.formatForHistory(historyValue, valueSpec));
+        }
+        formatted = Collections.unmodifiableList(formatted);
+        formattedValues._history = formatted;
+      }
+      return formatted;
     }
 
-    private long getLastUpdateId() {
-      return _lastUpdateId;
+    private FormattedValues getFormattedValues(ResultsFormatter formatter) {
+      // there's normally a single formatter so a race here at worst means a value is formatted more than once
+      FormattedValues formattedValues = _formattedValues;
+      if (formattedValues == null || formattedValues._formatter != formatter) {
+        formattedValues = new FormattedValues(formatter);
+        _formattedValues = formattedValues;
+      }
+      return formattedValues;
+    }
+  }
+
+  private static final class FormattedValues {
+
+    private final ResultsFormatter _formatter;
+
+    private volatile Object _value;
+    private volatile Object _expandedValue;
+    private volatile List<Object> _history;
+
+    private FormattedValues(ResultsFormatter formatter) {
+      _formatter = formatter;
     }
   }
 
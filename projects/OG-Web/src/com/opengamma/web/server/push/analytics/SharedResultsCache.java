@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.web.server.push.analytics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.time.Instant;
+
+import com.opengamma.engine.view.ViewDeltaResultModel;
+import com.opengamma.engine.view.ViewResultModel;
+import com.opengamma.id.UniqueId;
+
+/**
+ * The results of a view process shared by every analytics view connected to it. Each client receives the results of
+ * every cycle but only the first to arrive adds them to the cache, the others get the same immutable version.
+ * The latest version only ever moves forward. A client that falls so far behind that the version for its cycle has
+ * been discarded gets the latest version rather than rolling the shared results back to an old cycle.
+ */
+/* package */ class SharedResultsCache {
+
+  /** Number of versions kept so clients that fall behind still find the version for the cycle they're handling. */
+  private static final int MAX_RETAINED_VERSIONS = 4;
+
+  private final Map<UniqueId, ResultsCache> _versionsByCycleId = new LinkedHashMap<UniqueId, ResultsCache>() {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<UniqueId, ResultsCache> eldest) {
+      return size() > MAX_RETAINED_VERSIONS;
+    }
+  };
+
+  /** Number of cycle IDs remembered so results for a cycle whose version has been discarded can be recognised. */
+  private static final int MAX_REMEMBERED_CYCLES = 1024;
+
+  private final Set<UniqueId> _seenCycleIds = Collections.newSetFromMap(new LinkedHashMap<UniqueId, Boolean>() {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<UniqueId, Boolean> eldest) {
+      return size() > MAX_REMEMBERED_CYCLES;
+    }
+  });
+
+  private ResultsCache _latest = ResultsCache.EMPTY;
+
+  /** Calculation time of the cycle that produced the latest version, null if unknown. */
+  private Instant _latestCalculationTime;
+
+  /** Number of clients using the cache, guarded by the owning {@link SharedResultsCaches}. */
+  /* package */ int _refCount;
+
+  /**
+   * Returns the version of the cache containing a cycle's results, creating it if this is the first request for it.
+   * If the cycle is older than the latest version and its version has been discarded the latest version is
+   * returned and the cache isn't changed.
+   * @param results The results of a calculation cycle
+   * @return The version of the cache containing the results
+   */
+  /* package */ synchronized ResultsCache getResults(ViewResultModel results) {
+    return getResults(results, null);
+  }
+
+  /**
+   * Returns the version of the cache containing a cycle's results, creating it if this is the first request for it.
+   * A new version is built from the delta results if they contain every change since the latest version, otherwise
+   * from the full results.
+   * @param fullResults The results of a calculation cycle
+   * @param deltaResults The results that changed in the cycle, null if not available
+   * @return The version of the cache containing the results
+   */
+  /* package */ synchronized ResultsCache getResults(ViewResultModel fullResults, ViewDeltaResultModel deltaResults) {
+    UniqueId cycleId = fullResults.getViewCycleId();
+    ResultsCache version = _versionsByCycleId.get(cycleId);
+    if (version != null) {
+      return version;
+    }
+    if (isOlderThanLatest(cycleId, fullResults.getCalculationTime())) {
+      return _latest;
+    }
+    version = _latest.withResults(isDeltaFromLatest(deltaResults) ? deltaResults : fullResults);
+    _latest = version;
+    _latestCalculationTime = fullResults.getCalculationTime();
+    _versionsByCycleId.put(cycleId, version);
+    _seenCycleIds.add(cycleId);
+    return version;
+  }
+
+  /**
+   * @return true if the delta is relative to the latest version or an earlier one, so it contains every value that
+   * changed since the latest version
+   */
+  private boolean isDeltaFromLatest(ViewDeltaResultModel deltaResults) {
+    if (deltaResults == null || deltaResults.getPreviousResultTimestamp() == null || _latestCalculationTime == null) {
+      return false;
+    }
+    return !deltaResults.getPreviousResultTimestamp().isAfter(_latestCalculationTime);
+  }
+
+  private boolean isOlderThanLatest(UniqueId cycleId, Instant calculationTime) {
+    if (_seenCycleIds.contains(cycleId)) {
+      return true;
+    }
+    return calculationTime != null && _latestCalculationTime != null && calculationTime.isBefore(_latestCalculationTime);
+  }
+
+  /**
+   * @return The latest version of the cache
+   */
+  /* package */ synchronized ResultsCache getLatest() {
+    return _latest;
+  }
+}
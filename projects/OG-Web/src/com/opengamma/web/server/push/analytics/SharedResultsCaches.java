@@ -0,0 +1,54 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.web.server.push.analytics;
+
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+import com.opengamma.id.UniqueId;
+import com.opengamma.util.ArgumentChecker;
+
+/**
+ * Holds a {@link SharedResultsCache} for each view process with connected clients. A cache is created when the
+ * first client connected to a view process receives results and discarded when the last one disconnects.
+ */
+/* package */ class SharedResultsCaches {
+
+  private final Map<UniqueId, SharedResultsCache> _caches = Maps.newHashMap();
+
+  /**
+   * Returns the cache for a view process, creating it if necessary. Each call must be matched by a call to
+   * {@link #release}.
+   * @param viewProcessId ID of the view process
+   * @return The process's results cache
+   */
+  /* package */ synchronized SharedResultsCache acquire(UniqueId viewProcessId) {
+    ArgumentChecker.notNull(viewProcessId, "viewProcessId");
+    SharedResultsCache cache = _caches.get(viewProcessId);
+    if (cache == null) {
+      cache = new SharedResultsCache();
+      _caches.put(viewProcessId, cache);
+    }
+    cache._refCount++;
+    return cache;
+  }
+
+  /**
+   * Releases a cache obtained from {@link #acquire}.
+   * @param viewProcessId ID of the view process
+   */
+  /* package */ synchronized void release(UniqueId viewProcessId) {
+    ArgumentChecker.notNull(viewProcessId, "viewProcessId");
+    SharedResultsCache cache = _caches.get(viewProcessId);
+    if (cache != null && --cache._refCount == 0) {
+      _caches.remove(viewProcessId);
+    }
+  }
+
+  /* package */ synchronized int size() {
+    return _caches.size();
+  }
+}
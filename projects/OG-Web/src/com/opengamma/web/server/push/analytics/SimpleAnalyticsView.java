@@ -6,16 +6,21 @@
 package com.opengamma.web.server.push.analytics;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.opengamma.engine.ComputationTargetResolver;
-import com.opengamma.engine.view.ViewResultModel;
+import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.engine.view.calc.ViewCycle;
+import com.opengamma.engine.view.client.ViewClient;
 import com.opengamma.engine.view.compilation.CompiledViewDefinition;
+import com.opengamma.engine.view.execution.ExecutionFocus;
 import com.opengamma.util.ArgumentChecker;
 
 /**
@@ -25,23 +30,27 @@ import com.opengamma.util.ArgumentChecker;
 
   private static final Logger s_logger = LoggerFactory.getLogger(SimpleAnalyticsView.class);
 
-  private final ResultsCache _cache = new ResultsCache();
   private final AnalyticsViewListener _listener;
   private final ComputationTargetResolver _targetResolver;
+  private final ViewClient _viewClient;
 
   private MainAnalyticsGrid _portfolioGrid;
   private MainAnalyticsGrid _primitivesGrid;
   private CompiledViewDefinition _compiledViewDefinition;
+  private ExecutionFocus _executionFocus;
 
   public SimpleAnalyticsView(AnalyticsViewListener listener,
                              String portoflioGridId,
                              String primitivesGridId,
-                             ComputationTargetResolver targetResolver) {
+                             ComputationTargetResolver targetResolver,
+                             ViewClient viewClient) {
     ArgumentChecker.notNull(listener, "listener");
     ArgumentChecker.notNull(portoflioGridId, "portoflioGridId");
     ArgumentChecker.notNull(primitivesGridId, "primitivesGridId");
     ArgumentChecker.notNull(targetResolver, "targetResolver");
+    ArgumentChecker.notNull(viewClient, "viewClient");
     _targetResolver = targetResolver;
+    _viewClient = viewClient;
     _portfolioGrid = MainAnalyticsGrid.emptyPortfolio(portoflioGridId, _targetResolver);
     _primitivesGrid = MainAnalyticsGrid.emptyPrimitives(primitivesGridId, targetResolver);
     _listener = listener;
@@ -50,6 +59,7 @@ import com.opengamma.util.ArgumentChecker;
   @Override
   public void updateStructure(CompiledViewDefinition compiledViewDefinition) {
     _compiledViewDefinition = compiledViewDefinition;
+    List<String> closedDataIds = getAllViewportDataIds();
     // TODO this loses all dependency graphs. new grid needs to rebuild graphs from old grid. need stable row and col IDs to do that
     _portfolioGrid = MainAnalyticsGrid.portfolio(_compiledViewDefinition, _portfolioGrid.getGridId(), _targetResolver);
     _primitivesGrid = MainAnalyticsGrid.primitives(_compiledViewDefinition, _primitivesGrid.getGridId(), _targetResolver);
@@ -59,15 +69,55 @@ import com.opengamma.util.ArgumentChecker;
     gridIds.addAll(_portfolioGrid.getDependencyGraphGridIds());
     gridIds.addAll(_primitivesGrid.getDependencyGraphGridIds());
     _listener.gridStructureChanged(gridIds);
+    if (!closedDataIds.isEmpty()) {
+      _listener.viewportsClosed(closedDataIds);
+    }
+    updateExecutionFocus();
+  }
+
+  @Override
+  public void close() {
+    List<String> dataIds = getAllViewportDataIds();
+    if (!dataIds.isEmpty()) {
+      _listener.viewportsClosed(dataIds);
+    }
+  }
+
+  /**
+   * @return The data IDs of all viewports in the view, including those of dependency graphs
+   */
+  private List<String> getAllViewportDataIds() {
+    List<String> dataIds = new ArrayList<String>();
+    dataIds.addAll(_portfolioGrid.getAllViewportDataIds());
+    dataIds.addAll(_primitivesGrid.getAllViewportDataIds());
+    return dataIds;
   }
 
   @Override
-  public void updateResults(ViewResultModel results, ViewCycle viewCycle) {
-    _cache.put(results);
-    List<String> updatedIds = Lists.newArrayList();
-    updatedIds.addAll(_portfolioGrid.updateResults(_cache, viewCycle));
-    updatedIds.addAll(_primitivesGrid.updateResults(_cache, viewCycle));
-    _listener.gridDataChanged(updatedIds);
+  public void updateResults(ResultsCache results, ViewCycle viewCycle) {
+    Map<String, ViewportResults> updatedData = Maps.newLinkedHashMap();
+    updatedData.putAll(_portfolioGrid.updateResults(results, viewCycle));
+    updatedData.putAll(_primitivesGrid.updateResults(results, viewCycle));
+    if (_listener.isPushingViewportData()) {
+      _listener.viewportDataChanged(updatedData);
+    } else {
+      _listener.gridDataChanged(new ArrayList<String>(updatedData.keySet()));
+    }
+  }
+
+  /**
+   * Tells the engine which values the user is looking at so it can recalculate those more often than the rest of
+   * the view.
+   */
+  private void updateExecutionFocus() {
+    Map<String, Set<ValueSpecification>> values = Maps.newHashMap();
+    _portfolioGrid.addVisibleValues(values);
+    _primitivesGrid.addVisibleValues(values);
+    ExecutionFocus executionFocus = ExecutionFocus.of(values);
+    if (!executionFocus.equals(_executionFocus)) {
+      _executionFocus = executionFocus;
+      _viewClient.setExecutionFocus(executionFocus);
+    }
   }
 
   private MainAnalyticsGrid getGrid(GridType gridType) {
@@ -90,6 +140,7 @@ import com.opengamma.util.ArgumentChecker;
   @Override
   public long createViewport(GridType gridType, String viewportId, String dataId, ViewportSpecification viewportSpec) {
     long version = getGrid(gridType).createViewport(viewportId, dataId, viewportSpec);
+    updateExecutionFocus();
     _listener.gridDataChanged(dataId);
     s_logger.debug("Created viewport ID {} for the {} grid from {}", new Object[]{viewportId, gridType, viewportSpec});
     return version;
@@ -99,6 +150,7 @@ import com.opengamma.util.ArgumentChecker;
   public long updateViewport(GridType gridType, String viewportId, ViewportSpecification viewportSpec) {
     s_logger.debug("Updating viewport {} for {} grid to {}", new Object[]{viewportId, gridType, viewportSpec});
     long version = getGrid(gridType).updateViewport(viewportId, viewportSpec);
+    updateExecutionFocus();
     _listener.gridDataChanged(getGrid(gridType).getViewport(viewportId).getDataId());
     return version;
   }
@@ -106,7 +158,9 @@ import com.opengamma.util.ArgumentChecker;
   @Override
   public void deleteViewport(GridType gridType, String viewportId) {
     s_logger.debug("Deleting viewport {} from the {} grid", viewportId, gridType);
-    getGrid(gridType).deleteViewport(viewportId);
+    String dataId = getGrid(gridType).deleteViewport(viewportId);
+    updateExecutionFocus();
+    _listener.viewportsClosed(Collections.singletonList(dataId));
   }
 
   @Override
@@ -119,13 +173,18 @@ import com.opengamma.util.ArgumentChecker;
   public void openDependencyGraph(GridType gridType, String graphId, String gridId, int row, int col) {
     s_logger.debug("Opening dependency graph for cell ({}, {}) of the {} grid", new Object[]{row, col, gridType});
     getGrid(gridType).openDependencyGraph(graphId, gridId, row, col, _compiledViewDefinition);
+    updateExecutionFocus();
     _listener.gridStructureChanged(getGrid(gridType).getDependencyGraph(graphId).getGridId());
   }
 
   @Override
   public void closeDependencyGraph(GridType gridType, String graphId) {
     s_logger.debug("Closing dependency graph {} of the {} grid", graphId, gridType);
-    getGrid(gridType).closeDependencyGraph(graphId);
+    List<String> dataIds = getGrid(gridType).closeDependencyGraph(graphId);
+    updateExecutionFocus();
+    if (!dataIds.isEmpty()) {
+      _listener.viewportsClosed(dataIds);
+    }
   }
 
   @Override
@@ -153,7 +212,8 @@ import com.opengamma.util.ArgumentChecker;
   @Override
   public void deleteViewport(GridType gridType, String graphId, String viewportId) {
     s_logger.debug("Deleting viewport {} from dependency graph {} of the {} grid", new Object[]{viewportId, graphId, gridType});
-    getGrid(gridType).deleteViewport(graphId, viewportId);
+    String dataId = getGrid(gridType).deleteViewport(graphId, viewportId);
+    _listener.viewportsClosed(Collections.singletonList(dataId));
   }
 
   @Override
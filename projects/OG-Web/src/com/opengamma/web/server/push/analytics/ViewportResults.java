@@ -8,15 +8,18 @@ package com.opengamma.web.server.push.analytics;
 import java.util.Collection;
 import java.util.List;
 
+import com.google.common.collect.Lists;
+
 import com.opengamma.engine.value.ValueSpecification;
 import com.opengamma.util.ArgumentChecker;
+import com.opengamma.web.server.push.analytics.formatting.ResultsFormatter;
 
 /**
  *
  */
 public class ViewportResults {
 
-  private static final Cell s_emptyCell = new Cell(null, null, null);
+  private static final Cell s_emptyCell = new Cell(null, null, null, null);
 
   private final List<List<Cell>> _allResults;
   private final AnalyticsColumnGroups _columns;
@@ -59,13 +62,37 @@ public class ViewportResults {
     return _columns.getColumn(gridColIndex).getType();
   }
 
+  /**
+   * @param viewportRowIndex The row index <em>in terms of the viewport rows</em>
+   * @return The index of the row in the grid
+   */
+  public int getGridRowIndex(int viewportRowIndex) {
+    return _viewportSpec.getRows().get(viewportRowIndex);
+  }
+
+  /**
+   * @param viewportColIndex The column index <em>in terms of the viewport columns</em>
+   * @return The index of the column in the grid
+   */
+  public int getGridColumnIndex(int viewportColIndex) {
+    return _viewportSpec.getGridColumnIndex(viewportColIndex);
+  }
+
   public static Cell stringCell(String value) {
     ArgumentChecker.notNull(value, "value");
-    return new Cell(value, null, null);
+    return new Cell(value, null, null, null);
   }
 
   public static Cell valueCell(Object value, ValueSpecification valueSpecification, Collection<Object> history) {
-    return new Cell(value, valueSpecification, history);
+    return new Cell(value, valueSpecification, history, null);
+  }
+
+  /**
+   * Creates a cell for a value from the results cache. The cell's formatted value is shared with every other cell
+   * created from the same cache item.
+   */
+  /* package */ static Cell cachedValueCell(ResultsCache.Result result, ValueSpecification valueSpecification) {
+    return new Cell(result.getValue(), valueSpecification, result.getHistory(), result.getItem());
   }
 
   public static Cell emptyCell() {
@@ -87,11 +114,13 @@ public class ViewportResults {
     private final Object _value;
     private final ValueSpecification _valueSpecification;
     private final Collection<Object> _history;
+    private final ResultsCache.CacheItem _cacheItem;
 
-    private Cell(Object value, ValueSpecification valueSpecification, Collection<Object> history) {
+    private Cell(Object value, ValueSpecification valueSpecification, Collection<Object> history, ResultsCache.CacheItem cacheItem) {
       _value = value;
       _valueSpecification = valueSpecification;
       _history = history;
+      _cacheItem = cacheItem;
     }
 
     public Object getValue() {
@@ -105,5 +134,48 @@ public class ViewportResults {
     public Collection<Object> getHistory() {
       return _history;
     }
+
+    /**
+     * @param other Another cell, possibly null
+     * @return true if both cells show the same item from the results cache, in which case their values and
+     * histories are the same
+     */
+    public boolean isSameCachedValue(Cell other) {
+      return other != null && _cacheItem != null && _cacheItem == other._cacheItem;
+    }
+
+    /**
+     * @param formatter The formatter
+     * @param expanded Whether the value should be formatted for expanded display
+     * @return The formatted value, memoized if the cell's value came from the results cache
+     */
+    public Object getFormattedValue(ResultsFormatter formatter, boolean expanded) {
+      if (_cacheItem != null) {
+        return _cacheItem.getFormattedValue(formatter, _valueSpecification, expanded);
+      } else if (expanded) {
+        return formatter.formatForExpandedDisplay(_value, _valueSpecification);
+      } else {
+        return formatter.formatForDisplay(_value, _valueSpecification);
+      }
+    }
+
+    /**
+     * @param formatter The formatter
+     * @return The formatted history, memoized if the cell's value came from the results cache, null if the cell
+     * has no history
+     */
+    public List<Object> getFormattedHistory(ResultsFormatter formatter) {
+      if (_cacheItem != null) {
+        return _cacheItem.getFormattedHistory(formatter, _valueSpecification);
+      }
+      if (_history == null) {
+        return null;
+      }
+      List<Object> formattedHistory = Lists.newArrayListWithCapacity(_history.size());
+      for (Object historyValue : _history) {
+        formattedHistory.add(formatter.formatForHistory(historyValue, _valueSpecification));
+      }
+      return formattedHistory;
+    }
   }
 }
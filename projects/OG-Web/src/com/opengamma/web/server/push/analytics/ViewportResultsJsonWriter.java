@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.web.server.push.analytics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONObject;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.opengamma.util.ArgumentChecker;
+import com.opengamma.web.server.push.analytics.formatting.ResultsFormatter;
+
+/**
+ * Converts {@link ViewportResults} into the values sent to the client.
+ */
+public class ViewportResultsJsonWriter {
+
+  private static final String VERSION = "version";
+  private static final String VALUE_KEY = "v";
+  private static final String HISTORY_KEY = "h";
+  private static final String TYPE_KEY = "t";
+  private static final String DATA = "data";
+
+  private final ResultsFormatter _formatter;
+
+  public ViewportResultsJsonWriter(ResultsFormatter formatter) {
+    ArgumentChecker.notNull(formatter, "formatter");
+    _formatter = formatter;
+  }
+
+  /**
+   * {version: viewportVersion, data: [[cell00, cell01, ...], [cell10, cell11, ...], ...]}
+   * @param results The viewport results
+   * @return The results as JSON
+   */
+  public String getJson(ViewportResults results) {
+    List<List<ViewportResults.Cell>> viewportCells = results.getResults();
+    List<List<Object>> allResults = Lists.newArrayListWithCapacity(viewportCells.size());
+    for (List<ViewportResults.Cell> rowCells : viewportCells) {
+      List<Object> rowResults = Lists.newArrayListWithCapacity(rowCells.size());
+      int viewportColIndex = 0;
+      for (ViewportResults.Cell cell : rowCells) {
+        rowResults.add(getCellValue(results, cell, viewportColIndex++));
+      }
+      allResults.add(rowResults);
+    }
+    ImmutableMap<String, Object> resultsMap = ImmutableMap.of(VERSION, results.getVersion(), DATA, allResults);
+    return new JSONObject(resultsMap).toString();
+  }
+
+  /**
+   * Returns the value sent to the client for a cell. This is the formatted value unless the cell has history or
+   * its column doesn't have a fixed type. In that case it's a map containing the formatted value, its history and
+   * its type.
+   * @param results The viewport results containing the cell
+   * @param cell The cell
+   * @param viewportColIndex The index of the cell's column <em>in terms of the viewport columns</em>
+   * @return The cell's value for the client, a formatted value or a map
+   */
+  public Object getCellValue(ViewportResults results, ViewportResults.Cell cell, int viewportColIndex) {
+    Object cellValue = cell.getValue();
+    // formatted values of cells from the shared results cache are memoized so they're only formatted once
+    Object formattedValue = cell.getFormattedValue(_formatter, results.isExpanded());
+    Collection<Object> history = cell.getHistory();
+    Class<?> columnType = results.getColumnType(viewportColIndex);
+
+    if (columnType == null || history != null) {
+      // if there is history or we need to send type info then we need to send an object, not just the value
+      Map<String, Object> valueMap = Maps.newHashMap();
+      valueMap.put(VALUE_KEY, formattedValue);
+      // if the the column type isn't known then send the type with the value
+      if (columnType == null) {
+        Class<?> cellValueClass = cellValue == null ? null : cellValue.getClass();
+        valueMap.put(TYPE_KEY, _formatter.getFormatType(cellValueClass).name());
+      }
+      if (history != null) {
+        valueMap.put(HISTORY_KEY, cell.getFormattedHistory(_formatter));
+      }
+      return valueMap;
+    } else {
+      return formattedValue;
+    }
+  }
+}
@@ -13,6 +13,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -20,6 +21,7 @@ import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Sets;
 import com.opengamma.engine.ComputationTargetResolver;
 import com.opengamma.engine.ComputationTargetSpecification;
@@ -355,41 +357,55 @@ import com.opengamma.web.server.conversion.ResultConverterCache;
   }
 
   @Override
-  protected String[][] getRawDataRows(ViewComputationResultModel result) {
-    String[][] rows = new String[getGridStructure().getTargets().size()][];
-    int columnCount = getGridStructure().getColumns().size() + getAdditionalCsvColumnCount();
-    int offset = getCsvDataColumnOffset();
-    for (ComputationTargetSpecification target : result.getAllTargets()) {
-      Integer rowId = getGridStructure().getRowId(target);
-      if (rowId == null) {
-        continue;
-      }
-      ViewTargetResultModel resultModel = result.getTargetResult(target);
-      String[] values = new String[columnCount];
-      supplementCsvRowData(rowId, target, values);
-      rows[rowId] = values;
-      for (String calcConfigName : resultModel.getCalculationConfigurationNames()) {
-        for (ComputedValue value : resultModel.getAllValues(calcConfigName)) {
-          Object originalValue = value.getValue();
-          if (originalValue == null) {
-            continue;
-          }
-          ValueSpecification specification = value.getSpecification();
-          Collection<WebViewGridColumn> columns = getGridStructure().getColumns(calcConfigName, specification);
-          if (columns == null) {
-            // Expect a column for every value
-            s_logger.warn("Could not find column for calculation configuration {} with value specification {}", calcConfigName, specification);
-            continue;
-          }
-          for (WebViewGridColumn column : columns) {
-            int colId = column.getId();
-            ResultConverter<Object> converter = getConverter(column, value.getSpecification().getValueName(), originalValue.getClass());
-            values[offset + colId] = converter.convertToText(getConverterCache(), value.getSpecification(), originalValue);
+  protected Iterable<String[]> getRawDataRows(final ViewComputationResultModel result) {
+    final int columnCount = getGridStructure().getColumns().size() + getAdditionalCsvColumnCount();
+    final int offset = getCsvDataColumnOffset();
+    return new Iterable<String[]>() {
+      @Override
+      public Iterator<String[]> iterator() {
+        // targets are in row order, rows are only created as they're needed
+        final Iterator<Map.Entry<ComputationTargetSpecification, Integer>> targets = getGridStructure().getTargets().entrySet().iterator();
+        return new AbstractIterator<String[]>() {
+          @Override
+          protected String[] computeNext() {
+            while (targets.hasNext()) {
+              Map.Entry<ComputationTargetSpecification, Integer> target = targets.next();
+              ViewTargetResultModel resultModel = result.getTargetResult(target.getKey());
+              if (resultModel != null) {
+                return getRawDataRow(target.getValue(), target.getKey(), resultModel, columnCount, offset);
+              }
+            }
+            return endOfData();
           }
+        };
+      }
+    };
+  }
+
+  private String[] getRawDataRow(int rowId, ComputationTargetSpecification target, ViewTargetResultModel resultModel, int columnCount, int offset) {
+    String[] values = new String[columnCount];
+    supplementCsvRowData(rowId, target, values);
+    for (String calcConfigName : resultModel.getCalculationConfigurationNames()) {
+      for (ComputedValue value : resultModel.getAllValues(calcConfigName)) {
+        Object originalValue = value.getValue();
+        if (originalValue == null) {
+          continue;
+        }
+        ValueSpecification specification = value.getSpecification();
+        Collection<WebViewGridColumn> columns = getGridStructure().getColumns(calcConfigName, specification);
+        if (columns == null) {
+          // Expect a column for every value
+          s_logger.warn("Could not find column for calculation configuration {} with value specification {}", calcConfigName, specification);
+          continue;
+        }
+        for (WebViewGridColumn column : columns) {
+          int colId = column.getId();
+          ResultConverter<Object> converter = getConverter(column, value.getSpecification().getValueName(), originalValue.getClass());
+          values[offset + colId] = converter.convertToText(getConverterCache(), value.getSpecification(), originalValue);
         }
       }
     }
-    return rows;
+    return values;
   }
 
   protected int getAdditionalCsvColumnCount() {
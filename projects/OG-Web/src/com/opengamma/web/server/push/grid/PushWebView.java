@@ -272,13 +272,13 @@ import com.opengamma.web.server.push.reports.ViewportData;
       ViewComputationResultModel latestResult = _viewClient.getLatestResult();
       GridData portfolioData;
       if (_portfolioGrid != null) {
-        portfolioData = new GridData(_portfolioGrid.getRawDataColumnHeaders(), _portfolioGrid.getRawDataRows(latestResult));
+        portfolioData = new GridData(_portfolioGrid.getRawDataRows(latestResult), _portfolioGrid.getRawDataColumnHeaders());
       } else {
         portfolioData = GridData.empty();
       }
       GridData primitivesData;
       if (_primitivesGrid != null) {
-        primitivesData = new GridData(_primitivesGrid.getRawDataColumnHeaders(), _primitivesGrid.getRawDataRows(latestResult));
+        primitivesData = new GridData(_primitivesGrid.getRawDataRows(latestResult), _primitivesGrid.getRawDataColumnHeaders());
       } else {
         primitivesData = GridData.empty();
       }
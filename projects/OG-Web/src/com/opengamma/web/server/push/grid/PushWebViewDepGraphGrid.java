@@ -307,7 +307,7 @@ import com.opengamma.web.server.conversion.ResultConverterCache;
   }
 
   @Override
-  protected String[][] getRawDataRows(ViewComputationResultModel result) {
+  protected Iterable<String[]> getRawDataRows(ViewComputationResultModel result) {
     // TODO implement this if primitive dependency graphs are required
     return null;
   }
@@ -191,6 +191,12 @@ import com.opengamma.web.server.conversion.ResultConverterCache;
   
   protected abstract String[][] getRawDataColumnHeaders();
 
-  protected abstract String[][] getRawDataRows(ViewComputationResultModel result);
+  /**
+   * Returns the rows of raw data for a result.  The rows are created as the returned value is iterated so callers
+   * can write them out one at a time without holding the whole grid in memory.
+   * @param result The result
+   * @return The rows of raw data, possibly containing nulls for rows with no data
+   */
+  protected abstract Iterable<String[]> getRawDataRows(ViewComputationResultModel result);
   
 }
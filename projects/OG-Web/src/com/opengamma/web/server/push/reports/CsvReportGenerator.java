@@ -5,17 +5,22 @@
  */
 package com.opengamma.web.server.push.reports;
 
-import java.io.ByteArrayInputStream;
-import java.io.StringWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
 
 import au.com.bytecode.opencsv.CSVWriter;
 
 import com.opengamma.web.server.WebGridCell;
 
 /**
- * Generates CSV files containing a single snapshot of a viewport's data.
+ * Generates CSV files containing a single snapshot of a viewport's data.  The CSV is written row by row as the
+ * report is sent so the memory needed doesn't depend on the size of the grids.
  * @deprecated Reports are being redesigned
  */
 public class CsvReportGenerator implements ReportGenerator {
@@ -23,51 +28,70 @@ public class CsvReportGenerator implements ReportGenerator {
   /** The media type of the generated files */
   private static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
 
+  /** Encoding of the generated files */
+  private static final String ENCODING = "UTF-8";
+
   @Override
-  public Report generateReport(ViewportData viewportData) {
-    StringBuilder builder = new StringBuilder();
-    builder.append(viewportData.getViewClientId()).append("\n");
-    builder.append("Valuation time: ").append(viewportData.getValuationTime()).append("\n\n");
+  public Report generateReport(final ViewportData viewportData) {
+    String filename = viewportData.getViewClientId() + "-" + viewportData.getValuationTime() + ".csv";
+    StreamingOutput output = new StreamingOutput() {
+      @Override
+      public void write(OutputStream outputStream) throws IOException {
+        writeReport(viewportData, outputStream);
+      }
+    };
+    return new Report(filename, output, TEXT_CSV);
+  }
 
-    builder.append("Portfolio\n");
-    builder.append(generateGridCsv(viewportData.getPortfolioData()));
-    builder.append("\n");
+  /**
+   * Writes the CSV for a set of viewport data.
+   * @param viewportData The data
+   * @param outputStream The stream to write to, flushed but not closed
+   * @throws IOException If the data can't be written
+   */
+  /* package */ void writeReport(ViewportData viewportData, OutputStream outputStream) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, ENCODING));
+    CSVWriter csvWriter = new CSVWriter(writer);
+    writer.append(viewportData.getViewClientId().toString()).append("\n");
+    writer.append("Valuation time: ").append(String.valueOf(viewportData.getValuationTime())).append("\n\n");
+
+    writer.append("Portfolio\n");
+    writeGridCsv(viewportData.getPortfolioData(), csvWriter);
+    writer.append("\n");
     for (DependencyGraphGridData gridData : viewportData.getPortfolioDependencyGraphData()) {
       WebGridCell cell = gridData.getCell();
-      builder.append("Portfolio dependency graph [").append(cell.getRowId()).append(", ").append(cell.getColumnId()).append("]\n");
-      builder.append(generateGridCsv(gridData));
-      builder.append("\n");
+      writer.append("Portfolio dependency graph [").append(Integer.toString(cell.getRowId())).append(", ")
+          .append(Integer.toString(cell.getColumnId())).append("]\n");
+      writeGridCsv(gridData, csvWriter);
+      writer.append("\n");
     }
-    
-    builder.append("Primitives\n");
-    builder.append(generateGridCsv(viewportData.getPrimitivesData()));
-    builder.append("\n");
+
+    writer.append("Primitives\n");
+    writeGridCsv(viewportData.getPrimitivesData(), csvWriter);
+    writer.append("\n");
     for (DependencyGraphGridData gridData : viewportData.getPrimitivesDependencyGraphData()) {
       WebGridCell cell = gridData.getCell();
-      builder.append("Primitives dependency graph [").append(cell.getRowId()).append(", ").append(cell.getColumnId()).append("]\n");
-      builder.append(generateGridCsv(gridData));
-      builder.append("\n");
+      writer.append("Primitives dependency graph [").append(Integer.toString(cell.getRowId())).append(", ")
+          .append(Integer.toString(cell.getColumnId())).append("]\n");
+      writeGridCsv(gridData, csvWriter);
+      writer.append("\n");
     }
-    String filename = viewportData.getViewClientId() + "-" + viewportData.getValuationTime() + ".csv";
-    ByteArrayInputStream reportStream = new ByteArrayInputStream(builder.toString().getBytes());
-    return new Report(filename, reportStream, TEXT_CSV);
+    // don't close the writer, the caller owns the output stream
+    csvWriter.flush();
   }
 
-  private String generateGridCsv(GridData gridData) {
-    StringWriter stringWriter = new StringWriter();
-    CSVWriter csvWriter = new CSVWriter(stringWriter);
+  private static void writeGridCsv(GridData gridData, CSVWriter csvWriter) {
     String[][] columnHeaders = gridData.getHeaders();
     if (columnHeaders != null) {
       for (String[] header : columnHeaders) {
         csvWriter.writeNext(header);
       }
     }
-    String[][] rows = gridData.getRows();
+    Iterable<String[]> rows = gridData.getRows();
     if (rows != null) {
       for (String[] row : rows) {
         csvWriter.writeNext(row);
       }
     }
-    return stringWriter.toString();
   }
 }
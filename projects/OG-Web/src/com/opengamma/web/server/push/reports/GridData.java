@@ -5,25 +5,37 @@
  */
 package com.opengamma.web.server.push.reports;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 /**
- * Contains the raw data for a portfolio or primitives grid.
+ * Contains the raw data for a portfolio or primitives grid.  The rows can be generated lazily as they are iterated
+ * so a report can be written without holding every row of a large grid in memory at once.
  * @deprecated Reports are being redesigned
  */
 public class GridData {
 
   private final String[][] _headers;
-  private final String[][] _rows;
+  private final Iterable<String[]> _rows;
 
   public GridData(String[][] rows, String[][] headers) {
-    this._rows = rows;
-    this._headers = headers;
+    this(rows == null ? null : Arrays.asList(rows), headers);
+  }
+
+  /**
+   * @param rows The rows, possibly generated on demand.  Null rows are skipped when the report is written
+   * @param headers The column headers
+   */
+  public GridData(Iterable<String[]> rows, String[][] headers) {
+    _rows = rows;
+    _headers = headers;
   }
 
   /**
    * @return An empty set of data
    */
   public static GridData empty() {
-    return new GridData(new String[][]{}, new String[][]{});
+    return new GridData(Collections.<String[]>emptyList(), new String[][]{});
   }
 
   // TODO why is this a 2D array?
@@ -31,7 +43,10 @@ public class GridData {
     return _headers;
   }
 
-  public String[][] getRows() {
+  /**
+   * @return The rows of the grid, may be generated as they are iterated
+   */
+  public Iterable<String[]> getRows() {
     return _rows;
   }
 }
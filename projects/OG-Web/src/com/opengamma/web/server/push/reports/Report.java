@@ -5,13 +5,19 @@
  */
 package com.opengamma.web.server.push.reports;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.commons.io.IOUtils;
 
 /**
  * Wraps a report that is downloaded from the web interface, e.g. a CSV file, Excel workbook or PDF.  The report
- * contains a snapshot of a view client's data.
+ * contains a snapshot of a view client's data.  The report's content is written directly to the response when it
+ * is sent so large reports don't have to be held in memory.
  * @deprecated Reports are being redesigned
  */
 public class Report {
@@ -19,23 +25,48 @@ public class Report {
   /** Name of the report file */
   private final String _filename;
 
-  /** Stream for reading the report */
-  private final InputStream _inputStream;
+  /** Writes the report's content */
+  private final StreamingOutput _output;
 
   /** Media type of the report file */
   private final MediaType _mediaType;
 
-  public Report(String filename, InputStream inputStream, MediaType mediaType) {
+  /**
+   * @param filename Name of the report file
+   * @param output Writes the report's content when the report is sent
+   * @param mediaType Media type of the report file
+   */
+  public Report(String filename, StreamingOutput output, MediaType mediaType) {
     _filename = filename;
-    _inputStream = inputStream;
+    _output = output;
     _mediaType = mediaType;
   }
 
   /**
-   * @return Input stream for reading the report
+   * @param filename Name of the report file
+   * @param inputStream Stream for reading the report, closed once the report has been written
+   * @param mediaType Media type of the report file
+   */
+  public Report(String filename, final InputStream inputStream, MediaType mediaType) {
+    this(filename, new StreamingOutput() {
+      @Override
+      public void write(OutputStream output) throws IOException {
+        try {
+          IOUtils.copy(inputStream, output);
+        } finally {
+          IOUtils.closeQuietly(inputStream);
+        }
+      }
+    }, mediaType);
+  }
+
+  /**
+   * Writes the report's content.  This can only be called once.
+   * @param outputStream The stream to write to, not closed by this method
+   * @throws IOException If the report can't be written
    */
-  public InputStream getInputStream() {
-    return _inputStream;
+  public void writeTo(OutputStream outputStream) throws IOException {
+    _output.write(outputStream);
   }
 
   /**
@@ -6,28 +6,38 @@
 package com.opengamma.web.server.push.rest;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
 
-import org.apache.commons.io.IOUtils;
-
 import com.opengamma.web.server.push.reports.Report;
 
 /**
- * Writes {@link Report} instance into the body of an HTTP reponse.
+ * Writes {@link Report} instance into the body of an HTTP reponse.  The size of the report isn't known in advance
+ * so the response is chunked and the report is streamed straight into it.  The report is gzipped if the client
+ * accepts that encoding.
  * @deprecated reports are going to be redesigned
  */
 @Provider
 public class ReportMessageBodyWriter implements MessageBodyWriter<Report> {
 
+  /** Name of the gzip content encoding */
+  private static final String GZIP = "gzip";
+
+  /** Headers of the request being handled, used to check whether the client accepts gzipped content */
+  @Context
+  private HttpHeaders _requestHeaders;
+
   /**
    * @param type Must be {@link Report}
    * @return {@code true} if {@code type} is {@link Report}
@@ -38,8 +48,7 @@ public class ReportMessageBodyWriter implements MessageBodyWriter<Report> {
   }
 
   /**
-   * TODO is this a problem?
-   * @return -1 (size not known)
+   * @return -1 (size not known, the response is chunked)
    */
   @Override
   public long getSize(Report report, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
@@ -47,7 +56,7 @@ public class ReportMessageBodyWriter implements MessageBodyWriter<Report> {
   }
 
   /**
-   * Writes from {@link Report#getInputStream()} to {@code entityStream}.
+   * Writes the report to {@code entityStream}, compressing it if the client accepts gzip.
    */
   @Override
   public void writeTo(Report report,
@@ -57,12 +66,31 @@ public class ReportMessageBodyWriter implements MessageBodyWriter<Report> {
                       MediaType mediaType,
                       MultivaluedMap<String, Object> httpHeaders,
                       OutputStream entityStream) throws IOException, WebApplicationException {
-    InputStream inputStream = null;
-    try {
-      inputStream = report.getInputStream();
-      IOUtils.copy(inputStream, entityStream);
-    } finally {
-      IOUtils.closeQuietly(inputStream);
+    if (acceptsGzip()) {
+      httpHeaders.putSingle(HttpHeaders.CONTENT_ENCODING, GZIP);
+      GZIPOutputStream gzipStream = new GZIPOutputStream(entityStream);
+      report.writeTo(gzipStream);
+      gzipStream.finish();
+    } else {
+      report.writeTo(entityStream);
+    }
+  }
+
+  private boolean acceptsGzip() {
+    if (_requestHeaders == null) {
+      return false;
+    }
+    List<String> acceptEncodings = _requestHeaders.getRequestHeader(HttpHeaders.ACCEPT_ENCODING);
+    if (acceptEncodings == null) {
+      return false;
+    }
+    for (String acceptEncoding : acceptEncodings) {
+      for (String encoding : acceptEncoding.split(",")) {
+        if (GZIP.equalsIgnoreCase(encoding.split(";")[0].trim())) {
+          return true;
+        }
+      }
     }
+    return false;
   }
 }
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.web.server;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+
+import org.cometd.server.continuation.ContinuationCometdServlet;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.nio.SelectChannelConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the Cometd servlet used by the web client starts and completes a Bayeux handshake
+ * on the version of Jetty in use.
+ */
+@Test
+public class CometdServletTest {
+
+  private static final int PORT = 8085;
+
+  private Server _server;
+
+  @BeforeClass
+  void createJettyServer() throws Exception {
+    SelectChannelConnector connector = new SelectChannelConnector();
+    connector.setPort(PORT);
+    ServletContextHandler context = new ServletContextHandler();
+    context.setContextPath("/");
+    ServletHolder holder = new ServletHolder(new ContinuationCometdServlet());
+    holder.setInitOrder(1);
+    context.addServlet(holder, "/cometd/*");
+    _server = new Server();
+    _server.addConnector(connector);
+    _server.setHandler(context);
+    _server.start();
+  }
+
+  @AfterClass
+  void shutdownJettyServer() throws Exception {
+    _server.stop();
+  }
+
+  public void testHandshake() throws Exception {
+    String message = "[{\"channel\":\"/meta/handshake\",\"version\":\"1.0\",\"supportedConnectionTypes\":[\"long-polling\"]}]";
+    HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + PORT + "/cometd").openConnection();
+    connection.setRequestMethod("POST");
+    connection.setDoOutput(true);
+    connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+    Writer writer = new OutputStreamWriter(connection.getOutputStream());
+    try {
+      writer.write("message=" + URLEncoder.encode(message, "UTF-8"));
+    } finally {
+      writer.close();
+    }
+    assertEquals(HttpURLConnection.HTTP_OK, connection.getResponseCode());
+    StringBuilder builder = new StringBuilder();
+    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
+    try {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        builder.append(line);
+      }
+    } finally {
+      reader.close();
+      connection.disconnect();
+    }
+    JSONObject reply = new JSONArray(builder.toString()).getJSONObject(0);
+    assertEquals("/meta/handshake", reply.getString("channel"));
+    assertTrue(reply.getBoolean("successful"));
+  }
+
+}
@@ -42,6 +42,15 @@ public class TestChangeManager implements ChangeManager, ChangeProvider {
     }
   }
 
+  @Override
+  public void entitiesChanged(List<ChangeEvent> events) {
+    for (ChangeEvent event : events) {
+      for (ChangeListener listener : _listeners) {
+        listener.entityChanged(event);
+      }
+    }
+  }
+
   @Override
   public ChangeManager changeManager() {
     return this;
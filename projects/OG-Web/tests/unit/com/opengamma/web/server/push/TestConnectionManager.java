@@ -50,6 +50,11 @@ public class TestConnectionManager implements ConnectionManager {
     throw new UnsupportedOperationException("subscribe not implemented");
   }
   
+  @Override
+  public ClientConnection getConnectionByClientId(String userId, String clientId) {
+    throw new UnsupportedOperationException("getConnectionByClientId not used in this test");
+  }
+
   public void sendUpdate(String update) {
     _listener.itemUpdated(update);
   }
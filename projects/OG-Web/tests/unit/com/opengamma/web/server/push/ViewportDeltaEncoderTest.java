@@ -0,0 +1,176 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.web.server.push;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.opengamma.web.server.push.analytics.ViewportResults;
+import com.opengamma.web.server.push.analytics.ViewportResultsJsonWriter;
+
+/**
+ * Tests the {@link ViewportDeltaEncoder}.
+ */
+public class ViewportDeltaEncoderTest {
+
+  private static final String DATA_ID = "/jax/views/1/portfolio/viewports/2/data";
+  /** Grid row indices of the viewport rows */
+  private static final List<Integer> ROWS = Arrays.asList(3, 7);
+  /** Grid column indices of the viewport columns */
+  private static final List<Integer> COLS = Arrays.asList(0, 5);
+
+  private ViewportResultsJsonWriter _writer;
+  private ViewportDeltaEncoder _encoder;
+
+  @BeforeMethod
+  public void setUp() {
+    _writer = mock(ViewportResultsJsonWriter.class);
+    when(_writer.getCellValue(any(ViewportResults.class), any(ViewportResults.Cell.class), anyInt())).thenAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(InvocationOnMock invocation) throws Throwable {
+        return ((ViewportResults.Cell) invocation.getArguments()[1]).getValue();
+      }
+    });
+    _encoder = new ViewportDeltaEncoder(_writer);
+  }
+
+  private static ViewportResults results(long version, String... values) {
+    List<ViewportResults.Cell> cells = Lists.newArrayList();
+    for (String value : values) {
+      cells.add(ViewportResults.stringCell(value));
+    }
+    return results(version, cells);
+  }
+
+  private static ViewportResults results(long version, List<ViewportResults.Cell> allCells) {
+    List<List<ViewportResults.Cell>> cells = Lists.newArrayList();
+    for (int row = 0; row < ROWS.size(); row++) {
+      cells.add(allCells.subList(row * COLS.size(), (row + 1) * COLS.size()));
+    }
+    ViewportResults results = mock(ViewportResults.class);
+    when(results.getResults()).thenReturn(cells);
+    when(results.getVersion()).thenReturn(version);
+    for (int i = 0; i < ROWS.size(); i++) {
+      when(results.getGridRowIndex(i)).thenReturn(ROWS.get(i));
+    }
+    for (int i = 0; i < COLS.size(); i++) {
+      when(results.getGridColumnIndex(i)).thenReturn(COLS.get(i));
+    }
+    return results;
+  }
+
+  /**
+   * Decodes a frame into a map of "row,col" to the cell's JSON.
+   */
+  private static Map<String, String> decode(byte[] frame, byte expectedType, long expectedVersion) throws IOException {
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(frame));
+    assertEquals(expectedType, input.readByte());
+    assertEquals(DATA_ID, input.readUTF());
+    assertEquals(expectedVersion, input.readLong());
+    int cellCount = input.readInt();
+    Map<String, String> cells = Maps.newHashMap();
+    for (int i = 0; i < cellCount; i++) {
+      String key = input.readInt() + "," + input.readInt();
+      byte[] value = new byte[input.readInt()];
+      input.readFully(value);
+      cells.put(key, new String(value, "UTF-8"));
+    }
+    assertEquals(-1, input.read());
+    return cells;
+  }
+
+  @Test
+  public void firstFrameIsFull() throws IOException {
+    Map<String, String> cells = decode(_encoder.encode(DATA_ID, results(1, "a", "b", "c", "d")), ViewportDeltaEncoder.FULL, 1);
+    Map<String, String> expected = Maps.newHashMap();
+    expected.put("3,0", "\"a\"");
+    expected.put("3,5", "\"b\"");
+    expected.put("7,0", "\"c\"");
+    expected.put("7,5", "\"d\"");
+    assertEquals(expected, cells);
+  }
+
+  @Test
+  public void unchangedDataNotSent() {
+    _encoder.encode(DATA_ID, results(1, "a", "b", "c", "d"));
+    assertNull(_encoder.encode(DATA_ID, results(1, "a", "b", "c", "d")));
+  }
+
+  @Test
+  public void onlyChangedCellsSent() throws IOException {
+    _encoder.encode(DATA_ID, results(1, "a", "b", "c", "d"));
+    Map<String, String> cells = decode(_encoder.encode(DATA_ID, results(1, "a", "b", "x", "d")), ViewportDeltaEncoder.DELTA, 1);
+    Map<String, String> expected = Maps.newHashMap();
+    expected.put("7,0", "\"x\"");
+    assertEquals(expected, cells);
+  }
+
+  @Test
+  public void newVersionIsFull() throws IOException {
+    _encoder.encode(DATA_ID, results(1, "a", "b", "c", "d"));
+    assertEquals(4, decode(_encoder.encode(DATA_ID, results(2, "a", "b", "c", "d")), ViewportDeltaEncoder.FULL, 2).size());
+  }
+
+  @Test
+  public void closedViewportForgotten() throws IOException {
+    _encoder.encode(DATA_ID, results(1, "a", "b", "c", "d"));
+    _encoder.viewportClosed(DATA_ID);
+    assertEquals(4, decode(_encoder.encode(DATA_ID, results(1, "a", "b", "c", "d")), ViewportDeltaEncoder.FULL, 1).size());
+  }
+
+  /**
+   * Cells showing the same results cache item as the previous frame can't have changed so aren't converted again.
+   */
+  @Test
+  public void unchangedCachedCellsNotConverted() throws IOException {
+    List<ViewportResults.Cell> first = Lists.newArrayList();
+    for (String value : new String[]{"a", "b", "c", "d"}) {
+      first.add(cachedCell(value));
+    }
+    _encoder.encode(DATA_ID, results(1, first));
+    List<ViewportResults.Cell> second = Lists.newArrayList();
+    for (ViewportResults.Cell cell : first) {
+      ViewportResults.Cell sameItem = cachedCell(cell.getValue());
+      when(sameItem.isSameCachedValue(cell)).thenReturn(true);
+      second.add(sameItem);
+    }
+    ViewportResults.Cell updated = cachedCell("x");
+    second.set(2, updated);
+    Map<String, String> cells = decode(_encoder.encode(DATA_ID, results(1, second)), ViewportDeltaEncoder.DELTA, 1);
+    Map<String, String> expected = Maps.newHashMap();
+    expected.put("7,0", "\"x\"");
+    assertEquals(expected, cells);
+    verify(_writer, times(5)).getCellValue(any(ViewportResults.class), any(ViewportResults.Cell.class), anyInt());
+    verify(_writer).getCellValue(any(ViewportResults.class), eq(updated), anyInt());
+  }
+
+  private static ViewportResults.Cell cachedCell(Object value) {
+    ViewportResults.Cell cell = mock(ViewportResults.Cell.class);
+    when(cell.getValue()).thenReturn(value);
+    return cell;
+  }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.web.server.push;
+
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Collections;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.eclipse.jetty.websocket.WebSocket;
+import org.springframework.mock.web.MockServletConfig;
+import org.springframework.mock.web.MockServletContext;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.opengamma.DataNotFoundException;
+import com.opengamma.web.server.push.analytics.ViewportResults;
+import com.opengamma.web.server.push.analytics.ViewportResultsJsonWriter;
+import com.opengamma.web.server.push.analytics.formatting.ResultsFormatter;
+
+/**
+ * Tests connecting clients to {@link WebSocketPushServlet} and switching their updates between the WebSocket and
+ * the long-polling connection.
+ */
+@SuppressWarnings("unchecked")
+public class WebSocketPushServletTest {
+
+  private static final String USER_ID = "USER_ID";
+  private static final String CLIENT_ID = "CLIENT_ID";
+  private static final String DATA_ID = "/jax/views/1/portfolio/viewports/2/data";
+
+  private RestUpdateListener _longPollingListener;
+  private ClientConnection _clientConnection;
+  private WebSocketPushServlet _servlet;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    _longPollingListener = mock(RestUpdateListener.class);
+    _clientConnection = new ClientConnection(USER_ID, CLIENT_ID, _longPollingListener, mock(ConnectionTimeoutTask.class));
+    ConnectionManager connectionManager = mock(ConnectionManager.class);
+    when(connectionManager.getConnectionByClientId(USER_ID, CLIENT_ID)).thenReturn(_clientConnection);
+    when(connectionManager.getConnectionByClientId(USER_ID, "UNKNOWN")).thenThrow(new DataNotFoundException("UNKNOWN"));
+    MockServletContext servletContext = new MockServletContext();
+    WebPushServletContextUtils.setConnectionManager(servletContext, connectionManager);
+    WebPushServletContextUtils.setViewportResultsWriter(servletContext, new ViewportResultsJsonWriter(new ResultsFormatter()));
+    _servlet = new WebSocketPushServlet();
+    _servlet.init(new MockServletConfig(servletContext));
+  }
+
+  private static HttpServletRequest request(String clientId) {
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getRemoteUser()).thenReturn(USER_ID);
+    when(request.getServletPath()).thenReturn("/websocket");
+    when(request.getRequestURI()).thenReturn(clientId == null ? "/websocket" : "/websocket/" + clientId);
+    return request;
+  }
+
+  @Test
+  public void missingClientIdRejected() {
+    assertNull(_servlet.doWebSocketConnect(request(null), null));
+  }
+
+  @Test
+  public void unknownClientIdRejected() {
+    assertNull(_servlet.doWebSocketConnect(request("UNKNOWN"), null));
+  }
+
+  @Test
+  public void updatesSentOverOpenWebSocket() throws Exception {
+    WebSocket.OnTextMessage webSocket = (WebSocket.OnTextMessage) _servlet.doWebSocketConnect(request(CLIENT_ID), null);
+    assertNotNull(webSocket);
+    WebSocket.Connection connection = mock(WebSocket.Connection.class);
+    when(connection.isOpen()).thenReturn(true);
+    webSocket.onOpen(connection);
+    assertTrue(_clientConnection.isPushingViewportData());
+
+    _clientConnection.gridDataChanged(DATA_ID);
+    verify(connection).sendMessage(anyString());
+    verify(_longPollingListener, never()).itemsUpdated(anyCollection());
+    verify(_longPollingListener, never()).itemUpdated(anyString());
+  }
+
+  @Test
+  public void longPollingUsedAfterWebSocketClosed() throws Exception {
+    WebSocket.OnTextMessage webSocket = (WebSocket.OnTextMessage) _servlet.doWebSocketConnect(request(CLIENT_ID), null);
+    WebSocket.Connection connection = mock(WebSocket.Connection.class);
+    when(connection.isOpen()).thenReturn(true);
+    webSocket.onOpen(connection);
+    webSocket.onClose(1000, null);
+    assertFalse(_clientConnection.isPushingViewportData());
+
+    _clientConnection.viewportDataChanged(Collections.singletonMap(DATA_ID, mock(ViewportResults.class)));
+    verify(_longPollingListener).itemsUpdated(Collections.singleton(DATA_ID));
+    verify(connection, never()).sendMessage(anyString());
+  }
+}
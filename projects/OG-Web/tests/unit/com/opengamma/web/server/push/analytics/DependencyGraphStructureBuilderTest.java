@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.web.server.push.analytics;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.opengamma.engine.ComputationTarget;
+import com.opengamma.engine.ComputationTargetResolver;
+import com.opengamma.engine.ComputationTargetType;
+import com.opengamma.engine.depgraph.DependencyGraph;
+import com.opengamma.engine.depgraph.DependencyGraphExplorerImpl;
+import com.opengamma.engine.depgraph.DependencyNode;
+import com.opengamma.engine.function.MarketDataSourcingFunction;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueRequirement;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.compilation.CompiledViewDefinitionWithGraphs;
+import com.opengamma.id.UniqueId;
+
+/**
+ * Tests building the grid structure of a dependency graph, including truncating deep graphs.
+ */
+@Test
+public class DependencyGraphStructureBuilderTest {
+
+  private static final String CALC_CONFIG = "Default";
+
+  private static ValueSpecification spec(String name) {
+    return new ValueSpecification("Value",
+                                  new ComputationTarget(ComputationTargetType.PRIMITIVE, UniqueId.of("Test", name)).toSpecification(),
+                                  ValueProperties.with(ValuePropertyNames.FUNCTION, "Fn").get());
+  }
+
+  private static DependencyNode node(String name, DependencyNode... inputs) {
+    ComputationTarget target = new ComputationTarget(ComputationTargetType.PRIMITIVE, UniqueId.of("Test", name));
+    DependencyNode node = new DependencyNode(target);
+    node.setFunction(new MarketDataSourcingFunction(new ValueRequirement("Value", target.toSpecification())));
+    for (DependencyNode input : inputs) {
+      node.addInputNode(input);
+      node.addInputValue(input.getOutputValues().iterator().next());
+    }
+    node.addOutputValue(spec(name));
+    return node;
+  }
+
+  /**
+   * <pre>
+   *   root
+   *    |
+   *   mid
+   *    |  \
+   *  left  right
+   *    |  /
+   *   leaf
+   * </pre>
+   */
+  private static CompiledViewDefinitionWithGraphs viewDef() {
+    DependencyNode leaf = node("leaf");
+    DependencyNode left = node("left", leaf);
+    DependencyNode right = node("right", leaf);
+    DependencyNode mid = node("mid", left, right);
+    DependencyNode root = node("root", mid);
+    DependencyGraph graph = new DependencyGraph(CALC_CONFIG);
+    for (DependencyNode node : Arrays.asList(leaf, left, right, mid, root)) {
+      graph.addDependencyNode(node);
+    }
+    CompiledViewDefinitionWithGraphs viewDef = mock(CompiledViewDefinitionWithGraphs.class);
+    when(viewDef.getDependencyGraphExplorer(CALC_CONFIG)).thenReturn(new DependencyGraphExplorerImpl(graph));
+    return viewDef;
+  }
+
+  private static DependencyGraphGridStructure structure(int maxDepth) {
+    return new DependencyGraphStructureBuilder(viewDef(),
+                                               spec("root"),
+                                               CALC_CONFIG,
+                                               mock(ComputationTargetResolver.class),
+                                               maxDepth).getStructure();
+  }
+
+  private static List<String> functionColumn(DependencyGraphGridStructure structure) {
+    List<String> names = Lists.newArrayList();
+    for (int i = 0; i < structure.getRowCount(); i++) {
+      names.add((String) structure.getValueForColumn(4, structure.getRow(i), null, null, CALC_CONFIG).getValue());
+    }
+    return names;
+  }
+
+  public void sharedInputsShownUnderEachValue() {
+    DependencyGraphGridStructure structure = structure(DependencyGraphStructureBuilder.DEFAULT_MAX_DEPTH);
+    // root, mid, left, leaf, right, leaf
+    assertEquals(6, structure.getRowCount());
+    for (int i = 0; i < structure.getRowCount(); i++) {
+      assertEquals(0, structure.getRow(i).getHiddenValueCount());
+    }
+    assertEquals(0, structure.getRoot().getStartRow());
+    assertEquals(5, structure.getRoot().getEndRow());
+  }
+
+  public void truncatedRowsMarked() {
+    DependencyGraphGridStructure structure = structure(2);
+    // root, mid, left, right - the leaf below left and right isn't shown
+    assertEquals(4, structure.getRowCount());
+    assertEquals(spec("root"), structure.getRow(0).getValueSpec());
+    assertEquals(spec("mid"), structure.getRow(1).getValueSpec());
+    assertEquals(0, structure.getRow(0).getHiddenValueCount());
+    assertEquals(0, structure.getRow(1).getHiddenValueCount());
+    assertEquals(1, structure.getRow(2).getHiddenValueCount());
+    assertEquals(1, structure.getRow(3).getHiddenValueCount());
+    List<String> functions = functionColumn(structure);
+    String fnName = structure.getRow(2).getFunctionName();
+    assertEquals(fnName, functions.get(1));
+    assertEquals(fnName + " (1 more value not shown)", functions.get(2));
+    assertEquals(fnName + " (1 more value not shown)", functions.get(3));
+  }
+
+  public void rootOnly() {
+    DependencyGraphGridStructure structure = structure(0);
+    assertEquals(1, structure.getRowCount());
+    // mid, left, right and leaf are hidden
+    assertEquals(4, structure.getRow(0).getHiddenValueCount());
+  }
+}
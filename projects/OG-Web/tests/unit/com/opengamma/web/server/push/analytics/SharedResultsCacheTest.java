@@ -0,0 +1,212 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.web.server.push.analytics;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.time.Instant;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.engine.ComputationTargetSpecification;
+import com.opengamma.engine.value.ComputedValue;
+import com.opengamma.engine.value.ValueProperties;
+import com.opengamma.engine.value.ValuePropertyNames;
+import com.opengamma.engine.value.ValueSpecification;
+import com.opengamma.engine.view.InMemoryViewComputationResultModel;
+import com.opengamma.engine.view.InMemoryViewDeltaResultModel;
+import com.opengamma.id.UniqueId;
+import com.opengamma.web.server.push.analytics.formatting.ResultsFormatter;
+
+/**
+ *
+ */
+public class SharedResultsCacheTest {
+
+  private static final String CALC_CONFIG = "Default";
+  private static final UniqueId VIEW_PROCESS_ID = UniqueId.of("ViewProcess", "1");
+  private static final ValueSpecification VALUE_SPEC =
+      new ValueSpecification("Present Value", new ComputationTargetSpecification("Foo"), ValueProperties.with(ValuePropertyNames.FUNCTION, "Fn").get());
+
+  private static InMemoryViewComputationResultModel results(int cycle, double value) {
+    InMemoryViewComputationResultModel results = new InMemoryViewComputationResultModel();
+    results.setViewProcessId(VIEW_PROCESS_ID);
+    results.setViewCycleId(UniqueId.of("ViewCycle", Integer.toString(cycle)));
+    results.addValue(CALC_CONFIG, new ComputedValue(VALUE_SPEC, value));
+    return results;
+  }
+
+  @Test
+  public void versionsSharedByCycle() {
+    SharedResultsCache cache = new SharedResultsCache();
+    InMemoryViewComputationResultModel cycle1 = results(1, 1d);
+    ResultsCache version1 = cache.getResults(cycle1);
+    // a second client receiving the same cycle gets the same version
+    assertSame(version1, cache.getResults(cycle1));
+    ResultsCache version2 = cache.getResults(results(2, 2d));
+    assertNotSame(version1, version2);
+    assertTrue(version2.getUpdateId() > version1.getUpdateId());
+    // earlier versions are unaffected by later results
+    assertEquals(1d, version1.getResult(CALC_CONFIG, VALUE_SPEC, Double.class).getValue());
+    assertEquals(2d, version2.getResult(CALC_CONFIG, VALUE_SPEC, Double.class).getValue());
+    assertEquals(1, version1.getHistory(CALC_CONFIG, VALUE_SPEC).size());
+    assertEquals(2, version2.getHistory(CALC_CONFIG, VALUE_SPEC).size());
+  }
+
+  @Test
+  public void lateDiscardedCycleDoesNotReplaceLatest() {
+    SharedResultsCache cache = new SharedResultsCache();
+    InMemoryViewComputationResultModel cycle1 = results(1, 1d);
+    cache.getResults(cycle1);
+    ResultsCache latest = null;
+    for (int i = 2; i <= 6; i++) {
+      latest = cache.getResults(results(i, (double) i));
+    }
+    // the version for cycle 1 has been discarded, a client that has fallen behind gets the latest version
+    assertSame(latest, cache.getResults(cycle1));
+    assertSame(latest, cache.getLatest());
+    assertEquals(6d, cache.getLatest().getResult(CALC_CONFIG, VALUE_SPEC, Double.class).getValue());
+    assertEquals(latest.getUpdateId(), cache.getResults(results(7, 7d)).getUpdateId() - 1);
+  }
+
+  @Test
+  public void unseenOlderCycleDoesNotReplaceLatest() {
+    SharedResultsCache cache = new SharedResultsCache();
+    InMemoryViewComputationResultModel cycle2 = results(2, 2d);
+    cycle2.setCalculationTime(Instant.ofEpochMillis(2000));
+    ResultsCache latest = cache.getResults(cycle2);
+    InMemoryViewComputationResultModel cycle1 = results(1, 1d);
+    cycle1.setCalculationTime(Instant.ofEpochMillis(1000));
+    assertSame(latest, cache.getResults(cycle1));
+    assertEquals(2d, cache.getLatest().getResult(CALC_CONFIG, VALUE_SPEC, Double.class).getValue());
+  }
+
+  @Test
+  public void unchangedValuesCarriedForward() {
+    ValueSpecification otherSpec = new ValueSpecification("Present Value", new ComputationTargetSpecification("Bar"),
+        ValueProperties.with(ValuePropertyNames.FUNCTION, "Fn").get());
+    InMemoryViewComputationResultModel cycle1 = results(1, 1d);
+    cycle1.addValue(CALC_CONFIG, new ComputedValue(otherSpec, 10d));
+    SharedResultsCache cache = new SharedResultsCache();
+    ResultsCache version1 = cache.getResults(cycle1);
+    ResultsCache version2 = cache.getResults(results(2, 2d));
+    assertEquals(2d, version2.getResult(CALC_CONFIG, VALUE_SPEC, Double.class).getValue());
+    assertEquals(10d, version2.getResult(CALC_CONFIG, otherSpec, Double.class).getValue());
+    assertTrue(version2.getResult(CALC_CONFIG, VALUE_SPEC, Double.class).isUpdated());
+    assertFalse(version2.getResult(CALC_CONFIG, otherSpec, Double.class).isUpdated());
+    assertEquals(1d, version1.getResult(CALC_CONFIG, VALUE_SPEC, Double.class).getValue());
+  }
+
+  @Test
+  public void updatedSinceLastSeenVersion() {
+    ValueSpecification otherSpec = new ValueSpecification("Present Value", new ComputationTargetSpecification("Bar"),
+        ValueProperties.with(ValuePropertyNames.FUNCTION, "Fn").get());
+    SharedResultsCache cache = new SharedResultsCache();
+    InMemoryViewComputationResultModel cycle1 = results(1, 1d);
+    cycle1.addValue(CALC_CONFIG, new ComputedValue(otherSpec, 10d));
+    ResultsCache version1 = cache.getResults(cycle1);
+    InMemoryViewComputationResultModel cycle2 = results(2, 1d);
+    cycle2.addValue(CALC_CONFIG, new ComputedValue(otherSpec, 11d));
+    cache.getResults(cycle2);
+    InMemoryViewComputationResultModel cycle3 = results(3, 3d);
+    cycle3.addValue(CALC_CONFIG, new ComputedValue(otherSpec, 11d));
+    ResultsCache version3 = cache.getResults(cycle3);
+    // a client that last saw version 1 and skipped version 2 still sees the change made in version 2
+    assertTrue(version3.getResult(CALC_CONFIG, otherSpec, Double.class, version1.getUpdateId()).isUpdated());
+    assertFalse(version3.getResult(CALC_CONFIG, otherSpec, Double.class).isUpdated());
+    assertTrue(version3.getResult(CALC_CONFIG, VALUE_SPEC, Double.class, version1.getUpdateId()).isUpdated());
+    assertFalse(version3.getResult(CALC_CONFIG, VALUE_SPEC, Double.class, version3.getUpdateId()).isUpdated());
+  }
+
+  @Test
+  public void unchangedValueKeepsItem() {
+    SharedResultsCache cache = new SharedResultsCache();
+    ResultsCache version1 = cache.getResults(results(1, 1d));
+    ResultsCache version2 = cache.getResults(results(2, 1d));
+    assertSame(version1.getResult(CALC_CONFIG, VALUE_SPEC, Double.class).getItem(),
+        version2.getResult(CALC_CONFIG, VALUE_SPEC, Double.class).getItem());
+    assertFalse(version2.getResult(CALC_CONFIG, VALUE_SPEC, Double.class).isUpdated());
+    assertEquals(1, version2.getHistory(CALC_CONFIG, VALUE_SPEC).size());
+  }
+
+  @Test
+  public void deltaUsedWhenItFollowsLatest() {
+    ValueSpecification otherSpec = new ValueSpecification("Present Value", new ComputationTargetSpecification("Bar"),
+        ValueProperties.with(ValuePropertyNames.FUNCTION, "Fn").get());
+    SharedResultsCache cache = new SharedResultsCache();
+    InMemoryViewComputationResultModel cycle1 = results(1, 1d);
+    cycle1.addValue(CALC_CONFIG, new ComputedValue(otherSpec, 10d));
+    cycle1.setCalculationTime(Instant.ofEpochMillis(1000));
+    cache.getResults(cycle1, null);
+    // the full results differ from the delta in the other value so it's possible to tell which was used
+    InMemoryViewComputationResultModel cycle2 = results(2, 2d);
+    cycle2.addValue(CALC_CONFIG, new ComputedValue(otherSpec, 20d));
+    cycle2.setCalculationTime(Instant.ofEpochMillis(2000));
+    ResultsCache version2 = cache.getResults(cycle2, delta(2, 2d, Instant.ofEpochMillis(1000)));
+    assertEquals(2d, version2.getResult(CALC_CONFIG, VALUE_SPEC, Double.class).getValue());
+    assertEquals(10d, version2.getResult(CALC_CONFIG, otherSpec, Double.class).getValue());
+    // a delta from a cycle after the latest version misses changes so the full results are used
+    InMemoryViewComputationResultModel cycle4 = results(4, 4d);
+    cycle4.addValue(CALC_CONFIG, new ComputedValue(otherSpec, 40d));
+    cycle4.setCalculationTime(Instant.ofEpochMillis(4000));
+    ResultsCache version4 = cache.getResults(cycle4, delta(4, 4d, Instant.ofEpochMillis(3000)));
+    assertEquals(4d, version4.getResult(CALC_CONFIG, VALUE_SPEC, Double.class).getValue());
+    assertEquals(40d, version4.getResult(CALC_CONFIG, otherSpec, Double.class).getValue());
+  }
+
+  private static InMemoryViewDeltaResultModel delta(int cycle, double value, Instant previousCalculationTime) {
+    InMemoryViewDeltaResultModel delta = new InMemoryViewDeltaResultModel();
+    delta.setViewProcessId(VIEW_PROCESS_ID);
+    delta.setViewCycleId(UniqueId.of("ViewCycle", Integer.toString(cycle)));
+    delta.setPreviousCalculationTime(previousCalculationTime);
+    delta.addValue(CALC_CONFIG, new ComputedValue(VALUE_SPEC, value));
+    return delta;
+  }
+
+  @Test
+  public void historyIsBounded() {
+    SharedResultsCache cache = new SharedResultsCache();
+    ResultsCache version = null;
+    for (int i = 0; i < 30; i++) {
+      version = cache.getResults(results(i, (double) i));
+    }
+    List<Object> history = new ArrayList<Object>(version.getHistory(CALC_CONFIG, VALUE_SPEC));
+    assertEquals(20, history.size());
+    assertEquals(10d, history.get(0));
+    assertEquals(29d, history.get(19));
+  }
+
+  @Test
+  public void formattedValuesMemoized() {
+    ResultsCache version = ResultsCache.EMPTY.withResults(results(1, 1.5d));
+    ResultsFormatter formatter = new ResultsFormatter();
+    ResultsCache.Result result = version.getResult(CALC_CONFIG, VALUE_SPEC, Double.class);
+    ViewportResults.Cell cell1 = ViewportResults.cachedValueCell(result, VALUE_SPEC);
+    ViewportResults.Cell cell2 = ViewportResults.cachedValueCell(result, VALUE_SPEC);
+    assertEquals(formatter.formatForDisplay(1.5d, VALUE_SPEC), cell1.getFormattedValue(formatter, false));
+    assertSame(cell1.getFormattedValue(formatter, false), cell2.getFormattedValue(formatter, false));
+    assertSame(cell1.getFormattedHistory(formatter), cell2.getFormattedHistory(formatter));
+  }
+
+  @Test
+  public void cachesReleased() {
+    SharedResultsCaches caches = new SharedResultsCaches();
+    SharedResultsCache cache = caches.acquire(VIEW_PROCESS_ID);
+    assertSame(cache, caches.acquire(VIEW_PROCESS_ID));
+    caches.release(VIEW_PROCESS_ID);
+    assertEquals(1, caches.size());
+    caches.release(VIEW_PROCESS_ID);
+    assertEquals(0, caches.size());
+    assertFalse(cache == caches.acquire(VIEW_PROCESS_ID));
+  }
+}
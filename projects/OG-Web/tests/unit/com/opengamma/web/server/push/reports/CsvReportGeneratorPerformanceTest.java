@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.web.server.push.reports;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.zip.GZIPOutputStream;
+
+import javax.time.Instant;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.AbstractIterator;
+import com.opengamma.id.UniqueId;
+
+/**
+ * Measures the peak heap used when exporting a grid of 1M cells as CSV, writing rows as they are generated
+ * compared to building all of the rows before the report is written.
+ */
+@Test(enabled = false)
+public class CsvReportGeneratorPerformanceTest {
+
+  private static final Logger s_logger = LoggerFactory.getLogger(CsvReportGeneratorPerformanceTest.class);
+
+  private static final int ROWS = 100000;
+  private static final int COLUMNS = 10;
+
+  private static String[] createRow(int rowIndex) {
+    String[] row = new String[COLUMNS];
+    for (int i = 0; i < COLUMNS; i++) {
+      row[i] = Double.toString(rowIndex * 1000.0 + i + Math.random());
+    }
+    return row;
+  }
+
+  private static Iterable<String[]> streamedRows() {
+    return new Iterable<String[]>() {
+      @Override
+      public Iterator<String[]> iterator() {
+        return new AbstractIterator<String[]>() {
+          private int _rowIndex;
+
+          @Override
+          protected String[] computeNext() {
+            if (_rowIndex == ROWS) {
+              return endOfData();
+            }
+            return createRow(_rowIndex++);
+          }
+        };
+      }
+    };
+  }
+
+  private static Iterable<String[]> materializedRows() {
+    String[][] rows = new String[ROWS][];
+    for (int i = 0; i < ROWS; i++) {
+      rows[i] = createRow(i);
+    }
+    return Arrays.asList(rows);
+  }
+
+  private static ViewportData viewportData(Iterable<String[]> rows) {
+    return new ViewportData(new GridData(rows, new String[][]{new String[COLUMNS]}),
+                            GridData.empty(),
+                            Collections.<DependencyGraphGridData>emptyList(),
+                            Collections.<DependencyGraphGridData>emptyList(),
+                            Instant.now(),
+                            UniqueId.of("Test", "client"));
+  }
+
+  private static void resetPeakHeap() {
+    System.gc();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+  private static long getPeakHeap() {
+    long peak = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    return peak;
+  }
+
+  private static void export(String description, boolean streamed, boolean compressed) throws IOException {
+    resetPeakHeap();
+    long start = System.nanoTime();
+    ViewportData viewportData = viewportData(streamed ? streamedRows() : materializedRows());
+    CountingOutputStream countingStream = new CountingOutputStream(new NullOutputStream());
+    if (compressed) {
+      GZIPOutputStream gzipStream = new GZIPOutputStream(countingStream);
+      new CsvReportGenerator().generateReport(viewportData).writeTo(gzipStream);
+      gzipStream.finish();
+    } else {
+      new CsvReportGenerator().generateReport(viewportData).writeTo(countingStream);
+    }
+    long duration = System.nanoTime() - start;
+    s_logger.info("{}: {} bytes, {}ms, peak heap {}MB",
+                  new Object[] {description, countingStream.getByteCount(), duration / 1000000, getPeakHeap() / (1024 * 1024)});
+  }
+
+  public void export() throws IOException {
+    for (int i = 0; i < 3; i++) {
+      export("Materialized", false, false);
+      export("Streamed", true, false);
+      export("Streamed, gzip", true, true);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2012 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.web.server.push.reports;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+import javax.time.Instant;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.AbstractIterator;
+import com.opengamma.id.UniqueId;
+
+/**
+ * Tests the {@link CsvReportGenerator}.
+ */
+@Test
+public class CsvReportGeneratorTest {
+
+  private static final UniqueId VIEW_CLIENT_ID = UniqueId.of("Test", "client");
+  private static final Instant VALUATION_TIME = Instant.ofEpochMillis(0);
+
+  private static String write(ViewportData viewportData) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    new CsvReportGenerator().generateReport(viewportData).writeTo(outputStream);
+    return outputStream.toString("UTF-8");
+  }
+
+  public void writeGrids() throws IOException {
+    GridData portfolio = new GridData(new String[][]{{"1", "2"}, null, {"3", "4"}}, new String[][]{{"A", "B"}});
+    GridData primitives = new GridData(new String[][]{{"5"}}, new String[][]{{"C"}});
+    ViewportData viewportData = new ViewportData(portfolio,
+                                                 primitives,
+                                                 Collections.<DependencyGraphGridData>emptyList(),
+                                                 Collections.<DependencyGraphGridData>emptyList(),
+                                                 VALUATION_TIME,
+                                                 VIEW_CLIENT_ID);
+    String expected = VIEW_CLIENT_ID + "\n" +
+        "Valuation time: " + VALUATION_TIME + "\n\n" +
+        "Portfolio\n" +
+        "\"A\",\"B\"\n" +
+        "\"1\",\"2\"\n" +
+        "\"3\",\"4\"\n" +
+        "\n" +
+        "Primitives\n" +
+        "\"C\"\n" +
+        "\"5\"\n" +
+        "\n";
+    assertEquals(expected, write(viewportData));
+  }
+
+  /**
+   * Checks rows are pulled from the grid one at a time while the report is written rather than when it's created.
+   */
+  public void rowsGeneratedWhenWritten() throws IOException {
+    final int[] rowsGenerated = {0};
+    Iterable<String[]> rows = new Iterable<String[]>() {
+      @Override
+      public Iterator<String[]> iterator() {
+        return new AbstractIterator<String[]>() {
+          @Override
+          protected String[] computeNext() {
+            if (rowsGenerated[0] == 3) {
+              return endOfData();
+            }
+            return new String[]{Integer.toString(rowsGenerated[0]++)};
+          }
+        };
+      }
+    };
+    ViewportData viewportData = new ViewportData(new GridData(rows, new String[][]{{"Row"}}),
+                                                 GridData.empty(),
+                                                 Collections.<DependencyGraphGridData>emptyList(),
+                                                 Collections.<DependencyGraphGridData>emptyList(),
+                                                 VALUATION_TIME,
+                                                 VIEW_CLIENT_ID);
+    Report report = new CsvReportGenerator().generateReport(viewportData);
+    assertEquals(0, rowsGenerated[0]);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    report.writeTo(outputStream);
+    assertEquals(3, rowsGenerated[0]);
+    assertEquals(Arrays.asList("Portfolio", "\"Row\"", "\"0\"", "\"1\"", "\"2\""),
+                 Arrays.asList(outputStream.toString("UTF-8").split("\n")).subList(3, 8));
+  }
+}
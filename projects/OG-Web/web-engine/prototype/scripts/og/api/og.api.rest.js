@@ -24,7 +24,7 @@ $.register_module({
             },
             request_id = 1,
             MAX_INT = Math.pow(2, 31) - 1, PAGE_SIZE = 50, PAGE = 1, STALL = 500 /* 500ms */,
-            INSTANT = 0 /* 0ms */, RESUBSCRIBE = 30000 /* 20s */,
+            INSTANT = 0 /* 0ms */, RESUBSCRIBE = 30000 /* 20s */, HEARTBEAT = 60000 /* 1m */,
             TIMEOUTSOON = 120000 /* 2m */, TIMEOUTFOREVER = 7200000 /* 2h */,
             get_cache = function (key) {return common.get_cache(module.name + key);},
             set_cache = function (key, value) {return common.set_cache(module.name + key, value);},
@@ -125,6 +125,32 @@ $.register_module({
                 return send(), promise;
             },
             /** @ignore */
+            read_utf = function (view, offset, length) {
+                var chars = [], index;
+                for (index = 0; index < length; index += 1)
+                    chars.push(String.fromCharCode(view.getUint8(offset + index)));
+                return decodeURIComponent(escape(chars.join('')));
+            },
+            /**
+             * decodes a binary viewport frame pushed over the WebSocket (see ViewportDeltaEncoder)
+             * @ignore
+             */
+            decode_frame = function (buffer) {
+                var view = new DataView(buffer), offset = 0, length, frame = {cells: []}, count, row, col;
+                frame.full = view.getUint8(offset) === 1, offset += 1;
+                length = view.getUint16(offset), offset += 2;
+                frame.data_id = read_utf(view, offset, length), offset += length;
+                frame.version = view.getUint32(offset) * 4294967296 + view.getUint32(offset + 4), offset += 8;
+                count = view.getInt32(offset), offset += 4;
+                while (count--) {
+                    row = view.getInt32(offset), col = view.getInt32(offset + 4), length = view.getInt32(offset + 8);
+                    offset += 12;
+                    frame.cells.push({row: row, col: col, value: JSON.parse(read_utf(view, offset, length))});
+                    offset += length;
+                }
+                return frame;
+            },
+            /** @ignore */
             request_expired = function (request, current) {
                 return (current.page !== request.current.page) || request.dependencies.some(function (field) {
                     return current.args[field] !== request.current.args[field];
@@ -555,7 +581,7 @@ $.register_module({
         };
         common.clear_cache(module.name); // empty the cache from another session or window if it still exists
         api.subscribe = subscribe = api.handshake.get.partial({handler: function (result) {
-            var listen, fire_updates;
+            var listen, fire_updates, connect;
             if (result.error)
                 return warn(module.name + ': handshake failed\n', result.message), setTimeout(subscribe, RESUBSCRIBE);
             api.id = result.data['clientId'];
@@ -572,6 +598,36 @@ $.register_module({
                 });
                 handlers.forEach(function (reg) {reg.update(reg);});
             })(true, null); // there are no registrations when subscribe() is called unless the connection's been reset
+            // the server pushes updates over a WebSocket while one is open, long polling is the fallback
+            connect = function () {
+                var socket, opened = false, heartbeat, protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:';
+                try {
+                    socket = new WebSocket(protocol + '//' + window.location.host + '/websocket/' + api.id);
+                } catch (error) {
+                    return listen();
+                }
+                socket.binaryType = 'arraybuffer';
+                socket.onopen = function () {
+                    opened = true;
+                    heartbeat = setInterval(function () {socket.send('heartbeat');}, HEARTBEAT);
+                };
+                socket.onmessage = function (event) {
+                    var frame, handlers = [];
+                    if (typeof event.data === 'string') return fire_updates(false, {data: JSON.parse(event.data)});
+                    // viewport data frames carry the changed cells, handlers receive them as reg.pushed
+                    frame = decode_frame(event.data);
+                    registrations = registrations.filter(function (reg) {
+                        return reg.url === frame.data_id ? handlers.push($.extend({pushed: frame}, reg)) && false : true;
+                    });
+                    handlers.forEach(function (reg) {reg.update(reg);});
+                };
+                socket.onclose = function () {
+                    clearInterval(heartbeat);
+                    // the server sends updates by long polling again once the socket is closed
+                    listen();
+                    if (!opened) warn(module.name + ': WebSocket unavailable, using long polling');
+                };
+            };
             (listen = function () {
                 api.updates.get({handler: function (result) {
                     if (result.error) {
@@ -582,7 +638,8 @@ $.register_module({
                     fire_updates(false, result);
                     setTimeout(listen, INSTANT);
                 }});
-            })();
+            });
+            if (window.WebSocket && window.DataView) connect(); else listen();
         }});
         return api;
     }